@@ -0,0 +1,128 @@
+/*
+ * LocalizedStrings.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor;
+
+import denver.svgeditor.svg.NameTable;
+
+import net.rim.device.api.i18n.Locale;
+
+/**
+ * Resolves the strings of the application's resource bundle, each once per
+ * locale. A string is looked up in the bundle the first time its ID is
+ * requested and kept in a flat array indexed by ID, so that menus, status
+ * messages and the welcome screen, which ask for the same strings whenever
+ * they are shown or painted, do not look them up or allocate anything
+ * again. The strings are interned in a {@link NameTable}, which starts with
+ * the names shared with parsed documents, so that equal strings are one
+ * object. When the default locale changes, the strings are discarded and
+ * resolved again in the new locale as they are requested.
+ * <p>
+ * The strings are process-wide, and the methods of this class may be
+ * invoked from any thread.
+ */
+public class LocalizedStrings {
+
+    private static String[] strings = new String[64];
+    private static NameTable interned;
+    private static Locale locale;
+    private static int resolvedCount;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private LocalizedStrings() {
+    }
+
+    /**
+     * Returns a string from the application's resource bundle in the
+     * default locale.
+     *
+     * @param id the ID of the string, one of the constants of
+     * {@link denver.svgeditor.strings.SVGEditorResource}
+     * @return the string with the given ID; the same object is returned for
+     * the same ID until the default locale changes; never returns null
+     * @throws IllegalArgumentException if id is negative or the bundle has
+     * no string with the given ID
+     */
+    public static synchronized String get(int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("invalid id: " + id);
+        }
+        final Locale current = Locale.getDefault();
+        if (current != locale
+            && (current == null || !current.equals(locale))) {
+            clear();
+            locale = current;
+        }
+
+        String[] strings = LocalizedStrings.strings;
+        if (id < strings.length) {
+            final String string = strings[id];
+            if (string != null) {
+                return string;
+            }
+        } else {
+            final String[] newStrings =
+                new String[Math.max(id + 1, strings.length * 2)];
+            System.arraycopy(strings, 0, newStrings, 0, strings.length);
+            strings = newStrings;
+            LocalizedStrings.strings = newStrings;
+        }
+
+        final String string = Main.getResourceBundle().getString(id);
+        if (string == null) {
+            throw new IllegalArgumentException("no string with id " + id);
+        }
+        if (interned == null) {
+            interned = new NameTable();
+        }
+        final String result = interned.getName(interned.intern(string));
+        strings[id] = result;
+        resolvedCount++;
+        return result;
+    }
+
+    /**
+     * Returns the number of strings resolved from the resource bundle since
+     * the default locale last changed.
+     *
+     * @return the number of strings that have been looked up in the bundle
+     */
+    public static synchronized int getResolvedCount() {
+        return resolvedCount;
+    }
+
+    /**
+     * Discards the resolved strings, so that each is looked up in the bundle
+     * again when it is next requested.
+     */
+    public static synchronized void clear() {
+        final String[] strings = LocalizedStrings.strings;
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = null;
+        }
+        interned = null;
+        resolvedCount = 0;
+    }
+}
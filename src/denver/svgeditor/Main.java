@@ -24,14 +24,13 @@
 package denver.svgeditor;
 
 import denver.svgeditor.strings.SVGEditorResource;
-import denver.svgeditor.ui.PushScreenRunnable;
+import denver.svgeditor.ui.BitmapCache;
 import denver.svgeditor.ui.SVGEditorScreen;
 
 import net.rim.device.api.i18n.ResourceBundle;
 import net.rim.device.api.system.ApplicationDescriptor;
 import net.rim.device.api.system.EncodedImage;
 import net.rim.device.api.ui.UiApplication;
-import net.rim.device.api.util.StringProvider;
 
 public class Main extends UiApplication implements Runnable {
 
@@ -61,14 +60,15 @@ public class Main extends UiApplication implements Runnable {
 
     /**
      * Runs this application based on the args that were given to the
-     * constructor.
+     * constructor. This method is queued onto the event thread by
+     * {@link #main(String[])} before the event dispatcher is entered, so it
+     * runs as soon as the dispatcher starts, without a thread waiting for it.
+     * It only does the work needed for the first paint of the main screen;
+     * anything else is deferred until after that paint or until it is first
+     * used.
      */
     public void run() {
-
-        // wait for the event thread to start to avoid any race conditions
-        while (!this.hasEventThread()) {
-            Thread.yield();
-        }
+        StartupProfile.mark(StartupProfile.PHASE_EVENT_THREAD);
 
         // process the args (at this point this is just to suppress warnings)
         final String[] args = this.getArgs();
@@ -79,16 +79,21 @@ public class Main extends UiApplication implements Runnable {
             }
         }
 
-        // create the screen title (ignore any exceptions)
+        // create the screen title, searching the code modules only once
+        // (ignore any exceptions)
         String screenTitle = "SVG Editor";
         try {
-            final String title = getTitle();
-            if (title != null) {
-                screenTitle = title;
-            }
-            final String version = getVersion();
-            if (version != null) {
-                screenTitle += " " + version;
+            final ApplicationDescriptor descriptor =
+                Util.getApplicationDescriptorForClass(Main.class);
+            if (descriptor != null) {
+                final String title = descriptor.getLocalizedName();
+                if (title != null) {
+                    screenTitle = title;
+                }
+                final String version = descriptor.getVersion();
+                if (version != null) {
+                    screenTitle += " " + version;
+                }
             }
         } catch (final SecurityException e) {
             // permission to access code module management denied; oh well
@@ -97,7 +102,9 @@ public class Main extends UiApplication implements Runnable {
         // create the main screen and push it onto the display stack
         final SVGEditorScreen screen = new SVGEditorScreen();
         screen.setTitle(screenTitle);
-        this.invokeAndWait(new PushScreenRunnable(screen, this));
+        StartupProfile.mark(StartupProfile.PHASE_SCREEN_CREATED);
+        this.pushScreen(screen);
+        StartupProfile.mark(StartupProfile.PHASE_SCREEN_PUSHED);
     }
 
     /**
@@ -114,21 +121,24 @@ public class Main extends UiApplication implements Runnable {
             final long bundleId = SVGEditorResource.BUNDLE_ID;
             final String bundleName = SVGEditorResource.BUNDLE_NAME;
             resourceBundle = ResourceBundle.getBundle(bundleId, bundleName);
+            Main.resourceBundle = resourceBundle;
         }
         return resourceBundle;
     }
 
     /**
-     * Creates and returns a StringProvider for a string from this application's
-     * resource bundle.
+     * Returns a string from this application's resource bundle (the one
+     * returned from {@link #getResourceBundle()}) in the default locale. The
+     * string is resolved once per locale by {@link LocalizedStrings}.
      * 
      * @param id the ID of the string to return
-     * @return a newly-created StringProvider created from this application's
-     * resource bundle (the one returned from {@link #getResourceBundle()})
-     * whose value is the string with the given ID; never returns null
+     * @return the string with the given ID; the same object is returned for
+     * the same ID until the default locale changes; never returns null
+     * @throws IllegalArgumentException if the bundle has no string with the
+     * given ID
      */
-    public static StringProvider getString(int id) {
-        return new StringProvider(SVGEditorResource.BUNDLE_NAME, id);
+    public static String getString(int id) {
+        return LocalizedStrings.get(id);
     }
 
     /**
@@ -168,7 +178,9 @@ public class Main extends UiApplication implements Runnable {
     }
 
     /**
-     * Loads an image resource.
+     * Loads an image resource. The image is loaded once and kept in the
+     * shared {@link BitmapCache}, from which its decoded bitmap should also be
+     * obtained so that screens which are created again do not decode it again.
      * 
      * @param path the path of the resource to load
      * @return the EncodedImage that was loaded; returns null if no image with
@@ -176,18 +188,7 @@ public class Main extends UiApplication implements Runnable {
      * @throws NullPointerException if path==null
      */
     public static EncodedImage loadImageResource(String path) {
-        if (path == null) {
-            throw new NullPointerException("path==null");
-        }
-
-        EncodedImage image;
-        try {
-            image = EncodedImage.getEncodedImageResource(path);
-        } catch (final IllegalArgumentException e) {
-            return null; // image is malformed or does not exist
-        }
-
-        return image;
+        return BitmapCache.getInstance().getEncodedImage(path);
     }
 
     /**
@@ -196,8 +197,9 @@ public class Main extends UiApplication implements Runnable {
      * @param args the startup arguments; may be null
      */
     public static void main(String[] args) {
+        StartupProfile.start();
         final Main app = new Main(args);
-        new Thread(app).start();
+        app.invokeLater(app);
         app.enterEventDispatcher();
     }
 }
@@ -0,0 +1,212 @@
+/*
+ * StartupProfile.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor;
+
+/**
+ * Records the time at which each phase of launching the application
+ * completed, relative to the start of {@link Main#main(String[])}, so that
+ * the cost of each phase can be read back and regressions in launch time
+ * show up as numbers. Phases are recorded in the order in which they are
+ * marked; marking a phase a second time is ignored, so that phases which may
+ * be reached more than once, such as the first paint, record their first
+ * occurrence only.
+ * <p>
+ * The profile is a process-wide singleton, and its methods may be invoked
+ * from any thread.
+ */
+public class StartupProfile {
+
+    /**
+     * The maximum number of phases that are recorded; marks beyond this are
+     * ignored.
+     */
+    public static final int MAX_PHASES = 32;
+
+    /**
+     * The phase marked when {@link Main#main(String[])} is entered.
+     */
+    public static final String PHASE_MAIN = "main";
+
+    /**
+     * The phase marked when the event dispatcher runs the first task.
+     */
+    public static final String PHASE_EVENT_THREAD = "event thread";
+
+    /**
+     * The phase marked when the main screen has been constructed.
+     */
+    public static final String PHASE_SCREEN_CREATED = "screen created";
+
+    /**
+     * The phase marked when the main screen has been pushed.
+     */
+    public static final String PHASE_SCREEN_PUSHED = "screen pushed";
+
+    /**
+     * The phase marked when the main screen is first painted.
+     */
+    public static final String PHASE_FIRST_PAINT = "first paint";
+
+    /**
+     * The phase marked when the deferred work after the first paint, such as
+     * decoding the icons of the welcome field, has completed.
+     */
+    public static final String PHASE_IDLE = "deferred work done";
+
+    private static final String[] names = new String[MAX_PHASES];
+    private static final long[] times = new long[MAX_PHASES];
+    private static long startTime;
+    private static int count;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StartupProfile() {
+    }
+
+    /**
+     * Starts the profile, discarding any phases already recorded, and marks
+     * {@link #PHASE_MAIN}.
+     */
+    public static synchronized void start() {
+        startTime = System.currentTimeMillis();
+        count = 0;
+        mark(PHASE_MAIN);
+    }
+
+    /**
+     * Records that a phase has completed. This method does nothing if the
+     * phase has already been recorded or the profile is full.
+     *
+     * @param phase the name of the phase
+     * @throws NullPointerException if phase==null
+     */
+    public static synchronized void mark(String phase) {
+        if (phase == null) {
+            throw new NullPointerException("phase==null");
+        }
+        final long now = System.currentTimeMillis();
+        if (count == MAX_PHASES || indexOf(phase) >= 0) {
+            return;
+        }
+        names[count] = phase;
+        times[count] = now - startTime;
+        count++;
+    }
+
+    /**
+     * Returns whether a phase has been recorded.
+     *
+     * @param phase the name of the phase
+     * @return true if the phase has been recorded
+     */
+    public static synchronized boolean isMarked(String phase) {
+        return indexOf(phase) >= 0;
+    }
+
+    /**
+     * Returns the number of phases recorded.
+     *
+     * @return the number of phases
+     */
+    public static synchronized int getPhaseCount() {
+        return count;
+    }
+
+    /**
+     * Returns the name of a recorded phase.
+     *
+     * @param index the index of the phase, in the order recorded
+     * @return the name of the phase
+     * @throws IndexOutOfBoundsException if index is not a valid index
+     */
+    public static synchronized String getPhaseName(int index) {
+        checkIndex(index);
+        return names[index];
+    }
+
+    /**
+     * Returns the time at which a recorded phase completed.
+     *
+     * @param index the index of the phase, in the order recorded
+     * @return the number of milliseconds from the start of the profile to
+     * the completion of the phase
+     * @throws IndexOutOfBoundsException if index is not a valid index
+     */
+    public static synchronized long getPhaseTime(int index) {
+        checkIndex(index);
+        return times[index];
+    }
+
+    /**
+     * Returns the time at which a phase completed.
+     *
+     * @param phase the name of the phase
+     * @return the number of milliseconds from the start of the profile to
+     * the completion of the phase, or -1 if the phase has not been recorded
+     */
+    public static synchronized long getPhaseTime(String phase) {
+        final int index = indexOf(phase);
+        return (index < 0) ? -1 : times[index];
+    }
+
+    /**
+     * Returns a human-readable report of the recorded phases, one per line,
+     * giving the time at which each completed and the time it took since the
+     * previous phase.
+     *
+     * @return the report; never returns null
+     */
+    public static synchronized String getReport() {
+        final StringBuffer report = new StringBuffer();
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            report.append(names[i]).append(": ").append(times[i]).append(
+                " ms (+").append(times[i] - previous).append(" ms)\n");
+            previous = times[i];
+        }
+        return report.toString();
+    }
+
+    /**
+     * Returns the index of a recorded phase, or -1 if it is not recorded.
+     */
+    private static int indexOf(String phase) {
+        for (int i = count - 1; i >= 0; i--) {
+            if (names[i].equals(phase)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Verifies that a phase index is valid.
+     */
+    private static void checkIndex(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("invalid phase: " + index);
+        }
+    }
+}
@@ -23,6 +23,12 @@
  */
 package denver.svgeditor;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.microedition.io.Connection;
+
 import net.rim.device.api.system.ApplicationDescriptor;
 import net.rim.device.api.system.CodeModuleManager;
 
@@ -88,4 +94,52 @@ public class Util {
         // return the found descriptor, or null if not found, as documented
         return descriptor;
     }
+
+    /**
+     * Closes an InputStream, ignoring any exception thrown.
+     * 
+     * @param in the stream to close; may be null, in which case this method
+     * does nothing
+     */
+    public static void closeQuietly(InputStream in) {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (final IOException e) {
+                // nothing useful can be done about it
+            }
+        }
+    }
+
+    /**
+     * Closes an OutputStream, ignoring any exception thrown.
+     * 
+     * @param out the stream to close; may be null, in which case this method
+     * does nothing
+     */
+    public static void closeQuietly(OutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (final IOException e) {
+                // nothing useful can be done about it
+            }
+        }
+    }
+
+    /**
+     * Closes a Connection, ignoring any exception thrown.
+     * 
+     * @param connection the connection to close; may be null, in which case
+     * this method does nothing
+     */
+    public static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (final IOException e) {
+                // nothing useful can be done about it
+            }
+        }
+    }
 }
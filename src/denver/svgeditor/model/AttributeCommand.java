@@ -0,0 +1,433 @@
+/*
+ * AttributeCommand.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import denver.svgeditor.svg.PathData;
+
+/**
+ * A command which sets or removes one attribute of an element, holding the
+ * attribute's value before and after the change. Consecutive commands that
+ * change the same attribute of the same element, such as those made while
+ * dragging a shape, merge into one that holds the first old value and the
+ * last new value.
+ */
+public class AttributeCommand extends EditCommand {
+
+    private final int element;
+    private final int nameId;
+    private final Value oldValue;
+    private Value newValue;
+
+    /**
+     * Creates a new instance of <code>AttributeCommand</code>.
+     */
+    private AttributeCommand(int element, int nameId, Value oldValue,
+            Value newValue) {
+        this.element = element;
+        this.nameId = nameId;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Creates a command which sets an attribute of an element to a numeric
+     * value.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @param nameId the ID of the attribute's name in the document's
+     * NameTable
+     * @param value the new value of the attribute
+     * @return the command; never returns null
+     * @throws NullPointerException if document==null
+     */
+    public static AttributeCommand setNumber(SVGDocument document,
+            int element, int nameId, float value) {
+        final Value newValue = new Value(SVGDocument.TYPE_NUMBER);
+        newValue.number = value;
+        return create(document, element, nameId, newValue);
+    }
+
+    /**
+     * Creates a command which sets an attribute of an element to a String
+     * value.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @param nameId the ID of the attribute's name in the document's
+     * NameTable
+     * @param value the new value of the attribute
+     * @return the command; never returns null
+     * @throws NullPointerException if document==null or value==null
+     */
+    public static AttributeCommand setString(SVGDocument document,
+            int element, int nameId, String value) {
+        if (value == null) {
+            throw new NullPointerException("value==null");
+        }
+        final Value newValue = new Value(SVGDocument.TYPE_STRING);
+        newValue.string = value;
+        return create(document, element, nameId, newValue);
+    }
+
+    /**
+     * Creates a command which sets the path data of an element.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @param nameId the ID of the attribute's name; should be the ID of "d"
+     * for a path or "points" for a polyline or polygon
+     * @param value the new path data, which is copied
+     * @return the command; never returns null
+     * @throws NullPointerException if document==null or value==null
+     */
+    public static AttributeCommand setPath(SVGDocument document, int element,
+            int nameId, PathData value) {
+        final Value newValue = new Value(SVGDocument.TYPE_PATH);
+        newValue.setPath(value);
+        return create(document, element, nameId, newValue);
+    }
+
+    /**
+     * Creates a command which removes an attribute of an element.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @param nameId the ID of the attribute's name in the document's
+     * NameTable
+     * @return the command; never returns null
+     * @throws NullPointerException if document==null
+     */
+    public static AttributeCommand removeAttribute(SVGDocument document,
+            int element, int nameId) {
+        return create(document, element, nameId, new Value(Value.ABSENT));
+    }
+
+    /**
+     * Returns the element whose attribute this command changes.
+     *
+     * @return the index of the element
+     */
+    public int getElement() {
+        return this.element;
+    }
+
+    /**
+     * Returns the name of the attribute that this command changes.
+     *
+     * @return the ID of the attribute's name in the document's NameTable
+     */
+    public int getNameId() {
+        return this.nameId;
+    }
+
+    /**
+     * Sets the attribute to its new value.
+     */
+    public void apply(SVGDocument document) {
+        this.newValue.store(document, this.element, this.nameId);
+    }
+
+    /**
+     * Sets the attribute back to its old value, or removes it if the element
+     * did not have it.
+     */
+    public void revert(SVGDocument document) {
+        this.oldValue.store(document, this.element, this.nameId);
+    }
+
+    /**
+     * Estimates the size of this command and its two values.
+     */
+    public long getSize() {
+        return Footprint.object(4 * 2 + Footprint.REFERENCE * 2)
+            + this.oldValue.getSize() + this.newValue.getSize();
+    }
+
+    /**
+     * Returns true if the next command changes the same attribute of the same
+     * element.
+     */
+    boolean canMerge(EditCommand next) {
+        if (!(next instanceof AttributeCommand)) {
+            return false;
+        }
+        final AttributeCommand command = (AttributeCommand) next;
+        return (command.element == this.element
+            && command.nameId == this.nameId);
+    }
+
+    /**
+     * Takes the new value of the next command, keeping this command's old
+     * value.
+     */
+    void merge(EditCommand next) {
+        if (!this.canMerge(next)) {
+            throw new IllegalArgumentException("cannot merge");
+        }
+        this.newValue = ((AttributeCommand) next).newValue;
+    }
+
+    /**
+     * Writes the element, the name and the two values.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeByte(TAG_ATTRIBUTE);
+        out.writeInt(this.element);
+        out.writeInt(this.nameId);
+        this.oldValue.write(out);
+        this.newValue.write(out);
+    }
+
+    /**
+     * Reads a command written by {@link #write(DataOutputStream)}, after its
+     * tag.
+     */
+    static AttributeCommand read(DataInputStream in) throws IOException {
+        final int element = in.readInt();
+        final int nameId = in.readInt();
+        final Value oldValue = Value.read(in);
+        final Value newValue = Value.read(in);
+        return new AttributeCommand(element, nameId, oldValue, newValue);
+    }
+
+    /**
+     * Creates a command, capturing the attribute's current value as its old
+     * value.
+     */
+    private static AttributeCommand create(SVGDocument document, int element,
+            int nameId, Value newValue) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        }
+        final Value oldValue = Value.capture(document, element, nameId);
+        return new AttributeCommand(element, nameId, oldValue, newValue);
+    }
+
+    /**
+     * The value of an attribute, or its absence. Path data and point lists
+     * are held as copies of their commands and coordinates, so that a value
+     * does not depend on the document's pools.
+     */
+    private static class Value {
+
+        /**
+         * The type of the value of an attribute that an element does not
+         * have.
+         */
+        public static final byte ABSENT = -1;
+
+        /**
+         * The type of the value; {@link #ABSENT} or one of the TYPE_
+         * constants defined in {@link SVGDocument}.
+         */
+        public final byte type;
+
+        /**
+         * The value if it is a number.
+         */
+        public float number;
+
+        /**
+         * The value if it is a String.
+         */
+        public String string;
+
+        /**
+         * The commands of the value if it is path data or a point list.
+         */
+        public byte[] commands;
+
+        /**
+         * The coordinates of the value if it is path data or a point list.
+         */
+        public float[] coords;
+
+        /**
+         * Creates a new instance of <code>Value</code>.
+         */
+        public Value(byte type) {
+            this.type = type;
+        }
+
+        /**
+         * Returns the current value of an attribute of an element.
+         */
+        public static Value capture(SVGDocument document, int element,
+                int nameId) {
+            final int slot = document.findAttribute(element, nameId);
+            if (slot < 0) {
+                return new Value(ABSENT);
+            }
+            final Value value = new Value(document.getAttributeType(slot));
+            switch (value.type) {
+            case SVGDocument.TYPE_NUMBER:
+                value.number = document.getNumberValue(slot);
+                break;
+            case SVGDocument.TYPE_PATH:
+            case SVGDocument.TYPE_POINTS: {
+                final PathData path = new PathData();
+                document.getPathData(document.getPathValue(slot), path);
+                value.setPath(path);
+                break;
+            }
+            default:
+                value.string = document.getStringValue(slot);
+                break;
+            }
+            return value;
+        }
+
+        /**
+         * Copies the commands and coordinates of path data.
+         */
+        public void setPath(PathData path) {
+            final int commandCount = path.getCommandCount();
+            final int coordCount = path.getCoordCount();
+            this.commands = new byte[commandCount];
+            System.arraycopy(path.getCommands(), 0, this.commands, 0,
+                commandCount);
+            this.coords = new float[coordCount];
+            System.arraycopy(path.getCoords(), 0, this.coords, 0, coordCount);
+        }
+
+        /**
+         * Sets an attribute of an element to this value, or removes it if
+         * this value is {@link #ABSENT}.
+         */
+        public void store(SVGDocument document, int element, int nameId) {
+            switch (this.type) {
+            case ABSENT:
+                document.removeAttribute(element, nameId);
+                break;
+            case SVGDocument.TYPE_NUMBER:
+                document.setNumber(element, nameId, this.number);
+                break;
+            case SVGDocument.TYPE_PATH:
+            case SVGDocument.TYPE_POINTS: {
+                final PathData path = new PathData();
+                path.append(this.commands, 0, this.commands.length,
+                    this.coords, 0, this.coords.length);
+                document.setPath(element, nameId, path);
+                break;
+            }
+            default:
+                document.setString(element, nameId, this.string);
+                break;
+            }
+        }
+
+        /**
+         * Estimates the size of this value.
+         */
+        public long getSize() {
+            long bytes = Footprint.object(1 + 4 + Footprint.REFERENCE * 3);
+            if (this.string != null) {
+                bytes += Footprint.string(this.string);
+            }
+            if (this.commands != null) {
+                bytes += Footprint.array(this.commands.length, 1);
+                bytes += Footprint.array(this.coords.length, 4);
+            }
+            return bytes;
+        }
+
+        /**
+         * Writes this value.
+         */
+        public void write(DataOutputStream out) throws IOException {
+            out.writeByte(this.type);
+            switch (this.type) {
+            case ABSENT:
+                break;
+            case SVGDocument.TYPE_NUMBER:
+                out.writeFloat(this.number);
+                break;
+            case SVGDocument.TYPE_PATH:
+            case SVGDocument.TYPE_POINTS:
+                out.writeInt(this.commands.length);
+                out.write(this.commands);
+                out.writeInt(this.coords.length);
+                for (int i = 0; i < this.coords.length; i++) {
+                    out.writeFloat(this.coords[i]);
+                }
+                break;
+            default:
+                out.writeInt(this.string.length());
+                out.writeChars(this.string);
+                break;
+            }
+        }
+
+        /**
+         * Reads a value written by {@link #write(DataOutputStream)}.
+         */
+        public static Value read(DataInputStream in) throws IOException {
+            final Value value = new Value(in.readByte());
+            switch (value.type) {
+            case ABSENT:
+                break;
+            case SVGDocument.TYPE_NUMBER:
+                value.number = in.readFloat();
+                break;
+            case SVGDocument.TYPE_PATH:
+            case SVGDocument.TYPE_POINTS:
+                value.commands = new byte[readLength(in)];
+                in.readFully(value.commands);
+                value.coords = new float[readLength(in)];
+                for (int i = 0; i < value.coords.length; i++) {
+                    value.coords[i] = in.readFloat();
+                }
+                break;
+            case SVGDocument.TYPE_STRING: {
+                final char[] chars = new char[readLength(in)];
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = in.readChar();
+                }
+                value.string = new String(chars);
+                break;
+            }
+            default:
+                throw new IOException("invalid value type: " + value.type);
+            }
+            return value;
+        }
+
+        /**
+         * Reads the length of an array, which cannot exceed the number of
+         * bytes remaining.
+         */
+        private static int readLength(DataInputStream in) throws IOException {
+            final int length = in.readInt();
+            if (length < 0 || length > in.available()) {
+                throw new IOException("invalid length: " + length);
+            }
+            return length;
+        }
+    }
+}
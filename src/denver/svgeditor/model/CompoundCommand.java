@@ -0,0 +1,172 @@
+/*
+ * CompoundCommand.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A command made of other commands which are applied in order and reverted in
+ * reverse order, so that an edit that changes several attributes or elements,
+ * such as moving a shape by setting both its x and y, is undone as one. A
+ * compound command merges with the next one if it has the same number of
+ * commands and each merges with its counterpart.
+ */
+public class CompoundCommand extends EditCommand {
+
+    private final EditCommand[] commands;
+
+    /**
+     * Creates a new instance of <code>CompoundCommand</code>.
+     *
+     * @param commands the commands, in the order in which to apply them; the
+     * array is copied
+     * @throws NullPointerException if commands==null or any of its elements
+     * is null
+     */
+    public CompoundCommand(EditCommand[] commands) {
+        if (commands == null) {
+            throw new NullPointerException("commands==null");
+        }
+        this.commands = new EditCommand[commands.length];
+        for (int i = 0; i < commands.length; i++) {
+            if (commands[i] == null) {
+                throw new NullPointerException("commands[" + i + "]==null");
+            }
+            this.commands[i] = commands[i];
+        }
+    }
+
+    /**
+     * Returns the number of commands of which this command is made.
+     *
+     * @return the number of commands
+     */
+    public int getCommandCount() {
+        return this.commands.length;
+    }
+
+    /**
+     * Returns one of the commands of which this command is made.
+     *
+     * @param index the index of the command
+     * @return the command; never returns null
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public EditCommand getCommand(int index) {
+        return this.commands[index];
+    }
+
+    /**
+     * Applies the commands in order.
+     */
+    public void apply(SVGDocument document) {
+        for (int i = 0; i < this.commands.length; i++) {
+            this.commands[i].apply(document);
+        }
+    }
+
+    /**
+     * Reverts the commands in reverse order.
+     */
+    public void revert(SVGDocument document) {
+        for (int i = this.commands.length - 1; i >= 0; i--) {
+            this.commands[i].revert(document);
+        }
+    }
+
+    /**
+     * Estimates the size of this command and those of which it is made.
+     */
+    public long getSize() {
+        long bytes =
+            Footprint.object(Footprint.REFERENCE)
+                + Footprint.array(this.commands.length, Footprint.REFERENCE);
+        for (int i = 0; i < this.commands.length; i++) {
+            bytes += this.commands[i].getSize();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns true if the next command is a compound command of the same
+     * number of commands, each of which can be merged into its counterpart.
+     */
+    boolean canMerge(EditCommand next) {
+        if (!(next instanceof CompoundCommand)) {
+            return false;
+        }
+        final EditCommand[] others = ((CompoundCommand) next).commands;
+        if (others.length != this.commands.length) {
+            return false;
+        }
+        for (int i = 0; i < others.length; i++) {
+            if (!this.commands[i].canMerge(others[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges each command of the next compound command into its counterpart.
+     */
+    void merge(EditCommand next) {
+        if (!this.canMerge(next)) {
+            throw new IllegalArgumentException("cannot merge");
+        }
+        final EditCommand[] others = ((CompoundCommand) next).commands;
+        for (int i = 0; i < others.length; i++) {
+            this.commands[i].merge(others[i]);
+        }
+    }
+
+    /**
+     * Writes the number of commands and then each command.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeByte(TAG_COMPOUND);
+        out.writeInt(this.commands.length);
+        for (int i = 0; i < this.commands.length; i++) {
+            this.commands[i].write(out);
+        }
+    }
+
+    /**
+     * Reads a command written by {@link #write(DataOutputStream)}, after its
+     * tag.
+     */
+    static CompoundCommand read(DataInputStream in) throws IOException {
+        final int count = in.readInt();
+        if (count < 0 || count > in.available()) {
+            throw new IOException("invalid command count: " + count);
+        }
+        final EditCommand[] commands = new EditCommand[count];
+        for (int i = 0; i < count; i++) {
+            commands[i] = EditCommand.read(in);
+        }
+        return new CompoundCommand(commands);
+    }
+}
@@ -0,0 +1,699 @@
+/*
+ * DocumentJournal.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.PathData;
+
+/**
+ * Records the changes made to an {@link SVGDocument} as compact binary
+ * operation records, so that saving a document appends only what changed
+ * instead of rewriting the whole file.
+ * <p>
+ * A journal file starts with a header which identifies its checkpoint: the
+ * SVG file, by size and modification time, that the records apply to. Each
+ * record that follows is framed by its length and an Adler-32 checksum, so
+ * that a record torn by a crash or battery pull while it was being appended
+ * is detected and ignored by {@link #replay(InputStream, SVGDocument, long,
+ * long)}, along with anything after it.
+ * <p>
+ * Records refer to elements by index, so they can only be replayed onto a
+ * document whose element indices are those of the checkpoint as parsed; that
+ * is, a document whose elements are indexed in document order. Before a
+ * document is compacted back into its checkpoint it must therefore be
+ * replaced with {@link #copyInDocumentOrder(SVGDocument)} if
+ * {@link #isInDocumentOrder(SVGDocument)} returns false.
+ */
+public class DocumentJournal implements DocumentListener {
+
+    /**
+     * The first four bytes of every journal file.
+     */
+    public static final int MAGIC = 0x53564A4C; // "SVJL"
+
+    /**
+     * The version of the journal format written by this class. Version 2 adds
+     * the records of removed elements and attributes; version 3 indexes runs
+     * of text as text nodes. Journals of versions 1 and 2 are still replayed
+     * against checkpoints that contain no text, whose element indices are
+     * the same in every version.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * The number of bytes in a journal file's header.
+     */
+    public static final int HEADER_SIZE = 22;
+
+    /**
+     * The largest record that will be replayed; a larger length indicates a
+     * corrupt record.
+     */
+    public static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    private static final byte OP_CREATE = 1;
+    private static final byte OP_NUMBER = 2;
+    private static final byte OP_STRING = 3;
+    private static final byte OP_PATH = 4;
+    private static final byte OP_MOVE = 5;
+    private static final byte OP_REMOVE_ATTRIBUTE = 6;
+
+    private final ByteArrayOutputStream record;
+    private final DataOutputStream recordData;
+    private final ByteArrayOutputStream pending;
+    private final DataOutputStream pendingData;
+    private final PathData path;
+
+    private SVGDocument document;
+    private int pendingRecords;
+    private int replayedRecords;
+
+    /**
+     * Creates a new instance of <code>DocumentJournal</code> which is not
+     * attached to any document.
+     */
+    public DocumentJournal() {
+        this.record = new ByteArrayOutputStream();
+        this.recordData = new DataOutputStream(this.record);
+        this.pending = new ByteArrayOutputStream();
+        this.pendingData = new DataOutputStream(this.pending);
+        this.path = new PathData();
+    }
+
+    /**
+     * Starts recording the changes made to a document, and stops recording
+     * those of the previously attached document.
+     *
+     * @param document the document whose changes to record
+     * @throws NullPointerException if document==null
+     */
+    public void attach(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (document == this.document) {
+            return;
+        }
+        this.detach();
+        document.addDocumentListener(this);
+        this.document = document;
+    }
+
+    /**
+     * Stops recording the changes made to the attached document. Records
+     * that have not been taken with {@link #takePending()} are kept.
+     */
+    public void detach() {
+        if (this.document != null) {
+            this.document.removeDocumentListener(this);
+            this.document = null;
+        }
+    }
+
+    /**
+     * Returns the document whose changes are being recorded.
+     *
+     * @return the attached document, or null if none is attached
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Returns the number of records made since the last invocation of
+     * {@link #takePending()}.
+     *
+     * @return the number of pending records
+     */
+    public int getPendingRecordCount() {
+        return this.pendingRecords;
+    }
+
+    /**
+     * Returns the size of the records made since the last invocation of
+     * {@link #takePending()}.
+     *
+     * @return the number of bytes of pending records
+     */
+    public int getPendingSize() {
+        return this.pending.size();
+    }
+
+    /**
+     * Returns the records made since the last invocation of this method, to be
+     * appended to the journal file, and forgets them.
+     *
+     * @return the framed records; never returns null
+     */
+    public byte[] takePending() {
+        final byte[] bytes = this.pending.toByteArray();
+        this.pending.reset();
+        this.pendingRecords = 0;
+        return bytes;
+    }
+
+    /**
+     * Puts back records that were taken with {@link #takePending()} but could
+     * not be saved, ahead of any records made since.
+     *
+     * @param records the records that were taken
+     * @throws NullPointerException if records==null
+     */
+    public void restorePending(byte[] records) {
+        final byte[] newer = this.pending.toByteArray();
+        this.pending.reset();
+        this.pending.write(records, 0, records.length);
+        this.pending.write(newer, 0, newer.length);
+
+        // count the restored records by their framing
+        int count = 0;
+        for (int i = 0; i + 4 <= records.length; count++) {
+            final int size =
+                ((records[i] & 0xFF) << 24) | ((records[i + 1] & 0xFF) << 16)
+                    | ((records[i + 2] & 0xFF) << 8) | (records[i + 3] & 0xFF);
+            i += size + 8;
+        }
+        this.pendingRecords += count;
+    }
+
+    /**
+     * Returns the number of records applied by the last invocation of
+     * {@link #replay(InputStream, SVGDocument, long, long)}.
+     *
+     * @return the number of records replayed
+     */
+    public int getReplayedRecordCount() {
+        return this.replayedRecords;
+    }
+
+    /**
+     * Records the creation of an element.
+     */
+    public void elementCreated(SVGDocument document, int element) {
+        final DataOutputStream data = this.recordData;
+        try {
+            data.writeByte(OP_CREATE);
+            data.writeInt(element);
+            data.writeInt(document.getParent(element));
+            data.writeUTF(document.getElementName(element));
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new RuntimeException(e.toString());
+        }
+        this.endRecord();
+    }
+
+    /**
+     * Records the removal of an element or its new position.
+     */
+    public void elementMoved(SVGDocument document, int element, int oldParent) {
+        final DataOutputStream data = this.recordData;
+        try {
+            data.writeByte(OP_MOVE);
+            data.writeInt(element);
+            final int parent = document.getParent(element);
+            data.writeInt(parent);
+            data.writeInt((parent == SVGDocument.NONE) ? SVGDocument.NONE
+                : document.getNextSibling(element));
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new RuntimeException(e.toString());
+        }
+        this.endRecord();
+    }
+
+    /**
+     * Records the new value of an attribute, or its removal.
+     */
+    public void attributeChanged(SVGDocument document, int element,
+            int nameId) {
+        final int slot = document.findAttribute(element, nameId);
+        final DataOutputStream data = this.recordData;
+        try {
+            if (slot < 0) {
+                data.writeByte(OP_REMOVE_ATTRIBUTE);
+                data.writeInt(element);
+                data.writeUTF(document.getNameTable().getName(nameId));
+                this.endRecord();
+                return;
+            }
+            final byte type = document.getAttributeType(slot);
+            switch (type) {
+            case SVGDocument.TYPE_NUMBER:
+                data.writeByte(OP_NUMBER);
+                writeTarget(data, document, element, slot);
+                data.writeFloat(document.getNumberValue(slot));
+                break;
+            case SVGDocument.TYPE_PATH:
+            case SVGDocument.TYPE_POINTS: {
+                data.writeByte(OP_PATH);
+                writeTarget(data, document, element, slot);
+                final int path = document.getPathValue(slot);
+                final PathData pool = document.getPathPool();
+                final int commandCount = document.getPathCommandCount(path);
+                final int commandStart = document.getPathCommandStart(path);
+                final byte[] commands = pool.getCommands();
+                data.writeInt(commandCount);
+                data.write(commands, commandStart, commandCount);
+                final int coordCount = document.getPathCoordCount(path);
+                final int coordStart = document.getPathCoordStart(path);
+                final float[] coords = pool.getCoords();
+                data.writeInt(coordCount);
+                for (int i = 0; i < coordCount; i++) {
+                    data.writeFloat(coords[coordStart + i]);
+                }
+                break;
+            }
+            default: {
+                data.writeByte(OP_STRING);
+                writeTarget(data, document, element, slot);
+                final String value = document.getStringValue(slot);
+                final int length = value.length();
+                data.writeInt(length);
+                for (int i = 0; i < length; i++) {
+                    data.writeChar(value.charAt(i));
+                }
+                break;
+            }
+            }
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new RuntimeException(e.toString());
+        }
+        this.endRecord();
+    }
+
+    /**
+     * Writes the header of a journal file.
+     *
+     * @param out the stream to which to write the header
+     * @param checkpointSize the size of the SVG file to which the records
+     * that follow apply
+     * @param checkpointModified the modification time of the SVG file to
+     * which the records that follow apply
+     * @throws IOException if writing to the stream fails
+     * @throws NullPointerException if out==null
+     */
+    public static void writeHeader(OutputStream out, long checkpointSize,
+            long checkpointModified) throws IOException {
+        final DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeLong(checkpointSize);
+        data.writeLong(checkpointModified);
+        data.flush();
+    }
+
+    /**
+     * Applies the records of a journal file to a document parsed from the
+     * journal's checkpoint. Records are applied in order until the end of the
+     * stream or until a record that is torn or corrupt; since records are
+     * only ever appended, the records before such a record are the complete
+     * saves that preceded a crash. The changes are not recorded by this
+     * journal even if the document is attached to it.
+     *
+     * @param in the stream from which to read the journal file
+     * @param document the document parsed from the checkpoint
+     * @param checkpointSize the size of the SVG file from which the document
+     * was parsed
+     * @param checkpointModified the modification time of the SVG file from
+     * which the document was parsed
+     * @return the number of bytes at the start of the journal file that hold
+     * its header and the records that were applied, to which the file should
+     * be truncated before more records are appended; or -1 if the journal
+     * file is not for the given checkpoint, in which case it is stale and
+     * should be discarded
+     * @throws IOException if reading from the stream fails
+     * @throws NullPointerException if in==null or document==null
+     */
+    public long replay(InputStream in, SVGDocument document,
+            long checkpointSize, long checkpointModified) throws IOException {
+        this.replayedRecords = 0;
+        final DataInputStream data = new DataInputStream(in);
+        try {
+            final int magic = data.readInt();
+            final short version = data.readShort();
+            if (magic != MAGIC || version < 1 || version > VERSION
+                || data.readLong() != checkpointSize
+                || data.readLong() != checkpointModified
+                || (version < 3 && hasTextNodes(document))) {
+                return -1;
+            }
+        } catch (final EOFException e) {
+            return -1;
+        }
+
+        final boolean attached = (document == this.document);
+        if (attached) {
+            document.removeDocumentListener(this);
+        }
+        try {
+            long length = HEADER_SIZE;
+            byte[] buffer = new byte[256];
+            while (true) {
+                final int size;
+                try {
+                    size = data.readInt();
+                    if (size <= 0 || size > MAX_RECORD_SIZE) {
+                        break; // corrupt
+                    }
+                    if (size > buffer.length) {
+                        buffer = new byte[Math.max(size, buffer.length * 2)];
+                    }
+                    data.readFully(buffer, 0, size);
+                    if (data.readInt() != adler32(buffer, 0, size)) {
+                        break; // corrupt
+                    }
+                } catch (final EOFException e) {
+                    break; // torn, or the end of the journal
+                }
+                if (!this.apply(buffer, size, document)) {
+                    break;
+                }
+                length += size + 8;
+                this.replayedRecords++;
+            }
+            return length;
+        } finally {
+            if (attached) {
+                document.addDocumentListener(this);
+            }
+        }
+    }
+
+    /**
+     * Returns whether every element of a document has the index it would have
+     * if the document were written and parsed again; that is, whether
+     * elements are indexed in document order and none have been removed.
+     *
+     * @param document the document to check
+     * @return true if the document's elements are in document order
+     * @throws NullPointerException if document==null
+     */
+    public static boolean isInDocumentOrder(SVGDocument document) {
+        int expected = 0;
+        int element = document.getRoot();
+        while (element != SVGDocument.NONE) {
+            if (element != expected++ || !isPreserved(document, element)) {
+                return false;
+            }
+            element = nextInDocumentOrder(document, element);
+        }
+        return (expected == document.getElementCount());
+    }
+
+    /**
+     * Copies a document, indexing the elements of the copy in document order
+     * and leaving out removed elements. Text nodes are copied as they would
+     * be parsed: adjacent ones are joined and those holding only whitespace
+     * are left out. The copy shares the document's NameTable, so name IDs are
+     * the same in both.
+     *
+     * @param document the document to copy
+     * @return the copy; never returns null
+     * @throws NullPointerException if document==null
+     */
+    public static SVGDocument copyInDocumentOrder(SVGDocument document) {
+        final SVGDocument copy = new SVGDocument(document.getNameTable());
+        final int[] copies = new int[document.getElementCount()];
+        final PathData path = new PathData();
+        int element = document.getRoot();
+        while (element != SVGDocument.NONE) {
+            final int parent = document.getParent(element);
+            if (document.getKind(element) == ElementKind.TEXT_NODE) {
+                final String text = document.getText(element);
+                if (!isWhitespace(text)) {
+                    final char[] chars = text.toCharArray();
+                    copy.appendText(copies[parent], chars, 0, chars.length);
+                }
+                element = nextInDocumentOrder(document, element);
+                continue;
+            }
+            final int e =
+                copy.createElement((parent == SVGDocument.NONE)
+                    ? SVGDocument.NONE : copies[parent], document
+                    .getElementName(element));
+            copies[element] = e;
+
+            final int count = document.getAttributeCount(element);
+            for (int i = 0; i < count; i++) {
+                final int slot = document.getAttributeSlot(element, i);
+                final int nameId = document.getAttributeNameId(slot);
+                switch (document.getAttributeType(slot)) {
+                case SVGDocument.TYPE_NUMBER:
+                    copy.setNumber(e, nameId, document.getNumberValue(slot));
+                    break;
+                case SVGDocument.TYPE_PATH:
+                case SVGDocument.TYPE_POINTS:
+                    path.reset();
+                    document.getPathData(document.getPathValue(slot), path);
+                    copy.setPath(e, nameId, path);
+                    break;
+                default:
+                    copy.setString(e, nameId, document.getStringValue(slot));
+                    break;
+                }
+            }
+            element = nextInDocumentOrder(document, element);
+        }
+        return copy;
+    }
+
+    /**
+     * Returns whether an element would be parsed again as it is: a text node
+     * is merged into a text node before it, and is dropped if it holds only
+     * whitespace.
+     */
+    private static boolean isPreserved(SVGDocument document, int element) {
+        if (document.getKind(element) != ElementKind.TEXT_NODE) {
+            return true;
+        }
+        final int previous = element - 1;
+        return !isWhitespace(document.getText(element))
+            && (document.getKind(previous) != ElementKind.TEXT_NODE
+                || document.getNextSibling(previous) != element);
+    }
+
+    /**
+     * Returns whether a run of text holds only XML whitespace, which the
+     * parser drops.
+     */
+    private static boolean isWhitespace(String text) {
+        for (int i = text.length() - 1; i >= 0; i--) {
+            final char c = text.charAt(i);
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a document contains any text nodes.
+     */
+    private static boolean hasTextNodes(SVGDocument document) {
+        for (int e = document.getElementCount() - 1; e >= 0; e--) {
+            if (document.getKind(e) == ElementKind.TEXT_NODE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the element that follows another in document order.
+     */
+    private static int nextInDocumentOrder(SVGDocument document, int element) {
+        final int child = document.getFirstChild(element);
+        if (child != SVGDocument.NONE) {
+            return child;
+        }
+        while (element != SVGDocument.NONE) {
+            final int sibling = document.getNextSibling(element);
+            if (sibling != SVGDocument.NONE) {
+                return sibling;
+            }
+            element = document.getParent(element);
+        }
+        return SVGDocument.NONE;
+    }
+
+    /**
+     * Writes the element and attribute name that a record changes.
+     */
+    private static void writeTarget(DataOutputStream data,
+            SVGDocument document, int element, int slot) throws IOException {
+        data.writeInt(element);
+        data.writeUTF(document.getAttributeName(slot));
+    }
+
+    /**
+     * Frames the record in the record buffer and moves it to the pending
+     * records.
+     */
+    private void endRecord() {
+        final byte[] bytes = this.record.toByteArray();
+        this.record.reset();
+        try {
+            this.pendingData.writeInt(bytes.length);
+            this.pendingData.write(bytes);
+            this.pendingData.writeInt(adler32(bytes, 0, bytes.length));
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new RuntimeException(e.toString());
+        }
+        this.pendingRecords++;
+    }
+
+    /**
+     * Applies a record to a document.
+     *
+     * @return true if the record was applied, false if it is malformed or
+     * does not apply to the document
+     */
+    private boolean apply(byte[] buffer, int size, SVGDocument document)
+            throws IOException {
+        final DataInputStream data =
+            new DataInputStream(new ByteArrayInputStream(buffer, 0, size));
+        final NameTable names = document.getNameTable();
+        try {
+            final byte op = data.readByte();
+            final int element = data.readInt();
+            switch (op) {
+            case OP_CREATE: {
+                final int parent = data.readInt();
+                final String name = data.readUTF();
+                if (element != document.getElementCount()) {
+                    return false;
+                }
+                document.createElement(parent, name);
+                return true;
+            }
+            case OP_NUMBER: {
+                final int nameId = names.intern(data.readUTF());
+                document.setNumber(element, nameId, data.readFloat());
+                return true;
+            }
+            case OP_STRING: {
+                final int nameId = names.intern(data.readUTF());
+                final int length = data.readInt();
+                if (length < 0 || length > size) {
+                    return false;
+                }
+                final char[] chars = new char[length];
+                for (int i = 0; i < length; i++) {
+                    chars[i] = data.readChar();
+                }
+                final String value = new String(chars);
+                if (nameId == names.intern(SVGDocument.TEXT_ATTRIBUTE)
+                    && document.getKind(element) != ElementKind.TEXT_NODE) {
+                    // journals before version 3 kept text on its element
+                    document.setText(element, value);
+                } else {
+                    document.setString(element, nameId, value);
+                }
+                return true;
+            }
+            case OP_MOVE: {
+                final int parent = data.readInt();
+                final int before = data.readInt();
+                if (parent == SVGDocument.NONE) {
+                    document.removeElement(element);
+                } else {
+                    document.restoreElement(element, parent, before);
+                }
+                return true;
+            }
+            case OP_REMOVE_ATTRIBUTE: {
+                final int nameId = names.intern(data.readUTF());
+                return document.removeAttribute(element, nameId);
+            }
+            case OP_PATH: {
+                final int nameId = names.intern(data.readUTF());
+                final PathData path = this.path;
+                path.reset();
+                final int commandCount = data.readInt();
+                if (commandCount < 0 || commandCount > size) {
+                    return false;
+                }
+                for (int i = 0; i < commandCount; i++) {
+                    path.addCommand(data.readByte());
+                }
+                final int coordCount = data.readInt();
+                if (coordCount < 0 || coordCount > size) {
+                    return false;
+                }
+                for (int i = 0; i < coordCount; i++) {
+                    path.addCoord(data.readFloat());
+                }
+                document.setPath(element, nameId, path);
+                return true;
+            }
+            default:
+                return false;
+            }
+        } catch (final EOFException e) {
+            return false;
+        } catch (final IndexOutOfBoundsException e) {
+            return false; // refers to an element that does not exist
+        } catch (final IllegalArgumentException e) {
+            return false;
+        } catch (final IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Computes the Adler-32 checksum of a region of a byte array.
+     *
+     * @param bytes the array containing the bytes
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return the checksum
+     */
+    static int adler32(byte[] bytes, int offset, int length) {
+        int a = 1;
+        int b = 0;
+        final int end = offset + length;
+        while (offset < end) {
+            // 5552 bytes is the most that can be summed without overflow
+            final int stop = Math.min(end, offset + 5552);
+            while (offset < stop) {
+                a += bytes[offset++] & 0xFF;
+                b += a;
+            }
+            a %= 65521;
+            b %= 65521;
+        }
+        return (b << 16) | a;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * DocumentListener.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+/**
+ * Listener which is told of changes to an {@link SVGDocument}. Methods are
+ * invoked synchronously, on the thread which changed the document, after the
+ * change has been made.
+ */
+public interface DocumentListener {
+
+    /**
+     * Invoked when an element is created.
+     * 
+     * @param document the document that changed
+     * @param element the index of the new element
+     */
+    public void elementCreated(SVGDocument document, int element);
+
+    /**
+     * Invoked when an element is removed from the tree with
+     * {@link SVGDocument#removeElement(int)} or put back with
+     * {@link SVGDocument#restoreElement(int, int, int)}.
+     * 
+     * @param document the document that changed
+     * @param element the index of the element
+     * @param oldParent the index of the element's parent before the change,
+     * or {@link SVGDocument#NONE} if it was put back
+     */
+    public void elementMoved(SVGDocument document, int element, int oldParent);
+
+    /**
+     * Invoked when an attribute of an element is set or removed, including
+     * when the text of a text node, held in its
+     * {@link SVGDocument#TEXT_ATTRIBUTE} pseudo-attribute, changes.
+     * 
+     * @param document the document that changed
+     * @param element the index of the element
+     * @param nameId the ID of the attribute's name in the document's NameTable
+     */
+    public void attributeChanged(SVGDocument document, int element,
+            int nameId);
+}
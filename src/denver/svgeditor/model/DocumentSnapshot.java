@@ -0,0 +1,224 @@
+/*
+ * DocumentSnapshot.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import denver.svgeditor.svg.NameTable;
+
+/**
+ * Reads and writes a compact binary form of an {@link SVGDocument}. The form
+ * is a flat image of the document's arrays: the names used by the document,
+ * then the name, parent and attribute count of every element, then the name
+ * and type of every attribute, then the number, String and path pools. Each
+ * array is decoded in a single loop straight from the bytes of the snapshot,
+ * and the links between elements, the attribute ranges and the pool indices
+ * are rebuilt from the counts, so reading a snapshot neither tokenizes text
+ * nor sets attributes one at a time. Element indices are preserved, and
+ * removed elements are kept so that they can still be put back.
+ */
+public class DocumentSnapshot {
+
+    /**
+     * The first four bytes of every snapshot.
+     */
+    public static final int MAGIC = 0x53564753; // "SVGS"
+
+    /**
+     * The version of the snapshot format written by this class.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * The size of the header that precedes the image: the magic number, the
+     * version and the length of the image.
+     */
+    public static final int HEADER_SIZE = 10;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DocumentSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot of a document to a byte array.
+     *
+     * @param document the document to write
+     * @return the snapshot; never returns null
+     * @throws NullPointerException if document==null
+     */
+    public static byte[] toByteArray(SVGDocument document) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(document, bytes);
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new RuntimeException(e.toString());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a snapshot from a byte array, decoding it in place.
+     *
+     * @param snapshot the snapshot to read
+     * @return the document; never returns null
+     * @throws IOException if the snapshot is malformed
+     * @throws NullPointerException if snapshot==null
+     */
+    public static SVGDocument fromByteArray(byte[] snapshot) throws IOException {
+        final SnapshotInput in =
+            new SnapshotInput(snapshot, 0, snapshot.length);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("not a document snapshot");
+        }
+        checkVersion(in.readUnsignedShort());
+        final int length = in.readInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IOException("truncated snapshot");
+        }
+        return readImage(new SnapshotInput(snapshot, HEADER_SIZE, length));
+    }
+
+    /**
+     * Writes a snapshot of a document to a stream.
+     *
+     * @param document the document to write
+     * @param out the stream to which to write; it is not closed
+     * @throws IOException if writing to the stream fails or the document uses
+     * more than 65536 distinct names
+     * @throws NullPointerException if either argument is null
+     */
+    public static void write(SVGDocument document, OutputStream out)
+            throws IOException {
+        // only the names used by this document are written, renumbered
+        final NameTable names = document.getNameTable();
+        final int[] localIds = new int[names.size()];
+        final int elementCount = document.getElementCount();
+        int nameCount = 0;
+        for (int element = 0; element < elementCount; element++) {
+            nameCount = mapName(document.getElementNameId(element), localIds,
+                nameCount);
+            final int attributeCount = document.getAttributeCount(element);
+            for (int i = 0; i < attributeCount; i++) {
+                nameCount = mapName(document.getAttributeNameId(document
+                    .getAttributeSlot(element, i)), localIds, nameCount);
+            }
+        }
+        if (nameCount > 0x10000) {
+            throw new IOException("too many names: " + nameCount);
+        }
+
+        // the image is buffered so that its length can precede it
+        final ByteArrayOutputStream image = new ByteArrayOutputStream();
+        final DataOutputStream data = new DataOutputStream(image);
+        data.writeInt(nameCount);
+        int next = 0;
+        for (int id = 0; id < localIds.length; id++) {
+            if (localIds[id] != 0) {
+                final String name = names.getName(id);
+                data.writeInt(name.length());
+                data.writeChars(name);
+                localIds[id] = next++;
+            }
+        }
+        document.writeImage(data, localIds);
+        data.flush();
+
+        final DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        header.writeInt(image.size());
+        header.flush();
+        image.writeTo(out);
+    }
+
+    /**
+     * Reads a snapshot from a stream into a new document with a new
+     * NameTable.
+     *
+     * @param in the stream from which to read; it is not closed, and is read
+     * no further than the end of the snapshot
+     * @return the document; never returns null
+     * @throws IOException if reading from the stream fails or the snapshot is
+     * malformed
+     * @throws NullPointerException if in==null
+     */
+    public static SVGDocument read(InputStream in) throws IOException {
+        final DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("not a document snapshot");
+        }
+        checkVersion(data.readUnsignedShort());
+        final int length = data.readInt();
+        if (length < 0) {
+            throw new IOException("invalid snapshot length: " + length);
+        }
+        final byte[] image = new byte[length];
+        data.readFully(image);
+        return readImage(new SnapshotInput(image, 0, length));
+    }
+
+    /**
+     * Reads the names and arrays of a snapshot into a new document.
+     */
+    private static SVGDocument readImage(SnapshotInput in) throws IOException {
+        final int nameCount = in.readCount(4);
+        final String[] localNames = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            localNames[i] = in.readString();
+        }
+        final SVGDocument document = new SVGDocument();
+        document.readImage(in, localNames);
+        return document;
+    }
+
+    /**
+     * Verifies that a snapshot was written in the format of this class.
+     */
+    private static void checkVersion(int version) throws IOException {
+        if (version != VERSION) {
+            throw new IOException("unsupported snapshot version: " + version);
+        }
+    }
+
+    /**
+     * Assigns a name a placeholder local ID if it does not have one yet.
+     *
+     * @return the number of names with local IDs
+     */
+    private static int mapName(int id, int[] localIds, int count) {
+        if (localIds[id] == 0) {
+            localIds[id] = 1;
+            count++;
+        }
+        return count;
+    }
+}
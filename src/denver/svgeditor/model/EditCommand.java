@@ -0,0 +1,165 @@
+/*
+ * EditCommand.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * An edit of an {@link SVGDocument} that can be applied and reverted. A
+ * command holds only the delta of its edit, such as the old and new values of
+ * one attribute or the old and new position of one element, captured from the
+ * document when the command is created; applying or reverting it never copies
+ * more of the document than the edit changed.
+ * <p>
+ * A command must be applied to the document from which it was created, in the
+ * state in which it was created, and reverted only from the state that
+ * applying it left; an {@link UndoHistory} keeps commands in that order.
+ * Commands refer to elements by index and to attribute names by their IDs in
+ * the document's NameTable, so they are only valid for as long as the
+ * document's element indices are.
+ */
+public abstract class EditCommand {
+
+    static final byte TAG_ATTRIBUTE = 1;
+    static final byte TAG_ELEMENT = 2;
+    static final byte TAG_COMPOUND = 3;
+
+    /**
+     * Creates a new instance of <code>EditCommand</code>. Only the commands
+     * of this package can be created, so that every command can be written
+     * and read back by {@link #toByteArray(EditCommand)} and
+     * {@link #fromByteArray(byte[])}.
+     */
+    EditCommand() {
+    }
+
+    /**
+     * Makes the change described by this command.
+     *
+     * @param document the document to change
+     * @throws NullPointerException if document==null
+     */
+    public abstract void apply(SVGDocument document);
+
+    /**
+     * Undoes the change made by {@link #apply(SVGDocument)}.
+     *
+     * @param document the document to change
+     * @throws NullPointerException if document==null
+     */
+    public abstract void revert(SVGDocument document);
+
+    /**
+     * Estimates the number of bytes of heap used by this command.
+     *
+     * @return the estimated size of this command, in bytes
+     */
+    public abstract long getSize();
+
+    /**
+     * Returns whether a command that was applied immediately after this one
+     * can be merged into this one, such that applying or reverting this
+     * command makes or undoes both changes.
+     *
+     * @param next the command applied after this one
+     * @return true if {@link #merge(EditCommand)} can merge the command
+     */
+    boolean canMerge(EditCommand next) {
+        return false;
+    }
+
+    /**
+     * Merges a command that was applied immediately after this one into this
+     * one.
+     *
+     * @param next the command applied after this one; must be one for which
+     * {@link #canMerge(EditCommand)} returns true
+     */
+    void merge(EditCommand next) {
+        throw new IllegalArgumentException("cannot merge");
+    }
+
+    /**
+     * Writes this command, starting with the tag identifying its class.
+     *
+     * @param out the stream to which to write
+     * @throws IOException if writing to the stream fails
+     */
+    abstract void write(DataOutputStream out) throws IOException;
+
+    /**
+     * Writes a command to a byte array.
+     *
+     * @param command the command to write
+     * @return the bytes of the command; never returns null
+     * @throws NullPointerException if command==null
+     */
+    public static byte[] toByteArray(EditCommand command) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            command.write(new DataOutputStream(bytes));
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new RuntimeException(e.toString());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a command written by {@link #toByteArray(EditCommand)}.
+     *
+     * @param bytes the bytes of the command
+     * @return the command; never returns null
+     * @throws IOException if the bytes are not a valid command
+     * @throws NullPointerException if bytes==null
+     */
+    public static EditCommand fromByteArray(byte[] bytes) throws IOException {
+        return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * Reads a command written by {@link #write(DataOutputStream)}.
+     *
+     * @param in the stream from which to read
+     * @return the command; never returns null
+     * @throws IOException if reading fails or the command is not valid
+     */
+    static EditCommand read(DataInputStream in) throws IOException {
+        final byte tag = in.readByte();
+        switch (tag) {
+        case TAG_ATTRIBUTE:
+            return AttributeCommand.read(in);
+        case TAG_ELEMENT:
+            return ElementCommand.read(in);
+        case TAG_COMPOUND:
+            return CompoundCommand.read(in);
+        default:
+            throw new IOException("invalid command: " + tag);
+        }
+    }
+}
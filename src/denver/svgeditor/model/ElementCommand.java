@@ -0,0 +1,162 @@
+/*
+ * ElementCommand.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A command which removes an element from the tree or puts one into it,
+ * holding only the element's position before and after the change. Since
+ * {@link SVGDocument#removeElement(int)} leaves the element and its
+ * descendants in the document, removing a subtree of any size and undoing
+ * the removal both take constant time and copy nothing.
+ */
+public class ElementCommand extends EditCommand {
+
+    private final int element;
+    private final int oldParent;
+    private final int oldBefore;
+    private final int newParent;
+    private final int newBefore;
+
+    /**
+     * Creates a new instance of <code>ElementCommand</code>.
+     */
+    private ElementCommand(int element, int oldParent, int oldBefore,
+            int newParent, int newBefore) {
+        this.element = element;
+        this.oldParent = oldParent;
+        this.oldBefore = oldBefore;
+        this.newParent = newParent;
+        this.newBefore = newBefore;
+    }
+
+    /**
+     * Creates a command which removes an element, and with it its
+     * descendants.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element to remove
+     * @return the command; never returns null
+     * @throws NullPointerException if document==null
+     * @throws IllegalArgumentException if element is the root element
+     * @throws IllegalStateException if the element has already been removed
+     */
+    public static ElementCommand remove(SVGDocument document, int element) {
+        if (element == document.getRoot()) {
+            throw new IllegalArgumentException("cannot remove the root");
+        }
+        final int parent = document.getParent(element);
+        if (parent == SVGDocument.NONE) {
+            throw new IllegalStateException("already removed: " + element);
+        }
+        return new ElementCommand(element, parent, document
+            .getNextSibling(element), SVGDocument.NONE, SVGDocument.NONE);
+    }
+
+    /**
+     * Creates an element and a command which adds it as the last child of
+     * another. The element is created removed, and is only put into the tree
+     * when the command is applied.
+     *
+     * @param document the document in which to create the element
+     * @param parent the index of the parent element
+     * @param name the name of the element
+     * @return the command; never returns null
+     * @throws NullPointerException if document==null or name==null
+     */
+    public static ElementCommand create(SVGDocument document, int parent,
+            String name) {
+        final int element = document.createElement(parent, name);
+        document.removeElement(element);
+        return new ElementCommand(element, SVGDocument.NONE, SVGDocument.NONE,
+            parent, SVGDocument.NONE);
+    }
+
+    /**
+     * Returns the element that this command moves.
+     *
+     * @return the index of the element
+     */
+    public int getElement() {
+        return this.element;
+    }
+
+    /**
+     * Moves the element to its new position.
+     */
+    public void apply(SVGDocument document) {
+        move(document, this.element, this.newParent, this.newBefore);
+    }
+
+    /**
+     * Moves the element back to its old position.
+     */
+    public void revert(SVGDocument document) {
+        move(document, this.element, this.oldParent, this.oldBefore);
+    }
+
+    /**
+     * Estimates the size of this command, which does not depend on the
+     * number of elements moved.
+     */
+    public long getSize() {
+        return Footprint.object(4 * 5);
+    }
+
+    /**
+     * Writes the element and its two positions.
+     */
+    void write(DataOutputStream out) throws IOException {
+        out.writeByte(TAG_ELEMENT);
+        out.writeInt(this.element);
+        out.writeInt(this.oldParent);
+        out.writeInt(this.oldBefore);
+        out.writeInt(this.newParent);
+        out.writeInt(this.newBefore);
+    }
+
+    /**
+     * Reads a command written by {@link #write(DataOutputStream)}, after its
+     * tag.
+     */
+    static ElementCommand read(DataInputStream in) throws IOException {
+        return new ElementCommand(in.readInt(), in.readInt(), in.readInt(), in
+            .readInt(), in.readInt());
+    }
+
+    /**
+     * Removes an element, or puts it back at a position.
+     */
+    private static void move(SVGDocument document, int element, int parent,
+            int before) {
+        if (parent == SVGDocument.NONE) {
+            document.removeElement(element);
+        } else {
+            document.restoreElement(element, parent, before);
+        }
+    }
+}
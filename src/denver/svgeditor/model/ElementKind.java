@@ -0,0 +1,134 @@
+/*
+ * ElementKind.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+/**
+ * The codes that identify the kinds of SVG elements in an
+ * {@link SVGDocument}. Elements that are not specifically recognized have the
+ * kind {@link #OTHER}; their names are still available from the document.
+ */
+public class ElementKind {
+
+    public static final byte OTHER = 0;
+    public static final byte SVG = 1;
+    public static final byte G = 2;
+    public static final byte DEFS = 3;
+    public static final byte USE = 4;
+    public static final byte SYMBOL = 5;
+    public static final byte PATH = 6;
+    public static final byte RECT = 7;
+    public static final byte CIRCLE = 8;
+    public static final byte ELLIPSE = 9;
+    public static final byte LINE = 10;
+    public static final byte POLYLINE = 11;
+    public static final byte POLYGON = 12;
+    public static final byte TEXT = 13;
+    public static final byte TSPAN = 14;
+    public static final byte IMAGE = 15;
+    public static final byte LINEAR_GRADIENT = 16;
+    public static final byte RADIAL_GRADIENT = 17;
+    public static final byte STOP = 18;
+    public static final byte STYLE = 19;
+    public static final byte CLIP_PATH = 20;
+    public static final byte MASK = 21;
+    public static final byte PATTERN = 22;
+    public static final byte FILTER = 23;
+    public static final byte TITLE = 24;
+    public static final byte DESC = 25;
+    public static final byte METADATA = 26;
+
+    /**
+     * The kind of the pseudo-elements that hold runs of character data, which
+     * are named {@link SVGDocument#TEXT_NODE}.
+     */
+    public static final byte TEXT_NODE = 27;
+
+    private static final String[] NAMES = {
+        null, "svg", "g", "defs", "use", "symbol", "path", "rect", "circle",
+        "ellipse", "line", "polyline", "polygon", "text", "tspan", "image",
+        "linearGradient", "radialGradient", "stop", "style", "clipPath",
+        "mask", "pattern", "filter", "title", "desc", "metadata", "#text" };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ElementKind() {
+    }
+
+    /**
+     * Returns the kind of element with the given name.
+     *
+     * @param name the name of the element, which may have an "svg:" prefix
+     * @return the kind of element with the given name, or {@link #OTHER} if it
+     * is not specifically recognized
+     * @throws NullPointerException if name==null
+     */
+    public static byte forName(String name) {
+        final int prefixLength = name.startsWith("svg:") ? 4 : 0;
+        final int length = name.length() - prefixLength;
+        for (int i = NAMES.length - 1; i > 0; i--) {
+            final String candidate = NAMES[i];
+            if (candidate.length() == length
+                && name.regionMatches(false, prefixLength, candidate, 0,
+                    length)) {
+                return (byte) i;
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * Returns the name of a kind of element.
+     *
+     * @param kind the kind of element
+     * @return the name of the element, or null if kind is {@link #OTHER} or is
+     * not a valid kind
+     */
+    public static String getName(int kind) {
+        return (kind > 0 && kind < NAMES.length) ? NAMES[kind] : null;
+    }
+
+    /**
+     * Returns whether or not a kind of element is a basic shape or path, which
+     * draws geometry directly.
+     *
+     * @param kind the kind of element
+     * @return true if elements of the given kind draw geometry, false otherwise
+     */
+    public static boolean isShape(int kind) {
+        return (kind >= PATH && kind <= POLYGON);
+    }
+
+    /**
+     * Returns whether or not a kind of element is a container whose children
+     * are rendered as part of it.
+     *
+     * @param kind the kind of element
+     * @return true if elements of the given kind render their children, false
+     * otherwise
+     */
+    public static boolean isRenderedContainer(int kind) {
+        return (kind == SVG || kind == G);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Footprint.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.util.Enumeration;
+import java.util.Vector;
+
+/**
+ * Estimates the heap footprint of document models, so that the compact
+ * {@link SVGDocument} can be compared against a naive tree of
+ * {@link SVGElement} objects built from the same file. The estimates assume a
+ * 32-bit VM with 8-byte object headers, 4-byte references and objects padded
+ * to 8 bytes; they are meant for comparison, not as exact figures.
+ */
+public class Footprint {
+
+    /**
+     * The estimated size of an object header, in bytes.
+     */
+    public static final int OBJECT_HEADER = 8;
+
+    /**
+     * The estimated size of an object reference, in bytes.
+     */
+    public static final int REFERENCE = 4;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Footprint() {
+    }
+
+    /**
+     * Estimates the size of an object.
+     * 
+     * @param fieldBytes the total size of the object's fields
+     * @return the estimated size of the object, in bytes
+     */
+    public static long object(int fieldBytes) {
+        return pad(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * Estimates the size of an array.
+     * 
+     * @param length the length of the array
+     * @param elementSize the size of each element of the array
+     * @return the estimated size of the array, in bytes
+     */
+    public static long array(int length, int elementSize) {
+        return pad(OBJECT_HEADER + 4 + (long) length * elementSize);
+    }
+
+    /**
+     * Estimates the size of a String, including its char array.
+     * 
+     * @param s the string whose size to estimate; may be null
+     * @return the estimated size of the string, in bytes; returns 0 if s==null
+     */
+    public static long string(String s) {
+        return (s == null) ? 0 : object(12) + array(s.length(), 2);
+    }
+
+    /**
+     * Estimates the size of a tree of elements. Element and attribute names
+     * are assumed to be interned and are not counted.
+     * 
+     * @param root the root of the tree
+     * @return the estimated size of the tree, in bytes
+     * @throws NullPointerException if root==null
+     */
+    public static long estimateTree(SVGElement root) {
+        long bytes = 0;
+        final Vector pending = new Vector();
+        pending.addElement(root);
+        while (pending.size() > 0) {
+            final int last = pending.size() - 1;
+            final SVGElement element = (SVGElement) pending.elementAt(last);
+            pending.removeElementAt(last);
+
+            // the element, its Hashtable and its Vector of children
+            bytes += object(5 * REFERENCE);
+            bytes += hashtable(element.getAttributeCount());
+            bytes += object(REFERENCE + 8) + array(10, REFERENCE);
+            final Enumeration names = element.getAttributeNames();
+            while (names.hasMoreElements()) {
+                bytes += string(element.getAttribute((String) names
+                    .nextElement()));
+            }
+            final String text = element.getText();
+            if (text != null) {
+                bytes += object(REFERENCE + 8) + array(text.length(), 2);
+            }
+
+            for (int i = element.getChildCount() - 1; i >= 0; i--) {
+                pending.addElement(element.getChild(i));
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Builds a report comparing the footprint of the two models of the same
+     * document.
+     * 
+     * @param tree the root of the object tree model of the document
+     * @param document the compact model of the document
+     * @param treeMeasured the measured heap growth caused by building the tree,
+     * or a negative value if it was not measured
+     * @param documentMeasured the measured heap growth caused by building the
+     * compact model, or a negative value if it was not measured
+     * @return the human-readable report; never returns null
+     * @throws NullPointerException if tree==null or document==null
+     */
+    public static String report(SVGElement tree, SVGDocument document,
+            long treeMeasured, long documentMeasured) {
+        final long treeBytes = estimateTree(tree);
+        final long documentBytes = document.estimateFootprint();
+        final int elements = document.getElementCount();
+
+        final StringBuffer buffer = new StringBuffer();
+        buffer.append(elements).append(" elements, ");
+        buffer.append(document.getTotalAttributeCount()).append(" attributes");
+        appendLine(buffer, "Object tree", treeBytes, treeMeasured, elements);
+        appendLine(buffer, "Compact", documentBytes, documentMeasured,
+            elements);
+        if (treeBytes > 0) {
+            buffer.append("\nSaving: ");
+            buffer.append(100 - (documentBytes * 100) / treeBytes).append('%');
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Appends one line of a report.
+     */
+    private static void appendLine(StringBuffer buffer, String label,
+            long estimated, long measured, int elements) {
+        buffer.append('\n').append(label).append(": ");
+        buffer.append(estimated).append(" bytes estimated");
+        if (elements > 0) {
+            buffer.append(" (").append(estimated / elements);
+            buffer.append(" per element)");
+        }
+        if (measured >= 0) {
+            buffer.append(", ").append(measured).append(" bytes measured");
+        }
+    }
+
+    /**
+     * Estimates the size of a Hashtable.
+     * 
+     * @param size the number of entries in the Hashtable
+     * @return the estimated size of the Hashtable, in bytes
+     */
+    private static long hashtable(int size) {
+        int capacity = 11;
+        while (size > (capacity * 3) / 4) {
+            capacity = capacity * 2 + 1;
+        }
+        return object(REFERENCE + 12) + array(capacity, REFERENCE) + size
+            * object(3 * REFERENCE + 4);
+    }
+
+    /**
+     * Rounds a size up to a multiple of 8.
+     */
+    private static long pad(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
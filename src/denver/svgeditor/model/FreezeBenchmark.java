@@ -0,0 +1,166 @@
+/*
+ * FreezeBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Times {@link SVGDocument#freeze()} and the edits that follow it on the
+ * synthetic drawing of {@link JournalBenchmark}, at sizes from a thousand
+ * rectangles up by factors of ten. Three costs are reported for each size:
+ * a freeze on its own, which should not grow with the drawing; a freeze
+ * followed by one edit, which pays for copying the pages that the edit
+ * touches, along with the number of pages copied per edit; and an edit with
+ * no freeze before it. Each is timed over batches of runs repeated for at
+ * least {@link #MIN_MILLIS} milliseconds and reported in nanoseconds per
+ * run, since one run takes far less than the resolution of the clock. A deep
+ * copy of the drawing as a {@link DocumentSnapshot} is timed for comparison.
+ * Finally a frozen copy is checked to be unchanged by a mix of edits to the
+ * drawing.
+ */
+public class FreezeBenchmark {
+
+    /**
+     * The number of rectangles in the smallest drawing.
+     */
+    private static final int MIN_ELEMENTS = 1000;
+
+    /**
+     * The least time for which each cost is timed, in milliseconds.
+     */
+    private static final long MIN_MILLIS = 200;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FreezeBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param maxElementCount the number of rectangles in the largest drawing
+     * @param runs the number of freezes and edits to time at each size
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int maxElementCount, int runs) {
+        final StringBuffer report = new StringBuffer();
+        report.append(runs).append(" runs per batch, at least ").append(
+            MIN_MILLIS).append(" ms of batches of each\n");
+        for (int count = MIN_ELEMENTS; count <= maxElementCount; count *= 10) {
+            run(count, runs, report);
+        }
+        return report.toString();
+    }
+
+    /**
+     * Runs the benchmark on one drawing.
+     *
+     * @param elementCount the number of rectangles in the drawing
+     * @param runs the number of freezes and edits in each batch to time
+     * @param report the buffer to which to append the results
+     */
+    private static void run(int elementCount, int runs, StringBuffer report) {
+        final Random random = new Random(1);
+        final SVGDocument document =
+            JournalBenchmark.createDrawing(elementCount, random);
+        final int xId = document.getNameTable().intern("x");
+        final int count = Math.max(1, runs);
+        System.gc();
+
+        long start = System.currentTimeMillis();
+        long freezeMillis;
+        long freezes = 0;
+        SVGDocument frozen = null;
+        do {
+            for (int i = 0; i < count; i++) {
+                frozen = document.freeze();
+            }
+            freezes += count;
+            freezeMillis = System.currentTimeMillis() - start;
+        } while (freezeMillis < MIN_MILLIS);
+
+        final int pagesBefore = document.getCopiedPageCount();
+        start = System.currentTimeMillis();
+        long firstEditMillis;
+        long firstEdits = 0;
+        do {
+            for (int i = 0; i < count; i++) {
+                frozen = document.freeze();
+                document.setNumber(1 + random.nextInt(elementCount), xId, i);
+            }
+            firstEdits += count;
+            firstEditMillis = System.currentTimeMillis() - start;
+        } while (firstEditMillis < MIN_MILLIS);
+        final int pagesCopied = document.getCopiedPageCount() - pagesBefore;
+
+        start = System.currentTimeMillis();
+        long editMillis;
+        long edits = 0;
+        do {
+            for (int i = 0; i < count; i++) {
+                document.setNumber(1 + random.nextInt(elementCount), xId, i);
+            }
+            edits += count;
+            editMillis = System.currentTimeMillis() - start;
+        } while (editMillis < MIN_MILLIS);
+
+        start = System.currentTimeMillis();
+        final byte[] copy = DocumentSnapshot.toByteArray(document);
+        final long copyMillis = System.currentTimeMillis() - start;
+
+        report.append(elementCount).append(" elements\n");
+        report.append("Freeze: ").append(freezeMillis * 1000000 / freezes)
+            .append(" ns; with an edit: ").append(
+                firstEditMillis * 1000000 / firstEdits).append(" ns, ")
+            .append(pagesCopied * 100 / firstEdits / 100.0f).append(
+                " pages copied per edit; edit alone: ").append(
+                editMillis * 1000000 / edits).append(" ns\n");
+        report.append("Deep copy: ").append(copyMillis).append(" ms, ")
+            .append(copy.length).append(" bytes\n");
+
+        // edit every kind of array and check that the frozen copy is unchanged
+        frozen = document.freeze();
+        final int fillId = document.getNameTable().intern("fill");
+        final int heightId = document.getNameTable().intern("height");
+        document.setNumber(1, xId, -1);
+        document.setString(2, fillId, "#996633");
+        document.removeAttribute(3, heightId);
+        document.removeElement(4);
+        final int path = document.createElement(document.getRoot(), "path");
+        document.setAttribute(path, "d", "M0 0L10 10");
+        try {
+            if (!JournalBenchmark.equal(frozen, DocumentSnapshot
+                .fromByteArray(copy))) {
+                report.append("MISMATCH: frozen copy changed\n");
+            } else if (JournalBenchmark.equal(frozen, document)) {
+                report.append("MISMATCH: document did not change\n");
+            }
+        } catch (final IOException e) {
+            // neither the snapshot nor SVGDocumentWriter reads or writes files
+            throw new RuntimeException(e.toString());
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * JournalBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+/**
+ * Compares the latency of saving a document by appending its changes to a
+ * {@link DocumentJournal} with that of rewriting it in full with
+ * {@link SVGDocumentWriter}, on a synthetic drawing of rectangles that are
+ * moved between saves. The journal is then replayed onto the original drawing
+ * and the result is checked against the edited drawing. Output is written to
+ * memory, so the times exclude the cost of the file system; on flash that
+ * cost grows with the number of bytes written, which is also reported.
+ */
+public class JournalBenchmark {
+
+    /**
+     * The width and height of the synthetic page.
+     */
+    private static final float PAGE_SIZE = 10000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private JournalBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param elementCount the number of rectangles in the drawing
+     * @param saveCount the number of saves to time
+     * @param editsPerSave the number of rectangles moved before each save
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int elementCount, int saveCount,
+            int editsPerSave) {
+        final Random random = new Random(1);
+        final SVGDocument document = createDrawing(elementCount, random);
+        final byte[] original = DocumentSnapshot.toByteArray(document);
+        final int xId = document.getNameTable().intern("x");
+        final int yId = document.getNameTable().intern("y");
+
+        final StringBuffer report = new StringBuffer();
+        report.append(elementCount).append(" elements, ").append(saveCount)
+            .append(" saves of ").append(editsPerSave).append(" moves\n");
+
+        final DocumentJournal journal = new DocumentJournal();
+        journal.attach(document);
+        final ByteArrayOutputStream journalFile = new ByteArrayOutputStream();
+        final CountingOutputStream rewriteFile = new CountingOutputStream();
+        long journalMillis = 0;
+        long rewriteMillis = 0;
+        long rewriteBytes = 0;
+        try {
+            DocumentJournal.writeHeader(journalFile, 0, 0);
+            for (int save = 0; save < saveCount; save++) {
+                for (int i = 0; i < editsPerSave; i++) {
+                    final int element = 1 + random.nextInt(elementCount);
+                    document.setNumber(element, xId, random.nextFloat()
+                        * PAGE_SIZE);
+                    document.setNumber(element, yId, random.nextFloat()
+                        * PAGE_SIZE);
+                }
+
+                long start = System.currentTimeMillis();
+                journalFile.write(journal.takePending());
+                journalMillis += System.currentTimeMillis() - start;
+
+                rewriteFile.reset();
+                start = System.currentTimeMillis();
+                SVGDocumentWriter.write(document, rewriteFile);
+                rewriteMillis += System.currentTimeMillis() - start;
+                rewriteBytes += rewriteFile.getCount();
+            }
+        } catch (final IOException e) {
+            // neither stream throws
+            throw new RuntimeException(e.toString());
+        }
+        journal.detach();
+
+        final int saves = Math.max(1, saveCount);
+        report.append("Journal save: ").append(journalMillis / saves).append(
+            " ms, ").append((journalFile.size() - DocumentJournal.HEADER_SIZE)
+            / saves).append(" bytes avg\n");
+        report.append("Full rewrite: ").append(rewriteMillis / saves).append(
+            " ms, ").append(rewriteBytes / saves).append(" bytes avg\n");
+
+        // replay the journal onto the original drawing
+        try {
+            final SVGDocument replayed =
+                DocumentSnapshot.fromByteArray(original);
+            final long start = System.currentTimeMillis();
+            final long length =
+                journal.replay(new ByteArrayInputStream(journalFile
+                    .toByteArray()), replayed, 0, 0);
+            final long elapsed = System.currentTimeMillis() - start;
+            report.append("Replay: ").append(elapsed).append(" ms, ").append(
+                journal.getReplayedRecordCount()).append(" records\n");
+            if (length != journalFile.size()
+                || !equal(document, replayed)) {
+                report.append("MISMATCH after replay\n");
+            }
+        } catch (final IOException e) {
+            report.append("Replay failed: ").append(e.getMessage()).append(
+                '\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Creates a drawing of randomly placed rectangles. This is also the
+     * drawing opened by {@link SnapshotBenchmark}.
+     *
+     * @param elementCount the number of rectangles
+     * @param random the source of the rectangles' positions
+     * @return the drawing; never returns null
+     */
+    static SVGDocument createDrawing(int elementCount, Random random) {
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        for (int i = 0; i < elementCount; i++) {
+            final int rect = document.createElement(root, "rect");
+            document.setAttribute(rect, "x", Float.toString(random.nextFloat()
+                * PAGE_SIZE));
+            document.setAttribute(rect, "y", Float.toString(random.nextFloat()
+                * PAGE_SIZE));
+            document.setAttribute(rect, "width", "40");
+            document.setAttribute(rect, "height", "30");
+            document.setAttribute(rect, "fill", "#336699");
+        }
+        return document;
+    }
+
+    /**
+     * Returns whether two documents are written as the same text.
+     *
+     * @param a the first document
+     * @param b the second document
+     * @return true if the documents are equivalent
+     * @throws IOException never; SVGDocumentWriter declares it
+     */
+    static boolean equal(SVGDocument a, SVGDocument b)
+            throws IOException {
+        final ByteArrayOutputStream textA = new ByteArrayOutputStream();
+        final ByteArrayOutputStream textB = new ByteArrayOutputStream();
+        SVGDocumentWriter.write(a, textA);
+        SVGDocumentWriter.write(b, textB);
+        final byte[] bytesA = textA.toByteArray();
+        final byte[] bytesB = textB.toByteArray();
+        if (bytesA.length != bytesB.length) {
+            return false;
+        }
+        for (int i = 0; i < bytesA.length; i++) {
+            if (bytesA[i] != bytesB[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An OutputStream which discards its output, counting the bytes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        /**
+         * Returns the number of bytes written since the last reset.
+         *
+         * @return the number of bytes written
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Resets the count to zero.
+         */
+        public void reset() {
+            this.count = 0;
+        }
+
+        /**
+         * Counts a byte.
+         */
+        public void write(int b) {
+            this.count++;
+        }
+
+        /**
+         * Counts bytes.
+         */
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * SVGDocumentBuilder.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.SVGHandler;
+
+/**
+ * An {@link SVGHandler} which builds an {@link SVGDocument}. For the name IDs
+ * to be resolved without hashing, the parser should be created with the
+ * document's NameTable.
+ */
+public class SVGDocumentBuilder implements SVGHandler {
+
+    private final SVGDocument document;
+    private final NameTable names;
+    private int current;
+
+    /**
+     * Creates a new instance of <code>SVGDocumentBuilder</code>.
+     * 
+     * @param document the empty document to build
+     * @throws NullPointerException if document==null
+     */
+    public SVGDocumentBuilder(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        }
+        this.document = document;
+        this.names = document.getNameTable();
+        this.current = SVGDocument.NONE;
+    }
+
+    /**
+     * Returns the document being built.
+     * 
+     * @return the document that was specified to the constructor; never
+     * returns null
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Creates a new element as the last child of the current element.
+     */
+    public void startElement(String name) {
+        this.current = this.document.createElement(this.current, name);
+    }
+
+    /**
+     * Sets an attribute of the current element.
+     */
+    public void attribute(String name, char[] value, int offset, int length) {
+        this.document.setAttribute(this.current, this.names.intern(name),
+            value, offset, length);
+    }
+
+    /**
+     * Makes the parent of the current element the current element.
+     */
+    public void endElement(String name) {
+        this.current = this.document.getParent(this.current);
+    }
+
+    /**
+     * Appends text to the current element.
+     */
+    public void text(char[] text, int offset, int length) {
+        this.document.appendText(this.current, text, offset, length);
+    }
+
+    /**
+     * Does nothing beyond resetting the current element.
+     */
+    public void endDocument() {
+        this.current = SVGDocument.NONE;
+    }
+}
@@ -0,0 +1,617 @@
+/*
+ * SVGDocumentWriter.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.NumberFormatter;
+import denver.svgeditor.svg.PathData;
+import denver.svgeditor.svg.PathEncoder;
+
+/**
+ * Writes an {@link SVGDocument} as UTF-8 encoded SVG text. The text is
+ * encoded into a small buffer which is written to the output stream whenever
+ * it fills, so the document's text is never held in memory as a whole.
+ * <p>
+ * Writing is incremental: each invocation of {@link #write(int)} writes at
+ * most the given number of elements, so that a caller on a background thread
+ * can report progress and stop early between chunks.
+ * <p>
+ * The text can be minified with {@link #setMinified(boolean)}, which writes
+ * numbers with fewer fraction digits, path data with relative commands, and
+ * leaves out attributes whose values are those the element would have
+ * without them. Only the attributes listed below are left out, and only
+ * where that cannot change how the document is rendered:
+ * <ul>
+ * <li>a zero <code>x</code>, <code>y</code>, <code>cx</code>,
+ * <code>cy</code>, <code>x1</code>, <code>y1</code>, <code>x2</code> or
+ * <code>y2</code> of a shape;</li>
+ * <li>an <code>opacity</code> of 1, which is not inherited; and</li>
+ * <li>an inherited fill or stroke property equal to the value the element
+ * would inherit, which is that of the nearest ancestor with the attribute
+ * or else the property's initial value. These are kept if the document
+ * has a <code>style</code> or <code>use</code> element, either of which
+ * could give the element another value to inherit, or if the element or an
+ * ancestor has a <code>style</code> attribute.</li>
+ * </ul>
+ */
+public class SVGDocumentWriter {
+
+    /**
+     * The default maximum number of elements to write per invocation of
+     * {@link #write(int)} when the caller has no particular preference.
+     */
+    public static final int DEFAULT_CHUNK_ELEMENTS = 64;
+
+    /**
+     * The size of the buffer into which text is encoded before being written
+     * to the output stream.
+     */
+    public static final int BUFFER_SIZE = 1024;
+
+    /**
+     * The maximum number of digits written after the decimal point of a
+     * number by default, which does not limit them: every significant digit
+     * of a float is written, with an exponent if the number is very small or
+     * very large.
+     */
+    public static final int DEFAULT_FRACTION_DIGITS =
+        NumberFormatter.ALL_FRACTION_DIGITS;
+
+    /**
+     * The maximum number of digits written after the decimal point of a
+     * number in minified text; a thousandth of a user unit is far below a
+     * pixel at any practical zoom.
+     */
+    public static final int MINIFIED_FRACTION_DIGITS = 3;
+
+    private static final String[] POSITION_ATTRIBUTES = {
+        "x", "y", "cx", "cy", "x1", "y1", "x2", "y2" };
+
+    private static final String[] INHERITED_ATTRIBUTES = {
+        "fill", "fill-opacity", "fill-rule", "stroke", "stroke-opacity",
+        "stroke-width", "stroke-linecap", "stroke-linejoin",
+        "stroke-miterlimit" };
+
+    private static final String[] INHERITED_INITIAL_VALUES = {
+        "black", "1", "nonzero", "none", "1", "1", "butt", "miter", "4" };
+
+    private static final String DECLARATION =
+        "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n";
+
+    private final SVGDocument document;
+    private final OutputStream out;
+    private final int textNameId;
+    private final byte[] buffer;
+    private final StringBuffer value;
+
+    private boolean minified;
+    private int fractionDigits;
+    private int[] positionNameIds;
+    private int[] inheritedNameIds;
+    private int opacityNameId;
+    private int styleNameId;
+    private boolean inheritedRemovable;
+
+    private int length;
+    private char highSurrogate;
+    private int next;
+    private int elementsWritten;
+    private long bytesWritten;
+    private boolean started;
+
+    /**
+     * Creates a new instance of <code>SVGDocumentWriter</code>.
+     *
+     * @param document the document to write
+     * @param out the stream to which to write the document; it is not closed
+     * by this object
+     * @throws NullPointerException if document==null or out==null
+     */
+    public SVGDocumentWriter(SVGDocument document, OutputStream out) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (out == null) {
+            throw new NullPointerException("out==null");
+        }
+        this.document = document;
+        this.out = out;
+        this.textNameId =
+            document.getNameTable().intern(SVGDocument.TEXT_ATTRIBUTE);
+        this.buffer = new byte[BUFFER_SIZE];
+        this.value = new StringBuffer();
+        this.next = document.getRoot();
+        this.fractionDigits = DEFAULT_FRACTION_DIGITS;
+    }
+
+    /**
+     * Sets whether to write minified text. Minified text has no XML
+     * declaration, numbers with at most {@link #MINIFIED_FRACTION_DIGITS}
+     * fraction digits and no leading zeros, path data with relative
+     * commands, and none of the redundant attributes described above.
+     *
+     * @param minified true to write minified text, false to write the
+     * document's values at full precision
+     * @throws IllegalStateException if writing has started
+     */
+    public void setMinified(boolean minified) {
+        if (this.started) {
+            throw new IllegalStateException("writing has started");
+        }
+        this.minified = minified;
+        this.fractionDigits =
+            minified ? MINIFIED_FRACTION_DIGITS : DEFAULT_FRACTION_DIGITS;
+    }
+
+    /**
+     * Returns whether minified text is written.
+     *
+     * @return true if the text is minified
+     */
+    public boolean isMinified() {
+        return this.minified;
+    }
+
+    /**
+     * Writes a document to a stream in its entirety.
+     *
+     * @param document the document to write
+     * @param out the stream to which to write the document; it is flushed but
+     * not closed
+     * @return the number of bytes written
+     * @throws IOException if writing to the stream fails
+     * @throws NullPointerException if document==null or out==null
+     */
+    public static long write(SVGDocument document, OutputStream out)
+            throws IOException {
+        return write(document, out, false);
+    }
+
+    /**
+     * Writes a document to a stream in its entirety, optionally minified.
+     *
+     * @param document the document to write
+     * @param out the stream to which to write the document; it is flushed but
+     * not closed
+     * @param minified true to write minified text
+     * @return the number of bytes written
+     * @throws IOException if writing to the stream fails
+     * @throws NullPointerException if document==null or out==null
+     * @see #setMinified(boolean)
+     */
+    public static long write(SVGDocument document, OutputStream out,
+            boolean minified) throws IOException {
+        final SVGDocumentWriter writer = new SVGDocumentWriter(document, out);
+        writer.setMinified(minified);
+        while (writer.write(Integer.MAX_VALUE)) {
+            // keep writing
+        }
+        return writer.getBytesWritten();
+    }
+
+    /**
+     * Writes the next elements of the document. When the last element has
+     * been written the buffer is flushed to the output stream.
+     *
+     * @param maxElements the maximum number of elements to write
+     * @return true if there are more elements to write, false if the whole
+     * document has been written
+     * @throws IOException if writing to the stream fails
+     */
+    public boolean write(int maxElements) throws IOException {
+        final SVGDocument document = this.document;
+        if (!this.started) {
+            this.started = true;
+            if (this.minified) {
+                this.prepareMinified();
+            } else {
+                this.append(DECLARATION);
+            }
+        }
+
+        int element = this.next;
+        for (int i = 0; i < maxElements && element != SVGDocument.NONE; i++) {
+            this.writeStartTag(element);
+            this.elementsWritten++;
+
+            // descend to the first child, or close this element and its
+            // ancestors until one of them has a next sibling
+            final int child = document.getFirstChild(element);
+            if (child != SVGDocument.NONE) {
+                element = child;
+                continue;
+            }
+            while (element != SVGDocument.NONE) {
+                this.writeEndTag(element);
+                final int sibling = document.getNextSibling(element);
+                if (sibling != SVGDocument.NONE) {
+                    element = sibling;
+                    break;
+                }
+                element = document.getParent(element);
+            }
+        }
+        this.next = element;
+
+        if (element == SVGDocument.NONE) {
+            this.flush();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of elements written so far.
+     *
+     * @return the number of elements written
+     */
+    public int getElementsWritten() {
+        return this.elementsWritten;
+    }
+
+    /**
+     * Returns the number of bytes written to the output stream so far,
+     * including those still in the buffer.
+     *
+     * @return the number of bytes written
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten + this.length;
+    }
+
+    /**
+     * Writes an element's start tag and attributes, or the text of a text
+     * node.
+     */
+    private void writeStartTag(int element) throws IOException {
+        final SVGDocument document = this.document;
+        if (document.getKind(element) == ElementKind.TEXT_NODE) {
+            this.appendEscaped(document.getText(element), false);
+            return;
+        }
+        this.append('<');
+        this.append(document.getElementName(element));
+
+        final int count = document.getAttributeCount(element);
+        for (int i = 0; i < count; i++) {
+            final int slot = document.getAttributeSlot(element, i);
+            if (document.getAttributeNameId(slot) == this.textNameId
+                || (this.minified && this.isRedundant(element, slot))) {
+                continue;
+            }
+            this.append(' ');
+            this.append(document.getAttributeName(slot));
+            this.append("=\"");
+            this.appendEscaped(this.formatValue(slot), true);
+            this.append('"');
+        }
+
+        if (document.getFirstChild(element) != SVGDocument.NONE) {
+            this.append('>');
+        } else {
+            this.append("/>");
+        }
+    }
+
+    /**
+     * Writes an element's end tag, unless it was written as an empty tag or
+     * is a text node.
+     */
+    private void writeEndTag(int element) throws IOException {
+        final SVGDocument document = this.document;
+        if (document.getFirstChild(element) != SVGDocument.NONE) {
+            this.append("</");
+            this.append(document.getElementName(element));
+            this.append('>');
+        }
+        if (document.getParent(element) == SVGDocument.NONE
+            && !this.minified) {
+            this.append('\n');
+        }
+    }
+
+    /**
+     * Formats the value of an attribute into the reusable value buffer.
+     */
+    private StringBuffer formatValue(int slot) {
+        final SVGDocument document = this.document;
+        final StringBuffer value = this.value;
+        value.setLength(0);
+        switch (document.getAttributeType(slot)) {
+        case SVGDocument.TYPE_NUMBER:
+            NumberFormatter.append(value, document.getNumberValue(slot),
+                this.fractionDigits, this.minified);
+            break;
+        case SVGDocument.TYPE_PATH: {
+            final int path = document.getPathValue(slot);
+            final PathData pool = document.getPathPool();
+            if (this.minified) {
+                PathEncoder.encodeRelativePath(pool.getCommands(), document
+                    .getPathCommandStart(path), document
+                    .getPathCommandCount(path), pool.getCoords(), document
+                    .getPathCoordStart(path), value, this.fractionDigits,
+                    true);
+            } else {
+                PathEncoder.encodePath(pool.getCommands(), document
+                    .getPathCommandStart(path), document
+                    .getPathCommandCount(path), pool.getCoords(), document
+                    .getPathCoordStart(path), value, this.fractionDigits,
+                    false);
+            }
+            break;
+        }
+        case SVGDocument.TYPE_POINTS: {
+            final int path = document.getPathValue(slot);
+            PathEncoder.encodePoints(document.getPathPool().getCoords(),
+                document.getPathCoordStart(path), document
+                    .getPathCoordCount(path), value, this.fractionDigits);
+            break;
+        }
+        default:
+            value.append(document.getStringValue(slot));
+            break;
+        }
+        return value;
+    }
+
+    /**
+     * Looks up the names of the attributes that minified text leaves out, and
+     * decides whether inherited properties can be left out at all.
+     */
+    private void prepareMinified() {
+        final SVGDocument document = this.document;
+        final NameTable names = document.getNameTable();
+        this.positionNameIds = findNames(names, POSITION_ATTRIBUTES);
+        this.inheritedNameIds = findNames(names, INHERITED_ATTRIBUTES);
+        this.opacityNameId = names.find("opacity");
+        this.styleNameId = names.find("style");
+
+        // a style sheet or an instance could give an element a value to
+        // inherit other than its ancestor's
+        boolean removable = true;
+        for (int e = document.getElementCount() - 1; e >= 0 && removable; e--) {
+            final byte kind = document.getKind(e);
+            removable = (kind != ElementKind.STYLE && kind != ElementKind.USE);
+        }
+        this.inheritedRemovable = removable;
+    }
+
+    /**
+     * Returns whether an attribute of an element can be left out of minified
+     * text without changing how the document is rendered.
+     *
+     * @param element the element
+     * @param slot the slot of the attribute
+     * @return true if the attribute is redundant
+     */
+    private boolean isRedundant(int element, int slot) {
+        final SVGDocument document = this.document;
+        final int nameId = document.getAttributeNameId(slot);
+        final boolean number =
+            (document.getAttributeType(slot) == SVGDocument.TYPE_NUMBER);
+        if (nameId == this.opacityNameId) {
+            return number && document.getNumberValue(slot) == 1;
+        }
+        final int[] positions = this.positionNameIds;
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == nameId) {
+                return number && document.getNumberValue(slot) == 0
+                    && ElementKind.isShape(document.getKind(element));
+            }
+        }
+        if (!this.inheritedRemovable) {
+            return false;
+        }
+        final int[] inherited = this.inheritedNameIds;
+        for (int i = 0; i < inherited.length; i++) {
+            if (inherited[i] == nameId) {
+                return this.isInherited(element, slot,
+                    INHERITED_INITIAL_VALUES[i]);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the value of an inherited property of an element is
+     * the one it would inherit without the attribute.
+     *
+     * @param element the element
+     * @param slot the slot of the attribute
+     * @param initialValue the initial value of the property
+     * @return true if the attribute is redundant
+     */
+    private boolean isInherited(int element, int slot, String initialValue) {
+        final SVGDocument document = this.document;
+        final int nameId = document.getAttributeNameId(slot);
+        final String value = document.getStringValue(slot);
+        String inherited = null;
+        for (int e = element; e != SVGDocument.NONE; e =
+            document.getParent(e)) {
+            if (this.styleNameId >= 0
+                && document.findAttribute(e, this.styleNameId) >= 0) {
+                return false;
+            }
+            if (e != element && inherited == null) {
+                final int other = document.findAttribute(e, nameId);
+                if (other >= 0) {
+                    inherited = document.getStringValue(other);
+                }
+            }
+        }
+        return value.equals((inherited == null) ? initialValue : inherited);
+    }
+
+    /**
+     * Finds the IDs of names in a table.
+     *
+     * @param names the table
+     * @param strings the names to find
+     * @return the ID of each name, or -1 for those that are not in the table
+     */
+    private static int[] findNames(NameTable names, String[] strings) {
+        final int[] ids = new int[strings.length];
+        for (int i = 0; i < strings.length; i++) {
+            ids[i] = names.find(strings[i]);
+        }
+        return ids;
+    }
+
+    /**
+     * Appends characters, replacing those that are markup with references.
+     */
+    private void appendEscaped(String s, boolean attribute)
+            throws IOException {
+        final int length = s.length();
+        for (int i = 0; i < length; i++) {
+            this.appendEscaped(s.charAt(i), attribute);
+        }
+    }
+
+    /**
+     * Appends characters, replacing those that are markup with references.
+     */
+    private void appendEscaped(StringBuffer s, boolean attribute)
+            throws IOException {
+        final int length = s.length();
+        for (int i = 0; i < length; i++) {
+            this.appendEscaped(s.charAt(i), attribute);
+        }
+    }
+
+    /**
+     * Appends a character, replacing it with a reference if it is markup.
+     */
+    private void appendEscaped(char c, boolean attribute) throws IOException {
+        switch (c) {
+        case '<':
+            this.append("&lt;");
+            break;
+        case '>':
+            this.append("&gt;");
+            break;
+        case '&':
+            this.append("&amp;");
+            break;
+        case '"':
+            if (attribute) {
+                this.append("&quot;");
+            } else {
+                this.append(c);
+            }
+            break;
+        default:
+            this.append(c);
+            break;
+        }
+    }
+
+    /**
+     * Appends characters that need no escaping.
+     */
+    private void append(String s) throws IOException {
+        final int length = s.length();
+        for (int i = 0; i < length; i++) {
+            this.append(s.charAt(i));
+        }
+    }
+
+    /**
+     * Encodes a character as UTF-8 into the buffer. A high surrogate is held
+     * until the next character, so that a surrogate pair is encoded as the
+     * single four-byte sequence of its code point; a surrogate that is not
+     * part of a pair has no UTF-8 encoding, nor any character reference that
+     * a parser accepts, and is written as U+FFFD instead.
+     */
+    private void append(char c) throws IOException {
+        final char high = this.highSurrogate;
+        if (high != 0) {
+            this.highSurrogate = 0;
+            if (c >= 0xDC00 && c <= 0xDFFF) {
+                this.appendCodePoint(0x10000 + ((high - 0xD800) << 10)
+                    + (c - 0xDC00));
+                return;
+            }
+            this.appendCodePoint(0xFFFD);
+        }
+        if (c >= 0xD800 && c <= 0xDBFF) {
+            this.highSurrogate = c;
+        } else if (c >= 0xDC00 && c <= 0xDFFF) {
+            this.appendCodePoint(0xFFFD);
+        } else {
+            this.appendCodePoint(c);
+        }
+    }
+
+    /**
+     * Encodes a code point as UTF-8 into the buffer.
+     */
+    private void appendCodePoint(int c) throws IOException {
+        if (this.length > BUFFER_SIZE - 4) {
+            this.drain();
+        }
+        final byte[] buffer = this.buffer;
+        if (c < 0x80) {
+            buffer[this.length++] = (byte) c;
+        } else if (c < 0x800) {
+            buffer[this.length++] = (byte) (0xC0 | (c >> 6));
+            buffer[this.length++] = (byte) (0x80 | (c & 0x3F));
+        } else if (c < 0x10000) {
+            buffer[this.length++] = (byte) (0xE0 | (c >> 12));
+            buffer[this.length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[this.length++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+            buffer[this.length++] = (byte) (0xF0 | (c >> 18));
+            buffer[this.length++] = (byte) (0x80 | ((c >> 12) & 0x3F));
+            buffer[this.length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buffer[this.length++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    /**
+     * Writes the buffer to the output stream and flushes the stream, after
+     * writing any high surrogate held for a low surrogate that never came.
+     */
+    private void flush() throws IOException {
+        if (this.highSurrogate != 0) {
+            this.highSurrogate = 0;
+            this.appendCodePoint(0xFFFD);
+        }
+        this.drain();
+        this.out.flush();
+    }
+
+    /**
+     * Writes the buffer to the output stream.
+     */
+    private void drain() throws IOException {
+        if (this.length > 0) {
+            this.out.write(this.buffer, 0, this.length);
+            this.bytesWritten += this.length;
+            this.length = 0;
+        }
+    }
+}
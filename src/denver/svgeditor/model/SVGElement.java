@@ -0,0 +1,196 @@
+/*
+ * SVGElement.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.Vector;
+
+/**
+ * An element of an SVG document, with its attributes and child elements.
+ */
+public class SVGElement {
+
+    private final String name;
+    private final Hashtable attributes;
+    private final Vector children;
+    private SVGElement parent;
+    private StringBuffer text;
+
+    /**
+     * Creates a new instance of <code>SVGElement</code>.
+     * 
+     * @param name the name of the element
+     * @throws NullPointerException if name==null
+     */
+    public SVGElement(String name) {
+        if (name == null) {
+            throw new NullPointerException("name==null");
+        }
+        this.name = name;
+        this.attributes = new Hashtable();
+        this.children = new Vector();
+    }
+
+    /**
+     * Returns the name of this element.
+     * 
+     * @return the name that was specified to the constructor; never returns
+     * null
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the element that contains this element.
+     * 
+     * @return the parent of this element, or null if this element is the root
+     * of a document or has not been added to another element
+     */
+    public SVGElement getParent() {
+        return this.parent;
+    }
+
+    /**
+     * Returns the value of an attribute of this element.
+     * 
+     * @param name the name of the attribute
+     * @return the value of the attribute, or null if this element does not
+     * have the attribute
+     * @throws NullPointerException if name==null
+     */
+    public String getAttribute(String name) {
+        return (String) this.attributes.get(name);
+    }
+
+    /**
+     * Sets the value of an attribute of this element.
+     * 
+     * @param name the name of the attribute
+     * @param value the value of the attribute; may be null to remove the
+     * attribute
+     * @throws NullPointerException if name==null
+     */
+    public void setAttribute(String name, String value) {
+        if (value == null) {
+            this.attributes.remove(name);
+        } else {
+            this.attributes.put(name, value);
+        }
+    }
+
+    /**
+     * Returns the names of this element's attributes.
+     * 
+     * @return an enumeration of the names of this element's attributes, in no
+     * particular order; never returns null
+     */
+    public Enumeration getAttributeNames() {
+        return this.attributes.keys();
+    }
+
+    /**
+     * Returns the number of attributes of this element.
+     * 
+     * @return the number of attributes of this element
+     */
+    public int getAttributeCount() {
+        return this.attributes.size();
+    }
+
+    /**
+     * Returns the number of child elements of this element.
+     * 
+     * @return the number of child elements of this element
+     */
+    public int getChildCount() {
+        return this.children.size();
+    }
+
+    /**
+     * Returns a child element of this element.
+     * 
+     * @param index the index of the child to return
+     * @return the child at the given index; never returns null
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public SVGElement getChild(int index) {
+        return (SVGElement) this.children.elementAt(index);
+    }
+
+    /**
+     * Appends a child element to this element.
+     * 
+     * @param child the element to append
+     * @throws NullPointerException if child==null
+     * @throws IllegalArgumentException if child already has a parent
+     */
+    public void addChild(SVGElement child) {
+        if (child == null) {
+            throw new NullPointerException("child==null");
+        } else if (child.parent != null) {
+            throw new IllegalArgumentException("child already has a parent");
+        }
+        child.parent = this;
+        this.children.addElement(child);
+    }
+
+    /**
+     * Returns the character data contained directly in this element.
+     * 
+     * @return the text of this element, or null if it has none
+     */
+    public String getText() {
+        return (this.text == null) ? null : this.text.toString();
+    }
+
+    /**
+     * Appends character data to the text of this element.
+     * 
+     * @param chars the array containing the characters to append
+     * @param offset the index of the first character to append
+     * @param length the number of characters to append
+     * @throws NullPointerException if chars==null
+     */
+    public void appendText(char[] chars, int offset, int length) {
+        if (this.text == null) {
+            this.text = new StringBuffer(length);
+        }
+        this.text.append(chars, offset, length);
+    }
+
+    /**
+     * Returns the number of elements in the subtree rooted at this element.
+     * 
+     * @return the number of elements in this subtree, including this element
+     */
+    public int getSubtreeSize() {
+        int size = 1;
+        for (int i = this.children.size() - 1; i >= 0; i--) {
+            size += this.getChild(i).getSubtreeSize();
+        }
+        return size;
+    }
+}
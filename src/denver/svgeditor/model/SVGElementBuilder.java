@@ -0,0 +1,85 @@
+/*
+ * SVGElementBuilder.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import denver.svgeditor.svg.SVGHandler;
+
+/**
+ * An {@link SVGHandler} which builds a tree of {@link SVGElement} objects.
+ */
+public class SVGElementBuilder implements SVGHandler {
+
+    private SVGElement root;
+    private SVGElement current;
+
+    /**
+     * Returns the root element of the document.
+     * 
+     * @return the root element, or null if no element has been started
+     */
+    public SVGElement getRoot() {
+        return this.root;
+    }
+
+    /**
+     * Creates a new element and appends it to the current element.
+     */
+    public void startElement(String name) {
+        final SVGElement element = new SVGElement(name);
+        if (this.current == null) {
+            this.root = element;
+        } else {
+            this.current.addChild(element);
+        }
+        this.current = element;
+    }
+
+    /**
+     * Sets an attribute of the current element.
+     */
+    public void attribute(String name, char[] value, int offset, int length) {
+        this.current.setAttribute(name, new String(value, offset, length));
+    }
+
+    /**
+     * Makes the parent of the current element the current element.
+     */
+    public void endElement(String name) {
+        this.current = this.current.getParent();
+    }
+
+    /**
+     * Appends text to the current element.
+     */
+    public void text(char[] text, int offset, int length) {
+        this.current.appendText(text, offset, length);
+    }
+
+    /**
+     * Does nothing beyond resetting the current element.
+     */
+    public void endDocument() {
+        this.current = null;
+    }
+}
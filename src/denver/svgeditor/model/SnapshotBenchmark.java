@@ -0,0 +1,118 @@
+/*
+ * SnapshotBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import denver.svgeditor.svg.SVGParseException;
+import denver.svgeditor.svg.SVGParser;
+
+/**
+ * Compares a cold open of a drawing, which parses its SVG text, with a warm
+ * open, which reads its {@link DocumentSnapshot}, on the synthetic drawing of
+ * {@link JournalBenchmark}. Both are read from memory, so the times exclude
+ * the cost of the file system; that cost grows with the number of bytes read,
+ * which is also reported.
+ */
+public class SnapshotBenchmark {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SnapshotBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param elementCount the number of rectangles in the drawing
+     * @param runs the number of cold and warm opens to time
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int elementCount, int runs) {
+        final SVGDocument original =
+            JournalBenchmark.createDrawing(elementCount, new Random(1));
+        final ByteArrayOutputStream text = new ByteArrayOutputStream();
+        try {
+            SVGDocumentWriter.write(original, text);
+        } catch (final IOException e) {
+            // a ByteArrayOutputStream never throws
+            throw new RuntimeException(e.toString());
+        }
+        final byte[] source = text.toByteArray();
+        final byte[] snapshot = DocumentSnapshot.toByteArray(original);
+
+        final StringBuffer report = new StringBuffer();
+        report.append(elementCount).append(" elements, ").append(runs).append(
+            " opens each\n");
+        long coldMillis = 0;
+        long warmMillis = 0;
+        SVGDocument cold = null;
+        SVGDocument warm = null;
+        try {
+            for (int i = 0; i < runs; i++) {
+                // let the previous documents be collected outside the timings
+                cold = null;
+                warm = null;
+                System.gc();
+
+                long start = System.currentTimeMillis();
+                cold = new SVGDocument();
+                final SVGParser parser =
+                    new SVGParser(new ByteArrayInputStream(source),
+                        new SVGDocumentBuilder(cold), cold.getNameTable());
+                parser.parseAll();
+                coldMillis += System.currentTimeMillis() - start;
+
+                start = System.currentTimeMillis();
+                warm = DocumentSnapshot.fromByteArray(snapshot);
+                warmMillis += System.currentTimeMillis() - start;
+            }
+            if (cold != null && !JournalBenchmark.equal(cold, warm)) {
+                report.append("MISMATCH between cold and warm opens\n");
+            }
+        } catch (final IOException e) {
+            report.append("Open failed: ").append(e.getMessage()).append('\n');
+            return report.toString();
+        } catch (final SVGParseException e) {
+            report.append("Parse failed: ").append(e.getMessage()).append(
+                '\n');
+            return report.toString();
+        }
+
+        final int count = Math.max(1, runs);
+        report.append("Cold open (parse): ").append(coldMillis / count).append(
+            " ms, ").append(source.length).append(" bytes\n");
+        report.append("Warm open (snapshot): ").append(warmMillis / count)
+            .append(" ms, ").append(snapshot.length).append(" bytes\n");
+        if (warmMillis > 0) {
+            report.append("Speedup: ").append(coldMillis / warmMillis).append(
+                '.').append((coldMillis * 10 / warmMillis) % 10).append("x\n");
+        }
+        return report.toString();
+    }
+}
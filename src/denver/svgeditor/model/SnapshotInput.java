@@ -0,0 +1,250 @@
+/*
+ * SnapshotInput.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.IOException;
+
+/**
+ * Decodes the big-endian values of a {@link DocumentSnapshot} directly from a
+ * byte array. Unlike a DataInputStream over a ByteArrayInputStream, arrays of
+ * values are decoded in a single loop each, without a method call and a
+ * bounds check per byte; every read is checked against the end of the
+ * snapshot up front, so a truncated or damaged snapshot is reported as an
+ * IOException rather than an ArrayIndexOutOfBoundsException.
+ */
+class SnapshotInput {
+
+    private final byte[] data;
+    private final int end;
+    private int pos;
+
+    /**
+     * Creates a new instance of <code>SnapshotInput</code>.
+     *
+     * @param data the array containing the snapshot
+     * @param offset the index in data of the first byte to decode
+     * @param length the number of bytes that may be decoded
+     * @throws NullPointerException if data==null
+     */
+    public SnapshotInput(byte[] data, int offset, int length) {
+        if (data == null) {
+            throw new NullPointerException("data==null");
+        }
+        this.data = data;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Returns the number of bytes that have not yet been decoded.
+     *
+     * @return the number of bytes remaining
+     */
+    public int remaining() {
+        return this.end - this.pos;
+    }
+
+    /**
+     * Decodes a 4-byte count of items and verifies that it is not negative
+     * and that the remaining bytes could hold that many items, which guards
+     * against allocating huge arrays for a damaged snapshot.
+     *
+     * @param itemSize the minimum number of bytes taken by each item
+     * @return the count
+     * @throws IOException if the count is invalid
+     */
+    public int readCount(int itemSize) throws IOException {
+        final int count = this.readInt();
+        if (count < 0 || (long) count * itemSize > this.remaining()) {
+            throw new IOException("invalid count: " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Decodes a 1-byte signed value.
+     *
+     * @return the value
+     * @throws IOException if the snapshot has no more bytes
+     */
+    public byte readByte() throws IOException {
+        this.require(1);
+        return this.data[this.pos++];
+    }
+
+    /**
+     * Decodes a 2-byte unsigned value.
+     *
+     * @return the value
+     * @throws IOException if the snapshot has too few bytes left
+     */
+    public int readUnsignedShort() throws IOException {
+        this.require(2);
+        final byte[] data = this.data;
+        final int pos = this.pos;
+        this.pos = pos + 2;
+        return ((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF);
+    }
+
+    /**
+     * Decodes a 4-byte signed value.
+     *
+     * @return the value
+     * @throws IOException if the snapshot has too few bytes left
+     */
+    public int readInt() throws IOException {
+        this.require(4);
+        final byte[] data = this.data;
+        final int pos = this.pos;
+        this.pos = pos + 4;
+        return (data[pos] << 24) | ((data[pos + 1] & 0xFF) << 16)
+            | ((data[pos + 2] & 0xFF) << 8) | (data[pos + 3] & 0xFF);
+    }
+
+    /**
+     * Decodes bytes into an array.
+     *
+     * @param dst the array into which to decode
+     * @param off the index in dst of the first byte
+     * @param count the number of bytes
+     * @throws IOException if the snapshot has too few bytes left
+     */
+    public void readBytes(byte[] dst, int off, int count) throws IOException {
+        this.require(count);
+        System.arraycopy(this.data, this.pos, dst, off, count);
+        this.pos += count;
+    }
+
+    /**
+     * Decodes 2-byte signed values into an array.
+     *
+     * @param dst the array into which to decode
+     * @param off the index in dst of the first value
+     * @param count the number of values
+     * @throws IOException if the snapshot has too few bytes left
+     */
+    public void readShorts(short[] dst, int off, int count)
+            throws IOException {
+        this.require(count * 2);
+        final byte[] data = this.data;
+        int pos = this.pos;
+        for (int i = off, end = off + count; i < end; i++, pos += 2) {
+            dst[i] = (short) ((data[pos] << 8) | (data[pos + 1] & 0xFF));
+        }
+        this.pos = pos;
+    }
+
+    /**
+     * Decodes 2-byte unsigned values into an int array.
+     *
+     * @param dst the array into which to decode
+     * @param off the index in dst of the first value
+     * @param count the number of values
+     * @throws IOException if the snapshot has too few bytes left
+     */
+    public void readUnsignedShorts(int[] dst, int off, int count)
+            throws IOException {
+        this.require(count * 2);
+        final byte[] data = this.data;
+        int pos = this.pos;
+        for (int i = off, end = off + count; i < end; i++, pos += 2) {
+            dst[i] = ((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF);
+        }
+        this.pos = pos;
+    }
+
+    /**
+     * Decodes 4-byte signed values into an array.
+     *
+     * @param dst the array into which to decode
+     * @param off the index in dst of the first value
+     * @param count the number of values
+     * @throws IOException if the snapshot has too few bytes left
+     */
+    public void readInts(int[] dst, int off, int count) throws IOException {
+        this.require(count * 4);
+        final byte[] data = this.data;
+        int pos = this.pos;
+        for (int i = off, end = off + count; i < end; i++, pos += 4) {
+            dst[i] =
+                (data[pos] << 24) | ((data[pos + 1] & 0xFF) << 16)
+                    | ((data[pos + 2] & 0xFF) << 8) | (data[pos + 3] & 0xFF);
+        }
+        this.pos = pos;
+    }
+
+    /**
+     * Decodes 4-byte IEEE 754 floats into an array.
+     *
+     * @param dst the array into which to decode
+     * @param off the index in dst of the first value
+     * @param count the number of values
+     * @throws IOException if the snapshot has too few bytes left
+     */
+    public void readFloats(float[] dst, int off, int count)
+            throws IOException {
+        this.require(count * 4);
+        final byte[] data = this.data;
+        int pos = this.pos;
+        for (int i = off, end = off + count; i < end; i++, pos += 4) {
+            dst[i] =
+                Float.intBitsToFloat((data[pos] << 24)
+                    | ((data[pos + 1] & 0xFF) << 16)
+                    | ((data[pos + 2] & 0xFF) << 8) | (data[pos + 3] & 0xFF));
+        }
+        this.pos = pos;
+    }
+
+    /**
+     * Decodes a String written as a 4-byte length followed by that many
+     * 2-byte chars, as by DataOutputStream.writeChars().
+     *
+     * @return the String; never returns null
+     * @throws IOException if the length is invalid
+     */
+    public String readString() throws IOException {
+        final int length = this.readCount(2);
+        final char[] chars = new char[length];
+        final byte[] data = this.data;
+        int pos = this.pos;
+        for (int i = 0; i < length; i++, pos += 2) {
+            chars[i] =
+                (char) (((data[pos] & 0xFF) << 8) | (data[pos + 1] & 0xFF));
+        }
+        this.pos = pos;
+        return new String(chars);
+    }
+
+    /**
+     * Verifies that the snapshot has at least the given number of bytes left.
+     *
+     * @param count the number of bytes
+     * @throws IOException if the snapshot has fewer bytes left
+     */
+    private void require(int count) throws IOException {
+        if (count < 0 || count > this.end - this.pos) {
+            throw new IOException("truncated snapshot");
+        }
+    }
+}
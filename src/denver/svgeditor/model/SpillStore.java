@@ -0,0 +1,58 @@
+/*
+ * SpillStore.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.IOException;
+
+/**
+ * Storage outside the heap, such as a temporary file, to which an
+ * {@link UndoHistory} moves its oldest entries when they exceed its budget.
+ * Entries are kept as a stack: the entry most recently pushed is the first
+ * popped.
+ */
+public interface SpillStore {
+
+    /**
+     * Adds an entry on top of those already stored.
+     *
+     * @param entry the bytes of the entry
+     * @throws IOException if the entry could not be stored, in which case the
+     * entries already stored are unchanged
+     * @throws NullPointerException if entry==null
+     */
+    public void push(byte[] entry) throws IOException;
+
+    /**
+     * Removes the entry most recently pushed and returns it.
+     *
+     * @return the bytes of the entry; never returns null
+     * @throws IOException if there are no entries or reading the entry fails
+     */
+    public byte[] pop() throws IOException;
+
+    /**
+     * Removes every entry, releasing the storage.
+     */
+    public void clear();
+}
@@ -0,0 +1,205 @@
+/*
+ * UndoBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.IOException;
+import java.util.Vector;
+
+/**
+ * Times the {@link UndoHistory} on a synthetic drawing of rectangles in a
+ * group. Deleting the group and undoing the deletion are timed and the size
+ * of the recorded command compared with that of the document; a drag of one
+ * rectangle is performed as many small moves, which should merge into one
+ * entry; and many edits are made with a small budget, so that most of the
+ * history is spilled, and are then all undone. After each part the drawing is
+ * checked against the original. The spill store is kept in memory, so the
+ * times exclude the cost of the file system.
+ */
+public class UndoBenchmark {
+
+    /**
+     * The budget of the history in the spill test, in bytes.
+     */
+    private static final int SPILL_BUDGET = 4 * 1024;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private UndoBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param elementCount the number of rectangles in the group
+     * @param editCount the number of moves in the drag and of edits in the
+     * spill test
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int elementCount, int editCount) {
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        final int group = document.createElement(root, "g");
+        for (int i = 0; i < elementCount; i++) {
+            final int rect = document.createElement(group, "rect");
+            document.setAttribute(rect, "x", Integer.toString(i % 100 * 50));
+            document.setAttribute(rect, "y", Integer.toString(i / 100 * 40));
+            document.setAttribute(rect, "width", "40");
+            document.setAttribute(rect, "height", "30");
+        }
+        final byte[] original = DocumentSnapshot.toByteArray(document);
+        final int xId = document.getNameTable().intern("x");
+        final int yId = document.getNameTable().intern("y");
+
+        final StringBuffer report = new StringBuffer();
+        report.append(elementCount).append(" elements, ").append(editCount)
+            .append(" edits\n");
+        try {
+            // delete the group, and undo and redo the deletion
+            UndoHistory history =
+                new UndoHistory(UndoHistory.DEFAULT_BUDGET, null);
+            long start = System.currentTimeMillis();
+            history.perform(document, ElementCommand.remove(document, group));
+            final long deleteMillis = System.currentTimeMillis() - start;
+            start = System.currentTimeMillis();
+            history.undo(document);
+            final long undoMillis = System.currentTimeMillis() - start;
+            start = System.currentTimeMillis();
+            history.redo(document);
+            final long redoMillis = System.currentTimeMillis() - start;
+            history.undo(document);
+            report.append("Delete: ").append(deleteMillis).append(
+                " ms, undo ").append(undoMillis).append(" ms, redo ").append(
+                redoMillis).append(" ms\n");
+            report.append("History: ").append(history.getSize()).append(
+                " bytes; document: ").append(document.estimateFootprint())
+                .append(" bytes\n");
+            checkEqual(document, original, "delete", report);
+
+            // drag one rectangle in small steps
+            history = new UndoHistory(UndoHistory.DEFAULT_BUDGET, null);
+            final int rect = group + 1;
+            for (int i = 1; i <= editCount; i++) {
+                history.perform(document, new CompoundCommand(
+                    new EditCommand[] {
+                        AttributeCommand.setNumber(document, rect, xId, i),
+                        AttributeCommand.setNumber(document, rect, yId, i) }));
+            }
+            report.append("Drag: ").append(history.getUndoCount()).append(
+                " entries, ").append(history.getMergedCount()).append(
+                " merged\n");
+            history.undo(document);
+            checkEqual(document, original, "drag", report);
+
+            // edit many rectangles with a small budget, then undo them all
+            final MemorySpillStore spill = new MemorySpillStore();
+            history = new UndoHistory(SPILL_BUDGET, spill);
+            start = System.currentTimeMillis();
+            for (int i = 0; i < editCount; i++) {
+                final int element = group + 1 + i % elementCount;
+                history.perform(document, AttributeCommand.setString(
+                    document, element, xId, "edited " + i));
+                history.seal();
+            }
+            final long editMillis = System.currentTimeMillis() - start;
+            final int spilled = history.getSpilledCount();
+            final int spilledBytes = spill.getLength();
+            start = System.currentTimeMillis();
+            while (history.undo(document) != null) {
+                // undo everything, reading the spilled entries back
+            }
+            final long undoAllMillis = System.currentTimeMillis() - start;
+            report.append("Spill: ").append(spilled).append(" of ").append(
+                editCount).append(" entries, ").append(spilledBytes).append(
+                " bytes; edit ").append(editMillis).append(" ms, undo all ")
+                .append(undoAllMillis).append(" ms\n");
+            checkEqual(document, original, "spill", report);
+        } catch (final IOException e) {
+            // neither the snapshot nor SVGDocumentWriter reads or writes files
+            throw new RuntimeException(e.toString());
+        }
+        return report.toString();
+    }
+
+    /**
+     * Reports a mismatch if a document is not written as the same text as the
+     * original.
+     */
+    private static void checkEqual(SVGDocument document, byte[] original,
+            String test, StringBuffer report) throws IOException {
+        if (!JournalBenchmark.equal(document, DocumentSnapshot
+            .fromByteArray(original))) {
+            report.append("MISMATCH after ").append(test).append('\n');
+        }
+    }
+
+    /**
+     * A SpillStore which keeps its entries in memory.
+     */
+    private static class MemorySpillStore implements SpillStore {
+
+        private final Vector entries = new Vector();
+        private int length;
+
+        /**
+         * Returns the total size of the entries.
+         *
+         * @return the number of bytes stored
+         */
+        public int getLength() {
+            return this.length;
+        }
+
+        /**
+         * Adds an entry.
+         */
+        public void push(byte[] entry) {
+            this.entries.addElement(entry);
+            this.length += entry.length;
+        }
+
+        /**
+         * Removes the last entry.
+         */
+        public byte[] pop() throws IOException {
+            final int count = this.entries.size();
+            if (count == 0) {
+                throw new IOException("no entries");
+            }
+            final byte[] entry = (byte[]) this.entries.elementAt(count - 1);
+            this.entries.removeElementAt(count - 1);
+            this.length -= entry.length;
+            return entry;
+        }
+
+        /**
+         * Removes every entry.
+         */
+        public void clear() {
+            this.entries.removeAllElements();
+            this.length = 0;
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * UndoHistory.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.model;
+
+import java.io.IOException;
+import java.util.Vector;
+
+/**
+ * The undo and redo stacks of the edits made to a document, as
+ * {@link EditCommand}s. A command performed within {@link #COALESCE_MILLIS}
+ * of the previous one is merged into it if it can be, so that a run of small
+ * edits to the same attributes, such as dragging a shape, is undone in one
+ * step; {@link #seal()} ends such a run early.
+ * <p>
+ * The history is limited by the estimated size of its commands rather than
+ * by their number. When it exceeds its budget, the oldest entries of the
+ * undo stack are written to a {@link SpillStore} until it is back within
+ * three quarters of the budget, and are read back one at a time when
+ * undoing reaches them. If the history has no spill store, or writing to it
+ * fails, the oldest entries are discarded instead, along with any that were
+ * spilled before them.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class UndoHistory {
+
+    /**
+     * The default budget of a history, in bytes.
+     */
+    public static final int DEFAULT_BUDGET = 64 * 1024;
+
+    /**
+     * The longest time, in milliseconds, after one command that another can
+     * be merged into it.
+     */
+    public static final long COALESCE_MILLIS = 1000;
+
+    private final SpillStore spill;
+    private final Vector undo;
+    private final Vector redo;
+    private int budget;
+    private long size;
+    private int spilledCount;
+    private int discardedCount;
+    private int mergedCount;
+    private boolean sealed;
+    private long lastPerformed;
+
+    /**
+     * Creates a new instance of <code>UndoHistory</code>.
+     *
+     * @param budget the number of bytes of commands to keep in memory
+     * @param spill the store to which to move the oldest entries when the
+     * budget is exceeded; may be null to discard them instead
+     */
+    public UndoHistory(int budget, SpillStore spill) {
+        this.spill = spill;
+        this.undo = new Vector();
+        this.redo = new Vector();
+        this.budget = budget;
+        this.sealed = true;
+    }
+
+    /**
+     * Applies a command to a document and records it, merging it into the
+     * most recent command if it was performed within
+     * {@link #COALESCE_MILLIS} and {@link #seal()} has not been invoked
+     * since. The redo stack is cleared.
+     *
+     * @param document the document to change
+     * @param command the command to apply, which must have been created
+     * against the document's current state
+     * @throws NullPointerException if document==null or command==null
+     */
+    public void perform(SVGDocument document, EditCommand command) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (command == null) {
+            throw new NullPointerException("command==null");
+        }
+        command.apply(document);
+        for (int i = this.redo.size() - 1; i >= 0; i--) {
+            this.size -= ((EditCommand) this.redo.elementAt(i)).getSize();
+        }
+        this.redo.removeAllElements();
+
+        final long now = System.currentTimeMillis();
+        final int count = this.undo.size();
+        if (!this.sealed && count > 0
+            && now - this.lastPerformed <= COALESCE_MILLIS) {
+            final EditCommand last =
+                (EditCommand) this.undo.elementAt(count - 1);
+            if (last.canMerge(command)) {
+                final long oldSize = last.getSize();
+                last.merge(command);
+                this.size += last.getSize() - oldSize;
+                this.lastPerformed = now;
+                this.mergedCount++;
+                return;
+            }
+        }
+        this.undo.addElement(command);
+        this.size += command.getSize();
+        this.sealed = false;
+        this.lastPerformed = now;
+        this.enforceBudget();
+    }
+
+    /**
+     * Stops the next command from being merged into the most recent one, such
+     * as at the end of a drag.
+     */
+    public void seal() {
+        this.sealed = true;
+    }
+
+    /**
+     * Reverts the most recent command and moves it to the redo stack.
+     *
+     * @param document the document to change
+     * @return the command that was reverted, or null if there is nothing to
+     * undo
+     * @throws NullPointerException if document==null
+     */
+    public EditCommand undo(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        }
+        if (this.undo.isEmpty()) {
+            this.unspill();
+        }
+        final int count = this.undo.size();
+        if (count == 0) {
+            return null;
+        }
+        final EditCommand command =
+            (EditCommand) this.undo.elementAt(count - 1);
+        this.undo.removeElementAt(count - 1);
+        command.revert(document);
+        this.redo.addElement(command);
+        this.sealed = true;
+        return command;
+    }
+
+    /**
+     * Applies the most recently undone command again and moves it back to
+     * the undo stack.
+     *
+     * @param document the document to change
+     * @return the command that was applied, or null if there is nothing to
+     * redo
+     * @throws NullPointerException if document==null
+     */
+    public EditCommand redo(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        }
+        final int count = this.redo.size();
+        if (count == 0) {
+            return null;
+        }
+        final EditCommand command =
+            (EditCommand) this.redo.elementAt(count - 1);
+        this.redo.removeElementAt(count - 1);
+        command.apply(document);
+        this.undo.addElement(command);
+        this.sealed = true;
+        this.enforceBudget();
+        return command;
+    }
+
+    /**
+     * Returns whether there is a command to undo.
+     *
+     * @return true if {@link #undo(SVGDocument)} would revert a command,
+     * unless reading a spilled one back fails
+     */
+    public boolean canUndo() {
+        return (!this.undo.isEmpty() || this.spilledCount > 0);
+    }
+
+    /**
+     * Returns whether there is a command to redo.
+     *
+     * @return true if {@link #redo(SVGDocument)} would apply a command
+     */
+    public boolean canRedo() {
+        return !this.redo.isEmpty();
+    }
+
+    /**
+     * Returns the number of commands that can be undone.
+     *
+     * @return the number of commands on the undo stack, including those
+     * spilled
+     */
+    public int getUndoCount() {
+        return this.undo.size() + this.spilledCount;
+    }
+
+    /**
+     * Returns the number of commands that can be redone.
+     *
+     * @return the number of commands on the redo stack
+     */
+    public int getRedoCount() {
+        return this.redo.size();
+    }
+
+    /**
+     * Returns the number of commands of the undo stack that are held in the
+     * spill store.
+     *
+     * @return the number of spilled commands
+     */
+    public int getSpilledCount() {
+        return this.spilledCount;
+    }
+
+    /**
+     * Returns the number of commands that were discarded because they could
+     * not be spilled.
+     *
+     * @return the number of discarded commands
+     */
+    public int getDiscardedCount() {
+        return this.discardedCount;
+    }
+
+    /**
+     * Returns the number of commands that were merged into the one before.
+     *
+     * @return the number of merged commands
+     */
+    public int getMergedCount() {
+        return this.mergedCount;
+    }
+
+    /**
+     * Returns the estimated size of the commands held in memory.
+     *
+     * @return the number of bytes of commands on both stacks
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of bytes of commands kept in memory.
+     *
+     * @return the budget
+     */
+    public int getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * Sets the number of bytes of commands kept in memory, spilling or
+     * discarding the oldest if they exceed it.
+     *
+     * @param budget the budget
+     */
+    public void setBudget(int budget) {
+        this.budget = budget;
+        this.enforceBudget();
+    }
+
+    /**
+     * Returns a summary of this history.
+     *
+     * @return a summary such as "12 undo (4 spilled), 1 redo, 3 KB of 64 KB";
+     * never returns null
+     */
+    public String getSummary() {
+        return this.getUndoCount() + " undo (" + this.spilledCount
+            + " spilled), " + this.redo.size() + " redo, "
+            + (this.size / 1024) + " KB of " + (this.budget / 1024) + " KB";
+    }
+
+    /**
+     * Forgets every command, such as when the document's element indices
+     * change, and releases the spill store.
+     */
+    public void clear() {
+        this.undo.removeAllElements();
+        this.redo.removeAllElements();
+        this.size = 0;
+        this.sealed = true;
+        this.clearSpill();
+    }
+
+    /**
+     * Moves the oldest commands of the undo stack to the spill store, or
+     * discards them, until the commands in memory are within three quarters
+     * of the budget. The most recent command is always kept in memory.
+     */
+    private void enforceBudget() {
+        if (this.size <= this.budget) {
+            return;
+        }
+        final long target = this.budget * 3L / 4;
+        while (this.size > target && this.undo.size() > 1) {
+            final EditCommand oldest = (EditCommand) this.undo.elementAt(0);
+            this.undo.removeElementAt(0);
+            this.size -= oldest.getSize();
+            boolean spilled = false;
+            if (this.spill != null) {
+                try {
+                    this.spill.push(EditCommand.toByteArray(oldest));
+                    this.spilledCount++;
+                    spilled = true;
+                } catch (final IOException e) {
+                    // discarded below
+                }
+            }
+            if (!spilled) {
+                // the spilled commands are older, and cannot be undone
+                // without this one
+                this.discardedCount += this.spilledCount + 1;
+                this.clearSpill();
+            }
+        }
+    }
+
+    /**
+     * Reads the most recently spilled command back onto the undo stack. If it
+     * cannot be read, every spilled command is discarded.
+     */
+    private void unspill() {
+        if (this.spilledCount == 0) {
+            return;
+        }
+        try {
+            final EditCommand command =
+                EditCommand.fromByteArray(this.spill.pop());
+            this.spilledCount--;
+            this.undo.addElement(command);
+            this.size += command.getSize();
+        } catch (final IOException e) {
+            this.discardedCount += this.spilledCount;
+            this.clearSpill();
+        }
+    }
+
+    /**
+     * Releases the spill store.
+     */
+    private void clearSpill() {
+        if (this.spill != null && this.spilledCount > 0) {
+            this.spill.clear();
+        }
+        this.spilledCount = 0;
+    }
+}
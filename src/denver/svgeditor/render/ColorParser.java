@@ -0,0 +1,219 @@
+/*
+ * ColorParser.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Parses SVG color values: "#rgb", "#rrggbb", "rgb(r, g, b)" with integer or
+ * percentage components, and the SVG color keywords.
+ */
+public class ColorParser {
+
+    /**
+     * The color returned for the value "none": fully transparent, so that
+     * nothing is painted.
+     */
+    public static final int NONE = 0x00000000;
+
+    /**
+     * The SVG color keywords, sorted for binary search.
+     */
+    private static final String[] NAMES = {
+        "aliceblue", "antiquewhite", "aqua", "aquamarine", "azure", "beige",
+        "bisque", "black", "blanchedalmond", "blue", "blueviolet", "brown",
+        "burlywood", "cadetblue", "chartreuse", "chocolate", "coral",
+        "cornflowerblue", "cornsilk", "crimson", "cyan", "darkblue",
+        "darkcyan", "darkgoldenrod", "darkgray", "darkgreen", "darkgrey",
+        "darkkhaki", "darkmagenta", "darkolivegreen", "darkorange",
+        "darkorchid", "darkred", "darksalmon", "darkseagreen", "darkslateblue",
+        "darkslategray", "darkslategrey", "darkturquoise", "darkviolet",
+        "deeppink", "deepskyblue", "dimgray", "dimgrey", "dodgerblue",
+        "firebrick", "floralwhite", "forestgreen", "fuchsia", "gainsboro",
+        "ghostwhite", "gold", "goldenrod", "gray", "green", "greenyellow",
+        "grey", "honeydew", "hotpink", "indianred", "indigo", "ivory", "khaki",
+        "lavender", "lavenderblush", "lawngreen", "lemonchiffon", "lightblue",
+        "lightcoral", "lightcyan", "lightgoldenrodyellow", "lightgray",
+        "lightgreen", "lightgrey", "lightpink", "lightsalmon", "lightseagreen",
+        "lightskyblue", "lightslategray", "lightslategrey", "lightsteelblue",
+        "lightyellow", "lime", "limegreen", "linen", "magenta", "maroon",
+        "mediumaquamarine", "mediumblue", "mediumorchid", "mediumpurple",
+        "mediumseagreen", "mediumslateblue", "mediumspringgreen",
+        "mediumturquoise", "mediumvioletred", "midnightblue", "mintcream",
+        "mistyrose", "moccasin", "navajowhite", "navy", "oldlace", "olive",
+        "olivedrab", "orange", "orangered", "orchid", "palegoldenrod",
+        "palegreen", "paleturquoise", "palevioletred", "papayawhip",
+        "peachpuff", "peru", "pink", "plum", "powderblue", "purple", "red",
+        "rosybrown", "royalblue", "saddlebrown", "salmon", "sandybrown",
+        "seagreen", "seashell", "sienna", "silver", "skyblue", "slateblue",
+        "slategray", "slategrey", "snow", "springgreen", "steelblue", "tan",
+        "teal", "thistle", "tomato", "turquoise", "violet", "wheat", "white",
+        "whitesmoke", "yellow", "yellowgreen" };
+
+    /**
+     * The RGB values of the colors in {@link #NAMES}.
+     */
+    private static final int[] VALUES = {
+        0xF0F8FF, 0xFAEBD7, 0x00FFFF, 0x7FFFD4, 0xF0FFFF, 0xF5F5DC, 0xFFE4C4,
+        0x000000, 0xFFEBCD, 0x0000FF, 0x8A2BE2, 0xA52A2A, 0xDEB887, 0x5F9EA0,
+        0x7FFF00, 0xD2691E, 0xFF7F50, 0x6495ED, 0xFFF8DC, 0xDC143C, 0x00FFFF,
+        0x00008B, 0x008B8B, 0xB8860B, 0xA9A9A9, 0x006400, 0xA9A9A9, 0xBDB76B,
+        0x8B008B, 0x556B2F, 0xFF8C00, 0x9932CC, 0x8B0000, 0xE9967A, 0x8FBC8F,
+        0x483D8B, 0x2F4F4F, 0x2F4F4F, 0x00CED1, 0x9400D3, 0xFF1493, 0x00BFFF,
+        0x696969, 0x696969, 0x1E90FF, 0xB22222, 0xFFFAF0, 0x228B22, 0xFF00FF,
+        0xDCDCDC, 0xF8F8FF, 0xFFD700, 0xDAA520, 0x808080, 0x008000, 0xADFF2F,
+        0x808080, 0xF0FFF0, 0xFF69B4, 0xCD5C5C, 0x4B0082, 0xFFFFF0, 0xF0E68C,
+        0xE6E6FA, 0xFFF0F5, 0x7CFC00, 0xFFFACD, 0xADD8E6, 0xF08080, 0xE0FFFF,
+        0xFAFAD2, 0xD3D3D3, 0x90EE90, 0xD3D3D3, 0xFFB6C1, 0xFFA07A, 0x20B2AA,
+        0x87CEFA, 0x778899, 0x778899, 0xB0C4DE, 0xFFFFE0, 0x00FF00, 0x32CD32,
+        0xFAF0E6, 0xFF00FF, 0x800000, 0x66CDAA, 0x0000CD, 0xBA55D3, 0x9370DB,
+        0x3CB371, 0x7B68EE, 0x00FA9A, 0x48D1CC, 0xC71585, 0x191970, 0xF5FFFA,
+        0xFFE4E1, 0xFFE4B5, 0xFFDEAD, 0x000080, 0xFDF5E6, 0x808000, 0x6B8E23,
+        0xFFA500, 0xFF4500, 0xDA70D6, 0xEEE8AA, 0x98FB98, 0xAFEEEE, 0xDB7093,
+        0xFFEFD5, 0xFFDAB9, 0xCD853F, 0xFFC0CB, 0xDDA0DD, 0xB0E0E6, 0x800080,
+        0xFF0000, 0xBC8F8F, 0x4169E1, 0x8B4513, 0xFA8072, 0xF4A460, 0x2E8B57,
+        0xFFF5EE, 0xA0522D, 0xC0C0C0, 0x87CEEB, 0x6A5ACD, 0x708090, 0x708090,
+        0xFFFAFA, 0x00FF7F, 0x4682B4, 0xD2B48C, 0x008080, 0xD8BFD8, 0xFF6347,
+        0x40E0D0, 0xEE82EE, 0xF5DEB3, 0xFFFFFF, 0xF5F5F5, 0xFFFF00, 0x9ACD32 };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ColorParser() {
+    }
+
+    /**
+     * Parses a color value.
+     * 
+     * @param value the value to parse; leading and trailing whitespace is
+     * ignored
+     * @param defaultColor the color to return if the value is not a valid
+     * color
+     * @return the opaque ARGB color specified by the value, {@link #NONE} if
+     * the value is "none", or defaultColor if the value is not valid
+     * @throws NullPointerException if value==null
+     */
+    public static int parse(String value, int defaultColor) {
+        value = value.trim();
+        final int length = value.length();
+        if (length == 0) {
+            return defaultColor;
+        } else if (value.charAt(0) == '#') {
+            return parseHex(value, defaultColor);
+        } else if (value.startsWith("rgb(") && value.endsWith(")")) {
+            return parseRgb(value.substring(4, length - 1), defaultColor);
+        } else if (value.equals("none")) {
+            return NONE;
+        }
+
+        int low = 0;
+        int high = NAMES.length - 1;
+        final String name = value.toLowerCase();
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = NAMES[mid].compareTo(name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return 0xFF000000 | VALUES[mid];
+            }
+        }
+        return defaultColor;
+    }
+
+    /**
+     * Applies an opacity to a color.
+     * 
+     * @param argb the color
+     * @param opacity the opacity to apply, from 0 to 1
+     * @return the color with its alpha multiplied by opacity
+     */
+    public static int applyOpacity(int argb, float opacity) {
+        if (opacity >= 1) {
+            return argb;
+        } else if (opacity <= 0) {
+            return argb & 0x00FFFFFF;
+        }
+        final int alpha = (int) ((argb >>> 24) * opacity + 0.5f);
+        return (alpha << 24) | (argb & 0x00FFFFFF);
+    }
+
+    /**
+     * Parses a color of the form "#rgb" or "#rrggbb".
+     */
+    private static int parseHex(String value, int defaultColor) {
+        final int length = value.length();
+        if (length != 4 && length != 7) {
+            return defaultColor;
+        }
+        int rgb = 0;
+        for (int i = 1; i < length; i++) {
+            final int digit = Character.digit(value.charAt(i), 16);
+            if (digit < 0) {
+                return defaultColor;
+            }
+            rgb = (rgb << 4) | digit;
+            if (length == 4) {
+                rgb = (rgb << 4) | digit; // #rgb is shorthand for #rrggbb
+            }
+        }
+        return 0xFF000000 | rgb;
+    }
+
+    /**
+     * Parses the components of a color of the form "rgb(r, g, b)".
+     */
+    private static int parseRgb(String components, int defaultColor) {
+        int rgb = 0;
+        int start = 0;
+        for (int i = 0; i < 3; i++) {
+            int end = components.indexOf(',', start);
+            if (end < 0) {
+                if (i != 2) {
+                    return defaultColor;
+                }
+                end = components.length();
+            }
+            String component = components.substring(start, end).trim();
+            final boolean percent = component.endsWith("%");
+            if (percent) {
+                component = component.substring(0, component.length() - 1);
+            }
+            int value;
+            try {
+                if (percent) {
+                    value = (int) (Float.parseFloat(component) * 2.55f + 0.5f);
+                } else {
+                    value = Integer.parseInt(component);
+                }
+            } catch (final NumberFormatException e) {
+                return defaultColor;
+            }
+            value = Math.max(0, Math.min(255, value));
+            rgb = (rgb << 8) | value;
+            start = end + 1;
+        }
+        return 0xFF000000 | rgb;
+    }
+}
@@ -0,0 +1,619 @@
+/*
+ * DisplayList.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * A document compiled by {@link DocumentRenderer} into a flat list of draw
+ * operations in paint order, so that frames are painted and hit-tested
+ * without walking the tree, resolving styles or parsing transforms. Each op
+ * draws one shape or image with an absolute transformation from the user
+ * coordinates of the element to document coordinates and with its fill and
+ * stroke colors resolved, including every opacity; the op is culled by the
+ * box of its "record", which is the element itself or the <code>use</code>
+ * element through which it is drawn, as measured into an
+ * {@link ElementBounds}. Elements that are not displayed, hidden or painted
+ * with transparent colors have no ops. The outlines of shapes are not held;
+ * they are flattened when drawn, through the renderer's
+ * {@link TessellationCache}.
+ * <p>
+ * The ops of each element of the tree, with those of its descendants, are a
+ * contiguous range of the list. A change to the document is reported with
+ * {@link #markChanged(SVGDocument, int)}, which marks the element and its
+ * ancestors; the next compile then compiles only the marked elements and
+ * copies the ranges of the others forward, and compiles the
+ * <code>use</code> elements whose referenced elements were changed.
+ * <p>
+ * The ops are held in two arrays, one of ints and one of floats, with a
+ * fixed number of values per op; the list is built into a second pair of
+ * arrays, which are then swapped with the first, so that compiling
+ * allocates nothing once the arrays have grown.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class DisplayList {
+
+    // the layout of the ints of an op
+    private static final int KIND = 0;
+    private static final int FILL_RULE = 1;
+    private static final int ELEMENT = 2;
+    private static final int RECORD = 3;
+    private static final int FILL = 4;
+    private static final int STROKE = 5;
+    private static final int INT_STRIDE = 6;
+
+    // the layout of the floats of an op: the matrix, then the stroke width
+    private static final int STROKE_WIDTH = 6;
+    private static final int FLOAT_STRIDE = 7;
+
+    // the flags of an element
+    private static final byte CHANGED = 1;
+    private static final byte DESCENDANT_CHANGED = 2;
+
+    /**
+     * The value of {@link #getUseTarget(int)} for elements that were not
+     * compiled as <code>use</code> elements.
+     */
+    static final int NOT_USE = -2;
+
+    private int[] ints;
+    private float[] floats;
+    private int count;
+    private int[] buildInts;
+    private float[] buildFloats;
+    private int buildCount;
+
+    // the state of each element
+    private int[] starts;
+    private int[] ends;
+    private int[] parents;
+    private int[] useTargets;
+    private byte[] flags;
+    private int elementCount;
+
+    private SVGDocument document;
+    private boolean compiled;
+    private boolean changed;
+
+    // statistics of the most recent compile
+    private long compileMillis;
+    private int compiledElements;
+    private int copiedOps;
+    private boolean fullCompile;
+
+    /**
+     * Creates a new instance of <code>DisplayList</code> which is empty and
+     * must be compiled.
+     */
+    public DisplayList() {
+        this.ints = new int[64 * INT_STRIDE];
+        this.floats = new float[64 * FLOAT_STRIDE];
+        this.buildInts = new int[64 * INT_STRIDE];
+        this.buildFloats = new float[64 * FLOAT_STRIDE];
+        this.starts = new int[64];
+        this.ends = new int[64];
+        this.parents = new int[64];
+        this.useTargets = new int[64];
+        this.flags = new byte[64];
+    }
+
+    /**
+     * Returns the document from which this list was compiled.
+     *
+     * @return the document, or null if this list has not been compiled
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Returns the number of ops.
+     *
+     * @return the number of ops in this list
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Returns whether this list must be compiled before it is used: if it
+     * has never been compiled, has been invalidated or has had changes
+     * marked since it was compiled.
+     *
+     * @return true if this list is out of date
+     */
+    public boolean needsCompile() {
+        return (!this.compiled || this.changed);
+    }
+
+    /**
+     * Returns whether the next compile compiles the whole document.
+     *
+     * @return true if this list has never been compiled or has been
+     * invalidated since it was last compiled
+     */
+    public boolean needsFullCompile() {
+        return !this.compiled;
+    }
+
+    /**
+     * Discards every op, so that the next compile compiles the whole
+     * document, which need not be the one from which this list was
+     * compiled.
+     */
+    public void invalidateAll() {
+        this.compiled = false;
+    }
+
+    /**
+     * Marks an element as changed, so that the next compile compiles it and
+     * its descendants again, along with the ancestors between it and the
+     * root, whose ranges change. This must be invoked for every element that
+     * is created, removed, put back or changed, and for every element whose
+     * style is affected by a change, after the change has been made.
+     *
+     * @param document the document containing the element, which may be a
+     * later copy of the one from which this list was compiled
+     * @param element the index of the changed element
+     * @throws NullPointerException if document==null
+     */
+    public void markChanged(SVGDocument document, int element) {
+        this.ensureElements(document.getElementCount());
+        this.flags[element] |= CHANGED;
+        this.changed = true;
+
+        // mark the ancestors both where the element was compiled and where
+        // it is now, so that it is taken out of one and put into the other
+        int e = this.parents[element];
+        for (; e != SVGDocument.NONE; e = this.parents[e]) {
+            this.flags[e] |= DESCENDANT_CHANGED;
+        }
+        e = document.getParent(element);
+        for (; e != SVGDocument.NONE; e = document.getParent(e)) {
+            this.flags[e] |= DESCENDANT_CHANGED;
+        }
+    }
+
+    /**
+     * Returns the kind of the element drawn by an op.
+     *
+     * @param op the index of the op
+     * @return the kind of the element, one of the constants defined in
+     * {@link ElementKind}; {@link ElementKind#IMAGE} for images and a shape
+     * kind otherwise
+     */
+    public byte getKind(int op) {
+        return (byte) this.ints[op * INT_STRIDE + KIND];
+    }
+
+    /**
+     * Returns the element drawn by an op.
+     *
+     * @param op the index of the op
+     * @return the index of the shape or image
+     */
+    public int getElement(int op) {
+        return this.ints[op * INT_STRIDE + ELEMENT];
+    }
+
+    /**
+     * Returns the element whose bounding box contains the pixels of an op.
+     *
+     * @param op the index of the op
+     * @return the index of the element drawn, or of the <code>use</code>
+     * element through which it is drawn
+     */
+    public int getRecord(int op) {
+        return this.ints[op * INT_STRIDE + RECORD];
+    }
+
+    /**
+     * Returns the color with which an op fills its shape.
+     *
+     * @param op the index of the op
+     * @return the fill color with every opacity applied; for an image, the
+     * alpha of this color is its opacity and the others are zero
+     */
+    public int getFillColor(int op) {
+        return this.ints[op * INT_STRIDE + FILL];
+    }
+
+    /**
+     * Returns the color with which an op strokes its shape.
+     *
+     * @param op the index of the op
+     * @return the stroke color with every opacity applied; has an alpha of
+     * zero if the shape is not stroked
+     */
+    public int getStrokeColor(int op) {
+        return this.ints[op * INT_STRIDE + STROKE];
+    }
+
+    /**
+     * Returns the rule with which an op fills its shape.
+     *
+     * @param op the index of the op
+     * @return {@link Rasterizer#NONZERO} or {@link Rasterizer#EVENODD}
+     */
+    public int getFillRule(int op) {
+        return this.ints[op * INT_STRIDE + FILL_RULE];
+    }
+
+    /**
+     * Returns the width with which an op strokes its shape.
+     *
+     * @param op the index of the op
+     * @return the stroke width, in the user coordinates of the shape
+     */
+    public float getStrokeWidth(int op) {
+        return this.floats[op * FLOAT_STRIDE + STROKE_WIDTH];
+    }
+
+    /**
+     * Post-multiplies a matrix by the transformation of an op, from the user
+     * coordinates of its element to document coordinates.
+     *
+     * @param op the index of the op
+     * @param matrix the matrix to multiply, such as the transformation from
+     * document coordinates to pixels
+     * @return matrix
+     * @throws NullPointerException if matrix==null
+     */
+    public Matrix concatenateMatrix(int op, Matrix matrix) {
+        final float[] floats = this.floats;
+        final int i = op * FLOAT_STRIDE;
+        return matrix.concatenate(floats[i], floats[i + 1], floats[i + 2],
+            floats[i + 3], floats[i + 4], floats[i + 5]);
+    }
+
+    /**
+     * Returns the position in paint order of the last op drawn for an
+     * element of the tree, which is painted over every op before it.
+     *
+     * @param element the index of the element
+     * @return the index of the last op of the element and its descendants,
+     * or -1 if they have no ops
+     */
+    public int getLastOp(int element) {
+        if (element < 0 || element >= this.elementCount) {
+            return -1;
+        }
+        final int end = this.ends[element];
+        return (end > this.starts[element]) ? end - 1 : -1;
+    }
+
+    /**
+     * Returns the time taken by the most recent compile.
+     *
+     * @return the duration of the most recent compile, in milliseconds
+     */
+    public long getCompileMillis() {
+        return this.compileMillis;
+    }
+
+    /**
+     * Returns the number of elements compiled by the most recent compile;
+     * the ops of the others were copied forward.
+     *
+     * @return the number of elements compiled, counting those compiled
+     * through <code>use</code> elements once for each use
+     */
+    public int getCompiledElementCount() {
+        return this.compiledElements;
+    }
+
+    /**
+     * Returns the number of ops copied forward by the most recent compile.
+     *
+     * @return the number of ops of unchanged elements
+     */
+    public int getCopiedOpCount() {
+        return this.copiedOps;
+    }
+
+    /**
+     * Returns whether the most recent compile compiled the whole document.
+     *
+     * @return true if the most recent compile was a full compile
+     */
+    public boolean isFullCompile() {
+        return this.fullCompile;
+    }
+
+    /**
+     * Begins a compile into the build arrays.
+     *
+     * @param document the document being compiled
+     * @param full true to compile the whole document, discarding the state
+     * of every element
+     */
+    void beginCompile(SVGDocument document, boolean full) {
+        final int elementCount = document.getElementCount();
+        this.ensureElements(elementCount);
+        if (full) {
+            for (int i = 0; i < elementCount; i++) {
+                this.starts[i] = 0;
+                this.ends[i] = 0;
+                this.parents[i] = SVGDocument.NONE;
+                this.useTargets[i] = NOT_USE;
+            }
+        }
+        this.document = document;
+        this.buildCount = 0;
+        this.compiledElements = 0;
+        this.copiedOps = 0;
+        this.fullCompile = full;
+    }
+
+    /**
+     * Completes a compile, making the built ops those of this list and
+     * clearing the marks of every element.
+     *
+     * @param millis the time taken by the compile, in milliseconds
+     */
+    void endCompile(long millis) {
+        final int[] ints = this.ints;
+        final float[] floats = this.floats;
+        this.ints = this.buildInts;
+        this.floats = this.buildFloats;
+        this.count = this.buildCount;
+        this.buildInts = ints;
+        this.buildFloats = floats;
+        this.buildCount = 0;
+        for (int i = 0; i < this.elementCount; i++) {
+            this.flags[i] = 0;
+        }
+        this.compiled = true;
+        this.changed = false;
+        this.compileMillis = millis;
+    }
+
+    /**
+     * Returns the number of ops built so far by the current compile.
+     */
+    int getBuildCount() {
+        return this.buildCount;
+    }
+
+    /**
+     * Appends an op to those being built.
+     *
+     * @param kind the kind of the element drawn
+     * @param element the index of the element drawn
+     * @param record the element whose box contains the op's pixels
+     * @param matrix the transformation from the element's user coordinates
+     * to document coordinates
+     * @param fill the fill color, or the opacity of an image in its alpha
+     * @param fillRule the fill rule
+     * @param stroke the stroke color
+     * @param strokeWidth the stroke width, in user coordinates
+     */
+    void addOp(byte kind, int element, int record, Matrix matrix, int fill,
+            int fillRule, int stroke, float strokeWidth) {
+        this.ensureBuildCapacity(this.buildCount + 1);
+        final int[] ints = this.buildInts;
+        final int i = this.buildCount * INT_STRIDE;
+        ints[i + KIND] = kind;
+        ints[i + FILL_RULE] = fillRule;
+        ints[i + ELEMENT] = element;
+        ints[i + RECORD] = record;
+        ints[i + FILL] = fill;
+        ints[i + STROKE] = stroke;
+        final float[] floats = this.buildFloats;
+        final int f = this.buildCount * FLOAT_STRIDE;
+        floats[f] = matrix.a;
+        floats[f + 1] = matrix.b;
+        floats[f + 2] = matrix.c;
+        floats[f + 3] = matrix.d;
+        floats[f + 4] = matrix.e;
+        floats[f + 5] = matrix.f;
+        floats[f + STROKE_WIDTH] = strokeWidth;
+        this.buildCount++;
+    }
+
+    /**
+     * Records the range of the ops built for an element of the tree, from a
+     * given op to the current end of those built.
+     *
+     * @param element the index of the element
+     * @param parent the index of the parent under which it was compiled
+     * @param start the index of the first op of the element
+     */
+    void setRange(int element, int parent, int start) {
+        this.starts[element] = start;
+        this.ends[element] = this.buildCount;
+        this.parents[element] = parent;
+    }
+
+    /**
+     * Returns whether an element or any of its descendants has been marked
+     * as changed since the last compile.
+     */
+    boolean isDirty(int element) {
+        return (element >= this.elementCount || this.flags[element] != 0);
+    }
+
+    /**
+     * Returns whether an element itself has been marked as changed since the
+     * last compile.
+     */
+    boolean isChanged(int element) {
+        return (element >= this.elementCount
+            || (this.flags[element] & CHANGED) != 0);
+    }
+
+    /**
+     * Returns whether an element, one of its descendants or one of its
+     * ancestors has been marked as changed since the last compile, so that
+     * a <code>use</code> element that refers to it must be compiled again.
+     */
+    boolean isSubtreeDirty(SVGDocument document, int element) {
+        if (element == SVGDocument.NONE) {
+            return false;
+        } else if (this.isDirty(element)) {
+            return true;
+        }
+        int e = document.getParent(element);
+        for (; e != SVGDocument.NONE; e = document.getParent(e)) {
+            if (this.isChanged(e)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the element referred to by a <code>use</code> element when it
+     * was last compiled.
+     *
+     * @return the index of the referenced element, {@link SVGDocument#NONE}
+     * if it referred to none, or {@link #NOT_USE} if the element was not
+     * compiled as a use element
+     */
+    int getUseTarget(int element) {
+        return (element < this.elementCount) ? this.useTargets[element]
+            : NOT_USE;
+    }
+
+    /**
+     * Records the element referred to by a <code>use</code> element.
+     */
+    void setUseTarget(int element, int target) {
+        this.useTargets[element] = target;
+    }
+
+    /**
+     * Counts an element as compiled.
+     */
+    void countCompiled() {
+        this.compiledElements++;
+    }
+
+    /**
+     * Copies the ops of an unchanged element of the tree, and of its
+     * descendants, from this list to the end of those being built, moving
+     * the ranges of the element and its descendants with them.
+     *
+     * @param document the document being compiled, in which the element and
+     * its descendants are as they were when last compiled
+     * @param element the index of the element
+     * @param parent the index of its parent
+     */
+    void copyForward(SVGDocument document, int element, int parent) {
+        final int start = this.starts[element];
+        final int length = this.ends[element] - start;
+        final int newStart = this.buildCount;
+        this.ensureBuildCapacity(newStart + length);
+        System.arraycopy(this.ints, start * INT_STRIDE, this.buildInts,
+            newStart * INT_STRIDE, length * INT_STRIDE);
+        System.arraycopy(this.floats, start * FLOAT_STRIDE, this.buildFloats,
+            newStart * FLOAT_STRIDE, length * FLOAT_STRIDE);
+        this.buildCount += length;
+        this.copiedOps += length;
+        this.parents[element] = parent;
+
+        final int delta = newStart - start;
+        if (delta == 0) {
+            return;
+        }
+        int e = element;
+        while (true) {
+            this.starts[e] += delta;
+            this.ends[e] += delta;
+
+            // move to the next element of the subtree in document order
+            int next = document.getFirstChild(e);
+            while (next == SVGDocument.NONE && e != element) {
+                next = document.getNextSibling(e);
+                if (next == SVGDocument.NONE) {
+                    e = document.getParent(e);
+                }
+            }
+            if (next == SVGDocument.NONE) {
+                return;
+            }
+            e = next;
+        }
+    }
+
+    /**
+     * Ensures that the state of a number of elements is held, initializing
+     * that of added elements.
+     */
+    private void ensureElements(int elementCount) {
+        final int oldCount = this.elementCount;
+        if (elementCount <= oldCount) {
+            return;
+        }
+        final int length = this.starts.length;
+        if (elementCount > length) {
+            final int capacity = Math.max(elementCount, length * 2);
+            final int[] starts = new int[capacity];
+            System.arraycopy(this.starts, 0, starts, 0, oldCount);
+            this.starts = starts;
+            final int[] ends = new int[capacity];
+            System.arraycopy(this.ends, 0, ends, 0, oldCount);
+            this.ends = ends;
+            final int[] parents = new int[capacity];
+            System.arraycopy(this.parents, 0, parents, 0, oldCount);
+            this.parents = parents;
+            final int[] useTargets = new int[capacity];
+            System.arraycopy(this.useTargets, 0, useTargets, 0, oldCount);
+            this.useTargets = useTargets;
+            final byte[] flags = new byte[capacity];
+            System.arraycopy(this.flags, 0, flags, 0, oldCount);
+            this.flags = flags;
+        }
+        for (int i = oldCount; i < elementCount; i++) {
+            this.starts[i] = 0;
+            this.ends[i] = 0;
+            this.parents[i] = SVGDocument.NONE;
+            this.useTargets[i] = NOT_USE;
+            this.flags[i] = CHANGED;
+        }
+        this.elementCount = elementCount;
+    }
+
+    /**
+     * Ensures that the build arrays can hold a number of ops, keeping those
+     * already built.
+     */
+    private void ensureBuildCapacity(int opCount) {
+        final int capacity = this.buildInts.length / INT_STRIDE;
+        if (opCount <= capacity) {
+            return;
+        }
+        final int newCapacity = Math.max(opCount, capacity * 2);
+        final int[] ints = new int[newCapacity * INT_STRIDE];
+        System.arraycopy(this.buildInts, 0, ints, 0, this.buildCount
+            * INT_STRIDE);
+        this.buildInts = ints;
+        final float[] floats = new float[newCapacity * FLOAT_STRIDE];
+        System.arraycopy(this.buildFloats, 0, floats, 0, this.buildCount
+            * FLOAT_STRIDE);
+        this.buildFloats = floats;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * DisplayListBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import java.util.Random;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * Measures the {@link DisplayList}. A synthetic drawing of transformed
+ * groups of shapes, some of which draw a motif through <code>use</code>
+ * elements, is compiled in full and then again after edits, reporting the
+ * time taken, the number of ops and the number of elements compiled. The
+ * frames of a zoom and pan are then rendered by walking the tree and from
+ * the list, reporting the time taken, the number of ops drawn and culled per
+ * frame, and the number of pixels whose colors differ between the final
+ * frames. Finally the list compiled after the edits is compared with one
+ * compiled in full.
+ */
+public class DisplayListBenchmark {
+
+    /**
+     * The width and height of the rendering, in pixels.
+     */
+    private static final int SIZE = 256;
+
+    /**
+     * The number of frames of zooming and of panning.
+     */
+    private static final int FRAMES = 24;
+
+    /**
+     * The zoom of the last frame; the first frame is at a zoom of 1.
+     */
+    private static final float MAX_ZOOM = 4;
+
+    /**
+     * The number of shapes in each group of the drawing.
+     */
+    private static final int GROUP_SIZE = 10;
+
+    /**
+     * The number of times each compile is timed.
+     */
+    private static final int COMPILE_RUNS = 10;
+
+    /**
+     * The ID of the motif drawn by the use elements.
+     */
+    private static final String MOTIF_ID = "motif";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DisplayListBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param shapeCount the number of shapes in the drawing
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int shapeCount) {
+        final StringBuffer report = new StringBuffer();
+        final Random random = new Random(1);
+        final SVGDocument document = createDrawing(shapeCount, random);
+        report.append(document.getElementCount()).append(" elements, ")
+            .append(FRAMES * 2).append(" frames\n");
+
+        // compile the whole drawing
+        final DocumentRenderer renderer = new DocumentRenderer();
+        final DisplayList list = new DisplayList();
+        long fullMillis = 0;
+        for (int run = 0; run < COMPILE_RUNS; run++) {
+            list.invalidateAll();
+            renderer.compile(document, list);
+            fullMillis += list.getCompileMillis();
+        }
+        report.append("Compile: ").append(list.size()).append(" ops from ")
+            .append(list.getCompiledElementCount()).append(
+                " elements in ").append(fullMillis / COMPILE_RUNS).append(
+                " ms\n");
+
+        // change the fill of a shape at a time, then the motif
+        final StyleResolver styles = renderer.getStyleResolver();
+        final int fillId = document.getNameTable().intern("fill");
+        long editMillis = 0;
+        int editElements = 0;
+        int editCopied = 0;
+        final int count = document.getElementCount();
+        for (int run = 0; run < COMPILE_RUNS; run++) {
+            final int shape = findShape(document, random.nextInt(count));
+            document.setAttribute(shape, "fill", "#"
+                + Integer.toHexString(0x1000000 | random.nextInt())
+                    .substring(1));
+            styles.elementChanged(document, shape, fillId);
+            list.markChanged(document, shape);
+            renderer.compile(document, list);
+            editMillis += list.getCompileMillis();
+            editElements += list.getCompiledElementCount();
+            editCopied += list.getCopiedOpCount();
+        }
+        report.append("Recompile after an edit: ").append(
+            editMillis / COMPILE_RUNS).append(" ms, ").append(
+            editElements / COMPILE_RUNS).append(" elements compiled, ")
+            .append(editCopied / COMPILE_RUNS).append(" ops copied\n");
+        final int motif = document.findElementById(MOTIF_ID);
+        final int motifShape = document.getFirstChild(motif);
+        document.setAttribute(motifShape, "fill", "orange");
+        styles.elementChanged(document, motifShape, fillId);
+        list.markChanged(document, motifShape);
+        renderer.compile(document, list);
+        report.append("Recompile after a motif edit: ").append(
+            list.getCompileMillis()).append(" ms, ").append(
+            list.getCompiledElementCount()).append(" elements compiled, ")
+            .append(list.getCopiedOpCount()).append(" ops copied\n");
+
+        // render the frames by walking the tree and from the list
+        final ElementBounds bounds = new ElementBounds();
+        renderer.measure(document, bounds);
+        final RasterSurface treeSurface = new RasterSurface(SIZE, SIZE);
+        final RasterSurface listSurface = new RasterSurface(SIZE, SIZE);
+        final long treeMillis =
+            render(renderer, document, null, bounds, treeSurface, null);
+        final int[] opCounts = new int[4];
+        final long listMillis =
+            render(renderer, document, list, bounds, listSurface, opCounts);
+        report.append("Render: tree ").append(treeMillis).append(
+            " ms; list ").append(listMillis).append(" ms\n");
+        report.append("Ops per frame: ").append(opCounts[0]).append('-')
+            .append(opCounts[1]).append(" drawn, avg ").append(
+                opCounts[2] / (FRAMES * 2)).append("; avg ").append(
+                opCounts[3] / (FRAMES * 2)).append(" culled\n");
+        final int differing =
+            treeSurface.countDifferences(listSurface,
+                Rasterizer.EDGE_TOLERANCE);
+        report.append("Pixels: ").append(differing).append(" differ\n");
+
+        // the edited list must be the one compiled from scratch
+        final DisplayList fresh = new DisplayList();
+        renderer.compile(document, fresh);
+        if (!equals(list, fresh)) {
+            report.append("MISMATCH: recompiled list differs from a full "
+                + "compile\n");
+        }
+        if (differing * 100 > SIZE * SIZE) {
+            report.append("MISMATCH: more than 1% of pixels differ\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Renders the frames of zooming and panning, by walking the tree or from
+     * a display list.
+     *
+     * @param list the display list from which to render, or null to walk
+     * the tree
+     * @param opCounts if not null, receives the minimum, maximum and total
+     * number of ops drawn in a frame, followed by the total number culled
+     * @return the time taken, in milliseconds
+     */
+    private static long render(DocumentRenderer renderer,
+            SVGDocument document, DisplayList list, ElementBounds bounds,
+            RasterSurface target, int[] opCounts) {
+        final Matrix base = new Matrix();
+        if (opCounts != null) {
+            opCounts[0] = Integer.MAX_VALUE;
+        }
+        System.gc();
+        final long start = System.currentTimeMillis();
+        for (int frame = 0; frame < FRAMES * 2; frame++) {
+            setFrame(base, frame);
+            renderer.getTessellationCache().nextFrame();
+            target.clear(0xFFFFFFFF);
+            if (list == null) {
+                renderer.render(document, base, target, bounds);
+            } else {
+                renderer.render(list, base, target, bounds);
+            }
+            if (opCounts != null) {
+                final int drawn = renderer.getDrawnCount();
+                opCounts[0] = Math.min(opCounts[0], drawn);
+                opCounts[1] = Math.max(opCounts[1], drawn);
+                opCounts[2] += drawn;
+                opCounts[3] += renderer.getCulledCount();
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Sets a matrix to the view of a frame: zooming in by steps from a zoom
+     * of 1 to {@link #MAX_ZOOM}, then panning across the drawing.
+     */
+    private static void setFrame(Matrix base, int frame) {
+        final float zoom;
+        final float pan;
+        if (frame < FRAMES) {
+            zoom = 1 + (MAX_ZOOM - 1) * frame / (FRAMES - 1);
+            pan = 0;
+        } else {
+            zoom = MAX_ZOOM;
+            pan = (frame - FRAMES) * SIZE * (MAX_ZOOM - 1) / FRAMES;
+        }
+        base.setIdentity();
+        base.translate(-pan, -pan);
+        base.scale(zoom, zoom);
+    }
+
+    /**
+     * Returns whether two display lists have the same ops.
+     */
+    private static boolean equals(DisplayList a, DisplayList b) {
+        final int count = a.size();
+        if (b.size() != count) {
+            return false;
+        }
+        final Matrix ma = new Matrix();
+        final Matrix mb = new Matrix();
+        for (int op = 0; op < count; op++) {
+            a.concatenateMatrix(op, ma.setIdentity());
+            b.concatenateMatrix(op, mb.setIdentity());
+            if (a.getKind(op) != b.getKind(op)
+                || a.getElement(op) != b.getElement(op)
+                || a.getRecord(op) != b.getRecord(op)
+                || a.getFillColor(op) != b.getFillColor(op)
+                || a.getFillRule(op) != b.getFillRule(op)
+                || a.getStrokeColor(op) != b.getStrokeColor(op)
+                || a.getStrokeWidth(op) != b.getStrokeWidth(op)
+                || ma.a != mb.a || ma.b != mb.b || ma.c != mb.c
+                || ma.d != mb.d || ma.e != mb.e || ma.f != mb.f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first shape at or after an element, wrapping around to
+     * the start of the document.
+     */
+    private static int findShape(SVGDocument document, int start) {
+        final int count = document.getElementCount();
+        for (int i = 0; i < count; i++) {
+            final int element = (start + i) % count;
+            if (ElementKind.isShape(document.getKind(element))) {
+                return element;
+            }
+        }
+        return SVGDocument.NONE;
+    }
+
+    /**
+     * Creates a drawing of rotated groups of rectangles and circles, with a
+     * motif of three shapes defined once and drawn at the end of every
+     * fourth group.
+     */
+    private static SVGDocument createDrawing(int shapeCount, Random random) {
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        document.setAttribute(root, "xmlns:xlink",
+            "http://www.w3.org/1999/xlink");
+        document.setAttribute(root, "width", Integer.toString(SIZE));
+        document.setAttribute(root, "height", Integer.toString(SIZE));
+
+        final int defs = document.createElement(root, "defs");
+        final int motif = document.createElement(defs, "g");
+        document.setAttribute(motif, "id", MOTIF_ID);
+        final int circle = document.createElement(motif, "circle");
+        document.setAttribute(circle, "r", "8");
+        document.setAttribute(circle, "fill", "gold");
+        final int rect = document.createElement(motif, "rect");
+        document.setAttribute(rect, "x", "-4");
+        document.setAttribute(rect, "y", "-4");
+        document.setAttribute(rect, "width", "8");
+        document.setAttribute(rect, "height", "8");
+        document.setAttribute(rect, "fill", "navy");
+        final int line = document.createElement(motif, "line");
+        document.setAttribute(line, "x2", "12");
+        document.setAttribute(line, "stroke", "black");
+
+        int group = SVGDocument.NONE;
+        for (int i = 0; i < shapeCount; i++) {
+            if (i % GROUP_SIZE == 0) {
+                if (group != SVGDocument.NONE
+                    && (i / GROUP_SIZE) % 4 == 0) {
+                    final int use = document.createElement(group, "use");
+                    document.setAttribute(use, "xlink:href", "#" + MOTIF_ID);
+                    document.setAttribute(use, "x", "20");
+                    document.setAttribute(use, "y", "20");
+                }
+                group = document.createElement(root, "g");
+                document.setAttribute(group, "transform", "translate("
+                    + random.nextInt(SIZE) + " " + random.nextInt(SIZE)
+                    + ") rotate(" + random.nextInt(360) + ")");
+                document.setAttribute(group, "stroke", "black");
+                document.setAttribute(group, "opacity", "0.8");
+            }
+            final String fill = "#"
+                + Integer.toHexString(0x1000000 | random.nextInt())
+                    .substring(1);
+            final int element;
+            if (i % 2 == 0) {
+                element = document.createElement(group, "circle");
+                document.setAttribute(element, "cx", Integer.toString(random
+                    .nextInt(40)));
+                document.setAttribute(element, "cy", Integer.toString(random
+                    .nextInt(40)));
+                document.setAttribute(element, "r", Integer.toString(3
+                    + random.nextInt(12)));
+            } else {
+                element = document.createElement(group, "rect");
+                document.setAttribute(element, "x", Integer.toString(random
+                    .nextInt(40)));
+                document.setAttribute(element, "y", Integer.toString(random
+                    .nextInt(40)));
+                document.setAttribute(element, "width", Integer
+                    .toString(5 + random.nextInt(20)));
+                document.setAttribute(element, "height", Integer
+                    .toString(5 + random.nextInt(20)));
+            }
+            document.setAttribute(element, "fill", fill);
+        }
+        return document;
+    }
+}
@@ -0,0 +1,1202 @@
+/*
+ * DocumentRenderer.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.NumberScanner;
+
+/**
+ * Renders an {@link SVGDocument} into a {@link RasterSurface}, and measures
+ * the bounding boxes of its elements into an {@link ElementBounds} so that
+ * elements outside of the area being rendered can be skipped.
+ * <p>
+ * Document coordinates are the user coordinates of the root element after
+ * its viewBox, if any, has been applied; that is, the coordinates in which
+ * the root's width and height are given. Rendering is a depth-first walk of
+ * the document in which the matrix and style of each level are computed
+ * into objects that are allocated once per depth and reused.
+ * <p>
+ * The pixels of <code>image</code> elements are obtained from an
+ * {@link ImageSource}; images are not drawn if no source has been set.
+ * <p>
+ * Shapes are flattened, stroked and filled with floats, or with 16.16 fixed
+ * point if {@link #setFixedPoint(boolean)} has been invoked, which is faster
+ * on devices without a floating-point unit. Shapes whose device coordinates
+ * are out of the range of fixed point are drawn with floats regardless.
+ * <p>
+ * A document may also be compiled into a {@link DisplayList} with
+ * {@link #compile(SVGDocument, DisplayList)}, which walks the tree once to
+ * resolve the matrix and colors of each shape and image, and then rendered
+ * from the list with
+ * {@link #render(DisplayList, Matrix, RasterSurface, ElementBounds)}, which
+ * paints the same pixels without walking the tree.
+ * <p>
+ * While the view is moving, documents may be rendered at draft quality with
+ * {@link #setDraft(boolean)}, which trades fidelity for speed.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class DocumentRenderer {
+
+    /**
+     * The maximum depth of elements that are rendered, which also limits
+     * recursion through <code>use</code> elements that refer to themselves.
+     */
+    public static final int MAX_DEPTH = 64;
+
+    /**
+     * The largest width or height, in pixels, at which images are requested
+     * from the {@link ImageSource}; images covering more pixels than this are
+     * enlarged from the pixels at this size.
+     */
+    public static final int MAX_IMAGE_SIZE = 1024;
+
+    /**
+     * The width or height, in pixels, that the box of an element must reach
+     * to be drawn at draft quality.
+     */
+    public static final float DRAFT_MIN_SIZE = 1;
+
+    private final ShapeGeometry geometry;
+    private final TessellationCache tessellations;
+    private final StyleResolver styles;
+    private final TransformParser transforms;
+    private final Stroker stroker;
+    private final Rasterizer rasterizer;
+    private final PolygonBuffer outline;
+    private final PolygonBuffer strokeOutline;
+    private final FixedStroker fixedStroker;
+    private final FixedPolygonBuffer fixedOutline;
+    private final FixedPolygonBuffer fixedStrokeOutline;
+    private final FixedMatrix fixedMatrix;
+    private final NumberScanner scanner;
+    private final float[] box;
+    private final Matrix inverse;
+    private final Matrix opMatrix;
+    private final RenderStyle opStyle;
+    private Matrix[] matrices;
+    private RenderStyle[] styleStack;
+    private int[] ancestors;
+
+    private SVGDocument document;
+    private int transformId;
+    private int viewBoxId;
+    private int widthId;
+    private int heightId;
+    private int xId;
+    private int yId;
+    private int hrefId;
+    private ImageSource imageSource;
+    private boolean fixedPoint;
+    private boolean antiAliased;
+    private boolean draft;
+
+    // the state of the current walk
+    private RasterSurface target;
+    private ElementBounds bounds;
+    private boolean measuring;
+    private DisplayList list;
+    private float clipX0;
+    private float clipY0;
+    private float clipX1;
+    private float clipY1;
+    private float minSize;
+    private int drawnCount;
+    private int culledCount;
+    private int droppedCount;
+
+    /**
+     * Creates a new instance of <code>DocumentRenderer</code>.
+     */
+    public DocumentRenderer() {
+        this.geometry = new ShapeGeometry();
+        this.tessellations = new TessellationCache();
+        this.styles = new StyleResolver();
+        this.transforms = new TransformParser();
+        this.stroker = new Stroker();
+        this.rasterizer = new Rasterizer();
+        this.outline = new PolygonBuffer();
+        this.strokeOutline = new PolygonBuffer();
+        this.fixedStroker = new FixedStroker();
+        this.fixedOutline = new FixedPolygonBuffer();
+        this.fixedStrokeOutline = new FixedPolygonBuffer();
+        this.fixedMatrix = new FixedMatrix();
+        this.scanner = new NumberScanner();
+        this.box = new float[4];
+        this.inverse = new Matrix();
+        this.opMatrix = new Matrix();
+        this.opStyle = new RenderStyle();
+        this.matrices = new Matrix[0];
+        this.styleStack = new RenderStyle[0];
+        this.ancestors = new int[16];
+        this.ensureDepth(16);
+        this.antiAliased = this.rasterizer.isAntiAliased();
+    }
+
+    /**
+     * Returns the object used to compute the styles of elements.
+     *
+     * @return the style resolver, which must be told of changes to the
+     * document with its elementChanged method; never returns null
+     */
+    public StyleResolver getStyleResolver() {
+        return this.styles;
+    }
+
+    /**
+     * Returns the object used to flatten the geometry of elements.
+     *
+     * @return the shape geometry, whose flattening tolerance may be changed;
+     * never returns null
+     */
+    public ShapeGeometry getGeometry() {
+        return this.geometry;
+    }
+
+    /**
+     * Returns the cache of the outlines of the shapes drawn with floats. The
+     * outlines are flattened to the tolerance of the flattener of
+     * {@link #getGeometry()}; shapes drawn with fixed point and shapes being
+     * measured are flattened each time instead.
+     *
+     * @return the tessellation cache, which must be told of changes to the
+     * geometry of shapes with its invalidate method, and whose capacity may
+     * be changed; never returns null
+     */
+    public TessellationCache getTessellationCache() {
+        return this.tessellations;
+    }
+
+    /**
+     * Replaces the document most recently drawn or measured with a later
+     * frozen copy of the same document, keeping the outlines and styles
+     * cached for it. Each change made to the document between the two
+     * copies must then be reported to the style resolver and, for changes
+     * to the geometry of shapes, to the tessellation cache. This method does
+     * nothing if no document has been drawn or measured.
+     *
+     * @param document the later copy of the document
+     * @throws NullPointerException if document==null
+     * @see SVGDocument#freeze()
+     */
+    public void replaceDocument(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (this.document == null || document == this.document) {
+            return;
+        }
+        this.lookUpNames(document);
+        this.document = document;
+        this.styles.replaceDocument(document);
+    }
+
+    /**
+     * Returns the source of the pixels of image elements.
+     *
+     * @return the image source, or null if image elements are not drawn
+     */
+    public ImageSource getImageSource() {
+        return this.imageSource;
+    }
+
+    /**
+     * Sets the source of the pixels of image elements.
+     *
+     * @param imageSource the image source; may be null to not draw image
+     * elements, although their boxes are still measured
+     */
+    public void setImageSource(ImageSource imageSource) {
+        this.imageSource = imageSource;
+    }
+
+    /**
+     * Returns whether shapes are drawn with fixed-point arithmetic.
+     *
+     * @return true if shapes are drawn with fixed point, false if they are
+     * drawn with floats
+     */
+    public boolean isFixedPoint() {
+        return this.fixedPoint;
+    }
+
+    /**
+     * Sets whether shapes are drawn with fixed-point arithmetic. Either way
+     * the same pixels are painted, give or take the rounding of the edges.
+     *
+     * @param fixedPoint true to draw shapes with fixed point, false to draw
+     * them with floats
+     */
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+    }
+
+    /**
+     * Returns whether the edges of shapes are anti-aliased.
+     *
+     * @return true if the edges of shapes are anti-aliased
+     * @see Rasterizer#isAntiAliased()
+     */
+    public boolean isAntiAliased() {
+        return this.antiAliased;
+    }
+
+    /**
+     * Sets whether the edges of shapes are anti-aliased, which they are by
+     * default.
+     *
+     * @param antiAliased true to anti-alias the edges of shapes, false to
+     * paint only the pixels whose centers they cover; shapes are not
+     * anti-aliased at draft quality regardless
+     * @see Rasterizer#setAntiAliased(boolean)
+     */
+    public void setAntiAliased(boolean antiAliased) {
+        this.antiAliased = antiAliased;
+        this.rasterizer.setAntiAliased(antiAliased && !this.draft);
+    }
+
+    /**
+     * Returns whether documents are rendered at draft quality.
+     *
+     * @return true if documents are rendered at draft quality
+     */
+    public boolean isDraft() {
+        return this.draft;
+    }
+
+    /**
+     * Sets whether documents are rendered at draft quality, such as while
+     * the view is being panned or zoomed. At draft quality the edges of
+     * shapes are not anti-aliased, strokes are drawn without joins, and the
+     * elements whose boxes are smaller than {@link #DRAFT_MIN_SIZE} pixels
+     * are not drawn at all. Gradients are drawn with the average color of
+     * their stops at either quality.
+     *
+     * @param draft true to render at draft quality, false to render at full
+     * quality
+     */
+    public void setDraft(boolean draft) {
+        this.draft = draft;
+        this.rasterizer.setAntiAliased(this.antiAliased && !draft);
+        this.stroker.setJoined(!draft);
+        this.fixedStroker.setJoined(!draft);
+    }
+
+    /**
+     * Returns the number of shapes and images drawn by the most recent
+     * invocation of
+     * {@link #render(SVGDocument, Matrix, RasterSurface, ElementBounds)} or
+     * {@link #render(DisplayList, Matrix, RasterSurface, ElementBounds)}.
+     *
+     * @return the number of shapes and images drawn
+     */
+    public int getDrawnCount() {
+        return this.drawnCount;
+    }
+
+    /**
+     * Returns the number of elements, or of ops when rendering a
+     * {@link DisplayList}, skipped because they were outside of the target by
+     * the most recent invocation of
+     * {@link #render(SVGDocument, Matrix, RasterSurface, ElementBounds)} or
+     * {@link #render(DisplayList, Matrix, RasterSurface, ElementBounds)}.
+     *
+     * @return the number of elements or ops culled
+     */
+    public int getCulledCount() {
+        return this.culledCount;
+    }
+
+    /**
+     * Returns the number of elements, or of ops when rendering a
+     * {@link DisplayList}, skipped at draft quality because they were smaller
+     * than {@link #DRAFT_MIN_SIZE} pixels by the most recent invocation of
+     * {@link #render(SVGDocument, Matrix, RasterSurface, ElementBounds)} or
+     * {@link #render(DisplayList, Matrix, RasterSurface, ElementBounds)}.
+     *
+     * @return the number of elements or ops dropped
+     */
+    public int getDroppedCount() {
+        return this.droppedCount;
+    }
+
+    /**
+     * Renders a document.
+     *
+     * @param document the document to render
+     * @param base the transformation from document coordinates to the pixel
+     * coordinates of target
+     * @param target the surface into which to render; pixels are blended over
+     * its existing contents
+     * @param bounds the bounding boxes of the document's elements, as measured
+     * by {@link #measure(SVGDocument, ElementBounds)}, used to skip elements
+     * that do not intersect the target, or that are too small to draw at
+     * draft quality; may be null to render every element
+     * @throws NullPointerException if document, base or target is null
+     */
+    public void render(SVGDocument document, Matrix base,
+            RasterSurface target, ElementBounds bounds) {
+        if (target == null) {
+            throw new NullPointerException("target==null");
+        }
+        this.prepare(document);
+        this.target = target;
+        this.bounds = bounds;
+        this.measuring = false;
+        this.drawnCount = 0;
+        this.culledCount = 0;
+        this.droppedCount = 0;
+        this.minSize = this.draft ? DRAFT_MIN_SIZE / base.getScale() : 0;
+
+        final int root = document.getRoot();
+        if (this.setClip(base, target) && root != SVGDocument.NONE) {
+            this.matrices[0].set(base);
+            this.styleStack[0].setInitial();
+            this.walk(root, 0, SVGDocument.NONE);
+        }
+        this.target = null;
+        this.bounds = null;
+    }
+
+    /**
+     * Renders a document from its display list. The same pixels are painted
+     * as by {@link #render(SVGDocument, Matrix, RasterSurface, ElementBounds)}
+     * for the document from which the list was compiled, give or take the
+     * rounding of the edges, since the matrices of the ops were multiplied
+     * in a different order.
+     *
+     * @param list the display list, compiled by
+     * {@link #compile(SVGDocument, DisplayList)}
+     * @param base the transformation from document coordinates to the pixel
+     * coordinates of target
+     * @param target the surface into which to render; pixels are blended over
+     * its existing contents
+     * @param bounds the bounding boxes of the document's elements, used to
+     * skip the ops whose records do not intersect the target, or that are
+     * too small to draw at draft quality; may be null to draw every op
+     * @throws NullPointerException if list, base or target is null
+     */
+    public void render(DisplayList list, Matrix base, RasterSurface target,
+            ElementBounds bounds) {
+        if (target == null) {
+            throw new NullPointerException("target==null");
+        }
+        final SVGDocument document = list.getDocument();
+        this.drawnCount = 0;
+        this.culledCount = 0;
+        this.droppedCount = 0;
+        if (document == null || !this.setClip(base, target)) {
+            return;
+        }
+        this.prepare(document);
+        this.target = target;
+        this.measuring = false;
+        this.minSize = this.draft ? DRAFT_MIN_SIZE / base.getScale() : 0;
+
+        final Matrix m = this.opMatrix;
+        final RenderStyle style = this.opStyle;
+        style.fillOpacity = 1;
+        style.strokeOpacity = 1;
+        style.visible = true;
+        final int count = list.size();
+        int op = 0;
+        while (op < count) {
+            final int record = list.getRecord(op);
+            if (bounds != null && record < bounds.getElementCount()
+                && !bounds.intersects(record, this.clipX0, this.clipY0,
+                    this.clipX1, this.clipY1)) {
+                // skip every op of the record, which are consecutive
+                do {
+                    this.culledCount++;
+                    op++;
+                } while (op < count && list.getRecord(op) == record);
+                continue;
+            } else if (bounds != null && record < bounds.getElementCount()
+                && this.isTooSmall(bounds, record)) {
+                do {
+                    this.droppedCount++;
+                    op++;
+                } while (op < count && list.getRecord(op) == record);
+                continue;
+            }
+
+            list.concatenateMatrix(op, m.set(base));
+            final byte kind = list.getKind(op);
+            final int element = list.getElement(op);
+            if (kind == ElementKind.IMAGE) {
+                style.opacity = (list.getFillColor(op) >>> 24) / 255f;
+                this.drawImage(element, m, style, record);
+            } else {
+                style.fill = list.getFillColor(op);
+                style.fillRule = list.getFillRule(op);
+                style.stroke = list.getStrokeColor(op);
+                style.strokeWidth = list.getStrokeWidth(op);
+                style.opacity = 1;
+                this.drawShape(element, kind, m, style, record);
+            }
+            op++;
+        }
+        this.target = null;
+    }
+
+    /**
+     * Compiles a document into a display list. If the list has been compiled
+     * before and not invalidated, only the elements marked as changed since,
+     * and the <code>use</code> elements that refer to them or whose
+     * references have changed, are compiled; the ops of the others are
+     * copied forward. The time taken and the number of elements compiled are
+     * kept by the list.
+     *
+     * @param document the document to compile; unless the list needs a full
+     * compile, this must be the document from which it was compiled, or a
+     * later frozen copy of it, and every change made since must have been
+     * marked with {@link DisplayList#markChanged(SVGDocument, int)}
+     * @param list the display list into which to compile
+     * @throws NullPointerException if document==null or list==null
+     * @see DisplayList#needsCompile()
+     */
+    public void compile(SVGDocument document, DisplayList list) {
+        if (list == null) {
+            throw new NullPointerException("list==null");
+        }
+        this.prepare(document);
+        final long start = System.currentTimeMillis();
+        final boolean full = list.needsFullCompile();
+        if (!full) {
+            this.markChangedUses(list);
+        }
+        list.beginCompile(document, full);
+        final int root = document.getRoot();
+        if (root != SVGDocument.NONE) {
+            this.list = list;
+            this.measuring = false;
+            this.matrices[0].setIdentity();
+            this.styleStack[0].setInitial();
+            if (full) {
+                this.compileElement(root, 0, SVGDocument.NONE);
+            } else {
+                this.recompile(root, 0, SVGDocument.NONE);
+            }
+            this.list = null;
+        }
+        list.endCompile(System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Measures the bounding boxes of every element of a document.
+     *
+     * @param document the document to measure
+     * @param bounds the object into which to store the boxes; it is reset to
+     * the number of elements in the document
+     * @throws NullPointerException if document==null or bounds==null
+     */
+    public void measure(SVGDocument document, ElementBounds bounds) {
+        this.prepare(document);
+        bounds.reset(document.getElementCount());
+        final int root = document.getRoot();
+        if (root != SVGDocument.NONE) {
+            this.bounds = bounds;
+            this.measuring = true;
+            this.matrices[0].setIdentity();
+            this.styleStack[0].setInitial();
+            this.walk(root, 0, SVGDocument.NONE);
+            this.bounds = null;
+        }
+    }
+
+    /**
+     * Measures the bounding boxes of an element and its descendants again
+     * after they have been modified, and enlarges the boxes of its ancestors
+     * to include the new box. The boxes of <code>use</code> elements that
+     * refer to the element are not updated.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element to measure
+     * @param bounds the boxes of the document's elements, as previously
+     * measured; it is grown if elements have been added to the document
+     * @throws NullPointerException if document==null or bounds==null
+     */
+    public void measureElement(SVGDocument document, int element,
+            ElementBounds bounds) {
+        this.prepare(document);
+        bounds.grow(document.getElementCount());
+
+        // collect the ancestors, root first
+        int depth = 0;
+        int e = document.getParent(element);
+        for (; e != SVGDocument.NONE; e = document.getParent(e)) {
+            if (depth == this.ancestors.length) {
+                final int[] newAncestors = new int[depth * 2];
+                System.arraycopy(this.ancestors, 0, newAncestors, 0, depth);
+                this.ancestors = newAncestors;
+            }
+            this.ancestors[depth++] = e;
+        }
+        for (int i = 0, j = depth - 1; i < j; i++, j--) {
+            final int swap = this.ancestors[i];
+            this.ancestors[i] = this.ancestors[j];
+            this.ancestors[j] = swap;
+        }
+        if (depth >= MAX_DEPTH) {
+            bounds.setEmpty(element);
+            return;
+        }
+
+        // compute the matrix and style of the element's parent
+        this.bounds = bounds;
+        this.measuring = true;
+        this.ensureDepth(depth + 1);
+        this.matrices[0].setIdentity();
+        this.styleStack[0].setInitial();
+        for (int i = 0; i < depth; i++) {
+            if (!this.prepareLevel(this.ancestors[i], i, i == 0)) {
+                bounds.setEmpty(element);
+                this.bounds = null;
+                return;
+            }
+        }
+
+        this.walk(element, depth, SVGDocument.NONE);
+        for (int i = 0; i < depth; i++) {
+            bounds.includeElement(this.ancestors[i], element);
+        }
+        this.bounds = null;
+    }
+
+    /**
+     * Marks as changed the <code>use</code> elements of a display list that
+     * refer to a changed element or to a different element than when they
+     * were compiled, repeating until no more are marked so that a use of a
+     * use is marked with it.
+     */
+    private void markChangedUses(DisplayList list) {
+        final SVGDocument document = this.document;
+        final int count = document.getElementCount();
+        boolean marked = true;
+        while (marked) {
+            marked = false;
+            for (int element = 0; element < count; element++) {
+                final int target = list.getUseTarget(element);
+                if (target == DisplayList.NOT_USE || list.isChanged(element)) {
+                    continue;
+                }
+                if (document.isRemoved(element)) {
+                    continue;
+                }
+                if (this.getHrefTarget(element) != target
+                    || list.isSubtreeDirty(document, target)) {
+                    list.markChanged(document, element);
+                    marked = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Compiles an element of the tree and its descendants into the display
+     * list being compiled, recording the range of their ops.
+     *
+     * @param element the index of the element
+     * @param depth the depth of the element
+     * @param parent the index of the element's parent
+     */
+    private void compileElement(int element, int depth, int parent) {
+        final DisplayList list = this.list;
+        final int start = list.getBuildCount();
+        this.walk(element, depth, SVGDocument.NONE);
+        list.setRange(element, parent, start);
+    }
+
+    /**
+     * Compiles the changed elements of a subtree into the display list being
+     * compiled, copying forward the ops of the others.
+     *
+     * @param element the index of the root of the subtree
+     * @param depth the depth of the element
+     * @param parent the index of the element's parent
+     */
+    private void recompile(int element, int depth, int parent) {
+        final DisplayList list = this.list;
+        final SVGDocument document = this.document;
+        if (!list.isDirty(element)) {
+            list.copyForward(document, element, parent);
+            return;
+        } else if (list.isChanged(element)
+            || !ElementKind.isRenderedContainer(document.getKind(element))) {
+            this.compileElement(element, depth, parent);
+            return;
+        }
+
+        // only descendants have changed, so this level is computed again
+        // and each child is compiled or copied
+        final int start = list.getBuildCount();
+        list.countCompiled();
+        this.ensureDepth(depth + 2);
+        if (depth + 1 < MAX_DEPTH
+            && this.prepareLevel(element, depth, depth == 0)) {
+            int child = document.getFirstChild(element);
+            for (; child != SVGDocument.NONE; child =
+                document.getNextSibling(child)) {
+                this.recompile(child, depth + 1, element);
+            }
+        }
+        list.setRange(element, parent, start);
+    }
+
+    /**
+     * Renders, measures or compiles an element and its descendants.
+     *
+     * @param element the index of the element
+     * @param depth the depth of the element; the matrix and style of its
+     * parent are at this index of the stacks
+     * @param owner the use element whose instance contains the element, or
+     * NONE if it is not being rendered through a use element
+     */
+    private void walk(int element, int depth, int owner) {
+        final SVGDocument document = this.document;
+        final byte kind = document.getKind(element);
+        final boolean shape = ElementKind.isShape(kind);
+        final boolean image = (kind == ElementKind.IMAGE);
+        final boolean instance = (owner != SVGDocument.NONE);
+        if (!(shape || image || ElementKind.isRenderedContainer(kind)
+            || kind == ElementKind.USE
+            || (kind == ElementKind.SYMBOL && instance))) {
+            return;
+        } else if (depth + 1 >= MAX_DEPTH) {
+            return;
+        }
+
+        final ElementBounds bounds = this.bounds;
+        final DisplayList list = this.list;
+        if (list != null) {
+            list.countCompiled();
+        } else if (this.measuring) {
+            if (owner == SVGDocument.NONE) {
+                bounds.setEmpty(element);
+            }
+        } else if (bounds != null && owner == SVGDocument.NONE
+            && element < bounds.getElementCount()
+            && !bounds.intersects(element, this.clipX0, this.clipY0,
+                this.clipX1, this.clipY1)) {
+            this.culledCount++;
+            return;
+        } else if (bounds != null && owner == SVGDocument.NONE
+            && element < bounds.getElementCount()
+            && this.isTooSmall(bounds, element)) {
+            this.droppedCount++;
+            return;
+        }
+
+        this.ensureDepth(depth + 2);
+        if (!this.prepareLevel(element, depth, depth == 0)) {
+            return;
+        }
+        final int record = (owner == SVGDocument.NONE) ? element : owner;
+
+        if (list != null && (shape || image)) {
+            this.addOp(element, kind, depth + 1, record);
+        } else if (shape) {
+            this.drawShape(element, kind, this.matrices[depth + 1],
+                this.styleStack[depth + 1], record);
+        } else if (image) {
+            this.drawImage(element, this.matrices[depth + 1],
+                this.styleStack[depth + 1], record);
+        } else if (kind == ElementKind.USE) {
+            final int referenced = this.getHrefTarget(element);
+            if (list != null) {
+                list.setUseTarget(element, referenced);
+            }
+            if (referenced != SVGDocument.NONE) {
+                this.walk(referenced, depth + 1, record);
+            }
+        } else {
+            int child = document.getFirstChild(element);
+            for (; child != SVGDocument.NONE; child =
+                document.getNextSibling(child)) {
+                if (list != null && owner == SVGDocument.NONE) {
+                    this.compileElement(child, depth + 1, element);
+                } else {
+                    this.walk(child, depth + 1, owner);
+                }
+                if (this.measuring && owner == SVGDocument.NONE) {
+                    bounds.includeElement(element, child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends an op for a shape or image to the display list being
+     * compiled, unless it is hidden or painted only with transparent colors.
+     *
+     * @param element the index of the shape or image
+     * @param kind the kind of the element
+     * @param depth the index in the stacks of the element's matrix and style
+     * @param record the element whose box includes the element's
+     */
+    private void addOp(int element, byte kind, int depth, int record) {
+        final RenderStyle style = this.styleStack[depth];
+        if (!style.visible) {
+            return;
+        }
+        final Matrix m = this.matrices[depth];
+        if (kind == ElementKind.IMAGE) {
+            final int coverage = (int) (style.opacity * 255 + 0.5f);
+            if (coverage > 0) {
+                this.list.addOp(kind, element, record, m, coverage << 24,
+                    style.fillRule, ColorParser.NONE, 0);
+            }
+            return;
+        }
+        final int fillColor =
+            (kind == ElementKind.LINE) ? ColorParser.NONE : style
+                .getFillColor();
+        final int strokeColor = style.getStrokeColor();
+        if ((fillColor >>> 24) != 0 || (strokeColor >>> 24) != 0) {
+            this.list.addOp(kind, element, record, m, fillColor,
+                style.fillRule, strokeColor, style.strokeWidth);
+        }
+    }
+
+    /**
+     * Computes the matrix and style of an element from those of its parent.
+     *
+     * @param element the index of the element
+     * @param depth the index in the stacks of the parent's matrix and style;
+     * the element's are stored at the next index
+     * @param root true if the element is the root element
+     * @return false if the element is not displayed
+     */
+    private boolean prepareLevel(int element, int depth, boolean root) {
+        final SVGDocument document = this.document;
+        final Matrix m = this.matrices[depth + 1].set(this.matrices[depth]);
+        if (!this.styles.resolve(document, element, this.styleStack[depth],
+            this.styleStack[depth + 1])) {
+            return false;
+        }
+
+        final int slot = document.findAttribute(element, this.transformId);
+        if (slot >= 0) {
+            this.transforms.parse(document.getStringValue(slot), m);
+        }
+        final byte kind = document.getKind(element);
+        if (kind == ElementKind.SVG) {
+            if (!root) {
+                m.translate(document.getNumber(element, this.xId, 0), document
+                    .getNumber(element, this.yId, 0));
+            }
+            this.applyViewBox(element, m);
+        } else if (kind == ElementKind.USE) {
+            m.translate(document.getNumber(element, this.xId, 0), document
+                .getNumber(element, this.yId, 0));
+        }
+        return true;
+    }
+
+    /**
+     * Fills and strokes a shape, or measures it.
+     *
+     * @param element the index of the shape
+     * @param kind the kind of the shape
+     * @param m the transformation from the shape's user coordinates to
+     * pixels, or to document coordinates when measuring
+     * @param style the style of the shape
+     * @param record the element whose box includes the shape's
+     */
+    private void drawShape(int element, byte kind, Matrix m,
+            RenderStyle style, int record) {
+        if (this.fixedPoint
+            && this.drawFixedShape(element, kind, m, style, record)) {
+            return;
+        }
+        final PolygonBuffer outline = this.outline;
+        outline.reset();
+        if (this.measuring) {
+            // measure exactly, without disturbing the outlines held for the
+            // zoom at which the shape is drawn
+            if (!this.geometry.flatten(this.document, element, m, outline)) {
+                return;
+            }
+        } else {
+            final TessellationCache tessellations = this.tessellations;
+            tessellations.setTolerance(this.geometry.getFlattener()
+                .getTolerance());
+            if (!tessellations.flatten(this.document, element, m, outline)) {
+                return;
+            }
+        }
+
+        final int strokeColor = style.getStrokeColor();
+        final float strokeWidth = style.strokeWidth * m.getScale();
+        if (this.measuring) {
+            final float[] box = this.box;
+            if (outline.getBounds(box)) {
+                final float half =
+                    ((strokeColor >>> 24) == 0) ? 0 : strokeWidth / 2;
+                this.bounds.include(record, box[0] - half, box[1] - half,
+                    box[2] + half, box[3] + half);
+            }
+            return;
+        } else if (!style.visible) {
+            return;
+        }
+
+        if (kind != ElementKind.LINE) {
+            this.rasterizer.fill(outline, style.fillRule, style.getFillColor(),
+                this.target);
+        }
+        if ((strokeColor >>> 24) != 0) {
+            final PolygonBuffer strokeOutline = this.strokeOutline;
+            strokeOutline.reset();
+            this.stroker.stroke(outline, strokeWidth, strokeOutline);
+            strokeOutline.endContour(false);
+            this.rasterizer.fill(strokeOutline, Rasterizer.NONZERO,
+                strokeColor, this.target);
+        }
+        this.drawnCount++;
+    }
+
+    /**
+     * Fills and strokes a shape, or measures it, with fixed-point arithmetic.
+     *
+     * @param element the index of the shape
+     * @param kind the kind of the shape
+     * @param m the transformation from the shape's user coordinates to
+     * pixels, or to document coordinates when measuring
+     * @param style the style of the shape
+     * @param record the element whose box includes the shape's
+     * @return true if the shape was drawn or measured; false if it has no
+     * outline, or if it is out of the range of fixed point and must be drawn
+     * with floats instead
+     */
+    private boolean drawFixedShape(int element, byte kind, Matrix m,
+            RenderStyle style, int record) {
+        final FixedMatrix fixedMatrix = this.fixedMatrix;
+        final FixedPolygonBuffer outline = this.fixedOutline;
+        outline.reset();
+        if (!fixedMatrix.set(m)
+            || !this.geometry.flatten(this.document, element, fixedMatrix,
+                outline)) {
+            return false;
+        }
+
+        final int strokeColor = style.getStrokeColor();
+        final boolean stroked = ((strokeColor >>> 24) != 0);
+        int strokeWidth = 0;
+        if (stroked) {
+            if (!FixedMath.isInRange(style.strokeWidth)) {
+                return false;
+            }
+            final long width =
+                ((long) FixedMath.fromFloat(style.strokeWidth) * fixedMatrix
+                    .getScale()) >> FixedMath.SHIFT;
+            if (width > FixedPathFlattener.MAX_COORD) {
+                return false;
+            }
+            strokeWidth = (int) width;
+        }
+        if (this.measuring) {
+            final float[] box = this.box;
+            if (outline.getBounds(box)) {
+                final float half = FixedMath.toFloat(strokeWidth / 2);
+                this.bounds.include(record, box[0] - half, box[1] - half,
+                    box[2] + half, box[3] + half);
+            }
+            return true;
+        } else if (!style.visible) {
+            return true;
+        }
+
+        if (kind != ElementKind.LINE) {
+            this.rasterizer.fill(outline, style.fillRule, style.getFillColor(),
+                this.target);
+        }
+        if (stroked) {
+            final FixedPolygonBuffer strokeOutline = this.fixedStrokeOutline;
+            strokeOutline.reset();
+            this.fixedStroker.stroke(outline, strokeWidth, strokeOutline);
+            strokeOutline.endContour(false);
+            this.rasterizer.fill(strokeOutline, Rasterizer.NONZERO,
+                strokeColor, this.target);
+        }
+        this.drawnCount++;
+        return true;
+    }
+
+    /**
+     * Draws an image, stretched to its box with nearest-neighbour sampling,
+     * or measures it.
+     *
+     * @param element the index of the image
+     * @param m the transformation from the image's user coordinates to
+     * pixels, or to document coordinates when measuring
+     * @param style the style of the image
+     * @param record the element whose box includes the image's
+     */
+    private void drawImage(int element, Matrix m, RenderStyle style,
+            int record) {
+        final SVGDocument document = this.document;
+        final float width = document.getNumber(element, this.widthId, 0);
+        final float height = document.getNumber(element, this.heightId, 0);
+        if (!(width > 0 && height > 0)) {
+            return;
+        }
+        final float x = document.getNumber(element, this.xId, 0);
+        final float y = document.getNumber(element, this.yId, 0);
+        final float[] box = this.box;
+        box[0] = Float.MAX_VALUE;
+        box[1] = Float.MAX_VALUE;
+        box[2] = -Float.MAX_VALUE;
+        box[3] = -Float.MAX_VALUE;
+        includeBoxCorner(box, m, x, y);
+        includeBoxCorner(box, m, x + width, y);
+        includeBoxCorner(box, m, x, y + height);
+        includeBoxCorner(box, m, x + width, y + height);
+        if (this.measuring) {
+            this.bounds.include(record, box[0], box[1], box[2], box[3]);
+            return;
+        }
+
+        final ImageSource source = this.imageSource;
+        final int coverage = (int) (style.opacity * 255 + 0.5f);
+        final int slot = document.findAttribute(element, this.hrefId);
+        final Matrix inverse = this.inverse.set(m);
+        if (!style.visible || source == null || slot < 0 || coverage <= 0
+            || !inverse.invert()) {
+            return;
+        }
+
+        // request the pixels at the size at which the image covers the target
+        final int requestWidth =
+            imageSize(width * (float) Math.sqrt(m.a * m.a + m.b * m.b));
+        final int requestHeight =
+            imageSize(height * (float) Math.sqrt(m.c * m.c + m.d * m.d));
+        final RasterSurface pixels =
+            source.getImage(document.getStringValue(slot), requestWidth,
+                requestHeight);
+        if (pixels == null || pixels.getWidth() == 0
+            || pixels.getHeight() == 0) {
+            return;
+        }
+
+        final RasterSurface target = this.target;
+        final int x0 = Math.max(0, (int) Math.floor(box[0]));
+        final int y0 = Math.max(0, (int) Math.floor(box[1]));
+        final int x1 = Math.min(target.getWidth(), (int) Math.ceil(box[2]));
+        final int y1 = Math.min(target.getHeight(), (int) Math.ceil(box[3]));
+        final int[] src = pixels.getPixels();
+        final int srcWidth = pixels.getWidth();
+        final int srcHeight = pixels.getHeight();
+        final float scaleX = srcWidth / width;
+        final float scaleY = srcHeight / height;
+        for (int py = y0; py < y1; py++) {
+            // map the centre of each pixel back into the image's box
+            float u = inverse.transformX(x0 + 0.5f, py + 0.5f) - x;
+            float v = inverse.transformY(x0 + 0.5f, py + 0.5f) - y;
+            for (int px = x0; px < x1; px++, u += inverse.a, v += inverse.b) {
+                if (u >= 0 && v >= 0 && u < width && v < height) {
+                    final int sx = Math.min(srcWidth - 1, (int) (u * scaleX));
+                    final int sy = Math.min(srcHeight - 1, (int) (v * scaleY));
+                    target.blendPixel(px, py, src[sy * srcWidth + sx],
+                        coverage);
+                }
+            }
+        }
+        this.drawnCount++;
+    }
+
+    /**
+     * Converts a length in pixels to the size at which to request an image,
+     * between 1 and {@link #MAX_IMAGE_SIZE}.
+     */
+    private static int imageSize(float length) {
+        return Math.max(1, Math.min(MAX_IMAGE_SIZE, (int) Math
+            .ceil(length - 0.001f)));
+    }
+
+    /**
+     * Enlarges a box to include a point after transforming it by a matrix.
+     */
+    private static void includeBoxCorner(float[] box, Matrix m, float x,
+            float y) {
+        final float dx = m.transformX(x, y);
+        final float dy = m.transformY(x, y);
+        box[0] = Math.min(box[0], dx);
+        box[1] = Math.min(box[1], dy);
+        box[2] = Math.max(box[2], dx);
+        box[3] = Math.max(box[3], dy);
+    }
+
+    /**
+     * Applies the viewBox of an svg element, scaling it uniformly to fit and
+     * centering it within the element's width and height.
+     */
+    private void applyViewBox(int element, Matrix m) {
+        final SVGDocument document = this.document;
+        final int slot = document.findAttribute(element, this.viewBoxId);
+        if (slot < 0) {
+            return;
+        }
+        final char[] chars = document.getStringValue(slot).toCharArray();
+        final NumberScanner scanner = this.scanner;
+        scanner.reset(chars, 0, chars.length);
+        final float[] box = this.box;
+        for (int i = 0; i < 4; i++) {
+            if (!scanner.nextNumber()) {
+                return;
+            }
+            box[i] = scanner.getValue();
+        }
+        final float vbWidth = box[2];
+        final float vbHeight = box[3];
+        if (!(vbWidth > 0 && vbHeight > 0)) {
+            return;
+        }
+
+        final float width = document.getNumber(element, this.widthId, vbWidth);
+        final float height =
+            document.getNumber(element, this.heightId, vbHeight);
+        final float scale = Math.min(width / vbWidth, height / vbHeight);
+        m.concatenate(scale, 0, 0, scale, (width - vbWidth * scale) / 2
+            - box[0] * scale, (height - vbHeight * scale) / 2 - box[1] * scale);
+    }
+
+    /**
+     * Returns the element referenced by the xlink:href attribute of another.
+     *
+     * @return the index of the referenced element, or NONE
+     */
+    private int getHrefTarget(int element) {
+        final SVGDocument document = this.document;
+        final int slot = document.findAttribute(element, this.hrefId);
+        if (slot < 0) {
+            return SVGDocument.NONE;
+        }
+        final String href = document.getStringValue(slot);
+        if (href.length() < 2 || href.charAt(0) != '#') {
+            return SVGDocument.NONE;
+        }
+        return document.findElementById(href.substring(1));
+    }
+
+    /**
+     * Returns whether the box of an element is too small to draw at draft
+     * quality: narrower and shorter than the minimum size of the current
+     * render, which is zero at full quality.
+     */
+    private boolean isTooSmall(ElementBounds bounds, int element) {
+        final float minSize = this.minSize;
+        final float[] box = this.box;
+        return (minSize > 0 && bounds.getBounds(element, box)
+            && box[2] - box[0] < minSize && box[3] - box[1] < minSize);
+    }
+
+    /**
+     * Sets the clip rectangle to the area of the document covered by a
+     * target.
+     *
+     * @return false if the base matrix cannot be inverted, so that nothing
+     * is drawn
+     */
+    private boolean setClip(Matrix base, RasterSurface target) {
+        final Matrix inverse = this.inverse.set(base);
+        if (!inverse.invert()) {
+            return false;
+        }
+        final int w = target.getWidth();
+        final int h = target.getHeight();
+        this.clipX0 = Float.MAX_VALUE;
+        this.clipY0 = Float.MAX_VALUE;
+        this.clipX1 = -Float.MAX_VALUE;
+        this.clipY1 = -Float.MAX_VALUE;
+        this.includeClipCorner(inverse, 0, 0);
+        this.includeClipCorner(inverse, w, 0);
+        this.includeClipCorner(inverse, 0, h);
+        this.includeClipCorner(inverse, w, h);
+        return true;
+    }
+
+    /**
+     * Enlarges the clip rectangle to include a corner of the target.
+     */
+    private void includeClipCorner(Matrix inverse, float x, float y) {
+        final float dx = inverse.transformX(x, y);
+        final float dy = inverse.transformY(x, y);
+        this.clipX0 = Math.min(this.clipX0, dx);
+        this.clipY0 = Math.min(this.clipY0, dy);
+        this.clipX1 = Math.max(this.clipX1, dx);
+        this.clipY1 = Math.max(this.clipY1, dy);
+    }
+
+    /**
+     * Ensures that the matrix and style stacks have at least a given depth.
+     */
+    private void ensureDepth(int depth) {
+        final int oldDepth = this.matrices.length;
+        if (depth <= oldDepth) {
+            return;
+        }
+        final int newDepth = Math.max(depth, oldDepth * 2);
+        final Matrix[] newMatrices = new Matrix[newDepth];
+        final RenderStyle[] newStyles = new RenderStyle[newDepth];
+        System.arraycopy(this.matrices, 0, newMatrices, 0, oldDepth);
+        System.arraycopy(this.styleStack, 0, newStyles, 0, oldDepth);
+        for (int i = oldDepth; i < newDepth; i++) {
+            newMatrices[i] = new Matrix();
+            newStyles[i] = new RenderStyle();
+        }
+        this.matrices = newMatrices;
+        this.styleStack = newStyles;
+    }
+
+    /**
+     * Looks up the IDs of attribute names and discards the outlines of the
+     * previous document's shapes if the document has changed.
+     */
+    private void prepare(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (document == this.document) {
+            return;
+        }
+        this.lookUpNames(document);
+        this.tessellations.invalidateAll();
+        this.document = document;
+    }
+
+    /**
+     * Looks up the IDs of attribute names in a document's NameTable.
+     */
+    private void lookUpNames(SVGDocument document) {
+        final NameTable names = document.getNameTable();
+        this.transformId = names.intern("transform");
+        this.viewBoxId = names.intern("viewBox");
+        this.widthId = names.intern("width");
+        this.heightId = names.intern("height");
+        this.xId = names.intern("x");
+        this.yId = names.intern("y");
+        this.hrefId = names.intern("xlink:href");
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * ElementBounds.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * The axis-aligned bounding boxes of the elements of a document, in document
+ * coordinates, including the width of their strokes. The box of a container
+ * includes the boxes of its children. The boxes are stored in a single float
+ * array, four values per element.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class ElementBounds {
+
+    private float[] boxes;
+    private int count;
+
+    /**
+     * Creates a new instance of <code>ElementBounds</code> in which every box
+     * is empty.
+     */
+    public ElementBounds() {
+        this.boxes = new float[64 * 4];
+    }
+
+    /**
+     * Makes the boxes of a number of elements empty.
+     *
+     * @param elementCount the number of elements whose boxes to make empty;
+     * the boxes of elements with higher indices are left undefined
+     */
+    public void reset(int elementCount) {
+        if (elementCount * 4 > this.boxes.length) {
+            this.boxes = new float[elementCount * 4];
+        }
+        for (int i = 0; i < elementCount; i++) {
+            this.setEmpty(i);
+        }
+        this.count = elementCount;
+    }
+
+    /**
+     * Increases the number of elements whose boxes are stored, keeping the
+     * existing boxes and making the added ones empty.
+     *
+     * @param elementCount the new number of elements; does nothing if it is
+     * not greater than the current number
+     */
+    public void grow(int elementCount) {
+        if (elementCount <= this.count) {
+            return;
+        }
+        if (elementCount * 4 > this.boxes.length) {
+            final float[] newBoxes =
+                new float[Math.max(elementCount, this.count * 2) * 4];
+            System.arraycopy(this.boxes, 0, newBoxes, 0, this.count * 4);
+            this.boxes = newBoxes;
+        }
+        for (int i = this.count; i < elementCount; i++) {
+            this.setEmpty(i);
+        }
+        this.count = elementCount;
+    }
+
+    /**
+     * Returns the number of elements whose boxes are stored.
+     *
+     * @return the number of elements, as given to {@link #reset(int)}
+     */
+    public int getElementCount() {
+        return this.count;
+    }
+
+    /**
+     * Makes the box of an element empty.
+     *
+     * @param element the index of the element
+     */
+    public void setEmpty(int element) {
+        final int i = element * 4;
+        this.boxes[i] = Float.MAX_VALUE;
+        this.boxes[i + 1] = Float.MAX_VALUE;
+        this.boxes[i + 2] = -Float.MAX_VALUE;
+        this.boxes[i + 3] = -Float.MAX_VALUE;
+    }
+
+    /**
+     * Returns whether or not the box of an element is empty.
+     *
+     * @param element the index of the element
+     * @return true if the element has no geometry, or is not stored
+     */
+    public boolean isEmpty(int element) {
+        if (element < 0 || element >= this.count) {
+            return true;
+        }
+        final int i = element * 4;
+        return (this.boxes[i] > this.boxes[i + 2]);
+    }
+
+    /**
+     * Enlarges the box of an element to include a rectangle.
+     *
+     * @param element the index of the element
+     * @param x0 the left edge of the rectangle
+     * @param y0 the top edge of the rectangle
+     * @param x1 the right edge of the rectangle
+     * @param y1 the bottom edge of the rectangle
+     */
+    public void include(int element, float x0, float y0, float x1, float y1) {
+        final float[] boxes = this.boxes;
+        final int i = element * 4;
+        if (x0 < boxes[i]) {
+            boxes[i] = x0;
+        }
+        if (y0 < boxes[i + 1]) {
+            boxes[i + 1] = y0;
+        }
+        if (x1 > boxes[i + 2]) {
+            boxes[i + 2] = x1;
+        }
+        if (y1 > boxes[i + 3]) {
+            boxes[i + 3] = y1;
+        }
+    }
+
+    /**
+     * Enlarges the box of an element to include the box of another.
+     *
+     * @param element the index of the element whose box to enlarge
+     * @param other the index of the element whose box to include
+     */
+    public void includeElement(int element, int other) {
+        if (!this.isEmpty(other)) {
+            final int i = other * 4;
+            this.include(element, this.boxes[i], this.boxes[i + 1],
+                this.boxes[i + 2], this.boxes[i + 3]);
+        }
+    }
+
+    /**
+     * Returns whether or not the box of an element intersects a rectangle.
+     *
+     * @param element the index of the element
+     * @param x0 the left edge of the rectangle
+     * @param y0 the top edge of the rectangle
+     * @param x1 the right edge of the rectangle
+     * @param y1 the bottom edge of the rectangle
+     * @return true if the box intersects the rectangle, false if it does not
+     * or is empty
+     */
+    public boolean intersects(int element, float x0, float y0, float x1,
+            float y1) {
+        if (element < 0 || element >= this.count) {
+            return false;
+        }
+        final float[] boxes = this.boxes;
+        final int i = element * 4;
+        return (boxes[i] < x1 && boxes[i + 2] > x0 && boxes[i + 1] < y1
+            && boxes[i + 3] > y0);
+    }
+
+    /**
+     * Copies the box of an element.
+     *
+     * @param element the index of the element
+     * @param out an array of at least 4 elements into which to store the left,
+     * top, right and bottom edges of the box
+     * @return true if the box was stored, false if it is empty (in which case
+     * out is not modified)
+     * @throws NullPointerException if out==null
+     */
+    public boolean getBounds(int element, float[] out) {
+        if (this.isEmpty(element)) {
+            return false;
+        }
+        System.arraycopy(this.boxes, element * 4, out, 0, 4);
+        return true;
+    }
+}
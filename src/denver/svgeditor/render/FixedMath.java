@@ -0,0 +1,349 @@
+/*
+ * FixedMath.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Arithmetic on 16.16 fixed-point numbers: ints whose high 16 bits are the
+ * integer part and whose low 16 bits are the fraction, so that
+ * {@link #ONE} represents 1. On devices without a floating-point unit every
+ * float operation is emulated in software, and these functions are used in
+ * its place by the fixed-point rendering backend ({@link FixedPathFlattener},
+ * {@link FixedStroker} and the fixed-point variant of {@link Rasterizer}).
+ * <p>
+ * Products and quotients are computed with long intermediates, so they
+ * overflow only if the result itself is out of range; the trigonometric
+ * functions use a table and need no floats once this class is initialized.
+ */
+public class FixedMath {
+
+    /**
+     * The number of fraction bits.
+     */
+    public static final int SHIFT = 16;
+
+    /**
+     * The fixed-point value 1.
+     */
+    public static final int ONE = 1 << SHIFT;
+
+    /**
+     * The fixed-point value 0.5.
+     */
+    public static final int HALF = ONE >> 1;
+
+    /**
+     * The fixed-point value of pi.
+     */
+    public static final int PI = 205887;
+
+    /**
+     * The fixed-point value of pi / 2.
+     */
+    public static final int HALF_PI = 102944;
+
+    /**
+     * The fixed-point value of 2 * pi.
+     */
+    public static final int TWO_PI = 411775;
+
+    /**
+     * The magnitude below which a float can be converted to fixed point by
+     * {@link #fromFloat(float)}.
+     */
+    public static final float MAX_FLOAT = 32767;
+
+    /**
+     * The number of entries of the sine table covering a whole turn.
+     */
+    private static final int TABLE_STEPS = 1024;
+
+    /**
+     * The number of table steps per radian, in fixed point.
+     */
+    private static final int STEPS_PER_RADIAN = 10680707;
+
+    /**
+     * The sines of the table steps of the first quarter turn, including both
+     * of its ends, in fixed point.
+     */
+    private static final int[] SINES;
+
+    /**
+     * The arctangents of 2^-i, in fixed-point radians, for CORDIC.
+     */
+    private static final int[] ARCTANGENTS = { 51472, 30386, 16055, 8150,
+        4091, 2047, 1024, 512, 256, 128, 64, 32, 16, 8, 4, 2, 1 };
+
+    static {
+        final int quarter = TABLE_STEPS / 4;
+        SINES = new int[quarter + 1];
+        for (int i = 0; i <= quarter; i++) {
+            SINES[i] =
+                (int) Math.floor(Math.sin(i * Math.PI / 2 / quarter) * ONE
+                    + 0.5);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FixedMath() {
+    }
+
+    /**
+     * Returns whether a float can be converted to fixed point.
+     *
+     * @param value the value to test
+     * @return true if value is a number whose magnitude is less than
+     * {@link #MAX_FLOAT}, false otherwise
+     */
+    public static boolean isInRange(float value) {
+        return (value > -MAX_FLOAT && value < MAX_FLOAT);
+    }
+
+    /**
+     * Converts a float to fixed point, rounding to the nearest value.
+     *
+     * @param value the value to convert; the result is undefined unless
+     * {@link #isInRange(float)} returns true for it
+     * @return the fixed-point value
+     */
+    public static int fromFloat(float value) {
+        final float scaled = value * ONE;
+        return (int) ((scaled < 0) ? scaled - 0.5f : scaled + 0.5f);
+    }
+
+    /**
+     * Converts a fixed-point value to a float.
+     *
+     * @param value the fixed-point value
+     * @return the value as a float
+     */
+    public static float toFloat(int value) {
+        return value * (1.0f / ONE);
+    }
+
+    /**
+     * Converts an int to fixed point.
+     *
+     * @param value the value to convert, whose magnitude must be less than
+     * 32768
+     * @return the fixed-point value
+     */
+    public static int fromInt(int value) {
+        return value << SHIFT;
+    }
+
+    /**
+     * Multiplies two fixed-point values.
+     *
+     * @return the product, rounded towards negative infinity
+     */
+    public static int mul(int a, int b) {
+        return (int) (((long) a * b) >> SHIFT);
+    }
+
+    /**
+     * Divides one fixed-point value by another.
+     *
+     * @param a the dividend
+     * @param b the divisor
+     * @return the quotient, rounded towards zero
+     * @throws ArithmeticException if b is zero
+     */
+    public static int div(int a, int b) {
+        return (int) (((long) a << SHIFT) / b);
+    }
+
+    /**
+     * Returns the largest int not greater than a fixed-point value.
+     *
+     * @param value the fixed-point value
+     * @return the value rounded towards negative infinity, as an int
+     */
+    public static int floor(int value) {
+        return value >> SHIFT;
+    }
+
+    /**
+     * Returns the smallest int not less than a fixed-point value.
+     *
+     * @param value the fixed-point value
+     * @return the value rounded towards positive infinity, as an int
+     */
+    public static int ceil(int value) {
+        return (int) (((long) value + ONE - 1) >> SHIFT);
+    }
+
+    /**
+     * Computes the square root of a fixed-point value.
+     *
+     * @param value the value, which must not be negative
+     * @return the square root, rounded down, in fixed point; returns 0 if
+     * value is not positive
+     */
+    public static int sqrt(int value) {
+        return (value <= 0) ? 0 : (int) sqrt((long) value << SHIFT);
+    }
+
+    /**
+     * Computes the length of the vector (x, y) of fixed-point values without
+     * overflowing in the squares.
+     *
+     * @return the length of the vector, in fixed point; saturates at
+     * Integer.MAX_VALUE
+     */
+    public static int hypot(int x, int y) {
+        long ax = (x < 0) ? -(long) x : x;
+        long ay = (y < 0) ? -(long) y : y;
+        int shift = 0;
+        if (ax > Integer.MAX_VALUE / 2 || ay > Integer.MAX_VALUE / 2) {
+            // keep the sum of the squares below 2^63
+            ax >>= 1;
+            ay >>= 1;
+            shift = 1;
+        }
+        final long length = sqrt(ax * ax + ay * ay) << shift;
+        return (length > Integer.MAX_VALUE) ? Integer.MAX_VALUE
+            : (int) length;
+    }
+
+    /**
+     * Computes the integer square root of a long.
+     *
+     * @param value the value; must not be negative
+     * @return the largest long whose square is not greater than value
+     */
+    public static long sqrt(long value) {
+        long result = 0;
+        long bit = 1L << 62;
+        while (bit > value) {
+            bit >>= 2;
+        }
+        while (bit != 0) {
+            if (value >= result + bit) {
+                value -= result + bit;
+                result = (result >> 1) + bit;
+            } else {
+                result >>= 1;
+            }
+            bit >>= 2;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the sine of an angle.
+     *
+     * @param radians the angle, in fixed-point radians
+     * @return the sine, in fixed point, within about 2^-16 of the true value
+     */
+    public static int sin(int radians) {
+        // position in table steps, in fixed point
+        long steps = ((long) radians * STEPS_PER_RADIAN) >> SHIFT;
+        steps %= (long) TABLE_STEPS << SHIFT;
+        if (steps < 0) {
+            steps += (long) TABLE_STEPS << SHIFT;
+        }
+        final int index = (int) (steps >> SHIFT);
+        final int fraction = (int) steps & (ONE - 1);
+        final int quarter = TABLE_STEPS / 4;
+        final int quadrant = index / quarter;
+        final int offset = index % quarter;
+        final int s0;
+        final int s1;
+        if ((quadrant & 1) == 0) {
+            s0 = SINES[offset];
+            s1 = SINES[offset + 1];
+        } else {
+            s0 = SINES[quarter - offset];
+            s1 = SINES[quarter - offset - 1];
+        }
+        final int sine = s0 + mul(s1 - s0, fraction);
+        return (quadrant < 2) ? sine : -sine;
+    }
+
+    /**
+     * Computes the cosine of an angle.
+     *
+     * @param radians the angle, in fixed-point radians
+     * @return the cosine, in fixed point, within about 2^-16 of the true
+     * value
+     */
+    public static int cos(int radians) {
+        return sin(radians + HALF_PI);
+    }
+
+    /**
+     * Computes the angle of the point (x, y) from the positive x axis, with
+     * the CORDIC algorithm.
+     *
+     * @param y the y coordinate of the point, in fixed point
+     * @param x the x coordinate of the point, in fixed point
+     * @return the angle, in fixed-point radians, between -pi and pi
+     */
+    public static int atan2(int y, int x) {
+        if (x == 0 && y == 0) {
+            return 0;
+        }
+
+        // rotate into the right half plane, then leave room for the
+        // growth of the vector during the iterations
+        long vx = x;
+        long vy = y;
+        int angle = 0;
+        if (vx < 0) {
+            vx = -vx;
+            vy = -vy;
+            angle = (y < 0) ? -PI : PI;
+        }
+        while (vx > (1L << 40) || vy > (1L << 40) || vy < -(1L << 40)) {
+            vx >>= 1;
+            vy >>= 1;
+        }
+        vx <<= 8;
+        vy <<= 8;
+
+        // rotate the vector onto the x axis, accumulating the rotation
+        for (int i = 0; i < ARCTANGENTS.length; i++) {
+            final long nx;
+            if (vy > 0) {
+                nx = vx + (vy >> i);
+                vy -= vx >> i;
+                angle += ARCTANGENTS[i];
+            } else {
+                nx = vx - (vy >> i);
+                vy += vx >> i;
+                angle -= ARCTANGENTS[i];
+            }
+            vx = nx;
+        }
+        if (angle > PI) {
+            angle -= TWO_PI;
+        } else if (angle < -PI) {
+            angle += TWO_PI;
+        }
+        return angle;
+    }
+}
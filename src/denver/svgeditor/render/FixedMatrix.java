@@ -0,0 +1,265 @@
+/*
+ * FixedMatrix.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * A 2D affine transformation matrix of 16.16 fixed-point values; the
+ * fixed-point counterpart of {@link Matrix}, with the same component names.
+ * The matrix maps a point (x, y) to (a*x + c*y + e, b*x + d*y + f).
+ * <p>
+ * Instances of this class are mutable and are not thread-safe.
+ */
+public class FixedMatrix {
+
+    /** The x scale component. */
+    public int a;
+
+    /** The y shear component. */
+    public int b;
+
+    /** The x shear component. */
+    public int c;
+
+    /** The y scale component. */
+    public int d;
+
+    /** The x translation component. */
+    public int e;
+
+    /** The y translation component. */
+    public int f;
+
+    /**
+     * Creates a new instance of <code>FixedMatrix</code> set to the identity.
+     */
+    public FixedMatrix() {
+        this.a = FixedMath.ONE;
+        this.d = FixedMath.ONE;
+    }
+
+    /**
+     * Sets this matrix to the identity.
+     *
+     * @return this object
+     */
+    public FixedMatrix setIdentity() {
+        return this.set(FixedMath.ONE, 0, 0, FixedMath.ONE, 0, 0);
+    }
+
+    /**
+     * Sets the components of this matrix.
+     *
+     * @return this object
+     */
+    public FixedMatrix set(int a, int b, int c, int d, int e, int f) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        this.e = e;
+        this.f = f;
+        return this;
+    }
+
+    /**
+     * Sets this matrix to a copy of another.
+     *
+     * @param other the matrix to copy
+     * @return this object
+     * @throws NullPointerException if other==null
+     */
+    public FixedMatrix set(FixedMatrix other) {
+        return this.set(other.a, other.b, other.c, other.d, other.e, other.f);
+    }
+
+    /**
+     * Sets this matrix to the fixed-point equivalent of a float matrix.
+     *
+     * @param m the matrix to convert
+     * @return true if every component of m was in range (see
+     * {@link FixedMath#isInRange(float)}), false if not (in which case this
+     * matrix is left unchanged)
+     * @throws NullPointerException if m==null
+     */
+    public boolean set(Matrix m) {
+        if (!(FixedMath.isInRange(m.a) && FixedMath.isInRange(m.b)
+            && FixedMath.isInRange(m.c) && FixedMath.isInRange(m.d)
+            && FixedMath.isInRange(m.e) && FixedMath.isInRange(m.f))) {
+            return false;
+        }
+        this.set(FixedMath.fromFloat(m.a), FixedMath.fromFloat(m.b),
+            FixedMath.fromFloat(m.c), FixedMath.fromFloat(m.d), FixedMath
+                .fromFloat(m.e), FixedMath.fromFloat(m.f));
+        return true;
+    }
+
+    /**
+     * Post-multiplies this matrix by the matrix with the given components, so
+     * that the given transformation is applied to points before this one.
+     *
+     * @return this object
+     * @see Matrix#concatenate(float, float, float, float, float, float)
+     */
+    public FixedMatrix concatenate(int a, int b, int c, int d, int e, int f) {
+        final int na = dot(this.a, a, this.c, b);
+        final int nb = dot(this.b, a, this.d, b);
+        final int nc = dot(this.a, c, this.c, d);
+        final int nd = dot(this.b, c, this.d, d);
+        final int ne = dot(this.a, e, this.c, f) + this.e;
+        final int nf = dot(this.b, e, this.d, f) + this.f;
+        return this.set(na, nb, nc, nd, ne, nf);
+    }
+
+    /**
+     * Post-multiplies this matrix by another.
+     *
+     * @param m the matrix by which to multiply
+     * @return this object
+     */
+    public FixedMatrix concatenate(FixedMatrix m) {
+        return this.concatenate(m.a, m.b, m.c, m.d, m.e, m.f);
+    }
+
+    /**
+     * Applies a translation before this transformation.
+     *
+     * @return this object
+     */
+    public FixedMatrix translate(int tx, int ty) {
+        return this.concatenate(FixedMath.ONE, 0, 0, FixedMath.ONE, tx, ty);
+    }
+
+    /**
+     * Applies a scale before this transformation.
+     *
+     * @return this object
+     */
+    public FixedMatrix scale(int sx, int sy) {
+        return this.concatenate(sx, 0, 0, sy, 0, 0);
+    }
+
+    /**
+     * Applies a rotation before this transformation.
+     *
+     * @param radians the angle of rotation, in fixed-point radians
+     * @return this object
+     */
+    public FixedMatrix rotate(int radians) {
+        final int cos = FixedMath.cos(radians);
+        final int sin = FixedMath.sin(radians);
+        return this.concatenate(cos, sin, -sin, cos, 0, 0);
+    }
+
+    /**
+     * Inverts this matrix.
+     *
+     * @return true if this matrix was inverted, false if it is singular or
+     * its inverse is out of range (in which case it is left unchanged)
+     */
+    public boolean invert() {
+        // the determinant is kept in 32.32, so dividing a component
+        // shifted up by 32 bits gives the quotient in 16.16
+        final long det = (long) this.a * this.d - (long) this.b * this.c;
+        if (det == 0) {
+            return false;
+        }
+        final long ia = ((long) this.d << 32) / det;
+        final long ib = -((long) this.b << 32) / det;
+        final long ic = -((long) this.c << 32) / det;
+        final long id = ((long) this.a << 32) / det;
+        if (!(fits(ia) && fits(ib) && fits(ic) && fits(id))) {
+            return false;
+        }
+        final long ie = -((ia * this.e + ic * this.f) >> FixedMath.SHIFT);
+        final long iff = -((ib * this.e + id * this.f) >> FixedMath.SHIFT);
+        if (!(fits(ie) && fits(iff))) {
+            return false;
+        }
+        this.set((int) ia, (int) ib, (int) ic, (int) id, (int) ie, (int) iff);
+        return true;
+    }
+
+    /**
+     * Transforms the x coordinate of a point.
+     *
+     * @param x the x coordinate, in fixed point
+     * @param y the y coordinate, in fixed point
+     * @return the transformed x coordinate, in fixed point
+     */
+    public int transformX(int x, int y) {
+        return dot(this.a, x, this.c, y) + this.e;
+    }
+
+    /**
+     * Transforms the y coordinate of a point.
+     *
+     * @param x the x coordinate, in fixed point
+     * @param y the y coordinate, in fixed point
+     * @return the transformed y coordinate, in fixed point
+     */
+    public int transformY(int x, int y) {
+        return dot(this.b, x, this.d, y) + this.f;
+    }
+
+    /**
+     * Returns the average factor by which this transformation scales lengths.
+     *
+     * @return the square root of the absolute value of the determinant, in
+     * fixed point
+     * @see Matrix#getScale()
+     */
+    public int getScale() {
+        final long det = (long) this.a * this.d - (long) this.b * this.c;
+        final long scale = FixedMath.sqrt((det < 0) ? -det : det);
+        return (scale > Integer.MAX_VALUE) ? Integer.MAX_VALUE : (int) scale;
+    }
+
+    /**
+     * Returns a human-readable representation of this matrix.
+     *
+     * @return a string of the form "matrix(a b c d e f)", with the components
+     * converted to floats; never returns null
+     */
+    public String toString() {
+        return "matrix(" + FixedMath.toFloat(this.a) + " "
+            + FixedMath.toFloat(this.b) + " " + FixedMath.toFloat(this.c)
+            + " " + FixedMath.toFloat(this.d) + " "
+            + FixedMath.toFloat(this.e) + " " + FixedMath.toFloat(this.f)
+            + ")";
+    }
+
+    /**
+     * Computes p*q + r*s of fixed-point values, rounding only once.
+     */
+    private static int dot(int p, int q, int r, int s) {
+        return (int) (((long) p * q + (long) r * s) >> FixedMath.SHIFT);
+    }
+
+    /**
+     * Returns whether a long fits in an int.
+     */
+    private static boolean fits(long value) {
+        return (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE);
+    }
+}
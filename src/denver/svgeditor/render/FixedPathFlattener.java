@@ -0,0 +1,596 @@
+/*
+ * FixedPathFlattener.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.svg.PathData;
+
+/**
+ * Converts path data into polygons in device coordinates using only 16.16
+ * fixed-point arithmetic; the fixed-point counterpart of
+ * {@link PathFlattener}. Curves are transformed to device coordinates and
+ * evaluated at a number of points chosen, as by {@link PathFlattener}, so
+ * that the approximation deviates from the true curve by no more than the
+ * tolerance. Elliptical arcs are first converted to cubic Bezier curves of
+ * at most a quarter turn each.
+ * <p>
+ * Fixed point has a small range, so flattening fails if a coordinate in path
+ * coordinates or in device coordinates is too large; the caller is then
+ * expected to flatten the path with a {@link PathFlattener} instead. The
+ * device coordinates are limited to {@link #MAX_COORD}, which leaves room for
+ * the arithmetic of the {@link FixedStroker} and the {@link Rasterizer}.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class FixedPathFlattener {
+
+    /**
+     * The largest magnitude of the device coordinates that are produced, in
+     * fixed point: 4096 pixels.
+     */
+    public static final int MAX_COORD = 4096 << FixedMath.SHIFT;
+
+    /**
+     * The default tolerance, in fixed-point device pixels.
+     */
+    public static final int DEFAULT_TOLERANCE = FixedMath.ONE / 4;
+
+    /**
+     * The largest magnitude of the coordinates of the path, in fixed point.
+     */
+    private static final int MAX_PATH_COORD = 1 << 30;
+
+    private int tolerance;
+    private FixedMatrix matrix;
+    private FixedPolygonBuffer out;
+    private boolean overflowed;
+
+    // the parameters of the arc being converted
+    private int arcRx;
+    private int arcRy;
+    private int arcCos;
+    private int arcSin;
+    private int arcCx;
+    private int arcCy;
+
+    /**
+     * Creates a new instance of <code>FixedPathFlattener</code> with the
+     * default tolerance.
+     */
+    public FixedPathFlattener() {
+        this.tolerance = DEFAULT_TOLERANCE;
+    }
+
+    /**
+     * Returns the maximum deviation of the flattened curves from the true
+     * curves.
+     *
+     * @return the tolerance, in fixed-point device pixels
+     */
+    public int getTolerance() {
+        return this.tolerance;
+    }
+
+    /**
+     * Sets the maximum deviation of the flattened curves from the true
+     * curves.
+     *
+     * @param tolerance the tolerance, in fixed-point device pixels
+     * @throws IllegalArgumentException if tolerance is not positive
+     */
+    public void setTolerance(int tolerance) {
+        if (tolerance <= 0) {
+            throw new IllegalArgumentException("invalid tolerance: "
+                + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Flattens all of the path data in a PathData.
+     *
+     * @param path the path data to flatten
+     * @param matrix the transformation from path coordinates to device
+     * coordinates
+     * @param out the buffer to which to append the contours
+     * @return true if the path was flattened, false if its coordinates were
+     * out of range
+     * @throws NullPointerException if any argument is null
+     * @see #flatten(byte[], int, int, float[], int, FixedMatrix,
+     * FixedPolygonBuffer)
+     */
+    public boolean flatten(PathData path, FixedMatrix matrix,
+            FixedPolygonBuffer out) {
+        return this.flatten(path.getCommands(), 0, path.getCommandCount(),
+            path.getCoords(), 0, matrix, out);
+    }
+
+    /**
+     * Flattens path data.
+     *
+     * @param commands the array containing the path commands
+     * @param commandOffset the index of the first command
+     * @param commandCount the number of commands
+     * @param coords the array containing the coordinates of the commands
+     * @param coordOffset the index of the first coordinate
+     * @param matrix the transformation from path coordinates to device
+     * coordinates
+     * @param out the buffer to which to append the contours; the last contour
+     * is ended before this method returns
+     * @return true if the path was flattened, false if a coordinate was out
+     * of range, in which case out holds some of the path's contours
+     * @throws NullPointerException if any object argument is null
+     */
+    public boolean flatten(byte[] commands, int commandOffset,
+            int commandCount, float[] coords, int coordOffset,
+            FixedMatrix matrix, FixedPolygonBuffer out) {
+        this.matrix = matrix;
+        this.out = out;
+        this.overflowed = false;
+
+        int cx = 0; // current point
+        int cy = 0;
+        int sx = 0; // start of the current subpath
+        int sy = 0;
+        int lx = 0; // last control point, for S and T
+        int ly = 0;
+        int last = 0;
+        boolean needMove = true;
+        int c = coordOffset;
+
+        final int end = commandOffset + commandCount;
+        for (int i = commandOffset; i < end && !this.overflowed; i++) {
+            final int command = commands[i];
+            final boolean relative = PathData.isRelative(command);
+            final int upper = relative ? command - ('a' - 'A') : command;
+            final int bx = relative ? cx : 0;
+            final int by = relative ? cy : 0;
+
+            if (upper == 'M') {
+                cx = this.add(bx, coords[c++]);
+                cy = this.add(by, coords[c++]);
+                sx = cx;
+                sy = cy;
+                this.moveTo(cx, cy);
+                needMove = false;
+                last = upper;
+                continue;
+            } else if (upper == 'Z') {
+                out.close();
+                cx = sx;
+                cy = sy;
+                needMove = true;
+                last = upper;
+                continue;
+            }
+
+            if (needMove) {
+                this.moveTo(cx, cy);
+                needMove = false;
+            }
+
+            switch (upper) {
+            case 'L':
+                cx = this.add(bx, coords[c++]);
+                cy = this.add(by, coords[c++]);
+                this.lineTo(cx, cy);
+                break;
+            case 'H':
+                cx = this.add(bx, coords[c++]);
+                this.lineTo(cx, cy);
+                break;
+            case 'V':
+                cy = this.add(by, coords[c++]);
+                this.lineTo(cx, cy);
+                break;
+            case 'C':
+            case 'S': {
+                final int x1;
+                final int y1;
+                if (upper == 'C') {
+                    x1 = this.add(bx, coords[c++]);
+                    y1 = this.add(by, coords[c++]);
+                } else if (last == 'C' || last == 'S') {
+                    x1 = this.fit(2L * cx - lx);
+                    y1 = this.fit(2L * cy - ly);
+                } else {
+                    x1 = cx;
+                    y1 = cy;
+                }
+                lx = this.add(bx, coords[c++]);
+                ly = this.add(by, coords[c++]);
+                final int x = this.add(bx, coords[c++]);
+                final int y = this.add(by, coords[c++]);
+                this.cubicTo(cx, cy, x1, y1, lx, ly, x, y);
+                cx = x;
+                cy = y;
+                break;
+            }
+            case 'Q':
+            case 'T': {
+                if (upper == 'Q') {
+                    lx = this.add(bx, coords[c++]);
+                    ly = this.add(by, coords[c++]);
+                } else if (last == 'Q' || last == 'T') {
+                    lx = this.fit(2L * cx - lx);
+                    ly = this.fit(2L * cy - ly);
+                } else {
+                    lx = cx;
+                    ly = cy;
+                }
+                final int x = this.add(bx, coords[c++]);
+                final int y = this.add(by, coords[c++]);
+                this.quadTo(cx, cy, lx, ly, x, y);
+                cx = x;
+                cy = y;
+                break;
+            }
+            case 'A': {
+                final int rx = this.add(0, coords[c++]);
+                final int ry = this.add(0, coords[c++]);
+                final int angle = this.add(0, coords[c++]);
+                final boolean large = (coords[c++] != 0);
+                final boolean sweep = (coords[c++] != 0);
+                final int x = this.add(bx, coords[c++]);
+                final int y = this.add(by, coords[c++]);
+                this.arcTo(cx, cy, rx, ry, angle, large, sweep, x, y);
+                cx = x;
+                cy = y;
+                break;
+            }
+            default:
+                break; // PathParser never produces anything else
+            }
+            last = upper;
+        }
+        out.endContour(false);
+        this.matrix = null;
+        this.out = null;
+        return !this.overflowed;
+    }
+
+    /**
+     * Adds a path coordinate to a fixed-point base, recording an overflow if
+     * the coordinate or the sum is out of range.
+     */
+    private int add(int base, float value) {
+        if (!FixedMath.isInRange(value)) {
+            this.overflowed = true;
+            return 0;
+        }
+        return this.fit((long) base + FixedMath.fromFloat(value));
+    }
+
+    /**
+     * Narrows a path coordinate to an int, recording an overflow if it is
+     * out of range.
+     */
+    private int fit(long value) {
+        if (value > MAX_PATH_COORD || value < -MAX_PATH_COORD) {
+            this.overflowed = true;
+            return 0;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Transforms the x coordinate of a point to device coordinates,
+     * recording an overflow if it is out of range.
+     */
+    private int deviceX(int x, int y) {
+        final FixedMatrix m = this.matrix;
+        return this.device((((long) m.a * x + (long) m.c * y)
+            >> FixedMath.SHIFT) + m.e);
+    }
+
+    /**
+     * Transforms the y coordinate of a point to device coordinates,
+     * recording an overflow if it is out of range.
+     */
+    private int deviceY(int x, int y) {
+        final FixedMatrix m = this.matrix;
+        return this.device((((long) m.b * x + (long) m.d * y)
+            >> FixedMath.SHIFT) + m.f);
+    }
+
+    /**
+     * Narrows a device coordinate to an int, recording an overflow if it is
+     * out of range.
+     */
+    private int device(long value) {
+        if (value > MAX_COORD || value < -MAX_COORD) {
+            this.overflowed = true;
+            return 0;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Starts a new contour at a point in path coordinates.
+     */
+    private void moveTo(int x, int y) {
+        this.out.moveTo(this.deviceX(x, y), this.deviceY(x, y));
+    }
+
+    /**
+     * Adds a point in path coordinates to the current contour.
+     */
+    private void lineTo(int x, int y) {
+        this.out.lineTo(this.deviceX(x, y), this.deviceY(x, y));
+    }
+
+    /**
+     * Flattens a cubic Bezier curve. The curve is transformed to device
+     * coordinates first and then evaluated as a polynomial by Horner's
+     * method, with long intermediates so that rounding errors do not grow
+     * with the size of the coordinates.
+     */
+    private void cubicTo(int x0, int y0, int x1, int y1, int x2, int y2,
+            int x3, int y3) {
+        final int p0x = this.deviceX(x0, y0);
+        final int p0y = this.deviceY(x0, y0);
+        final int p1x = this.deviceX(x1, y1);
+        final int p1y = this.deviceY(x1, y1);
+        final int p2x = this.deviceX(x2, y2);
+        final int p2y = this.deviceY(x2, y2);
+        final int p3x = this.deviceX(x3, y3);
+        final int p3y = this.deviceY(x3, y3);
+        if (this.overflowed) {
+            return;
+        }
+
+        // see PathFlattener.cubicTo() for the bound
+        final int dd =
+            Math.max(FixedMath.hypot(p0x - 2 * p1x + p2x, p0y - 2 * p1y
+                + p2y), FixedMath.hypot(p1x - 2 * p2x + p3x, p1y - 2 * p2y
+                + p3y));
+        final int n = this.segments(dd - (dd >> 2));
+
+        // B(t) = p0 + t * (c1 + t * (c2 + t * c3))
+        final long c1x = 3L * (p1x - p0x);
+        final long c1y = 3L * (p1y - p0y);
+        final long c2x = 3L * ((long) p0x - 2L * p1x + p2x);
+        final long c2y = 3L * ((long) p0y - 2L * p1y + p2y);
+        final long c3x = (long) p3x - p0x + 3L * ((long) p1x - p2x);
+        final long c3y = (long) p3y - p0y + 3L * ((long) p1y - p2y);
+        final FixedPolygonBuffer out = this.out;
+        for (int i = 1; i < n; i++) {
+            final long t = ((long) i << FixedMath.SHIFT) / n;
+            long x = c2x + ((c3x * t) >> FixedMath.SHIFT);
+            long y = c2y + ((c3y * t) >> FixedMath.SHIFT);
+            x = c1x + ((x * t) >> FixedMath.SHIFT);
+            y = c1y + ((y * t) >> FixedMath.SHIFT);
+            out.lineTo(p0x + (int) ((x * t) >> FixedMath.SHIFT), p0y
+                + (int) ((y * t) >> FixedMath.SHIFT));
+        }
+        out.lineTo(p3x, p3y);
+    }
+
+    /**
+     * Flattens a quadratic Bezier curve.
+     */
+    private void quadTo(int x0, int y0, int x1, int y1, int x2, int y2) {
+        final int p0x = this.deviceX(x0, y0);
+        final int p0y = this.deviceY(x0, y0);
+        final int p1x = this.deviceX(x1, y1);
+        final int p1y = this.deviceY(x1, y1);
+        final int p2x = this.deviceX(x2, y2);
+        final int p2y = this.deviceY(x2, y2);
+        if (this.overflowed) {
+            return;
+        }
+
+        final int dd = FixedMath.hypot(p0x - 2 * p1x + p2x, p0y - 2 * p1y
+            + p2y);
+        final int n = this.segments(dd >> 2);
+
+        // B(t) = p0 + t * (c1 + t * c2)
+        final long c1x = 2L * (p1x - p0x);
+        final long c1y = 2L * (p1y - p0y);
+        final long c2x = (long) p0x - 2L * p1x + p2x;
+        final long c2y = (long) p0y - 2L * p1y + p2y;
+        final FixedPolygonBuffer out = this.out;
+        for (int i = 1; i < n; i++) {
+            final long t = ((long) i << FixedMath.SHIFT) / n;
+            final long x = c1x + ((c2x * t) >> FixedMath.SHIFT);
+            final long y = c1y + ((c2y * t) >> FixedMath.SHIFT);
+            out.lineTo(p0x + (int) ((x * t) >> FixedMath.SHIFT), p0y
+                + (int) ((y * t) >> FixedMath.SHIFT));
+        }
+        out.lineTo(p2x, p2y);
+    }
+
+    /**
+     * Converts an elliptical arc, specified with the endpoint
+     * parameterization used by SVG path data, to cubic Bezier curves and
+     * flattens them. The conversion to center parameterization follows
+     * appendix F.6.5 of the SVG 1.1 specification, but with the endpoint
+     * divided by the radii so that no products of radii are needed.
+     */
+    private void arcTo(int x1, int y1, int rx, int ry, int angle,
+            boolean large, boolean sweep, int x2, int y2) {
+        if (rx == 0 || ry == 0 || (x1 == x2 && y1 == y2)) {
+            if (x1 != x2 || y1 != y2) {
+                this.lineTo(x2, y2);
+            }
+            return;
+        }
+        rx = Math.abs(rx);
+        ry = Math.abs(ry);
+
+        final int phi = (int) ((((long) angle * FixedMath.PI) / 180)
+            >> FixedMath.SHIFT);
+        final int cos = FixedMath.cos(phi);
+        final int sin = FixedMath.sin(phi);
+        final long dx2 = ((long) x1 - x2) >> 1;
+        final long dy2 = ((long) y1 - y2) >> 1;
+        final long x1p = (cos * dx2 + sin * dy2) >> FixedMath.SHIFT;
+        final long y1p = (-sin * dx2 + cos * dy2) >> FixedMath.SHIFT;
+
+        // the endpoint on the unit circle, if the radii are large enough
+        long xn = (x1p << FixedMath.SHIFT) / rx;
+        long yn = (y1p << FixedMath.SHIFT) / ry;
+        if (xn > Integer.MAX_VALUE || xn < -Integer.MAX_VALUE
+            || yn > Integer.MAX_VALUE || yn < -Integer.MAX_VALUE) {
+            this.overflowed = true;
+            return;
+        }
+
+        // scale up the radii if they are too small to reach the endpoint
+        long cxn = 0;
+        long cyn = 0;
+        final int length = FixedMath.hypot((int) xn, (int) yn);
+        if (length >= FixedMath.ONE) {
+            rx = this.fit(((long) rx * length) >> FixedMath.SHIFT);
+            ry = this.fit(((long) ry * length) >> FixedMath.SHIFT);
+            xn = (xn << FixedMath.SHIFT) / length;
+            yn = (yn << FixedMath.SHIFT) / length;
+        } else {
+            // the center is sqrt(1 - |endpoint|^2) from the origin of the
+            // unit circle, at right angles to the endpoint; its direction
+            // is taken from (x1p * ry, y1p * rx), which keeps its precision
+            // when the endpoint is much closer than the radii
+            long vx = x1p * ry;
+            long vy = y1p * rx;
+            if (vx == 0 && vy == 0) {
+                this.lineTo(x2, y2);
+                return;
+            }
+            while (Math.abs(vx) > (1 << 29) || Math.abs(vy) > (1 << 29)) {
+                vx >>= 1;
+                vy >>= 1;
+            }
+            while (Math.abs(vx) < (1 << 24) && Math.abs(vy) < (1 << 24)) {
+                vx <<= 1;
+                vy <<= 1;
+            }
+            final int vlength = FixedMath.hypot((int) vx, (int) vy);
+            final long lambda =
+                ((long) length * length) >> FixedMath.SHIFT;
+            long offset = FixedMath.sqrt((int) (FixedMath.ONE - lambda));
+            if (large == sweep) {
+                offset = -offset;
+            }
+            cxn = offset * vy / vlength;
+            cyn = -offset * vx / vlength;
+        }
+
+        final int theta1 = FixedMath.atan2((int) (yn - cyn), (int) (xn - cxn));
+        int dtheta =
+            FixedMath.atan2((int) (-yn - cyn), (int) (-xn - cxn)) - theta1;
+        if (!sweep && dtheta > 0) {
+            dtheta -= FixedMath.TWO_PI;
+        } else if (sweep && dtheta < 0) {
+            dtheta += FixedMath.TWO_PI;
+        }
+
+        // the center, in path coordinates
+        final long cxp = (cxn * rx) >> FixedMath.SHIFT;
+        final long cyp = (cyn * ry) >> FixedMath.SHIFT;
+        this.arcRx = rx;
+        this.arcRy = ry;
+        this.arcCos = cos;
+        this.arcSin = sin;
+        this.arcCx = this.fit(((cos * cxp - sin * cyp) >> FixedMath.SHIFT)
+            + (((long) x1 + x2) >> 1));
+        this.arcCy = this.fit(((sin * cxp + cos * cyp) >> FixedMath.SHIFT)
+            + (((long) y1 + y2) >> 1));
+        if (this.overflowed) {
+            return;
+        }
+
+        // a quarter turn or less of the unit circle is approximated by a
+        // cubic curve whose control points are k along the tangents
+        final int count =
+            Math.max(1, (Math.abs(dtheta) + FixedMath.HALF_PI - 1)
+                / FixedMath.HALF_PI);
+        final int delta = dtheta / count;
+        final int quarter = delta / 4;
+        final int k =
+            (int) (((long) FixedMath.sin(quarter) << (FixedMath.SHIFT + 2))
+                / (3L * FixedMath.cos(quarter)));
+        int x = x1;
+        int y = y1;
+        int t0 = theta1;
+        for (int i = 0; i < count && !this.overflowed; i++) {
+            final int t1 = (i + 1 == count) ? theta1 + dtheta : t0 + delta;
+            final int cos0 = FixedMath.cos(t0);
+            final int sin0 = FixedMath.sin(t0);
+            final int cos1 = FixedMath.cos(t1);
+            final int sin1 = FixedMath.sin(t1);
+            final int u1 = cos0 - FixedMath.mul(k, sin0);
+            final int v1 = sin0 + FixedMath.mul(k, cos0);
+            final int u2 = cos1 + FixedMath.mul(k, sin1);
+            final int v2 = sin1 - FixedMath.mul(k, cos1);
+            final int endX = (i + 1 == count) ? x2 : this.arcX(cos1, sin1);
+            final int endY = (i + 1 == count) ? y2 : this.arcY(cos1, sin1);
+            this.cubicTo(x, y, this.arcX(u1, v1), this.arcY(u1, v1), this
+                .arcX(u2, v2), this.arcY(u2, v2), endX, endY);
+            x = endX;
+            y = endY;
+            t0 = t1;
+        }
+    }
+
+    /**
+     * Maps a point of the unit circle to the x coordinate of the point of
+     * the arc being converted.
+     */
+    private int arcX(int u, int v) {
+        final long ex = ((long) u * this.arcRx) >> FixedMath.SHIFT;
+        final long ey = ((long) v * this.arcRy) >> FixedMath.SHIFT;
+        return this.fit(((this.arcCos * ex - this.arcSin * ey)
+            >> FixedMath.SHIFT) + this.arcCx);
+    }
+
+    /**
+     * Maps a point of the unit circle to the y coordinate of the point of
+     * the arc being converted.
+     */
+    private int arcY(int u, int v) {
+        final long ex = ((long) u * this.arcRx) >> FixedMath.SHIFT;
+        final long ey = ((long) v * this.arcRy) >> FixedMath.SHIFT;
+        return this.fit(((this.arcSin * ex + this.arcCos * ey)
+            >> FixedMath.SHIFT) + this.arcCy);
+    }
+
+    /**
+     * Computes the number of segments needed to approximate a curve.
+     *
+     * @param bound the maximum deviation of a single segment, in fixed
+     * point, which decreases with the square of the number of segments
+     * @return the number of segments
+     */
+    private int segments(int bound) {
+        if (bound <= this.tolerance) {
+            return 1;
+        }
+        final long ratio = ((long) bound << FixedMath.SHIFT) / this.tolerance;
+        final long max = PathFlattener.MAX_SEGMENTS;
+        if (ratio >= (max * max) << FixedMath.SHIFT) {
+            return PathFlattener.MAX_SEGMENTS;
+        }
+        final long root = FixedMath.sqrt(ratio << FixedMath.SHIFT);
+        return (int) ((root + FixedMath.ONE - 1) >> FixedMath.SHIFT);
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * FixedPointBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import java.util.Random;
+
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * Compares the fixed-point rendering backend with the float one. The
+ * functions of {@link FixedMath} and {@link FixedMatrix} are checked against
+ * their float counterparts at random arguments; then a synthetic drawing of
+ * stroked paths of lines, curves and arcs, circles and rounded rectangles,
+ * in rotated and scaled groups, is flattened and rendered with each backend.
+ * The speedup of fixed point over floats is reported along with the number
+ * of pixels whose colors differ between the two renderings, beyond the
+ * {@link Rasterizer#EDGE_TOLERANCE} of anti-aliased edges.
+ */
+public class FixedPointBenchmark {
+
+    /**
+     * The width and height of the rendering, in pixels.
+     */
+    private static final int SIZE = 256;
+
+    /**
+     * The number of shapes in each group of the drawing.
+     */
+    private static final int GROUP_SIZE = 20;
+
+    /**
+     * The number of random arguments at which each function is checked.
+     */
+    private static final int SAMPLES = 1000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FixedPointBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param shapeCount the number of shapes in the drawing
+     * @param runs the number of times to render the drawing with each
+     * backend
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int shapeCount, int runs) {
+        final int count = Math.max(1, runs);
+        final Random random = new Random(1);
+        final StringBuffer report = new StringBuffer();
+        checkMath(random, report);
+
+        final SVGDocument document = createDrawing(shapeCount, random);
+        report.append(document.getElementCount()).append(" elements, ")
+            .append(count).append(" runs of each\n");
+
+        // flatten every shape with each backend
+        final ShapeGeometry geometry = new ShapeGeometry();
+        final Matrix matrix = new Matrix();
+        final FixedMatrix fixedMatrix = new FixedMatrix();
+        fixedMatrix.set(matrix);
+        final PolygonBuffer outline = new PolygonBuffer();
+        final FixedPolygonBuffer fixedOutline = new FixedPolygonBuffer();
+        final int elements = document.getElementCount();
+        long start = System.currentTimeMillis();
+        int points = 0;
+        for (int run = 0; run < count; run++) {
+            outline.reset();
+            for (int element = 0; element < elements; element++) {
+                geometry.flatten(document, element, matrix, outline);
+            }
+            points = outline.getPointCount();
+        }
+        final long floatFlatten = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        int fixedPoints = 0;
+        int overflows = 0;
+        for (int run = 0; run < count; run++) {
+            fixedOutline.reset();
+            overflows = 0;
+            for (int element = 0; element < elements; element++) {
+                if (!geometry.flatten(document, element, fixedMatrix,
+                    fixedOutline)
+                    && geometry.flatten(document, element, matrix, outline)) {
+                    overflows++;
+                }
+            }
+            fixedPoints = fixedOutline.getPointCount();
+        }
+        final long fixedFlatten = System.currentTimeMillis() - start;
+        report.append("Flatten: float ").append(floatFlatten).append(
+            " ms, ").append(points).append(" points; fixed ").append(
+            fixedFlatten).append(" ms, ").append(fixedPoints).append(
+            " points; ").append(formatSpeedup(floatFlatten, fixedFlatten))
+            .append('\n');
+        if (overflows > 0) {
+            report.append("MISMATCH: ").append(overflows).append(
+                " shapes out of fixed-point range\n");
+        }
+
+        // render the drawing with each backend
+        final DocumentRenderer renderer = new DocumentRenderer();
+        final RasterSurface floatSurface = new RasterSurface(SIZE, SIZE);
+        final RasterSurface fixedSurface = new RasterSurface(SIZE, SIZE);
+        final long floatRender =
+            render(renderer, document, false, floatSurface, count);
+        final long fixedRender =
+            render(renderer, document, true, fixedSurface, count);
+        report.append("Render: float ").append(floatRender).append(
+            " ms; fixed ").append(fixedRender).append(" ms; ").append(
+            formatSpeedup(floatRender, fixedRender)).append('\n');
+
+        // compare the renderings
+        final int[] floatPixels = floatSurface.getPixels();
+        int painted = 0;
+        for (int i = 0; i < floatPixels.length; i++) {
+            if (floatPixels[i] != 0xFFFFFFFF) {
+                painted++;
+            }
+        }
+        final int differing = floatSurface.countDifferences(fixedSurface,
+            renderer.isAntiAliased() ? Rasterizer.EDGE_TOLERANCE : 0);
+        report.append("Pixels: ").append(painted).append(" painted, ")
+            .append(differing).append(" differ\n");
+        if (differing * 100 > painted) {
+            report.append("MISMATCH: more than 1% of pixels differ\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Checks the functions of FixedMath and FixedMatrix against their float
+     * counterparts, reporting the largest errors.
+     */
+    private static void checkMath(Random random, StringBuffer report) {
+        double sinError = 0;
+        double atanError = 0;
+        double sqrtError = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            final float angle = (random.nextFloat() - 0.5f) * 20;
+            final int fixedAngle = FixedMath.fromFloat(angle);
+            sinError = Math.max(sinError, Math.abs(Math.sin(angle)
+                - FixedMath.toFloat(FixedMath.sin(fixedAngle))));
+            sinError = Math.max(sinError, Math.abs(Math.cos(angle)
+                - FixedMath.toFloat(FixedMath.cos(fixedAngle))));
+
+            final float x = (random.nextFloat() - 0.5f) * 1000;
+            final float y = (random.nextFloat() - 0.5f) * 1000;
+            final double atan = FloatMath.atan2(y, x);
+            double error = Math.abs(atan - FixedMath.toFloat(FixedMath.atan2(
+                FixedMath.fromFloat(y), FixedMath.fromFloat(x))));
+            if (error > Math.PI) {
+                error = 2 * Math.PI - error;
+            }
+            atanError = Math.max(atanError, error);
+
+            final float square = random.nextFloat() * 30000;
+            sqrtError = Math.max(sqrtError, Math.abs(Math.sqrt(square)
+                - FixedMath.toFloat(FixedMath.sqrt(FixedMath
+                    .fromFloat(square)))));
+        }
+
+        double transformError = 0;
+        double inverseError = 0;
+        final Matrix matrix = new Matrix();
+        final FixedMatrix fixedMatrix = new FixedMatrix();
+        for (int i = 0; i < SAMPLES; i++) {
+            final float degrees = random.nextFloat() * 360;
+            final float scale = 0.25f + random.nextFloat() * 4;
+            final float tx = (random.nextFloat() - 0.5f) * 1000;
+            final float ty = (random.nextFloat() - 0.5f) * 1000;
+            matrix.setIdentity().translate(tx, ty).rotate(degrees).scale(
+                scale, scale);
+            fixedMatrix.setIdentity().translate(FixedMath.fromFloat(tx),
+                FixedMath.fromFloat(ty)).rotate(
+                FixedMath.fromFloat(degrees * FloatMath.PI / 180)).scale(
+                FixedMath.fromFloat(scale), FixedMath.fromFloat(scale));
+            final float x = (random.nextFloat() - 0.5f) * 200;
+            final float y = (random.nextFloat() - 0.5f) * 200;
+            final int fx = FixedMath.fromFloat(x);
+            final int fy = FixedMath.fromFloat(y);
+            transformError = Math.max(transformError, FloatMath.hypot(
+                matrix.transformX(x, y)
+                    - FixedMath.toFloat(fixedMatrix.transformX(fx, fy)),
+                matrix.transformY(x, y)
+                    - FixedMath.toFloat(fixedMatrix.transformY(fx, fy))));
+
+            // a point transformed and transformed back should not move
+            final int px = fixedMatrix.transformX(fx, fy);
+            final int py = fixedMatrix.transformY(fx, fy);
+            if (fixedMatrix.invert()) {
+                inverseError = Math.max(inverseError, FloatMath.hypot(x
+                    - FixedMath.toFloat(fixedMatrix.transformX(px, py)), y
+                    - FixedMath.toFloat(fixedMatrix.transformY(px, py))));
+            }
+        }
+        report.append("Max error: sin/cos ").append((float) sinError).append(
+            ", atan2 ").append((float) atanError).append(", sqrt ").append(
+            (float) sqrtError).append(", transform ").append(
+            (float) transformError).append(", inverse ").append(
+            (float) inverseError).append('\n');
+        if (sinError > 0.001 || atanError > 0.001 || sqrtError > 0.001
+            || transformError > 0.05 || inverseError > 0.05) {
+            report.append("MISMATCH: fixed-point error too large\n");
+        }
+    }
+
+    /**
+     * Creates a drawing of groups of shapes, each group rotated and scaled
+     * about the center of the drawing.
+     */
+    private static SVGDocument createDrawing(int shapeCount, Random random) {
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        document.setAttribute(root, "width", Integer.toString(SIZE));
+        document.setAttribute(root, "height", Integer.toString(SIZE));
+        int group = SVGDocument.NONE;
+        final StringBuffer d = new StringBuffer();
+        for (int i = 0; i < shapeCount; i++) {
+            if (i % GROUP_SIZE == 0) {
+                group = document.createElement(root, "g");
+                document.setAttribute(group, "transform", "rotate("
+                    + random.nextInt(360) + " 128 128) translate(128 128) "
+                    + "scale(0." + (5 + random.nextInt(5))
+                    + ") translate(-128 -128)");
+                document.setAttribute(group, "stroke", "#"
+                    + Integer.toHexString(0x1000000 | random.nextInt())
+                        .substring(1));
+                document.setAttribute(group, "stroke-width", Integer
+                    .toString(1 + random.nextInt(4)));
+            }
+            final int x = random.nextInt(SIZE);
+            final int y = random.nextInt(SIZE);
+            final String fill = "#"
+                + Integer.toHexString(0x1000000 | random.nextInt())
+                    .substring(1);
+            final int element;
+            switch (i % 4) {
+            case 0:
+                element = document.createElement(group, "circle");
+                document.setAttribute(element, "cx", Integer.toString(x));
+                document.setAttribute(element, "cy", Integer.toString(y));
+                document.setAttribute(element, "r", Integer.toString(5
+                    + random.nextInt(30)));
+                break;
+            case 1:
+                element = document.createElement(group, "rect");
+                document.setAttribute(element, "x", Integer.toString(x));
+                document.setAttribute(element, "y", Integer.toString(y));
+                document.setAttribute(element, "width", Integer.toString(10
+                    + random.nextInt(60)));
+                document.setAttribute(element, "height", Integer.toString(10
+                    + random.nextInt(60)));
+                document.setAttribute(element, "rx", "6");
+                break;
+            default:
+                d.setLength(0);
+                d.append('M').append(x).append(' ').append(y);
+                d.append(" c 20 -30 40 30 60 0");
+                d.append(" q 20 20 0 40");
+                d.append(" a 30 20 ").append(random.nextInt(90)).append(
+                    " 0 1 -40 -10");
+                d.append(" l -10 -20 z");
+                element = document.createElement(group, "path");
+                document.setAttribute(element, "d", d.toString());
+                document.setAttribute(element, "fill-rule", "evenodd");
+                break;
+            }
+            document.setAttribute(element, "fill", fill);
+        }
+        return document;
+    }
+
+    /**
+     * Renders the drawing several times with one backend.
+     *
+     * @return the time taken, in milliseconds
+     */
+    private static long render(DocumentRenderer renderer,
+            SVGDocument document, boolean fixedPoint, RasterSurface target,
+            int runs) {
+        renderer.setFixedPoint(fixedPoint);
+        final Matrix base = new Matrix();
+        System.gc();
+        final long start = System.currentTimeMillis();
+        for (int run = 0; run < runs; run++) {
+            target.clear(0xFFFFFFFF);
+            renderer.render(document, base, target, null);
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Formats the ratio of two times as a speedup.
+     *
+     * @return a string such as "speedup 1.25x"; never returns null
+     */
+    private static String formatSpeedup(long floatMillis, long fixedMillis) {
+        final long percent = floatMillis * 100 / Math.max(1, fixedMillis);
+        final long fraction = percent % 100;
+        return "speedup " + (percent / 100) + "."
+            + ((fraction < 10) ? "0" : "") + fraction + "x";
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * FixedPolygonBuffer.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * A growable buffer of polygon contours in device coordinates of 16.16 fixed
+ * point (see {@link FixedMath}); the fixed-point counterpart of
+ * {@link PolygonBuffer}, produced by {@link FixedPathFlattener} and consumed
+ * by {@link Rasterizer#fill(FixedPolygonBuffer, int, int, RasterSurface)}.
+ * Each contour is a sequence of points; a contour is implicitly closed when
+ * it is filled, and is explicitly marked as closed or open for stroking.
+ * <p>
+ * Instances of this class are not thread-safe; they are meant to be reused
+ * by invoking {@link #reset()}.
+ */
+public class FixedPolygonBuffer {
+
+    private int[] xs;
+    private int[] ys;
+    private int pointCount;
+    private int[] contourEnds;
+    private boolean[] contourClosed;
+    private int contourCount;
+    private int contourStart;
+
+    /**
+     * Creates a new, empty instance of <code>FixedPolygonBuffer</code>.
+     */
+    public FixedPolygonBuffer() {
+        this.xs = new int[128];
+        this.ys = new int[128];
+        this.contourEnds = new int[8];
+        this.contourClosed = new boolean[8];
+    }
+
+    /**
+     * Removes all contours from this buffer.
+     */
+    public void reset() {
+        this.pointCount = 0;
+        this.contourCount = 0;
+        this.contourStart = 0;
+    }
+
+    /**
+     * Starts a new contour. Any contour in progress is ended as an open
+     * contour.
+     * 
+     * @param x the x coordinate of the first point of the contour, in fixed
+     * point
+     * @param y the y coordinate of the first point of the contour, in fixed
+     * point
+     */
+    public void moveTo(int x, int y) {
+        this.endContour(false);
+        this.addPoint(x, y);
+    }
+
+    /**
+     * Adds a point to the contour in progress. If no contour is in progress
+     * then one is started.
+     * 
+     * @param x the x coordinate of the point, in fixed point
+     * @param y the y coordinate of the point, in fixed point
+     */
+    public void lineTo(int x, int y) {
+        final int last = this.pointCount - 1;
+        if (last >= this.contourStart && this.xs[last] == x
+            && this.ys[last] == y) {
+            return; // skip degenerate segments
+        }
+        this.addPoint(x, y);
+    }
+
+    /**
+     * Ends the contour in progress as a closed contour.
+     */
+    public void close() {
+        this.endContour(true);
+    }
+
+    /**
+     * Ends the contour in progress, if any.
+     * 
+     * @param closed true if the contour is closed, false if it is open
+     */
+    public void endContour(boolean closed) {
+        if (this.pointCount == this.contourStart) {
+            return;
+        }
+        if (this.contourCount == this.contourEnds.length) {
+            final int capacity = this.contourCount * 2;
+            final int[] ends = new int[capacity];
+            System.arraycopy(this.contourEnds, 0, ends, 0, this.contourCount);
+            this.contourEnds = ends;
+            final boolean[] flags = new boolean[capacity];
+            System.arraycopy(this.contourClosed, 0, flags, 0,
+                this.contourCount);
+            this.contourClosed = flags;
+        }
+        this.contourEnds[this.contourCount] = this.pointCount;
+        this.contourClosed[this.contourCount] = closed;
+        this.contourCount++;
+        this.contourStart = this.pointCount;
+    }
+
+    /**
+     * Returns the number of completed contours in this buffer.
+     * 
+     * @return the number of contours
+     */
+    public int getContourCount() {
+        return this.contourCount;
+    }
+
+    /**
+     * Returns the index of the first point of a contour.
+     * 
+     * @param contour the index of the contour
+     * @return the index of the contour's first point
+     */
+    public int getContourStart(int contour) {
+        return (contour == 0) ? 0 : this.contourEnds[contour - 1];
+    }
+
+    /**
+     * Returns the index after the last point of a contour.
+     * 
+     * @param contour the index of the contour
+     * @return the index after the contour's last point
+     */
+    public int getContourEnd(int contour) {
+        return this.contourEnds[contour];
+    }
+
+    /**
+     * Returns whether or not a contour is closed.
+     * 
+     * @param contour the index of the contour
+     * @return true if the contour was ended by {@link #close()}, false
+     * otherwise
+     */
+    public boolean isContourClosed(int contour) {
+        return this.contourClosed[contour];
+    }
+
+    /**
+     * Returns the total number of points in this buffer.
+     * 
+     * @return the number of points
+     */
+    public int getPointCount() {
+        return this.pointCount;
+    }
+
+    /**
+     * Returns the x coordinates of the points; only the first
+     * {@link #getPointCount()} elements are valid.
+     * 
+     * @return the array of x coordinates, which is owned by this object
+     */
+    public int[] getXs() {
+        return this.xs;
+    }
+
+    /**
+     * Returns the y coordinates of the points; only the first
+     * {@link #getPointCount()} elements are valid.
+     * 
+     * @return the array of y coordinates, which is owned by this object
+     */
+    public int[] getYs() {
+        return this.ys;
+    }
+
+    /**
+     * Computes the bounding box of the points in this buffer.
+     * 
+     * @param bounds the array into which to store the bounding box as
+     * {minX, minY, maxX, maxY}, converted to floats
+     * @return true if this buffer has any points, false if it is empty (in
+     * which case bounds is not modified)
+     */
+    public boolean getBounds(float[] bounds) {
+        final int count = this.pointCount;
+        if (count == 0) {
+            return false;
+        }
+        int minX = this.xs[0];
+        int minY = this.ys[0];
+        int maxX = minX;
+        int maxY = minY;
+        for (int i = 1; i < count; i++) {
+            final int x = this.xs[i];
+            final int y = this.ys[i];
+            if (x < minX) {
+                minX = x;
+            } else if (x > maxX) {
+                maxX = x;
+            }
+            if (y < minY) {
+                minY = y;
+            } else if (y > maxY) {
+                maxY = y;
+            }
+        }
+        bounds[0] = FixedMath.toFloat(minX);
+        bounds[1] = FixedMath.toFloat(minY);
+        bounds[2] = FixedMath.toFloat(maxX);
+        bounds[3] = FixedMath.toFloat(maxY);
+        return true;
+    }
+
+    /**
+     * Appends a point.
+     */
+    private void addPoint(int x, int y) {
+        if (this.pointCount == this.xs.length) {
+            final int capacity = this.pointCount * 2;
+            final int[] xs = new int[capacity];
+            System.arraycopy(this.xs, 0, xs, 0, this.pointCount);
+            this.xs = xs;
+            final int[] ys = new int[capacity];
+            System.arraycopy(this.ys, 0, ys, 0, this.pointCount);
+            this.ys = ys;
+        }
+        this.xs[this.pointCount] = x;
+        this.ys[this.pointCount] = y;
+        this.pointCount++;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * FloatMath.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Math functions that are missing from CLDC's java.lang.Math.
+ */
+public class FloatMath {
+
+    /**
+     * The constant pi, as a float.
+     */
+    public static final float PI = (float) Math.PI;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private FloatMath() {
+    }
+
+    /**
+     * Computes the angle of the point (x, y) from the positive x axis, like
+     * java.lang.Math.atan2() in Java SE.
+     * 
+     * @param y the y coordinate of the point
+     * @param x the x coordinate of the point
+     * @return the angle, in radians, between -pi and pi
+     */
+    public static double atan2(double y, double x) {
+        if (x == 0 && y == 0) {
+            return 0;
+        }
+
+        // polynomial approximation (max error about 0.0015 radians)...
+        final double ax = (x < 0) ? -x : x;
+        final double ay = (y < 0) ? -y : y;
+        final boolean steep = (ay > ax);
+        final double t = steep ? ax / ay : ay / ax;
+        double angle = (Math.PI / 4) * t - t * (t - 1) * (0.2447 + 0.0663 * t);
+        if (steep) {
+            angle = Math.PI / 2 - angle;
+        }
+        if (x < 0) {
+            angle = Math.PI - angle;
+        }
+        if (y < 0) {
+            angle = -angle;
+        }
+
+        // ...refined by Newton's method on y*cos(a) - x*sin(a) = 0
+        for (int i = 0; i < 2; i++) {
+            final double cos = Math.cos(angle);
+            final double sin = Math.sin(angle);
+            angle += (y * cos - x * sin) / (x * cos + y * sin);
+        }
+        return angle;
+    }
+
+    /**
+     * Rounds a float to the nearest int, like java.lang.Math.round() in Java
+     * SE.
+     * 
+     * @param value the value to round
+     * @return the nearest int to value
+     */
+    public static int round(float value) {
+        return (int) Math.floor(value + 0.5f);
+    }
+
+    /**
+     * Computes the length of the vector (x, y).
+     * 
+     * @return the length of the vector
+     */
+    public static float hypot(float x, float y) {
+        return (float) Math.sqrt(x * x + y * y);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * IconBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import denver.svgeditor.svg.SVGParseException;
+
+/**
+ * Times parsing and rendering of real-world drawings: the SVG sources of the
+ * application's icons, as rasterized by {@link IconRasterizer}. The drawings
+ * are read into memory before timing, so the times exclude the cost of
+ * reading the resources.
+ */
+public class IconBenchmark {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private IconBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param paths the paths of the SVG resources to rasterize
+     * @param size the width and height of the bitmaps, in pixels
+     * @param runs the number of times to rasterize each drawing
+     * @return a multi-line report of the results; never returns null
+     * @throws NullPointerException if paths==null
+     */
+    public static String run(String[] paths, int size, int runs) {
+        final StringBuffer report = new StringBuffer();
+        report.append(size).append('x').append(size).append(" pixels, ")
+            .append(runs).append(" runs each\n");
+        final IconRasterizer rasterizer = new IconRasterizer();
+        final int count = Math.max(1, runs);
+        for (int i = 0; i < paths.length; i++) {
+            final String path = paths[i];
+            report.append(path).append(": ");
+            try {
+                final byte[] source = readResource(path);
+                long parseMillis = 0;
+                long renderMillis = 0;
+                for (int run = 0; run < runs; run++) {
+                    rasterizer.rasterize(new ByteArrayInputStream(source),
+                        size);
+                    parseMillis += rasterizer.getParseMillis();
+                    renderMillis += rasterizer.getRenderMillis();
+                }
+                report.append(source.length).append(" bytes, parse ").append(
+                    parseMillis / count).append(" ms, render ").append(
+                    renderMillis / count).append(" ms\n");
+            } catch (final IOException e) {
+                report.append("read failed: ").append(e.getMessage()).append(
+                    '\n');
+            } catch (final SVGParseException e) {
+                report.append("parse failed: ").append(e.getMessage())
+                    .append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Reads the whole of a resource into memory.
+     *
+     * @param path the path of the resource
+     * @return the contents of the resource; never returns null
+     * @throws IOException if the resource does not exist or reading it fails
+     */
+    private static byte[] readResource(String path) throws IOException {
+        final InputStream in = IconBenchmark.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IOException("resource not found: " + path);
+        }
+        try {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
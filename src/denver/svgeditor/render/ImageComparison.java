@@ -0,0 +1,137 @@
+/*
+ * ImageComparison.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Compares a rendering with its golden image pixel by pixel, allowing each
+ * channel to differ by a tolerance for the rounding of float arithmetic on
+ * other devices. The colors of fully transparent pixels are ignored. This is
+ * shared by the diagnostic run on a device and the check run by a build, so
+ * that both judge a rendering the same way.
+ */
+public class ImageComparison {
+
+    /**
+     * The largest difference allowed in each channel of a pixel by default.
+     */
+    public static final int DEFAULT_TOLERANCE = 2;
+
+    private final int differingPixels;
+    private final int maxDifference;
+
+    /**
+     * Creates a new instance of <code>ImageComparison</code> by comparing two
+     * images of the same size.
+     *
+     * @param expected the ARGB pixels of the golden image
+     * @param actual the ARGB pixels of the rendering, in the same order
+     * @param tolerance the largest difference allowed in each channel
+     * @throws NullPointerException if expected==null or actual==null
+     * @throws IllegalArgumentException if the images differ in length
+     */
+    public ImageComparison(int[] expected, int[] actual, int tolerance) {
+        if (expected.length != actual.length) {
+            throw new IllegalArgumentException("lengths differ: "
+                + expected.length + " and " + actual.length);
+        }
+        int differing = 0;
+        int maxDifference = 0;
+        for (int i = 0; i < expected.length; i++) {
+            final int difference = difference(expected[i], actual[i]);
+            if (difference > tolerance) {
+                differing++;
+            }
+            maxDifference = Math.max(maxDifference, difference);
+        }
+        this.differingPixels = differing;
+        this.maxDifference = maxDifference;
+    }
+
+    /**
+     * Returns the number of pixels that differ by more than the tolerance.
+     *
+     * @return the number of differing pixels; 0 if the images match
+     */
+    public int getDifferingPixels() {
+        return this.differingPixels;
+    }
+
+    /**
+     * Returns the largest difference in any channel of any pixel.
+     *
+     * @return the largest difference, between 0 and 255
+     */
+    public int getMaxDifference() {
+        return this.maxDifference;
+    }
+
+    /**
+     * Returns whether every pixel is within the tolerance.
+     *
+     * @return true if the images match
+     */
+    public boolean matches() {
+        return (this.differingPixels == 0);
+    }
+
+    /**
+     * Appends the result to a report: "matches, max difference N" or
+     * "MISMATCH: N pixels differ, max difference N".
+     *
+     * @param report the buffer to which to append the result
+     * @return the buffer
+     * @throws NullPointerException if report==null
+     */
+    public StringBuffer appendTo(StringBuffer report) {
+        if (this.differingPixels == 0) {
+            report.append("matches");
+        } else {
+            report.append("MISMATCH: ").append(this.differingPixels).append(
+                " pixels differ");
+        }
+        return report.append(", max difference ").append(this.maxDifference);
+    }
+
+    /**
+     * Returns the largest difference between the channels of two pixels;
+     * the colors of fully transparent pixels are ignored.
+     *
+     * @param expected the ARGB pixel of the golden image
+     * @param actual the ARGB pixel of the rendering
+     * @return the largest difference, between 0 and 255
+     */
+    public static int difference(int expected, int actual) {
+        if ((expected >>> 24) == 0 && (actual >>> 24) == 0) {
+            return 0;
+        }
+        int max = 0;
+        for (int shift = 0; shift < 32; shift += 8) {
+            final int channel =
+                Math.abs(((expected >>> shift) & 0xFF)
+                    - ((actual >>> shift) & 0xFF));
+            max = Math.max(max, channel);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * ImageSource.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Supplies the decoded pixels of the raster images referenced by
+ * <code>image</code> elements. {@link DocumentRenderer} asks for each image
+ * at the size, in device pixels, at which it covers the target, so that an
+ * implementation may decode large images at a reduced size and keep the
+ * results for the next frame.
+ */
+public interface ImageSource {
+
+    /**
+     * Returns the pixels of an image.
+     *
+     * @param href the value of the element's xlink:href attribute, such as a
+     * <code>data:</code> URI
+     * @param width the width, in pixels, at which the image will be drawn;
+     * always at least 1
+     * @param height the height, in pixels, at which the image will be drawn;
+     * always at least 1
+     * @return the pixels of the image, which may be of any size and are
+     * stretched to the image's box; may be null if the image is not
+     * available. The caller must not modify the returned surface.
+     */
+    RasterSurface getImage(String href, int width, int height);
+}
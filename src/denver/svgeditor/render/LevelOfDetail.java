@@ -0,0 +1,235 @@
+/*
+ * LevelOfDetail.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Decides, from the measured time of the frames rendered, whether the next
+ * frame is to be rendered at draft quality.
+ * <p>
+ * Frames are rendered at full quality until a frame rendered at full quality
+ * while the view is being panned or zoomed takes longer than the frame
+ * budget; the frames after it are rendered at draft quality for as long as
+ * the gesture goes on. A gesture is taken to have ended once the view has
+ * not changed for the settle delay, after which frames are rendered at full
+ * quality again. Views that render within the budget are thus never drafted,
+ * however fast they are panned.
+ * <p>
+ * This class is not thread-safe; the times passed to it are those of
+ * {@link System#currentTimeMillis()}.
+ *
+ * @see TileRenderer#setDraft(boolean)
+ */
+public class LevelOfDetail {
+
+    /**
+     * The default time, in milliseconds, beyond which a frame rendered at
+     * full quality during a gesture switches to draft quality.
+     */
+    public static final long DEFAULT_FRAME_BUDGET = 50;
+
+    /**
+     * The default time, in milliseconds, after the last change to the view
+     * at which a gesture is taken to have ended.
+     */
+    public static final long DEFAULT_SETTLE_DELAY = 250;
+
+    private long frameBudget;
+    private long settleDelay;
+    private long lastViewChange;
+    private boolean changed;
+    private boolean drafting;
+
+    // statistics
+    private int draftFrames;
+    private int fullFrames;
+    private int switches;
+    private long lastDraftMillis;
+    private long lastFullMillis;
+
+    /**
+     * Creates a new instance of <code>LevelOfDetail</code> with the default
+     * frame budget and settle delay.
+     */
+    public LevelOfDetail() {
+        this.frameBudget = DEFAULT_FRAME_BUDGET;
+        this.settleDelay = DEFAULT_SETTLE_DELAY;
+    }
+
+    /**
+     * Returns the time beyond which a frame switches to draft quality.
+     *
+     * @return the frame budget, in milliseconds
+     */
+    public long getFrameBudget() {
+        return this.frameBudget;
+    }
+
+    /**
+     * Sets the time beyond which a frame switches to draft quality.
+     *
+     * @param frameBudget the frame budget, in milliseconds
+     * @throws IllegalArgumentException if frameBudget is negative
+     */
+    public void setFrameBudget(long frameBudget) {
+        if (frameBudget < 0) {
+            throw new IllegalArgumentException("invalid frameBudget: "
+                + frameBudget);
+        }
+        this.frameBudget = frameBudget;
+    }
+
+    /**
+     * Returns the time after the last change to the view at which a gesture
+     * is taken to have ended.
+     *
+     * @return the settle delay, in milliseconds
+     */
+    public long getSettleDelay() {
+        return this.settleDelay;
+    }
+
+    /**
+     * Sets the time after the last change to the view at which a gesture is
+     * taken to have ended.
+     *
+     * @param settleDelay the settle delay, in milliseconds
+     * @throws IllegalArgumentException if settleDelay is negative
+     */
+    public void setSettleDelay(long settleDelay) {
+        if (settleDelay < 0) {
+            throw new IllegalArgumentException("invalid settleDelay: "
+                + settleDelay);
+        }
+        this.settleDelay = settleDelay;
+    }
+
+    /**
+     * Reports that the view was panned or zoomed.
+     *
+     * @param now the current time, in milliseconds
+     */
+    public void viewChanged(long now) {
+        this.lastViewChange = now;
+        this.changed = true;
+    }
+
+    /**
+     * Returns whether the view is being panned or zoomed.
+     *
+     * @param now the current time, in milliseconds
+     * @return true if the view changed less than the settle delay ago
+     */
+    public boolean isGestureActive(long now) {
+        return this.changed && now - this.lastViewChange < this.settleDelay;
+    }
+
+    /**
+     * Returns the time left until the current gesture is taken to have
+     * ended.
+     *
+     * @param now the current time, in milliseconds
+     * @return the time, in milliseconds, or 0 if no gesture is active
+     */
+    public long getSettleTime(long now) {
+        return this.isGestureActive(now)
+            ? this.lastViewChange + this.settleDelay - now : 0;
+    }
+
+    /**
+     * Returns whether the next frame is to be rendered at draft quality.
+     *
+     * @param now the current time, in milliseconds
+     * @return true if a frame of the current gesture exceeded the frame
+     * budget at full quality and the gesture has not ended
+     */
+    public boolean isDraft(long now) {
+        if (this.drafting && !this.isGestureActive(now)) {
+            this.drafting = false;
+            this.switches++;
+        }
+        return this.drafting;
+    }
+
+    /**
+     * Reports the time taken by a frame, switching to draft quality if it was
+     * rendered at full quality during a gesture and exceeded the budget.
+     *
+     * @param millis the time taken to render the frame, in milliseconds
+     * @param draft true if the frame was rendered at draft quality
+     * @param now the current time, in milliseconds
+     */
+    public void frameRendered(long millis, boolean draft, long now) {
+        if (draft) {
+            this.draftFrames++;
+            this.lastDraftMillis = millis;
+            return;
+        }
+        this.fullFrames++;
+        this.lastFullMillis = millis;
+        if (!this.drafting && millis > this.frameBudget
+                && this.isGestureActive(now)) {
+            this.drafting = true;
+            this.switches++;
+        }
+    }
+
+    /**
+     * Returns the number of frames rendered at draft quality.
+     *
+     * @return the number of draft frames
+     */
+    public int getDraftFrames() {
+        return this.draftFrames;
+    }
+
+    /**
+     * Returns the number of frames rendered at full quality.
+     *
+     * @return the number of full quality frames
+     */
+    public int getFullFrames() {
+        return this.fullFrames;
+    }
+
+    /**
+     * Returns the number of times that the quality was switched.
+     *
+     * @return the number of switches to draft quality and back
+     */
+    public int getSwitches() {
+        return this.switches;
+    }
+
+    /**
+     * Returns a one-line summary of the frames reported.
+     *
+     * @return a summary such as "30 full (80 ms), 12 draft (20 ms), 2
+     * switches"; never returns null
+     */
+    public String getSummary() {
+        return this.fullFrames + " full (" + this.lastFullMillis + " ms), "
+            + this.draftFrames + " draft (" + this.lastDraftMillis
+            + " ms), " + this.switches + " switches";
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * Matrix.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * A 2D affine transformation matrix of floats. The matrix maps a point (x, y)
+ * to (a*x + c*y + e, b*x + d*y + f), matching the <code>matrix(a b c d e
+ * f)</code> form of the SVG transform attribute.
+ * <p>
+ * Instances of this class are mutable and are not thread-safe.
+ */
+public class Matrix {
+
+    /** The x scale component. */
+    public float a;
+
+    /** The y shear component. */
+    public float b;
+
+    /** The x shear component. */
+    public float c;
+
+    /** The y scale component. */
+    public float d;
+
+    /** The x translation component. */
+    public float e;
+
+    /** The y translation component. */
+    public float f;
+
+    /**
+     * Creates a new instance of <code>Matrix</code> set to the identity.
+     */
+    public Matrix() {
+        this.a = 1;
+        this.d = 1;
+    }
+
+    /**
+     * Creates a new instance of <code>Matrix</code> that is a copy of another.
+     * 
+     * @param other the matrix to copy
+     * @throws NullPointerException if other==null
+     */
+    public Matrix(Matrix other) {
+        this.set(other);
+    }
+
+    /**
+     * Sets this matrix to the identity.
+     * 
+     * @return this object
+     */
+    public Matrix setIdentity() {
+        return this.set(1, 0, 0, 1, 0, 0);
+    }
+
+    /**
+     * Sets the components of this matrix.
+     * 
+     * @return this object
+     */
+    public Matrix set(float a, float b, float c, float d, float e, float f) {
+        this.a = a;
+        this.b = b;
+        this.c = c;
+        this.d = d;
+        this.e = e;
+        this.f = f;
+        return this;
+    }
+
+    /**
+     * Sets this matrix to a copy of another.
+     * 
+     * @param other the matrix to copy
+     * @return this object
+     * @throws NullPointerException if other==null
+     */
+    public Matrix set(Matrix other) {
+        return this.set(other.a, other.b, other.c, other.d, other.e, other.f);
+    }
+
+    /**
+     * Returns whether or not this matrix is the identity.
+     * 
+     * @return true if this matrix is the identity, false otherwise
+     */
+    public boolean isIdentity() {
+        return (this.a == 1 && this.b == 0 && this.c == 0 && this.d == 1
+            && this.e == 0 && this.f == 0);
+    }
+
+    /**
+     * Post-multiplies this matrix by the matrix with the given components, so
+     * that the given transformation is applied to points before this one.
+     * This is how the transform of a child element is combined with the
+     * transform of its parent.
+     * 
+     * @return this object
+     */
+    public Matrix concatenate(float a, float b, float c, float d, float e,
+            float f) {
+        final float na = this.a * a + this.c * b;
+        final float nb = this.b * a + this.d * b;
+        final float nc = this.a * c + this.c * d;
+        final float nd = this.b * c + this.d * d;
+        final float ne = this.a * e + this.c * f + this.e;
+        final float nf = this.b * e + this.d * f + this.f;
+        return this.set(na, nb, nc, nd, ne, nf);
+    }
+
+    /**
+     * Post-multiplies this matrix by another.
+     * 
+     * @param m the matrix by which to multiply
+     * @return this object
+     * @see #concatenate(float, float, float, float, float, float)
+     */
+    public Matrix concatenate(Matrix m) {
+        return this.concatenate(m.a, m.b, m.c, m.d, m.e, m.f);
+    }
+
+    /**
+     * Pre-multiplies this matrix by the matrix with the given components, so
+     * that the given transformation is applied to points after this one.
+     * 
+     * @return this object
+     */
+    public Matrix preConcatenate(float a, float b, float c, float d, float e,
+            float f) {
+        final float na = a * this.a + c * this.b;
+        final float nb = b * this.a + d * this.b;
+        final float nc = a * this.c + c * this.d;
+        final float nd = b * this.c + d * this.d;
+        final float ne = a * this.e + c * this.f + e;
+        final float nf = b * this.e + d * this.f + f;
+        return this.set(na, nb, nc, nd, ne, nf);
+    }
+
+    /**
+     * Applies a translation before this transformation.
+     * 
+     * @return this object
+     */
+    public Matrix translate(float tx, float ty) {
+        return this.concatenate(1, 0, 0, 1, tx, ty);
+    }
+
+    /**
+     * Applies a scale before this transformation.
+     * 
+     * @return this object
+     */
+    public Matrix scale(float sx, float sy) {
+        return this.concatenate(sx, 0, 0, sy, 0, 0);
+    }
+
+    /**
+     * Applies a rotation before this transformation.
+     * 
+     * @param degrees the angle of rotation, in degrees
+     * @return this object
+     */
+    public Matrix rotate(float degrees) {
+        final double radians = Math.toRadians(degrees);
+        final float cos = (float) Math.cos(radians);
+        final float sin = (float) Math.sin(radians);
+        return this.concatenate(cos, sin, -sin, cos, 0, 0);
+    }
+
+    /**
+     * Inverts this matrix.
+     * 
+     * @return true if this matrix was inverted, false if it is singular (in
+     * which case it is left unchanged)
+     */
+    public boolean invert() {
+        final float det = this.a * this.d - this.b * this.c;
+        if (det == 0) {
+            return false;
+        }
+        final float ia = this.d / det;
+        final float ib = -this.b / det;
+        final float ic = -this.c / det;
+        final float id = this.a / det;
+        final float ie = -(ia * this.e + ic * this.f);
+        final float iff = -(ib * this.e + id * this.f);
+        this.set(ia, ib, ic, id, ie, iff);
+        return true;
+    }
+
+    /**
+     * Transforms the x coordinate of a point.
+     * 
+     * @return the transformed x coordinate
+     */
+    public float transformX(float x, float y) {
+        return this.a * x + this.c * y + this.e;
+    }
+
+    /**
+     * Transforms the y coordinate of a point.
+     * 
+     * @return the transformed y coordinate
+     */
+    public float transformY(float x, float y) {
+        return this.b * x + this.d * y + this.f;
+    }
+
+    /**
+     * Returns the average factor by which this transformation scales lengths,
+     * which is used to transform stroke widths and flattening tolerances.
+     * 
+     * @return the square root of the absolute value of the determinant
+     */
+    public float getScale() {
+        final float det = this.a * this.d - this.b * this.c;
+        return (float) Math.sqrt((det < 0) ? -det : det);
+    }
+
+    /**
+     * Returns a human-readable representation of this matrix.
+     * 
+     * @return a string of the form "matrix(a b c d e f)"; never returns null
+     */
+    public String toString() {
+        return "matrix(" + this.a + " " + this.b + " " + this.c + " "
+            + this.d + " " + this.e + " " + this.f + ")";
+    }
+}
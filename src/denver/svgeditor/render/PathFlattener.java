@@ -0,0 +1,412 @@
+/*
+ * PathFlattener.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.svg.PathData;
+
+/**
+ * Converts path data into polygons in device coordinates by transforming it
+ * and approximating its curves and arcs with line segments. The number of
+ * segments used for each curve is chosen so that the approximation deviates
+ * from the true curve by no more than the tolerance, measured in device
+ * pixels.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class PathFlattener {
+
+    /**
+     * The default tolerance, in device pixels.
+     */
+    public static final float DEFAULT_TOLERANCE = 0.25f;
+
+    /**
+     * The maximum number of segments used to approximate one curve.
+     */
+    public static final int MAX_SEGMENTS = 256;
+
+    private float tolerance;
+    private Matrix matrix;
+    private PolygonBuffer out;
+
+    /**
+     * Creates a new instance of <code>PathFlattener</code> with the default
+     * tolerance.
+     */
+    public PathFlattener() {
+        this.tolerance = DEFAULT_TOLERANCE;
+    }
+
+    /**
+     * Returns the maximum deviation of the flattened curves from the true
+     * curves.
+     * 
+     * @return the tolerance, in device pixels
+     */
+    public float getTolerance() {
+        return this.tolerance;
+    }
+
+    /**
+     * Sets the maximum deviation of the flattened curves from the true
+     * curves.
+     * 
+     * @param tolerance the tolerance, in device pixels
+     * @throws IllegalArgumentException if tolerance is not positive
+     */
+    public void setTolerance(float tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("invalid tolerance: "
+                + tolerance);
+        }
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Flattens all of the path data in a PathData.
+     * 
+     * @param path the path data to flatten
+     * @param matrix the transformation from path coordinates to device
+     * coordinates
+     * @param out the buffer to which to append the contours
+     * @throws NullPointerException if any argument is null
+     * @see #flatten(byte[], int, int, float[], int, Matrix, PolygonBuffer)
+     */
+    public void flatten(PathData path, Matrix matrix, PolygonBuffer out) {
+        this.flatten(path.getCommands(), 0, path.getCommandCount(), path
+            .getCoords(), 0, matrix, out);
+    }
+
+    /**
+     * Flattens path data.
+     * 
+     * @param commands the array containing the path commands
+     * @param commandOffset the index of the first command
+     * @param commandCount the number of commands
+     * @param coords the array containing the coordinates of the commands
+     * @param coordOffset the index of the first coordinate
+     * @param matrix the transformation from path coordinates to device
+     * coordinates
+     * @param out the buffer to which to append the contours; the last contour
+     * is ended before this method returns
+     * @throws NullPointerException if any object argument is null
+     */
+    public void flatten(byte[] commands, int commandOffset, int commandCount,
+            float[] coords, int coordOffset, Matrix matrix, PolygonBuffer out) {
+        this.matrix = matrix;
+        this.out = out;
+
+        float cx = 0; // current point
+        float cy = 0;
+        float sx = 0; // start of the current subpath
+        float sy = 0;
+        float lx = 0; // last control point, for S and T
+        float ly = 0;
+        int last = 0;
+        boolean needMove = true;
+        int c = coordOffset;
+
+        final int end = commandOffset + commandCount;
+        for (int i = commandOffset; i < end; i++) {
+            final int command = commands[i];
+            final boolean relative = PathData.isRelative(command);
+            final int upper = relative ? command - ('a' - 'A') : command;
+            final float bx = relative ? cx : 0;
+            final float by = relative ? cy : 0;
+
+            if (upper == 'M') {
+                cx = bx + coords[c++];
+                cy = by + coords[c++];
+                sx = cx;
+                sy = cy;
+                this.moveTo(cx, cy);
+                needMove = false;
+                last = upper;
+                continue;
+            } else if (upper == 'Z') {
+                out.close();
+                cx = sx;
+                cy = sy;
+                needMove = true;
+                last = upper;
+                continue;
+            }
+
+            if (needMove) {
+                this.moveTo(cx, cy);
+                needMove = false;
+            }
+
+            switch (upper) {
+            case 'L':
+                cx = bx + coords[c++];
+                cy = by + coords[c++];
+                this.lineTo(cx, cy);
+                break;
+            case 'H':
+                cx = bx + coords[c++];
+                this.lineTo(cx, cy);
+                break;
+            case 'V':
+                cy = by + coords[c++];
+                this.lineTo(cx, cy);
+                break;
+            case 'C':
+            case 'S': {
+                final float x1;
+                final float y1;
+                if (upper == 'C') {
+                    x1 = bx + coords[c++];
+                    y1 = by + coords[c++];
+                } else if (last == 'C' || last == 'S') {
+                    x1 = 2 * cx - lx;
+                    y1 = 2 * cy - ly;
+                } else {
+                    x1 = cx;
+                    y1 = cy;
+                }
+                lx = bx + coords[c++];
+                ly = by + coords[c++];
+                final float x = bx + coords[c++];
+                final float y = by + coords[c++];
+                this.cubicTo(cx, cy, x1, y1, lx, ly, x, y);
+                cx = x;
+                cy = y;
+                break;
+            }
+            case 'Q':
+            case 'T': {
+                if (upper == 'Q') {
+                    lx = bx + coords[c++];
+                    ly = by + coords[c++];
+                } else if (last == 'Q' || last == 'T') {
+                    lx = 2 * cx - lx;
+                    ly = 2 * cy - ly;
+                } else {
+                    lx = cx;
+                    ly = cy;
+                }
+                final float x = bx + coords[c++];
+                final float y = by + coords[c++];
+                this.quadTo(cx, cy, lx, ly, x, y);
+                cx = x;
+                cy = y;
+                break;
+            }
+            case 'A': {
+                final float rx = coords[c++];
+                final float ry = coords[c++];
+                final float angle = coords[c++];
+                final boolean large = (coords[c++] != 0);
+                final boolean sweep = (coords[c++] != 0);
+                final float x = bx + coords[c++];
+                final float y = by + coords[c++];
+                this.arcTo(cx, cy, rx, ry, angle, large, sweep, x, y);
+                cx = x;
+                cy = y;
+                break;
+            }
+            default:
+                break; // PathParser never produces anything else
+            }
+            last = upper;
+        }
+        out.endContour(false);
+        this.matrix = null;
+        this.out = null;
+    }
+
+    /**
+     * Starts a new contour at a point in path coordinates.
+     */
+    private void moveTo(float x, float y) {
+        final Matrix m = this.matrix;
+        this.out.moveTo(m.transformX(x, y), m.transformY(x, y));
+    }
+
+    /**
+     * Adds a point in path coordinates to the current contour.
+     */
+    private void lineTo(float x, float y) {
+        final Matrix m = this.matrix;
+        this.out.lineTo(m.transformX(x, y), m.transformY(x, y));
+    }
+
+    /**
+     * Flattens a cubic Bezier curve. The curve is transformed to device
+     * coordinates first, which is exact for affine transformations, so that
+     * the number of segments reflects its size on the device.
+     */
+    private void cubicTo(float x0, float y0, float x1, float y1, float x2,
+            float y2, float x3, float y3) {
+        final Matrix m = this.matrix;
+        final float p0x = m.transformX(x0, y0);
+        final float p0y = m.transformY(x0, y0);
+        final float p1x = m.transformX(x1, y1);
+        final float p1y = m.transformY(x1, y1);
+        final float p2x = m.transformX(x2, y2);
+        final float p2y = m.transformY(x2, y2);
+        final float p3x = m.transformX(x3, y3);
+        final float p3y = m.transformY(x3, y3);
+
+        // the deviation of n uniform segments is bounded by
+        // max|B''| / (8 n^2), and max|B''| = 6 * max(|second differences|)
+        final float dd =
+            Math.max(FloatMath.hypot(p0x - 2 * p1x + p2x, p0y - 2 * p1y + p2y),
+                FloatMath.hypot(p1x - 2 * p2x + p3x, p1y - 2 * p2y + p3y));
+        final int n = this.segments(0.75f * dd);
+
+        final PolygonBuffer out = this.out;
+        for (int i = 1; i < n; i++) {
+            final float t = (float) i / n;
+            final float u = 1 - t;
+            final float b0 = u * u * u;
+            final float b1 = 3 * u * u * t;
+            final float b2 = 3 * u * t * t;
+            final float b3 = t * t * t;
+            out.lineTo(b0 * p0x + b1 * p1x + b2 * p2x + b3 * p3x, b0 * p0y + b1
+                * p1y + b2 * p2y + b3 * p3y);
+        }
+        out.lineTo(p3x, p3y);
+    }
+
+    /**
+     * Flattens a quadratic Bezier curve.
+     */
+    private void quadTo(float x0, float y0, float x1, float y1, float x2,
+            float y2) {
+        final Matrix m = this.matrix;
+        final float p0x = m.transformX(x0, y0);
+        final float p0y = m.transformY(x0, y0);
+        final float p1x = m.transformX(x1, y1);
+        final float p1y = m.transformY(x1, y1);
+        final float p2x = m.transformX(x2, y2);
+        final float p2y = m.transformY(x2, y2);
+
+        // max|B''| = 2 * |second difference|
+        final float dd =
+            FloatMath.hypot(p0x - 2 * p1x + p2x, p0y - 2 * p1y + p2y);
+        final int n = this.segments(0.25f * dd);
+
+        final PolygonBuffer out = this.out;
+        for (int i = 1; i < n; i++) {
+            final float t = (float) i / n;
+            final float u = 1 - t;
+            final float b0 = u * u;
+            final float b1 = 2 * u * t;
+            final float b2 = t * t;
+            out.lineTo(b0 * p0x + b1 * p1x + b2 * p2x, b0 * p0y + b1 * p1y + b2
+                * p2y);
+        }
+        out.lineTo(p2x, p2y);
+    }
+
+    /**
+     * Flattens an elliptical arc, specified with the endpoint
+     * parameterization used by SVG path data. This follows the conversion to
+     * center parameterization in appendix F.6.5 of the SVG 1.1 specification.
+     */
+    private void arcTo(float x1, float y1, float rx, float ry, float angle,
+            boolean large, boolean sweep, float x2, float y2) {
+        if (rx == 0 || ry == 0 || (x1 == x2 && y1 == y2)) {
+            if (x1 != x2 || y1 != y2) {
+                this.lineTo(x2, y2);
+            }
+            return;
+        }
+        rx = Math.abs(rx);
+        ry = Math.abs(ry);
+
+        final double phi = Math.toRadians(angle);
+        final double cos = Math.cos(phi);
+        final double sin = Math.sin(phi);
+        final double dx2 = (x1 - x2) / 2.0;
+        final double dy2 = (y1 - y2) / 2.0;
+        final double x1p = cos * dx2 + sin * dy2;
+        final double y1p = -sin * dx2 + cos * dy2;
+
+        // scale up the radii if they are too small to reach the endpoint
+        double rx2 = (double) rx * rx;
+        double ry2 = (double) ry * ry;
+        final double lambda = (x1p * x1p) / rx2 + (y1p * y1p) / ry2;
+        if (lambda > 1) {
+            final double scale = Math.sqrt(lambda);
+            rx *= scale;
+            ry *= scale;
+            rx2 = (double) rx * rx;
+            ry2 = (double) ry * ry;
+        }
+
+        final double num = rx2 * ry2 - rx2 * y1p * y1p - ry2 * x1p * x1p;
+        final double den = rx2 * y1p * y1p + ry2 * x1p * x1p;
+        double coef = (den == 0 || num <= 0) ? 0 : Math.sqrt(num / den);
+        if (large == sweep) {
+            coef = -coef;
+        }
+        final double cxp = coef * rx * y1p / ry;
+        final double cyp = -coef * ry * x1p / rx;
+        final double cx = cos * cxp - sin * cyp + (x1 + x2) / 2.0;
+        final double cy = sin * cxp + cos * cyp + (y1 + y2) / 2.0;
+
+        final double theta1 =
+            FloatMath.atan2((y1p - cyp) / ry, (x1p - cxp) / rx);
+        double dtheta =
+            FloatMath.atan2((-y1p - cyp) / ry, (-x1p - cxp) / rx) - theta1;
+        if (!sweep && dtheta > 0) {
+            dtheta -= 2 * Math.PI;
+        } else if (sweep && dtheta < 0) {
+            dtheta += 2 * Math.PI;
+        }
+
+        // a chord spanning angle a deviates from a circle of radius r by
+        // about r * a^2 / 8
+        final float radius = Math.max(rx, ry) * this.matrix.getScale();
+        final double step =
+            (radius <= this.tolerance) ? Math.PI : Math.sqrt(8
+                * this.tolerance / radius);
+        int n = (int) Math.ceil(Math.abs(dtheta) / step);
+        n = Math.max(1, Math.min(MAX_SEGMENTS, n));
+
+        for (int i = 1; i < n; i++) {
+            final double t = theta1 + dtheta * i / n;
+            final double ex = rx * Math.cos(t);
+            final double ey = ry * Math.sin(t);
+            this.lineTo((float) (cos * ex - sin * ey + cx), (float) (sin * ex
+                + cos * ey + cy));
+        }
+        this.lineTo(x2, y2);
+    }
+
+    /**
+     * Computes the number of segments needed to approximate a curve.
+     * 
+     * @param bound the maximum deviation of a single segment, which decreases
+     * with the square of the number of segments
+     * @return the number of segments
+     */
+    private int segments(float bound) {
+        final int n = (int) Math.ceil(Math.sqrt(bound / this.tolerance));
+        return Math.max(1, Math.min(MAX_SEGMENTS, n));
+    }
+}
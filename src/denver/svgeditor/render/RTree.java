@@ -0,0 +1,862 @@
+/*
+ * RTree.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * A spatial index of the bounding boxes of elements, for finding the
+ * elements under a point or within a rectangle without visiting every
+ * element. The index is an R-tree whose nodes are stored in parallel arrays:
+ * it may be bulk loaded with the sort-tile-recursive algorithm, which packs
+ * nodes full, and then maintained incrementally as elements are added, moved
+ * and resized, using Guttman's insertion with a linear split.
+ * <p>
+ * Removing an element does not reinsert the entries of nodes that become
+ * underfull; empty nodes are removed and the remaining boxes are tightened.
+ * Bulk loading again restores the packing.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class RTree {
+
+    /**
+     * The maximum number of entries in a node.
+     */
+    public static final int MAX_ENTRIES = 16;
+
+    /**
+     * The minimum number of entries in each node created by a split.
+     */
+    private static final int MIN_ENTRIES = MAX_ENTRIES * 2 / 5;
+
+    private static final int NONE = -1;
+
+    // node arrays
+    private int nodeCount;
+    private float[] nodeBoxes;
+    private int[] levels; // 0 for leaves
+    private int[] parents;
+    private int[] entryCounts;
+    private int[] entries; // MAX_ENTRIES per node
+    private int[] freeNodes;
+    private int freeCount;
+    private int root;
+
+    // element arrays
+    private float[] elementBoxes;
+    private int[] elementLeaves;
+    private int size;
+
+    // scratch buffers
+    private int[] stack;
+    private int[] results;
+    private int resultCount;
+    private int[] splitIds;
+    private float[] keys;
+    private int[] sortIds;
+
+    /**
+     * Creates a new, empty instance of <code>RTree</code>.
+     */
+    public RTree() {
+        this.nodeBoxes = new float[16 * 4];
+        this.levels = new int[16];
+        this.parents = new int[16];
+        this.entryCounts = new int[16];
+        this.entries = new int[16 * MAX_ENTRIES];
+        this.freeNodes = new int[16];
+        this.elementBoxes = new float[64 * 4];
+        this.elementLeaves = new int[64];
+        this.stack = new int[64];
+        this.results = new int[64];
+        this.splitIds = new int[MAX_ENTRIES + 1];
+        this.keys = new float[0];
+        this.sortIds = new int[0];
+        this.clear();
+    }
+
+    /**
+     * Removes every element from this index.
+     */
+    public void clear() {
+        this.nodeCount = 0;
+        this.freeCount = 0;
+        this.root = this.allocateNode(0);
+        for (int i = this.elementLeaves.length - 1; i >= 0; i--) {
+            this.elementLeaves[i] = NONE;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * Returns the number of elements in this index.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the height of the tree.
+     *
+     * @return the number of levels of nodes, which is 1 if the tree is a
+     * single leaf
+     */
+    public int getHeight() {
+        return this.levels[this.root] + 1;
+    }
+
+    /**
+     * Returns the number of nodes in the tree.
+     *
+     * @return the number of nodes in use
+     */
+    public int getNodeCount() {
+        return this.nodeCount - this.freeCount;
+    }
+
+    /**
+     * Returns whether or not an element is in this index.
+     *
+     * @param element the index of the element
+     * @return true if the element has been added and not removed
+     */
+    public boolean contains(int element) {
+        return (element >= 0 && element < this.elementLeaves.length
+            && this.elementLeaves[element] != NONE);
+    }
+
+    /**
+     * Replaces the contents of this index with elements from an
+     * ElementBounds, packing the tree with the sort-tile-recursive algorithm.
+     *
+     * @param bounds the bounding boxes of the elements
+     * @param elements the indices of the elements to add; elements whose
+     * boxes are empty are skipped
+     * @param count the number of elements in the elements array
+     * @throws NullPointerException if bounds==null or elements==null
+     */
+    public void load(ElementBounds bounds, int[] elements, int count) {
+        this.clear();
+        this.ensureElements(bounds.getElementCount());
+        final float[] box = new float[4];
+        int[] ids = new int[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            final int element = elements[i];
+            if (bounds.getBounds(element, box)) {
+                System.arraycopy(box, 0, this.elementBoxes, element * 4, 4);
+                ids[n++] = element;
+            }
+        }
+        if (n == 0) {
+            return;
+        }
+        this.size = n;
+
+        // pack the elements into leaves, and then each level into the next
+        this.freeCount = 0;
+        this.nodeCount = 0;
+        int level = 0;
+        while (true) {
+            final int nodes = this.pack(ids, n, level);
+            if (nodes == 1) {
+                this.root = ids[0];
+                this.parents[this.root] = NONE;
+                break;
+            }
+            n = nodes;
+            level++;
+        }
+    }
+
+    /**
+     * Adds an element to this index, or moves it if it is already present.
+     *
+     * @param element the index of the element
+     * @param x0 the left edge of the element's bounding box
+     * @param y0 the top edge of the element's bounding box
+     * @param x1 the right edge of the element's bounding box
+     * @param y1 the bottom edge of the element's bounding box
+     * @throws IllegalArgumentException if element is negative
+     */
+    public void update(int element, float x0, float y0, float x1, float y1) {
+        if (element < 0) {
+            throw new IllegalArgumentException("invalid element: " + element);
+        }
+        this.ensureElements(element + 1);
+        final int leaf = this.elementLeaves[element];
+        final float[] boxes = this.elementBoxes;
+        final int i = element * 4;
+        if (leaf != NONE) {
+            // a box that shrinks or moves within its leaf stays in place
+            final float[] nodeBoxes = this.nodeBoxes;
+            final int j = leaf * 4;
+            if (x0 >= nodeBoxes[j] && y0 >= nodeBoxes[j + 1]
+                && x1 <= nodeBoxes[j + 2] && y1 <= nodeBoxes[j + 3]) {
+                setBox(boxes, i, x0, y0, x1, y1);
+                this.tighten(leaf);
+                return;
+            }
+            this.remove(element);
+        }
+        setBox(boxes, i, x0, y0, x1, y1);
+        this.insert(element, this.chooseLeaf(i), 0);
+        this.size++;
+    }
+
+    /**
+     * Removes an element from this index.
+     *
+     * @param element the index of the element
+     * @return true if the element was removed, false if it was not in this
+     * index
+     */
+    public boolean remove(int element) {
+        if (!this.contains(element)) {
+            return false;
+        }
+        final int leaf = this.elementLeaves[element];
+        this.elementLeaves[element] = NONE;
+        this.removeEntry(leaf, element);
+        this.size--;
+
+        // remove empty nodes and tighten the boxes of their ancestors
+        int node = leaf;
+        while (node != this.root) {
+            final int parent = this.parents[node];
+            if (this.entryCounts[node] == 0) {
+                this.removeEntry(parent, node);
+                this.freeNode(node);
+            } else {
+                this.computeBox(node);
+            }
+            node = parent;
+        }
+        this.computeBox(node);
+
+        // shorten the tree while the root has a single child
+        while (this.levels[this.root] > 0 && this.entryCounts[this.root] == 1) {
+            final int child = this.entries[this.root * MAX_ENTRIES];
+            this.freeNode(this.root);
+            this.root = child;
+            this.parents[child] = NONE;
+        }
+        if (this.levels[this.root] > 0 && this.entryCounts[this.root] == 0) {
+            this.levels[this.root] = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the elements whose boxes intersect a rectangle. Boxes that only
+     * touch the rectangle's edges are included, so that a degenerate
+     * rectangle finds the elements under a point.
+     *
+     * @param x0 the left edge of the rectangle
+     * @param y0 the top edge of the rectangle
+     * @param x1 the right edge of the rectangle
+     * @param y1 the bottom edge of the rectangle
+     * @return the number of elements found, which are available from
+     * {@link #getResults()}
+     */
+    public int query(float x0, float y0, float x1, float y1) {
+        this.resultCount = 0;
+        if (this.size == 0) {
+            return 0;
+        }
+        final float[] nodeBoxes = this.nodeBoxes;
+        final float[] elementBoxes = this.elementBoxes;
+        final int[] entries = this.entries;
+        int[] stack = this.stack;
+        int top = 0;
+        stack[top++] = this.root;
+        while (top > 0) {
+            final int node = stack[--top];
+            final int start = node * MAX_ENTRIES;
+            final int end = start + this.entryCounts[node];
+            if (this.levels[node] == 0) {
+                for (int i = start; i < end; i++) {
+                    final int element = entries[i];
+                    if (intersects(elementBoxes, element * 4, x0, y0, x1, y1)) {
+                        this.addResult(element);
+                    }
+                }
+            } else {
+                for (int i = start; i < end; i++) {
+                    final int child = entries[i];
+                    if (intersects(nodeBoxes, child * 4, x0, y0, x1, y1)) {
+                        if (top == stack.length) {
+                            stack = this.growStack();
+                        }
+                        stack[top++] = child;
+                    }
+                }
+            }
+        }
+        return this.resultCount;
+    }
+
+    /**
+     * Returns the results of the most recent query.
+     *
+     * @return an array whose first {@link #query(float, float, float, float)}
+     * elements are the indices of the elements found, in no particular order;
+     * the array is owned by this object and is reused by the next query
+     */
+    public int[] getResults() {
+        return this.results;
+    }
+
+    /**
+     * Finds the topmost element whose box contains a point. Elements later in
+     * document order are painted over earlier ones, so the element with the
+     * greatest index is considered topmost.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @param tolerance the distance by which to enlarge each box, so that
+     * thin shapes can be hit with an imprecise pointer
+     * @return the index of the topmost element, or -1 if there is none
+     */
+    public int hitTest(float x, float y, float tolerance) {
+        final int count =
+            this.query(x - tolerance, y - tolerance, x + tolerance, y
+                + tolerance);
+        int hit = NONE;
+        for (int i = 0; i < count; i++) {
+            if (this.results[i] > hit) {
+                hit = this.results[i];
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * Returns whether or not any element's box intersects a rectangle. This
+     * is faster than {@link #query(float, float, float, float)} since it
+     * stops at the first element found.
+     *
+     * @param x0 the left edge of the rectangle
+     * @param y0 the top edge of the rectangle
+     * @param x1 the right edge of the rectangle
+     * @param y1 the bottom edge of the rectangle
+     * @return true if at least one element intersects the rectangle
+     */
+    public boolean intersectsAny(float x0, float y0, float x1, float y1) {
+        if (this.size == 0) {
+            return false;
+        }
+        int[] stack = this.stack;
+        int top = 0;
+        stack[top++] = this.root;
+        while (top > 0) {
+            final int node = stack[--top];
+            final int start = node * MAX_ENTRIES;
+            final int end = start + this.entryCounts[node];
+            final boolean leaf = (this.levels[node] == 0);
+            final float[] boxes = leaf ? this.elementBoxes : this.nodeBoxes;
+            for (int i = start; i < end; i++) {
+                final int id = this.entries[i];
+                if (intersects(boxes, id * 4, x0, y0, x1, y1)) {
+                    if (leaf) {
+                        return true;
+                    }
+                    if (top == stack.length) {
+                        stack = this.growStack();
+                    }
+                    stack[top++] = id;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Chooses the leaf into which to insert a box: at each level, the child
+     * whose box needs the least enlargement, with ties broken by the smaller
+     * area.
+     *
+     * @param i the offset of the box in the element boxes
+     * @return the leaf node
+     */
+    private int chooseLeaf(int i) {
+        final float[] e = this.elementBoxes;
+        return this.chooseNode(e[i], e[i + 1], e[i + 2], e[i + 3], 0);
+    }
+
+    /**
+     * Chooses the node at a level into which to insert a box.
+     */
+    private int chooseNode(float x0, float y0, float x1, float y1, int level) {
+        final float[] boxes = this.nodeBoxes;
+        int node = this.root;
+        while (this.levels[node] > level) {
+            final int start = node * MAX_ENTRIES;
+            final int end = start + this.entryCounts[node];
+            int best = this.entries[start];
+            float bestEnlargement = Float.MAX_VALUE;
+            float bestArea = Float.MAX_VALUE;
+            for (int i = start; i < end; i++) {
+                final int child = this.entries[i];
+                final int j = child * 4;
+                final float area =
+                    (boxes[j + 2] - boxes[j]) * (boxes[j + 3] - boxes[j + 1]);
+                final float enlarged =
+                    (Math.max(x1, boxes[j + 2]) - Math.min(x0, boxes[j]))
+                        * (Math.max(y1, boxes[j + 3]) - Math.min(y0,
+                            boxes[j + 1]));
+                final float enlargement = enlarged - area;
+                if (enlargement < bestEnlargement
+                    || (enlargement == bestEnlargement && area < bestArea)) {
+                    best = child;
+                    bestEnlargement = enlargement;
+                    bestArea = area;
+                }
+            }
+            node = best;
+        }
+        return node;
+    }
+
+    /**
+     * Adds an entry to a node, splitting it if it is full, and enlarges the
+     * boxes of its ancestors.
+     *
+     * @param id the element or child node to add
+     * @param node the node to which to add it
+     * @param level the level of the node
+     */
+    private void insert(int id, int node, int level) {
+        if (this.entryCounts[node] < MAX_ENTRIES) {
+            this.addEntry(node, id);
+            for (int n = node; n != NONE; n = this.parents[n]) {
+                this.includeEntry(n, id, level);
+                id = n;
+                level++;
+            }
+            return;
+        }
+
+        final int sibling = this.split(node, id);
+        final int parent = this.parents[node];
+        if (parent == NONE) {
+            final int newRoot = this.allocateNode(this.levels[node] + 1);
+            this.addEntry(newRoot, node);
+            this.addEntry(newRoot, sibling);
+            this.computeBox(newRoot);
+            this.root = newRoot;
+        } else {
+            this.computeBox(parent);
+            this.insert(sibling, parent, level + 1);
+        }
+    }
+
+    /**
+     * Splits a full node into two, distributing its entries and one more with
+     * Guttman's linear split.
+     *
+     * @param node the node to split
+     * @param extra the entry that did not fit
+     * @return the new sibling node, which has the same parent as node
+     */
+    private int split(int node, int extra) {
+        final int[] ids = this.splitIds;
+        final int start = node * MAX_ENTRIES;
+        System.arraycopy(this.entries, start, ids, 0, MAX_ENTRIES);
+        ids[MAX_ENTRIES] = extra;
+        final int total = MAX_ENTRIES + 1;
+        final int level = this.levels[node];
+        final float[] boxes = (level == 0) ? this.elementBoxes : this.nodeBoxes;
+
+        // pick the seeds that are furthest apart along either axis,
+        // normalized by the extent of all the entries along that axis
+        int seedA = 0;
+        int seedB = 1;
+        float bestSeparation = -Float.MAX_VALUE;
+        for (int axis = 0; axis < 2; axis++) {
+            int highestLow = 0;
+            int lowestHigh = 0;
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for (int i = 0; i < total; i++) {
+                final int j = ids[i] * 4 + axis;
+                if (boxes[j] > boxes[ids[highestLow] * 4 + axis]) {
+                    highestLow = i;
+                }
+                if (boxes[j + 2] < boxes[ids[lowestHigh] * 4 + axis + 2]) {
+                    lowestHigh = i;
+                }
+                min = Math.min(min, boxes[j]);
+                max = Math.max(max, boxes[j + 2]);
+            }
+            if (highestLow == lowestHigh) {
+                continue;
+            }
+            final float width = Math.max(max - min, Float.MIN_VALUE);
+            final float separation =
+                (boxes[ids[highestLow] * 4 + axis] - boxes[ids[lowestHigh] * 4
+                    + axis + 2])
+                    / width;
+            if (separation > bestSeparation) {
+                bestSeparation = separation;
+                seedA = lowestHigh;
+                seedB = highestLow;
+            }
+        }
+
+        final int sibling = this.allocateNode(level);
+        this.entryCounts[node] = 0;
+        this.addEntry(node, ids[seedA]);
+        this.addEntry(sibling, ids[seedB]);
+        this.computeBox(node);
+        this.computeBox(sibling);
+        this.parents[sibling] = this.parents[node];
+
+        // assign the rest to the group needing the least enlargement, unless
+        // one group must take all that remain to reach the minimum
+        int remaining = total - 2;
+        for (int i = 0; i < total; i++) {
+            if (i == seedA || i == seedB) {
+                continue;
+            }
+            final int id = ids[i];
+            final int target;
+            if (this.entryCounts[node] + remaining == MIN_ENTRIES) {
+                target = node;
+            } else if (this.entryCounts[sibling] + remaining == MIN_ENTRIES) {
+                target = sibling;
+            } else {
+                final float a = this.enlargement(node, boxes, id * 4);
+                final float b = this.enlargement(sibling, boxes, id * 4);
+                if (a != b) {
+                    target = (a < b) ? node : sibling;
+                } else {
+                    final int countA = this.entryCounts[node];
+                    final int countB = this.entryCounts[sibling];
+                    target = (countA <= countB) ? node : sibling;
+                }
+            }
+            this.addEntry(target, id);
+            this.includeEntry(target, id, level);
+            remaining--;
+        }
+        return sibling;
+    }
+
+    /**
+     * Computes how much a node's box must grow to include a box.
+     */
+    private float enlargement(int node, float[] boxes, int i) {
+        final float[] n = this.nodeBoxes;
+        final int j = node * 4;
+        final float area = (n[j + 2] - n[j]) * (n[j + 3] - n[j + 1]);
+        final float enlarged =
+            (Math.max(boxes[i + 2], n[j + 2]) - Math.min(boxes[i], n[j]))
+                * (Math.max(boxes[i + 3], n[j + 3]) - Math.min(boxes[i + 1],
+                    n[j + 1]));
+        return enlarged - area;
+    }
+
+    /**
+     * Packs a level of the tree with the sort-tile-recursive algorithm: the
+     * entries are sorted by the x coordinates of their centers and cut into
+     * vertical slices, each slice is sorted by y and cut into full nodes.
+     *
+     * @param ids the elements (for level 0) or nodes to pack; replaced with
+     * the nodes created
+     * @param count the number of entries in ids
+     * @param level the level of the nodes to create
+     * @return the number of nodes created
+     */
+    private int pack(int[] ids, int count, int level) {
+        final float[] boxes = (level == 0) ? this.elementBoxes : this.nodeBoxes;
+        final int nodes = (count + MAX_ENTRIES - 1) / MAX_ENTRIES;
+        final int slices = (int) Math.ceil(Math.sqrt(nodes));
+        final int sliceSize = slices * MAX_ENTRIES;
+
+        this.sortByCenter(ids, 0, count, boxes, 0);
+        int created = 0;
+        final int[] packed = new int[nodes];
+        for (int s = 0; s < count; s += sliceSize) {
+            final int sliceEnd = Math.min(count, s + sliceSize);
+            this.sortByCenter(ids, s, sliceEnd, boxes, 1);
+            for (int i = s; i < sliceEnd; i += MAX_ENTRIES) {
+                final int node = this.allocateNode(level);
+                final int end = Math.min(sliceEnd, i + MAX_ENTRIES);
+                for (int k = i; k < end; k++) {
+                    this.addEntry(node, ids[k]);
+                }
+                this.computeBox(node);
+                packed[created++] = node;
+            }
+        }
+        System.arraycopy(packed, 0, ids, 0, created);
+        return created;
+    }
+
+    /**
+     * Sorts a range of ids by the centers of their boxes along an axis.
+     */
+    private void sortByCenter(int[] ids, int from, int to, float[] boxes,
+            int axis) {
+        final int count = to - from;
+        if (this.keys.length < count) {
+            this.keys = new float[count];
+            this.sortIds = new int[count];
+        }
+        final float[] keys = this.keys;
+        final int[] sorted = this.sortIds;
+        for (int i = 0; i < count; i++) {
+            final int j = ids[from + i] * 4 + axis;
+            keys[i] = boxes[j] + boxes[j + 2];
+            sorted[i] = ids[from + i];
+        }
+        sort(keys, sorted, 0, count - 1);
+        System.arraycopy(sorted, 0, ids, from, count);
+    }
+
+    /**
+     * Sorts parallel arrays of keys and ids by key with quicksort.
+     */
+    private static void sort(float[] keys, int[] ids, int lo, int hi) {
+        while (hi - lo > 8) {
+            final float pivot = keys[(lo + hi) >>> 1];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    final float key = keys[i];
+                    keys[i] = keys[j];
+                    keys[j] = key;
+                    final int id = ids[i];
+                    ids[i] = ids[j];
+                    ids[j] = id;
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller part to bound the stack depth
+            if (j - lo < hi - i) {
+                sort(keys, ids, lo, j);
+                lo = i;
+            } else {
+                sort(keys, ids, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            final float key = keys[i];
+            final int id = ids[i];
+            int j = i - 1;
+            while (j >= lo && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                ids[j + 1] = ids[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            ids[j + 1] = id;
+        }
+    }
+
+    /**
+     * Appends an entry to a node that is not full, updating the link from the
+     * entry back to the node.
+     */
+    private void addEntry(int node, int id) {
+        final int count = this.entryCounts[node];
+        this.entries[node * MAX_ENTRIES + count] = id;
+        this.entryCounts[node] = count + 1;
+        if (this.levels[node] == 0) {
+            this.elementLeaves[id] = node;
+        } else {
+            this.parents[id] = node;
+        }
+    }
+
+    /**
+     * Removes an entry from a node, moving the last entry into its place.
+     */
+    private void removeEntry(int node, int id) {
+        final int start = node * MAX_ENTRIES;
+        final int last = start + this.entryCounts[node] - 1;
+        for (int i = start; i <= last; i++) {
+            if (this.entries[i] == id) {
+                this.entries[i] = this.entries[last];
+                this.entryCounts[node]--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Enlarges the box of a node to include the box of one of its entries.
+     */
+    private void includeEntry(int node, int id, int level) {
+        final float[] boxes = (level == 0) ? this.elementBoxes : this.nodeBoxes;
+        final float[] n = this.nodeBoxes;
+        final int i = id * 4;
+        final int j = node * 4;
+        n[j] = Math.min(n[j], boxes[i]);
+        n[j + 1] = Math.min(n[j + 1], boxes[i + 1]);
+        n[j + 2] = Math.max(n[j + 2], boxes[i + 2]);
+        n[j + 3] = Math.max(n[j + 3], boxes[i + 3]);
+    }
+
+    /**
+     * Computes the box of a node from its entries.
+     */
+    private void computeBox(int node) {
+        final int j = node * 4;
+        setBox(this.nodeBoxes, j, Float.MAX_VALUE, Float.MAX_VALUE,
+            -Float.MAX_VALUE, -Float.MAX_VALUE);
+        final int level = this.levels[node];
+        final int start = node * MAX_ENTRIES;
+        final int end = start + this.entryCounts[node];
+        for (int i = start; i < end; i++) {
+            this.includeEntry(node, this.entries[i], level);
+        }
+    }
+
+    /**
+     * Recomputes the boxes of a node and its ancestors.
+     */
+    private void tighten(int node) {
+        for (; node != NONE; node = this.parents[node]) {
+            this.computeBox(node);
+        }
+    }
+
+    /**
+     * Allocates an empty node, reusing a freed one if possible.
+     */
+    private int allocateNode(int level) {
+        final int node;
+        if (this.freeCount > 0) {
+            node = this.freeNodes[--this.freeCount];
+        } else {
+            if (this.nodeCount == this.levels.length) {
+                this.growNodes(this.nodeCount * 2);
+            }
+            node = this.nodeCount++;
+        }
+        this.levels[node] = level;
+        this.parents[node] = NONE;
+        this.entryCounts[node] = 0;
+        setBox(this.nodeBoxes, node * 4, Float.MAX_VALUE, Float.MAX_VALUE,
+            -Float.MAX_VALUE, -Float.MAX_VALUE);
+        return node;
+    }
+
+    /**
+     * Returns a node to the free list.
+     */
+    private void freeNode(int node) {
+        if (this.freeCount == this.freeNodes.length) {
+            final int[] newFree = new int[this.freeCount * 2];
+            System.arraycopy(this.freeNodes, 0, newFree, 0, this.freeCount);
+            this.freeNodes = newFree;
+        }
+        this.freeNodes[this.freeCount++] = node;
+    }
+
+    /**
+     * Grows the node arrays.
+     */
+    private void growNodes(int capacity) {
+        final int count = this.nodeCount;
+        final float[] newBoxes = new float[capacity * 4];
+        System.arraycopy(this.nodeBoxes, 0, newBoxes, 0, count * 4);
+        this.nodeBoxes = newBoxes;
+        this.levels = growInts(this.levels, count, capacity);
+        this.parents = growInts(this.parents, count, capacity);
+        this.entryCounts = growInts(this.entryCounts, count, capacity);
+        this.entries =
+            growInts(this.entries, count * MAX_ENTRIES, capacity * MAX_ENTRIES);
+    }
+
+    /**
+     * Grows the element arrays to hold at least a number of elements.
+     */
+    private void ensureElements(int count) {
+        final int old = this.elementLeaves.length;
+        if (count <= old) {
+            return;
+        }
+        final int capacity = Math.max(count, old * 2);
+        final float[] newBoxes = new float[capacity * 4];
+        System.arraycopy(this.elementBoxes, 0, newBoxes, 0, old * 4);
+        this.elementBoxes = newBoxes;
+        this.elementLeaves = growInts(this.elementLeaves, old, capacity);
+        for (int i = old; i < capacity; i++) {
+            this.elementLeaves[i] = NONE;
+        }
+    }
+
+    /**
+     * Appends an element to the query results.
+     */
+    private void addResult(int element) {
+        if (this.resultCount == this.results.length) {
+            this.results =
+                growInts(this.results, this.resultCount, this.resultCount * 2);
+        }
+        this.results[this.resultCount++] = element;
+    }
+
+    /**
+     * Doubles the size of the traversal stack.
+     */
+    private int[] growStack() {
+        final int length = this.stack.length;
+        this.stack = growInts(this.stack, length, length * 2);
+        return this.stack;
+    }
+
+    private static int[] growInts(int[] array, int count, int capacity) {
+        final int[] newArray = new int[capacity];
+        System.arraycopy(array, 0, newArray, 0, count);
+        return newArray;
+    }
+
+    private static void setBox(float[] boxes, int i, float x0, float y0,
+            float x1, float y1) {
+        boxes[i] = x0;
+        boxes[i + 1] = y0;
+        boxes[i + 2] = x1;
+        boxes[i + 3] = y1;
+    }
+
+    private static boolean intersects(float[] boxes, int i, float x0,
+            float y0, float x1, float y1) {
+        return (boxes[i] <= x1 && boxes[i + 2] >= x0 && boxes[i + 1] <= y1
+            && boxes[i + 3] >= y0);
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * RasterSurface.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * A rectangular array of ARGB pixels into which the renderer draws. The
+ * pixels are stored row by row in a plain int[], so a surface can be copied to
+ * a device Bitmap or Graphics with a single call on a device, or examined and
+ * timed directly off of a device.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class RasterSurface {
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+
+    /**
+     * Creates a new instance of <code>RasterSurface</code> whose pixels are
+     * all fully transparent.
+     *
+     * @param width the width of the surface, in pixels
+     * @param height the height of the surface, in pixels
+     * @throws IllegalArgumentException if width or height is negative
+     */
+    public RasterSurface(int width, int height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("invalid size: " + width + "x"
+                + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = new int[width * height];
+    }
+
+    /**
+     * Returns the width of this surface.
+     *
+     * @return the width of this surface, in pixels
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Returns the height of this surface.
+     *
+     * @return the height of this surface, in pixels
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the pixels of this surface. The pixel at (x, y) is at index
+     * <code>y * getWidth() + x</code>.
+     *
+     * @return the array of ARGB pixels, which is owned by this object; never
+     * returns null
+     */
+    public int[] getPixels() {
+        return this.pixels;
+    }
+
+    /**
+     * Sets every pixel of this surface to a color.
+     *
+     * @param argb the color to set
+     */
+    public void clear(int argb) {
+        final int[] pixels = this.pixels;
+        for (int i = pixels.length - 1; i >= 0; i--) {
+            pixels[i] = argb;
+        }
+    }
+
+    /**
+     * Sets every pixel in a rectangle of this surface to a color. The
+     * rectangle is clipped to the bounds of this surface.
+     *
+     * @param x the x coordinate of the left edge of the rectangle
+     * @param y the y coordinate of the top edge of the rectangle
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     * @param argb the color to set
+     */
+    public void clearRect(int x, int y, int w, int h, int argb) {
+        final int x0 = Math.max(0, x);
+        final int y0 = Math.max(0, y);
+        final int x1 = Math.min(this.width, x + w);
+        final int y1 = Math.min(this.height, y + h);
+        final int[] pixels = this.pixels;
+        for (int row = y0; row < y1; row++) {
+            final int offset = row * this.width;
+            for (int col = x0; col < x1; col++) {
+                pixels[offset + col] = argb;
+            }
+        }
+    }
+
+    /**
+     * Blends a color over a horizontal span of pixels with "source over"
+     * compositing. The span is clipped to the bounds of this surface.
+     *
+     * @param y the row of the span
+     * @param x0 the column of the first pixel of the span
+     * @param x1 the column after the last pixel of the span
+     * @param argb the color to blend
+     */
+    public void blendSpan(int y, int x0, int x1, int argb) {
+        if (y < 0 || y >= this.height) {
+            return;
+        }
+        if (x0 < 0) {
+            x0 = 0;
+        }
+        if (x1 > this.width) {
+            x1 = this.width;
+        }
+        final int alpha = argb >>> 24;
+        if (alpha == 0 || x0 >= x1) {
+            return;
+        }
+
+        final int[] pixels = this.pixels;
+        final int offset = y * this.width;
+        if (alpha == 255) {
+            for (int i = offset + x0, end = offset + x1; i < end; i++) {
+                pixels[i] = argb;
+            }
+        } else {
+            for (int i = offset + x0, end = offset + x1; i < end; i++) {
+                pixels[i] = blend(pixels[i], argb, alpha);
+            }
+        }
+    }
+
+    /**
+     * Blends a color over a single pixel with "source over" compositing and
+     * an additional coverage factor. The pixel is ignored if it is outside of
+     * the bounds of this surface.
+     *
+     * @param x the column of the pixel
+     * @param y the row of the pixel
+     * @param argb the color to blend
+     * @param coverage the fraction of the pixel covered, from 0 to 255
+     */
+    public void blendPixel(int x, int y, int argb, int coverage) {
+        if (x < 0 || y < 0 || x >= this.width || y >= this.height) {
+            return;
+        }
+        final int alpha = ((argb >>> 24) * coverage + 127) / 255;
+        if (alpha > 0) {
+            final int i = y * this.width + x;
+            this.pixels[i] = blend(this.pixels[i], argb, alpha);
+        }
+    }
+
+    /**
+     * Copies a rectangle of pixels from another surface into this one,
+     * replacing the pixels in this surface. The rectangle is clipped to the
+     * bounds of both surfaces.
+     *
+     * @param src the surface from which to copy; may be this surface, in which
+     * case overlapping rectangles are handled correctly
+     * @param srcX the x coordinate of the rectangle in src
+     * @param srcY the y coordinate of the rectangle in src
+     * @param dstX the x coordinate of the rectangle in this surface
+     * @param dstY the y coordinate of the rectangle in this surface
+     * @param w the width of the rectangle
+     * @param h the height of the rectangle
+     * @throws NullPointerException if src==null
+     */
+    public void copyFrom(RasterSurface src, int srcX, int srcY, int dstX,
+            int dstY, int w, int h) {
+        // clip against both surfaces
+        if (srcX < 0) {
+            w += srcX;
+            dstX -= srcX;
+            srcX = 0;
+        }
+        if (srcY < 0) {
+            h += srcY;
+            dstY -= srcY;
+            srcY = 0;
+        }
+        if (dstX < 0) {
+            w += dstX;
+            srcX -= dstX;
+            dstX = 0;
+        }
+        if (dstY < 0) {
+            h += dstY;
+            srcY -= dstY;
+            dstY = 0;
+        }
+        w = Math.min(w, Math.min(src.width - srcX, this.width - dstX));
+        h = Math.min(h, Math.min(src.height - srcY, this.height - dstY));
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+
+        // copy bottom-up when moving down within the same surface
+        final boolean reverse = (src == this && dstY > srcY);
+        for (int i = 0; i < h; i++) {
+            final int row = reverse ? (h - 1 - i) : i;
+            System.arraycopy(src.pixels, (srcY + row) * src.width + srcX,
+                this.pixels, (dstY + row) * this.width + dstX, w);
+        }
+    }
+
+    /**
+     * Counts the pixels whose colors differ between this surface and
+     * another of the same size.
+     *
+     * @param other the surface to compare with this surface
+     * @param tolerance the largest difference allowed in each channel of a
+     * pixel; 0 counts every pixel that is not identical
+     * @return the number of pixels in which a channel differs by more than
+     * the tolerance
+     * @throws NullPointerException if other==null
+     * @throws IllegalArgumentException if the surfaces differ in size
+     */
+    public int countDifferences(RasterSurface other, int tolerance) {
+        if (other.width != this.width || other.height != this.height) {
+            throw new IllegalArgumentException("surfaces differ in size");
+        }
+        final int[] pixels = this.pixels;
+        final int[] otherPixels = other.pixels;
+        int count = 0;
+        for (int i = 0; i < pixels.length; i++) {
+            final int c1 = pixels[i];
+            final int c2 = otherPixels[i];
+            if (c1 == c2) {
+                continue;
+            }
+            for (int shift = 0; shift < 32; shift += 8) {
+                if (Math.abs(((c1 >>> shift) & 0xFF) - ((c2 >>> shift) & 0xFF))
+                    > tolerance) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Blends color c2 with alpha over color c1.
+     *
+     * @param c1 the destination color
+     * @param c2 the source color; its alpha is ignored in favour of alpha
+     * @param alpha the alpha of the source color, from 0 to 255
+     * @return the blended color
+     */
+    static int blend(int c1, int c2, int alpha) {
+        final int inverse = 255 - alpha;
+        final int a1 = c1 >>> 24;
+        final int a = alpha + (a1 * inverse + 127) / 255;
+        if (a == 0) {
+            return 0;
+        }
+        // weight the destination by its own alpha so that blending over a
+        // transparent pixel yields the source color
+        final int w1 = (a1 * inverse + 127) / 255;
+        final int r =
+            (((c2 >> 16) & 0xFF) * alpha + ((c1 >> 16) & 0xFF) * w1) / a;
+        final int g =
+            (((c2 >> 8) & 0xFF) * alpha + ((c1 >> 8) & 0xFF) * w1) / a;
+        final int b = ((c2 & 0xFF) * alpha + (c1 & 0xFF) * w1) / a;
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,613 @@
+/*
+ * Rasterizer.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Fills polygons into a {@link RasterSurface} by scanning rows of samples
+ * and painting the spans between edge crossings. Every contour of the
+ * polygon is treated as closed.
+ * <p>
+ * The edges of the polygon are sorted into an edge table by the first row
+ * of samples they cross, and only the active edges, those crossing the
+ * current row, are intersected with it; the active edges are kept sorted by
+ * their crossings, which change little from one row to the next.
+ * <p>
+ * When anti-aliasing (the default), each row of pixels is sampled at
+ * {@link #SAMPLE_ROWS} rows, and each span inside the polygon adds the
+ * exact fraction of each pixel that it covers horizontally to a coverage
+ * buffer, from which the row's pixels are blended once all of its sample
+ * rows are scanned. Otherwise, a pixel is painted if its center is inside
+ * the polygon according to the fill rule.
+ * <p>
+ * Polygons of either floats ({@link PolygonBuffer}) or 16.16 fixed-point
+ * values ({@link FixedPolygonBuffer}) may be filled; the latter are scanned
+ * without any float arithmetic.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused; the edge
+ * table, crossing and coverage buffers grow as needed and are kept between
+ * invocations, so that filling allocates nothing once they are big enough.
+ */
+public class Rasterizer {
+
+    /**
+     * The fill rule under which a point is inside if the winding number of
+     * the polygon around it is not zero.
+     */
+    public static final int NONZERO = 0;
+
+    /**
+     * The fill rule under which a point is inside if a ray from it crosses
+     * the polygon an odd number of times.
+     */
+    public static final int EVENODD = 1;
+
+    /**
+     * The number of rows of samples per row of pixels when anti-aliasing.
+     */
+    public static final int SAMPLE_ROWS = 4;
+
+    /**
+     * The largest difference in a channel between anti-aliased renderings
+     * of the same shape computed with different rounding, such as by the
+     * float and fixed-point backends: an edge that falls on the boundary of
+     * two sample rows may cover either of them, changing the coverage of its
+     * pixel by one row of samples.
+     */
+    public static final int EDGE_TOLERANCE = 256 / SAMPLE_ROWS;
+
+    /**
+     * The base-2 logarithm of {@link #SAMPLE_ROWS}.
+     */
+    private static final int SAMPLE_SHIFT = 2;
+
+    /**
+     * The coverage of a pixel covered by the whole of every sample row.
+     */
+    private static final int FULL_COVERAGE = 256;
+
+    /**
+     * The coverage added by a sample row crossing the whole of a pixel.
+     */
+    private static final int SAMPLE_COVERAGE = FULL_COVERAGE / SAMPLE_ROWS;
+
+    private boolean antiAliased;
+
+    // the edge table: the sample rows [first, last) crossed by each edge,
+    // its direction, and its x at a y and slope, in floats or fixed point
+    private int edgeCount;
+    private int[] edgeFirst;
+    private int[] edgeLast;
+    private int[] edgeDirections;
+    private float[] edgeX;
+    private float[] edgeY;
+    private float[] edgeSlopes;
+    private int[] fixedEdgeX;
+    private int[] fixedEdgeY;
+    private long[] fixedEdgeSlopes;
+    private int[] order;
+
+    // the active edges, sorted by their crossings of the current sample row
+    private int[] active;
+    private int[] crossings;
+
+    // the coverage of the pixels of the current row: the coverage of each
+    // pixel is the sum of the runs array up to it plus its cell
+    private int[] cells;
+    private int[] runs;
+
+    /**
+     * Creates a new instance of <code>Rasterizer</code>.
+     */
+    public Rasterizer() {
+        this.antiAliased = true;
+        this.edgeFirst = new int[0];
+        this.edgeLast = new int[0];
+        this.edgeDirections = new int[0];
+        this.edgeX = new float[0];
+        this.edgeY = new float[0];
+        this.edgeSlopes = new float[0];
+        this.fixedEdgeX = new int[0];
+        this.fixedEdgeY = new int[0];
+        this.fixedEdgeSlopes = new long[0];
+        this.order = new int[0];
+        this.active = new int[0];
+        this.crossings = new int[0];
+        this.cells = new int[0];
+        this.runs = new int[0];
+        this.ensureEdges(32);
+    }
+
+    /**
+     * Returns whether the edges of polygons are anti-aliased.
+     *
+     * @return true if pixels along the edges are blended by the fraction of
+     * them covered, false if pixels are painted only if their centers are
+     * inside
+     */
+    public boolean isAntiAliased() {
+        return this.antiAliased;
+    }
+
+    /**
+     * Sets whether the edges of polygons are anti-aliased.
+     *
+     * @param antiAliased true to blend the pixels along the edges by the
+     * fraction of them covered, false to paint pixels only if their centers
+     * are inside
+     */
+    public void setAntiAliased(boolean antiAliased) {
+        this.antiAliased = antiAliased;
+    }
+
+    /**
+     * Fills a polygon with a color.
+     *
+     * @param polygon the polygon to fill, in the pixel coordinates of target
+     * @param rule the fill rule; either {@link #NONZERO} or {@link #EVENODD}
+     * @param argb the color with which to fill the polygon
+     * @param target the surface in which to fill the polygon; the polygon is
+     * clipped to its bounds
+     * @throws NullPointerException if polygon==null or target==null
+     */
+    public void fill(PolygonBuffer polygon, int rule, int argb,
+            RasterSurface target) {
+        if ((argb >>> 24) == 0 || polygon.getPointCount() < 3) {
+            return;
+        }
+
+        // build the edge table, leaving out the edges that cross no sample
+        // row of the target
+        final float[] xs = polygon.getXs();
+        final float[] ys = polygon.getYs();
+        final int shift = this.antiAliased ? SAMPLE_SHIFT : 0;
+        final float rows = 1 << shift;
+        final int sampleCount = target.getHeight() << shift;
+        final int contourCount = polygon.getContourCount();
+        this.edgeCount = 0;
+        for (int contour = 0; contour < contourCount; contour++) {
+            final int start = polygon.getContourStart(contour);
+            final int end = polygon.getContourEnd(contour);
+            if (end - start < 2) {
+                continue;
+            }
+            int prev = end - 1;
+            for (int i = start; i < end; prev = i, i++) {
+                final float y0 = ys[prev];
+                final float y1 = ys[i];
+                final float top;
+                final float bottom;
+                final int direction;
+                if (y0 < y1) {
+                    top = y0;
+                    bottom = y1;
+                    direction = 1;
+                } else if (y1 < y0) {
+                    top = y1;
+                    bottom = y0;
+                    direction = -1;
+                } else {
+                    continue;
+                }
+
+                // sample row s is at y (s + 1/2) / rows, and crosses the
+                // edge if top <= y < bottom
+                final int first =
+                    Math.max(0, (int) Math.ceil(top * rows - 0.5f));
+                final int last =
+                    Math.min(sampleCount, (int) Math.ceil(bottom * rows
+                        - 0.5f));
+                if (first >= last) {
+                    continue;
+                }
+                final int edge = this.addEdge(first, last, direction);
+                final float x0 = xs[prev];
+                this.edgeX[edge] = x0;
+                this.edgeY[edge] = y0;
+                this.edgeSlopes[edge] = (xs[i] - x0) / (y1 - y0);
+            }
+        }
+        this.scan(false, rule, argb, target);
+    }
+
+    /**
+     * Fills a polygon of fixed-point coordinates with a color.
+     *
+     * @param polygon the polygon to fill, in the pixel coordinates of target,
+     * with coordinates within {@link FixedPathFlattener#MAX_COORD}
+     * @param rule the fill rule; either {@link #NONZERO} or {@link #EVENODD}
+     * @param argb the color with which to fill the polygon
+     * @param target the surface in which to fill the polygon; the polygon is
+     * clipped to its bounds
+     * @throws NullPointerException if polygon==null or target==null
+     * @see #fill(PolygonBuffer, int, int, RasterSurface)
+     */
+    public void fill(FixedPolygonBuffer polygon, int rule, int argb,
+            RasterSurface target) {
+        if ((argb >>> 24) == 0 || polygon.getPointCount() < 3) {
+            return;
+        }
+
+        // build the edge table, leaving out the edges that cross no sample
+        // row of the target
+        final int[] xs = polygon.getXs();
+        final int[] ys = polygon.getYs();
+        final int shift = this.antiAliased ? SAMPLE_SHIFT : 0;
+        final int sampleCount = target.getHeight() << shift;
+        final int contourCount = polygon.getContourCount();
+        this.edgeCount = 0;
+        for (int contour = 0; contour < contourCount; contour++) {
+            final int start = polygon.getContourStart(contour);
+            final int end = polygon.getContourEnd(contour);
+            if (end - start < 2) {
+                continue;
+            }
+            int prev = end - 1;
+            for (int i = start; i < end; prev = i, i++) {
+                final int y0 = ys[prev];
+                final int y1 = ys[i];
+                final int top;
+                final int bottom;
+                final int direction;
+                if (y0 < y1) {
+                    top = y0;
+                    bottom = y1;
+                    direction = 1;
+                } else if (y1 < y0) {
+                    top = y1;
+                    bottom = y0;
+                    direction = -1;
+                } else {
+                    continue;
+                }
+                final int first =
+                    Math.max(0, FixedMath.ceil((top << shift)
+                        - FixedMath.HALF));
+                final int last =
+                    Math.min(sampleCount, FixedMath.ceil((bottom << shift)
+                        - FixedMath.HALF));
+                if (first >= last) {
+                    continue;
+                }
+                final int edge = this.addEdge(first, last, direction);
+                final int x0 = xs[prev];
+                this.fixedEdgeX[edge] = x0;
+                this.fixedEdgeY[edge] = y0;
+                this.fixedEdgeSlopes[edge] =
+                    ((long) (xs[i] - x0) << FixedMath.SHIFT) / (y1 - y0);
+            }
+        }
+        this.scan(true, rule, argb, target);
+    }
+
+    /**
+     * Scans the sample rows crossed by the edges in the edge table, painting
+     * the spans inside the polygon.
+     *
+     * @param fixed true if the edges are in fixed point, false if they are in
+     * floats
+     */
+    private void scan(boolean fixed, int rule, int argb,
+            RasterSurface target) {
+        final int count = this.edgeCount;
+        if (count < 2) {
+            return;
+        }
+        this.sortEdges();
+        final boolean antiAliased = this.antiAliased;
+        final int shift = antiAliased ? SAMPLE_SHIFT : 0;
+        final int width = target.getWidth();
+        final int maxX = width << FixedMath.SHIFT;
+        if (antiAliased) {
+            this.ensureCoverage(width);
+        }
+        final int[] first = this.edgeFirst;
+        final int[] last = this.edgeLast;
+        final int[] directions = this.edgeDirections;
+        final int[] order = this.order;
+        final int[] active = this.active;
+        final int[] crossings = this.crossings;
+
+        int next = 0;
+        int activeCount = 0;
+        int dirtyRow = -1;
+        int dirtyX0 = 0;
+        int dirtyX1 = 0;
+        for (int sample = first[order[0]];; sample++) {
+            // drop the edges that end above this sample row
+            int kept = 0;
+            for (int i = 0; i < activeCount; i++) {
+                final int edge = active[i];
+                if (last[edge] > sample) {
+                    active[kept] = edge;
+                    crossings[kept] = crossings[i];
+                    kept++;
+                }
+            }
+            activeCount = kept;
+            if (activeCount == 0) {
+                if (next == count) {
+                    break;
+                }
+                // skip the sample rows that no edge crosses
+                sample = Math.max(sample, first[order[next]]);
+            }
+            while (next < count && first[order[next]] <= sample) {
+                active[activeCount++] = order[next++];
+            }
+
+            // blend the pixels of the previous row once it is scanned
+            final int row = sample >> shift;
+            if (dirtyRow >= 0 && dirtyRow != row) {
+                this.paintCoverage(dirtyRow, dirtyX0, dirtyX1, argb, target);
+                dirtyRow = -1;
+            }
+
+            // find the crossings, at y = (sample + 1/2) / rows, keeping the
+            // active edges sorted by them
+            final int sy = ((sample << 1) + 1) << (FixedMath.SHIFT - 1 - shift);
+            if (fixed) {
+                final int[] edgeX = this.fixedEdgeX;
+                final int[] edgeY = this.fixedEdgeY;
+                final long[] slopes = this.fixedEdgeSlopes;
+                for (int i = 0; i < activeCount; i++) {
+                    final int edge = active[i];
+                    final long x = edgeX[edge]
+                        + (((long) (sy - edgeY[edge]) * slopes[edge])
+                            >> FixedMath.SHIFT);
+                    crossings[i] = (int) Math.max(-FixedMath.ONE, Math.min(
+                        maxX + FixedMath.ONE, x));
+                }
+            } else {
+                final float[] edgeX = this.edgeX;
+                final float[] edgeY = this.edgeY;
+                final float[] slopes = this.edgeSlopes;
+                final float y = sy / (float) FixedMath.ONE;
+                final float limit = width + 1;
+                for (int i = 0; i < activeCount; i++) {
+                    final int edge = active[i];
+                    float x = edgeX[edge] + (y - edgeY[edge]) * slopes[edge];
+                    if (!(x > -1)) {
+                        x = -1; // including NaN
+                    } else if (x > limit) {
+                        x = limit;
+                    }
+                    crossings[i] = (int) (x * FixedMath.ONE);
+                }
+            }
+            for (int i = 1; i < activeCount; i++) {
+                final int edge = active[i];
+                final int x = crossings[i];
+                int j = i;
+                while (j > 0 && crossings[j - 1] > x) {
+                    crossings[j] = crossings[j - 1];
+                    active[j] = active[j - 1];
+                    j--;
+                }
+                crossings[j] = x;
+                active[j] = edge;
+            }
+
+            // paint or accumulate the spans that are inside
+            int winding = 0;
+            for (int i = 0; i < activeCount - 1; i++) {
+                winding += directions[active[i]];
+                final boolean inside =
+                    (rule == EVENODD) ? ((winding & 1) != 0) : (winding != 0);
+                if (!inside) {
+                    continue;
+                }
+                final int x0 = crossings[i];
+                final int x1 = crossings[i + 1];
+                if (!antiAliased) {
+                    final int column0 = FixedMath.ceil(x0 - FixedMath.HALF);
+                    final int column1 = FixedMath.ceil(x1 - FixedMath.HALF);
+                    if (column0 < width && column1 > 0) {
+                        target.blendSpan(row, column0, column1, argb);
+                    }
+                } else if (x0 < maxX && x1 > 0 && x0 < x1) {
+                    final int left = Math.max(0, x0);
+                    final int right = Math.min(maxX, x1);
+                    this.accumulate(left, right);
+                    final int column0 = left >> FixedMath.SHIFT;
+                    final int column1 = right >> FixedMath.SHIFT;
+                    if (dirtyRow < 0) {
+                        dirtyRow = row;
+                        dirtyX0 = column0;
+                        dirtyX1 = column1;
+                    } else {
+                        dirtyX0 = Math.min(dirtyX0, column0);
+                        dirtyX1 = Math.max(dirtyX1, column1);
+                    }
+                }
+            }
+        }
+        if (dirtyRow >= 0) {
+            this.paintCoverage(dirtyRow, dirtyX0, dirtyX1, argb, target);
+        }
+    }
+
+    /**
+     * Adds the coverage of a span of one sample row to the coverage buffer.
+     *
+     * @param x0 the left end of the span, in fixed point, within the target
+     * @param x1 the right end of the span, in fixed point, within the target
+     */
+    private void accumulate(int x0, int x1) {
+        final int column0 = x0 >> FixedMath.SHIFT;
+        final int column1 = x1 >> FixedMath.SHIFT;
+        final int mask = FixedMath.ONE - 1;
+        if (column0 == column1) {
+            this.cells[column0] +=
+                ((x1 - x0) * SAMPLE_COVERAGE) >> FixedMath.SHIFT;
+        } else {
+            this.cells[column0] += ((FixedMath.ONE - (x0 & mask))
+                * SAMPLE_COVERAGE) >> FixedMath.SHIFT;
+            this.runs[column0 + 1] += SAMPLE_COVERAGE;
+            this.runs[column1] -= SAMPLE_COVERAGE;
+            this.cells[column1] +=
+                ((x1 & mask) * SAMPLE_COVERAGE) >> FixedMath.SHIFT;
+        }
+    }
+
+    /**
+     * Blends the pixels of a row by their accumulated coverage, and clears
+     * the coverage buffer.
+     *
+     * @param row the row of pixels
+     * @param x0 the first column with coverage
+     * @param x1 the last column with coverage, which may be the width of the
+     * target
+     */
+    private void paintCoverage(int row, int x0, int x1, int argb,
+            RasterSurface target) {
+        final int[] cells = this.cells;
+        final int[] runs = this.runs;
+        final int width = target.getWidth();
+        int coverage = 0;
+        int fullStart = -1;
+        for (int x = x0; x <= x1; x++) {
+            coverage += runs[x];
+            final int pixel = coverage + cells[x];
+            runs[x] = 0;
+            cells[x] = 0;
+            if (pixel >= FULL_COVERAGE && x < width) {
+                if (fullStart < 0) {
+                    fullStart = x;
+                }
+                continue;
+            }
+            if (fullStart >= 0) {
+                target.blendSpan(row, fullStart, x, argb);
+                fullStart = -1;
+            }
+            if (pixel > 0 && x < width) {
+                target.blendPixel(x, row, argb, Math.min(255, pixel));
+            }
+        }
+        if (fullStart >= 0) {
+            target.blendSpan(row, fullStart, x1 + 1, argb);
+        }
+    }
+
+    /**
+     * Appends an edge to the edge table.
+     *
+     * @return the index of the edge
+     */
+    private int addEdge(int first, int last, int direction) {
+        final int edge = this.edgeCount;
+        if (edge == this.edgeFirst.length) {
+            this.ensureEdges(edge * 2);
+        }
+        this.edgeFirst[edge] = first;
+        this.edgeLast[edge] = last;
+        this.edgeDirections[edge] = direction;
+        this.edgeCount++;
+        return edge;
+    }
+
+    /**
+     * Sorts the indices of the edges in the edge table by the first sample
+     * row they cross, with a Shell sort, which needs no extra storage.
+     */
+    private void sortEdges() {
+        final int count = this.edgeCount;
+        final int[] order = this.order;
+        final int[] first = this.edgeFirst;
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        int gap = 1;
+        while (gap < count / 3) {
+            gap = gap * 3 + 1;
+        }
+        for (; gap > 0; gap /= 3) {
+            for (int i = gap; i < count; i++) {
+                final int edge = order[i];
+                final int key = first[edge];
+                int j = i;
+                while (j >= gap && first[order[j - gap]] > key) {
+                    order[j] = order[j - gap];
+                    j -= gap;
+                }
+                order[j] = edge;
+            }
+        }
+    }
+
+    /**
+     * Grows the edge table and the active edge buffers to hold at least the
+     * given number of edges.
+     */
+    private void ensureEdges(int capacity) {
+        final int length = this.edgeFirst.length;
+        if (capacity <= length) {
+            return;
+        }
+        this.edgeFirst = grow(this.edgeFirst, capacity);
+        this.edgeLast = grow(this.edgeLast, capacity);
+        this.edgeDirections = grow(this.edgeDirections, capacity);
+        this.fixedEdgeX = grow(this.fixedEdgeX, capacity);
+        this.fixedEdgeY = grow(this.fixedEdgeY, capacity);
+        final long[] slopes = new long[capacity];
+        System.arraycopy(this.fixedEdgeSlopes, 0, slopes, 0, length);
+        this.fixedEdgeSlopes = slopes;
+        this.edgeX = grow(this.edgeX, capacity);
+        this.edgeY = grow(this.edgeY, capacity);
+        this.edgeSlopes = grow(this.edgeSlopes, capacity);
+        // the other arrays are filled for each polygon and need no copying
+        this.order = new int[capacity];
+        this.active = new int[capacity];
+        this.crossings = new int[capacity];
+    }
+
+    /**
+     * Grows the coverage buffer to hold a row of the given width.
+     */
+    private void ensureCoverage(int width) {
+        // the right end of a span may be at the width of the target
+        if (this.cells.length < width + 2) {
+            this.cells = new int[width + 2];
+            this.runs = new int[width + 2];
+        }
+    }
+
+    /**
+     * Returns a copy of an array with a greater length.
+     */
+    private static int[] grow(int[] array, int length) {
+        final int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    /**
+     * Returns a copy of an array with a greater length.
+     */
+    private static float[] grow(float[] array, int length) {
+        final float[] copy = new float[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
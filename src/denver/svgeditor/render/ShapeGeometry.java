@@ -0,0 +1,371 @@
+/*
+ * ShapeGeometry.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.PathData;
+
+/**
+ * Produces the device-space outline of the basic shapes and paths of an
+ * {@link SVGDocument}. Paths, polylines and polygons are flattened directly
+ * from the document's path pool; the other shapes are first described as
+ * path data in a scratch buffer that is reused between invocations. Outlines
+ * may be flattened with floats or with 16.16 fixed point.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class ShapeGeometry {
+
+    /**
+     * The distance of the control points of a cubic Bezier curve from the
+     * ends of a quarter circle of radius 1.
+     */
+    private static final float KAPPA = 0.5522848f;
+
+    /**
+     * Returned by {@link #describe(SVGDocument, int)} if the outline is in
+     * the scratch buffer.
+     */
+    private static final int SCRATCH = -1;
+
+    /**
+     * Returned by {@link #describe(SVGDocument, int)} if there is no outline.
+     */
+    private static final int NO_OUTLINE = -2;
+
+    private final PathData scratch;
+    private final PathFlattener flattener;
+    private final FixedPathFlattener fixedFlattener;
+
+    private NameTable names;
+    private int xId;
+    private int yId;
+    private int widthId;
+    private int heightId;
+    private int rxId;
+    private int ryId;
+    private int cxId;
+    private int cyId;
+    private int rId;
+    private int x1Id;
+    private int y1Id;
+    private int x2Id;
+    private int y2Id;
+    private int dId;
+    private int pointsId;
+
+    /**
+     * Creates a new instance of <code>ShapeGeometry</code>.
+     */
+    public ShapeGeometry() {
+        this.scratch = new PathData();
+        this.flattener = new PathFlattener();
+        this.fixedFlattener = new FixedPathFlattener();
+    }
+
+    /**
+     * Returns the flattener used to convert curves to line segments.
+     *
+     * @return the flattener, whose tolerance may be changed; never returns
+     * null
+     */
+    public PathFlattener getFlattener() {
+        return this.flattener;
+    }
+
+    /**
+     * Returns the flattener used to convert curves to line segments in fixed
+     * point.
+     *
+     * @return the fixed-point flattener, whose tolerance may be changed;
+     * never returns null
+     */
+    public FixedPathFlattener getFixedFlattener() {
+        return this.fixedFlattener;
+    }
+
+    /**
+     * Returns whether an attribute is one from which the outline of a shape
+     * is computed, so that changing it changes the shape's outline.
+     *
+     * @param document the document containing the attribute
+     * @param nameId the ID of the attribute's name in the document's
+     * NameTable
+     * @return true if the attribute is <code>d</code>, <code>points</code>
+     * or one of the attributes that position and size the basic shapes,
+     * false otherwise
+     * @throws NullPointerException if document==null
+     */
+    public boolean isGeometryAttribute(SVGDocument document, int nameId) {
+        this.prepareNames(document.getNameTable());
+        return nameId == this.dId || nameId == this.pointsId
+            || nameId == this.xId || nameId == this.yId
+            || nameId == this.widthId || nameId == this.heightId
+            || nameId == this.rxId || nameId == this.ryId
+            || nameId == this.cxId || nameId == this.cyId
+            || nameId == this.rId || nameId == this.x1Id
+            || nameId == this.y1Id || nameId == this.x2Id
+            || nameId == this.y2Id;
+    }
+
+    /**
+     * Flattens the outline of a shape into device coordinates.
+     *
+     * @param document the document containing the shape
+     * @param element the index of the shape element
+     * @param matrix the transformation from the shape's user coordinates to
+     * device coordinates
+     * @param out the buffer to which to append the outline's contours
+     * @return true if the element is a shape with a non-empty outline, false
+     * otherwise
+     * @throws NullPointerException if any object argument is null
+     */
+    public boolean flatten(SVGDocument document, int element, Matrix matrix,
+            PolygonBuffer out) {
+        final int path = this.describe(document, element);
+        if (path == NO_OUTLINE) {
+            return false;
+        } else if (path == SCRATCH) {
+            this.flattener.flatten(this.scratch, matrix, out);
+            return true;
+        }
+        final PathData pool = document.getPathPool();
+        this.flattener.flatten(pool.getCommands(), document
+            .getPathCommandStart(path), document.getPathCommandCount(path),
+            pool.getCoords(), document.getPathCoordStart(path), matrix, out);
+        return (document.getPathCommandCount(path) > 0);
+    }
+
+    /**
+     * Flattens the outline of a shape into fixed-point device coordinates.
+     *
+     * @param document the document containing the shape
+     * @param element the index of the shape element
+     * @param matrix the transformation from the shape's user coordinates to
+     * device coordinates
+     * @param out the buffer to which to append the outline's contours
+     * @return true if the element is a shape with a non-empty outline, false
+     * if it is not or if its coordinates are out of the range of
+     * {@link FixedPathFlattener}, in which case out may hold some of its
+     * contours and it should be flattened with floats instead
+     * @throws NullPointerException if any object argument is null
+     */
+    public boolean flatten(SVGDocument document, int element,
+            FixedMatrix matrix, FixedPolygonBuffer out) {
+        final int path = this.describe(document, element);
+        if (path == NO_OUTLINE) {
+            return false;
+        } else if (path == SCRATCH) {
+            return this.fixedFlattener.flatten(this.scratch, matrix, out);
+        }
+        final PathData pool = document.getPathPool();
+        return this.fixedFlattener.flatten(pool.getCommands(), document
+            .getPathCommandStart(path), document.getPathCommandCount(path),
+            pool.getCoords(), document.getPathCoordStart(path), matrix, out)
+            && (document.getPathCommandCount(path) > 0);
+    }
+
+    /**
+     * Finds the path data describing the outline of a shape, describing it in
+     * the scratch buffer if the shape is not a path or polyline.
+     *
+     * @return the index in the document's path pool of the outline,
+     * {@link #SCRATCH} if the outline is in the scratch buffer, or
+     * {@link #NO_OUTLINE} if the element is not a shape or its outline is
+     * empty
+     */
+    private int describe(SVGDocument document, int element) {
+        this.prepareNames(document.getNameTable());
+        final byte kind = document.getKind(element);
+        final PathData data = this.scratch;
+        data.reset();
+
+        switch (kind) {
+        case ElementKind.PATH:
+        case ElementKind.POLYLINE: {
+            final int path = document.getPath(element);
+            return (path < 0) ? NO_OUTLINE : path;
+        }
+        case ElementKind.POLYGON: {
+            final int path = document.getPath(element);
+            if (path < 0) {
+                return NO_OUTLINE;
+            }
+            document.getPathData(path, data);
+            data.addCommand('Z');
+            break;
+        }
+        case ElementKind.RECT:
+            if (!this.rect(document, element, data)) {
+                return NO_OUTLINE;
+            }
+            break;
+        case ElementKind.CIRCLE: {
+            final float r = document.getNumber(element, this.rId, 0);
+            if (!(r > 0)) {
+                return NO_OUTLINE;
+            }
+            ellipse(document.getNumber(element, this.cxId, 0), document
+                .getNumber(element, this.cyId, 0), r, r, data);
+            break;
+        }
+        case ElementKind.ELLIPSE: {
+            final float rx = document.getNumber(element, this.rxId, 0);
+            final float ry = document.getNumber(element, this.ryId, 0);
+            if (!(rx > 0 && ry > 0)) {
+                return NO_OUTLINE;
+            }
+            ellipse(document.getNumber(element, this.cxId, 0), document
+                .getNumber(element, this.cyId, 0), rx, ry, data);
+            break;
+        }
+        case ElementKind.LINE:
+            data.addCommand('M');
+            data.addCoord(document.getNumber(element, this.x1Id, 0));
+            data.addCoord(document.getNumber(element, this.y1Id, 0));
+            data.addCommand('L');
+            data.addCoord(document.getNumber(element, this.x2Id, 0));
+            data.addCoord(document.getNumber(element, this.y2Id, 0));
+            break;
+        default:
+            return NO_OUTLINE;
+        }
+        return SCRATCH;
+    }
+
+    /**
+     * Describes a rect element as path data, with rounded corners if it has
+     * rx or ry attributes.
+     *
+     * @return true if the rect has a positive width and height
+     */
+    private boolean rect(SVGDocument document, int element, PathData data) {
+        final float x = document.getNumber(element, this.xId, 0);
+        final float y = document.getNumber(element, this.yId, 0);
+        final float w = document.getNumber(element, this.widthId, 0);
+        final float h = document.getNumber(element, this.heightId, 0);
+        if (!(w > 0 && h > 0)) {
+            return false;
+        }
+        float rx = document.getNumber(element, this.rxId, -1);
+        float ry = document.getNumber(element, this.ryId, -1);
+        if (rx < 0) {
+            rx = (ry < 0) ? 0 : ry;
+        }
+        if (ry < 0) {
+            ry = rx;
+        }
+        rx = Math.min(rx, w / 2);
+        ry = Math.min(ry, h / 2);
+
+        if (rx == 0 || ry == 0) {
+            moveTo(data, x, y);
+            lineTo(data, x + w, y);
+            lineTo(data, x + w, y + h);
+            lineTo(data, x, y + h);
+        } else {
+            final float kx = rx * KAPPA;
+            final float ky = ry * KAPPA;
+            final float r = x + w;
+            final float b = y + h;
+            moveTo(data, x + rx, y);
+            lineTo(data, r - rx, y);
+            cubicTo(data, r - rx + kx, y, r, y + ry - ky, r, y + ry);
+            lineTo(data, r, b - ry);
+            cubicTo(data, r, b - ry + ky, r - rx + kx, b, r - rx, b);
+            lineTo(data, x + rx, b);
+            cubicTo(data, x + rx - kx, b, x, b - ry + ky, x, b - ry);
+            lineTo(data, x, y + ry);
+            cubicTo(data, x, y + ry - ky, x + rx - kx, y, x + rx, y);
+        }
+        data.addCommand('Z');
+        return true;
+    }
+
+    /**
+     * Describes an ellipse as four cubic Bezier curves.
+     */
+    private static void ellipse(float cx, float cy, float rx, float ry,
+            PathData data) {
+        final float kx = rx * KAPPA;
+        final float ky = ry * KAPPA;
+        moveTo(data, cx + rx, cy);
+        cubicTo(data, cx + rx, cy + ky, cx + kx, cy + ry, cx, cy + ry);
+        cubicTo(data, cx - kx, cy + ry, cx - rx, cy + ky, cx - rx, cy);
+        cubicTo(data, cx - rx, cy - ky, cx - kx, cy - ry, cx, cy - ry);
+        cubicTo(data, cx + kx, cy - ry, cx + rx, cy - ky, cx + rx, cy);
+        data.addCommand('Z');
+    }
+
+    private static void moveTo(PathData data, float x, float y) {
+        data.addCommand('M');
+        data.addCoord(x);
+        data.addCoord(y);
+    }
+
+    private static void lineTo(PathData data, float x, float y) {
+        data.addCommand('L');
+        data.addCoord(x);
+        data.addCoord(y);
+    }
+
+    private static void cubicTo(PathData data, float x1, float y1, float x2,
+            float y2, float x, float y) {
+        data.addCommand('C');
+        data.addCoord(x1);
+        data.addCoord(y1);
+        data.addCoord(x2);
+        data.addCoord(y2);
+        data.addCoord(x);
+        data.addCoord(y);
+    }
+
+    /**
+     * Looks up the IDs of the geometry attributes in a NameTable, if it is not
+     * the table whose IDs were looked up most recently.
+     */
+    private void prepareNames(NameTable names) {
+        if (names == this.names) {
+            return;
+        }
+        this.xId = names.intern("x");
+        this.yId = names.intern("y");
+        this.widthId = names.intern("width");
+        this.heightId = names.intern("height");
+        this.rxId = names.intern("rx");
+        this.ryId = names.intern("ry");
+        this.cxId = names.intern("cx");
+        this.cyId = names.intern("cy");
+        this.rId = names.intern("r");
+        this.x1Id = names.intern("x1");
+        this.y1Id = names.intern("y1");
+        this.x2Id = names.intern("x2");
+        this.y2Id = names.intern("y2");
+        this.dId = names.intern("d");
+        this.pointsId = names.intern("points");
+        this.names = names;
+    }
+}
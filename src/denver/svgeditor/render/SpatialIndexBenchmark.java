@@ -0,0 +1,168 @@
+/*
+ * SpatialIndexBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import java.util.Random;
+
+/**
+ * Measures the speed of an {@link RTree} on a synthetic drawing of small
+ * boxes scattered over a large page, and compares its point queries with a
+ * linear scan of the same boxes.
+ */
+public class SpatialIndexBenchmark {
+
+    /**
+     * The width and height of the synthetic page.
+     */
+    private static final float PAGE_SIZE = 10000;
+
+    /**
+     * The maximum width and height of each synthetic box.
+     */
+    private static final float MAX_BOX_SIZE = 60;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private SpatialIndexBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param elementCount the number of boxes to index
+     * @param queryCount the number of each kind of query to time
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int elementCount, int queryCount) {
+        final Random random = new Random(1);
+        final ElementBounds bounds = new ElementBounds();
+        bounds.reset(elementCount);
+        final int[] elements = new int[elementCount];
+        for (int i = 0; i < elementCount; i++) {
+            final float x = random.nextFloat() * PAGE_SIZE;
+            final float y = random.nextFloat() * PAGE_SIZE;
+            bounds.include(i, x, y, x + random.nextFloat() * MAX_BOX_SIZE, y
+                + random.nextFloat() * MAX_BOX_SIZE);
+            elements[i] = i;
+        }
+
+        final StringBuffer report = new StringBuffer();
+        report.append(elementCount).append(" elements\n");
+
+        // bulk load
+        final RTree tree = new RTree();
+        long start = System.currentTimeMillis();
+        tree.load(bounds, elements, elementCount);
+        long elapsed = System.currentTimeMillis() - start;
+        report.append("Bulk load: ").append(elapsed).append(" ms, height ")
+            .append(tree.getHeight()).append('\n');
+
+        // incremental insertion
+        final RTree incremental = new RTree();
+        final float[] box = new float[4];
+        start = System.currentTimeMillis();
+        for (int i = 0; i < elementCount; i++) {
+            bounds.getBounds(i, box);
+            incremental.update(i, box[0], box[1], box[2], box[3]);
+        }
+        elapsed = System.currentTimeMillis() - start;
+        report.append("Incremental build: ").append(elapsed).append(" ms\n");
+
+        // point queries against a linear scan
+        final float[] xs = new float[queryCount];
+        final float[] ys = new float[queryCount];
+        for (int i = 0; i < queryCount; i++) {
+            xs[i] = random.nextFloat() * PAGE_SIZE;
+            ys[i] = random.nextFloat() * PAGE_SIZE;
+        }
+        int treeHits = 0;
+        start = System.currentTimeMillis();
+        for (int i = 0; i < queryCount; i++) {
+            if (tree.hitTest(xs[i], ys[i], 2) >= 0) {
+                treeHits++;
+            }
+        }
+        final long treeMillis = System.currentTimeMillis() - start;
+
+        int scanHits = 0;
+        start = System.currentTimeMillis();
+        for (int i = 0; i < queryCount; i++) {
+            if (linearHitTest(bounds, xs[i], ys[i], 2) >= 0) {
+                scanHits++;
+            }
+        }
+        final long scanMillis = System.currentTimeMillis() - start;
+        appendRate(report, "Hit test", treeMillis, queryCount);
+        appendRate(report, "Linear scan", scanMillis, queryCount);
+        if (treeHits != scanHits) {
+            report.append("MISMATCH: ").append(treeHits).append(" vs ")
+                .append(scanHits).append(" hits\n");
+        }
+
+        // viewport-sized rectangle queries
+        long found = 0;
+        start = System.currentTimeMillis();
+        for (int i = 0; i < queryCount; i++) {
+            found += tree.query(xs[i], ys[i], xs[i] + 480, ys[i] + 360);
+        }
+        elapsed = System.currentTimeMillis() - start;
+        appendRate(report, "Viewport query", elapsed, queryCount);
+        report.append("  avg ").append(found / Math.max(1, queryCount))
+            .append(" elements\n");
+
+        // moves
+        start = System.currentTimeMillis();
+        for (int i = 0; i < queryCount; i++) {
+            final int element = random.nextInt(elementCount);
+            tree.update(element, xs[i], ys[i], xs[i] + 10, ys[i] + 10);
+        }
+        elapsed = System.currentTimeMillis() - start;
+        appendRate(report, "Move", elapsed, queryCount);
+        return report.toString();
+    }
+
+    /**
+     * Finds the topmost box containing a point by examining every box.
+     */
+    private static int linearHitTest(ElementBounds bounds, float x, float y,
+            float tolerance) {
+        for (int i = bounds.getElementCount() - 1; i >= 0; i--) {
+            if (bounds.intersects(i, x - tolerance, y - tolerance, x
+                + tolerance, y + tolerance)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Appends the average time of an operation to a report.
+     */
+    private static void appendRate(StringBuffer report, String label,
+            long millis, int count) {
+        final long micros = millis * 1000 / Math.max(1, count);
+        report.append(label).append(": ").append(micros).append(" us each\n");
+    }
+}
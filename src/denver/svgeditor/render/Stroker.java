@@ -0,0 +1,175 @@
+/*
+ * Stroker.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * Converts the contours of a {@link PolygonBuffer} into polygons that cover
+ * their stroke. Each segment becomes a quadrilateral and each vertex a bevel
+ * join, all with the same orientation, so that filling the result with the
+ * nonzero rule paints their union.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class Stroker {
+
+    private final float[] quadX;
+    private final float[] quadY;
+    private boolean joined;
+
+    /**
+     * Creates a new instance of <code>Stroker</code>.
+     */
+    public Stroker() {
+        this.quadX = new float[4];
+        this.quadY = new float[4];
+        this.joined = true;
+    }
+
+    /**
+     * Returns whether consecutive segments are joined.
+     *
+     * @return true if a bevel join is added at each vertex
+     */
+    public boolean isJoined() {
+        return this.joined;
+    }
+
+    /**
+     * Sets whether consecutive segments are joined, which they are by
+     * default. Without joins a stroke is about half as many polygons, with
+     * notches at its corners that are hardly visible on thin strokes.
+     *
+     * @param joined true to add a bevel join at each vertex, false to stroke
+     * only the segments
+     */
+    public void setJoined(boolean joined) {
+        this.joined = joined;
+    }
+
+    /**
+     * Strokes the contours of a polygon buffer.
+     * 
+     * @param in the contours to stroke
+     * @param width the width of the stroke, in the same coordinates as the
+     * contours
+     * @param out the buffer to which to append the stroke polygons; it must
+     * not be the same object as in
+     * @throws NullPointerException if in==null or out==null
+     */
+    public void stroke(PolygonBuffer in, float width, PolygonBuffer out) {
+        if (!(width > 0)) {
+            return;
+        }
+        final float half = width / 2;
+        final float[] xs = in.getXs();
+        final float[] ys = in.getYs();
+        for (int contour = 0; contour < in.getContourCount(); contour++) {
+            final int start = in.getContourStart(contour);
+            final int end = in.getContourEnd(contour);
+            final boolean closed = in.isContourClosed(contour);
+            final int count = end - start;
+            if (count < 2) {
+                continue;
+            }
+            final int segments = closed ? count : count - 1;
+
+            float prevNx = 0;
+            float prevNy = 0;
+            for (int s = 0; s < segments; s++) {
+                final int i0 = start + s;
+                final int i1 = (s + 1 == count) ? start : i0 + 1;
+                final float x0 = xs[i0];
+                final float y0 = ys[i0];
+                final float x1 = xs[i1];
+                final float y1 = ys[i1];
+                final float length = FloatMath.hypot(x1 - x0, y1 - y0);
+                if (length == 0) {
+                    continue;
+                }
+                final float nx = -(y1 - y0) / length * half;
+                final float ny = (x1 - x0) / length * half;
+                this.addQuad(out, x0 + nx, y0 + ny, x1 + nx, y1 + ny, x1 - nx,
+                    y1 - ny, x0 - nx, y0 - ny);
+                if (s > 0 && this.joined) {
+                    this.addQuad(out, x0 + prevNx, y0 + prevNy, x0 + nx, y0
+                        + ny, x0 - prevNx, y0 - prevNy, x0 - nx, y0 - ny);
+                }
+                prevNx = nx;
+                prevNy = ny;
+            }
+
+            if (closed && this.joined) {
+                // join the last segment to the first
+                final float x0 = xs[start];
+                final float y0 = ys[start];
+                final float length =
+                    FloatMath.hypot(xs[start + 1] - x0, ys[start + 1] - y0);
+                if (length > 0) {
+                    final float nx = -(ys[start + 1] - y0) / length * half;
+                    final float ny = (xs[start + 1] - x0) / length * half;
+                    this.addQuad(out, x0 + prevNx, y0 + prevNy, x0 + nx, y0
+                        + ny, x0 - prevNx, y0 - prevNy, x0 - nx, y0 - ny);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a quadrilateral to the output with positive orientation.
+     */
+    private void addQuad(PolygonBuffer out, float x0, float y0, float x1,
+            float y1, float x2, float y2, float x3, float y3) {
+        final float[] qx = this.quadX;
+        final float[] qy = this.quadY;
+        qx[0] = x0;
+        qy[0] = y0;
+        qx[1] = x1;
+        qy[1] = y1;
+        qx[2] = x2;
+        qy[2] = y2;
+        qx[3] = x3;
+        qy[3] = y3;
+
+        float area = 0;
+        for (int i = 0; i < 4; i++) {
+            final int j = (i + 1) & 3;
+            area += qx[i] * qy[j] - qx[j] * qy[i];
+        }
+        if (area == 0) {
+            return;
+        }
+        if (area > 0) {
+            out.moveTo(x0, y0);
+            out.lineTo(x1, y1);
+            out.lineTo(x2, y2);
+            out.lineTo(x3, y3);
+        } else {
+            out.moveTo(x3, y3);
+            out.lineTo(x2, y2);
+            out.lineTo(x1, y1);
+            out.lineTo(x0, y0);
+        }
+        out.close();
+    }
+}
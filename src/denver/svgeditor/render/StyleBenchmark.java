@@ -0,0 +1,204 @@
+/*
+ * StyleBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * Measures the speed of {@link StyleSheet} and {@link StyleResolver} on a
+ * synthetic drawing of rectangles in groups, each rectangle having one of
+ * many classes, each class having a rule. Matching every rule against every
+ * element is compared with matching through the index; resolving every
+ * style with an empty cache is compared with resolving them again from the
+ * cache; and one class rule is edited, after which only the elements of that
+ * class should be affected. The styles resolved after the edit are checked
+ * against those of a new resolver.
+ */
+public class StyleBenchmark {
+
+    /**
+     * The number of rectangles in each group.
+     */
+    private static final int GROUP_SIZE = 100;
+
+    /**
+     * The fill that the edited rule is given.
+     */
+    private static final int EDITED_FILL = 0xFFFF8000;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StyleBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param elementCount the number of rectangles in the drawing
+     * @param ruleCount the number of class rules in the style sheet
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int elementCount, int ruleCount) {
+        final int classCount = Math.max(1, ruleCount);
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        final int style = document.createElement(root, "style");
+        final int textId =
+            document.getNameTable().intern(SVGDocument.TEXT_ATTRIBUTE);
+        document.setText(style, createStyleSheet(classCount, -1));
+        int group = SVGDocument.NONE;
+        for (int i = 0; i < elementCount; i++) {
+            if (i % GROUP_SIZE == 0) {
+                group = document.createElement(root, "g");
+                document.setAttribute(group, "class", "layer");
+            }
+            final int rect = document.createElement(group, "rect");
+            document.setAttribute(rect, "class", "c" + (i % classCount)
+                + " shape");
+            document.setAttribute(rect, "width", "10");
+            document.setAttribute(rect, "height", "10");
+        }
+
+        final StringBuffer report = new StringBuffer();
+        report.append(document.getElementCount()).append(" elements, ")
+            .append(classCount).append(" class rules\n");
+
+        // match every rule against every element, then through the index
+        final StyleResolver styles = new StyleResolver();
+        final StyleSheet sheet = styles.getStyleSheet(document);
+        final int count = document.getElementCount();
+        final int rules = sheet.getRuleCount();
+        long start = System.currentTimeMillis();
+        int naiveMatches = 0;
+        for (int element = 0; element < count; element++) {
+            for (int i = 0; i < rules; i++) {
+                if (sheet.matches(document, element, sheet.getRule(i))) {
+                    naiveMatches++;
+                }
+            }
+        }
+        final long naiveMillis = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        int indexedMatches = 0;
+        for (int element = 0; element < count; element++) {
+            indexedMatches += sheet.match(document, element);
+        }
+        final long indexedMillis = System.currentTimeMillis() - start;
+        report.append("Match all rules: ").append(naiveMillis).append(
+            " ms; indexed: ").append(indexedMillis).append(" ms\n");
+        if (naiveMatches != indexedMatches) {
+            report.append("MISMATCH: ").append(naiveMatches).append(
+                " matches, indexed ").append(indexedMatches).append('\n');
+        }
+
+        // resolve every style, then again from the cache
+        final int[] fills = new int[count];
+        start = System.currentTimeMillis();
+        resolveAll(document, styles, fills);
+        final long coldMillis = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        resolveAll(document, styles, fills);
+        final long warmMillis = System.currentTimeMillis() - start;
+        report.append("Resolve: ").append(coldMillis).append(
+            " ms; cached: ").append(warmMillis).append(" ms\n");
+
+        // edit the rule of one class
+        document.setText(style, createStyleSheet(classCount, 0));
+        start = System.currentTimeMillis();
+        final int affected = styles.elementChanged(document, style, textId);
+        final long editMillis = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        resolveAll(document, styles, fills);
+        final long afterMillis = System.currentTimeMillis() - start;
+        report.append("Edit one rule: ").append(affected).append(
+            " affected, ").append(editMillis).append(" ms; resolve ").append(
+            afterMillis).append(" ms\n");
+
+        final int[] expected = new int[count];
+        resolveAll(document, new StyleResolver(), expected);
+        int mismatches = 0;
+        int edited = 0;
+        for (int element = 0; element < count; element++) {
+            if (fills[element] != expected[element]) {
+                mismatches++;
+            } else if (fills[element] == EDITED_FILL) {
+                edited++;
+            }
+        }
+        if (mismatches > 0 || edited == 0) {
+            report.append("MISMATCH: ").append(mismatches).append(
+                " stale styles, ").append(edited).append(" edited\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Creates the text of the style sheet: a rule for the shapes in layers,
+     * and one rule for each class that gives it its own fill.
+     *
+     * @param classCount the number of classes
+     * @param editedClass the class whose rule gives {@link #EDITED_FILL}, or
+     * -1 for none
+     * @return the text of the style sheet; never returns null
+     */
+    private static String createStyleSheet(int classCount, int editedClass) {
+        final StringBuffer css = new StringBuffer();
+        css.append("g.layer > rect { stroke: black; stroke-width: 0.5 }\n");
+        for (int i = 0; i < classCount; i++) {
+            final int fill = ((i == editedClass) ? EDITED_FILL
+                : (i * 0x010305)) & 0xFFFFFF;
+            final String hex = Integer.toHexString(0x1000000 | fill);
+            css.append(".c").append(i).append(" { fill: #").append(
+                hex.substring(1)).append("; fill-opacity: 0.9 }\n");
+        }
+        return css.toString();
+    }
+
+    /**
+     * Resolves the styles of every element in the tree, recording the fill
+     * color of each.
+     */
+    private static void resolveAll(SVGDocument document,
+            StyleResolver styles, int[] fills) {
+        final RenderStyle parent = new RenderStyle();
+        final RenderStyle style = new RenderStyle();
+        final RenderStyle shapeStyle = new RenderStyle();
+        final int root = document.getRoot();
+        styles.resolve(document, root, parent, parent);
+        int group = document.getFirstChild(root);
+        for (; group != SVGDocument.NONE; group =
+            document.getNextSibling(group)) {
+            styles.resolve(document, group, parent, style);
+            fills[group] = style.fill;
+            int shape = document.getFirstChild(group);
+            for (; shape != SVGDocument.NONE; shape =
+                document.getNextSibling(shape)) {
+                styles.resolve(document, shape, style, shapeStyle);
+                fills[shape] = shapeStyle.fill;
+            }
+        }
+    }
+}
@@ -0,0 +1,857 @@
+/*
+ * StyleResolver.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import java.util.Hashtable;
+import java.util.Vector;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.NumberScanner;
+
+/**
+ * Computes the {@link RenderStyle} of elements from their presentation
+ * attributes, the rules of the document's {@link StyleSheet} that match
+ * them, and their <code>style</code> attributes, each of which takes
+ * precedence over the one before. Paint servers referenced with
+ * <code>url(#id)</code> are approximated by the average color of their
+ * gradient stops, which is cached per document.
+ * <p>
+ * The properties that each element sets itself are worked out once and
+ * cached in a pool of ints, so that rendering the element again only copies
+ * them over those inherited from its parent. The cache is kept up to date by
+ * {@link #elementChanged(SVGDocument, int, int)}, which discards only the
+ * entries that a change can affect: an edit to a <code>style</code> element
+ * discards the entries of the elements matched by the rules that were added,
+ * removed or changed, rather than every entry.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class StyleResolver {
+
+    private static final int FILL = 0;
+    private static final int FILL_OPACITY = 1;
+    private static final int FILL_RULE = 2;
+    private static final int STROKE = 3;
+    private static final int STROKE_OPACITY = 4;
+    private static final int STROKE_WIDTH = 5;
+    private static final int OPACITY = 6;
+    private static final int DISPLAY = 7;
+    private static final int VISIBILITY = 8;
+    private static final int STOP_COLOR = 9;
+    private static final int STOP_OPACITY = 10;
+
+    private static final String[] PROPERTIES = {
+        "fill", "fill-opacity", "fill-rule", "stroke", "stroke-opacity",
+        "stroke-width", "opacity", "display", "visibility", "stop-color",
+        "stop-opacity" };
+
+    /**
+     * The bit of a cache mask which is set for every element whose entry is
+     * cached; the other bits are those of the properties it sets.
+     */
+    private static final int CACHED = 0x80000000;
+
+    /**
+     * The color returned when a paint value leaves the inherited paint
+     * unchanged; no color parsed or averaged is transparent but not black.
+     */
+    private static final int UNSET_PAINT = 0x00FFFFFF;
+
+    /**
+     * The maximum number of xlink:href references followed to find the stops
+     * of a gradient.
+     */
+    private static final int MAX_HREF_DEPTH = 8;
+
+    private final int[] propertyIds;
+    private final NumberScanner scanner;
+    private final RenderStyle stopStyle;
+    private final int[] declared;
+    private StyleResolver stopResolver;
+    private boolean nested;
+
+    private SVGDocument document;
+    private int styleId;
+    private int hrefId;
+    private int idId;
+    private int classId;
+    private Hashtable paintCache;
+    private StyleSheet sheet;
+    private boolean displayed;
+    private int stopColor;
+    private float stopOpacity;
+    private int declaredMask;
+
+    // the cache of the properties set by each element
+    private int[] masks;
+    private int[] offsets;
+    private int[] pool;
+    private int poolLength;
+    private int poolGarbage;
+    private int[] affected;
+    private int affectedCount;
+
+    /**
+     * Creates a new instance of <code>StyleResolver</code>.
+     */
+    public StyleResolver() {
+        this.propertyIds = new int[PROPERTIES.length];
+        this.scanner = new NumberScanner();
+        this.stopStyle = new RenderStyle();
+        this.declared = new int[PROPERTIES.length];
+        this.masks = new int[0];
+        this.offsets = new int[0];
+        this.pool = new int[0];
+        this.affected = new int[16];
+    }
+
+    /**
+     * Discards the cached paint server colors, style sheet and element
+     * styles. This must be invoked after a change to the current document
+     * that is not reported to {@link #elementChanged(SVGDocument, int, int)}.
+     */
+    public void invalidate() {
+        this.paintCache = null;
+        this.sheet = null;
+        this.masks = new int[0];
+        this.offsets = new int[0];
+        this.pool = new int[0];
+        this.poolLength = 0;
+        this.poolGarbage = 0;
+        if (this.stopResolver != null) {
+            this.stopResolver.invalidate();
+        }
+    }
+
+    /**
+     * Replaces the current document with a later frozen copy of the same
+     * document, keeping everything cached for it. Each change made to the
+     * document between the two copies must then be reported to
+     * {@link #elementChanged(SVGDocument, int, int)} with the later copy.
+     * This method does nothing if no document is current.
+     *
+     * @param document the later copy of the current document
+     * @throws NullPointerException if document==null
+     * @see SVGDocument#freeze()
+     */
+    public void replaceDocument(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (this.document == null || document == this.document) {
+            return;
+        }
+        this.lookUpNames(document);
+        this.document = document;
+        if (this.stopResolver != null) {
+            this.stopResolver.replaceDocument(document);
+        }
+    }
+
+    /**
+     * Discards the cached styles that a change to the current document can
+     * affect. The elements other than the changed element and its
+     * descendants whose styles may have changed, such as those matched by a
+     * rule of an edited <code>style</code> element, are then returned by
+     * {@link #getAffectedElement(int)}. A change to a gradient or its stops
+     * discards every cached style.
+     *
+     * @param document the document that changed; nothing is done unless it
+     * is the document whose styles were most recently computed
+     * @param element the index of the element that was created, moved or
+     * changed
+     * @param nameId the ID of the name of the attribute that was changed, or
+     * -1 if the element was created, removed or put back
+     * @return the number of other elements whose styles may have changed, or
+     * -1 if the styles of every element may have changed
+     * @throws NullPointerException if document==null
+     */
+    public int elementChanged(SVGDocument document, int element, int nameId) {
+        this.affectedCount = 0;
+        if (document != this.document) {
+            return 0;
+        }
+        final boolean structural = (nameId < 0);
+        boolean styles = false;
+        for (int e = element; e != SVGDocument.NONE; e =
+            structural ? StyleSheet.next(document, e, element)
+                : SVGDocument.NONE) {
+            final byte kind = document.getKind(e);
+            if (kind == ElementKind.LINEAR_GRADIENT
+                || kind == ElementKind.RADIAL_GRADIENT
+                || kind == ElementKind.STOP) {
+                this.invalidate();
+                return -1;
+            }
+            if (kind == ElementKind.TEXT_NODE) {
+                // the text of a style sheet, or of one it was removed from
+                final int parent = document.getParent(e);
+                styles |= (parent == SVGDocument.NONE
+                    || document.getKind(parent) == ElementKind.STYLE);
+            }
+            styles |= (kind == ElementKind.STYLE);
+        }
+        if (styles && !this.reloadStyleSheet()) {
+            this.invalidate();
+            return -1;
+        }
+
+        final boolean ancestry =
+            structural || nameId == this.idId || nameId == this.classId;
+        if (ancestry && this.sheet != null && this.sheet.hasCombinators()) {
+            // the rules matching the descendants may have changed too
+            for (int e = element; e != SVGDocument.NONE; e =
+                StyleSheet.next(document, e, element)) {
+                this.forget(e);
+            }
+        } else {
+            this.forget(element);
+        }
+        return this.affectedCount;
+    }
+
+    /**
+     * Returns one of the elements found by the most recent invocation of
+     * {@link #elementChanged(SVGDocument, int, int)}.
+     *
+     * @param index the index of the element in the list
+     * @return the index of the element in the document
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public int getAffectedElement(int index) {
+        if (index >= this.affectedCount) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return this.affected[index];
+    }
+
+    /**
+     * Returns the style sheet of the current document, loading it if it has
+     * not been loaded since the document was last invalidated.
+     *
+     * @param document the document
+     * @return the style sheet; never returns null
+     * @throws NullPointerException if document==null
+     */
+    public StyleSheet getStyleSheet(SVGDocument document) {
+        this.prepare(document);
+        if (this.sheet == null) {
+            this.sheet = StyleSheet.load(document);
+        }
+        return this.sheet;
+    }
+
+    /**
+     * Computes the style of an element.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @param parent the style of the element's parent; may be the same
+     * object as out
+     * @param out the object in which to store the computed style
+     * @return false if the element is not displayed (display="none"), in
+     * which case neither it nor its children should be rendered; true
+     * otherwise
+     * @throws NullPointerException if any object argument is null
+     */
+    public boolean resolve(SVGDocument document, int element,
+            RenderStyle parent, RenderStyle out) {
+        this.prepare(document);
+        if (element >= this.masks.length || this.masks[element] == 0) {
+            this.cascade(element);
+        }
+        out.inherit(parent);
+        this.displayed = true;
+
+        int bits = this.masks[element] & ~CACHED;
+        int offset = this.offsets[element];
+        final int[] pool = this.pool;
+        for (int property = 0; bits != 0; property++, bits >>>= 1) {
+            if ((bits & 1) != 0) {
+                this.applyCached(property, pool[offset++], out);
+            }
+        }
+        return this.displayed;
+    }
+
+    /**
+     * Computes the style of an element from those of its ancestors, such as
+     * to show the element's properties.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @param out the object in which to store the computed style
+     * @return false if the element or any of its ancestors is not displayed;
+     * true otherwise
+     * @throws NullPointerException if document==null or out==null
+     */
+    public boolean computeStyle(SVGDocument document, int element,
+            RenderStyle out) {
+        int depth = 0;
+        for (int e = element; e != SVGDocument.NONE;
+                e = document.getParent(e)) {
+            depth++;
+        }
+        final int[] chain = new int[depth];
+        for (int e = element; e != SVGDocument.NONE;
+                e = document.getParent(e)) {
+            chain[--depth] = e;
+        }
+        out.setInitial();
+        boolean displayed = true;
+        for (int i = 0; i < chain.length; i++) {
+            displayed &= this.resolve(document, chain[i], out, out);
+        }
+        return displayed;
+    }
+
+    /**
+     * Works out the properties that an element sets itself and caches them.
+     */
+    private void cascade(int element) {
+        final SVGDocument document = this.document;
+        this.declaredMask = 0;
+
+        int styleSlot = -1;
+        final int count = document.getAttributeCount(element);
+        for (int i = 0; i < count; i++) {
+            final int slot = document.getAttributeSlot(element, i);
+            final int nameId = document.getAttributeNameId(slot);
+            if (nameId == this.styleId) {
+                styleSlot = slot;
+                continue;
+            }
+            final int property = this.findProperty(nameId);
+            if (property >= 0) {
+                final byte type = document.getAttributeType(slot);
+                if (type == SVGDocument.TYPE_NUMBER) {
+                    this.applyNumber(property, document.getNumberValue(slot));
+                } else {
+                    this.apply(property, document.getStringValue(slot));
+                }
+            }
+        }
+
+        final StyleSheet sheet = this.getStyleSheet(document);
+        final int matched = sheet.match(document, element);
+        for (int i = 0; i < matched; i++) {
+            final StyleRule rule = sheet.getMatchedRule(i);
+            final int declarations = rule.getDeclarationCount();
+            for (int j = 0; j < declarations; j++) {
+                final String name = rule.getProperty(j);
+                final int property = findProperty(name, 0, name.length());
+                if (property >= 0) {
+                    this.apply(property, rule.getValue(j));
+                }
+            }
+        }
+
+        if (styleSlot >= 0) {
+            this.applyStyleAttribute(document.getStringValue(styleSlot));
+        }
+        this.store(element);
+    }
+
+    /**
+     * Caches the properties declared by the most recent cascade as those of
+     * an element.
+     */
+    private void store(int element) {
+        final int elementCount =
+            Math.max(element + 1, this.document.getElementCount());
+        if (this.masks.length < elementCount) {
+            final int[] newMasks = new int[elementCount];
+            System.arraycopy(this.masks, 0, newMasks, 0, this.masks.length);
+            this.masks = newMasks;
+            final int[] newOffsets = new int[elementCount];
+            System.arraycopy(this.offsets, 0, newOffsets, 0,
+                this.offsets.length);
+            this.offsets = newOffsets;
+        }
+        this.forget(element);
+
+        final int mask = this.declaredMask;
+        final int count = bitCount(mask);
+        if (this.poolLength + count > this.pool.length) {
+            this.compact(count);
+        }
+        this.offsets[element] = this.poolLength;
+        for (int property = 0; property < PROPERTIES.length; property++) {
+            if ((mask & (1 << property)) != 0) {
+                this.pool[this.poolLength++] = this.declared[property];
+            }
+        }
+        this.masks[element] = mask | CACHED;
+    }
+
+    /**
+     * Discards the cached properties of an element.
+     */
+    private void forget(int element) {
+        if (element < this.masks.length && this.masks[element] != 0) {
+            this.poolGarbage += bitCount(this.masks[element] & ~CACHED);
+            this.masks[element] = 0;
+        }
+    }
+
+    /**
+     * Makes room in the pool for more values, dropping those of discarded
+     * entries if they are at least half of the pool and growing it
+     * otherwise.
+     */
+    private void compact(int needed) {
+        final int live = this.poolLength - this.poolGarbage;
+        int capacity = this.pool.length;
+        if (this.poolGarbage < this.poolLength / 2
+                || live + needed > capacity) {
+            capacity = Math.max(capacity * 2, Math.max(live + needed, 64));
+        }
+        final int[] newPool = new int[capacity];
+        int length = 0;
+        for (int element = this.masks.length - 1; element >= 0; element--) {
+            final int count = bitCount(this.masks[element] & ~CACHED);
+            if (count > 0) {
+                System.arraycopy(this.pool, this.offsets[element], newPool,
+                    length, count);
+                this.offsets[element] = length;
+                length += count;
+            }
+        }
+        this.pool = newPool;
+        this.poolLength = length;
+        this.poolGarbage = 0;
+    }
+
+    /**
+     * Loads the style sheet of the current document again after a
+     * <code>style</code> element has changed, and discards the cached styles
+     * of the elements matched by the rules that changed, adding them to the
+     * affected elements.
+     *
+     * @return false if the rules that did not change were reordered, so that
+     * any element may be affected, or if a changed rule matches a gradient
+     * stop, whose color may be cached as that of a paint server
+     */
+    private boolean reloadStyleSheet() {
+        final StyleSheet old = this.sheet;
+        if (old == null) {
+            return true; // no style has been computed with the old rules
+        }
+        final SVGDocument document = this.document;
+        final StyleSheet sheet = StyleSheet.load(document);
+        final Vector changed = old.getChangedRules(sheet);
+        this.sheet = sheet;
+        if (this.stopResolver != null) {
+            this.stopResolver.invalidate();
+        }
+        if (changed == null) {
+            return false;
+        }
+        final int ruleCount = changed.size();
+        if (ruleCount == 0) {
+            return true;
+        }
+        final int elementCount = document.getElementCount();
+        for (int element = 0; element < elementCount; element++) {
+            for (int i = 0; i < ruleCount; i++) {
+                final StyleRule rule = (StyleRule) changed.elementAt(i);
+                if (sheet.matches(document, element, rule)) {
+                    if (document.getKind(element) == ElementKind.STOP) {
+                        return false;
+                    }
+                    this.forget(element);
+                    if (!document.isRemoved(element)) {
+                        this.addAffected(element);
+                    }
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Adds an element to the list of affected elements.
+     */
+    private void addAffected(int element) {
+        if (this.affectedCount == this.affected.length) {
+            final int[] newAffected = new int[this.affectedCount * 2];
+            System.arraycopy(this.affected, 0, newAffected, 0,
+                this.affectedCount);
+            this.affected = newAffected;
+        }
+        this.affected[this.affectedCount++] = element;
+    }
+
+    /**
+     * Applies a cached property to a style.
+     */
+    private void applyCached(int property, int value, RenderStyle out) {
+        switch (property) {
+        case FILL:
+            out.fill = value;
+            break;
+        case FILL_OPACITY:
+            out.fillOpacity = Float.intBitsToFloat(value);
+            break;
+        case FILL_RULE:
+            out.fillRule = value;
+            break;
+        case STROKE:
+            out.stroke = value;
+            break;
+        case STROKE_OPACITY:
+            out.strokeOpacity = Float.intBitsToFloat(value);
+            break;
+        case STROKE_WIDTH:
+            out.strokeWidth = Float.intBitsToFloat(value);
+            break;
+        case OPACITY:
+            out.opacity *= Float.intBitsToFloat(value);
+            break;
+        case DISPLAY:
+            this.displayed = (value != 0);
+            break;
+        case VISIBILITY:
+            out.visible = (value != 0);
+            break;
+        case STOP_COLOR:
+            this.stopColor = value;
+            break;
+        case STOP_OPACITY:
+            this.stopOpacity = Float.intBitsToFloat(value);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Applies the declarations of a style attribute, such as
+     * "fill:red;stroke-width:2".
+     */
+    private void applyStyleAttribute(String style) {
+        final int length = style.length();
+        int start = 0;
+        while (start < length) {
+            int end = style.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            final int colon = style.indexOf(':', start);
+            if (colon > start && colon < end) {
+                final int property = findProperty(style, start, colon);
+                if (property >= 0) {
+                    this.apply(property,
+                        style.substring(colon + 1, end).trim());
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Finds the property whose name occupies a region of a String.
+     *
+     * @return the index of the property, or -1 if it is not one that affects
+     * rendering
+     */
+    private static int findProperty(String s, int start, int end) {
+        while (start < end && s.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        final int length = end - start;
+        for (int i = PROPERTIES.length - 1; i >= 0; i--) {
+            final String name = PROPERTIES[i];
+            if (name.length() == length
+                && s.regionMatches(false, start, name, 0, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the property with an attribute name.
+     *
+     * @return the index of the property, or -1 if it is not one that affects
+     * rendering
+     */
+    private int findProperty(int nameId) {
+        final int[] ids = this.propertyIds;
+        for (int i = ids.length - 1; i >= 0; i--) {
+            if (ids[i] == nameId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Declares the value of a property, replacing any declared before it.
+     */
+    private void declare(int property, int value) {
+        this.declared[property] = value;
+        this.declaredMask |= (1 << property);
+    }
+
+    /**
+     * Declares the value of a property from its text; values that are not
+     * valid, and "inherit", leave the property as it was.
+     */
+    private void apply(int property, String value) {
+        if (value.equals("inherit")) {
+            return;
+        }
+        switch (property) {
+        case FILL:
+        case STROKE: {
+            final int paint = this.parsePaint(value);
+            if (paint != UNSET_PAINT) {
+                this.declare(property, paint);
+            }
+            break;
+        }
+        case STOP_COLOR: {
+            final int color = ColorParser.parse(value, UNSET_PAINT);
+            if (color != UNSET_PAINT) {
+                this.declare(property, color);
+            }
+            break;
+        }
+        case FILL_RULE:
+            this.declare(property, value.equals("evenodd") ? Rasterizer.EVENODD
+                : Rasterizer.NONZERO);
+            break;
+        case DISPLAY:
+            this.declare(property, value.equals("none") ? 0 : 1);
+            break;
+        case VISIBILITY:
+            this.declare(property, value.equals("visible") ? 1 : 0);
+            break;
+        default: {
+            final char[] chars = value.toCharArray();
+            final float number =
+                NumberScanner.parseNumber(chars, 0, chars.length, this.scanner);
+            if (number == number) { // not NaN
+                this.applyNumber(property, number);
+            }
+            break;
+        }
+        }
+    }
+
+    /**
+     * Declares the numeric value of a property.
+     */
+    private void applyNumber(int property, float value) {
+        switch (property) {
+        case FILL_OPACITY:
+        case STROKE_OPACITY:
+        case OPACITY:
+        case STOP_OPACITY:
+            this.declare(property, Float.floatToIntBits(clamp(value)));
+            break;
+        case STROKE_WIDTH:
+            this.declare(property, Float.floatToIntBits(Math.max(0, value)));
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Parses a paint value.
+     *
+     * @param value the value to parse
+     * @return the color to paint with, or {@link #UNSET_PAINT} if the value
+     * is invalid or "currentColor", either of which leaves the inherited paint
+     * unchanged
+     */
+    private int parsePaint(String value) {
+        if (value.startsWith("url(")) {
+            final int close = value.indexOf(')');
+            if (close > 5 && value.charAt(4) == '#') {
+                final String id = value.substring(5, close).trim();
+                final int fallback = (close + 1 < value.length())
+                    ? ColorParser.parse(value.substring(close + 1),
+                        UNSET_PAINT) : ColorParser.NONE;
+                return this.getPaintServerColor(id, fallback);
+            }
+            return UNSET_PAINT;
+        } else if (value.equals("currentColor")) {
+            return UNSET_PAINT;
+        }
+        return ColorParser.parse(value, UNSET_PAINT);
+    }
+
+    /**
+     * Returns the average color of the gradient with an id.
+     *
+     * @param id the id of the gradient
+     * @param fallback the color to return if there is no such gradient
+     * @return the color with which to approximate the gradient
+     */
+    private int getPaintServerColor(String id, int fallback) {
+        if (this.nested) {
+            return fallback; // stops are not painted
+        } else if (this.paintCache == null) {
+            this.paintCache = new Hashtable();
+        }
+        final Integer cached = (Integer) this.paintCache.get(id);
+        if (cached != null) {
+            final int color = cached.intValue();
+            return (color == UNSET_PAINT) ? fallback : color;
+        }
+
+        final SVGDocument document = this.document;
+        int gradient = document.findElementById(id);
+        int color = UNSET_PAINT;
+        for (int depth = 0; gradient != SVGDocument.NONE
+            && depth < MAX_HREF_DEPTH; depth++) {
+            final byte kind = document.getKind(gradient);
+            if (kind != ElementKind.LINEAR_GRADIENT
+                && kind != ElementKind.RADIAL_GRADIENT) {
+                break;
+            }
+            if (document.getFirstChild(gradient) != SVGDocument.NONE) {
+                color = this.averageStops(gradient);
+                break;
+            }
+            gradient = this.getHrefTarget(gradient);
+        }
+        this.paintCache.put(id, new Integer(color));
+        return (color == UNSET_PAINT) ? fallback : color;
+    }
+
+    /**
+     * Computes the average color of the stops of a gradient, weighting each
+     * color by its opacity so that transparent stops lighten the result. The
+     * stops are resolved by a separate resolver, as this one may be part way
+     * through the cascade of the element that references the gradient.
+     */
+    private int averageStops(int gradient) {
+        final SVGDocument document = this.document;
+        StyleResolver stops = this.stopResolver;
+        if (stops == null) {
+            stops = new StyleResolver();
+            stops.nested = true;
+            this.stopResolver = stops;
+        }
+        float a = 0;
+        float r = 0;
+        float g = 0;
+        float b = 0;
+        int count = 0;
+        int stop = document.getFirstChild(gradient);
+        for (; stop != SVGDocument.NONE; stop = document.getNextSibling(stop)) {
+            if (document.getKind(stop) != ElementKind.STOP) {
+                continue;
+            }
+            stops.stopColor = 0xFF000000;
+            stops.stopOpacity = 1;
+            stops.resolve(document, stop, this.stopStyle.setInitial(),
+                this.stopStyle);
+            final float alpha = stops.stopOpacity;
+            a += alpha;
+            r += alpha * ((stops.stopColor >> 16) & 0xFF);
+            g += alpha * ((stops.stopColor >> 8) & 0xFF);
+            b += alpha * (stops.stopColor & 0xFF);
+            count++;
+        }
+        final int alpha = (count == 0) ? 0 : (int) (a / count * 255 + 0.5f);
+        if (alpha == 0) {
+            return ColorParser.NONE;
+        }
+        return (alpha << 24) | ((int) (r / a + 0.5f) << 16)
+            | ((int) (g / a + 0.5f) << 8) | (int) (b / a + 0.5f);
+    }
+
+    /**
+     * Returns the element referenced by the xlink:href attribute of another.
+     *
+     * @return the index of the referenced element, or {@link SVGDocument#NONE}
+     * if there is no local reference
+     */
+    private int getHrefTarget(int element) {
+        final int slot = this.document.findAttribute(element, this.hrefId);
+        if (slot < 0) {
+            return SVGDocument.NONE;
+        }
+        final String href = this.document.getStringValue(slot);
+        if (href.length() < 2 || href.charAt(0) != '#') {
+            return SVGDocument.NONE;
+        }
+        return this.document.findElementById(href.substring(1));
+    }
+
+    /**
+     * Looks up the IDs of the property names if the document has changed,
+     * discarding everything cached for the previous document.
+     */
+    private void prepare(SVGDocument document) {
+        if (document == this.document) {
+            return;
+        }
+        this.lookUpNames(document);
+        this.invalidate();
+        this.document = document;
+    }
+
+    /**
+     * Looks up the IDs of the property names in a document's NameTable.
+     */
+    private void lookUpNames(SVGDocument document) {
+        final NameTable names = document.getNameTable();
+        for (int i = 0; i < PROPERTIES.length; i++) {
+            this.propertyIds[i] = names.intern(PROPERTIES[i]);
+        }
+        this.styleId = names.intern("style");
+        this.hrefId = names.intern("xlink:href");
+        this.idId = names.intern("id");
+        this.classId = names.intern("class");
+    }
+
+    /**
+     * Clamps a value to the range 0 to 1.
+     */
+    private static float clamp(float value) {
+        return (value < 0) ? 0 : ((value > 1) ? 1 : value);
+    }
+
+    /**
+     * Returns the number of bits set in a value.
+     */
+    private static int bitCount(int value) {
+        int count = 0;
+        for (; value != 0; value &= value - 1) {
+            count++;
+        }
+        return count;
+    }
+}
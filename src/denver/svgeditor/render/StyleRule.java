@@ -0,0 +1,216 @@
+/*
+ * StyleRule.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * A rule of a {@link StyleSheet}: one selector and the declarations of the
+ * block in which it appeared. A rule with a selector group such as
+ * "rect, circle" is split into one rule per selector, each with its own
+ * specificity.
+ * <p>
+ * A selector is a sequence of compound selectors joined by descendant (white
+ * space) or child (<code>&gt;</code>) combinators, where each compound
+ * selector is an optional element name or <code>*</code> followed by any
+ * number of <code>#id</code> and <code>.class</code> selectors. The compound
+ * selectors are stored from right to left, so that the first is the one
+ * that the element itself must match.
+ */
+public class StyleRule {
+
+    /**
+     * The combinator which matches any ancestor.
+     */
+    static final byte DESCENDANT = 0;
+
+    /**
+     * The combinator which matches only the parent.
+     */
+    static final byte CHILD = 1;
+
+    /**
+     * The element names of the compound selectors, from right to left; null
+     * where any element matches.
+     */
+    final String[] names;
+
+    /**
+     * The ids of the compound selectors, from right to left; null where
+     * there is no id selector.
+     */
+    final String[] ids;
+
+    /**
+     * The classes of the compound selectors, from right to left; never null,
+     * but may be empty.
+     */
+    final String[][] classes;
+
+    /**
+     * The combinators joining each compound selector to the one on its left,
+     * from right to left; one shorter than the other arrays.
+     */
+    final byte[] combinators;
+
+    /**
+     * The number of the most recent match in which this rule was collected,
+     * used by {@link StyleSheet} to collect each rule once.
+     */
+    int matchStamp;
+
+    private final String selector;
+    private final String[] properties;
+    private final String[] values;
+    private final int specificity;
+    private final int order;
+    private final String key;
+
+    /**
+     * Creates a new instance of <code>StyleRule</code>.
+     *
+     * @param selector the text of the selector, with white space normalized
+     * @param names the element names of the compound selectors
+     * @param ids the ids of the compound selectors
+     * @param classes the classes of the compound selectors
+     * @param combinators the combinators joining the compound selectors
+     * @param properties the names of the declared properties
+     * @param values the declared values, in the same order
+     * @param order the index of the rule in its style sheet
+     */
+    StyleRule(String selector, String[] names, String[] ids,
+            String[][] classes, byte[] combinators, String[] properties,
+            String[] values, int order) {
+        this.selector = selector;
+        this.names = names;
+        this.ids = ids;
+        this.classes = classes;
+        this.combinators = combinators;
+        this.properties = properties;
+        this.values = values;
+        this.order = order;
+
+        int specificity = 0;
+        for (int i = 0; i < names.length; i++) {
+            if (ids[i] != null) {
+                specificity += 10000;
+            }
+            specificity += classes[i].length * 100;
+            if (names[i] != null) {
+                specificity++;
+            }
+        }
+        this.specificity = specificity;
+
+        final StringBuffer key = new StringBuffer(selector).append('{');
+        for (int i = 0; i < properties.length; i++) {
+            key.append(properties[i]).append(':').append(values[i]).append(
+                ';');
+        }
+        this.key = key.append('}').toString();
+    }
+
+    /**
+     * Returns the selector of this rule.
+     *
+     * @return the text of the selector, such as "g.layer &gt; rect"; never
+     * returns null
+     */
+    public String getSelector() {
+        return this.selector;
+    }
+
+    /**
+     * Returns the specificity of the selector of this rule.
+     *
+     * @return 10000 for each id selector, plus 100 for each class selector,
+     * plus 1 for each element name
+     */
+    public int getSpecificity() {
+        return this.specificity;
+    }
+
+    /**
+     * Returns the position of this rule in its style sheet, which decides
+     * between rules of equal specificity.
+     *
+     * @return the index of this rule in its style sheet
+     */
+    public int getOrder() {
+        return this.order;
+    }
+
+    /**
+     * Returns the number of declarations of this rule.
+     *
+     * @return the number of declarations
+     */
+    public int getDeclarationCount() {
+        return this.properties.length;
+    }
+
+    /**
+     * Returns the property of a declaration of this rule.
+     *
+     * @param index the index of the declaration
+     * @return the name of the property, such as "fill"; never returns null
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public String getProperty(int index) {
+        return this.properties[index];
+    }
+
+    /**
+     * Returns the value of a declaration of this rule.
+     *
+     * @param index the index of the declaration
+     * @return the value, without any "!important"; never returns null
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public String getValue(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * Returns whether this rule sorts after another in the cascade, and so
+     * overrides it.
+     *
+     * @param other the other rule
+     * @return true if this rule is more specific than the other, or equally
+     * specific and later in the style sheet
+     */
+    boolean follows(StyleRule other) {
+        return (this.specificity > other.specificity)
+            || (this.specificity == other.specificity
+                && this.order > other.order);
+    }
+
+    /**
+     * Returns the text which identifies this rule when a style sheet is
+     * compared with an edited version of itself.
+     *
+     * @return the selector and the declarations; never returns null
+     */
+    String getKey() {
+        return this.key;
+    }
+}
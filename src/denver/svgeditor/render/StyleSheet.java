@@ -0,0 +1,714 @@
+/*
+ * StyleSheet.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import java.util.Hashtable;
+import java.util.Vector;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * The rules of the <code>style</code> elements of a document. Each rule is
+ * indexed under the id, first class or element name of the compound
+ * selector that the element itself must match, in that order of preference,
+ * so that finding the rules that match an element only tests the rules
+ * indexed under its id, its classes and its name, rather than every rule.
+ * <p>
+ * Only the selectors described by {@link StyleRule} are supported; a
+ * selector with pseudo-classes, attribute selectors or sibling combinators
+ * is dropped, as are at-rules. "!important" is ignored.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class StyleSheet {
+
+    private final int idNameId;
+    private final int classNameId;
+    private final Vector rules;
+    private final Hashtable idRules;
+    private final Hashtable classRules;
+    private final Hashtable nameRules;
+    private final Vector universalRules;
+    private boolean combinators;
+
+    private StyleRule[] matched;
+    private int matchedCount;
+    private int matchStamp;
+
+    /**
+     * Creates a new, empty instance of <code>StyleSheet</code> for a
+     * document.
+     *
+     * @param document the document whose elements the rules are to match
+     * @throws NullPointerException if document==null
+     */
+    public StyleSheet(SVGDocument document) {
+        this.idNameId = document.getNameTable().intern("id");
+        this.classNameId = document.getNameTable().intern("class");
+        this.rules = new Vector();
+        this.idRules = new Hashtable();
+        this.classRules = new Hashtable();
+        this.nameRules = new Hashtable();
+        this.universalRules = new Vector();
+        this.matched = new StyleRule[8];
+    }
+
+    /**
+     * Creates a style sheet from the text of the <code>style</code> elements
+     * of a document, in document order.
+     *
+     * @param document the document
+     * @return the style sheet; never returns null
+     * @throws NullPointerException if document==null
+     */
+    public static StyleSheet load(SVGDocument document) {
+        final StyleSheet sheet = new StyleSheet(document);
+        final int root = document.getRoot();
+        int element = root;
+        while (element != SVGDocument.NONE) {
+            if (document.getKind(element) == ElementKind.STYLE) {
+                final String text = document.getText(element);
+                if (text != null) {
+                    sheet.parse(text);
+                }
+            }
+            element = next(document, element, root);
+        }
+        return sheet;
+    }
+
+    /**
+     * Returns the element after another in document order, without leaving
+     * a subtree.
+     *
+     * @param document the document
+     * @param element the current element
+     * @param root the root of the subtree
+     * @return the next element of the subtree, or {@link SVGDocument#NONE}
+     * if the current element is the last
+     */
+    static int next(SVGDocument document, int element, int root) {
+        final int child = document.getFirstChild(element);
+        if (child != SVGDocument.NONE) {
+            return child;
+        }
+        while (element != root) {
+            final int sibling = document.getNextSibling(element);
+            if (sibling != SVGDocument.NONE) {
+                return sibling;
+            }
+            element = document.getParent(element);
+        }
+        return SVGDocument.NONE;
+    }
+
+    /**
+     * Parses the text of a style sheet and adds its rules after those
+     * already in this style sheet.
+     *
+     * @param css the text to parse
+     * @throws NullPointerException if css==null
+     */
+    public void parse(String css) {
+        final String text = stripComments(css);
+        final int length = text.length();
+        int i = 0;
+        while (i < length) {
+            final char c = text.charAt(i);
+            if (c <= ' ') {
+                i++;
+            } else if (text.startsWith("<!--", i)) {
+                i += 4;
+            } else if (text.startsWith("-->", i)) {
+                i += 3;
+            } else if (text.startsWith("<![CDATA[", i)) {
+                i += 9;
+            } else if (text.startsWith("]]>", i)) {
+                i += 3;
+            } else if (c == '@') {
+                i = skipAtRule(text, i);
+            } else {
+                final int open = text.indexOf('{', i);
+                if (open < 0) {
+                    break;
+                }
+                final int close = findBlockEnd(text, open);
+                this.addRules(text.substring(i, open), text.substring(
+                    open + 1, close));
+                i = close + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of rules in this style sheet.
+     *
+     * @return the number of rules
+     */
+    public int getRuleCount() {
+        return this.rules.size();
+    }
+
+    /**
+     * Returns a rule of this style sheet.
+     *
+     * @param index the index of the rule, which is its order
+     * @return the rule; never returns null
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public StyleRule getRule(int index) {
+        return (StyleRule) this.rules.elementAt(index);
+    }
+
+    /**
+     * Returns whether any rule has a descendant or child combinator, so that
+     * the rules matching an element can change when its ancestors change.
+     *
+     * @return true if any selector has more than one compound selector
+     */
+    public boolean hasCombinators() {
+        return this.combinators;
+    }
+
+    /**
+     * Finds the rules that match an element, which are then returned by
+     * {@link #getMatchedRule(int)} in cascade order.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @return the number of matching rules
+     * @throws NullPointerException if document==null
+     */
+    public int match(SVGDocument document, int element) {
+        this.matchedCount = 0;
+        if (this.rules.isEmpty()) {
+            return 0;
+        }
+        this.matchStamp++;
+        final String id = getString(document, element, this.idNameId);
+        if (id != null) {
+            this.collect(document, element, (Vector) this.idRules.get(id));
+        }
+        final String classes =
+            getString(document, element, this.classNameId);
+        if (classes != null) {
+            final int length = classes.length();
+            int start = 0;
+            while (start < length) {
+                while (start < length && classes.charAt(start) <= ' ') {
+                    start++;
+                }
+                int end = start;
+                while (end < length && classes.charAt(end) > ' ') {
+                    end++;
+                }
+                if (end > start) {
+                    this.collect(document, element, (Vector) this.classRules
+                        .get(classes.substring(start, end)));
+                }
+                start = end;
+            }
+        }
+        this.collect(document, element, (Vector) this.nameRules.get(document
+            .getElementName(element)));
+        this.collect(document, element, this.universalRules);
+        return this.matchedCount;
+    }
+
+    /**
+     * Returns one of the rules found by the most recent invocation of
+     * {@link #match(SVGDocument, int)}.
+     *
+     * @param index the index of the rule, from 0 for the rule that applies
+     * first to the rule that applies last and so takes precedence
+     * @return the rule; never returns null
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public StyleRule getMatchedRule(int index) {
+        if (index >= this.matchedCount) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        return this.matched[index];
+    }
+
+    /**
+     * Returns whether a rule matches an element.
+     *
+     * @param document the document containing the element
+     * @param element the index of the element
+     * @param rule the rule
+     * @return true if the rule's selector matches the element
+     */
+    boolean matches(SVGDocument document, int element, StyleRule rule) {
+        return this.matchesCompound(document, element, rule, 0)
+            && this.matchesFrom(document, element, rule, 0);
+    }
+
+    /**
+     * Returns the rules that are in either this style sheet or another but
+     * not both, such as when a style element has been edited.
+     *
+     * @param other the other style sheet
+     * @return the rules of this style sheet missing from the other and the
+     * rules of the other missing from this one; or null if the rules that
+     * are in both are not in the same order, so that the cascade of any
+     * element may have changed
+     * @throws NullPointerException if other==null
+     */
+    Vector getChangedRules(StyleSheet other) {
+        final Hashtable unmatched = new Hashtable();
+        final int count = this.rules.size();
+        for (int i = count - 1; i >= 0; i--) {
+            final StyleRule rule = this.getRule(i);
+            Vector same = (Vector) unmatched.get(rule.getKey());
+            if (same == null) {
+                same = new Vector();
+                unmatched.put(rule.getKey(), same);
+            }
+            same.addElement(rule); // last first, so that the end is earliest
+        }
+
+        final Vector changed = new Vector();
+        int lastOrder = -1;
+        final int otherCount = other.rules.size();
+        for (int i = 0; i < otherCount; i++) {
+            final StyleRule rule = other.getRule(i);
+            final Vector same = (Vector) unmatched.get(rule.getKey());
+            if (same == null || same.isEmpty()) {
+                changed.addElement(rule);
+                continue;
+            }
+            final StyleRule old = (StyleRule) same.lastElement();
+            same.removeElementAt(same.size() - 1);
+            if (old.getOrder() < lastOrder) {
+                return null;
+            }
+            lastOrder = old.getOrder();
+        }
+        for (int i = 0; i < count; i++) {
+            final StyleRule rule = this.getRule(i);
+            final Vector same = (Vector) unmatched.get(rule.getKey());
+            if (same.removeElement(rule)) {
+                changed.addElement(rule);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Adds the rules of a block, one per selector of its selector group.
+     */
+    private void addRules(String selectors, String body) {
+        final Vector properties = new Vector();
+        final Vector values = new Vector();
+        final int length = body.length();
+        int start = 0;
+        while (start < length) {
+            int end = body.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            final int colon = body.indexOf(':', start);
+            if (colon > start && colon < end) {
+                final String property =
+                    body.substring(start, colon).trim().toLowerCase();
+                String value = body.substring(colon + 1, end).trim();
+                final int bang = value.indexOf('!');
+                if (bang >= 0) {
+                    value = value.substring(0, bang).trim();
+                }
+                if (property.length() > 0 && value.length() > 0) {
+                    properties.addElement(property);
+                    values.addElement(value);
+                }
+            }
+            start = end + 1;
+        }
+        if (properties.isEmpty()) {
+            return;
+        }
+        final String[] propertyArray = new String[properties.size()];
+        properties.copyInto(propertyArray);
+        final String[] valueArray = new String[values.size()];
+        values.copyInto(valueArray);
+
+        start = 0;
+        final int selectorsLength = selectors.length();
+        while (start <= selectorsLength) {
+            int end = selectors.indexOf(',', start);
+            if (end < 0) {
+                end = selectorsLength;
+            }
+            final StyleRule rule =
+                this.parseSelector(selectors.substring(start, end),
+                    propertyArray, valueArray);
+            if (rule != null) {
+                this.addRule(rule);
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Parses a selector into a rule.
+     *
+     * @return the rule, or null if the selector is empty or not supported
+     */
+    private StyleRule parseSelector(String selector, String[] properties,
+            String[] values) {
+        final Vector names = new Vector();
+        final Vector ids = new Vector();
+        final Vector classes = new Vector();
+        final StringBuffer combinators = new StringBuffer();
+        final StringBuffer text = new StringBuffer();
+        final int length = selector.length();
+        int combinator = -1;
+        int i = 0;
+        while (true) {
+            while (i < length && selector.charAt(i) <= ' ') {
+                i++;
+            }
+            if (i == length) {
+                break;
+            }
+            if (selector.charAt(i) == '>') {
+                if (names.isEmpty() || combinator == StyleRule.CHILD) {
+                    return null;
+                }
+                combinator = StyleRule.CHILD;
+                i++;
+                continue;
+            }
+
+            // a compound selector
+            final int start = i;
+            String name = null;
+            String id = null;
+            final Vector classList = new Vector();
+            if (selector.charAt(i) == '*') {
+                i++;
+            } else {
+                final int end = scanIdentifier(selector, i);
+                if (end > i) {
+                    name = selector.substring(i, end);
+                    i = end;
+                }
+            }
+            while (i < length) {
+                final char c = selector.charAt(i);
+                if (c != '#' && c != '.') {
+                    break;
+                }
+                final int end = scanIdentifier(selector, i + 1);
+                if (end == i + 1 || (c == '#' && id != null)) {
+                    return null;
+                }
+                if (c == '#') {
+                    id = selector.substring(i + 1, end);
+                } else {
+                    classList.addElement(selector.substring(i + 1, end));
+                }
+                i = end;
+            }
+            if (i == start
+                || (i < length && selector.charAt(i) > ' '
+                    && selector.charAt(i) != '>')) {
+                return null; // an unsupported selector
+            }
+
+            if (!names.isEmpty()) {
+                final int joined =
+                    (combinator < 0) ? StyleRule.DESCENDANT : combinator;
+                combinators.append((char) joined);
+                text.append((joined == StyleRule.CHILD) ? " > " : " ");
+            }
+            combinator = -1;
+            text.append(selector.substring(start, i));
+            final String[] classArray = new String[classList.size()];
+            classList.copyInto(classArray);
+            names.addElement(name == null ? "" : name);
+            ids.addElement(id == null ? "" : id);
+            classes.addElement(classArray);
+        }
+        if (names.isEmpty() || combinator >= 0) {
+            return null;
+        }
+
+        // store the compound selectors from right to left
+        final int count = names.size();
+        final String[] nameArray = new String[count];
+        final String[] idArray = new String[count];
+        final String[][] classArray = new String[count][];
+        final byte[] combinatorArray = new byte[count - 1];
+        for (int j = 0; j < count; j++) {
+            final int from = count - 1 - j;
+            final String name = (String) names.elementAt(from);
+            final String id = (String) ids.elementAt(from);
+            nameArray[j] = (name.length() == 0) ? null : name;
+            idArray[j] = (id.length() == 0) ? null : id;
+            classArray[j] = (String[]) classes.elementAt(from);
+            if (j < count - 1) {
+                combinatorArray[j] = (byte) combinators.charAt(from - 1);
+            }
+        }
+        return new StyleRule(text.toString(), nameArray, idArray, classArray,
+            combinatorArray, properties, values, this.rules.size());
+    }
+
+    /**
+     * Adds a rule to the end of this style sheet and to the index.
+     */
+    private void addRule(StyleRule rule) {
+        this.rules.addElement(rule);
+        if (rule.combinators.length > 0) {
+            this.combinators = true;
+        }
+        if (rule.ids[0] != null) {
+            addToIndex(this.idRules, rule.ids[0], rule);
+        } else if (rule.classes[0].length > 0) {
+            addToIndex(this.classRules, rule.classes[0][0], rule);
+        } else if (rule.names[0] != null) {
+            addToIndex(this.nameRules, rule.names[0], rule);
+        } else {
+            this.universalRules.addElement(rule);
+        }
+    }
+
+    /**
+     * Adds a rule to the list under a key of an index.
+     */
+    private static void addToIndex(Hashtable index, String key,
+            StyleRule rule) {
+        Vector list = (Vector) index.get(key);
+        if (list == null) {
+            list = new Vector();
+            index.put(key, list);
+        }
+        list.addElement(rule);
+    }
+
+    /**
+     * Adds the rules of a list of candidates that match an element to the
+     * matched rules, keeping them in cascade order.
+     */
+    private void collect(SVGDocument document, int element, Vector candidates) {
+        if (candidates == null) {
+            return;
+        }
+        final int count = candidates.size();
+        for (int i = 0; i < count; i++) {
+            final StyleRule rule = (StyleRule) candidates.elementAt(i);
+            if (rule.matchStamp == this.matchStamp
+                || !this.matches(document, element, rule)) {
+                continue;
+            }
+            rule.matchStamp = this.matchStamp;
+            if (this.matchedCount == this.matched.length) {
+                final StyleRule[] newMatched =
+                    new StyleRule[this.matchedCount * 2];
+                System.arraycopy(this.matched, 0, newMatched, 0,
+                    this.matchedCount);
+                this.matched = newMatched;
+            }
+            int j = this.matchedCount++;
+            for (; j > 0 && this.matched[j - 1].follows(rule); j--) {
+                this.matched[j] = this.matched[j - 1];
+            }
+            this.matched[j] = rule;
+        }
+    }
+
+    /**
+     * Returns whether the ancestors of an element that matches one of the
+     * compound selectors of a rule match the compound selectors to its left.
+     */
+    private boolean matchesFrom(SVGDocument document, int element,
+            StyleRule rule, int compound) {
+        if (compound + 1 == rule.names.length) {
+            return true;
+        }
+        int ancestor = document.getParent(element);
+        if (rule.combinators[compound] == StyleRule.CHILD) {
+            return ancestor != SVGDocument.NONE
+                && this.matchesCompound(document, ancestor, rule, compound + 1)
+                && this.matchesFrom(document, ancestor, rule, compound + 1);
+        }
+        for (; ancestor != SVGDocument.NONE; ancestor =
+            document.getParent(ancestor)) {
+            if (this.matchesCompound(document, ancestor, rule, compound + 1)
+                && this.matchesFrom(document, ancestor, rule, compound + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether an element matches one of the compound selectors of a
+     * rule.
+     */
+    private boolean matchesCompound(SVGDocument document, int element,
+            StyleRule rule, int compound) {
+        final String name = rule.names[compound];
+        if (name != null && !name.equals(document.getElementName(element))) {
+            return false;
+        }
+        final String id = rule.ids[compound];
+        if (id != null
+            && !id.equals(getString(document, element, this.idNameId))) {
+            return false;
+        }
+        final String[] classes = rule.classes[compound];
+        if (classes.length > 0) {
+            final String value =
+                getString(document, element, this.classNameId);
+            if (value == null) {
+                return false;
+            }
+            for (int i = 0; i < classes.length; i++) {
+                if (!hasClass(value, classes[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether a space-separated list of classes contains a class.
+     */
+    private static boolean hasClass(String list, String name) {
+        final int length = name.length();
+        int index = list.indexOf(name);
+        while (index >= 0) {
+            final int end = index + length;
+            if ((index == 0 || list.charAt(index - 1) <= ' ')
+                && (end == list.length() || list.charAt(end) <= ' ')) {
+                return true;
+            }
+            index = list.indexOf(name, index + 1);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value of an attribute that is stored as a String.
+     *
+     * @return the value, or null if the element does not have the attribute
+     */
+    private static String getString(SVGDocument document, int element,
+            int nameId) {
+        final int slot = document.findAttribute(element, nameId);
+        if (slot < 0
+            || document.getAttributeType(slot) != SVGDocument.TYPE_STRING) {
+            return null;
+        }
+        return document.getStringValue(slot);
+    }
+
+    /**
+     * Returns the index after the identifier starting at an index, which is
+     * the index itself if there is none.
+     */
+    private static int scanIdentifier(String s, int start) {
+        final int length = s.length();
+        int i = start;
+        while (i < length) {
+            final char c = s.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9') || c == '-' || c == '_'
+                || c >= 0x80) {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * Returns the index of the closing brace of the block whose opening brace
+     * is at an index, or the length of the text if it is not closed.
+     */
+    private static int findBlockEnd(String text, int open) {
+        final int length = text.length();
+        int depth = 0;
+        char quote = 0;
+        for (int i = open; i < length; i++) {
+            final char c = text.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Returns the index after an at-rule, which ends with a semicolon or a
+     * block.
+     */
+    private static int skipAtRule(String text, int start) {
+        final int length = text.length();
+        for (int i = start; i < length; i++) {
+            final char c = text.charAt(i);
+            if (c == ';') {
+                return i + 1;
+            } else if (c == '{') {
+                return findBlockEnd(text, i) + 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Removes the comments from the text of a style sheet.
+     */
+    private static String stripComments(String css) {
+        int open = css.indexOf("/*");
+        if (open < 0) {
+            return css;
+        }
+        final StringBuffer text = new StringBuffer(css.length());
+        int start = 0;
+        while (open >= 0) {
+            text.append(css.substring(start, open)).append(' ');
+            final int close = css.indexOf("*/", open + 2);
+            if (close < 0) {
+                return text.toString();
+            }
+            start = close + 2;
+            open = css.indexOf("/*", start);
+        }
+        return text.append(css.substring(start)).toString();
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * TessellationBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import java.util.Random;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.svg.NameTable;
+
+/**
+ * Measures the {@link TessellationCache} while zooming and panning. A
+ * synthetic drawing of paths of curves and arcs and of circles is rendered
+ * through a sequence of frames that zooms in by small steps, as a pinch
+ * does, and then pans at the final zoom, once flattening every shape in
+ * every frame and once with the cache. The speedup is reported along with
+ * the hits and misses of the cache, its size, and the number of pixels
+ * whose colors differ between the final frames; then a shape is changed to
+ * check that its outline is flattened again.
+ */
+public class TessellationBenchmark {
+
+    /**
+     * The width and height of the rendering, in pixels.
+     */
+    private static final int SIZE = 256;
+
+    /**
+     * The number of frames of zooming and of panning.
+     */
+    private static final int FRAMES = 24;
+
+    /**
+     * The zoom of the last frame; the first frame is at a zoom of 1.
+     */
+    private static final float MAX_ZOOM = 4;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TessellationBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param shapeCount the number of shapes in the drawing
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int shapeCount) {
+        final StringBuffer report = new StringBuffer();
+        final SVGDocument document = createDrawing(shapeCount, new Random(1));
+        report.append(document.getElementCount()).append(" elements, ")
+            .append(FRAMES * 2).append(" frames\n");
+
+        // flatten every shape in every frame, without and with the cache
+        final TessellationCache cache = new TessellationCache();
+        cache.setCapacity(0);
+        final long uncachedFlatten = flatten(cache, document);
+        cache.setCapacity(TessellationCache.DEFAULT_CAPACITY);
+        final long cachedFlatten = flatten(cache, document);
+        report.append("Flatten: uncached ").append(uncachedFlatten).append(
+            " ms; cached ").append(cachedFlatten).append(" ms; ").append(
+            formatSpeedup(uncachedFlatten, cachedFlatten)).append('\n');
+
+        // render the frames, without and with the cache
+        final DocumentRenderer uncachedRenderer = new DocumentRenderer();
+        uncachedRenderer.getTessellationCache().setCapacity(0);
+        final DocumentRenderer renderer = new DocumentRenderer();
+        final TessellationCache tessellations = renderer.getTessellationCache();
+        final RasterSurface uncachedSurface = new RasterSurface(SIZE, SIZE);
+        final RasterSurface cachedSurface = new RasterSurface(SIZE, SIZE);
+        final long uncachedRender =
+            render(uncachedRenderer, document, uncachedSurface);
+        final long cachedRender = render(renderer, document, cachedSurface);
+        report.append("Render: uncached ").append(uncachedRender).append(
+            " ms; cached ").append(cachedRender).append(" ms; ").append(
+            formatSpeedup(uncachedRender, cachedRender)).append('\n');
+        report.append("Cache: ").append(tessellations.getHitCount()).append(
+            " hits, ").append(tessellations.getMissCount()).append(
+            " misses, ").append(tessellations.getCount()).append(
+            " outlines in ").append(tessellations.getSize() / 1024).append(
+            " KB\n");
+        boolean matches = compare(uncachedSurface, cachedSurface, report);
+
+        // a shape whose geometry changes must be flattened again
+        final int path = findPath(document);
+        if (path != SVGDocument.NONE) {
+            final NameTable names = document.getNameTable();
+            final int nameId = names.intern("d");
+            document.setAttribute(path, "d", "M 0 0 C 256 0 256 256 0 256 z");
+            if (renderer.getGeometry().isGeometryAttribute(document, nameId)) {
+                tessellations.invalidate(path);
+            }
+            final Matrix base = new Matrix();
+            base.scale(MAX_ZOOM, MAX_ZOOM);
+            uncachedSurface.clear(0xFFFFFFFF);
+            uncachedRenderer.render(document, base, uncachedSurface, null);
+            cachedSurface.clear(0xFFFFFFFF);
+            renderer.render(document, base, cachedSurface, null);
+            matches &= compare(uncachedSurface, cachedSurface, report);
+        }
+        if (!matches) {
+            report.append("MISMATCH: more than 1% of pixels differ\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Flattens every shape of the drawing in the frames of zooming and
+     * panning.
+     *
+     * @return the time taken, in milliseconds
+     */
+    private static long flatten(TessellationCache cache,
+            SVGDocument document) {
+        final PolygonBuffer outline = new PolygonBuffer();
+        final Matrix base = new Matrix();
+        final int elements = document.getElementCount();
+        System.gc();
+        final long start = System.currentTimeMillis();
+        for (int frame = 0; frame < FRAMES * 2; frame++) {
+            setFrame(base, frame);
+            cache.nextFrame();
+            for (int element = 0; element < elements; element++) {
+                outline.reset();
+                cache.flatten(document, element, base, outline);
+            }
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Renders the frames of zooming and panning.
+     *
+     * @return the time taken, in milliseconds
+     */
+    private static long render(DocumentRenderer renderer,
+            SVGDocument document, RasterSurface target) {
+        final Matrix base = new Matrix();
+        System.gc();
+        final long start = System.currentTimeMillis();
+        for (int frame = 0; frame < FRAMES * 2; frame++) {
+            setFrame(base, frame);
+            renderer.getTessellationCache().nextFrame();
+            target.clear(0xFFFFFFFF);
+            renderer.render(document, base, target, null);
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Sets a matrix to the view of a frame: zooming in by steps from a zoom
+     * of 1 to {@link #MAX_ZOOM}, then panning across the drawing.
+     */
+    private static void setFrame(Matrix base, int frame) {
+        final float zoom;
+        final float pan;
+        if (frame < FRAMES) {
+            zoom = 1 + (MAX_ZOOM - 1) * frame / (FRAMES - 1);
+            pan = 0;
+        } else {
+            zoom = MAX_ZOOM;
+            pan = (frame - FRAMES) * SIZE * (MAX_ZOOM - 1) / FRAMES;
+        }
+        base.setIdentity();
+        base.translate(-pan, -pan);
+        base.scale(zoom, zoom);
+    }
+
+    /**
+     * Reports the number of pixels whose colors differ between two
+     * renderings by more than the {@link Rasterizer#EDGE_TOLERANCE} of
+     * anti-aliased edges, as the outlines of the cache are flattened at the
+     * tolerance of their zoom bucket rather than of the exact zoom.
+     *
+     * @return true if at most 1% of the painted pixels differ, false
+     * otherwise
+     */
+    private static boolean compare(RasterSurface expected, RasterSurface actual,
+            StringBuffer report) {
+        final int[] expectedPixels = expected.getPixels();
+        int painted = 0;
+        for (int i = 0; i < expectedPixels.length; i++) {
+            if (expectedPixels[i] != 0xFFFFFFFF) {
+                painted++;
+            }
+        }
+        final int differing =
+            expected.countDifferences(actual, Rasterizer.EDGE_TOLERANCE);
+        report.append("Pixels: ").append(painted).append(" painted, ")
+            .append(differing).append(" differ\n");
+        return (differing * 100 <= painted);
+    }
+
+    /**
+     * Returns the first path element of a document.
+     *
+     * @return the index of the path, or {@link SVGDocument#NONE} if there is
+     * none
+     */
+    private static int findPath(SVGDocument document) {
+        final int count = document.getElementCount();
+        for (int element = 0; element < count; element++) {
+            if (document.getKind(element) == ElementKind.PATH) {
+                return element;
+            }
+        }
+        return SVGDocument.NONE;
+    }
+
+    /**
+     * Creates a drawing of random paths of curves and arcs and circles.
+     */
+    private static SVGDocument createDrawing(int shapeCount, Random random) {
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        document.setAttribute(root, "width", Integer.toString(SIZE));
+        document.setAttribute(root, "height", Integer.toString(SIZE));
+        final StringBuffer d = new StringBuffer();
+        for (int i = 0; i < shapeCount; i++) {
+            final int x = random.nextInt(SIZE);
+            final int y = random.nextInt(SIZE);
+            final String fill = "#"
+                + Integer.toHexString(0x1000000 | random.nextInt())
+                    .substring(1);
+            final int element;
+            if (i % 3 == 0) {
+                element = document.createElement(root, "circle");
+                document.setAttribute(element, "cx", Integer.toString(x));
+                document.setAttribute(element, "cy", Integer.toString(y));
+                document.setAttribute(element, "r", Integer.toString(5
+                    + random.nextInt(30)));
+            } else {
+                d.setLength(0);
+                d.append('M').append(x).append(' ').append(y);
+                d.append(" c 20 -30 40 30 60 0");
+                d.append(" s 10 40 -20 40");
+                d.append(" q 20 20 0 40");
+                d.append(" a 30 20 ").append(random.nextInt(90)).append(
+                    " 0 1 -40 -10 z");
+                element = document.createElement(root, "path");
+                document.setAttribute(element, "d", d.toString());
+            }
+            document.setAttribute(element, "fill", fill);
+            document.setAttribute(element, "stroke", "black");
+        }
+        return document;
+    }
+
+    /**
+     * Formats the ratio of two times as a speedup.
+     *
+     * @return a string such as "speedup 1.25x"; never returns null
+     */
+    private static String formatSpeedup(long uncachedMillis,
+            long cachedMillis) {
+        final long percent = uncachedMillis * 100 / Math.max(1, cachedMillis);
+        final long fraction = percent % 100;
+        return "speedup " + (percent / 100) + "."
+            + ((fraction < 10) ? "0" : "") + fraction + "x";
+    }
+}
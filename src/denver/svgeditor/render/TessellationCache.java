@@ -0,0 +1,461 @@
+/*
+ * TessellationCache.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * The flattened outlines of the shapes of a document, kept between renders
+ * so that curves and arcs are not flattened again on every repaint. An
+ * outline is flattened in the user coordinates of its shape, with a
+ * tolerance chosen so that it stays within the device tolerance at every
+ * scale of its zoom bucket, and is transformed to device coordinates each
+ * time it is used, which is exact for affine transformations. The zoom
+ * buckets are the powers of two: an outline flattened for a scale of up to
+ * 4 serves every scale above 2, so zooming and panning within a bucket reuse
+ * it and only crossing into another bucket flattens it again.
+ * <p>
+ * An outline stays valid until the geometry of its shape changes, which the
+ * owner reports with {@link #invalidate(int)}; moving the shape or changing
+ * its style or transform does not affect it. The outlines are held up to a
+ * configurable number of bytes, beyond which the least recently used are
+ * discarded. Outlines used in the current frame (see {@link #nextFrame()})
+ * are never discarded to make room for others, as a frame that draws more
+ * shapes than fit would otherwise discard each outline before it is used
+ * again in the next frame; the outlines that do not fit are flattened each
+ * time instead.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class TessellationCache {
+
+    /**
+     * The default capacity, in bytes.
+     */
+    public static final int DEFAULT_CAPACITY = 256 * 1024;
+
+    /**
+     * The estimated number of bytes taken by an entry besides its arrays.
+     */
+    private static final int ENTRY_OVERHEAD = 48;
+
+    /**
+     * The bit of a contour end that marks the contour as closed.
+     */
+    private static final int CLOSED = 0x80000000;
+
+    /**
+     * The smallest and largest zoom buckets, as powers of two.
+     */
+    private static final int MIN_BUCKET = -24;
+    private static final int MAX_BUCKET = 24;
+
+    /**
+     * The end of the least recently used list.
+     */
+    private static final int NONE = -1;
+
+    private final ShapeGeometry geometry;
+    private final PolygonBuffer scratch;
+    private final Matrix identity;
+    private float tolerance;
+    private int capacity;
+    private int size;
+    private int count;
+    private int hits;
+    private int misses;
+    private int frame;
+
+    // the entries, indexed by element
+    private float[][] points;
+    private int[][] contours;
+    private byte[] buckets;
+    private int[] frames;
+    private int[] older;
+    private int[] newer;
+    private int newest;
+    private int oldest;
+
+    /**
+     * Creates a new, empty instance of <code>TessellationCache</code> with
+     * the default capacity and tolerance.
+     */
+    public TessellationCache() {
+        this.geometry = new ShapeGeometry();
+        this.scratch = new PolygonBuffer();
+        this.identity = new Matrix();
+        this.tolerance = PathFlattener.DEFAULT_TOLERANCE;
+        this.capacity = DEFAULT_CAPACITY;
+        this.points = new float[0][];
+        this.contours = new int[0][];
+        this.buckets = new byte[0];
+        this.frames = new int[0];
+        this.older = new int[0];
+        this.newer = new int[0];
+        this.newest = NONE;
+        this.oldest = NONE;
+    }
+
+    /**
+     * Returns the maximum deviation of the outlines from the true curves.
+     *
+     * @return the tolerance, in device pixels
+     */
+    public float getTolerance() {
+        return this.tolerance;
+    }
+
+    /**
+     * Sets the maximum deviation of the outlines from the true curves,
+     * discarding every outline if it changes.
+     *
+     * @param tolerance the tolerance, in device pixels
+     * @throws IllegalArgumentException if tolerance is not positive
+     */
+    public void setTolerance(float tolerance) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("invalid tolerance: "
+                + tolerance);
+        }
+        if (tolerance != this.tolerance) {
+            this.tolerance = tolerance;
+            this.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the maximum number of bytes of outlines held.
+     *
+     * @return the capacity, in bytes
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Sets the maximum number of bytes of outlines held, discarding the least
+     * recently used outlines until they fit.
+     *
+     * @param capacity the capacity, in bytes; 0 to hold no outlines, so that
+     * every shape is flattened each time it is drawn
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("invalid capacity: "
+                + capacity);
+        }
+        this.capacity = capacity;
+        while (this.size > capacity) {
+            this.invalidate(this.oldest);
+        }
+    }
+
+    /**
+     * Returns the number of bytes of outlines held.
+     *
+     * @return the estimated size of the outlines, in bytes
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns the number of outlines held.
+     *
+     * @return the number of outlines
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the number of times an outline was found since the counts were
+     * last reset.
+     *
+     * @return the number of hits
+     */
+    public int getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of times an outline was flattened since the counts
+     * were last reset.
+     *
+     * @return the number of misses
+     */
+    public int getMissCount() {
+        return this.misses;
+    }
+
+    /**
+     * Sets the hit and miss counts back to zero.
+     */
+    public void resetCounts() {
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Starts a new frame, after which the outlines used in previous frames
+     * may be discarded to make room for others. This should be invoked once
+     * before each frame is drawn, however many passes it is drawn in.
+     */
+    public void nextFrame() {
+        this.frame++;
+    }
+
+    /**
+     * Appends the outline of a shape in device coordinates to a buffer,
+     * flattening it unless an outline flattened for the same zoom bucket is
+     * held.
+     *
+     * @param document the document containing the shape
+     * @param element the index of the shape element
+     * @param matrix the transformation from the shape's user coordinates to
+     * device coordinates
+     * @param out the buffer to which to append the outline's contours
+     * @return true if the element is a shape with a non-empty outline, false
+     * otherwise
+     * @throws NullPointerException if any object argument is null
+     * @see ShapeGeometry#flatten(SVGDocument, int, Matrix, PolygonBuffer)
+     */
+    public boolean flatten(SVGDocument document, int element, Matrix matrix,
+            PolygonBuffer out) {
+        // the largest factor by which the matrix stretches a length, its
+        // largest singular value
+        final float sum = matrix.a * matrix.a + matrix.b * matrix.b
+            + matrix.c * matrix.c + matrix.d * matrix.d;
+        final float det = matrix.a * matrix.d - matrix.b * matrix.c;
+        final float stretch = (float) Math.sqrt((sum + (float) Math.sqrt(
+            Math.max(0, sum * sum - 4 * det * det))) / 2);
+        final PathFlattener flattener = this.geometry.getFlattener();
+        if (this.capacity == 0 || !(stretch > 0)) {
+            flattener.setTolerance(this.tolerance);
+            return this.geometry.flatten(document, element, matrix, out);
+        }
+        int bucket = 0;
+        float scale = 1;
+        while (scale < stretch && bucket < MAX_BUCKET) {
+            scale *= 2;
+            bucket++;
+        }
+        while (scale / 2 >= stretch && bucket > MIN_BUCKET) {
+            scale /= 2;
+            bucket--;
+        }
+
+        if (element < this.buckets.length && this.points[element] != null
+            && this.buckets[element] == bucket) {
+            this.hits++;
+            this.frames[element] = this.frame;
+            this.unlink(element);
+            this.link(element);
+            emit(this.points[element], this.contours[element], matrix, out);
+            return true;
+        }
+
+        // flatten the outline in user coordinates
+        this.misses++;
+        this.invalidate(element);
+        final PolygonBuffer scratch = this.scratch;
+        scratch.reset();
+        flattener.setTolerance(this.tolerance / scale);
+        if (!this.geometry.flatten(document, element, this.identity,
+            scratch)) {
+            return false;
+        }
+        final int pointCount = scratch.getPointCount();
+        final int contourCount = scratch.getContourCount();
+        final float[] xs = scratch.getXs();
+        final float[] ys = scratch.getYs();
+        final float[] points = new float[pointCount * 2];
+        for (int i = 0; i < pointCount; i++) {
+            points[i * 2] = xs[i];
+            points[i * 2 + 1] = ys[i];
+        }
+        final int[] contours = new int[contourCount];
+        for (int i = 0; i < contourCount; i++) {
+            contours[i] = scratch.getContourEnd(i)
+                | (scratch.isContourClosed(i) ? CLOSED : 0);
+        }
+
+        final int bytes = sizeOf(points, contours);
+        this.evict(bytes);
+        if (this.size + bytes <= this.capacity) {
+            this.ensureCapacity(element + 1);
+            this.points[element] = points;
+            this.contours[element] = contours;
+            this.buckets[element] = (byte) bucket;
+            this.frames[element] = this.frame;
+            this.size += bytes;
+            this.count++;
+            this.link(element);
+        }
+        emit(points, contours, matrix, out);
+        return true;
+    }
+
+    /**
+     * Discards the outline of a shape, if held. This must be invoked when an
+     * attribute of the shape that affects its geometry changes (see
+     * {@link ShapeGeometry#isGeometryAttribute(SVGDocument, int)}).
+     *
+     * @param element the index of the shape element
+     */
+    public void invalidate(int element) {
+        if (element < 0 || element >= this.points.length
+            || this.points[element] == null) {
+            return;
+        }
+        this.unlink(element);
+        this.size -= sizeOf(this.points[element], this.contours[element]);
+        this.count--;
+        this.points[element] = null;
+        this.contours[element] = null;
+    }
+
+    /**
+     * Discards every outline, such as when another document is rendered.
+     */
+    public void invalidateAll() {
+        for (int i = 0; i < this.points.length; i++) {
+            this.points[i] = null;
+            this.contours[i] = null;
+        }
+        this.newest = NONE;
+        this.oldest = NONE;
+        this.size = 0;
+        this.count = 0;
+    }
+
+    /**
+     * Transforms an outline to device coordinates and appends it to a
+     * buffer.
+     */
+    private static void emit(float[] points, int[] contours, Matrix matrix,
+            PolygonBuffer out) {
+        final float a = matrix.a;
+        final float b = matrix.b;
+        final float c = matrix.c;
+        final float d = matrix.d;
+        final float e = matrix.e;
+        final float f = matrix.f;
+        int i = 0;
+        for (int contour = 0; contour < contours.length; contour++) {
+            final int end = (contours[contour] & ~CLOSED) * 2;
+            float x = points[i++];
+            float y = points[i++];
+            out.moveTo(a * x + c * y + e, b * x + d * y + f);
+            while (i < end) {
+                x = points[i++];
+                y = points[i++];
+                out.lineTo(a * x + c * y + e, b * x + d * y + f);
+            }
+            out.endContour((contours[contour] & CLOSED) != 0);
+        }
+    }
+
+    /**
+     * Estimates the number of bytes taken by an entry.
+     */
+    private static int sizeOf(float[] points, int[] contours) {
+        return ENTRY_OVERHEAD + points.length * 4 + contours.length * 4;
+    }
+
+    /**
+     * Discards the least recently used outlines until an outline of the
+     * given size fits, or until the least recently used outline was used in
+     * the current frame.
+     */
+    private void evict(int bytes) {
+        while (this.oldest != NONE && this.size + bytes > this.capacity
+            && this.frames[this.oldest] != this.frame) {
+            this.invalidate(this.oldest);
+        }
+    }
+
+    /**
+     * Makes an element the most recently used.
+     */
+    private void link(int element) {
+        this.older[element] = this.newest;
+        this.newer[element] = NONE;
+        if (this.newest != NONE) {
+            this.newer[this.newest] = element;
+        } else {
+            this.oldest = element;
+        }
+        this.newest = element;
+    }
+
+    /**
+     * Takes an element out of the least recently used list.
+     */
+    private void unlink(int element) {
+        final int older = this.older[element];
+        final int newer = this.newer[element];
+        if (older != NONE) {
+            this.newer[older] = newer;
+        } else {
+            this.oldest = newer;
+        }
+        if (newer != NONE) {
+            this.older[newer] = older;
+        } else {
+            this.newest = older;
+        }
+    }
+
+    /**
+     * Grows the arrays of entries to hold at least the given number of
+     * elements.
+     */
+    private void ensureCapacity(int elementCount) {
+        final int length = this.points.length;
+        if (elementCount <= length) {
+            return;
+        }
+        final int capacity = Math.max(elementCount, length * 2);
+        final float[][] points = new float[capacity][];
+        System.arraycopy(this.points, 0, points, 0, length);
+        this.points = points;
+        final int[][] contours = new int[capacity][];
+        System.arraycopy(this.contours, 0, contours, 0, length);
+        this.contours = contours;
+        final byte[] buckets = new byte[capacity];
+        System.arraycopy(this.buckets, 0, buckets, 0, length);
+        this.buckets = buckets;
+        final int[] frames = new int[capacity];
+        System.arraycopy(this.frames, 0, frames, 0, length);
+        this.frames = frames;
+        final int[] older = new int[capacity];
+        System.arraycopy(this.older, 0, older, 0, length);
+        this.older = older;
+        final int[] newer = new int[capacity];
+        System.arraycopy(this.newer, 0, newer, 0, length);
+        this.newer = newer;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * TileCache.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+/**
+ * A fixed number of square {@link RasterSurface} tiles, each holding the
+ * rendered pixels of one cell of a grid. When every tile is in use the least
+ * recently used one is recycled, so no surfaces are allocated after the
+ * cache fills up. Each tile is marked with whether it was rendered at draft
+ * quality, so that it can be rendered again at full quality later.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class TileCache {
+
+    private final int tileSize;
+    private final RasterSurface[] tiles;
+    private final int[] columns;
+    private final int[] rows;
+    private final boolean[] valid;
+    private final boolean[] drafts;
+    private final long[] lastUsed;
+    private long clock;
+
+    /**
+     * Creates a new, empty instance of <code>TileCache</code>. The tiles are
+     * allocated as they are first needed.
+     *
+     * @param capacity the maximum number of tiles
+     * @param tileSize the width and height of each tile, in pixels
+     * @throws IllegalArgumentException if capacity or tileSize is not
+     * positive
+     */
+    public TileCache(int capacity, int tileSize) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("invalid capacity: " + capacity);
+        } else if (tileSize <= 0) {
+            throw new IllegalArgumentException("invalid tileSize: " + tileSize);
+        }
+        this.tileSize = tileSize;
+        this.tiles = new RasterSurface[capacity];
+        this.columns = new int[capacity];
+        this.rows = new int[capacity];
+        this.valid = new boolean[capacity];
+        this.drafts = new boolean[capacity];
+        this.lastUsed = new long[capacity];
+    }
+
+    /**
+     * Returns the width and height of the tiles.
+     *
+     * @return the size of each tile, in pixels
+     */
+    public int getTileSize() {
+        return this.tileSize;
+    }
+
+    /**
+     * Returns the maximum number of tiles in this cache.
+     *
+     * @return the capacity of this cache
+     */
+    public int getCapacity() {
+        return this.tiles.length;
+    }
+
+    /**
+     * Returns the number of tiles whose pixels are valid.
+     *
+     * @return the number of valid tiles
+     */
+    public int getValidCount() {
+        int count = 0;
+        for (int i = this.valid.length - 1; i >= 0; i--) {
+            if (this.valid[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the valid tile for a cell and marks it as most recently used.
+     *
+     * @param column the column of the cell
+     * @param row the row of the cell
+     * @return the tile, or null if the cell has no valid tile
+     */
+    public RasterSurface get(int column, int row) {
+        final int index = this.find(column, row);
+        if (index < 0) {
+            return null;
+        }
+        this.lastUsed[index] = ++this.clock;
+        return this.tiles[index];
+    }
+
+    /**
+     * Returns a tile for a cell into which the caller is to render, recycling
+     * the least recently used tile if necessary. The tile is considered valid
+     * and not a draft from then on, but its pixels are left as they were.
+     *
+     * @param column the column of the cell
+     * @param row the row of the cell
+     * @return the tile; never returns null
+     */
+    public RasterSurface allocate(int column, int row) {
+        int index = this.find(column, row);
+        if (index < 0) {
+            index = 0;
+            for (int i = 1; i < this.tiles.length && this.valid[index]; i++) {
+                if (!this.valid[i] || this.lastUsed[i] < this.lastUsed[index]) {
+                    index = i;
+                }
+            }
+        }
+        if (this.tiles[index] == null) {
+            this.tiles[index] = new RasterSurface(this.tileSize, this.tileSize);
+        }
+        this.columns[index] = column;
+        this.rows[index] = row;
+        this.valid[index] = true;
+        this.drafts[index] = false;
+        this.lastUsed[index] = ++this.clock;
+        return this.tiles[index];
+    }
+
+    /**
+     * Returns whether the valid tile for a cell was rendered at draft
+     * quality.
+     *
+     * @param column the column of the cell
+     * @param row the row of the cell
+     * @return true if the cell has a valid tile marked as a draft
+     */
+    public boolean isDraft(int column, int row) {
+        final int index = this.find(column, row);
+        return (index >= 0 && this.drafts[index]);
+    }
+
+    /**
+     * Marks the valid tile for a cell as rendered at draft quality or not.
+     * This does nothing if the cell has no valid tile.
+     *
+     * @param column the column of the cell
+     * @param row the row of the cell
+     * @param draft true if the tile was rendered at draft quality
+     */
+    public void setDraft(int column, int row, boolean draft) {
+        final int index = this.find(column, row);
+        if (index >= 0) {
+            this.drafts[index] = draft;
+        }
+    }
+
+    /**
+     * Invalidates the tiles of a rectangle of cells.
+     *
+     * @param column0 the first column to invalidate
+     * @param row0 the first row to invalidate
+     * @param column1 the column after the last column to invalidate
+     * @param row1 the row after the last row to invalidate
+     * @return the number of tiles invalidated
+     */
+    public int invalidate(int column0, int row0, int column1, int row1) {
+        int count = 0;
+        for (int i = this.tiles.length - 1; i >= 0; i--) {
+            if (this.valid[i] && this.columns[i] >= column0
+                && this.columns[i] < column1 && this.rows[i] >= row0
+                && this.rows[i] < row1) {
+                this.valid[i] = false;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Invalidates every tile. The tiles themselves are kept for reuse.
+     */
+    public void invalidateAll() {
+        for (int i = this.valid.length - 1; i >= 0; i--) {
+            this.valid[i] = false;
+        }
+    }
+
+    /**
+     * Finds the valid tile for a cell.
+     *
+     * @return the index of the tile, or -1 if there is none
+     */
+    private int find(int column, int row) {
+        for (int i = this.tiles.length - 1; i >= 0; i--) {
+            if (this.valid[i] && this.columns[i] == column
+                && this.rows[i] == row) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
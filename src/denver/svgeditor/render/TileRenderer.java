@@ -0,0 +1,924 @@
+/*
+ * TileRenderer.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * Renders a viewport onto a document by composing cached tiles. The document
+ * is rendered at a zoom factor into "canvas" pixels, which are divided into a
+ * grid of square tiles; a frame copies the tiles that overlap the viewport
+ * into the target, rendering only the tiles that are not cached. Scrolling
+ * therefore re-renders only the newly exposed tiles, and an edit re-renders
+ * only the tiles that intersect the bounding boxes of the changed elements
+ * before and after the change. The shapes are also kept in an {@link RTree}
+ * that is used to hit-test them and to skip rendering empty tiles.
+ * <p>
+ * Tiles are rendered from a {@link DisplayList} of the document, which is
+ * compiled when the first frame is begun and then, after each edit, only
+ * for the changed elements, so that rendering a tile neither walks the tree
+ * nor resolves styles. Hit-testing also uses the list: the shapes whose
+ * boxes contain the point are found in the index, and the one painted last
+ * is topmost.
+ * <p>
+ * While the view is being panned or zoomed, frames may be rendered at draft
+ * quality with {@link #setDraft(boolean)}. The tiles rendered then are
+ * marked as drafts and reused as they are while drafting; once back at full
+ * quality, each frame renders the draft tiles it shows again, for up to
+ * {@link #getRefineMillis()} per frame, so that full quality is restored
+ * progressively over as many frames as it takes.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class TileRenderer {
+
+    /**
+     * The default width and height of a tile, in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    /**
+     * The default time, in milliseconds, for which a frame renders draft
+     * tiles again at full quality.
+     */
+    public static final long DEFAULT_REFINE_MILLIS = 40;
+
+    private final DocumentRenderer renderer;
+    private final DisplayList displayList;
+    private final ElementBounds bounds;
+    private final RTree index;
+    private final TileCache cache;
+    private final Matrix tileMatrix;
+    private final float[] box;
+    private final float[] oldBox;
+
+    private SVGDocument document;
+    private float zoom;
+    private int scrollX;
+    private int scrollY;
+    private int background;
+    private long refineMillis;
+
+    // the frame being rendered, one tile at a time
+    private RasterSurface frameTarget;
+    private long frameStart;
+    private int frameColumn0;
+    private int frameColumn1;
+    private int frameRow1;
+    private int nextColumn;
+    private int nextRow;
+    private boolean frameDraft;
+
+    // statistics of the most recent frame
+    private long frameMillis;
+    private long compileMillis;
+    private int tilesRendered;
+    private int tilesReused;
+    private int tilesRefined;
+    private int draftTiles;
+    private int shapesDrawn;
+    private int opsCulled;
+    private int opsDropped;
+
+    /**
+     * Creates a new instance of <code>TileRenderer</code> with tiles of the
+     * default size.
+     *
+     * @param maxTiles the maximum number of tiles to cache; should be at least
+     * the number of tiles needed to cover the viewport, plus a margin so that
+     * scrolling back and forth does not re-render
+     * @throws IllegalArgumentException if maxTiles is not positive
+     */
+    public TileRenderer(int maxTiles) {
+        this(maxTiles, DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Creates a new instance of <code>TileRenderer</code>.
+     *
+     * @param maxTiles the maximum number of tiles to cache
+     * @param tileSize the width and height of each tile, in pixels
+     * @throws IllegalArgumentException if maxTiles or tileSize is not
+     * positive
+     */
+    public TileRenderer(int maxTiles, int tileSize) {
+        this.renderer = new DocumentRenderer();
+        this.displayList = new DisplayList();
+        this.bounds = new ElementBounds();
+        this.index = new RTree();
+        this.cache = new TileCache(maxTiles, tileSize);
+        this.tileMatrix = new Matrix();
+        this.box = new float[4];
+        this.oldBox = new float[4];
+        this.zoom = 1;
+        this.background = 0xFFFFFFFF;
+        this.refineMillis = DEFAULT_REFINE_MILLIS;
+    }
+
+    /**
+     * Computes the number of tiles needed to cover a viewport at any scroll
+     * position, plus a one-tile margin on every side.
+     *
+     * @param width the width of the viewport, in pixels
+     * @param height the height of the viewport, in pixels
+     * @param tileSize the width and height of each tile, in pixels
+     * @return the suggested number of tiles to cache
+     */
+    public static int getSuggestedTileCount(int width, int height,
+            int tileSize) {
+        final int columns = (width + tileSize - 1) / tileSize + 3;
+        final int rows = (height + tileSize - 1) / tileSize + 3;
+        return columns * rows;
+    }
+
+    /**
+     * Returns the renderer used to draw tiles.
+     *
+     * @return the document renderer; never returns null
+     */
+    public DocumentRenderer getDocumentRenderer() {
+        return this.renderer;
+    }
+
+    /**
+     * Returns the display list from which tiles are rendered.
+     *
+     * @return the display list, which may be out of date until a frame is
+     * begun; never returns null
+     */
+    public DisplayList getDisplayList() {
+        return this.displayList;
+    }
+
+    /**
+     * Returns the document being rendered.
+     *
+     * @return the document, or null if none has been set
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Sets the document to render, measuring the bounding boxes of its
+     * elements, indexing its shapes and discarding every cached tile and
+     * the display list.
+     *
+     * @param document the document to render; may be null to render only the
+     * background
+     */
+    public void setDocument(SVGDocument document) {
+        this.document = document;
+        this.displayList.invalidateAll();
+        if (document != null) {
+            this.renderer.getStyleResolver().invalidate();
+            this.renderer.measure(document, this.bounds);
+            final int count = document.getElementCount();
+            final int[] shapes = new int[count];
+            int shapeCount = 0;
+            for (int element = 0; element < count; element++) {
+                if (isIndexed(document.getKind(element))) {
+                    shapes[shapeCount++] = element;
+                }
+            }
+            this.index.load(this.bounds, shapes, shapeCount);
+        } else {
+            this.index.clear();
+        }
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Replaces the document with a later frozen copy of the same document,
+     * such as one taken for rendering on another thread, keeping the
+     * bounding boxes, the index, the cached tiles and the caches of the
+     * document renderer. Each change made to the document between the two
+     * copies must then be reported, in the order made, to
+     * {@link #invalidateGeometry(int, int)},
+     * {@link #invalidateStyles(int, int)} and
+     * {@link #invalidateElement(int, float[])}, as it would have been had it
+     * been made to the document being rendered. If no document is being
+     * rendered, the copy is set as with {@link #setDocument(SVGDocument)}.
+     *
+     * @param document the later copy of the document
+     * @throws NullPointerException if document==null
+     * @see SVGDocument#freeze()
+     */
+    public void replaceDocument(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (this.document == null) {
+            this.setDocument(document);
+            return;
+        }
+        this.document = document;
+        this.renderer.replaceDocument(document);
+    }
+
+    /**
+     * Returns the bounding boxes of the elements of the document.
+     *
+     * @return the bounding boxes, in document coordinates; never returns null
+     */
+    public ElementBounds getBounds() {
+        return this.bounds;
+    }
+
+    /**
+     * Returns the spatial index of the shapes of the document.
+     *
+     * @return the index of the bounding boxes of the document's shapes and
+     * use elements, in document coordinates; never returns null
+     */
+    public RTree getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Finds the topmost shape under a point of the viewport, comparing the
+     * point with the bounding boxes of the shapes.
+     *
+     * @param x the x coordinate of the point, relative to the viewport
+     * @param y the y coordinate of the point, relative to the viewport
+     * @param tolerance the distance, in pixels, by which the point may miss a
+     * shape's box
+     * @return the index of the shape or use element, or -1 if there is none
+     * @see #hitTest(float, float, float)
+     */
+    public int hitTest(int x, int y, int tolerance) {
+        final float zoom = this.zoom;
+        return this.hitTest((x + this.scrollX) / zoom, (y + this.scrollY)
+            / zoom, tolerance / zoom);
+    }
+
+    /**
+     * Finds the topmost shape under a point of the document, comparing the
+     * point with the bounding boxes of the shapes. Of the shapes and use
+     * elements whose boxes contain the point, the one whose last op is
+     * painted last is topmost; those with no ops, such as hidden shapes, are
+     * not hit. The display list is compiled first if it is out of date.
+     *
+     * @param x the x coordinate of the point, in document coordinates
+     * @param y the y coordinate of the point, in document coordinates
+     * @param tolerance the distance, in document units, by which the point
+     * may miss a shape's box
+     * @return the index of the shape or use element, or -1 if there is none
+     */
+    public int hitTest(float x, float y, float tolerance) {
+        this.updateDisplayList();
+        final RTree index = this.index;
+        final int count =
+            index.query(x - tolerance, y - tolerance, x + tolerance, y
+                + tolerance);
+        final int[] results = index.getResults();
+        final DisplayList list = this.displayList;
+        int hit = -1;
+        int hitOp = -1;
+        for (int i = 0; i < count; i++) {
+            final int op = list.getLastOp(results[i]);
+            if (op > hitOp) {
+                hit = results[i];
+                hitOp = op;
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * Returns the zoom factor.
+     *
+     * @return the number of canvas pixels per document unit
+     */
+    public float getZoom() {
+        return this.zoom;
+    }
+
+    /**
+     * Sets the zoom factor, discarding every cached tile if it changes.
+     *
+     * @param zoom the number of canvas pixels per document unit
+     * @throws IllegalArgumentException if zoom is not positive
+     */
+    public void setZoom(float zoom) {
+        if (!(zoom > 0)) {
+            throw new IllegalArgumentException("invalid zoom: " + zoom);
+        }
+        if (zoom != this.zoom) {
+            this.zoom = zoom;
+            this.cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns the x coordinate of the left edge of the viewport.
+     *
+     * @return the canvas x coordinate shown at the left edge of the target
+     */
+    public int getScrollX() {
+        return this.scrollX;
+    }
+
+    /**
+     * Returns the y coordinate of the top edge of the viewport.
+     *
+     * @return the canvas y coordinate shown at the top edge of the target
+     */
+    public int getScrollY() {
+        return this.scrollY;
+    }
+
+    /**
+     * Scrolls the viewport. Cached tiles remain valid.
+     *
+     * @param x the canvas x coordinate to show at the left edge of the target
+     * @param y the canvas y coordinate to show at the top edge of the target
+     */
+    public void scrollTo(int x, int y) {
+        this.scrollX = x;
+        this.scrollY = y;
+    }
+
+    /**
+     * Sets the color drawn behind the document.
+     *
+     * @param argb the background color
+     */
+    public void setBackground(int argb) {
+        if (argb != this.background) {
+            this.background = argb;
+            this.cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns whether shapes are drawn with fixed-point arithmetic.
+     *
+     * @return true if shapes are drawn with fixed point
+     * @see DocumentRenderer#isFixedPoint()
+     */
+    public boolean isFixedPoint() {
+        return this.renderer.isFixedPoint();
+    }
+
+    /**
+     * Sets whether shapes are drawn with fixed-point arithmetic, discarding
+     * every cached tile if it changes.
+     *
+     * @param fixedPoint true to draw shapes with fixed point, false to draw
+     * them with floats
+     * @see DocumentRenderer#setFixedPoint(boolean)
+     */
+    public void setFixedPoint(boolean fixedPoint) {
+        if (fixedPoint != this.renderer.isFixedPoint()) {
+            this.renderer.setFixedPoint(fixedPoint);
+            this.cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns whether the edges of shapes are anti-aliased.
+     *
+     * @return true if the edges of shapes are anti-aliased
+     * @see DocumentRenderer#isAntiAliased()
+     */
+    public boolean isAntiAliased() {
+        return this.renderer.isAntiAliased();
+    }
+
+    /**
+     * Sets whether the edges of shapes are anti-aliased, discarding every
+     * cached tile if it changes.
+     *
+     * @param antiAliased true to anti-alias the edges of shapes, false to
+     * paint only the pixels whose centers they cover
+     * @see DocumentRenderer#setAntiAliased(boolean)
+     */
+    public void setAntiAliased(boolean antiAliased) {
+        if (antiAliased != this.renderer.isAntiAliased()) {
+            this.renderer.setAntiAliased(antiAliased);
+            this.cache.invalidateAll();
+        }
+    }
+
+    /**
+     * Returns whether frames are rendered at draft quality.
+     *
+     * @return true if frames are rendered at draft quality
+     * @see DocumentRenderer#isDraft()
+     */
+    public boolean isDraft() {
+        return this.renderer.isDraft();
+    }
+
+    /**
+     * Sets whether frames are rendered at draft quality. Cached tiles are
+     * kept either way: draft tiles are rendered again at full quality by the
+     * frames begun after returning to full quality.
+     *
+     * @param draft true to render the tiles that are not cached at draft
+     * quality, false to render them, and then the cached draft tiles, at
+     * full quality
+     * @see DocumentRenderer#setDraft(boolean)
+     */
+    public void setDraft(boolean draft) {
+        this.renderer.setDraft(draft);
+    }
+
+    /**
+     * Returns the time for which a frame renders draft tiles again.
+     *
+     * @return the time, in milliseconds, after the beginning of a frame
+     * at full quality until which it renders the draft tiles it shows again
+     * at full quality; at least one is rendered in every such frame
+     */
+    public long getRefineMillis() {
+        return this.refineMillis;
+    }
+
+    /**
+     * Sets the time for which a frame renders draft tiles again.
+     *
+     * @param refineMillis the time, in milliseconds; zero renders one draft
+     * tile again per frame
+     * @throws IllegalArgumentException if refineMillis is negative
+     */
+    public void setRefineMillis(long refineMillis) {
+        if (refineMillis < 0) {
+            throw new IllegalArgumentException("invalid refineMillis: "
+                + refineMillis);
+        }
+        this.refineMillis = refineMillis;
+    }
+
+    /**
+     * Invalidates the tiles that intersect a rectangle of the document.
+     *
+     * @param x0 the left edge of the rectangle, in document coordinates
+     * @param y0 the top edge of the rectangle
+     * @param x1 the right edge of the rectangle
+     * @param y1 the bottom edge of the rectangle
+     * @return the number of cached tiles invalidated
+     */
+    public int invalidate(float x0, float y0, float x1, float y1) {
+        final int size = this.cache.getTileSize();
+        final float zoom = this.zoom;
+        // expand by a pixel for rounding at the edges of spans
+        final int column0 = floorDiv((int) Math.floor(x0 * zoom) - 1, size);
+        final int row0 = floorDiv((int) Math.floor(y0 * zoom) - 1, size);
+        final int column1 = floorDiv((int) Math.ceil(x1 * zoom) + 1, size) + 1;
+        final int row1 = floorDiv((int) Math.ceil(y1 * zoom) + 1, size) + 1;
+        return this.cache.invalidate(column0, row0, column1, row1);
+    }
+
+    /**
+     * Invalidates the tiles affected by a change to an element: those that
+     * intersect its bounding box before the change and those that intersect
+     * it after. This must be invoked after the element (including its
+     * attributes and descendants) has been changed. If the element has been
+     * removed from the tree, it and its descendants are given empty boxes and
+     * taken out of the index.
+     *
+     * @param element the index of the changed element
+     * @param oldBounds the left, top, right and bottom edges of the element's
+     * bounding box before the change, in document coordinates, as returned
+     * from {@link ElementBounds#getBounds(int, float[])}; may be null if it
+     * had none, such as when the element was just created
+     */
+    public void invalidateElement(int element, float[] oldBounds) {
+        if (this.document == null) {
+            return;
+        }
+        if (oldBounds != null) {
+            this.invalidate(oldBounds[0], oldBounds[1], oldBounds[2],
+                oldBounds[3]);
+        }
+        this.displayList.markChanged(this.document, element);
+        if (this.document.isRemoved(element)) {
+            this.clearBounds(element);
+        } else {
+            this.renderer.measureElement(this.document, element, this.bounds);
+            if (this.bounds.getBounds(element, this.box)) {
+                this.invalidate(this.box[0], this.box[1], this.box[2],
+                    this.box[3]);
+            }
+        }
+        this.updateIndex(element);
+    }
+
+    /**
+     * Discards the cached styles affected by a change to the document, and
+     * invalidates the tiles of the other elements whose styles the change
+     * affects, such as those matched by a rule of an edited
+     * <code>style</code> element. This must be invoked before
+     * {@link #invalidateElement(int, float[])} for the same change, so that
+     * the changed element is measured with its new style.
+     *
+     * @param element the index of the element that was created, moved or
+     * changed
+     * @param nameId the ID of the name of the attribute that was changed, or
+     * -1 if the element was created, removed or put back
+     * @see StyleResolver#elementChanged(SVGDocument, int, int)
+     */
+    public void invalidateStyles(int element, int nameId) {
+        if (this.document == null) {
+            return;
+        }
+        final StyleResolver styles = this.renderer.getStyleResolver();
+        final int count = styles.elementChanged(this.document, element, nameId);
+        if (count < 0) {
+            this.invalidateAll();
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            final int affected = styles.getAffectedElement(i);
+            this.invalidateElement(affected, this.bounds.getBounds(affected,
+                this.oldBox) ? this.oldBox : null);
+        }
+    }
+
+    /**
+     * Discards the cached outline of a shape if a change to the document
+     * affects its geometry, so that it is flattened again when it is next
+     * drawn. This must be invoked before
+     * {@link #invalidateElement(int, float[])} for the same change.
+     * Changes that only move the shape, such as to its transform, keep its
+     * outline, which is held in its user coordinates.
+     *
+     * @param element the index of the element that was created, moved or
+     * changed
+     * @param nameId the ID of the name of the attribute that was changed, or
+     * -1 if the element was created, removed or put back
+     * @see TessellationCache#invalidate(int)
+     */
+    public void invalidateGeometry(int element, int nameId) {
+        if (this.document == null || nameId < 0) {
+            return;
+        }
+        final DocumentRenderer renderer = this.renderer;
+        if (renderer.getGeometry().isGeometryAttribute(this.document, nameId)) {
+            renderer.getTessellationCache().invalidate(element);
+        }
+    }
+
+    /**
+     * Invalidates every cached tile, such as after a change whose extent is
+     * not known. The bounding boxes are measured again and the display list
+     * is compiled again.
+     */
+    public void invalidateAll() {
+        this.setDocument(this.document);
+    }
+
+    /**
+     * Renders a frame into a target the size of the viewport.
+     *
+     * @param target the surface into which to render; its width and height
+     * are the size of the viewport
+     * @throws NullPointerException if target==null
+     */
+    public void render(RasterSurface target) {
+        this.beginFrame(target);
+        while (this.renderNextTile()) {
+            // render the tiles one after another
+        }
+    }
+
+    /**
+     * Begins a frame that is rendered one tile at a time by
+     * {@link #renderNextTile()}, so that a thread rendering it can let
+     * others use this renderer between tiles, compiling the display list
+     * first if it is out of date. Any frame that was begun and not completed
+     * is abandoned.
+     *
+     * @param target the surface into which to render; its width and height
+     * are the size of the viewport
+     * @throws NullPointerException if target==null
+     */
+    public void beginFrame(RasterSurface target) {
+        if (target == null) {
+            throw new NullPointerException("target==null");
+        }
+        this.frameStart = System.currentTimeMillis();
+        this.tilesRendered = 0;
+        this.tilesReused = 0;
+        this.tilesRefined = 0;
+        this.draftTiles = 0;
+        this.shapesDrawn = 0;
+        this.opsCulled = 0;
+        this.opsDropped = 0;
+        this.frameDraft = this.renderer.isDraft();
+        this.compileMillis =
+            this.updateDisplayList() ? this.displayList.getCompileMillis() : 0;
+        this.renderer.getTessellationCache().nextFrame();
+
+        final int size = this.cache.getTileSize();
+        this.frameTarget = target;
+        this.frameColumn0 = floorDiv(this.scrollX, size);
+        this.frameColumn1 =
+            floorDiv(this.scrollX + target.getWidth() - 1, size) + 1;
+        this.frameRow1 =
+            floorDiv(this.scrollY + target.getHeight() - 1, size) + 1;
+        this.nextColumn = this.frameColumn0;
+        this.nextRow = floorDiv(this.scrollY, size);
+    }
+
+    /**
+     * Continues the frame begun by {@link #beginFrame(RasterSurface)},
+     * copying cached tiles into the target until one tile that is not cached,
+     * or a draft tile being rendered again at full quality, has been
+     * rendered or the frame is complete.
+     *
+     * @return true if the frame has more tiles, false if it is complete or
+     * no frame has been begun
+     */
+    public boolean renderNextTile() {
+        final RasterSurface target = this.frameTarget;
+        if (target == null) {
+            return false;
+        }
+        final int size = this.cache.getTileSize();
+        while (this.nextRow < this.frameRow1) {
+            final int column = this.nextColumn;
+            final int row = this.nextRow;
+            if (++this.nextColumn == this.frameColumn1) {
+                this.nextColumn = this.frameColumn0;
+                this.nextRow++;
+            }
+
+            RasterSurface tile = this.cache.get(column, row);
+            boolean rendered = (tile == null);
+            if (!rendered && this.cache.isDraft(column, row)) {
+                if (!this.frameDraft
+                    && (this.tilesRefined == 0 || System.currentTimeMillis()
+                        - this.frameStart < this.refineMillis)) {
+                    rendered = true;
+                    this.tilesRefined++;
+                } else {
+                    this.draftTiles++;
+                }
+            }
+            if (rendered) {
+                tile = this.cache.allocate(column, row);
+                this.renderTile(tile, column, row);
+                if (this.frameDraft) {
+                    this.cache.setDraft(column, row, true);
+                    this.draftTiles++;
+                }
+                this.tilesRendered++;
+            } else {
+                this.tilesReused++;
+            }
+            target.copyFrom(tile, 0, 0, column * size - this.scrollX, row
+                * size - this.scrollY, size, size);
+            if (rendered) {
+                return true;
+            }
+        }
+        this.frameTarget = null;
+        this.frameMillis = System.currentTimeMillis() - this.frameStart;
+        return false;
+    }
+
+    /**
+     * Returns the time taken to render the most recent frame.
+     *
+     * @return the duration of the most recent complete frame, from its
+     * beginning to its end, in milliseconds
+     */
+    public long getFrameMillis() {
+        return this.frameMillis;
+    }
+
+    /**
+     * Returns the number of tiles rendered in the most recent frame.
+     *
+     * @return the number of tiles that were not cached
+     */
+    public int getTilesRendered() {
+        return this.tilesRendered;
+    }
+
+    /**
+     * Returns the number of cached tiles reused in the most recent frame.
+     *
+     * @return the number of tiles that were copied from the cache
+     */
+    public int getTilesReused() {
+        return this.tilesReused;
+    }
+
+    /**
+     * Returns the number of draft tiles rendered again at full quality in
+     * the most recent frame.
+     *
+     * @return the number of draft tiles refined, which are also counted by
+     * {@link #getTilesRendered()}
+     */
+    public int getTilesRefined() {
+        return this.tilesRefined;
+    }
+
+    /**
+     * Returns the number of tiles of the most recent frame that are at draft
+     * quality.
+     *
+     * @return the number of draft tiles rendered or reused; if this is
+     * positive in a frame at full quality, the next frame refines more of
+     * them
+     */
+    public int getDraftTiles() {
+        return this.draftTiles;
+    }
+
+    /**
+     * Returns the number of shapes drawn in the most recent frame.
+     *
+     * @return the number of ops of the display list drawn into newly
+     * rendered tiles; an op drawn into several tiles is counted once for
+     * each
+     */
+    public int getShapesDrawn() {
+        return this.shapesDrawn;
+    }
+
+    /**
+     * Returns the number of ops skipped in the most recent frame.
+     *
+     * @return the number of ops of the display list culled from newly
+     * rendered tiles, counted once for each tile
+     */
+    public int getOpsCulled() {
+        return this.opsCulled;
+    }
+
+    /**
+     * Returns the number of ops too small to draw at draft quality in the
+     * most recent frame.
+     *
+     * @return the number of ops of the display list dropped from newly
+     * rendered tiles, counted once for each tile
+     */
+    public int getOpsDropped() {
+        return this.opsDropped;
+    }
+
+    /**
+     * Returns the time taken to compile the display list for the most
+     * recent frame.
+     *
+     * @return the duration of the compile, in milliseconds, or zero if the
+     * list was up to date when the frame was begun
+     */
+    public long getCompileMillis() {
+        return this.compileMillis;
+    }
+
+    /**
+     * Returns a one-line summary of the most recent frame.
+     *
+     * @return a summary such as "12 ms, 3 tiles rendered, 9 reused, 2
+     * draft, 40 ops drawn, 15 culled, 4 dropped, 1 ms compile"; never
+     * returns null
+     */
+    public String getFrameSummary() {
+        return this.frameMillis + " ms, " + this.tilesRendered
+            + " tiles rendered, " + this.tilesReused + " reused, "
+            + this.draftTiles + " draft, " + this.shapesDrawn
+            + " ops drawn, " + this.opsCulled + " culled, "
+            + this.opsDropped + " dropped, " + this.compileMillis
+            + " ms compile";
+    }
+
+    /**
+     * Compiles the display list if it is out of date.
+     *
+     * @return true if the list was compiled
+     */
+    private boolean updateDisplayList() {
+        if (this.document == null || !this.displayList.needsCompile()) {
+            return false;
+        }
+        this.renderer.compile(this.document, this.displayList);
+        return true;
+    }
+
+    /**
+     * Makes the boxes of an element and its descendants empty.
+     */
+    private void clearBounds(int element) {
+        final SVGDocument document = this.document;
+        final ElementBounds bounds = this.bounds;
+        bounds.grow(document.getElementCount());
+        int e = element;
+        while (true) {
+            bounds.setEmpty(e);
+
+            // move to the next element of the subtree in document order
+            int next = document.getFirstChild(e);
+            while (next == SVGDocument.NONE && e != element) {
+                next = document.getNextSibling(e);
+                if (next == SVGDocument.NONE) {
+                    e = document.getParent(e);
+                }
+            }
+            if (next == SVGDocument.NONE) {
+                return;
+            }
+            e = next;
+        }
+    }
+
+    /**
+     * Updates the index entries of an element and its descendants after they
+     * have been measured again.
+     */
+    private void updateIndex(int element) {
+        final SVGDocument document = this.document;
+        final ElementBounds bounds = this.bounds;
+        final float[] box = this.box;
+        int e = element;
+        while (true) {
+            if (isIndexed(document.getKind(e))) {
+                if (bounds.getBounds(e, box)) {
+                    this.index.update(e, box[0], box[1], box[2], box[3]);
+                } else {
+                    this.index.remove(e);
+                }
+            }
+
+            // move to the next element of the subtree in document order
+            int next = document.getFirstChild(e);
+            while (next == SVGDocument.NONE && e != element) {
+                next = document.getNextSibling(e);
+                if (next == SVGDocument.NONE) {
+                    e = document.getParent(e);
+                }
+            }
+            if (next == SVGDocument.NONE) {
+                return;
+            }
+            e = next;
+        }
+    }
+
+    /**
+     * Returns whether or not elements of a kind are kept in the index.
+     */
+    private static boolean isIndexed(byte kind) {
+        return (ElementKind.isShape(kind) || kind == ElementKind.USE);
+    }
+
+    /**
+     * Renders the document into one tile. Tiles that no indexed element
+     * intersects are only cleared.
+     */
+    private void renderTile(RasterSurface tile, int column, int row) {
+        tile.clear(this.background);
+        if (this.document == null) {
+            return;
+        }
+        final int size = this.cache.getTileSize();
+        final float zoom = this.zoom;
+        if (!this.index.intersectsAny(column * size / zoom, row * size / zoom,
+            (column + 1) * size / zoom, (row + 1) * size / zoom)) {
+            return;
+        }
+        final Matrix m = this.tileMatrix.setIdentity();
+        m.translate(-column * size, -row * size);
+        m.scale(this.zoom, this.zoom);
+        this.renderer.render(this.displayList, m, tile, this.bounds);
+        this.shapesDrawn += this.renderer.getDrawnCount();
+        this.opsCulled += this.renderer.getCulledCount();
+        this.opsDropped += this.renderer.getDroppedCount();
+    }
+
+    /**
+     * Divides, rounding towards negative infinity.
+     */
+    private static int floorDiv(int dividend, int divisor) {
+        final int quotient = dividend / divisor;
+        return (dividend % divisor < 0) ? quotient - 1 : quotient;
+    }
+}
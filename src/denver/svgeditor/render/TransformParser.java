@@ -0,0 +1,177 @@
+/*
+ * TransformParser.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.render;
+
+import denver.svgeditor.svg.NumberScanner;
+
+/**
+ * Parses the value of an SVG <code>transform</code> attribute, such as
+ * "translate(10,20) rotate(45)", into a {@link Matrix}.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class TransformParser {
+
+    private final NumberScanner scanner;
+    private final float[] args;
+    private char[] chars;
+
+    /**
+     * Creates a new instance of <code>TransformParser</code>.
+     */
+    public TransformParser() {
+        this.scanner = new NumberScanner();
+        this.args = new float[6];
+        this.chars = new char[64];
+    }
+
+    /**
+     * Parses a transform list and applies it to a matrix.
+     * 
+     * @param value the transform list to parse
+     * @param matrix the matrix to which to apply the transforms, in order, as
+     * if by {@link Matrix#concatenate(Matrix)}
+     * @return true if the transform list was parsed successfully, false if it
+     * is malformed (in which case the matrix may have been partially
+     * modified)
+     * @throws NullPointerException if value==null or matrix==null
+     */
+    public boolean parse(String value, Matrix matrix) {
+        // copy the value into a reused buffer rather than a new array, as
+        // transforms are parsed for every frame
+        final int length = value.length();
+        if (length > this.chars.length) {
+            this.chars = new char[Math.max(length, this.chars.length * 2)];
+        }
+        final char[] chars = this.chars;
+        value.getChars(0, length, chars, 0);
+        final NumberScanner scanner = this.scanner;
+        scanner.reset(chars, 0, length);
+
+        while (scanner.skipSeparators()) {
+            final int nameStart = scanner.getPosition();
+            while (isLetter(scanner.peek())) {
+                scanner.advance();
+            }
+            final int nameEnd = scanner.getPosition();
+            scanner.skipSeparators();
+            if (nameEnd == nameStart || scanner.peek() != '(') {
+                return false;
+            }
+            scanner.advance();
+
+            int count = 0;
+            while (count < this.args.length && scanner.nextNumber()) {
+                this.args[count++] = scanner.getValue();
+            }
+            scanner.skipSeparators();
+            if (scanner.peek() != ')') {
+                return false;
+            }
+            scanner.advance();
+
+            if (!this.apply(chars, nameStart, nameEnd - nameStart, count,
+                matrix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies one transform function to a matrix.
+     * 
+     * @return true if the function and its arguments are valid, false
+     * otherwise
+     */
+    private boolean apply(char[] chars, int offset, int length, int count,
+            Matrix matrix) {
+        final float[] args = this.args;
+        if (matches(chars, offset, length, "matrix")) {
+            if (count != 6) {
+                return false;
+            }
+            matrix.concatenate(args[0], args[1], args[2], args[3], args[4],
+                args[5]);
+        } else if (matches(chars, offset, length, "translate")) {
+            if (count != 1 && count != 2) {
+                return false;
+            }
+            matrix.translate(args[0], (count == 2) ? args[1] : 0);
+        } else if (matches(chars, offset, length, "scale")) {
+            if (count != 1 && count != 2) {
+                return false;
+            }
+            matrix.scale(args[0], (count == 2) ? args[1] : args[0]);
+        } else if (matches(chars, offset, length, "rotate")) {
+            if (count == 1) {
+                matrix.rotate(args[0]);
+            } else if (count == 3) {
+                matrix.translate(args[1], args[2]);
+                matrix.rotate(args[0]);
+                matrix.translate(-args[1], -args[2]);
+            } else {
+                return false;
+            }
+        } else if (matches(chars, offset, length, "skewX")) {
+            if (count != 1) {
+                return false;
+            }
+            final float tan = (float) Math.tan(Math.toRadians(args[0]));
+            matrix.concatenate(1, 0, tan, 1, 0, 0);
+        } else if (matches(chars, offset, length, "skewY")) {
+            if (count != 1) {
+                return false;
+            }
+            final float tan = (float) Math.tan(Math.toRadians(args[0]));
+            matrix.concatenate(1, tan, 0, 1, 0, 0);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether or not a character is an ASCII letter.
+     */
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * Compares a region of a char array to a String.
+     */
+    private static boolean matches(char[] chars, int offset, int length,
+            String s) {
+        if (length != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
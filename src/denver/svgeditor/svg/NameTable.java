@@ -0,0 +1,289 @@
+/*
+ * NameTable.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * A table of interned names. Each distinct name is assigned a small integer ID
+ * the first time it is seen and the same String object is returned for every
+ * subsequent lookup of an equal name. Names can be looked up directly from a
+ * region of a char array, so that repeated element and attribute names in a
+ * document do not each allocate a new String.
+ * <p>
+ * Every new table starts with the standard names of SVG elements and
+ * attributes, copied from one shared table which is never changed once
+ * it is created, so that every document, and the code that looks names up
+ * in it, share the same String objects for them and parsing a document does
+ * not allocate them again.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class NameTable {
+
+    /**
+     * The names with which every new table starts: the SVG element and
+     * attribute names used by most documents.
+     */
+    private static final String[] STANDARD_NAMES = {"svg", "g", "defs",
+        "use", "symbol", "path", "rect", "circle", "ellipse", "line",
+        "polyline", "polygon", "text", "tspan", "image", "style", "title",
+        "desc", "linearGradient", "radialGradient", "stop", "clipPath",
+        "mask", "pattern", "metadata", "id", "class", "transform", "d",
+        "points", "x", "y", "width", "height", "rx", "ry", "cx", "cy", "r",
+        "x1", "y1", "x2", "y2", "fill", "fill-opacity", "fill-rule",
+        "stroke", "stroke-width", "stroke-opacity", "stroke-linecap",
+        "stroke-linejoin", "stroke-miterlimit", "stroke-dasharray",
+        "opacity", "display", "visibility", "viewBox", "version", "xmlns",
+        "xmlns:xlink", "xlink:href", "preserveAspectRatio", "offset",
+        "stop-color", "stop-opacity", "gradientUnits", "gradientTransform",
+        "font-family", "font-size", "text-anchor", "#text"};
+
+    /**
+     * The table of the standard names, from which every new table is copied;
+     * it is never changed after it is created, so it may be copied by any
+     * thread.
+     */
+    private static final NameTable STANDARD = new NameTable(STANDARD_NAMES);
+
+    private String[] names;
+    private int[] hashes;
+    private int[] slots;
+    private int count;
+
+    /**
+     * Creates a new instance of <code>NameTable</code> which holds the
+     * standard names of SVG elements and attributes.
+     */
+    public NameTable() {
+        this(STANDARD);
+    }
+
+    /**
+     * Creates a new instance of <code>NameTable</code> which holds the given
+     * names, with IDs in the order of the array.
+     *
+     * @param names the names to intern
+     */
+    private NameTable(String[] names) {
+        this.names = new String[128];
+        this.hashes = new int[128];
+        this.slots = new int[256];
+        for (int i = 0; i < names.length; i++) {
+            this.intern(names[i]);
+        }
+    }
+
+    /**
+     * Creates a new instance of <code>NameTable</code> that holds the same
+     * names as another, with the same IDs. Names interned by either table
+     * afterwards are not seen by the other.
+     *
+     * @param other the table to copy
+     * @throws NullPointerException if other==null
+     */
+    public NameTable(NameTable other) {
+        this.names = new String[other.names.length];
+        System.arraycopy(other.names, 0, this.names, 0, other.count);
+        this.hashes = new int[other.hashes.length];
+        System.arraycopy(other.hashes, 0, this.hashes, 0, other.count);
+        this.slots = new int[other.slots.length];
+        System.arraycopy(other.slots, 0, this.slots, 0, other.slots.length);
+        this.count = other.count;
+    }
+
+    /**
+     * Returns the number of distinct names in this table.
+     * 
+     * @return the number of distinct names in this table; the IDs of the
+     * names in this table range from 0 (inclusive) to this value (exclusive)
+     */
+    public int size() {
+        return this.count;
+    }
+
+    /**
+     * Returns the name with the given ID.
+     * 
+     * @param id the ID of the name to return
+     * @return the name with the given ID; never returns null
+     * @throws IndexOutOfBoundsException if id is negative or is not less than
+     * {@link #size()}
+     */
+    public String getName(int id) {
+        if (id < 0 || id >= this.count) {
+            throw new IndexOutOfBoundsException("invalid id: " + id);
+        }
+        return this.names[id];
+    }
+
+    /**
+     * Interns a name specified as a region of a char array.
+     * 
+     * @param chars the array containing the characters of the name
+     * @param offset the index of the first character of the name in chars
+     * @param length the number of characters in the name
+     * @return the ID of the name; if the name was not previously in this table
+     * then it is added
+     * @throws NullPointerException if chars==null
+     */
+    public int intern(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+
+        final int[] slots = this.slots;
+        final int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            final int entry = slots[slot];
+            if (entry == 0) {
+                break;
+            }
+            final int id = entry - 1;
+            if (this.hashes[id] == hash
+                && regionEquals(this.names[id], chars, offset, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return this.add(new String(chars, offset, length), hash);
+    }
+
+    /**
+     * Interns a name.
+     * 
+     * @param name the name to intern
+     * @return the ID of the name; if the name was not previously in this table
+     * then it is added
+     * @throws NullPointerException if name==null
+     */
+    public int intern(String name) {
+        final int id = this.find(name);
+        return (id >= 0) ? id : this.add(name, name.hashCode());
+    }
+
+    /**
+     * Looks up the ID of a name without adding it to this table.
+     * 
+     * @param name the name whose ID to return
+     * @return the ID of the name, or -1 if it is not in this table
+     * @throws NullPointerException if name==null
+     */
+    public int find(String name) {
+        final int hash = name.hashCode();
+        final int[] slots = this.slots;
+        final int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (true) {
+            final int entry = slots[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            final int id = entry - 1;
+            if (this.hashes[id] == hash && this.names[id].equals(name)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Adds a name that is known not to be in this table.
+     * 
+     * @param name the name to add
+     * @param hash the hash code of the name, as computed by String.hashCode()
+     * @return the ID assigned to the name
+     */
+    private int add(String name, int hash) {
+        final int id = this.count;
+        if (id == this.names.length) {
+            final String[] newNames = new String[id * 2];
+            System.arraycopy(this.names, 0, newNames, 0, id);
+            this.names = newNames;
+            final int[] newHashes = new int[id * 2];
+            System.arraycopy(this.hashes, 0, newHashes, 0, id);
+            this.hashes = newHashes;
+        }
+        this.names[id] = name;
+        this.hashes[id] = hash;
+        this.count = id + 1;
+
+        if (this.count * 2 > this.slots.length) {
+            this.rehash(this.slots.length * 2);
+        } else {
+            this.insertSlot(id);
+        }
+        return id;
+    }
+
+    /**
+     * Rebuilds the hash table with the given number of slots.
+     * 
+     * @param capacity the new number of slots; must be a power of 2
+     */
+    private void rehash(int capacity) {
+        this.slots = new int[capacity];
+        for (int id = 0; id < this.count; id++) {
+            this.insertSlot(id);
+        }
+    }
+
+    /**
+     * Inserts the name with the given ID into the hash table.
+     * 
+     * @param id the ID of the name to insert
+     */
+    private void insertSlot(int id) {
+        final int[] slots = this.slots;
+        final int mask = slots.length - 1;
+        int slot = this.hashes[id] & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = id + 1;
+    }
+
+    /**
+     * Compares a String to a region of a char array.
+     * 
+     * @param s the string to compare
+     * @param chars the array to compare
+     * @param offset the offset of the region in chars
+     * @param length the length of the region in chars
+     * @return true if the strings are equal, false otherwise
+     */
+    private static boolean regionEquals(String s, char[] chars, int offset,
+            int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (s.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
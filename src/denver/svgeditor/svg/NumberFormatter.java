@@ -0,0 +1,218 @@
+/*
+ * NumberFormatter.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * Formats numbers for SVG attribute values and path data in their shortest
+ * form, without trailing zeros and without allocating intermediate Strings.
+ * Numbers are rounded to {@link #FLOAT_DIGITS} significant digits, counted
+ * from the first nonzero digit, and are written with an exponent if they are
+ * very small or very large, such as "1.5e-7" rather than "0.00000015".
+ */
+public class NumberFormatter {
+
+    /**
+     * The number of significant digits that can be represented by a float.
+     */
+    public static final int FLOAT_DIGITS = 7;
+
+    /**
+     * A maximum number of fraction digits which does not limit the digits
+     * written, so that every significant digit is written.
+     */
+    public static final int ALL_FRACTION_DIGITS = Integer.MAX_VALUE;
+
+    /**
+     * The smallest decimal exponent of the first significant digit of a
+     * number written without an exponent.
+     */
+    private static final int MIN_PLAIN_EXPONENT = -4;
+
+    /**
+     * The largest decimal exponent of the first significant digit of a
+     * number written without an exponent.
+     */
+    private static final int MAX_PLAIN_EXPONENT = 8;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L,
+        100000000L, 1000000000L, 10000000000L, 100000000000L };
+
+    // powers of ten that are exact as doubles
+    private static final double[] DOUBLE_POWERS_OF_TEN = new double[23];
+
+    static {
+        double power = 1;
+        for (int i = 0; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+            DOUBLE_POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private NumberFormatter() {
+    }
+
+    /**
+     * Appends a number to a buffer. At most {@link #FLOAT_DIGITS} significant
+     * digits are written, and fewer if maxFractionDigits requires it. A
+     * number whose first significant digit is below 0.0001, or above the
+     * hundred millions, is written with an exponent.
+     *
+     * @param buffer the buffer to which to append the number
+     * @param value the number to append
+     * @param maxFractionDigits the maximum number of digits to write after the
+     * decimal point, counting those implied by a negative exponent, to which
+     * the number is rounded; may be {@link #ALL_FRACTION_DIGITS} to write
+     * every significant digit
+     * @param omitLeadingZero true to write numbers between -1 and 1 without
+     * the zero before the decimal point (eg. ".5" instead of "0.5"), false to
+     * include it
+     * @return the given buffer
+     * @throws NullPointerException if buffer==null
+     * @throws IllegalArgumentException if maxFractionDigits is negative
+     */
+    public static StringBuffer append(StringBuffer buffer, float value,
+            int maxFractionDigits, boolean omitLeadingZero) {
+        if (maxFractionDigits < 0) {
+            throw new IllegalArgumentException("invalid maxFractionDigits: "
+                + maxFractionDigits);
+        }
+
+        final double abs = Math.abs((double) value);
+        if (abs != abs || abs == Double.POSITIVE_INFINITY) {
+            return buffer.append(value); // NaN or infinite
+        } else if (abs == 0) {
+            return buffer.append('0');
+        }
+
+        // round to FLOAT_DIGITS significant digits, so that the number is
+        // digits * 10^-scale, then to maxFractionDigits
+        final long minDigits = POWERS_OF_TEN[FLOAT_DIGITS - 1];
+        final long maxDigits = POWERS_OF_TEN[FLOAT_DIGITS];
+        int scale = FLOAT_DIGITS - 1;
+        long digits = round(abs, scale);
+        while (digits >= maxDigits) {
+            digits = round(abs, --scale);
+        }
+        while (digits < minDigits) {
+            digits = round(abs, ++scale);
+        }
+        if (scale > maxFractionDigits) {
+            scale = maxFractionDigits;
+            digits = round(abs, scale);
+            if (digits == 0) {
+                return buffer.append('0');
+            }
+        }
+        while (digits % 10 == 0) {
+            digits /= 10;
+            scale--;
+        }
+        int length = 1;
+        while (length < FLOAT_DIGITS && digits >= POWERS_OF_TEN[length]) {
+            length++;
+        }
+
+        if (value < 0) {
+            buffer.append('-');
+        }
+        final int exponent = length - 1 - scale;
+        if (exponent < MIN_PLAIN_EXPONENT || exponent > MAX_PLAIN_EXPONENT) {
+            appendDigits(buffer, digits, length - 1, false);
+            return buffer.append('e').append(exponent);
+        } else if (scale <= 0) {
+            buffer.append(digits);
+            for (int i = scale; i < 0; i++) {
+                buffer.append('0');
+            }
+            return buffer;
+        }
+        return appendDigits(buffer, digits, scale, omitLeadingZero);
+    }
+
+    /**
+     * Appends a number to a buffer using the maximum precision of a float and
+     * a leading zero. This is equivalent to
+     * <code>append(buffer, value, ALL_FRACTION_DIGITS, false)</code>.
+     *
+     * @param buffer the buffer to which to append the number
+     * @param value the number to append
+     * @return the given buffer
+     * @throws NullPointerException if buffer==null
+     */
+    public static StringBuffer append(StringBuffer buffer, float value) {
+        return append(buffer, value, ALL_FRACTION_DIGITS, false);
+    }
+
+    /**
+     * Formats a number using the maximum precision of a float.
+     *
+     * @param value the number to format
+     * @return the formatted number; never returns null
+     */
+    public static String toString(float value) {
+        return append(new StringBuffer(12), value).toString();
+    }
+
+    /**
+     * Appends a positive integer with a decimal point before its last
+     * fractionDigits digits.
+     */
+    private static StringBuffer appendDigits(StringBuffer buffer, long digits,
+            int fractionDigits, boolean omitLeadingZero) {
+        final long intPart = digits / POWERS_OF_TEN[fractionDigits];
+        final long fraction = digits % POWERS_OF_TEN[fractionDigits];
+        if (intPart != 0 || fractionDigits == 0 || !omitLeadingZero) {
+            buffer.append(intPart);
+        }
+        if (fractionDigits > 0) {
+            buffer.append('.');
+            for (int i = fractionDigits - 1; i > 0; i--) {
+                if (fraction < POWERS_OF_TEN[i]) {
+                    buffer.append('0');
+                }
+            }
+            buffer.append(fraction);
+        }
+        return buffer;
+    }
+
+    /**
+     * Returns a number multiplied by ten to a power, rounded to an integer.
+     */
+    private static long round(double abs, int scale) {
+        double power = 1;
+        int n = (scale < 0) ? -scale : scale;
+        while (n >= DOUBLE_POWERS_OF_TEN.length) {
+            power *= DOUBLE_POWERS_OF_TEN[DOUBLE_POWERS_OF_TEN.length - 1];
+            n -= DOUBLE_POWERS_OF_TEN.length - 1;
+        }
+        power *= DOUBLE_POWERS_OF_TEN[n];
+        final double scaled = (scale < 0) ? abs / power : abs * power;
+        return (long) Math.floor(scaled + 0.5);
+    }
+}
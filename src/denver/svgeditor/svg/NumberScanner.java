@@ -0,0 +1,290 @@
+/*
+ * NumberScanner.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * Scans numbers out of a region of a char array without allocating any
+ * objects, using the number syntax of SVG attribute values and path data.
+ * Numbers may be separated by whitespace and at most one comma; as in path
+ * data, a sign or a second decimal point also starts a new number, so
+ * "1-2.5.5" scans as 1, -2.5 and 0.5.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused for any
+ * number of regions by invoking {@link #reset(char[], int, int)}.
+ */
+public class NumberScanner {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+        1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private char[] chars;
+    private int pos;
+    private int end;
+    private float value;
+
+    /**
+     * Positions this scanner at the start of a region of a char array.
+     *
+     * @param chars the array to scan
+     * @param offset the index of the first character to scan
+     * @param length the number of characters to scan
+     * @throws NullPointerException if chars==null
+     */
+    public void reset(char[] chars, int offset, int length) {
+        if (chars == null) {
+            throw new NullPointerException("chars==null");
+        }
+        this.chars = chars;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    /**
+     * Returns the index of the next character to be scanned.
+     *
+     * @return the current position of this scanner
+     */
+    public int getPosition() {
+        return this.pos;
+    }
+
+    /**
+     * Returns the value of the number most recently scanned.
+     *
+     * @return the value of the number most recently scanned by
+     * {@link #nextNumber()} or {@link #nextFlag()}
+     */
+    public float getValue() {
+        return this.value;
+    }
+
+    /**
+     * Skips whitespace and at most one comma.
+     *
+     * @return true if there are characters remaining after the skipped
+     * separators, false if the end of the region has been reached
+     */
+    public boolean skipSeparators() {
+        final char[] chars = this.chars;
+        final int end = this.end;
+        int pos = this.pos;
+        while (pos < end && SVGTokenizer.isWhitespace(chars[pos])) {
+            pos++;
+        }
+        if (pos < end && chars[pos] == ',') {
+            pos++;
+            while (pos < end && SVGTokenizer.isWhitespace(chars[pos])) {
+                pos++;
+            }
+        }
+        this.pos = pos;
+        return (pos < end);
+    }
+
+    /**
+     * Returns the next character without consuming it.
+     *
+     * @return the next character, or -1 if the end of the region has been
+     * reached
+     */
+    public int peek() {
+        return (this.pos < this.end) ? this.chars[this.pos] : -1;
+    }
+
+    /**
+     * Consumes the next character.
+     */
+    public void advance() {
+        if (this.pos < this.end) {
+            this.pos++;
+        }
+    }
+
+    /**
+     * Returns whether or not the next character can start a number.
+     *
+     * @return true if the next character is a digit, sign or decimal point
+     */
+    public boolean isNumberNext() {
+        final int c = this.peek();
+        return ((c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.');
+    }
+
+    /**
+     * Skips any separators and then scans a number. The value is available
+     * from {@link #getValue()}.
+     *
+     * @return true if a number was scanned, false if there is no number at the
+     * current position (in which case the position is unchanged apart from the
+     * skipped separators)
+     */
+    public boolean nextNumber() {
+        this.skipSeparators();
+        final char[] chars = this.chars;
+        final int end = this.end;
+        int pos = this.pos;
+
+        boolean negative = false;
+        if (pos < end && (chars[pos] == '-' || chars[pos] == '+')) {
+            negative = (chars[pos] == '-');
+            pos++;
+        }
+
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        while (pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+            if (mantissa < 100000000000000000L) {
+                mantissa = mantissa * 10 + (chars[pos] - '0');
+            } else {
+                exponent++; // too many digits to be significant
+            }
+            digits++;
+            pos++;
+        }
+        if (pos < end && chars[pos] == '.') {
+            pos++;
+            while (pos < end && chars[pos] >= '0' && chars[pos] <= '9') {
+                if (mantissa < 100000000000000000L) {
+                    mantissa = mantissa * 10 + (chars[pos] - '0');
+                    exponent--;
+                }
+                digits++;
+                pos++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+
+        // an exponent is only consumed if it is complete, so that "2e" or
+        // the "e" of a unit such as "em" is left for the caller
+        if (pos < end && (chars[pos] == 'e' || chars[pos] == 'E')) {
+            int expPos = pos + 1;
+            boolean expNegative = false;
+            if (expPos < end && (chars[expPos] == '-' || chars[expPos] == '+')) {
+                expNegative = (chars[expPos] == '-');
+                expPos++;
+            }
+            if (expPos < end && chars[expPos] >= '0' && chars[expPos] <= '9') {
+                int exp = 0;
+                while (expPos < end && chars[expPos] >= '0'
+                    && chars[expPos] <= '9') {
+                    if (exp < 1000) {
+                        exp = exp * 10 + (chars[expPos] - '0');
+                    }
+                    expPos++;
+                }
+                exponent += expNegative ? -exp : exp;
+                pos = expPos;
+            }
+        }
+
+        double result = mantissa;
+        if (exponent != 0 && mantissa != 0) {
+            result = scale(result, exponent);
+        }
+        this.value = (float) (negative ? -result : result);
+        this.pos = pos;
+        return true;
+    }
+
+    /**
+     * Skips any separators and then scans an arc flag, which is a single '0'
+     * or '1' that need not be followed by a separator. The value is available
+     * from {@link #getValue()} as 0 or 1.
+     *
+     * @return true if a flag was scanned, false otherwise
+     */
+    public boolean nextFlag() {
+        this.skipSeparators();
+        final int c = this.peek();
+        if (c == '0' || c == '1') {
+            this.value = c - '0';
+            this.pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Parses a region of a char array that contains a single number, which
+     * may be surrounded by whitespace and may have a "px" suffix.
+     *
+     * @param chars the array containing the number
+     * @param offset the index of the first character of the region
+     * @param length the number of characters in the region
+     * @param scanner the scanner to use; this method will reset it
+     * @return the value of the number, or NaN if the region does not consist
+     * of exactly one number
+     * @throws NullPointerException if chars==null or scanner==null
+     */
+    public static float parseNumber(char[] chars, int offset, int length,
+            NumberScanner scanner) {
+        scanner.reset(chars, offset, length);
+        while (scanner.pos < scanner.end
+            && SVGTokenizer.isWhitespace(chars[scanner.pos])) {
+            scanner.pos++;
+        }
+        if (!scanner.nextNumber()) {
+            return Float.NaN;
+        }
+        int pos = scanner.pos;
+        final int end = scanner.end;
+        if (pos + 1 < end && chars[pos] == 'p' && chars[pos + 1] == 'x') {
+            pos += 2;
+        }
+        while (pos < end && SVGTokenizer.isWhitespace(chars[pos])) {
+            pos++;
+        }
+        return (pos == end) ? scanner.value : Float.NaN;
+    }
+
+    /**
+     * Multiplies a value by a power of ten.
+     *
+     * @param value the value to scale
+     * @param exponent the power of ten by which to multiply
+     * @return the scaled value
+     */
+    private static double scale(double value, int exponent) {
+        final int max = POWERS_OF_TEN.length - 1;
+        if (exponent > 0) {
+            while (exponent > max) {
+                value *= POWERS_OF_TEN[max];
+                exponent -= max;
+            }
+            value *= POWERS_OF_TEN[exponent];
+        } else {
+            exponent = -exponent;
+            while (exponent > max) {
+                value /= POWERS_OF_TEN[max];
+                exponent -= max;
+            }
+            value /= POWERS_OF_TEN[exponent];
+        }
+        return value;
+    }
+}
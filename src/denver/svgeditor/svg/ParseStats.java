@@ -0,0 +1,133 @@
+/*
+ * ParseStats.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * Statistics about the parsing of an SVG document, used to report parse
+ * throughput. The elapsed time only includes time spent inside of
+ * {@link SVGParser#parse(int)}, so that time spent between chunks of an
+ * incremental parse is not counted.
+ */
+public class ParseStats {
+
+    private long bytes;
+    private int elements;
+    private int attributes;
+    private long elapsedMillis;
+
+    /**
+     * Returns the number of bytes of the document that have been read.
+     * 
+     * @return the number of bytes of the document that have been read
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the number of elements that have been parsed.
+     * 
+     * @return the number of elements that have been parsed
+     */
+    public int getElements() {
+        return this.elements;
+    }
+
+    /**
+     * Returns the number of attributes that have been parsed.
+     * 
+     * @return the number of attributes that have been parsed
+     */
+    public int getAttributes() {
+        return this.attributes;
+    }
+
+    /**
+     * Returns the time spent parsing.
+     * 
+     * @return the time spent parsing, in milliseconds
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * Returns the parse throughput in bytes.
+     * 
+     * @return the number of bytes parsed per second; returns 0 if no time has
+     * elapsed
+     */
+    public long getBytesPerSecond() {
+        return perSecond(this.bytes, this.elapsedMillis);
+    }
+
+    /**
+     * Returns the parse throughput in elements.
+     * 
+     * @return the number of elements parsed per second; returns 0 if no time
+     * has elapsed
+     */
+    public long getElementsPerSecond() {
+        return perSecond(this.elements, this.elapsedMillis);
+    }
+
+    /**
+     * Updates these statistics after a chunk of parsing.
+     * 
+     * @param bytes the total number of bytes read so far
+     * @param elements the number of elements parsed in the chunk
+     * @param attributes the number of attributes parsed in the chunk
+     * @param elapsedMillis the time spent parsing the chunk, in milliseconds
+     */
+    void update(long bytes, int elements, int attributes, long elapsedMillis) {
+        this.bytes = bytes;
+        this.elements += elements;
+        this.attributes += attributes;
+        this.elapsedMillis += elapsedMillis;
+    }
+
+    /**
+     * Returns a human-readable summary of these statistics.
+     * 
+     * @return a human-readable summary of these statistics; never returns null
+     */
+    public String toString() {
+        return this.bytes + " bytes, " + this.elements + " elements, "
+            + this.attributes + " attributes in " + this.elapsedMillis
+            + " ms (" + this.getBytesPerSecond() + " bytes/s, "
+            + this.getElementsPerSecond() + " elements/s)";
+    }
+
+    /**
+     * Computes a rate per second.
+     * 
+     * @param count the number of items
+     * @param millis the number of milliseconds
+     * @return the number of items per second; returns 0 if millis is not
+     * positive
+     */
+    private static long perSecond(long count, long millis) {
+        return (millis <= 0) ? 0 : (count * 1000L) / millis;
+    }
+}
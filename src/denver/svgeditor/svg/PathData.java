@@ -0,0 +1,266 @@
+/*
+ * PathData.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * A growable buffer holding decoded path data as a packed array of command
+ * bytes and an array of float coordinates. Each command is stored as the
+ * ASCII code of its letter (so relative commands are lowercase) and consumes
+ * {@link #getCoordinateCount(int)} coordinates from the coordinate array in
+ * order. Implicitly repeated commands in the source text are stored
+ * explicitly, so each command byte corresponds to exactly one segment.
+ * <p>
+ * Instances of this class are not thread-safe; they are meant to be reused
+ * by invoking {@link #reset()}.
+ */
+public class PathData {
+
+    private byte[] commands;
+    private int commandCount;
+    private float[] coords;
+    private int coordCount;
+
+    /**
+     * Creates a new, empty instance of <code>PathData</code>.
+     */
+    public PathData() {
+        this.commands = new byte[32];
+        this.coords = new float[128];
+    }
+
+    /**
+     * Creates a new instance of <code>PathData</code> that uses the first
+     * commands and coordinates of the given arrays, without copying them.
+     * This gives a read-only view of another object's data as it is now: the
+     * other object may go on appending, which only writes beyond these
+     * counts, as long as it is not truncated below them and the new object is
+     * not appended to.
+     *
+     * @param commands the command array
+     * @param commandCount the number of commands in the array that are used
+     * @param coords the coordinate array
+     * @param coordCount the number of coordinates in the array that are used
+     * @throws NullPointerException if commands==null or coords==null
+     */
+    public PathData(byte[] commands, int commandCount, float[] coords,
+            int coordCount) {
+        if (commands == null) {
+            throw new NullPointerException("commands==null");
+        } else if (coords == null) {
+            throw new NullPointerException("coords==null");
+        }
+        this.commands = commands;
+        this.commandCount = commandCount;
+        this.coords = coords;
+        this.coordCount = coordCount;
+    }
+
+    /**
+     * Returns the number of coordinates consumed by a path command.
+     * 
+     * @param command the command letter, in either case
+     * @return the number of coordinates consumed by the command, or -1 if it
+     * is not a valid command
+     */
+    public static int getCoordinateCount(int command) {
+        switch (command) {
+        case 'Z':
+        case 'z':
+            return 0;
+        case 'H':
+        case 'h':
+        case 'V':
+        case 'v':
+            return 1;
+        case 'M':
+        case 'm':
+        case 'L':
+        case 'l':
+        case 'T':
+        case 't':
+            return 2;
+        case 'S':
+        case 's':
+        case 'Q':
+        case 'q':
+            return 4;
+        case 'C':
+        case 'c':
+            return 6;
+        case 'A':
+        case 'a':
+            return 7;
+        default:
+            return -1;
+        }
+    }
+
+    /**
+     * Returns whether or not a path command is relative.
+     * 
+     * @param command the command letter
+     * @return true if the command is relative (lowercase), false otherwise
+     */
+    public static boolean isRelative(int command) {
+        return (command >= 'a' && command <= 'z');
+    }
+
+    /**
+     * Removes all commands and coordinates from this object.
+     */
+    public void reset() {
+        this.commandCount = 0;
+        this.coordCount = 0;
+    }
+
+    /**
+     * Returns the array of command bytes; only the first
+     * {@link #getCommandCount()} elements are valid.
+     * 
+     * @return the command array, which is owned by this object; never returns
+     * null
+     */
+    public byte[] getCommands() {
+        return this.commands;
+    }
+
+    /**
+     * Returns the number of commands in this object.
+     * 
+     * @return the number of commands in this object
+     */
+    public int getCommandCount() {
+        return this.commandCount;
+    }
+
+    /**
+     * Returns the array of coordinates; only the first
+     * {@link #getCoordCount()} elements are valid.
+     * 
+     * @return the coordinate array, which is owned by this object; never
+     * returns null
+     */
+    public float[] getCoords() {
+        return this.coords;
+    }
+
+    /**
+     * Returns the number of coordinates in this object.
+     * 
+     * @return the number of coordinates in this object
+     */
+    public int getCoordCount() {
+        return this.coordCount;
+    }
+
+    /**
+     * Appends a command. The caller is responsible for appending the
+     * coordinates consumed by the command.
+     * 
+     * @param command the command letter
+     */
+    public void addCommand(int command) {
+        if (this.commandCount == this.commands.length) {
+            final byte[] newCommands = new byte[this.commandCount * 2];
+            System.arraycopy(this.commands, 0, newCommands, 0,
+                this.commandCount);
+            this.commands = newCommands;
+        }
+        this.commands[this.commandCount++] = (byte) command;
+    }
+
+    /**
+     * Appends a coordinate.
+     * 
+     * @param value the coordinate to append
+     */
+    public void addCoord(float value) {
+        if (this.coordCount == this.coords.length) {
+            final float[] newCoords = new float[this.coordCount * 2];
+            System.arraycopy(this.coords, 0, newCoords, 0, this.coordCount);
+            this.coords = newCoords;
+        }
+        this.coords[this.coordCount++] = value;
+    }
+
+    /**
+     * Removes commands and coordinates from the end of this object.
+     * 
+     * @param commandCount the number of commands to keep
+     * @param coordCount the number of coordinates to keep
+     */
+    public void truncate(int commandCount, int coordCount) {
+        if (commandCount < this.commandCount) {
+            this.commandCount = Math.max(0, commandCount);
+        }
+        if (coordCount < this.coordCount) {
+            this.coordCount = Math.max(0, coordCount);
+        }
+    }
+
+    /**
+     * Appends commands and coordinates from arrays.
+     * 
+     * @param commands the array containing the commands to append
+     * @param commandOffset the index of the first command to append
+     * @param commandCount the number of commands to append
+     * @param coords the array containing the coordinates to append
+     * @param coordOffset the index of the first coordinate to append
+     * @param coordCount the number of coordinates to append
+     */
+    public void append(byte[] commands, int commandOffset, int commandCount,
+            float[] coords, int coordOffset, int coordCount) {
+        this.ensureCapacity(this.commandCount + commandCount, this.coordCount
+            + coordCount);
+        System.arraycopy(commands, commandOffset, this.commands,
+            this.commandCount, commandCount);
+        this.commandCount += commandCount;
+        System.arraycopy(coords, coordOffset, this.coords, this.coordCount,
+            coordCount);
+        this.coordCount += coordCount;
+    }
+
+    /**
+     * Ensures that this object can hold the given number of commands and
+     * coordinates without growing its arrays.
+     * 
+     * @param commands the number of commands
+     * @param coords the number of coordinates
+     */
+    public void ensureCapacity(int commands, int coords) {
+        if (commands > this.commands.length) {
+            final byte[] newCommands =
+                new byte[Math.max(commands, this.commands.length * 2)];
+            System.arraycopy(this.commands, 0, newCommands, 0,
+                this.commandCount);
+            this.commands = newCommands;
+        }
+        if (coords > this.coords.length) {
+            final float[] newCoords =
+                new float[Math.max(coords, this.coords.length * 2)];
+            System.arraycopy(this.coords, 0, newCoords, 0, this.coordCount);
+            this.coords = newCoords;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+/*
+ * PathEncoder.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * Encodes decoded path data back into the text of a <code>d</code> or
+ * <code>points</code> attribute. Path data is written in its minimal form: a
+ * command letter is omitted when it is implied by the previous command, and a
+ * separator is omitted wherever the next number's sign or decimal point makes
+ * it unambiguous.
+ */
+public class PathEncoder {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private PathEncoder() {
+    }
+
+    /**
+     * Encodes path data.
+     * 
+     * @param commands the array containing the commands to encode
+     * @param commandOffset the index of the first command to encode
+     * @param commandCount the number of commands to encode
+     * @param coords the array containing the coordinates of the commands
+     * @param coordOffset the index of the coordinate of the first command
+     * @param out the buffer to which to append the encoded path data
+     * @param maxFractionDigits the maximum number of digits to write after
+     * the decimal point of each number; must not be negative, and may be
+     * {@link NumberFormatter#ALL_FRACTION_DIGITS}
+     * @param omitLeadingZero true to write numbers between -1 and 1 without
+     * the zero before the decimal point, false to include it
+     * @return the given buffer
+     * @throws NullPointerException if any array argument or out is null
+     * @throws IllegalArgumentException if a command is not valid
+     */
+    public static StringBuffer encodePath(byte[] commands, int commandOffset,
+            int commandCount, float[] coords, int coordOffset,
+            StringBuffer out, int maxFractionDigits, boolean omitLeadingZero) {
+        int previous = 0;
+        int coord = coordOffset;
+        boolean lastHadPoint = false;
+        final int end = commandOffset + commandCount;
+        for (int i = commandOffset; i < end; i++) {
+            final int command = commands[i];
+            final int count = PathData.getCoordinateCount(command);
+            if (count < 0) {
+                throw new IllegalArgumentException("invalid command: "
+                    + command);
+            }
+
+            final boolean implied = isImplied(command, previous);
+            boolean afterLetter = !implied;
+            if (!implied) {
+                out.append((char) command);
+            }
+            previous = command;
+
+            for (int j = 0; j < count; j++) {
+                lastHadPoint =
+                    appendNumber(out, coords[coord++], maxFractionDigits,
+                        omitLeadingZero, afterLetter, lastHadPoint);
+                afterLetter = false;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Encodes path data using only relative commands, which are usually
+     * shorter than absolute ones since their coordinates are smaller. Each
+     * coordinate is rounded to maxFractionDigits relative to the point that a
+     * reader will have reached from the rounded coordinates before it, rather
+     * than to the exact point, so that rounding errors do not accumulate
+     * along the path.
+     * 
+     * @param commands the array containing the commands to encode
+     * @param commandOffset the index of the first command to encode
+     * @param commandCount the number of commands to encode
+     * @param coords the array containing the coordinates of the commands
+     * @param coordOffset the index of the coordinate of the first command
+     * @param out the buffer to which to append the encoded path data
+     * @param maxFractionDigits the maximum number of digits to write after
+     * the decimal point of each number; must be between 0 and 9, inclusive
+     * @param omitLeadingZero true to write numbers between -1 and 1 without
+     * the zero before the decimal point, false to include it
+     * @return the given buffer
+     * @throws NullPointerException if any array argument or out is null
+     * @throws IllegalArgumentException if a command is not valid
+     */
+    public static StringBuffer encodeRelativePath(byte[] commands,
+            int commandOffset, int commandCount, float[] coords,
+            int coordOffset, StringBuffer out, int maxFractionDigits,
+            boolean omitLeadingZero) {
+        if (maxFractionDigits < 0 || maxFractionDigits > 9) {
+            throw new IllegalArgumentException("invalid maxFractionDigits: "
+                + maxFractionDigits);
+        }
+        double scale = 1;
+        for (int i = 0; i < maxFractionDigits; i++) {
+            scale *= 10;
+        }
+
+        // the exact current point and start of the subpath, and the same
+        // points as a reader reconstructs them from what was written
+        double x = 0;
+        double y = 0;
+        double startX = 0;
+        double startY = 0;
+        double readX = 0;
+        double readY = 0;
+        double readStartX = 0;
+        double readStartY = 0;
+
+        final float[] values = new float[7];
+        int previous = 0;
+        int coord = coordOffset;
+        boolean lastHadPoint = false;
+        final int end = commandOffset + commandCount;
+        for (int i = commandOffset; i < end; i++) {
+            final int command = commands[i];
+            final int count = PathData.getCoordinateCount(command);
+            if (count < 0) {
+                throw new IllegalArgumentException("invalid command: "
+                    + command);
+            }
+            final boolean relative = PathData.isRelative(command);
+            final double baseX = relative ? x : 0;
+            final double baseY = relative ? y : 0;
+            final int letter = relative ? command : command + ('a' - 'A');
+
+            switch (letter) {
+            case 'z':
+                x = startX;
+                y = startY;
+                readX = readStartX;
+                readY = readStartY;
+                break;
+            case 'h': {
+                x = baseX + coords[coord];
+                values[0] = round(x - readX, scale);
+                readX += values[0];
+                break;
+            }
+            case 'v': {
+                y = baseY + coords[coord];
+                values[0] = round(y - readY, scale);
+                readY += values[0];
+                break;
+            }
+            case 'a': {
+                for (int j = 0; j < 5; j++) {
+                    values[j] = coords[coord + j];
+                }
+                x = baseX + coords[coord + 5];
+                y = baseY + coords[coord + 6];
+                values[5] = round(x - readX, scale);
+                values[6] = round(y - readY, scale);
+                readX += values[5];
+                readY += values[6];
+                break;
+            }
+            default: {
+                // every point of the segment is relative to its start
+                for (int j = 0; j < count; j += 2) {
+                    values[j] = round(baseX + coords[coord + j] - readX, scale);
+                    values[j + 1] =
+                        round(baseY + coords[coord + j + 1] - readY, scale);
+                }
+                x = baseX + coords[coord + count - 2];
+                y = baseY + coords[coord + count - 1];
+                readX += values[count - 2];
+                readY += values[count - 1];
+                if (letter == 'm') {
+                    startX = x;
+                    startY = y;
+                    readStartX = readX;
+                    readStartY = readY;
+                }
+                break;
+            }
+            }
+            coord += count;
+
+            final boolean implied = isImplied(letter, previous);
+            boolean afterLetter = !implied;
+            if (!implied) {
+                out.append((char) letter);
+            }
+            previous = letter;
+
+            for (int j = 0; j < count; j++) {
+                lastHadPoint =
+                    appendNumber(out, values[j], maxFractionDigits,
+                        omitLeadingZero, afterLetter, lastHadPoint);
+                afterLetter = false;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Encodes the coordinates of path data as a point list, as used by the
+     * polyline and polygon elements. Only the coordinates are written; the
+     * commands are assumed to be a moveto followed by linetos.
+     * 
+     * @param coords the array containing the coordinates to encode
+     * @param coordOffset the index of the first coordinate to encode
+     * @param coordCount the number of coordinates to encode
+     * @param out the buffer to which to append the encoded point list
+     * @param maxFractionDigits the maximum number of digits to write after
+     * the decimal point of each number; must not be negative, and may be
+     * {@link NumberFormatter#ALL_FRACTION_DIGITS}
+     * @return the given buffer
+     * @throws NullPointerException if coords==null or out==null
+     */
+    public static StringBuffer encodePoints(float[] coords, int coordOffset,
+            int coordCount, StringBuffer out, int maxFractionDigits) {
+        final int end = coordOffset + coordCount;
+        for (int i = coordOffset; i < end; i++) {
+            if (i > coordOffset) {
+                out.append(((i - coordOffset) % 2 == 0) ? ' ' : ',');
+            }
+            NumberFormatter.append(out, coords[i], maxFractionDigits, false);
+        }
+        return out;
+    }
+
+    /**
+     * Returns whether a command's letter can be omitted after another.
+     * 
+     * @param command the command
+     * @param previous the command before it, or 0 if there is none
+     * @return true if the command is implied by the previous one
+     */
+    private static boolean isImplied(int command, int previous) {
+        return (command == previous && command != 'M' && command != 'm'
+            && command != 'Z' && command != 'z')
+            || (command == 'L' && previous == 'M')
+            || (command == 'l' && previous == 'm');
+    }
+
+    /**
+     * Rounds a number to a number of fraction digits.
+     * 
+     * @param value the number to round
+     * @param scale ten to the power of the number of fraction digits
+     * @return the rounded number
+     */
+    private static float round(double value, double scale) {
+        return (float) (Math.floor(value * scale + 0.5) / scale);
+    }
+
+    /**
+     * Appends a number to path data, preceded by a separator if one is
+     * needed.
+     * 
+     * @return true if the number that was written contains a decimal point
+     */
+    private static boolean appendNumber(StringBuffer out, float value,
+            int maxFractionDigits, boolean omitLeadingZero,
+            boolean afterLetter, boolean lastHadPoint) {
+        final int separator = out.length();
+        if (!afterLetter) {
+            out.append(' ');
+        }
+        final int start = out.length();
+        NumberFormatter.append(out, value, maxFractionDigits, omitLeadingZero);
+        final int end = out.length();
+
+        boolean hasPoint = false;
+        for (int i = start; i < end; i++) {
+            if (out.charAt(i) == '.') {
+                hasPoint = true;
+                break;
+            }
+        }
+
+        if (!afterLetter) {
+            final char first = out.charAt(start);
+            if (first == '-' || (first == '.' && lastHadPoint)) {
+                out.deleteCharAt(separator);
+            }
+        }
+        return hasPoint;
+    }
+}
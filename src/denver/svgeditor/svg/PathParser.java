@@ -0,0 +1,143 @@
+/*
+ * PathParser.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * Decodes SVG path data (the value of a <code>d</code> attribute) and point
+ * lists (the value of a <code>points</code> attribute) into a
+ * {@link PathData}. Decoding reads directly from a region of a char array and
+ * does not allocate any Strings or boxed numbers.
+ * <p>
+ * As recommended by the SVG specification, if an error is encountered then
+ * the path data up to, but not including, the erroneous segment is kept.
+ * <p>
+ * Instances of this class are not thread-safe, but may be reused.
+ */
+public class PathParser {
+
+    private final NumberScanner scanner;
+
+    /**
+     * Creates a new instance of <code>PathParser</code>.
+     */
+    public PathParser() {
+        this.scanner = new NumberScanner();
+    }
+
+    /**
+     * Decodes path data and appends it to a PathData.
+     * 
+     * @param chars the array containing the path data
+     * @param offset the index of the first character of the path data
+     * @param length the number of characters of path data
+     * @param out the object to which to append the decoded commands and
+     * coordinates
+     * @return true if the path data was decoded completely, false if an error
+     * was encountered
+     * @throws NullPointerException if chars==null or out==null
+     */
+    public boolean parsePath(char[] chars, int offset, int length,
+            PathData out) {
+        final NumberScanner scanner = this.scanner;
+        scanner.reset(chars, offset, length);
+
+        int command = 0;
+        boolean first = true;
+        while (scanner.skipSeparators()) {
+            final int c = scanner.peek();
+            final int coordCount;
+            if (scanner.isNumberNext()) {
+                // implicit repetition of the previous command; a moveto is
+                // followed by implied linetos
+                if (command == 0 || command == 'Z' || command == 'z') {
+                    return false;
+                } else if (command == 'M') {
+                    command = 'L';
+                } else if (command == 'm') {
+                    command = 'l';
+                }
+                coordCount = PathData.getCoordinateCount(command);
+            } else {
+                coordCount = PathData.getCoordinateCount(c);
+                if (coordCount < 0 || (first && c != 'M' && c != 'm')) {
+                    return false;
+                }
+                command = c;
+                scanner.advance();
+            }
+            first = false;
+
+            final int commandStart = out.getCommandCount();
+            final int coordStart = out.getCoordCount();
+            out.addCommand(command);
+            for (int i = 0; i < coordCount; i++) {
+                final boolean ok;
+                if ((command == 'A' || command == 'a') && (i == 3 || i == 4)) {
+                    ok = scanner.nextFlag();
+                } else {
+                    ok = scanner.nextNumber();
+                }
+                if (!ok) {
+                    out.truncate(commandStart, coordStart);
+                    return false;
+                }
+                out.addCoord(scanner.getValue());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Decodes a point list, as used by the polyline and polygon elements, and
+     * appends it to a PathData as an absolute moveto followed by absolute
+     * linetos.
+     * 
+     * @param chars the array containing the point list
+     * @param offset the index of the first character of the point list
+     * @param length the number of characters of the point list
+     * @param out the object to which to append the decoded commands and
+     * coordinates
+     * @return true if the point list was decoded completely, false if an
+     * error was encountered (including an odd number of coordinates)
+     * @throws NullPointerException if chars==null or out==null
+     */
+    public boolean parsePoints(char[] chars, int offset, int length,
+            PathData out) {
+        final NumberScanner scanner = this.scanner;
+        scanner.reset(chars, offset, length);
+
+        int command = 'M';
+        while (scanner.nextNumber()) {
+            final float x = scanner.getValue();
+            if (!scanner.nextNumber()) {
+                return false;
+            }
+            out.addCommand(command);
+            out.addCoord(x);
+            out.addCoord(scanner.getValue());
+            command = 'L';
+        }
+        return !scanner.skipSeparators();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * SVGHandler.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * Receives the contents of an SVG document as it is parsed by an
+ * {@link SVGParser}. Character data is passed as regions of char arrays that
+ * are owned by the parser and are only valid for the duration of the call, so
+ * that implementations which convert the data into some other form (such as
+ * numbers) need not allocate a String.
+ */
+public interface SVGHandler {
+
+    /**
+     * Invoked when an element's start tag is encountered. The element's
+     * attributes are reported by subsequent invocations of
+     * {@link #attribute(String, char[], int, int)}.
+     * 
+     * @param name the name of the element, as interned by the parser's
+     * {@link NameTable}; never null
+     */
+    public void startElement(String name);
+
+    /**
+     * Invoked for each attribute of the most recently started element.
+     * 
+     * @param name the name of the attribute, as interned by the parser's
+     * {@link NameTable}; never null
+     * @param value the array containing the value of the attribute, with all
+     * entity and character references replaced; never null
+     * @param offset the index of the first character of the value in value
+     * @param length the number of characters in the value
+     */
+    public void attribute(String name, char[] value, int offset, int length);
+
+    /**
+     * Invoked when an element's end tag is encountered, including for empty
+     * element tags such as <code>&lt;rect/&gt;</code>.
+     * 
+     * @param name the name of the element, as interned by the parser's
+     * {@link NameTable}; never null
+     */
+    public void endElement(String name);
+
+    /**
+     * Invoked for character data contained in an element.
+     * 
+     * @param text the array containing the characters, with all entity and
+     * character references replaced; never null
+     * @param offset the index of the first character in text
+     * @param length the number of characters
+     */
+    public void text(char[] text, int offset, int length);
+
+    /**
+     * Invoked once after the root element has been closed.
+     */
+    public void endDocument();
+}
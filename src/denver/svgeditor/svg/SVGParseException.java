@@ -0,0 +1,54 @@
+/*
+ * SVGParseException.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+/**
+ * Exception thrown when an SVG document is malformed.
+ */
+public class SVGParseException extends Exception {
+
+    private final int lineNumber;
+
+    /**
+     * Creates a new instance of <code>SVGParseException</code>.
+     * 
+     * @param message the message describing the problem; may be null
+     * @param lineNumber the line number in the document at which the problem
+     * was detected, or a value less than 1 if not known
+     */
+    public SVGParseException(String message, int lineNumber) {
+        super((lineNumber < 1) ? message : ("line " + lineNumber + ": "
+            + message));
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Returns the line number at which the problem was detected.
+     * 
+     * @return the line number that was specified to the constructor
+     */
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * SVGParser.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Parses an SVG document and reports its contents to an {@link SVGHandler}.
+ * Parsing is incremental: each invocation of {@link #parse(int)} consumes a
+ * bounded number of tokens, so that a caller can build a large document in
+ * chunks and interleave other work between them. Only a small, fixed-size
+ * window of the input is held in memory at any time.
+ * <p>
+ * This class only depends on CLDC APIs so that it can be used and measured
+ * outside of a device.
+ */
+public class SVGParser {
+
+    /**
+     * The default number of tokens to consume per invocation of
+     * {@link #parse(int)} when the caller has no particular preference.
+     */
+    public static final int DEFAULT_CHUNK_TOKENS = 512;
+
+    private final SVGTokenizer tokenizer;
+    private final SVGHandler handler;
+    private final NameTable names;
+    private final ParseStats stats;
+    private boolean finished;
+
+    /**
+     * Creates a new instance of <code>SVGParser</code> with a new NameTable.
+     * 
+     * @param in the stream from which to read the UTF-8 encoded document
+     * @param handler the handler to which to report the document's contents
+     * @throws NullPointerException if any argument is null
+     */
+    public SVGParser(InputStream in, SVGHandler handler) {
+        this(in, handler, new NameTable());
+    }
+
+    /**
+     * Creates a new instance of <code>SVGParser</code>.
+     * 
+     * @param in the stream from which to read the UTF-8 encoded document
+     * @param handler the handler to which to report the document's contents
+     * @param names the table with which to intern element and attribute names
+     * @throws NullPointerException if any argument is null
+     */
+    public SVGParser(InputStream in, SVGHandler handler, NameTable names) {
+        if (handler == null) {
+            throw new NullPointerException("handler==null");
+        }
+        this.tokenizer =
+            new SVGTokenizer(in, names, SVGTokenizer.DEFAULT_BUFFER_SIZE);
+        this.handler = handler;
+        this.names = names;
+        this.stats = new ParseStats();
+    }
+
+    /**
+     * Returns the table with which element and attribute names are interned.
+     * 
+     * @return the NameTable used by this parser; never returns null
+     */
+    public NameTable getNameTable() {
+        return this.names;
+    }
+
+    /**
+     * Returns the statistics of this parse so far.
+     * 
+     * @return the statistics of this parse; the returned object is updated by
+     * each invocation of {@link #parse(int)}; never returns null
+     */
+    public ParseStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * Returns whether or not the end of the document has been reached.
+     * 
+     * @return true if the end of the document has been reached, false
+     * otherwise
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    /**
+     * Parses the next chunk of the document.
+     * 
+     * @param maxTokens the maximum number of tokens to consume
+     * @return true if there is more of the document to parse, false if the end
+     * of the document has been reached and reported to the handler
+     * @throws IOException if reading the document fails
+     * @throws SVGParseException if the document is not well-formed
+     * @throws IllegalArgumentException if maxTokens is less than 1
+     */
+    public boolean parse(int maxTokens) throws IOException, SVGParseException {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("invalid maxTokens: "
+                + maxTokens);
+        } else if (this.finished) {
+            return false;
+        }
+
+        final SVGTokenizer tokenizer = this.tokenizer;
+        final SVGHandler handler = this.handler;
+        final long startTime = System.currentTimeMillis();
+        int elements = 0;
+        int attributes = 0;
+        boolean sawRoot = (this.stats.getElements() > 0);
+
+        try {
+            for (int i = 0; i < maxTokens; i++) {
+                final int token = tokenizer.next();
+                if (token == SVGTokenizer.START_TAG) {
+                    if (sawRoot && tokenizer.getDepth() == 1) {
+                        throw new SVGParseException(
+                            "more than one root element",
+                            tokenizer.getLineNumber());
+                    }
+                    sawRoot = true;
+                    elements++;
+                    handler.startElement(tokenizer.getName());
+                } else if (token == SVGTokenizer.ATTRIBUTE) {
+                    attributes++;
+                    handler.attribute(tokenizer.getName(),
+                        tokenizer.getValueChars(), 0,
+                        tokenizer.getValueLength());
+                } else if (token == SVGTokenizer.END_TAG) {
+                    handler.endElement(tokenizer.getName());
+                } else if (token == SVGTokenizer.TEXT) {
+                    handler.text(tokenizer.getValueChars(), 0,
+                        tokenizer.getValueLength());
+                } else {
+                    if (!sawRoot) {
+                        throw new SVGParseException("no root element",
+                            tokenizer.getLineNumber());
+                    }
+                    this.finished = true;
+                    handler.endDocument();
+                    break;
+                }
+            }
+        } finally {
+            final long elapsed = System.currentTimeMillis() - startTime;
+            this.stats.update(tokenizer.getBytesRead(), elements, attributes,
+                elapsed);
+        }
+
+        return !this.finished;
+    }
+
+    /**
+     * Parses the remainder of the document. This is equivalent to invoking
+     * {@link #parse(int)} until it returns false.
+     * 
+     * @throws IOException if reading the document fails
+     * @throws SVGParseException if the document is not well-formed
+     */
+    public void parseAll() throws IOException, SVGParseException {
+        while (this.parse(DEFAULT_CHUNK_TOKENS)) {
+            // keep parsing
+        }
+    }
+}
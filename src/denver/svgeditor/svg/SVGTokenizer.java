@@ -0,0 +1,820 @@
+/*
+ * SVGTokenizer.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.svg;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A pull-style, single-pass tokenizer for SVG documents. The document is read
+ * from an InputStream through a fixed-size buffer and decoded as UTF-8 on the
+ * fly, so the size of the document has no bearing on the memory used by the
+ * tokenizer. Each invocation of {@link #next()} returns the next token in the
+ * document; comments, processing instructions and document type declarations
+ * are skipped.
+ * <p>
+ * This class only depends on CLDC APIs so that it can be used and measured
+ * outside of a device.
+ */
+public class SVGTokenizer {
+
+    /**
+     * Token returned from {@link #next()} for an element's start tag; the
+     * element's name is available from {@link #getName()}.
+     */
+    public static final int START_TAG = 1;
+
+    /**
+     * Token returned from {@link #next()} for an attribute of the most
+     * recently started element; the attribute's name is available from
+     * {@link #getName()} and its value from {@link #getValueChars()}.
+     */
+    public static final int ATTRIBUTE = 2;
+
+    /**
+     * Token returned from {@link #next()} for an element's end tag, including
+     * the implicit end of an empty element tag; the element's name is
+     * available from {@link #getName()}.
+     */
+    public static final int END_TAG = 3;
+
+    /**
+     * Token returned from {@link #next()} for character data; the data is
+     * available from {@link #getValueChars()}.
+     */
+    public static final int TEXT = 4;
+
+    /**
+     * Token returned from {@link #next()} once the end of the input has been
+     * reached.
+     */
+    public static final int END_DOCUMENT = 5;
+
+    /**
+     * The default size of the buffer used to read from the input stream.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 4096;
+
+    private final InputStream in;
+    private final NameTable names;
+    private final byte[] buffer;
+    private int bufferPos;
+    private int bufferLen;
+    private long bytesRead;
+    private boolean eof;
+
+    // pushed back characters, most recent first: a character unread after
+    // the high half of a surrogate pair leaves the low half behind it
+    private int pushback;
+    private int pushback2;
+    private int lineNumber;
+
+    private char[] chars;
+    private int charsLength;
+
+    private String[] openElements;
+    private int depth;
+
+    private boolean inTag;
+    private String[] tagAttributes;
+    private int tagAttributeCount;
+    private boolean ignoreWhitespaceText;
+
+    private String name;
+
+    /**
+     * Creates a new instance of <code>SVGTokenizer</code>.
+     *
+     * @param in the stream from which to read the UTF-8 encoded document
+     * @param names the table with which to intern element and attribute names
+     * @param bufferSize the number of bytes to read from the stream at a time
+     * @throws NullPointerException if in==null or names==null
+     * @throws IllegalArgumentException if bufferSize is less than 1
+     */
+    public SVGTokenizer(InputStream in, NameTable names, int bufferSize) {
+        if (in == null) {
+            throw new NullPointerException("in==null");
+        } else if (names == null) {
+            throw new NullPointerException("names==null");
+        } else if (bufferSize < 1) {
+            throw new IllegalArgumentException("invalid bufferSize: "
+                + bufferSize);
+        }
+        this.in = in;
+        this.names = names;
+        this.buffer = new byte[bufferSize];
+        this.pushback = -1;
+        this.pushback2 = -1;
+        this.lineNumber = 1;
+        this.chars = new char[256];
+        this.openElements = new String[16];
+        this.tagAttributes = new String[8];
+        this.ignoreWhitespaceText = true;
+    }
+
+    /**
+     * Sets whether or not character data consisting entirely of whitespace is
+     * to be skipped rather than returned as a {@link #TEXT} token. The default
+     * is true, since such text is insignificant in almost all SVG content.
+     *
+     * @param ignore true to skip whitespace-only text, false to return it
+     */
+    public void setIgnoreWhitespaceText(boolean ignore) {
+        this.ignoreWhitespaceText = ignore;
+    }
+
+    /**
+     * Returns the number of bytes read from the input stream so far.
+     *
+     * @return the number of bytes read from the input stream so far
+     */
+    public long getBytesRead() {
+        return this.bytesRead;
+    }
+
+    /**
+     * Returns the line number of the input at which the tokenizer is
+     * positioned.
+     *
+     * @return the current line number; line numbers start at 1
+     */
+    public int getLineNumber() {
+        return this.lineNumber;
+    }
+
+    /**
+     * Returns the number of elements that have been started but not ended.
+     *
+     * @return the current element nesting depth
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Returns the name associated with the current token.
+     *
+     * @return the element name for {@link #START_TAG} and {@link #END_TAG}
+     * tokens or the attribute name for {@link #ATTRIBUTE} tokens, as interned
+     * by this object's NameTable; undefined for other tokens
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Returns the array containing the characters of the current token's
+     * value. The returned array is owned by this object and its contents are
+     * overwritten by the next invocation of {@link #next()}.
+     *
+     * @return the array whose first {@link #getValueLength()} characters are
+     * the value of the current {@link #ATTRIBUTE} or {@link #TEXT} token
+     */
+    public char[] getValueChars() {
+        return this.chars;
+    }
+
+    /**
+     * Returns the number of characters in the current token's value.
+     *
+     * @return the number of characters in the current token's value
+     * @see #getValueChars()
+     */
+    public int getValueLength() {
+        return this.charsLength;
+    }
+
+    /**
+     * Returns the value of the current token as a newly-created String.
+     *
+     * @return the value of the current {@link #ATTRIBUTE} or {@link #TEXT}
+     * token
+     */
+    public String getValue() {
+        return new String(this.chars, 0, this.charsLength);
+    }
+
+    /**
+     * Reads the next token from the input.
+     *
+     * @return the type of the token that was read; one of {@link #START_TAG},
+     * {@link #ATTRIBUTE}, {@link #END_TAG}, {@link #TEXT} or
+     * {@link #END_DOCUMENT}
+     * @throws IOException if reading from the input stream fails
+     * @throws SVGParseException if the input is not well-formed
+     */
+    public int next() throws IOException, SVGParseException {
+        if (this.inTag) {
+            final int token = this.nextInTag();
+            if (token != 0) {
+                return token;
+            }
+        }
+
+        while (true) {
+            int c = this.read();
+            if (c < 0) {
+                if (this.depth > 0) {
+                    throw this.error("unexpected end of document in <"
+                        + this.openElements[this.depth - 1] + ">");
+                }
+                return END_DOCUMENT;
+            } else if (c != '<') {
+                this.unread(c);
+                if (this.readText()) {
+                    return TEXT;
+                }
+                continue;
+            }
+
+            c = this.read();
+            if (c == '/') {
+                this.readName(this.read());
+                this.skipWhitespace();
+                this.expect('>');
+                final String expected = this.popElement();
+                if (expected != this.name) {
+                    throw this.error("</" + this.name + "> does not match <"
+                        + expected + ">");
+                }
+                return END_TAG;
+            } else if (c == '?') {
+                this.skipUntil("?>");
+            } else if (c == '!') {
+                c = this.read();
+                if (c == '-') {
+                    this.expect('-');
+                    this.skipUntil("-->");
+                } else if (c == '[') {
+                    this.expectString("CDATA[");
+                    this.readCData();
+                    return TEXT;
+                } else {
+                    this.skipDeclaration();
+                }
+            } else {
+                this.readName(c);
+                this.pushElement(this.name);
+                this.inTag = true;
+                this.tagAttributeCount = 0;
+                return START_TAG;
+            }
+        }
+    }
+
+    /**
+     * Reads the next token from within a start tag.
+     *
+     * @return the token that was read, or 0 if the end of the start tag was
+     * reached and the caller should continue reading content
+     */
+    private int nextInTag() throws IOException, SVGParseException {
+        this.skipWhitespace();
+        final int c = this.read();
+        if (c == '>') {
+            this.inTag = false;
+            return 0;
+        } else if (c == '/') {
+            this.expect('>');
+            this.inTag = false;
+            this.name = this.popElement();
+            return END_TAG;
+        }
+
+        this.readName(c);
+        this.addTagAttribute(this.name);
+        this.skipWhitespace();
+        this.expect('=');
+        this.skipWhitespace();
+        final int quote = this.read();
+        if (quote != '"' && quote != '\'') {
+            throw this.error("expected quoted value for attribute "
+                + this.name);
+        }
+        this.charsLength = 0;
+        while (true) {
+            final int ch = this.read();
+            if (ch == quote) {
+                break;
+            } else if (ch < 0) {
+                throw this.error("unexpected end of document in attribute "
+                    + this.name);
+            } else if (ch == '<') {
+                throw this.error("'<' in value of attribute " + this.name);
+            } else if (ch == '&') {
+                this.readReference();
+            } else if (ch == '\n' || ch == '\r' || ch == '\t') {
+                if (ch == '\r') {
+                    // line-end normalization: \r\n is a single line end
+                    final int lf = this.read();
+                    if (lf != '\n') {
+                        this.unread(lf);
+                    }
+                }
+                this.append(' '); // attribute value normalization
+            } else {
+                this.append((char) ch);
+            }
+        }
+
+        // an attribute must be followed by whitespace or the end of the tag
+        final int next = this.read();
+        if (next != '>' && next != '/' && !isWhitespace(next)) {
+            throw this.error("missing whitespace after attribute "
+                + this.name);
+        }
+        this.unread(next);
+        return ATTRIBUTE;
+    }
+
+    /**
+     * Reads character data up to the next '<' or the end of the input.
+     *
+     * @return true if the text should be returned as a TEXT token, false if it
+     * should be ignored
+     */
+    private boolean readText() throws IOException, SVGParseException {
+        this.charsLength = 0;
+        boolean whitespace = true;
+        while (true) {
+            final int c = this.read();
+            if (c < 0) {
+                break;
+            } else if (c == '<') {
+                this.unread(c);
+                break;
+            } else if (c == '&') {
+                this.readReference();
+                whitespace = false;
+            } else if (c == 0xFEFF && this.depth == 0) {
+                continue; // byte order mark
+            } else {
+                this.append((char) c);
+                if (whitespace && !isWhitespace(c)) {
+                    whitespace = false;
+                }
+            }
+        }
+        if (this.depth == 0) {
+            if (!whitespace) {
+                throw this.error("text outside of root element");
+            }
+            return false;
+        }
+        return !(whitespace && this.ignoreWhitespaceText);
+    }
+
+    /**
+     * Reads the contents of a CDATA section, whose opening
+     * <code>&lt;![CDATA[</code> has already been read.
+     */
+    private void readCData() throws IOException, SVGParseException {
+        this.charsLength = 0;
+        while (true) {
+            final int c = this.read();
+            if (c < 0) {
+                throw this.error("unexpected end of document in CDATA");
+            }
+            this.append((char) c);
+            final int len = this.charsLength;
+            if (c == '>' && len >= 3 && this.chars[len - 2] == ']'
+                && this.chars[len - 3] == ']') {
+                this.charsLength = len - 3;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads an entity or character reference, whose '&amp;' has already been
+     * read, and appends the character that it denotes to the value buffer.
+     * References that are not recognized are appended verbatim, as are
+     * character references with no digits or that do not denote a Unicode
+     * scalar value: U+0000, a surrogate, or beyond U+10FFFF.
+     */
+    private void readReference() throws IOException, SVGParseException {
+        final int start = this.charsLength;
+        this.append('&');
+        while (true) {
+            final int c = this.read();
+            if (c == ';') {
+                break;
+            } else if (c < 0 || c == '<' || c == '"' || c == '\''
+                || isWhitespace(c) || this.charsLength - start > 10) {
+                this.unread(c);
+                return; // not a reference; leave the text as-is
+            }
+            this.append((char) c);
+        }
+
+        final char[] chars = this.chars;
+        final int len = this.charsLength - start - 1;
+        final int nameStart = start + 1;
+        int value = -1;
+        if (len > 1 && chars[nameStart] == '#') {
+            final boolean hex = (chars[nameStart + 1] == 'x');
+            final int radix = hex ? 16 : 10;
+            final int first = hex ? 2 : 1;
+            value = 0;
+            for (int i = first; i < len; i++) {
+                final int digit = Character.digit(chars[nameStart + i], radix);
+                if (digit < 0) {
+                    value = -1;
+                    break;
+                }
+                value = value * radix + digit;
+                if (value > 0x10FFFF) {
+                    value = -1;
+                    break;
+                }
+            }
+            if (len == first || value == 0
+                || (value >= 0xD800 && value <= 0xDFFF)) {
+                value = -1;
+            }
+        } else if (matches(chars, nameStart, len, "lt")) {
+            value = '<';
+        } else if (matches(chars, nameStart, len, "gt")) {
+            value = '>';
+        } else if (matches(chars, nameStart, len, "amp")) {
+            value = '&';
+        } else if (matches(chars, nameStart, len, "quot")) {
+            value = '"';
+        } else if (matches(chars, nameStart, len, "apos")) {
+            value = '\'';
+        }
+
+        if (value < 0) {
+            this.append(';'); // unknown entity; leave it as-is
+        } else {
+            this.charsLength = start;
+            if (value > 0xFFFF) {
+                value -= 0x10000;
+                this.append((char) (0xD800 + (value >> 10)));
+                this.append((char) (0xDC00 + (value & 0x3FF)));
+            } else {
+                this.append((char) value);
+            }
+        }
+    }
+
+    /**
+     * Reads a name, interns it, and stores it in the name field.
+     *
+     * @param first the first character of the name, which has already been
+     * read
+     */
+    private void readName(int first) throws IOException, SVGParseException {
+        if (first < 0 || isNameTerminator(first)) {
+            throw this.error("expected a name");
+        }
+        this.charsLength = 0;
+        this.append((char) first);
+        while (true) {
+            final int c = this.read();
+            if (c < 0 || isNameTerminator(c)) {
+                this.unread(c);
+                break;
+            }
+            this.append((char) c);
+        }
+        final int id = this.names.intern(this.chars, 0, this.charsLength);
+        this.name = this.names.getName(id);
+    }
+
+    /**
+     * Skips input up to and including the given terminator.
+     *
+     * @param terminator the string which ends the region to skip
+     */
+    private void skipUntil(String terminator) throws IOException,
+            SVGParseException {
+        final int length = terminator.length();
+        int matched = 0;
+        while (matched < length) {
+            final int c = this.read();
+            if (c < 0) {
+                throw this.error("unexpected end of document; expected "
+                    + terminator);
+            } else if (c == terminator.charAt(matched)) {
+                matched++;
+            } else if (c == terminator.charAt(0)) {
+                matched = 1;
+            } else {
+                matched = 0;
+            }
+        }
+    }
+
+    /**
+     * Skips a markup declaration such as a DOCTYPE, whose "&lt;!" has already
+     * been read, including any internal subset in square brackets.
+     */
+    private void skipDeclaration() throws IOException, SVGParseException {
+        int brackets = 0;
+        int quote = -1;
+        while (true) {
+            final int c = this.read();
+            if (c < 0) {
+                throw this.error("unexpected end of document in declaration");
+            } else if (quote >= 0) {
+                if (c == quote) {
+                    quote = -1;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets--;
+            } else if (c == '>' && brackets <= 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skips any whitespace in the input.
+     */
+    private void skipWhitespace() throws IOException {
+        int c;
+        do {
+            c = this.read();
+        } while (isWhitespace(c));
+        this.unread(c);
+    }
+
+    /**
+     * Reads a character and throws an exception if it is not the expected
+     * character.
+     *
+     * @param expected the expected character
+     */
+    private void expect(char expected) throws IOException, SVGParseException {
+        final int c = this.read();
+        if (c != expected) {
+            throw this.error("expected '" + expected + "'");
+        }
+    }
+
+    /**
+     * Reads characters and throws an exception if they are not the expected
+     * characters.
+     *
+     * @param expected the expected characters
+     */
+    private void expectString(String expected) throws IOException,
+            SVGParseException {
+        for (int i = 0; i < expected.length(); i++) {
+            this.expect(expected.charAt(i));
+        }
+    }
+
+    /**
+     * Pushes an element onto the stack of open elements.
+     *
+     * @param element the name of the element
+     */
+    private void pushElement(String element) {
+        if (this.depth == this.openElements.length) {
+            final String[] newElements = new String[this.depth * 2];
+            System.arraycopy(this.openElements, 0, newElements, 0, this.depth);
+            this.openElements = newElements;
+        }
+        this.openElements[this.depth++] = element;
+    }
+
+    /**
+     * Pops an element from the stack of open elements.
+     *
+     * @return the name of the element that was popped
+     */
+    private String popElement() throws SVGParseException {
+        if (this.depth == 0) {
+            throw this.error("end tag without matching start tag");
+        }
+        final String element = this.openElements[--this.depth];
+        this.openElements[this.depth] = null;
+        return element;
+    }
+
+    /**
+     * Records the name of an attribute of the current start tag.
+     *
+     * @param attribute the interned name of the attribute
+     * @throws SVGParseException if the start tag already has an attribute
+     * with the same name
+     */
+    private void addTagAttribute(String attribute) throws SVGParseException {
+        for (int i = this.tagAttributeCount - 1; i >= 0; i--) {
+            if (this.tagAttributes[i] == attribute) {
+                throw this.error("duplicate attribute " + attribute + " in <"
+                    + this.openElements[this.depth - 1] + ">");
+            }
+        }
+        if (this.tagAttributeCount == this.tagAttributes.length) {
+            final String[] newAttributes =
+                new String[this.tagAttributeCount * 2];
+            System.arraycopy(this.tagAttributes, 0, newAttributes, 0,
+                this.tagAttributeCount);
+            this.tagAttributes = newAttributes;
+        }
+        this.tagAttributes[this.tagAttributeCount++] = attribute;
+    }
+
+    /**
+     * Appends a character to the value buffer, growing it if necessary.
+     *
+     * @param c the character to append
+     */
+    private void append(char c) {
+        if (this.charsLength == this.chars.length) {
+            final char[] newChars = new char[this.chars.length * 2];
+            System.arraycopy(this.chars, 0, newChars, 0, this.charsLength);
+            this.chars = newChars;
+        }
+        this.chars[this.charsLength++] = c;
+    }
+
+    /**
+     * Reads the next character from the input, decoding UTF-8.
+     *
+     * @return the character that was read, or -1 if the end of the input has
+     * been reached
+     */
+    private int read() throws IOException {
+        int c = this.pushback;
+        if (c >= 0) {
+            this.pushback = this.pushback2;
+            this.pushback2 = -1;
+        } else {
+            c = this.readByte();
+            if (c >= 0x80) {
+                c = this.readMultiByte(c);
+            }
+        }
+        if (c == '\n') {
+            this.lineNumber++;
+        }
+        return c;
+    }
+
+    /**
+     * Decodes the remaining bytes of a multi-byte UTF-8 sequence.
+     *
+     * @param first the first byte of the sequence
+     * @return the decoded character; returns U+FFFD if the sequence is
+     * malformed, in which case a byte that does not continue the sequence is
+     * left to be read next, or if it is an overlong encoding, one with more
+     * bytes than the character needs, or if it decodes to a surrogate or
+     * beyond U+10FFFF
+     */
+    private int readMultiByte(int first) throws IOException {
+        int c;
+        int extra;
+        final int min;
+        if ((first & 0xE0) == 0xC0) {
+            c = first & 0x1F;
+            extra = 1;
+            min = 0x80;
+        } else if ((first & 0xF0) == 0xE0) {
+            c = first & 0x0F;
+            extra = 2;
+            min = 0x800;
+        } else if ((first & 0xF8) == 0xF0) {
+            c = first & 0x07;
+            extra = 3;
+            min = 0x10000;
+        } else {
+            return 0xFFFD;
+        }
+        while (extra-- > 0) {
+            final int b = this.readByte();
+            if ((b & 0xC0) != 0x80) {
+                if (b >= 0) {
+                    this.bufferPos--; // the byte may start the next character
+                }
+                return 0xFFFD;
+            }
+            c = (c << 6) | (b & 0x3F);
+        }
+        if (c < min || c > 0x10FFFF || (c >= 0xD800 && c <= 0xDFFF)) {
+            return 0xFFFD;
+        } else if (c > 0xFFFF) {
+            c -= 0x10000;
+            this.pushback = 0xDC00 + (c & 0x3FF);
+            c = 0xD800 + (c >> 10);
+        }
+        return c;
+    }
+
+    /**
+     * Reads the next byte from the input, refilling the buffer if necessary.
+     *
+     * @return the byte that was read, or -1 if the end of the input has been
+     * reached
+     */
+    private int readByte() throws IOException {
+        if (this.bufferPos >= this.bufferLen) {
+            if (this.eof) {
+                return -1;
+            }
+            final int count = this.in.read(this.buffer, 0, this.buffer.length);
+            if (count <= 0) {
+                this.eof = true;
+                return -1;
+            }
+            this.bufferPos = 0;
+            this.bufferLen = count;
+            this.bytesRead += count;
+        }
+        return this.buffer[this.bufferPos++] & 0xFF;
+    }
+
+    /**
+     * Pushes back a character so that it is returned by the next invocation of
+     * read(), ahead of the low half of a surrogate pair that read() has
+     * decoded but not yet returned.
+     *
+     * @param c the character to push back; may be -1, which is ignored
+     */
+    private void unread(int c) {
+        if (c >= 0) {
+            this.pushback2 = this.pushback;
+            this.pushback = c;
+            if (c == '\n') {
+                this.lineNumber--;
+            }
+        }
+    }
+
+    /**
+     * Creates an exception for a parse error at the current line.
+     *
+     * @param message the message describing the error
+     * @return the newly-created exception; never returns null
+     */
+    private SVGParseException error(String message) {
+        return new SVGParseException(message, this.lineNumber);
+    }
+
+    /**
+     * Returns whether or not a character is XML whitespace.
+     *
+     * @param c the character to test
+     * @return true if c is a space, tab, carriage return or line feed
+     */
+    static boolean isWhitespace(int c) {
+        return (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+    }
+
+    /**
+     * Returns whether or not a character terminates a name.
+     *
+     * @param c the character to test
+     * @return true if c cannot be part of a name
+     */
+    private static boolean isNameTerminator(int c) {
+        return (isWhitespace(c) || c == '=' || c == '>' || c == '/'
+            || c == '<' || c == '"' || c == '\'');
+    }
+
+    /**
+     * Compares a region of a char array to a String.
+     *
+     * @return true if the region equals the string, false otherwise
+     */
+    private static boolean matches(char[] chars, int offset, int length,
+            String s) {
+        if (length != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars[offset + i] != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
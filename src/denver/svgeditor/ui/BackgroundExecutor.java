@@ -0,0 +1,218 @@
+/*
+ * BackgroundExecutor.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.util.Vector;
+
+import net.rim.device.api.system.Application;
+
+/**
+ * Executes {@link BackgroundTask} objects one at a time, in the order they
+ * were submitted, on a single worker thread so that file I/O and parsing
+ * never block the event thread. The worker thread is started when the first
+ * task is submitted and runs at a lower priority than the event thread so
+ * that input stays responsive while a task runs.
+ */
+public class BackgroundExecutor {
+
+    /**
+     * The priority of the worker thread.
+     */
+    public static final int WORKER_PRIORITY = Thread.NORM_PRIORITY - 1;
+
+    private final Application app;
+    private final Vector queue;
+
+    private Thread worker;
+    private BackgroundTask current;
+    private boolean shutdown;
+
+    /**
+     * Creates a new instance of <code>BackgroundExecutor</code>.
+     *
+     * @param app the application on whose event thread the listeners of tasks
+     * are to be told of their progress and completion
+     * @throws NullPointerException if app==null
+     */
+    public BackgroundExecutor(Application app) {
+        if (app == null) {
+            throw new NullPointerException("app==null");
+        }
+        this.app = app;
+        this.queue = new Vector();
+    }
+
+    /**
+     * Returns the application on whose event thread listeners are told of
+     * events.
+     *
+     * @return the application that was specified to the constructor; never
+     * returns null
+     */
+    public Application getApp() {
+        return this.app;
+    }
+
+    /**
+     * Adds a task to the end of the queue of tasks to execute.
+     *
+     * @param task the task to execute
+     * @return the given task
+     * @throws NullPointerException if task==null
+     * @throws IllegalStateException if this executor has been shut down or
+     * the task has already been submitted
+     */
+    public synchronized BackgroundTask submit(BackgroundTask task) {
+        if (task == null) {
+            throw new NullPointerException("task==null");
+        } else if (this.shutdown) {
+            throw new IllegalStateException("shut down");
+        } else if (task.getState() != BackgroundTask.STATE_PENDING
+            || task == this.current || this.queue.contains(task)) {
+            throw new IllegalStateException("already submitted");
+        }
+
+        this.queue.addElement(task);
+        if (this.worker == null) {
+            final Thread worker = new Thread(new Worker());
+            worker.setPriority(WORKER_PRIORITY);
+            this.worker = worker;
+            worker.start();
+        } else {
+            this.notify();
+        }
+        return task;
+    }
+
+    /**
+     * Cancels a task. A task that is waiting in the queue is removed from it
+     * and its listener is told that it was cancelled; a running task is asked
+     * to stop with {@link BackgroundTask#cancel()}.
+     *
+     * @param task the task to cancel
+     * @return true if the task was waiting or running, false if it has
+     * completed or was not submitted to this executor
+     */
+    public boolean cancel(BackgroundTask task) {
+        synchronized (this) {
+            if (task == this.current) {
+                task.cancel();
+                return true;
+            } else if (!this.queue.removeElement(task)) {
+                return false;
+            }
+        }
+        task.skip(this.app);
+        return true;
+    }
+
+    /**
+     * Cancels all waiting and running tasks.
+     */
+    public void cancelAll() {
+        final BackgroundTask[] tasks;
+        synchronized (this) {
+            tasks = new BackgroundTask[this.queue.size()];
+            this.queue.copyInto(tasks);
+            this.queue.removeAllElements();
+            if (this.current != null) {
+                this.current.cancel();
+            }
+        }
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i].skip(this.app);
+        }
+    }
+
+    /**
+     * Cancels all tasks and stops the worker thread once the running task, if
+     * any, returns. No more tasks may be submitted.
+     */
+    public void shutdown() {
+        this.cancelAll();
+        synchronized (this) {
+            this.shutdown = true;
+            this.notify();
+        }
+    }
+
+    /**
+     * Returns the task being executed.
+     *
+     * @return the running task, or null if the worker thread is idle
+     */
+    public synchronized BackgroundTask getCurrentTask() {
+        return this.current;
+    }
+
+    /**
+     * Returns the number of tasks waiting to be executed.
+     *
+     * @return the number of tasks in the queue, excluding the running task
+     */
+    public synchronized int getQueueLength() {
+        return this.queue.size();
+    }
+
+    /**
+     * Waits for the next task to execute, marking it as the current task.
+     *
+     * @return the next task, or null if this executor has been shut down
+     */
+    private synchronized BackgroundTask take() {
+        this.current = null;
+        while (this.queue.isEmpty()) {
+            if (this.shutdown) {
+                this.worker = null;
+                return null;
+            }
+            try {
+                this.wait();
+            } catch (final InterruptedException e) {
+                // check the queue again
+            }
+        }
+        final BackgroundTask task = (BackgroundTask) this.queue.elementAt(0);
+        this.queue.removeElementAt(0);
+        this.current = task;
+        return task;
+    }
+
+    /**
+     * The body of the worker thread.
+     */
+    private class Worker implements Runnable {
+
+        /**
+         * Executes tasks until the executor is shut down.
+         */
+        public void run() {
+            final BackgroundExecutor executor = BackgroundExecutor.this;
+            BackgroundTask task;
+            while ((task = executor.take()) != null) {
+                task.run(executor.app);
+            }
+        }
+    }
+}
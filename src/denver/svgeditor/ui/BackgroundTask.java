@@ -0,0 +1,308 @@
+/*
+ * BackgroundTask.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import net.rim.device.api.system.Application;
+
+/**
+ * A unit of work, such as reading or writing a file, that is performed by a
+ * {@link BackgroundExecutor} on its worker thread. The task's
+ * {@link Listener} is told of its progress and completion on the event thread
+ * of the application, through {@link TaskCallbackRunnable} objects passed to
+ * {@link Application#invokeLater(Runnable)}.
+ * <p>
+ * Cancellation is cooperative: {@link #cancel()} sets a flag which
+ * implementations of {@link #execute()} should check with
+ * {@link #isCancelled()} between chunks of work.
+ */
+public abstract class BackgroundTask {
+
+    /**
+     * The state of a task that is waiting to be executed.
+     */
+    public static final int STATE_PENDING = 0;
+
+    /**
+     * The state of a task that is being executed.
+     */
+    public static final int STATE_RUNNING = 1;
+
+    /**
+     * The state of a task that completed successfully.
+     */
+    public static final int STATE_SUCCEEDED = 2;
+
+    /**
+     * The state of a task that failed; see {@link #getError()}.
+     */
+    public static final int STATE_FAILED = 3;
+
+    /**
+     * The state of a task that was cancelled before it completed.
+     */
+    public static final int STATE_CANCELLED = 4;
+
+    private final Listener listener;
+
+    private volatile int state;
+    private volatile boolean cancelled;
+    private Throwable error;
+    private Application app;
+
+    private long progress;
+    private long progressTotal;
+    private boolean progressPending;
+
+    /**
+     * Creates a new instance of <code>BackgroundTask</code>.
+     *
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     */
+    protected BackgroundTask(Listener listener) {
+        this.listener = listener;
+        this.state = STATE_PENDING;
+    }
+
+    /**
+     * Performs the work of this task on the worker thread of the executor.
+     * Implementations should invoke {@link #setProgress(long, long)} as the
+     * work proceeds and should return as soon as practical once
+     * {@link #isCancelled()} returns true.
+     *
+     * @throws Exception if the work fails; the exception is reported by
+     * {@link #getError()}
+     */
+    protected abstract void execute() throws Exception;
+
+    /**
+     * Returns the listener to tell of this task's progress and completion.
+     *
+     * @return the listener that was specified to the constructor; may be null
+     */
+    public Listener getListener() {
+        return this.listener;
+    }
+
+    /**
+     * Requests that this task stop. A task that has not started will not be
+     * executed; a running task stops at its next check of
+     * {@link #isCancelled()}. This method does nothing if the task has
+     * already completed.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Returns whether {@link #cancel()} has been invoked.
+     *
+     * @return true if this task has been cancelled
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Returns the state of this task.
+     *
+     * @return one of the STATE_ constants defined in this class
+     */
+    public int getState() {
+        return this.state;
+    }
+
+    /**
+     * Returns whether this task has completed, successfully or not.
+     *
+     * @return true if this task has succeeded, failed or been cancelled
+     */
+    public boolean isDone() {
+        return (this.state >= STATE_SUCCEEDED);
+    }
+
+    /**
+     * Returns the error that caused this task to fail.
+     *
+     * @return the exception thrown by {@link #execute()}, or null if this
+     * task has not failed
+     */
+    public synchronized Throwable getError() {
+        return this.error;
+    }
+
+    /**
+     * Returns the amount of work done so far.
+     *
+     * @return the last progress given to {@link #setProgress(long, long)}
+     */
+    public synchronized long getProgress() {
+        return this.progress;
+    }
+
+    /**
+     * Returns the total amount of work to do.
+     *
+     * @return the last total given to {@link #setProgress(long, long)}, or 0
+     * if the total is unknown
+     */
+    public synchronized long getProgressTotal() {
+        return this.progressTotal;
+    }
+
+    /**
+     * Returns the progress as a percentage.
+     *
+     * @return the percentage of the work that is done, between 0 and 100, or
+     * -1 if the total is unknown
+     */
+    public synchronized int getPercentDone() {
+        if (this.progressTotal <= 0) {
+            return -1;
+        }
+        final long percent = (this.progress * 100) / this.progressTotal;
+        return (int) Math.min(100, Math.max(0, percent));
+    }
+
+    /**
+     * Records the progress of this task and tells the listener of it. Progress
+     * updates are coalesced: if the listener has not yet been told of the
+     * previous update then it is told only of the latest one, so that a task
+     * reporting progress frequently cannot flood the event queue.
+     *
+     * @param progress the amount of work done so far
+     * @param total the total amount of work to do, or 0 if it is unknown
+     */
+    protected void setProgress(long progress, long total) {
+        boolean post;
+        synchronized (this) {
+            this.progress = progress;
+            this.progressTotal = total;
+            post = !this.progressPending;
+            this.progressPending = true;
+        }
+        if (post) {
+            this.post(TaskCallbackRunnable.PROGRESS);
+        }
+    }
+
+    /**
+     * Executes this task and tells the listener of its completion. This
+     * method is invoked by the executor on its worker thread.
+     *
+     * @param app the application on whose event thread to tell the listener
+     */
+    void run(Application app) {
+        this.app = app;
+        if (!this.cancelled) {
+            this.state = STATE_RUNNING;
+            try {
+                this.execute();
+            } catch (final Exception e) {
+                this.fail(e);
+            } catch (final OutOfMemoryError e) {
+                this.fail(e);
+            }
+        }
+        this.finish();
+    }
+
+    /**
+     * Completes this task without executing it, because it was cancelled
+     * while waiting to be executed.
+     *
+     * @param app the application on whose event thread to tell the listener
+     */
+    void skip(Application app) {
+        this.app = app;
+        this.cancelled = true;
+        this.finish();
+    }
+
+    /**
+     * Clears the flag that coalesces progress updates; invoked on the event
+     * thread just before the listener is told of the progress.
+     */
+    synchronized void progressDelivered() {
+        this.progressPending = false;
+    }
+
+    /**
+     * Records the error that caused this task to fail.
+     */
+    private synchronized void fail(Throwable e) {
+        this.error = e;
+    }
+
+    /**
+     * Sets the final state of this task and tells the listener.
+     */
+    private void finish() {
+        final int state;
+        if (this.getError() != null) {
+            state = STATE_FAILED;
+        } else if (this.cancelled) {
+            state = STATE_CANCELLED;
+        } else {
+            state = STATE_SUCCEEDED;
+        }
+        this.state = state;
+        this.post(TaskCallbackRunnable.FINISHED);
+    }
+
+    /**
+     * Tells the listener of an event on the event thread.
+     */
+    private void post(int event) {
+        final Listener listener = this.listener;
+        final Application app = this.app;
+        if (listener != null && app != null) {
+            app.invokeLater(new TaskCallbackRunnable(this, listener, event));
+        }
+    }
+
+    /**
+     * Listener which is told of the progress and completion of a task. All
+     * invocations of methods defined in this interface will occur on the event
+     * thread of the application.
+     */
+    public static interface Listener {
+
+        /**
+         * Invoked when the task reports progress.
+         *
+         * @param task the task; use {@link BackgroundTask#getProgress()} and
+         * {@link BackgroundTask#getProgressTotal()} to get its progress
+         */
+        public void taskProgress(BackgroundTask task);
+
+        /**
+         * Invoked once when the task has succeeded, failed or been cancelled.
+         *
+         * @param task the task; use {@link BackgroundTask#getState()} to find
+         * out how it completed
+         */
+        public void taskFinished(BackgroundTask task);
+    }
+}
@@ -0,0 +1,633 @@
+/*
+ * BitmapCache.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.Hashtable;
+
+import denver.svgeditor.render.ImageSource;
+import denver.svgeditor.render.RasterSurface;
+
+import net.rim.device.api.io.Base64InputStream;
+import net.rim.device.api.lowmemory.LowMemoryListener;
+import net.rim.device.api.lowmemory.LowMemoryManager;
+import net.rim.device.api.math.Fixed32;
+import net.rim.device.api.system.Bitmap;
+import net.rim.device.api.system.EncodedImage;
+
+/**
+ * A process-wide cache of encoded and decoded images, so that screens which
+ * are rebuilt, such as after a rotation or when they are pushed again, and
+ * documents which are rendered tile by tile do not decode the same image
+ * more than once. It holds three kinds of entry:
+ * <ul>
+ * <li>the encoded image of an image resource, as loaded by
+ * {@link #getEncodedImage(String)};</li>
+ * <li>the bitmap of an image resource decoded at a given size, as loaded by
+ * {@link #getBitmap(String, int, int)};</li>
+ * <li>the pixels of an image embedded in a document as a base64
+ * <code>data:</code> URI, decoded at the size at which it is drawn, as loaded
+ * by {@link #getImage(String, int, int)} for the renderer, along with the
+ * encoded bytes of the image so that it can be decoded at another size
+ * without decoding the base64 text again.</li>
+ * </ul>
+ * Entries are keyed by the path of the resource or the content hash of the
+ * URI, and by size. The total size of the entries is kept within a budget by
+ * evicting the least recently used entries, and the cache is trimmed when
+ * the system is low on memory.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public class BitmapCache implements ImageSource, LowMemoryListener {
+
+    /**
+     * The default budget of the cache, in bytes.
+     */
+    public static final long DEFAULT_BUDGET = 1024 * 1024;
+
+    /**
+     * The prefix of the URIs of embedded images.
+     */
+    public static final String DATA_PREFIX = "data:";
+
+    /**
+     * The number of <code>data:</code> URIs whose content hashes are
+     * remembered, so that rendering an image in many tiles hashes its URI
+     * once rather than once per tile.
+     */
+    private static final int HREF_MEMO_SIZE = 8;
+
+    /**
+     * The value of the entries of malformed <code>data:</code> URIs.
+     */
+    private static final Object MALFORMED = new Object();
+
+    private static BitmapCache instance;
+
+    private final Hashtable entries;
+    private final String[] memoHrefs;
+    private final String[] memoIds;
+    private int memoNext;
+    private long budget;
+    private long size;
+    private long clock;
+    private int hits;
+    private int misses;
+
+    /**
+     * Creates a new instance of <code>BitmapCache</code>.
+     *
+     * @param budget the maximum total size of the entries, in bytes
+     */
+    public BitmapCache(long budget) {
+        this.entries = new Hashtable();
+        this.memoHrefs = new String[HREF_MEMO_SIZE];
+        this.memoIds = new String[HREF_MEMO_SIZE];
+        this.budget = budget;
+    }
+
+    /**
+     * Returns the cache shared by the whole application, creating it with
+     * {@link #DEFAULT_BUDGET} and registering it for low-memory notifications
+     * on the first invocation.
+     *
+     * @return the shared cache; never returns null
+     */
+    public static synchronized BitmapCache getInstance() {
+        if (instance == null) {
+            instance = new BitmapCache(DEFAULT_BUDGET);
+            LowMemoryManager.addLowMemoryListener(instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the maximum total size of the entries.
+     *
+     * @return the budget, in bytes
+     */
+    public synchronized long getBudget() {
+        return this.budget;
+    }
+
+    /**
+     * Sets the maximum total size of the entries, evicting entries if the
+     * cache no longer fits.
+     *
+     * @param budget the budget, in bytes
+     */
+    public synchronized void setBudget(long budget) {
+        this.budget = budget;
+        this.trim(budget);
+    }
+
+    /**
+     * Returns the number of lookups that found their entry in the cache.
+     *
+     * @return the number of hits
+     */
+    public synchronized int getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of lookups that had to load or decode an image.
+     *
+     * @return the number of misses
+     */
+    public synchronized int getMissCount() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the number of entries
+     */
+    public synchronized int getEntryCount() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the total size of the entries in the cache. The size of a
+     * decoded image is estimated as four bytes per pixel.
+     *
+     * @return the size, in bytes
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns a summary of the counters of this cache.
+     *
+     * @return a summary such as "4 entries (130 KB of 1024 KB), 12 hits, 4
+     * misses"; never returns null
+     */
+    public synchronized String getSummary() {
+        return this.entries.size() + " entries (" + (this.size / 1024)
+            + " KB of " + (this.budget / 1024) + " KB), " + this.hits
+            + " hits, " + this.misses + " misses";
+    }
+
+    /**
+     * Removes every entry from the cache. The counters are not reset.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Returns an image resource in its encoded form.
+     *
+     * @param path the path of the resource
+     * @return the encoded image, or null if the resource does not exist or is
+     * malformed
+     * @throws NullPointerException if path==null
+     */
+    public synchronized EncodedImage getEncodedImage(String path) {
+        if (path == null) {
+            throw new NullPointerException("path==null");
+        }
+        if (this.entries.containsKey("E" + path)) {
+            this.hits++;
+        } else {
+            this.misses++;
+        }
+        return this.loadEncodedImage(path);
+    }
+
+    /**
+     * Returns an image resource in its encoded form, loading it if it is not
+     * cached, without counting a hit or a miss.
+     *
+     * @return the encoded image, or null if the resource does not exist or is
+     * malformed
+     */
+    private EncodedImage loadEncodedImage(String path) {
+        final String key = "E" + path;
+        final Entry entry = this.find(key);
+        if (entry != null) {
+            return (EncodedImage) entry.value;
+        }
+
+        final EncodedImage image;
+        try {
+            image = EncodedImage.getEncodedImageResource(path);
+        } catch (final IllegalArgumentException e) {
+            return null; // image is malformed
+        }
+        if (image != null) {
+            this.put(key, image, image.getLength());
+        }
+        return image;
+    }
+
+    /**
+     * Returns an image resource decoded at its natural size.
+     *
+     * @param path the path of the resource
+     * @return the bitmap, or null if the resource does not exist or is
+     * malformed
+     * @throws NullPointerException if path==null
+     */
+    public Bitmap getBitmap(String path) {
+        return this.getBitmap(path, 0, 0);
+    }
+
+    /**
+     * Returns an image resource decoded at a given size.
+     *
+     * @param path the path of the resource
+     * @param width the width of the bitmap, or 0 for the natural width
+     * @param height the height of the bitmap, or 0 for the natural height
+     * @return the bitmap, or null if the resource does not exist or is
+     * malformed
+     * @throws NullPointerException if path==null
+     */
+    public synchronized Bitmap getBitmap(String path, int width, int height) {
+        if (path == null) {
+            throw new NullPointerException("path==null");
+        }
+        final String key = getSizedKey("B", path, width, height);
+        final Entry entry = this.lookup(key);
+        if (entry != null) {
+            return (Bitmap) entry.value;
+        }
+
+        final EncodedImage image = this.loadEncodedImage(path);
+        if (image == null) {
+            return null;
+        }
+        final Bitmap bitmap;
+        try {
+            bitmap = scale(image, width, height).getBitmap();
+        } catch (final IllegalArgumentException e) {
+            return null; // image is malformed
+        }
+        if (bitmap != null) {
+            this.put(key, bitmap, 4L * bitmap.getWidth() * bitmap.getHeight());
+        }
+        return bitmap;
+    }
+
+    /**
+     * Returns an image resource decoded at its natural size if it is already
+     * in the cache, without decoding it otherwise.
+     *
+     * @param path the path of the resource
+     * @return the bitmap, or null if it is not cached
+     * @throws NullPointerException if path==null
+     */
+    public Bitmap getCachedBitmap(String path) {
+        return this.getCachedBitmap(path, 0, 0);
+    }
+
+    /**
+     * Returns a bitmap at a given size if it is already in the cache, without
+     * decoding it otherwise.
+     *
+     * @param path the path of the resource, or the name given to
+     * {@link #putBitmap(String, int, int, Bitmap)}
+     * @param width the width of the bitmap, or 0 for the natural width
+     * @param height the height of the bitmap, or 0 for the natural height
+     * @return the bitmap, or null if it is not cached
+     * @throws NullPointerException if path==null
+     */
+    public synchronized Bitmap getCachedBitmap(String path, int width,
+            int height) {
+        if (path == null) {
+            throw new NullPointerException("path==null");
+        }
+        final Entry entry = this.find(getSizedKey("B", path, width, height));
+        if (entry == null) {
+            return null;
+        }
+        this.hits++;
+        return (Bitmap) entry.value;
+    }
+
+    /**
+     * Adds a bitmap that was produced by other means than decoding an image
+     * resource, such as by rendering a drawing, so that it can be found by
+     * {@link #getCachedBitmap(String, int, int)}.
+     *
+     * @param path the name of the bitmap, such as the path of the resource
+     * from which it was produced
+     * @param width the requested width of the bitmap
+     * @param height the requested height of the bitmap
+     * @param bitmap the bitmap
+     * @throws NullPointerException if path==null or bitmap==null
+     */
+    public synchronized void putBitmap(String path, int width, int height,
+            Bitmap bitmap) {
+        if (path == null) {
+            throw new NullPointerException("path==null");
+        } else if (bitmap == null) {
+            throw new NullPointerException("bitmap==null");
+        }
+        this.put(getSizedKey("B", path, width, height), bitmap, 4L
+            * bitmap.getWidth() * bitmap.getHeight());
+    }
+
+    /**
+     * Returns the pixels of an image embedded in a document as a base64
+     * <code>data:</code> URI. Images are not enlarged when decoded: if the
+     * requested size is larger than the image, its natural size is used.
+     * Images referenced by other kinds of URI are not supported.
+     *
+     * @param href the URI of the image
+     * @param width the width at which the image will be drawn
+     * @param height the height at which the image will be drawn
+     * @return the pixels of the image, or null if the URI is not a supported
+     * image
+     */
+    public synchronized RasterSurface getImage(String href, int width,
+            int height) {
+        if (href == null || !href.startsWith(DATA_PREFIX)) {
+            return null;
+        }
+        final String id = this.getDataId(href);
+        final EncodedImage image = this.getEncodedData(id, href);
+        if (image == null) {
+            return null;
+        }
+
+        // decode at most at the natural size of the image
+        final int naturalWidth = image.getWidth();
+        final int naturalHeight = image.getHeight();
+        if (naturalWidth <= 0 || naturalHeight <= 0) {
+            return null;
+        }
+        width = Math.min(Math.max(1, width), naturalWidth);
+        height = Math.min(Math.max(1, height), naturalHeight);
+        if (width == naturalWidth && height == naturalHeight) {
+            width = 0;
+            height = 0;
+        }
+        final String key = getSizedKey("P", id, width, height);
+        final Entry entry = this.lookup(key);
+        if (entry != null) {
+            return (RasterSurface) entry.value;
+        }
+
+        final Bitmap bitmap;
+        try {
+            bitmap = scale(image, width, height).getBitmap();
+        } catch (final IllegalArgumentException e) {
+            return null; // image is malformed
+        }
+        if (bitmap == null) {
+            return null;
+        }
+        final int w = bitmap.getWidth();
+        final int h = bitmap.getHeight();
+        final RasterSurface pixels = new RasterSurface(w, h);
+        bitmap.getARGB(pixels.getPixels(), 0, w, 0, 0, w, h);
+        this.put(key, pixels, 4L * w * h);
+        return pixels;
+    }
+
+    /**
+     * Evicts entries when the system is low on memory. At high priority the
+     * cache is emptied; otherwise entries are evicted until the cache fits
+     * within half of its budget.
+     *
+     * @param priority the priority of the request
+     * @return true if any entry was evicted
+     */
+    public synchronized boolean freeStaleObject(int priority) {
+        final int count = this.entries.size();
+        if (priority == LowMemoryListener.HIGH_PRIORITY) {
+            this.clear();
+        } else {
+            this.trim(this.budget / 2);
+        }
+        return (this.entries.size() != count);
+    }
+
+    /**
+     * Returns the encoded image of a <code>data:</code> URI, decoding its
+     * base64 text if the image is not cached. No hit or miss is counted. A
+     * malformed URI is remembered with an empty entry, so that it is not
+     * decoded again every time the image is drawn.
+     *
+     * @param id the identifier of the URI, as from getDataId()
+     * @param href the URI
+     * @return the encoded image, or null if the URI is malformed
+     */
+    private EncodedImage getEncodedData(String id, String href) {
+        final String key = "E" + id;
+        final Entry entry = this.find(key);
+        if (entry != null) {
+            return (entry.value == MALFORMED) ? null
+                : (EncodedImage) entry.value;
+        }
+
+        final EncodedImage image = decodeData(href);
+        if (image == null) {
+            this.put(key, MALFORMED, 0);
+        } else {
+            this.put(key, image, image.getLength());
+        }
+        return image;
+    }
+
+    /**
+     * Decodes the encoded image of a base64 <code>data:</code> URI.
+     *
+     * @return the encoded image, or null if the URI is malformed
+     */
+    private static EncodedImage decodeData(String href) {
+        // the media type and parameters end with ";base64" before the comma
+        final int comma = href.indexOf(',');
+        if (comma < 0 || !href.substring(0, comma).endsWith(";base64")) {
+            return null;
+        }
+        try {
+            final byte[] data =
+                Base64InputStream.decode(href.substring(comma + 1));
+            return EncodedImage.createEncodedImage(data, 0, data.length);
+        } catch (final IOException e) {
+            return null; // the base64 text is malformed
+        } catch (final IllegalArgumentException e) {
+            return null; // the image is malformed or of an unknown type
+        }
+    }
+
+    /**
+     * Returns the identifier of a <code>data:</code> URI, which is its
+     * content hash, remembering it for the URIs most recently seen so that a
+     * URI that is looked up repeatedly is hashed once.
+     */
+    private String getDataId(String href) {
+        for (int i = 0; i < HREF_MEMO_SIZE; i++) {
+            if (this.memoHrefs[i] == href) {
+                return this.memoIds[i];
+            }
+        }
+        long hash = SnapshotCache.HASH_SEED;
+        for (int i = 0, length = href.length(); i < length; i++) {
+            final char c = href.charAt(i);
+            hash = SnapshotCache.hash(SnapshotCache.hash(hash, c >> 8), c);
+        }
+        final String id = DATA_PREFIX + Long.toString(hash, 16);
+        this.memoHrefs[this.memoNext] = href;
+        this.memoIds[this.memoNext] = id;
+        this.memoNext = (this.memoNext + 1) % HREF_MEMO_SIZE;
+        return id;
+    }
+
+    /**
+     * Looks up an entry, counting a hit or a miss and marking the entry as
+     * the most recently used.
+     *
+     * @return the entry, or null if it is not cached
+     */
+    private Entry lookup(String key) {
+        final Entry entry = this.find(key);
+        if (entry == null) {
+            this.misses++;
+        } else {
+            this.hits++;
+        }
+        return entry;
+    }
+
+    /**
+     * Looks up an entry, marking it as the most recently used.
+     *
+     * @return the entry, or null if it is not cached
+     */
+    private Entry find(String key) {
+        final Entry entry = (Entry) this.entries.get(key);
+        if (entry != null) {
+            entry.lastUsed = ++this.clock;
+        }
+        return entry;
+    }
+
+    /**
+     * Adds an entry, evicting the least recently used entries until the cache
+     * fits within its budget. An entry larger than the budget is not added.
+     */
+    private void put(String key, Object value, long bytes) {
+        if (bytes > this.budget) {
+            return;
+        }
+        final Entry old = (Entry) this.entries.remove(key);
+        if (old != null) {
+            this.size -= old.bytes;
+        }
+        this.trim(this.budget - bytes);
+        final Entry entry = new Entry(value, bytes);
+        entry.lastUsed = ++this.clock;
+        this.entries.put(key, entry);
+        this.size += bytes;
+    }
+
+    /**
+     * Evicts the least recently used entries until the total size of the
+     * entries is at most a given size.
+     */
+    private void trim(long maxSize) {
+        while (this.size > maxSize && !this.entries.isEmpty()) {
+            String oldestKey = null;
+            Entry oldest = null;
+            final Enumeration keys = this.entries.keys();
+            while (keys.hasMoreElements()) {
+                final String candidateKey = (String) keys.nextElement();
+                final Entry candidate = (Entry) this.entries.get(candidateKey);
+                if (oldest == null || candidate.lastUsed < oldest.lastUsed) {
+                    oldestKey = candidateKey;
+                    oldest = candidate;
+                }
+            }
+            this.entries.remove(oldestKey);
+            this.size -= oldest.bytes;
+        }
+    }
+
+    /**
+     * Returns an encoded image scaled so that it decodes to a given size.
+     *
+     * @param width the width, or 0 for the natural width
+     * @param height the height, or 0 for the natural height
+     */
+    private static EncodedImage scale(EncodedImage image, int width,
+            int height) {
+        final int naturalWidth = image.getWidth();
+        final int naturalHeight = image.getHeight();
+        if ((width <= 0 || width == naturalWidth)
+            && (height <= 0 || height == naturalHeight)) {
+            return image;
+        }
+        final int scaleX =
+            (width <= 0) ? Fixed32.toFP(1) : Fixed32.div(Fixed32
+                .toFP(naturalWidth), Fixed32.toFP(width));
+        final int scaleY =
+            (height <= 0) ? Fixed32.toFP(1) : Fixed32.div(Fixed32
+                .toFP(naturalHeight), Fixed32.toFP(height));
+        return image.scaleImage32(scaleX, scaleY);
+    }
+
+    /**
+     * Returns the key of an entry for an image at a given size.
+     */
+    private static String getSizedKey(String kind, String id, int width,
+            int height) {
+        return kind + width + "x" + height + ":" + id;
+    }
+
+    /**
+     * An entry in the cache.
+     */
+    private static class Entry {
+
+        /**
+         * The cached image.
+         */
+        public final Object value;
+
+        /**
+         * The size of the image, in bytes.
+         */
+        public final long bytes;
+
+        /**
+         * The value of the cache's clock when the entry was last used.
+         */
+        public long lastUsed;
+
+        /**
+         * Creates a new instance of <code>Entry</code>.
+         */
+        public Entry(Object value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
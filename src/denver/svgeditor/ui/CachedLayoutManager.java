@@ -0,0 +1,346 @@
+/*
+ * CachedLayoutManager.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.util.Vector;
+
+import net.rim.device.api.ui.Field;
+import net.rim.device.api.ui.Manager;
+
+/**
+ * A manager which lays out any number of fields in a single row or column,
+ * each at its preferred size, separated by a gap and centered in the
+ * manager. The geometry computed for a layout is remembered for each
+ * combination of width, height and direction, so that layout passes caused
+ * by rotating back and forth or by repaints reuse it; a pass whose geometry
+ * is the one already applied does not lay out the fields again at all.
+ * <p>
+ * A remembered geometry is reused only while the manager holds the same
+ * fields with the same preferred sizes. Subclasses whose fields' layouts
+ * depend on anything else must invoke {@link #invalidateLayout()} when it
+ * changes.
+ * <p>
+ * The numbers of layout passes, of geometries computed, and of fields laid
+ * out and skipped are counted, so that redundant layout work can be seen.
+ */
+public class CachedLayoutManager extends Manager {
+
+    /**
+     * The direction in which the fields are laid out in a row when the
+     * manager is wider than it is high, and in a column otherwise.
+     */
+    public static final int AUTO = 0;
+
+    /**
+     * The direction in which the fields are always laid out in a row.
+     */
+    public static final int HORIZONTAL = 1;
+
+    /**
+     * The direction in which the fields are always laid out in a column.
+     */
+    public static final int VERTICAL = 2;
+
+    /**
+     * The number of geometries remembered; one for each orientation of the
+     * screen, with room to spare.
+     */
+    public static final int MAX_CACHED_LAYOUTS = 4;
+
+    private final int direction;
+    private final int gap;
+    private final Vector layouts;
+    private Layout applied;
+
+    private int layoutCount;
+    private int computeCount;
+    private int childLayoutCount;
+    private int skippedCount;
+
+    /**
+     * Creates a new instance of <code>CachedLayoutManager</code>.
+     *
+     * @param style the style of the manager
+     * @param direction the direction in which to lay out the fields:
+     * {@link #AUTO}, {@link #HORIZONTAL} or {@link #VERTICAL}
+     * @param gap the space between adjacent fields, in pixels
+     * @throws IllegalArgumentException if direction is not valid
+     */
+    public CachedLayoutManager(long style, int direction, int gap) {
+        super(style);
+        if (direction < AUTO || direction > VERTICAL) {
+            throw new IllegalArgumentException("invalid direction: "
+                + direction);
+        }
+        this.direction = direction;
+        this.gap = gap;
+        this.layouts = new Vector(MAX_CACHED_LAYOUTS);
+    }
+
+    /**
+     * Forgets the remembered geometries, so that the next layout pass
+     * computes the geometry again and lays out every field.
+     */
+    public void invalidateLayout() {
+        this.layouts.removeAllElements();
+        this.applied = null;
+    }
+
+    /**
+     * Returns the number of layout passes of this manager.
+     *
+     * @return the number of passes
+     */
+    public int getLayoutCount() {
+        return this.layoutCount;
+    }
+
+    /**
+     * Returns the number of layout passes that computed their geometry rather
+     * than reusing a remembered one.
+     *
+     * @return the number of geometries computed
+     */
+    public int getComputeCount() {
+        return this.computeCount;
+    }
+
+    /**
+     * Returns the number of times a field was laid out.
+     *
+     * @return the number of fields laid out
+     */
+    public int getChildLayoutCount() {
+        return this.childLayoutCount;
+    }
+
+    /**
+     * Returns the number of times laying out a field was skipped because its
+     * geometry was already applied.
+     *
+     * @return the number of fields not laid out
+     */
+    public int getSkippedCount() {
+        return this.skippedCount;
+    }
+
+    /**
+     * Returns a summary of the layout counters.
+     *
+     * @return a summary such as "6 passes, 2 computed, 4 fields laid out, 8
+     * skipped"; never returns null
+     */
+    public String getLayoutSummary() {
+        return this.layoutCount + " passes, " + this.computeCount
+            + " computed, " + this.childLayoutCount + " fields laid out, "
+            + this.skippedCount + " skipped";
+    }
+
+    /**
+     * Lays out the fields, reusing a remembered geometry if there is one for
+     * this size.
+     */
+    protected void sublayout(int width, int height) {
+        this.layoutCount++;
+        final boolean horizontal =
+            (this.direction == HORIZONTAL)
+                || (this.direction == AUTO && width > height);
+        Layout layout = this.findLayout(width, height, horizontal);
+        if (layout == null) {
+            layout = this.computeLayout(width, height, horizontal);
+            this.computeCount++;
+            if (this.layouts.size() == MAX_CACHED_LAYOUTS) {
+                this.layouts.removeElementAt(MAX_CACHED_LAYOUTS - 1);
+            }
+            this.layouts.insertElementAt(layout, 0);
+        }
+
+        final Field[] fields = layout.fields;
+        for (int i = 0; i < fields.length; i++) {
+            final Field field = fields[i];
+            final int w = layout.widths[i];
+            final int h = layout.heights[i];
+            if (layout == this.applied && field.getWidth() == w
+                && field.getHeight() == h) {
+                this.skippedCount++;
+                continue;
+            }
+            this.setPositionChild(field, layout.xs[i], layout.ys[i]);
+            this.layoutChild(field, w, h);
+            this.childLayoutCount++;
+        }
+        this.applied = layout;
+        this.setExtent(width, height);
+    }
+
+    /**
+     * Returns the remembered geometry for a size, if it is still valid for
+     * the fields of this manager.
+     *
+     * @return the geometry, or null if there is none
+     */
+    private Layout findLayout(int width, int height, boolean horizontal) {
+        final int count = this.getFieldCount();
+        for (int i = this.layouts.size() - 1; i >= 0; i--) {
+            final Layout layout = (Layout) this.layouts.elementAt(i);
+            if (layout.width == width && layout.height == height
+                && layout.horizontal == horizontal
+                && layout.fields.length == count && this.isCurrent(layout)) {
+                // keep the most recently used geometries at the front
+                this.layouts.removeElementAt(i);
+                this.layouts.insertElementAt(layout, 0);
+                return layout;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether a geometry was computed for the current fields of this
+     * manager at their current preferred sizes.
+     */
+    private boolean isCurrent(Layout layout) {
+        final Field[] fields = layout.fields;
+        for (int i = 0; i < fields.length; i++) {
+            final Field field = this.getField(i);
+            if (field != fields[i]
+                || field.getPreferredWidth() != layout.preferredWidths[i]
+                || field.getPreferredHeight() != layout.preferredHeights[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the geometry of the fields for a size: each field at its
+     * preferred size, limited to the size of the manager, with the row or
+     * column of fields centered.
+     */
+    private Layout computeLayout(int width, int height, boolean horizontal) {
+        final int count = this.getFieldCount();
+        final Layout layout = new Layout(width, height, horizontal, count);
+        int total = this.gap * Math.max(0, count - 1);
+        for (int i = 0; i < count; i++) {
+            final Field field = this.getField(i);
+            final int preferredWidth = field.getPreferredWidth();
+            final int preferredHeight = field.getPreferredHeight();
+            layout.fields[i] = field;
+            layout.preferredWidths[i] = preferredWidth;
+            layout.preferredHeights[i] = preferredHeight;
+            layout.widths[i] = Math.max(0, Math.min(width, preferredWidth));
+            layout.heights[i] = Math.max(0, Math.min(height, preferredHeight));
+            total += horizontal ? layout.widths[i] : layout.heights[i];
+        }
+
+        final int length = horizontal ? width : height;
+        int position = Math.max(0, (length - total) / 2);
+        for (int i = 0; i < count; i++) {
+            final int w = layout.widths[i];
+            final int h = layout.heights[i];
+            if (horizontal) {
+                layout.xs[i] = position;
+                layout.ys[i] = Math.max(0, (height - h) / 2);
+                position += w + this.gap;
+            } else {
+                layout.xs[i] = Math.max(0, (width - w) / 2);
+                layout.ys[i] = position;
+                position += h + this.gap;
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * The geometry of the fields of the manager at one size.
+     */
+    private static class Layout {
+
+        /**
+         * The width of the manager.
+         */
+        public final int width;
+
+        /**
+         * The height of the manager.
+         */
+        public final int height;
+
+        /**
+         * Whether the fields are laid out in a row rather than a column.
+         */
+        public final boolean horizontal;
+
+        /**
+         * The fields that were laid out.
+         */
+        public final Field[] fields;
+
+        /**
+         * The preferred widths of the fields when they were laid out.
+         */
+        public final int[] preferredWidths;
+
+        /**
+         * The preferred heights of the fields when they were laid out.
+         */
+        public final int[] preferredHeights;
+
+        /**
+         * The x coordinates of the fields.
+         */
+        public final int[] xs;
+
+        /**
+         * The y coordinates of the fields.
+         */
+        public final int[] ys;
+
+        /**
+         * The widths given to the fields.
+         */
+        public final int[] widths;
+
+        /**
+         * The heights given to the fields.
+         */
+        public final int[] heights;
+
+        /**
+         * Creates a new instance of <code>Layout</code>.
+         */
+        public Layout(int width, int height, boolean horizontal, int count) {
+            this.width = width;
+            this.height = height;
+            this.horizontal = horizontal;
+            this.fields = new Field[count];
+            this.preferredWidths = new int[count];
+            this.preferredHeights = new int[count];
+            this.xs = new int[count];
+            this.ys = new int[count];
+            this.widths = new int[count];
+            this.heights = new int[count];
+        }
+    }
+}
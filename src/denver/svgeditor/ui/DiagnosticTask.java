@@ -0,0 +1,417 @@
+/*
+ * DiagnosticTask.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import denver.svgeditor.model.Footprint;
+import denver.svgeditor.model.FreezeBenchmark;
+import denver.svgeditor.model.JournalBenchmark;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+import denver.svgeditor.model.SVGElementBuilder;
+import denver.svgeditor.model.SnapshotBenchmark;
+import denver.svgeditor.model.UndoBenchmark;
+import denver.svgeditor.render.DisplayListBenchmark;
+import denver.svgeditor.render.FixedPointBenchmark;
+import denver.svgeditor.render.IconBenchmark;
+import denver.svgeditor.render.SpatialIndexBenchmark;
+import denver.svgeditor.render.StyleBenchmark;
+import denver.svgeditor.render.TessellationBenchmark;
+import denver.svgeditor.strings.SVGEditorResource;
+import denver.svgeditor.svg.NameTable;
+
+/**
+ * A task which runs one of the benchmarks or checks offered by the
+ * diagnostics menu on the worker thread of a {@link BackgroundExecutor}, so
+ * that the user interface stays responsive while it runs, and keeps its
+ * report for the listener to show. The workloads are sized to finish in a
+ * few seconds on a device; the benchmarks that need no device run at full
+ * size on a desktop virtual machine through
+ * <code>denver.svgeditor.tools.BenchmarkRunner</code>.
+ * <p>
+ * A benchmark cannot be interrupted once it has started, so cancelling a
+ * running diagnostic only discards its report.
+ */
+public class DiagnosticTask extends BackgroundTask {
+
+    /**
+     * The diagnostic which compares the heap footprint of a document's
+     * compact model with that of a naive object tree built from the same file.
+     */
+    public static final int FOOTPRINT = 0;
+
+    /**
+     * The diagnostic which runs {@link SpatialIndexBenchmark}.
+     */
+    public static final int INDEX_BENCHMARK = 1;
+
+    /**
+     * The diagnostic which runs {@link JournalBenchmark}.
+     */
+    public static final int SAVE_BENCHMARK = 2;
+
+    /**
+     * The diagnostic which runs {@link SnapshotBenchmark}.
+     */
+    public static final int OPEN_BENCHMARK = 3;
+
+    /**
+     * The diagnostic which runs {@link IconBenchmark}.
+     */
+    public static final int ICON_BENCHMARK = 4;
+
+    /**
+     * The diagnostic which runs {@link UndoBenchmark}.
+     */
+    public static final int UNDO_BENCHMARK = 5;
+
+    /**
+     * The diagnostic which runs {@link FreezeBenchmark}.
+     */
+    public static final int FREEZE_BENCHMARK = 6;
+
+    /**
+     * The diagnostic which runs {@link WriteBenchmark}.
+     */
+    public static final int WRITE_BENCHMARK = 7;
+
+    /**
+     * The diagnostic which runs {@link StyleBenchmark}.
+     */
+    public static final int STYLE_BENCHMARK = 8;
+
+    /**
+     * The diagnostic which runs {@link FixedPointBenchmark}.
+     */
+    public static final int FIXED_POINT_BENCHMARK = 9;
+
+    /**
+     * The diagnostic which runs {@link TessellationBenchmark}.
+     */
+    public static final int TESSELLATION_BENCHMARK = 10;
+
+    /**
+     * The diagnostic which runs {@link DisplayListBenchmark}.
+     */
+    public static final int DISPLAY_LIST_BENCHMARK = 11;
+
+    /**
+     * The diagnostic which runs {@link RasterRegression}.
+     */
+    public static final int RASTER_REGRESSION = 12;
+
+    /**
+     * The number of diagnostics run by this class.
+     */
+    public static final int DIAGNOSTIC_COUNT = 13;
+
+    /**
+     * The number of shapes indexed by the hit-test benchmark.
+     */
+    public static final int INDEX_BENCHMARK_ELEMENTS = 10000;
+
+    /**
+     * The number of each kind of query timed by the hit-test benchmark.
+     */
+    public static final int INDEX_BENCHMARK_QUERIES = 1000;
+
+    /**
+     * The number of shapes in the drawing saved by the save benchmark.
+     */
+    public static final int SAVE_BENCHMARK_ELEMENTS = 10000;
+
+    /**
+     * The number of saves timed by the save benchmark.
+     */
+    public static final int SAVE_BENCHMARK_SAVES = 20;
+
+    /**
+     * The number of shapes moved before each save of the save benchmark.
+     */
+    public static final int SAVE_BENCHMARK_EDITS = 10;
+
+    /**
+     * The number of shapes in the drawing opened by the open benchmark.
+     */
+    public static final int OPEN_BENCHMARK_ELEMENTS = 10000;
+
+    /**
+     * The number of opens timed by the open benchmark.
+     */
+    public static final int OPEN_BENCHMARK_RUNS = 5;
+
+    /**
+     * The number of times each icon is rendered by the icon benchmark.
+     */
+    public static final int ICON_BENCHMARK_RUNS = 5;
+
+    /**
+     * The number of shapes in the group deleted by the undo benchmark.
+     */
+    public static final int UNDO_BENCHMARK_ELEMENTS = 10000;
+
+    /**
+     * The number of edits made by the drag and spill tests of the undo
+     * benchmark.
+     */
+    public static final int UNDO_BENCHMARK_EDITS = 1000;
+
+    /**
+     * The number of shapes in the largest drawing of the freeze benchmark.
+     */
+    public static final int FREEZE_BENCHMARK_ELEMENTS = 10000;
+
+    /**
+     * The number of freezes and edits timed at each size by the freeze
+     * benchmark.
+     */
+    public static final int FREEZE_BENCHMARK_RUNS = 100;
+
+    /**
+     * The number of shapes in the drawing written by the write benchmark.
+     */
+    public static final int WRITE_BENCHMARK_ELEMENTS = 5000;
+
+    /**
+     * The number of times the write benchmark writes the drawing in each
+     * mode.
+     */
+    public static final int WRITE_BENCHMARK_RUNS = 3;
+
+    /**
+     * The number of shapes in the drawing of the style benchmark.
+     */
+    public static final int STYLE_BENCHMARK_ELEMENTS = 10000;
+
+    /**
+     * The number of class rules in the style sheet of the style benchmark.
+     */
+    public static final int STYLE_BENCHMARK_RULES = 200;
+
+    /**
+     * The number of shapes in the drawing of the fixed-point benchmark.
+     */
+    public static final int FIXED_POINT_BENCHMARK_SHAPES = 1000;
+
+    /**
+     * The number of times the drawing of the fixed-point benchmark is
+     * rendered with each backend.
+     */
+    public static final int FIXED_POINT_BENCHMARK_RUNS = 5;
+
+    /**
+     * The number of shapes in the drawing of the tessellation benchmark.
+     */
+    public static final int TESSELLATION_BENCHMARK_SHAPES = 300;
+
+    /**
+     * The number of shapes in the drawing of the display list benchmark.
+     */
+    public static final int DISPLAY_LIST_BENCHMARK_SHAPES = 600;
+
+    /**
+     * The number of frames for which the raster regression check times each
+     * icon.
+     */
+    public static final int RASTER_REGRESSION_RUNS = 20;
+
+    private static final int[] NAME_IDS = {
+        SVGEditorResource.MENU_FOOTPRINT,
+        SVGEditorResource.MENU_INDEX_BENCHMARK,
+        SVGEditorResource.MENU_SAVE_BENCHMARK,
+        SVGEditorResource.MENU_OPEN_BENCHMARK,
+        SVGEditorResource.MENU_ICON_BENCHMARK,
+        SVGEditorResource.MENU_UNDO_BENCHMARK,
+        SVGEditorResource.MENU_FREEZE_BENCHMARK,
+        SVGEditorResource.MENU_WRITE_BENCHMARK,
+        SVGEditorResource.MENU_STYLE_BENCHMARK,
+        SVGEditorResource.MENU_FIXED_POINT_BENCHMARK,
+        SVGEditorResource.MENU_TESSELLATION_BENCHMARK,
+        SVGEditorResource.MENU_DISPLAY_LIST_BENCHMARK,
+        SVGEditorResource.MENU_RASTER_REGRESSION };
+
+    private static final String[] ICONS =
+        { IconSet.ICON_NEW, IconSet.ICON_OPEN };
+
+    private final int diagnostic;
+    private final String url;
+    private final int iconSize;
+    private String report;
+
+    /**
+     * Creates a new instance of <code>DiagnosticTask</code>.
+     *
+     * @param diagnostic the diagnostic to run; one of the constants defined
+     * in this class
+     * @param url the URL of the file open in the editor, which
+     * {@link #FOOTPRINT} parses; may be null for the other diagnostics
+     * @param listener the listener to tell of the task's completion; may be
+     * null
+     * @throws IllegalArgumentException if diagnostic is not one of the
+     * constants defined in this class
+     * @throws NullPointerException if diagnostic is {@link #FOOTPRINT} and
+     * url==null
+     */
+    public DiagnosticTask(int diagnostic, String url, Listener listener) {
+        super(listener);
+        if (diagnostic < 0 || diagnostic >= DIAGNOSTIC_COUNT) {
+            throw new IllegalArgumentException("invalid diagnostic: "
+                + diagnostic);
+        } else if (diagnostic == FOOTPRINT && url == null) {
+            throw new NullPointerException("url==null");
+        }
+        this.diagnostic = diagnostic;
+        this.url = url;
+        this.iconSize = IconSet.getIconSize();
+    }
+
+    /**
+     * Returns the ID of the string which names a diagnostic.
+     *
+     * @param diagnostic the diagnostic; one of the constants defined in this
+     * class
+     * @return the ID of the name in the application's resource bundle
+     * @throws ArrayIndexOutOfBoundsException if diagnostic is not one of the
+     * constants defined in this class
+     */
+    public static int getNameId(int diagnostic) {
+        return NAME_IDS[diagnostic];
+    }
+
+    /**
+     * Returns the diagnostic that this task runs.
+     *
+     * @return the diagnostic that was specified to the constructor
+     */
+    public int getDiagnostic() {
+        return this.diagnostic;
+    }
+
+    /**
+     * Returns the report of the diagnostic.
+     *
+     * @return the multi-line report, or null if this task has not succeeded
+     */
+    public synchronized String getReport() {
+        return (this.getState() == STATE_SUCCEEDED) ? this.report : null;
+    }
+
+    /**
+     * Runs the diagnostic.
+     */
+    protected void execute() throws Exception {
+        final String report;
+        switch (this.diagnostic) {
+        case FOOTPRINT:
+            report = this.measureFootprint();
+            break;
+        case INDEX_BENCHMARK:
+            report =
+                SpatialIndexBenchmark.run(INDEX_BENCHMARK_ELEMENTS,
+                    INDEX_BENCHMARK_QUERIES);
+            break;
+        case SAVE_BENCHMARK:
+            report =
+                JournalBenchmark.run(SAVE_BENCHMARK_ELEMENTS,
+                    SAVE_BENCHMARK_SAVES, SAVE_BENCHMARK_EDITS);
+            break;
+        case OPEN_BENCHMARK:
+            report =
+                SnapshotBenchmark.run(OPEN_BENCHMARK_ELEMENTS,
+                    OPEN_BENCHMARK_RUNS);
+            break;
+        case ICON_BENCHMARK:
+            report = IconBenchmark.run(ICONS, this.iconSize,
+                ICON_BENCHMARK_RUNS);
+            break;
+        case UNDO_BENCHMARK:
+            report =
+                UndoBenchmark.run(UNDO_BENCHMARK_ELEMENTS,
+                    UNDO_BENCHMARK_EDITS);
+            break;
+        case FREEZE_BENCHMARK:
+            report =
+                FreezeBenchmark.run(FREEZE_BENCHMARK_ELEMENTS,
+                    FREEZE_BENCHMARK_RUNS);
+            break;
+        case WRITE_BENCHMARK:
+            report =
+                WriteBenchmark.run(WRITE_BENCHMARK_ELEMENTS,
+                    WRITE_BENCHMARK_RUNS);
+            break;
+        case STYLE_BENCHMARK:
+            report =
+                StyleBenchmark.run(STYLE_BENCHMARK_ELEMENTS,
+                    STYLE_BENCHMARK_RULES);
+            break;
+        case FIXED_POINT_BENCHMARK:
+            report =
+                FixedPointBenchmark.run(FIXED_POINT_BENCHMARK_SHAPES,
+                    FIXED_POINT_BENCHMARK_RUNS);
+            break;
+        case TESSELLATION_BENCHMARK:
+            report = TessellationBenchmark.run(TESSELLATION_BENCHMARK_SHAPES);
+            break;
+        case DISPLAY_LIST_BENCHMARK:
+            report = DisplayListBenchmark.run(DISPLAY_LIST_BENCHMARK_SHAPES);
+            break;
+        default:
+            report = RasterRegression.run(ICONS, RASTER_REGRESSION_RUNS);
+            break;
+        }
+        synchronized (this) {
+            this.report = report;
+        }
+    }
+
+    /**
+     * Parses the open file again into each model to measure the heap growth.
+     */
+    private String measureFootprint() throws Exception {
+        final Runtime runtime = Runtime.getRuntime();
+        long before = usedMemory(runtime);
+        final SVGElementBuilder treeBuilder = new SVGElementBuilder();
+        DocumentLoader.parse(this.url, treeBuilder, new NameTable());
+        final long treeMeasured = usedMemory(runtime) - before;
+
+        before = usedMemory(runtime);
+        final SVGDocument document = new SVGDocument();
+        DocumentLoader.parse(this.url, new SVGDocumentBuilder(document),
+            document.getNameTable());
+        final long documentMeasured = usedMemory(runtime) - before;
+
+        return Footprint.report(treeBuilder.getRoot(), document,
+            treeMeasured, documentMeasured);
+    }
+
+    /**
+     * Returns the amount of heap in use after garbage collection.
+     *
+     * @param runtime the runtime whose heap to measure
+     * @return the number of bytes of heap in use
+     */
+    private static long usedMemory(Runtime runtime) {
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * DocumentLoader.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+import net.rim.device.api.compress.GZIPInputStream;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.ParseStats;
+import denver.svgeditor.svg.SVGHandler;
+import denver.svgeditor.svg.SVGParseException;
+import denver.svgeditor.svg.SVGParser;
+
+/**
+ * Reads SVG files from the file system. Files whose names end with
+ * {@link SaveDocumentTask#COMPRESSED_SUFFIX} are decompressed as they are
+ * read.
+ */
+public class DocumentLoader {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private DocumentLoader() {
+    }
+
+    /**
+     * Parses a file into a new document.
+     * 
+     * @param url the URL of the file to parse
+     * @return the document; never returns null
+     * @throws IOException if reading the file fails or url is not a file URL
+     * @throws SVGParseException if the file is not well-formed
+     * @throws NullPointerException if url==null
+     */
+    public static SVGDocument load(String url) throws IOException,
+            SVGParseException {
+        final SVGDocument document = new SVGDocument();
+        parse(url, new SVGDocumentBuilder(document), document.getNameTable());
+        return document;
+    }
+
+    /**
+     * Parses a file, {@link SVGParser#DEFAULT_CHUNK_TOKENS} tokens at a time.
+     * 
+     * @param url the URL of the file to parse
+     * @param handler the handler to which to report the file's contents
+     * @param names the table with which to intern names
+     * @return the statistics from parsing the file; never returns null
+     * @throws IOException if reading the file fails or url is not a file URL
+     * @throws SVGParseException if the file is not well-formed
+     * @throws NullPointerException if any argument is null
+     */
+    public static ParseStats parse(String url, SVGHandler handler,
+            NameTable names) throws IOException, SVGParseException {
+        return parse(url, handler, names, null);
+    }
+
+    /**
+     * Parses a file, {@link SVGParser#DEFAULT_CHUNK_TOKENS} tokens at a time,
+     * reporting the number of bytes read to a task after each chunk and
+     * stopping early if the task is cancelled.
+     * 
+     * @param url the URL of the file to parse
+     * @param handler the handler to which to report the file's contents
+     * @param names the table with which to intern names
+     * @param task the task to which to report progress; may be null
+     * @return the statistics from parsing the file, which are incomplete if
+     * the task was cancelled; never returns null
+     * @throws IOException if reading the file fails or url is not a file URL
+     * @throws SVGParseException if the file is not well-formed
+     * @throws NullPointerException if url, handler or names is null
+     */
+    public static ParseStats parse(String url, SVGHandler handler,
+            NameTable names, BackgroundTask task) throws IOException,
+            SVGParseException {
+        return parse(url, handler, names, task, null);
+    }
+
+    /**
+     * Parses a file, {@link SVGParser#DEFAULT_CHUNK_TOKENS} tokens at a time,
+     * reporting the number of bytes read to a task after each chunk and
+     * stopping early if the task is cancelled. The bytes read are hashed with
+     * {@link SnapshotCache#hash(long, byte[], int, int)} as they are parsed,
+     * so the content hash of the file costs no extra pass over it. The progress
+     * and the hash are of the bytes of the file, before any decompression.
+     * 
+     * @param url the URL of the file to parse
+     * @param handler the handler to which to report the file's contents
+     * @param names the table with which to intern names
+     * @param task the task to which to report progress; may be null
+     * @param hash an array whose first element is set to the content hash of
+     * the bytes read, which is the hash of the whole file unless the task was
+     * cancelled; may be null
+     * @return the statistics from parsing the file, which are incomplete if
+     * the task was cancelled; never returns null
+     * @throws IOException if reading the file fails or url is not a file URL
+     * @throws SVGParseException if the file is not well-formed
+     * @throws NullPointerException if url, handler or names is null
+     * @throws ArrayIndexOutOfBoundsException if hash has no elements
+     */
+    public static ParseStats parse(String url, SVGHandler handler,
+            NameTable names, BackgroundTask task, long[] hash)
+            throws IOException, SVGParseException {
+        FileConnection connection = null;
+        CountingInputStream in = null;
+        try {
+            try {
+                connection =
+                    (FileConnection) Connector.open(url, Connector.READ);
+            } catch (final ClassCastException e) {
+                throw new IOException("not a file: " + url);
+            }
+            final long size = connection.fileSize();
+            in =
+                new CountingInputStream(connection.openInputStream(),
+                    hash != null);
+            final InputStream source;
+            if (SaveDocumentTask.isCompressed(url)) {
+                source = new GZIPInputStream(in);
+            } else {
+                source = in;
+            }
+            final SVGParser parser = new SVGParser(source, handler, names);
+            while (parser.parse(SVGParser.DEFAULT_CHUNK_TOKENS)) {
+                if (task != null) {
+                    if (task.isCancelled()) {
+                        break;
+                    }
+                    task.setProgress(in.getCount(), size);
+                }
+            }
+            if (hash != null) {
+                hash[0] = in.getHash();
+            }
+            return parser.getStats();
+        } finally {
+            Util.closeQuietly(in);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * An InputStream which counts, and optionally hashes, the bytes read from
+     * another stream.
+     */
+    private static class CountingInputStream extends InputStream {
+
+        private final InputStream in;
+        private final boolean hashing;
+        private long count;
+        private long hash;
+
+        /**
+         * Creates a new instance of <code>CountingInputStream</code>.
+         * 
+         * @param in the stream from which to read
+         * @param hashing true to hash the bytes read
+         */
+        public CountingInputStream(InputStream in, boolean hashing) {
+            this.in = in;
+            this.hashing = hashing;
+            this.hash = SnapshotCache.HASH_SEED;
+        }
+
+        /**
+         * Returns the content hash of the bytes read so far.
+         * 
+         * @return the hash, or {@link SnapshotCache#HASH_SEED} if this stream
+         * is not hashing
+         */
+        public long getHash() {
+            return this.hash;
+        }
+
+        /**
+         * Returns the number of bytes read so far.
+         * 
+         * @return the number of bytes read
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Reads a byte from the underlying stream.
+         */
+        public int read() throws IOException {
+            final int b = this.in.read();
+            if (b >= 0) {
+                this.count++;
+                if (this.hashing) {
+                    this.hash = SnapshotCache.hash(this.hash, b);
+                }
+            }
+            return b;
+        }
+
+        /**
+         * Reads bytes from the underlying stream.
+         */
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = this.in.read(b, off, len);
+            if (n > 0) {
+                this.count += n;
+                if (this.hashing) {
+                    this.hash = SnapshotCache.hash(this.hash, b, off, n);
+                }
+            }
+            return n;
+        }
+
+        /**
+         * Returns the number of bytes available from the underlying stream.
+         */
+        public int available() throws IOException {
+            return this.in.available();
+        }
+
+        /**
+         * Closes the underlying stream.
+         */
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+}
@@ -0,0 +1,415 @@
+/*
+ * DocumentTab.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import denver.svgeditor.model.DocumentJournal;
+import denver.svgeditor.model.DocumentListener;
+import denver.svgeditor.model.DocumentSnapshot;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.UndoHistory;
+
+/**
+ * One open document in {@link SVGEditorTabs}. A tab holds its document in
+ * one of three forms: fully loaded, as a compact binary snapshot, or only as
+ * the URL of its file. Only the visible tab is loaded; the others are demoted
+ * to snapshots, and snapshots of unmodified documents are discarded when
+ * memory is needed, since they can be parsed again from their files.
+ * <p>
+ * A tab listens to its loaded document so that any change marks it as
+ * modified, and attaches its {@link DocumentJournal}, if it has one, to
+ * whichever document object is loaded so that every change is recorded.
+ * <p>
+ * A tab also holds the {@link UndoHistory} of its document. The history
+ * refers to elements by index, so it survives demotion to a snapshot and
+ * reloading with a journal, but is cleared whenever the document is replaced
+ * by one whose indices may differ.
+ */
+public class DocumentTab implements DocumentListener {
+
+    /**
+     * The state of a tab whose document is fully loaded.
+     */
+    public static final int STATE_LOADED = 0;
+
+    /**
+     * The state of a tab whose document is held as a snapshot.
+     */
+    public static final int STATE_SNAPSHOT = 1;
+
+    /**
+     * The state of a tab whose document is held only as a file reference.
+     */
+    public static final int STATE_FILE = 2;
+
+    private final String url;
+    private final String title;
+    private SVGDocument document;
+    private DocumentJournal journal;
+    private UndoHistory history;
+    private byte[] snapshot;
+    private boolean modified;
+    private boolean rewriteRequired;
+    private long lastUsed;
+
+    /**
+     * Creates a new instance of <code>DocumentTab</code> for a document that
+     * has just been opened.
+     * 
+     * @param url the URL of the document's file
+     * @param document the document
+     * @throws NullPointerException if url==null or document==null
+     */
+    public DocumentTab(String url, SVGDocument document) {
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        } else if (document == null) {
+            throw new NullPointerException("document==null");
+        }
+        this.url = url;
+        this.title = url.substring(url.lastIndexOf('/') + 1);
+        this.attach(document);
+    }
+
+    /**
+     * Returns the URL of this tab's file.
+     * 
+     * @return the URL that was specified to the constructor; never returns
+     * null
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Returns the title of this tab.
+     * 
+     * @return the name of this tab's file; never returns null
+     */
+    public String getTitle() {
+        return this.title;
+    }
+
+    /**
+     * Returns the form in which this tab holds its document.
+     * 
+     * @return one of {@link #STATE_LOADED}, {@link #STATE_SNAPSHOT} or
+     * {@link #STATE_FILE}
+     */
+    public int getState() {
+        if (this.document != null) {
+            return STATE_LOADED;
+        }
+        return (this.snapshot != null) ? STATE_SNAPSHOT : STATE_FILE;
+    }
+
+    /**
+     * Returns the document of this tab if it is loaded.
+     * 
+     * @return the document, or null if it is not loaded
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Returns the journal which records the changes to this tab's document.
+     * 
+     * @return the journal, or null if changes are not journaled
+     */
+    public DocumentJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Sets the journal which records the changes to this tab's document. The
+     * journal is attached to the document whenever it is loaded, and it is
+     * replayed onto the document whenever the document is parsed again from
+     * its file.
+     * 
+     * @param journal the journal; may be null to stop journaling changes
+     */
+    public void setJournal(DocumentJournal journal) {
+        if (this.journal != null) {
+            this.journal.detach();
+        }
+        this.journal = journal;
+        if (journal != null && this.document != null) {
+            journal.attach(this.document);
+        }
+    }
+
+    /**
+     * Returns the undo history of this tab's document, creating it on the
+     * first invocation. Commands that exceed the history's budget are
+     * spilled to a file in {@link SnapshotCache#DEFAULT_DIRECTORY}.
+     * 
+     * @return the history; never returns null
+     */
+    public UndoHistory getHistory() {
+        if (this.history == null) {
+            this.history =
+                new UndoHistory(UndoHistory.DEFAULT_BUDGET, new UndoSpillFile(
+                    SnapshotCache.DEFAULT_DIRECTORY));
+        }
+        return this.history;
+    }
+
+    /**
+     * Forgets the undo history of this tab's document and deletes its spill
+     * file, such as when the tab is closed.
+     */
+    void clearHistory() {
+        if (this.history != null) {
+            this.history.clear();
+        }
+    }
+
+    /**
+     * Marks this tab as modified, and discards its snapshot since it no
+     * longer matches the document.
+     */
+    public void elementCreated(SVGDocument document, int element) {
+        this.modified = true;
+        this.snapshot = null;
+    }
+
+    /**
+     * Marks this tab as modified, and discards its snapshot since it no
+     * longer matches the document.
+     */
+    public void elementMoved(SVGDocument document, int element,
+            int oldParent) {
+        this.modified = true;
+        this.snapshot = null;
+    }
+
+    /**
+     * Marks this tab as modified, and discards its snapshot since it no
+     * longer matches the document.
+     */
+    public void attributeChanged(SVGDocument document, int element,
+            int nameId) {
+        this.modified = true;
+        this.snapshot = null;
+    }
+
+    /**
+     * Returns the size of this tab's snapshot.
+     * 
+     * @return the number of bytes in the snapshot, or 0 if there is none
+     */
+    public int getSnapshotSize() {
+        return (this.snapshot == null) ? 0 : this.snapshot.length;
+    }
+
+    /**
+     * Returns whether or not this tab's document has changes that are not in
+     * its file, in which case its snapshot is never discarded.
+     * 
+     * @return true if the document has been modified
+     */
+    public boolean isModified() {
+        return this.modified;
+    }
+
+    /**
+     * Sets whether or not this tab's document has changes that are not in its
+     * file.
+     * 
+     * @param modified true if the document has been modified
+     */
+    public void setModified(boolean modified) {
+        this.modified = modified;
+    }
+
+    /**
+     * Returns whether the next save of this tab's document must compact it.
+     * This is the case when a compaction rewrote the file in document order
+     * while the document was being edited, since the records of those edits
+     * refer to elements by their old indices and so do not apply to the file.
+     * 
+     * @return true if the document must be rewritten in full
+     */
+    boolean isRewriteRequired() {
+        return this.rewriteRequired;
+    }
+
+    /**
+     * Sets whether the next save of this tab's document must compact it.
+     * 
+     * @param rewriteRequired true if the document must be rewritten in full
+     */
+    void setRewriteRequired(boolean rewriteRequired) {
+        this.rewriteRequired = rewriteRequired;
+    }
+
+    /**
+     * Returns when this tab was last shown.
+     * 
+     * @return a counter value that is greater for more recently shown tabs
+     */
+    long getLastUsed() {
+        return this.lastUsed;
+    }
+
+    /**
+     * Records when this tab was last shown.
+     * 
+     * @param lastUsed the counter value
+     */
+    void setLastUsed(long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    /**
+     * Returns a task which loads this tab's document on the worker thread of
+     * a {@link BackgroundExecutor}, from its snapshot if it has one or else by
+     * parsing its file and replaying its journal file. Once the task
+     * succeeds, its document is to be given to this tab with
+     * {@link #loaded(LoadTabTask)}.
+     * 
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @return the task; never returns null
+     */
+    LoadTabTask newLoadTask(BackgroundTask.Listener listener) {
+        return new LoadTabTask(this.url, this.snapshot, this.journal != null,
+            listener);
+    }
+
+    /**
+     * Makes the document loaded by a task this tab's loaded document, unless
+     * one is already loaded. If the task replayed the journal file then its
+     * journal replaces this tab's, taking over any records that have not been
+     * saved. The snapshot is kept so that demoting the
+     * document again does not need to write a new one unless it was modified.
+     * The undo history is cleared if the document was parsed without a
+     * journal, since the file does not hold the removed elements to which the
+     * history may refer.
+     * 
+     * @param task the task returned from newLoadTask(), which has succeeded
+     * @return the loaded document; never returns null
+     * @throws NullPointerException if task==null
+     */
+    SVGDocument loaded(LoadTabTask task) {
+        if (this.document == null) {
+            if (task.isParsed() && this.journal == null) {
+                this.clearHistory();
+            }
+            final DocumentJournal replayed = task.getJournal();
+            if (replayed != null && this.journal != null) {
+                replayed.restorePending(this.journal.takePending());
+                this.setJournal(replayed);
+            }
+            this.attach(task.getDocument());
+        }
+        return this.document;
+    }
+
+    /**
+     * Replaces this tab's loaded document with an equivalent one, such as the
+     * copy made when a journaled document is compacted. The undo history is
+     * cleared, since the copy's element indices may differ.
+     * 
+     * @param document the new document
+     * @throws NullPointerException if document==null
+     */
+    void replaceDocument(SVGDocument document) {
+        if (document == null) {
+            throw new NullPointerException("document==null");
+        }
+        this.detach();
+        this.snapshot = null;
+        this.clearHistory();
+        this.attach(document);
+    }
+
+    /**
+     * Releases everything this tab holds when it is closed: it stops listening
+     * to its document, detaches its journal, dropping the records that have
+     * not been saved, discards its snapshot and forgets its undo history. The
+     * journal file is left as it is, since it holds the changes that were
+     * saved.
+     */
+    void close() {
+        this.detach();
+        this.setJournal(null);
+        this.snapshot = null;
+        this.clearHistory();
+    }
+
+    /**
+     * Releases this tab's loaded document, keeping a snapshot of it.
+     */
+    void demote() {
+        if (this.document == null) {
+            return;
+        }
+        if (this.snapshot == null) {
+            this.snapshot = DocumentSnapshot.toByteArray(this.document);
+        }
+        this.detach();
+    }
+
+    /**
+     * Makes a document this tab's loaded document and starts listening to it.
+     */
+    private void attach(SVGDocument document) {
+        this.document = document;
+        document.addDocumentListener(this);
+        if (this.journal != null) {
+            this.journal.attach(document);
+        }
+    }
+
+    /**
+     * Stops listening to this tab's loaded document and releases it.
+     */
+    private void detach() {
+        if (this.document != null) {
+            this.document.removeDocumentListener(this);
+            if (this.journal != null) {
+                this.journal.detach();
+            }
+            this.document = null;
+        }
+    }
+
+    /**
+     * Discards this tab's snapshot if it is not the only copy of a modified
+     * document: that is, if the document is loaded or can be parsed again
+     * from its file.
+     * 
+     * @return the number of bytes released
+     */
+    int discardSnapshot() {
+        if (this.snapshot == null
+            || (this.document == null && this.modified)) {
+            return 0;
+        }
+        final int size = this.snapshot.length;
+        this.snapshot = null;
+        return size;
+    }
+}
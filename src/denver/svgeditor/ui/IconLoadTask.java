@@ -0,0 +1,107 @@
+/*
+ * IconLoadTask.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import net.rim.device.api.system.Bitmap;
+
+/**
+ * A task which obtains icons from an {@link IconSet}, rendering and
+ * persisting those that have not been rendered at the requested size.
+ * Progress is reported as the number of icons obtained out of the number
+ * requested. An icon that cannot be obtained is left null rather than
+ * failing the task, so that the caller can fall back to another image for
+ * it.
+ */
+public class IconLoadTask extends BackgroundTask {
+
+    private final IconSet icons;
+    private final String[] paths;
+    private final int size;
+    private final Bitmap[] bitmaps;
+
+    /**
+     * Creates a new instance of <code>IconLoadTask</code>.
+     *
+     * @param icons the icon set from which to obtain the icons
+     * @param paths the paths of the SVG resources of the icons
+     * @param size the width and height of the icons, in pixels
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if icons==null or paths==null
+     */
+    public IconLoadTask(IconSet icons, String[] paths, int size,
+            Listener listener) {
+        super(listener);
+        if (icons == null) {
+            throw new NullPointerException("icons==null");
+        } else if (paths == null) {
+            throw new NullPointerException("paths==null");
+        }
+        this.icons = icons;
+        this.paths = paths;
+        this.size = size;
+        this.bitmaps = new Bitmap[paths.length];
+    }
+
+    /**
+     * Returns the size of the icons.
+     *
+     * @return the width and height that was specified to the constructor
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    /**
+     * Returns an icon that was obtained.
+     *
+     * @param index the index of the icon in the paths given to the
+     * constructor
+     * @return the icon, or null if it could not be obtained or this task has
+     * not succeeded
+     */
+    public synchronized Bitmap getIcon(int index) {
+        return (this.getState() == STATE_SUCCEEDED) ? this.bitmaps[index]
+            : null;
+    }
+
+    /**
+     * Obtains the icons.
+     */
+    protected void execute() {
+        final int count = this.paths.length;
+        for (int i = 0; i < count && !this.isCancelled(); i++) {
+            Bitmap bitmap;
+            try {
+                bitmap = this.icons.getIcon(this.paths[i], this.size);
+            } catch (final Exception e) {
+                bitmap = null; // the caller falls back to another image
+            }
+            synchronized (this) {
+                this.bitmaps[i] = bitmap;
+            }
+            this.setProgress(i + 1, count);
+        }
+    }
+}
@@ -0,0 +1,362 @@
+/*
+ * IconSet.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Enumeration;
+
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.render.IconRasterizer;
+import denver.svgeditor.render.RasterSurface;
+import denver.svgeditor.svg.SVGParseException;
+
+import net.rim.device.api.system.Bitmap;
+import net.rim.device.api.system.Display;
+import net.rim.device.api.system.EncodedImage;
+import net.rim.device.api.system.PNGEncodedImage;
+
+/**
+ * Provides the application's icons as bitmaps rendered from their SVG
+ * sources at the density of the screen. An icon is rendered once, on the
+ * first launch at a given size, and persisted as a PNG file named after the
+ * source, the size and the {@link #RENDER_VERSION}, such as
+ * <code>document-new-160-2.png</code>, in {@link #DEFAULT_DIRECTORY}; later
+ * launches decode that file, and the decoded bitmaps are kept in the shared
+ * {@link BitmapCache}. Files of other sizes or versions, left behind when the
+ * size or the rendering changes, are deleted when an icon is rendered.
+ * <p>
+ * The methods of this class do file I/O and rendering and should be invoked
+ * on a worker thread, such as by an {@link IconLoadTask}. Instances of this
+ * class are thread-safe.
+ */
+public class IconSet {
+
+    /**
+     * The URL of the directory in which rendered icons are persisted, which
+     * is shared with the {@link SnapshotCache}.
+     */
+    public static final String DEFAULT_DIRECTORY =
+        SnapshotCache.DEFAULT_DIRECTORY;
+
+    /**
+     * The path of the SVG resource of the "new" icon.
+     */
+    public static final String ICON_NEW = "/document-new.svg";
+
+    /**
+     * The path of the SVG resource of the "open" icon.
+     */
+    public static final String ICON_OPEN = "/document-open.svg";
+
+    /**
+     * The width and height of an icon on the screen, in millimetres.
+     */
+    public static final int ICON_SIZE_MM = 16;
+
+    /**
+     * The size of an icon, in pixels, if the density of the screen is
+     * unknown.
+     */
+    public static final int DEFAULT_ICON_SIZE = 128;
+
+    /**
+     * The space between icons and around them, in pixels, used to limit the
+     * size of the icons so that two fit on the screen.
+     */
+    public static final int ICON_GAP = 10;
+
+    /**
+     * The suffix of the names of the files of rendered icons.
+     */
+    public static final String ICON_SUFFIX = ".png";
+
+    /**
+     * The version of the rendering of icons, which is part of the names of
+     * their files so that icons persisted by an older version are rendered
+     * again; version 2 anti-aliases the edges of shapes.
+     */
+    public static final int RENDER_VERSION = 2;
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final String directory;
+    private final IconRasterizer rasterizer;
+    private int renderedCount;
+    private int loadedCount;
+
+    /**
+     * Creates a new instance of <code>IconSet</code>.
+     *
+     * @param directory the URL of the directory in which to persist rendered
+     * icons, ending with a slash
+     * @throws NullPointerException if directory==null
+     */
+    public IconSet(String directory) {
+        if (directory == null) {
+            throw new NullPointerException("directory==null");
+        }
+        this.directory = directory;
+        this.rasterizer = new IconRasterizer();
+    }
+
+    /**
+     * Returns the size at which icons are displayed on this device:
+     * {@link #ICON_SIZE_MM} at the density of the screen, reduced if needed so
+     * that two icons fit across the narrower side of the screen.
+     *
+     * @return the width and height of an icon, in pixels
+     */
+    public static int getIconSize() {
+        final int resolution = Display.getHorizontalResolution();
+        int size =
+            (resolution > 0) ? resolution * ICON_SIZE_MM / 1000
+                : DEFAULT_ICON_SIZE;
+        final int shortSide = Math.min(Display.getWidth(), Display.getHeight());
+        final int fit = (shortSide - 3 * ICON_GAP) / 2;
+        if (fit > 0) {
+            size = Math.min(size, fit);
+        }
+        return Math.max(1, size);
+    }
+
+    /**
+     * Returns the number of icons rendered from their SVG sources by this
+     * object.
+     *
+     * @return the number of icons rendered
+     */
+    public synchronized int getRenderedCount() {
+        return this.renderedCount;
+    }
+
+    /**
+     * Returns the number of icons decoded from persisted files by this
+     * object.
+     *
+     * @return the number of icons decoded
+     */
+    public synchronized int getLoadedCount() {
+        return this.loadedCount;
+    }
+
+    /**
+     * Returns an icon, from the shared {@link BitmapCache} if it is there,
+     * otherwise from its persisted file, otherwise by rendering its SVG source
+     * and persisting the result. Failing to persist the icon is not an error;
+     * it is rendered again on the next launch.
+     *
+     * @param path the path of the SVG resource of the icon
+     * @param size the width and height of the icon, in pixels
+     * @return the icon; never returns null
+     * @throws IOException if the resource cannot be read
+     * @throws SVGParseException if the resource is malformed
+     * @throws NullPointerException if path==null
+     */
+    public synchronized Bitmap getIcon(String path, int size)
+            throws IOException, SVGParseException {
+        final BitmapCache cache = BitmapCache.getInstance();
+        Bitmap bitmap = cache.getCachedBitmap(path, size, size);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        final String name = getFileName(path, size);
+        try {
+            bitmap = this.readIcon(name);
+        } catch (final IOException e) {
+            bitmap = null; // render it instead
+        }
+        if (bitmap == null) {
+            bitmap = this.renderIcon(path, size);
+            try {
+                this.writeIcon(name, bitmap);
+                this.deleteOtherSizes(path, name);
+            } catch (final IOException e) {
+                // the icon is rendered again on the next launch
+            }
+        }
+        cache.putBitmap(path, size, size, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Renders the SVG source of an icon.
+     */
+    private Bitmap renderIcon(String path, int size) throws IOException,
+            SVGParseException {
+        final InputStream in = IconSet.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IOException("resource not found: " + path);
+        }
+        final RasterSurface surface;
+        try {
+            surface = this.rasterizer.rasterize(in, size);
+        } finally {
+            Util.closeQuietly(in);
+        }
+        final Bitmap bitmap = new Bitmap(size, size);
+        bitmap.createAlpha(Bitmap.ALPHA_BITDEPTH_8BPP);
+        bitmap.setARGB(surface.getPixels(), 0, size, 0, 0, size, size);
+        this.renderedCount++;
+        return bitmap;
+    }
+
+    /**
+     * Decodes the persisted file of an icon.
+     *
+     * @return the icon, or null if the file does not exist; a damaged file is
+     * deleted and null returned
+     */
+    private Bitmap readIcon(String name) throws IOException {
+        FileConnection connection = null;
+        DataInputStream in = null;
+        try {
+            connection = this.openFile(name);
+            if (!connection.exists()) {
+                return null;
+            }
+            final byte[] data = new byte[(int) connection.fileSize()];
+            in = connection.openDataInputStream();
+            in.readFully(data);
+            Util.closeQuietly(in);
+            in = null;
+            try {
+                final Bitmap bitmap =
+                    EncodedImage.createEncodedImage(data, 0, data.length)
+                        .getBitmap();
+                this.loadedCount++;
+                return bitmap;
+            } catch (final IllegalArgumentException e) {
+                connection.delete(); // damaged; it is rendered again
+                return null;
+            }
+        } finally {
+            Util.closeQuietly(in);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Persists an icon, first to a temporary file which is then renamed so
+     * that an interrupted write never leaves a truncated file under the final
+     * name.
+     */
+    private void writeIcon(String name, Bitmap bitmap) throws IOException {
+        final byte[] data = PNGEncodedImage.encode(bitmap).getData();
+        this.createDirectory();
+        FileConnection connection = null;
+        OutputStream out = null;
+        try {
+            connection = this.openFile(name + TEMP_SUFFIX);
+            if (connection.exists()) {
+                connection.truncate(0);
+            } else {
+                connection.create();
+            }
+            out = connection.openOutputStream();
+            out.write(data);
+            out.flush();
+            out.close();
+            out = null;
+            connection.rename(name);
+        } finally {
+            Util.closeQuietly(out);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Deletes the persisted files of an icon at sizes or versions other than
+     * the current one.
+     */
+    private void deleteOtherSizes(String path, String current)
+            throws IOException {
+        final String prefix = getBaseName(path) + "-";
+        FileConnection dir = null;
+        try {
+            dir = (FileConnection) Connector.open(this.directory);
+            final Enumeration names = dir.list();
+            while (names.hasMoreElements()) {
+                final String name = (String) names.nextElement();
+                if (name.startsWith(prefix) && name.endsWith(ICON_SUFFIX)
+                    && !name.equals(current)) {
+                    FileConnection connection = null;
+                    try {
+                        connection = this.openFile(name);
+                        connection.delete();
+                    } finally {
+                        Util.closeQuietly(connection);
+                    }
+                }
+            }
+        } finally {
+            Util.closeQuietly(dir);
+        }
+    }
+
+    /**
+     * Creates the directory if it does not exist.
+     */
+    private void createDirectory() throws IOException {
+        FileConnection dir = null;
+        try {
+            dir = (FileConnection) Connector.open(this.directory);
+            if (!dir.exists()) {
+                dir.mkdir();
+            }
+        } finally {
+            Util.closeQuietly(dir);
+        }
+    }
+
+    /**
+     * Opens a file in the directory.
+     */
+    private FileConnection openFile(String name) throws IOException {
+        return SaveDocumentTask.openFile(this.directory + name);
+    }
+
+    /**
+     * Returns the name of the persisted file of an icon at a given size.
+     */
+    private static String getFileName(String path, int size) {
+        return getBaseName(path) + "-" + size + "-" + RENDER_VERSION
+            + ICON_SUFFIX;
+    }
+
+    /**
+     * Returns the name of an SVG resource without its directory and suffix.
+     */
+    private static String getBaseName(String path) {
+        final int start = path.lastIndexOf('/') + 1;
+        final int end = path.lastIndexOf('.');
+        return path.substring(start, (end > start) ? end : path.length());
+    }
+}
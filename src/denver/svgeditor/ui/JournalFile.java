@@ -0,0 +1,195 @@
+/*
+ * JournalFile.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.microedition.io.file.FileConnection;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.model.DocumentJournal;
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * Manages the journal file kept next to an SVG file, to which the records of
+ * a {@link DocumentJournal} are appended when the document is saved. The SVG
+ * file is the journal's checkpoint; the journal is deleted when the document
+ * is compacted back into a new checkpoint.
+ */
+public class JournalFile {
+
+    /**
+     * The suffix appended to the URL of an SVG file to form the URL of its
+     * journal file.
+     */
+    public static final String SUFFIX = ".journal";
+
+    /**
+     * The size of a journal file beyond which a save compacts the document
+     * back into its SVG file.
+     */
+    public static final long COMPACT_THRESHOLD = 64 * 1024;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private JournalFile() {
+    }
+
+    /**
+     * Returns the URL of the journal file of an SVG file.
+     *
+     * @param url the URL of the SVG file
+     * @return the URL of the journal file; never returns null
+     * @throws NullPointerException if url==null
+     */
+    public static String getJournalUrl(String url) {
+        return url.concat(SUFFIX);
+    }
+
+    /**
+     * Replays the journal file of an SVG file, if it has one, onto the
+     * document just parsed from the SVG file. A journal whose last record was
+     * torn is truncated to its complete records; a journal for a different
+     * checkpoint, such as one left behind by a compaction that was
+     * interrupted after the SVG file was replaced, is deleted.
+     *
+     * @param url the URL of the SVG file
+     * @param document the document parsed from the SVG file
+     * @param journal the journal with which to replay the records
+     * @return the number of records replayed
+     * @throws IOException if reading or truncating the journal file fails
+     * @throws NullPointerException if any argument is null
+     */
+    public static int recover(String url, SVGDocument document,
+            DocumentJournal journal) throws IOException {
+        FileConnection svg = null;
+        FileConnection connection = null;
+        InputStream in = null;
+        try {
+            connection = SaveDocumentTask.openFile(getJournalUrl(url));
+            if (!connection.exists()) {
+                return 0;
+            }
+            svg = SaveDocumentTask.openFile(url);
+            in = connection.openInputStream();
+            final long length =
+                journal.replay(in, document, svg.fileSize(), svg
+                    .lastModified());
+            in.close();
+            in = null;
+            if (length < 0) {
+                connection.delete();
+                return 0;
+            } else if (length < connection.fileSize()) {
+                connection.truncate(length);
+            }
+            return journal.getReplayedRecordCount();
+        } finally {
+            Util.closeQuietly(in);
+            Util.closeQuietly(connection);
+            Util.closeQuietly(svg);
+        }
+    }
+
+    /**
+     * Appends records to the journal file of an SVG file, creating the
+     * journal with the SVG file as its checkpoint if it does not exist.
+     *
+     * @param url the URL of the SVG file
+     * @param records the framed records, as returned from
+     * {@link DocumentJournal#takePending()}
+     * @return the size of the journal file after appending the records
+     * @throws IOException if writing the journal file fails
+     * @throws NullPointerException if url==null or records==null
+     */
+    public static long append(String url, byte[] records) throws IOException {
+        FileConnection connection = null;
+        OutputStream out = null;
+        try {
+            connection = SaveDocumentTask.openFile(getJournalUrl(url));
+            long size;
+            if (connection.exists()) {
+                size = connection.fileSize();
+                out = connection.openOutputStream(size);
+            } else {
+                final FileConnection svg = SaveDocumentTask.openFile(url);
+                try {
+                    connection.create();
+                    out = connection.openOutputStream();
+                    DocumentJournal.writeHeader(out, svg.fileSize(), svg
+                        .lastModified());
+                    size = DocumentJournal.HEADER_SIZE;
+                } finally {
+                    Util.closeQuietly(svg);
+                }
+            }
+            out.write(records);
+            out.flush();
+            return size + records.length;
+        } finally {
+            Util.closeQuietly(out);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Returns the size of the journal file of an SVG file.
+     *
+     * @param url the URL of the SVG file
+     * @return the size of the journal file, or 0 if it does not exist
+     * @throws IOException if reading the journal file's size fails
+     * @throws NullPointerException if url==null
+     */
+    public static long getSize(String url) throws IOException {
+        FileConnection connection = null;
+        try {
+            connection = SaveDocumentTask.openFile(getJournalUrl(url));
+            return connection.exists() ? connection.fileSize() : 0;
+        } finally {
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Deletes the journal file of an SVG file, if it has one.
+     *
+     * @param url the URL of the SVG file
+     * @throws IOException if deleting the journal file fails
+     * @throws NullPointerException if url==null
+     */
+    public static void delete(String url) throws IOException {
+        FileConnection connection = null;
+        try {
+            connection = SaveDocumentTask.openFile(getJournalUrl(url));
+            if (connection.exists()) {
+                connection.delete();
+            }
+        } finally {
+            Util.closeQuietly(connection);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * JournalSaveTask.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import denver.svgeditor.model.DocumentJournal;
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * A task which saves a document by appending the records of its changes to
+ * its journal file. When the journal grows beyond
+ * {@link JournalFile#COMPACT_THRESHOLD} the document is then compacted: it
+ * is written to its SVG file in full and the journal is deleted. Since the
+ * records are appended before the compaction starts, a failed or interrupted
+ * compaction loses nothing.
+ * <p>
+ * The document must not be modified while the task runs; to go on editing
+ * it, save a copy returned from {@link SVGDocument#freeze()} instead.
+ */
+public class JournalSaveTask extends BackgroundTask {
+
+    private final String url;
+    private final SVGDocument document;
+    private final byte[] records;
+    private final long compactThreshold;
+    private final boolean minified;
+
+    private boolean appended;
+    private long journalSize;
+    private SVGDocument compacted;
+
+    /**
+     * Creates a new instance of <code>JournalSaveTask</code>.
+     *
+     * @param url the URL of the SVG file of the document
+     * @param document the document to save
+     * @param records the records of the changes to the document since it was
+     * last saved, as returned from {@link DocumentJournal#takePending()}
+     * @param compactThreshold the size of the journal file beyond which to
+     * compact the document; 0 to compact unless the journal file is empty, a
+     * negative value to always compact, or Long.MAX_VALUE to never compact
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if url, document or records is null
+     */
+    public JournalSaveTask(String url, SVGDocument document, byte[] records,
+            long compactThreshold, Listener listener) {
+        this(url, document, records, compactThreshold, false, listener);
+    }
+
+    /**
+     * Creates a new instance of <code>JournalSaveTask</code>.
+     *
+     * @param url the URL of the SVG file of the document
+     * @param document the document to save
+     * @param records the records of the changes to the document since it was
+     * last saved, as returned from {@link DocumentJournal#takePending()}
+     * @param compactThreshold the size of the journal file beyond which to
+     * compact the document; 0 to compact unless the journal file is empty, a
+     * negative value to always compact, or Long.MAX_VALUE to never compact
+     * @param minified true to write minified text when compacting
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if url, document or records is null
+     */
+    public JournalSaveTask(String url, SVGDocument document, byte[] records,
+            long compactThreshold, boolean minified, Listener listener) {
+        super(listener);
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        } else if (document == null) {
+            throw new NullPointerException("document==null");
+        } else if (records == null) {
+            throw new NullPointerException("records==null");
+        }
+        this.url = url;
+        this.document = document;
+        this.records = records;
+        this.compactThreshold = compactThreshold;
+        this.minified = minified;
+    }
+
+    /**
+     * Returns the URL of the SVG file of the document.
+     *
+     * @return the URL that was specified to the constructor; never returns
+     * null
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Returns the document to save.
+     *
+     * @return the document that was specified to the constructor; never
+     * returns null
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Returns the records that are appended to the journal.
+     *
+     * @return the records that were specified to the constructor; never
+     * returns null
+     */
+    public byte[] getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Returns whether the records have been appended to the journal file. If
+     * this task failed before they were, they should be given back to the
+     * journal with {@link DocumentJournal#restorePending(byte[])} so that the
+     * next save appends them.
+     *
+     * @return true if the records are in the journal file
+     */
+    public synchronized boolean isAppended() {
+        return this.appended;
+    }
+
+    /**
+     * Returns the size of the journal file after the save.
+     *
+     * @return the size of the journal file, or 0 if the document was
+     * compacted
+     */
+    public synchronized long getJournalSize() {
+        return this.journalSize;
+    }
+
+    /**
+     * Returns the document that was compacted. This is the document to save
+     * if its elements were already in document order, or else a copy of it
+     * in document order which must replace it so that the records made after
+     * the compaction refer to the elements by their indices in the new SVG
+     * file.
+     *
+     * @return the compacted document, or null if the document was not
+     * compacted
+     */
+    public synchronized SVGDocument getCompactedDocument() {
+        return this.compacted;
+    }
+
+    /**
+     * Appends the records to the journal file and compacts the document if
+     * the journal has grown too large.
+     */
+    protected void execute() throws Exception {
+        long size = (this.records.length == 0) ? JournalFile.getSize(this.url)
+            : JournalFile.append(this.url, this.records);
+        synchronized (this) {
+            this.appended = true;
+            this.journalSize = size;
+        }
+        if (size <= this.compactThreshold || this.isCancelled()) {
+            return;
+        }
+
+        SVGDocument document = this.document;
+        if (!DocumentJournal.isInDocumentOrder(document)) {
+            document = DocumentJournal.copyInDocumentOrder(document);
+        }
+        if (SaveDocumentTask.writeFile(this.url, document, this.minified,
+            this) < 0) {
+            return; // cancelled; the journal still holds every change
+        }
+        JournalFile.delete(this.url);
+        synchronized (this) {
+            this.journalSize = 0;
+            this.compacted = document;
+        }
+    }
+}
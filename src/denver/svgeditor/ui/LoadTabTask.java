@@ -0,0 +1,133 @@
+/*
+ * LoadTabTask.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import denver.svgeditor.model.DocumentJournal;
+import denver.svgeditor.model.DocumentSnapshot;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+
+/**
+ * A task which loads the document of a demoted {@link DocumentTab}, either
+ * by reading the tab's snapshot or by parsing its file and replaying its
+ * journal file. Progress is reported as the number of bytes of the file read
+ * out of its size; reading a snapshot reports no progress. The journal file
+ * is replayed with a new {@link DocumentJournal} owned by this task, since
+ * the tab's journal is used on the event thread while the task runs. The
+ * loaded document and that journal are given to the tab by
+ * {@link DocumentTab#loaded(LoadTabTask)} on the event thread.
+ */
+public class LoadTabTask extends BackgroundTask {
+
+    private final String url;
+    private final byte[] snapshot;
+    private final DocumentJournal journal;
+    private SVGDocument document;
+
+    /**
+     * Creates a new instance of <code>LoadTabTask</code>.
+     *
+     * @param url the URL of the tab's file
+     * @param snapshot the tab's snapshot, or null to parse the file
+     * @param journaled true to replay the file's journal file after parsing
+     * it, with a new journal returned from {@link #getJournal()}
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if url==null
+     */
+    public LoadTabTask(String url, byte[] snapshot, boolean journaled,
+            Listener listener) {
+        super(listener);
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        }
+        this.url = url;
+        this.snapshot = snapshot;
+        this.journal = journaled ? new DocumentJournal() : null;
+    }
+
+    /**
+     * Returns the URL of the tab's file.
+     *
+     * @return the URL that was specified to the constructor; never returns
+     * null
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Returns whether the document is parsed from the file rather than read
+     * from a snapshot.
+     *
+     * @return true if the file is parsed
+     */
+    public boolean isParsed() {
+        return (this.snapshot == null);
+    }
+
+    /**
+     * Returns the document that was loaded.
+     *
+     * @return the document, or null if this task has not succeeded
+     */
+    public synchronized SVGDocument getDocument() {
+        return (this.getState() == STATE_SUCCEEDED) ? this.document : null;
+    }
+
+    /**
+     * Returns the journal with which the file's journal file was replayed, to
+     * record the changes to the loaded document. It is not attached to the
+     * document, and is not to be used until this task has completed.
+     *
+     * @return the journal, or null if the task was created to not replay the
+     * journal file
+     */
+    public DocumentJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Reads the snapshot, or parses the file and replays its journal file.
+     */
+    protected void execute() throws Exception {
+        final SVGDocument document;
+        if (this.snapshot != null) {
+            document = DocumentSnapshot.fromByteArray(this.snapshot);
+        } else {
+            document = new SVGDocument();
+            DocumentLoader.parse(this.url, new SVGDocumentBuilder(document),
+                document.getNameTable(), this);
+            if (this.isCancelled()) {
+                return;
+            }
+            if (this.journal != null) {
+                JournalFile.recover(this.url, document, this.journal);
+            }
+        }
+        synchronized (this) {
+            this.document = document;
+        }
+    }
+}
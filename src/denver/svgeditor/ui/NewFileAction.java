@@ -0,0 +1,108 @@
+/*
+ * NewFileAction.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.IOException;
+
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+import denver.svgeditor.Util;
+
+/**
+ * The built-in action for creating a new file. It finds an unused file name of
+ * the form <code>drawing-N.svg</code> in {@link #DEFAULT_DIRECTORY} and
+ * creates a blank document there with
+ * {@link SVGEditorScreen#newDocument(String)}.
+ */
+public class NewFileAction implements SVGEditorScreen.Action {
+
+    /**
+     * The URL of the directory in which new files are created.
+     */
+    public static final String DEFAULT_DIRECTORY =
+        "file:///store/home/user/documents/";
+
+    /**
+     * The prefix of the names of new files.
+     */
+    public static final String NAME_PREFIX = "drawing-";
+
+    /**
+     * The largest number tried when searching for an unused file name.
+     */
+    public static final int MAX_NUMBER = 999;
+
+    /**
+     * Creates a new, blank file and opens it.
+     *
+     * @param screen the screen in which to open the new file
+     * @throws NullPointerException if screen==null
+     */
+    public void doAction(SVGEditorScreen screen) {
+        if (screen == null) {
+            throw new NullPointerException("screen==null");
+        }
+
+        final String url;
+        try {
+            url = findUnusedUrl(DEFAULT_DIRECTORY);
+        } catch (final IOException e) {
+            SVGEditorScreen.alertNewFailed(e);
+            return;
+        }
+        if (url == null) {
+            SVGEditorScreen.alertNewFailed(null);
+        } else {
+            screen.newDocument(url);
+        }
+    }
+
+    /**
+     * Returns the URL of the first file in a directory whose name is of the
+     * form <code>drawing-N.svg</code> that does not exist.
+     *
+     * @param directory the URL of the directory, ending with a slash
+     * @return the URL of the unused file, or null if every number up to
+     * {@link #MAX_NUMBER} is used
+     * @throws IOException if checking whether a file exists fails
+     */
+    private static String findUnusedUrl(String directory) throws IOException {
+        for (int i = 1; i <= MAX_NUMBER; i++) {
+            final String url =
+                directory + NAME_PREFIX + i + OpenFileAction.FILE_SUFFIX;
+            FileConnection connection = null;
+            try {
+                connection =
+                    (FileConnection) Connector.open(url, Connector.READ);
+                if (!connection.exists()) {
+                    return url;
+                }
+            } finally {
+                Util.closeQuietly(connection);
+            }
+        }
+        return null;
+    }
+}
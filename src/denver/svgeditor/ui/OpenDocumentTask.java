@@ -0,0 +1,229 @@
+/*
+ * OpenDocumentTask.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.IOException;
+
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.model.DocumentJournal;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+import denver.svgeditor.svg.ParseStats;
+
+/**
+ * A task which reads and parses an SVG file into a new document. Progress is
+ * reported as the number of bytes of the file read out of its size. If the
+ * task has a {@link SnapshotCache} holding a snapshot of the file as it is
+ * now, the snapshot is read instead of parsing the file; otherwise a snapshot
+ * of the parsed document is stored in the cache for the next open. If the
+ * file has a journal file, the changes saved to it since the file was last
+ * compacted are then replayed onto the document, recovering them after a
+ * crash.
+ */
+public class OpenDocumentTask extends BackgroundTask {
+
+    private final String url;
+    private final SnapshotCache cache;
+    private final DocumentJournal journal;
+    private SVGDocument document;
+    private ParseStats stats;
+    private boolean fromCache;
+    private long loadMillis;
+    private int recoveredRecords;
+
+    /**
+     * Creates a new instance of <code>OpenDocumentTask</code>.
+     *
+     * @param url the URL of the file to open
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if url==null
+     */
+    public OpenDocumentTask(String url, Listener listener) {
+        this(url, null, listener);
+    }
+
+    /**
+     * Creates a new instance of <code>OpenDocumentTask</code> which reads the
+     * file's snapshot from a cache when it is up to date.
+     *
+     * @param url the URL of the file to open
+     * @param cache the cache of snapshots; may be null
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if url==null
+     */
+    public OpenDocumentTask(String url, SnapshotCache cache,
+            Listener listener) {
+        super(listener);
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        }
+        this.url = url;
+        this.cache = cache;
+        this.journal = new DocumentJournal();
+    }
+
+    /**
+     * Returns the URL of the file to open.
+     *
+     * @return the URL that was specified to the constructor; never returns
+     * null
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Returns the document that was parsed.
+     *
+     * @return the document, or null if this task has not succeeded
+     */
+    public synchronized SVGDocument getDocument() {
+        return (this.getState() == STATE_SUCCEEDED) ? this.document : null;
+    }
+
+    /**
+     * Returns the statistics from parsing the file.
+     *
+     * @return the statistics, or null if this task has not succeeded or the
+     * document was read from a snapshot
+     */
+    public synchronized ParseStats getStats() {
+        return (this.getState() == STATE_SUCCEEDED) ? this.stats : null;
+    }
+
+    /**
+     * Returns whether the document was read from a snapshot in the cache
+     * rather than parsed from the file.
+     *
+     * @return true if the document was read from a snapshot
+     */
+    public synchronized boolean isFromCache() {
+        return this.fromCache;
+    }
+
+    /**
+     * Returns the time taken to load the document, either by reading its
+     * snapshot or by parsing the file. This excludes storing a new snapshot
+     * and replaying the journal.
+     *
+     * @return the time taken, in milliseconds
+     */
+    public synchronized long getLoadMillis() {
+        return this.loadMillis;
+    }
+
+    /**
+     * Returns the journal with which the changes to the document are to be
+     * recorded. It is not attached to the document.
+     *
+     * @return the journal; never returns null
+     */
+    public DocumentJournal getJournal() {
+        return this.journal;
+    }
+
+    /**
+     * Returns the number of records replayed from the file's journal file.
+     *
+     * @return the number of changes recovered, or 0 if the file has no
+     * journal file
+     */
+    public synchronized int getRecoveredRecordCount() {
+        return this.recoveredRecords;
+    }
+
+    /**
+     * Reads the file's snapshot or parses the file, then replays its journal
+     * file. Failures of the cache only cause the file to be parsed.
+     */
+    protected void execute() throws Exception {
+        final long start = System.currentTimeMillis();
+        long size = -1;
+        long modified = 0;
+        SVGDocument document = null;
+        if (this.cache != null) {
+            FileConnection connection = null;
+            try {
+                connection =
+                    (FileConnection) Connector.open(this.url, Connector.READ);
+                size = connection.fileSize();
+                modified = connection.lastModified();
+                document = this.cache.load(this.url, size, modified);
+            } catch (final IOException e) {
+                size = -1; // parse the file, and do not cache it
+            } catch (final ClassCastException e) {
+                size = -1; // not a file; parsing will report it
+            } finally {
+                Util.closeQuietly(connection);
+            }
+        }
+
+        ParseStats stats = null;
+        final boolean fromCache = (document != null);
+        if (!fromCache) {
+            document = new SVGDocument();
+            final long[] hash = new long[1];
+            stats =
+                DocumentLoader.parse(this.url,
+                    new SVGDocumentBuilder(document), document.getNameTable(),
+                    this, hash);
+            if (this.isCancelled()) {
+                return;
+            }
+            this.setLoadMillis(System.currentTimeMillis() - start);
+            if (size >= 0) {
+                // the snapshot is of the file itself, before the journal
+                try {
+                    this.cache.store(this.url, size, modified, hash[0],
+                        document);
+                } catch (final IOException e) {
+                    // the cache is only an accelerator
+                }
+            }
+        } else {
+            this.setLoadMillis(System.currentTimeMillis() - start);
+        }
+
+        final int recovered =
+            JournalFile.recover(this.url, document, this.journal);
+        synchronized (this) {
+            this.document = document;
+            this.stats = stats;
+            this.fromCache = fromCache;
+            this.recoveredRecords = recovered;
+        }
+    }
+
+    /**
+     * Sets the value returned from {@link #getLoadMillis()}.
+     */
+    private synchronized void setLoadMillis(long loadMillis) {
+        this.loadMillis = loadMillis;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * OpenFileAction.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import net.rim.device.api.ui.picker.FilePicker;
+
+/**
+ * The built-in action for opening an existing file. It prompts the user to
+ * select an SVG file and then opens it with
+ * {@link SVGEditorScreen#openDocument(String)}.
+ */
+public class OpenFileAction implements SVGEditorScreen.Action {
+
+    /**
+     * The suffix of the names of SVG files.
+     */
+    public static final String FILE_SUFFIX = ".svg";
+
+    /**
+     * The filter specified to the FilePicker to only show SVG files, plain or
+     * compressed.
+     */
+    public static final String FILE_FILTER =
+        FILE_SUFFIX + ":" + SaveDocumentTask.COMPRESSED_SUFFIX;
+
+    /**
+     * Prompts the user to select a file and opens the selected file.
+     * 
+     * @param screen the screen in which to open the selected file
+     * @throws NullPointerException if screen==null
+     */
+    public void doAction(SVGEditorScreen screen) {
+        if (screen == null) {
+            throw new NullPointerException("screen==null");
+        }
+
+        final FilePicker picker = FilePicker.getInstance();
+        picker.setFilter(FILE_FILTER);
+        final String url = picker.show();
+        if (url != null) {
+            screen.openDocument(url);
+        }
+    }
+}
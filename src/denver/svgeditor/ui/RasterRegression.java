@@ -0,0 +1,250 @@
+/*
+ * RasterRegression.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import javax.microedition.io.file.FileConnection;
+
+import net.rim.device.api.system.Bitmap;
+import net.rim.device.api.system.EncodedImage;
+import net.rim.device.api.system.PNGEncodedImage;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+import denver.svgeditor.render.IconRasterizer;
+import denver.svgeditor.render.ImageComparison;
+import denver.svgeditor.render.RasterSurface;
+import denver.svgeditor.svg.SVGParseException;
+import denver.svgeditor.svg.SVGParser;
+
+/**
+ * Checks the rasterizer against golden images: the application's icons
+ * rendered with anti-aliasing at {@link #GOLDEN_SIZE} pixels, kept as PNG
+ * resources named after the icon and the size, such as
+ * <code>golden/document-new-48.png</code>. Each icon is rendered, blitted to
+ * a {@link Bitmap} as it is for the screen, and compared with its golden
+ * image by an {@link ImageComparison}, allowing each channel to differ by
+ * {@link #TOLERANCE}; a rendering that differs is written as a PNG file to
+ * {@link IconSet#DEFAULT_DIRECTORY} for inspection. Then each icon is
+ * rendered repeatedly into the same surface, as the frames of an animation
+ * are, and the time and the heap used per frame are reported. The same
+ * comparison is made off of a device, without the blit, by the build's
+ * <code>RoundTripCheck</code>.
+ */
+public class RasterRegression {
+
+    /**
+     * The width and height of the golden images, in pixels.
+     */
+    public static final int GOLDEN_SIZE = 48;
+
+    /**
+     * The largest difference allowed in each channel of a pixel.
+     */
+    public static final int TOLERANCE = ImageComparison.DEFAULT_TOLERANCE;
+
+    /**
+     * The directory of the golden image resources.
+     */
+    private static final String GOLDEN_DIRECTORY = "golden/";
+
+    /**
+     * The suffix of the names of the files of differing renderings.
+     */
+    private static final String ACTUAL_SUFFIX = "-actual.png";
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private RasterRegression() {
+    }
+
+    /**
+     * Runs the regression check.
+     *
+     * @param paths the paths of the SVG resources of the icons to check
+     * @param runs the number of frames for which to time each icon
+     * @return a multi-line report of the results; never returns null
+     * @throws NullPointerException if paths==null
+     */
+    public static String run(String[] paths, int runs) {
+        final StringBuffer report = new StringBuffer();
+        report.append(GOLDEN_SIZE).append('x').append(GOLDEN_SIZE).append(
+            " pixels, ").append(runs).append(" frames each\n");
+        final IconRasterizer rasterizer = new IconRasterizer();
+        final RasterSurface surface =
+            new RasterSurface(GOLDEN_SIZE, GOLDEN_SIZE);
+        final int count = Math.max(1, runs);
+        for (int i = 0; i < paths.length; i++) {
+            final String path = paths[i];
+            report.append(path).append(": ");
+            final SVGDocument document;
+            try {
+                document = parse(path);
+            } catch (final IOException e) {
+                report.append("read failed: ").append(e.getMessage()).append(
+                    '\n');
+                continue;
+            } catch (final SVGParseException e) {
+                report.append("parse failed: ").append(e.getMessage())
+                    .append('\n');
+                continue;
+            }
+
+            // compare with the golden image
+            rasterizer.rasterize(document, surface);
+            final String name = getBaseName(path) + "-" + GOLDEN_SIZE;
+            final int differing = compare(surface, name, report);
+            if (differing > 0) {
+                try {
+                    writeActual(name + ACTUAL_SUFFIX, surface);
+                } catch (final IOException e) {
+                    report.append("writing ").append(name).append(
+                        ACTUAL_SUFFIX).append(" failed: ").append(
+                        e.getMessage()).append('\n');
+                }
+            }
+
+            // time the frames, which should allocate nothing once the
+            // renderer's buffers have grown
+            final Runtime runtime = Runtime.getRuntime();
+            long totalMillis = 0;
+            long maxMillis = 0;
+            System.gc();
+            final long free = runtime.freeMemory();
+            for (int run = 0; run < count; run++) {
+                rasterizer.rasterize(document, surface);
+                final long millis = rasterizer.getRenderMillis();
+                totalMillis += millis;
+                maxMillis = Math.max(maxMillis, millis);
+            }
+            final long used = Math.max(0, free - runtime.freeMemory());
+            report.append("frame ").append(totalMillis / count).append(
+                " ms, max ").append(maxMillis).append(" ms, heap ").append(
+                used / count).append(" bytes per frame\n");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Compares a rendering with its golden image, reporting the result.
+     *
+     * @return the number of pixels that differ by more than the tolerance,
+     * or -1 if the golden image could not be read
+     */
+    private static int compare(RasterSurface surface, String name,
+            StringBuffer report) {
+        final int size = surface.getWidth();
+        final EncodedImage image;
+        try {
+            image = EncodedImage.getEncodedImageResource(GOLDEN_DIRECTORY
+                + name + IconSet.ICON_SUFFIX);
+        } catch (final IllegalArgumentException e) {
+            report.append("golden image is malformed\n");
+            return -1;
+        }
+        if (image == null || image.getWidth() != size
+            || image.getHeight() != size) {
+            report.append("no golden image of ").append(size).append(
+                " pixels\n");
+            return -1;
+        }
+
+        // blit the rendering to a bitmap and back, as it is for the screen
+        final Bitmap bitmap = new Bitmap(size, size);
+        bitmap.createAlpha(Bitmap.ALPHA_BITDEPTH_8BPP);
+        bitmap.setARGB(surface.getPixels(), 0, size, 0, 0, size, size);
+        final int[] actual = new int[size * size];
+        bitmap.getARGB(actual, 0, size, 0, 0, size, size);
+        final int[] expected = new int[size * size];
+        image.getBitmap().getARGB(expected, 0, size, 0, 0, size, size);
+
+        final ImageComparison comparison =
+            new ImageComparison(expected, actual, TOLERANCE);
+        comparison.appendTo(report).append('\n');
+        return comparison.getDifferingPixels();
+    }
+
+    /**
+     * Parses an SVG resource.
+     */
+    private static SVGDocument parse(String path) throws IOException,
+            SVGParseException {
+        final InputStream in = RasterRegression.class.getResourceAsStream(path);
+        if (in == null) {
+            throw new IOException("resource not found: " + path);
+        }
+        try {
+            final SVGDocument document = new SVGDocument();
+            new SVGParser(in, new SVGDocumentBuilder(document), document
+                .getNameTable()).parseAll();
+            return document;
+        } finally {
+            Util.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Writes a rendering as a PNG file in {@link IconSet#DEFAULT_DIRECTORY},
+     * replacing any file of the same name.
+     */
+    private static void writeActual(String name, RasterSurface surface)
+            throws IOException {
+        final int size = surface.getWidth();
+        final Bitmap bitmap = new Bitmap(size, size);
+        bitmap.createAlpha(Bitmap.ALPHA_BITDEPTH_8BPP);
+        bitmap.setARGB(surface.getPixels(), 0, size, 0, 0, size, size);
+        final byte[] data = PNGEncodedImage.encode(bitmap).getData();
+        FileConnection connection = null;
+        OutputStream out = null;
+        try {
+            connection =
+                SaveDocumentTask.openFile(IconSet.DEFAULT_DIRECTORY + name);
+            if (connection.exists()) {
+                connection.truncate(0);
+            } else {
+                connection.create();
+            }
+            out = connection.openOutputStream();
+            out.write(data);
+            out.flush();
+        } finally {
+            Util.closeQuietly(out);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Returns the name of an SVG resource without its directory and suffix.
+     */
+    private static String getBaseName(String path) {
+        final int start = path.lastIndexOf('/') + 1;
+        final int end = path.lastIndexOf('.');
+        return path.substring(start, (end > start) ? end : path.length());
+    }
+}
@@ -0,0 +1,763 @@
+/*
+ * RenderThread.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.render.LevelOfDetail;
+import denver.svgeditor.render.RasterSurface;
+import denver.svgeditor.render.TileRenderer;
+
+import net.rim.device.api.system.Application;
+import net.rim.device.api.ui.Graphics;
+
+/**
+ * Renders the frames of a view onto a document on a thread of its own, so
+ * that the event thread only draws finished frames and handles input at full
+ * rate however long a frame takes to render.
+ * <p>
+ * The render thread never reads the document that is being edited. Instead,
+ * once the event thread has finished making a batch of changes, the
+ * document is frozen with {@link SVGDocument#freeze()}, which copies
+ * nothing, and the frozen copy is handed to the render thread along with
+ * the list of the changes made since the previous copy. The render thread
+ * gives the copy to its {@link TileRenderer}, whose boxes, index, styles,
+ * outlines and tiles are the retained display list of the document, and
+ * replays the changes into it, so that only what they touched is measured
+ * and rendered again. The frame is rendered into a back buffer, one tile at
+ * a time so that the event thread can hit-test between tiles, and is then
+ * swapped with the front buffer, which is what the event thread draws.
+ * <p>
+ * Requests for frames are not queued: a request made while a frame renders
+ * replaces any request not yet taken, so when input outruns rendering the
+ * intermediate frames are dropped and the next frame shows the latest view.
+ * A frame being rendered is abandoned if the zoom changes, since none of
+ * its tiles would be shown; it is finished if the view only scrolls, since
+ * its tiles are reused by the next frame. Until the next frame is swapped
+ * in, the front frame is drawn shifted by the distance scrolled since it was
+ * rendered.
+ * <p>
+ * The quality of the frames is chosen by a {@link LevelOfDetail} from the
+ * time taken by the previous frames: if a frame takes too long while the
+ * view is being panned or zoomed, the frames after it are rendered at draft
+ * quality until the view settles. The render thread then renders frames at
+ * full quality, without waiting for requests, until no draft tile is left.
+ * <p>
+ * Everything but the renderer is guarded by this object. The renderer is
+ * guarded by itself: the render thread holds its lock while it applies
+ * changes and renders each tile, and any other thread must hold its lock
+ * while using it. The lock of the renderer is always taken before the lock
+ * of this object.
+ */
+public class RenderThread implements Runnable {
+
+    /**
+     * The priority of the render thread, lower than that of the event
+     * thread so that input is handled before frames are rendered.
+     */
+    public static final int RENDER_PRIORITY = Thread.NORM_PRIORITY - 1;
+
+    private final Application app;
+    private final Runnable frameListener;
+    private final Runnable committer;
+    private final Runnable notifier;
+    private final float[] changedBox;
+    private final LevelOfDetail detail;
+
+    // the view and the renderer, set by the event thread
+    private TileRenderer renderer;
+    private SVGDocument document;
+    private int generation;
+    private float zoom;
+    private int scrollX;
+    private int scrollY;
+    private int background;
+
+    // changes made since the document was last frozen, and the frozen copy
+    // and changes not yet taken by the render thread; a commit requested
+    // while a frame is rendered is deferred until the frame is finished, so
+    // that the document is frozen once a frame rather than once an edit
+    private int[] changedElements;
+    private int[] changedNameIds;
+    private int changeCount;
+    private SVGDocument committed;
+    private int[] committedElements;
+    private int[] committedNameIds;
+    private int committedCount;
+    private int[] appliedElements;
+    private int[] appliedNameIds;
+    private boolean commitPending;
+    private boolean commitDeferred;
+    private boolean rendering;
+
+    // the frames
+    private RasterSurface front;
+    private RasterSurface back;
+    private boolean frontValid;
+    private boolean frontDraft;
+    private float frontZoom;
+    private int frontScrollX;
+    private int frontScrollY;
+    private boolean requested;
+    private boolean notifyPending;
+
+    private Thread thread;
+    private boolean shutdown;
+
+    // statistics
+    private int framesRendered;
+    private int framesDropped;
+    private long frameMillis;
+
+    /**
+     * Creates a new instance of <code>RenderThread</code>. The thread is
+     * started when the first frame is requested.
+     *
+     * @param app the application on whose event thread the listener is told
+     * of new frames
+     * @param frameListener the object to run on the event thread when a new
+     * frame has been swapped to the front, such as to invalidate the field
+     * that draws it
+     * @throws NullPointerException if app==null or frameListener==null
+     */
+    public RenderThread(Application app, Runnable frameListener) {
+        if (app == null) {
+            throw new NullPointerException("app==null");
+        } else if (frameListener == null) {
+            throw new NullPointerException("frameListener==null");
+        }
+        this.app = app;
+        this.frameListener = frameListener;
+        this.committer = new Committer();
+        this.notifier = new Notifier();
+        this.changedBox = new float[4];
+        this.detail = new LevelOfDetail();
+        this.zoom = 1;
+        this.background = 0xFFFFFFFF;
+        this.changedElements = new int[16];
+        this.changedNameIds = new int[16];
+        this.committedElements = new int[16];
+        this.committedNameIds = new int[16];
+        this.appliedElements = new int[16];
+        this.appliedNameIds = new int[16];
+    }
+
+    /**
+     * Sets the size of the frames, creating a new renderer for them with the
+     * settings of the old one. This must be invoked on the event thread
+     * before any frame is rendered.
+     *
+     * @param width the width of the frames, in pixels
+     * @param height the height of the frames, in pixels
+     * @throws IllegalArgumentException if width or height is negative
+     */
+    public void setSize(int width, int height) {
+        final TileRenderer renderer =
+            new TileRenderer(TileRenderer.getSuggestedTileCount(width,
+                height, TileRenderer.DEFAULT_TILE_SIZE));
+        renderer.getDocumentRenderer().setImageSource(
+            BitmapCache.getInstance());
+        final TileRenderer old = this.getRenderer();
+        if (old != null) {
+            synchronized (old) {
+                renderer.setFixedPoint(old.isFixedPoint());
+                renderer.setAntiAliased(old.isAntiAliased());
+                renderer.getDocumentRenderer().getTessellationCache()
+                    .setCapacity(old.getDocumentRenderer()
+                        .getTessellationCache().getCapacity());
+            }
+        }
+        synchronized (this) {
+            renderer.setBackground(this.background);
+            this.front = new RasterSurface(width, height);
+            this.back = new RasterSurface(width, height);
+            this.frontValid = false;
+            this.frontDraft = false;
+            this.renderer = renderer;
+        }
+        this.reset(this.getDocument());
+    }
+
+    /**
+     * Returns the renderer that draws the frames. The renderer is used by
+     * the render thread, so it must only be used while synchronized on it.
+     *
+     * @return the renderer, or null if no size has been set
+     */
+    public synchronized TileRenderer getRenderer() {
+        return this.renderer;
+    }
+
+    /**
+     * Returns the document being rendered.
+     *
+     * @return the document, which is not frozen, or null if none is being
+     * rendered
+     */
+    public synchronized SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Sets the document to render, measuring the bounding boxes of its
+     * elements on the calling thread, which must be the event thread, and
+     * requesting a frame. The changes made to the document must then be
+     * reported to {@link #elementChanged(int, int)}.
+     *
+     * @param document the document to render; may be null to render only
+     * the background
+     */
+    public void setDocument(SVGDocument document) {
+        this.reset(document);
+    }
+
+    /**
+     * Reports a change to the document, to be applied by the render thread.
+     * The changes made by the event thread are handed to the render thread
+     * together, with one frozen copy of the document, once the event thread
+     * has finished its current work.
+     *
+     * @param element the index of the element that was created, moved or
+     * changed
+     * @param nameId the ID of the name of the attribute that was changed, or
+     * -1 if the element was created, removed or put back
+     */
+    public void elementChanged(int element, int nameId) {
+        synchronized (this) {
+            if (this.document == null) {
+                return;
+            }
+            final int count = this.changeCount;
+            if (count == this.changedElements.length) {
+                this.changedElements = grow(this.changedElements);
+                this.changedNameIds = grow(this.changedNameIds);
+            }
+            this.changedElements[count] = element;
+            this.changedNameIds[count] = nameId;
+            this.changeCount = count + 1;
+            if (this.commitPending) {
+                return;
+            }
+            this.commitPending = true;
+        }
+        this.app.invokeLater(this.committer);
+    }
+
+    /**
+     * Returns the zoom factor of the view.
+     *
+     * @return the number of canvas pixels per document unit
+     */
+    public synchronized float getZoom() {
+        return this.zoom;
+    }
+
+    /**
+     * Returns the x coordinate of the left edge of the view.
+     *
+     * @return the canvas x coordinate shown at the left edge of the frames
+     */
+    public synchronized int getScrollX() {
+        return this.scrollX;
+    }
+
+    /**
+     * Returns the y coordinate of the top edge of the view.
+     *
+     * @return the canvas y coordinate shown at the top edge of the frames
+     */
+    public synchronized int getScrollY() {
+        return this.scrollY;
+    }
+
+    /**
+     * Changes the view and requests a frame of it. A change to the view
+     * begins or continues a gesture, during which frames may be rendered at
+     * draft quality.
+     *
+     * @param zoom the number of canvas pixels per document unit
+     * @param scrollX the canvas x coordinate to show at the left edge of the
+     * frames
+     * @param scrollY the canvas y coordinate to show at the top edge of the
+     * frames
+     * @throws IllegalArgumentException if zoom is not positive
+     */
+    public synchronized void setView(float zoom, int scrollX, int scrollY) {
+        if (!(zoom > 0)) {
+            throw new IllegalArgumentException("invalid zoom: " + zoom);
+        }
+        if (zoom != this.zoom || scrollX != this.scrollX
+                || scrollY != this.scrollY) {
+            this.detail.viewChanged(System.currentTimeMillis());
+        }
+        this.zoom = zoom;
+        this.scrollX = scrollX;
+        this.scrollY = scrollY;
+        this.request();
+    }
+
+    /**
+     * Sets the color drawn behind the document and around the front frame
+     * while it is drawn shifted.
+     *
+     * @param argb the background color
+     */
+    public synchronized void setBackground(int argb) {
+        this.background = argb;
+        if (this.renderer != null) {
+            this.renderer.setBackground(argb);
+            this.request();
+        }
+    }
+
+    /**
+     * Finds the topmost shape under a point of the view, waiting for the
+     * render thread to finish at most the tile it is rendering.
+     *
+     * @param x the x coordinate of the point, relative to the frames
+     * @param y the y coordinate of the point, relative to the frames
+     * @param tolerance the distance, in pixels, by which the point may miss
+     * a shape's box
+     * @return the index of the shape or use element, or -1 if there is none
+     */
+    public int hitTest(int x, int y, int tolerance) {
+        final TileRenderer renderer;
+        final float zoom;
+        final int scrollX;
+        final int scrollY;
+        synchronized (this) {
+            renderer = this.renderer;
+            zoom = this.zoom;
+            scrollX = this.scrollX;
+            scrollY = this.scrollY;
+        }
+        if (renderer == null) {
+            return -1;
+        }
+        synchronized (renderer) {
+            return renderer.hitTest((x + scrollX) / zoom, (y + scrollY)
+                / zoom, tolerance / zoom);
+        }
+    }
+
+    /**
+     * Gets the bounding box of an element as last measured by the render
+     * thread.
+     *
+     * @param element the index of the element
+     * @param box an array of at least 4 elements into which to store the
+     * left, top, right and bottom edges of the box, in document coordinates
+     * @return true if the element has a box, false if it has none or no
+     * size has been set
+     * @see denver.svgeditor.render.ElementBounds#getBounds(int, float[])
+     */
+    public boolean getBounds(int element, float[] box) {
+        final TileRenderer renderer = this.getRenderer();
+        if (renderer == null) {
+            return false;
+        }
+        synchronized (renderer) {
+            return renderer.getBounds().getBounds(element, box);
+        }
+    }
+
+    /**
+     * Draws the front frame, shifted by the distance that the view has
+     * scrolled since it was rendered and with the background around it.
+     * This never waits for a frame to be rendered.
+     *
+     * @param graphics the graphics with which to draw
+     * @return true if a frame was drawn, false if none has been rendered
+     */
+    public synchronized boolean paint(Graphics graphics) {
+        final RasterSurface front = this.front;
+        if (front == null || !this.frontValid) {
+            return false;
+        }
+        final int width = front.getWidth();
+        final int height = front.getHeight();
+        int dx = 0;
+        int dy = 0;
+        if (this.frontZoom == this.zoom) {
+            dx = this.frontScrollX - this.scrollX;
+            dy = this.frontScrollY - this.scrollY;
+        }
+        if (dx != 0 || dy != 0) {
+            graphics.setColor(this.background & 0xFFFFFF);
+            graphics.fillRect(0, 0, width, height);
+        }
+        graphics.drawARGB(front.getPixels(), 0, width, dx, dy, width, height);
+        return true;
+    }
+
+    /**
+     * Returns the number of frames rendered and swapped to the front.
+     *
+     * @return the number of frames rendered
+     */
+    public synchronized int getFramesRendered() {
+        return this.framesRendered;
+    }
+
+    /**
+     * Returns the number of frames dropped because a later request replaced
+     * them before they were rendered, or because the zoom changed while
+     * they were being rendered.
+     *
+     * @return the number of frames dropped
+     */
+    public synchronized int getFramesDropped() {
+        return this.framesDropped;
+    }
+
+    /**
+     * Returns whether the front frame has tiles rendered at draft quality.
+     *
+     * @return true if the front frame is to be refined
+     */
+    public synchronized boolean isFrontDraft() {
+        return this.frontDraft;
+    }
+
+    /**
+     * Returns a one-line summary of the frames rendered.
+     *
+     * @return a summary such as "12 ms, 40 frames, 7 dropped; 30 full (80
+     * ms), 12 draft (20 ms), 2 switches"; never returns null
+     */
+    public synchronized String getSummary() {
+        return this.frameMillis + " ms, " + this.framesRendered
+            + " frames, " + this.framesDropped + " dropped; "
+            + this.detail.getSummary();
+    }
+
+    /**
+     * Stops the render thread once it has finished the tile it is rendering.
+     * No frame is rendered afterwards.
+     */
+    public synchronized void shutdown() {
+        this.shutdown = true;
+        this.notify();
+    }
+
+    /**
+     * Renders the requested frames until shut down. This method is run by
+     * the render thread.
+     */
+    public void run() {
+        while (true) {
+            final TileRenderer renderer;
+            final RasterSurface back;
+            final SVGDocument snapshot;
+            final int count;
+            final int generation;
+            final float zoom;
+            final int scrollX;
+            final int scrollY;
+            final boolean draft;
+            synchronized (this) {
+                while (!this.requested && !this.shutdown) {
+                    // refine a draft front frame once the view settles
+                    final long settle = this.frontDraft
+                        ? this.detail.getSettleTime(System.currentTimeMillis())
+                        : -1;
+                    if (settle == 0) {
+                        this.requested = true;
+                        break;
+                    }
+                    try {
+                        if (settle > 0) {
+                            this.wait(settle);
+                        } else {
+                            this.wait();
+                        }
+                    } catch (final InterruptedException e) {
+                        // wait again
+                    }
+                }
+                if (this.shutdown) {
+                    return;
+                }
+                this.requested = false;
+                draft = this.detail.isDraft(System.currentTimeMillis());
+                renderer = this.renderer;
+                this.rendering = (renderer != null);
+                back = this.back;
+                generation = this.generation;
+                zoom = this.zoom;
+                scrollX = this.scrollX;
+                scrollY = this.scrollY;
+
+                // take the committed changes, leaving empty arrays for more
+                snapshot = this.committed;
+                count = this.committedCount;
+                this.committed = null;
+                this.committedCount = 0;
+                final int[] elements = this.committedElements;
+                final int[] nameIds = this.committedNameIds;
+                this.committedElements = this.appliedElements;
+                this.committedNameIds = this.appliedNameIds;
+                this.appliedElements = elements;
+                this.appliedNameIds = nameIds;
+            }
+            if (renderer == null) {
+                continue;
+            }
+
+            synchronized (renderer) {
+                if (this.isCurrent(renderer, generation)) {
+                    this.apply(renderer, snapshot, count);
+                }
+                renderer.setZoom(zoom);
+                renderer.scrollTo(scrollX, scrollY);
+                renderer.setDraft(draft);
+                renderer.beginFrame(back);
+            }
+            boolean more = true;
+            int draftTiles = 0;
+            while (more) {
+                synchronized (renderer) {
+                    more = renderer.renderNextTile();
+                    draftTiles = renderer.getDraftTiles();
+                }
+                if (more && this.isZoomChanged(zoom)) {
+                    break;
+                }
+            }
+
+            // commit the changes deferred while the frame was rendered
+            final boolean commit;
+            synchronized (this) {
+                this.rendering = false;
+                commit = this.commitDeferred;
+            }
+            if (commit) {
+                this.app.invokeLater(this.committer);
+            }
+
+            // swap the finished frame to the front
+            boolean post = false;
+            synchronized (this) {
+                if (more || renderer != this.renderer) {
+                    this.framesDropped++;
+                    continue;
+                }
+                this.back = this.front;
+                this.front = back;
+                this.frontValid = true;
+                this.frontZoom = zoom;
+                this.frontScrollX = scrollX;
+                this.frontScrollY = scrollY;
+                this.framesRendered++;
+                this.frameMillis = renderer.getFrameMillis();
+                this.detail.frameRendered(this.frameMillis, draft,
+                    System.currentTimeMillis());
+
+                // keep refining once full quality is back, without waiting
+                this.frontDraft = (draftTiles > 0);
+                if (this.frontDraft && !draft) {
+                    this.requested = true;
+                }
+                if (!this.notifyPending) {
+                    this.notifyPending = true;
+                    post = true;
+                }
+            }
+            if (post) {
+                this.app.invokeLater(this.notifier);
+            }
+        }
+    }
+
+    /**
+     * Gives a renderer the frozen copy of the document and replays the
+     * changes made since the previous copy. This must be invoked by the
+     * render thread while synchronized on the renderer.
+     */
+    private void apply(TileRenderer renderer, SVGDocument snapshot,
+            int count) {
+        if (snapshot == null) {
+            return;
+        }
+        renderer.replaceDocument(snapshot);
+        final int[] elements = this.appliedElements;
+        final int[] nameIds = this.appliedNameIds;
+        final float[] box = this.changedBox;
+        for (int i = 0; i < count; i++) {
+            final int element = elements[i];
+            final int nameId = nameIds[i];
+            renderer.invalidateGeometry(element, nameId);
+            renderer.invalidateStyles(element, nameId);
+            renderer.invalidateElement(element, renderer.getBounds()
+                .getBounds(element, box) ? box : null);
+        }
+    }
+
+    /**
+     * Returns whether the document of a renderer is still that of a given
+     * generation, which it is not if the document was set again or the
+     * renderer was replaced since.
+     */
+    private synchronized boolean isCurrent(TileRenderer renderer,
+            int generation) {
+        return renderer == this.renderer && generation == this.generation;
+    }
+
+    /**
+     * Returns whether a request for a frame at a different zoom has been
+     * made, so that the frame being rendered will not be shown.
+     */
+    private synchronized boolean isZoomChanged(float zoom) {
+        return this.requested && this.zoom != zoom;
+    }
+
+    /**
+     * Sets the document of the renderer to a frozen copy of a document,
+     * discarding the changes not yet applied, and requests a frame.
+     */
+    private void reset(SVGDocument document) {
+        final SVGDocument snapshot =
+            (document == null) ? null : document.freeze();
+        final TileRenderer renderer = this.getRenderer();
+        if (renderer == null) {
+            synchronized (this) {
+                this.document = document;
+                this.discardChanges();
+            }
+            return;
+        }
+        synchronized (renderer) {
+            synchronized (this) {
+                this.document = document;
+                this.discardChanges();
+            }
+            renderer.setDocument(snapshot);
+        }
+        synchronized (this) {
+            this.request();
+        }
+    }
+
+    /**
+     * Discards the changes not yet applied by the render thread, which must
+     * not apply those it has taken.
+     */
+    private void discardChanges() {
+        this.generation++;
+        this.changeCount = 0;
+        this.committed = null;
+        this.committedCount = 0;
+    }
+
+    /**
+     * Requests a frame, replacing any request not yet taken by the render
+     * thread, and starts the render thread if it has not been started. This
+     * must be invoked while synchronized on this object.
+     */
+    private void request() {
+        if (this.shutdown) {
+            return;
+        }
+        if (this.requested) {
+            this.framesDropped++;
+        }
+        this.requested = true;
+        if (this.thread == null) {
+            final Thread thread = new Thread(this);
+            thread.setPriority(RENDER_PRIORITY);
+            this.thread = thread;
+            thread.start();
+        } else {
+            this.notify();
+        }
+    }
+
+    /**
+     * Returns a copy of an array with twice its length.
+     */
+    private static int[] grow(int[] array) {
+        final int[] newArray = new int[array.length * 2];
+        System.arraycopy(array, 0, newArray, 0, array.length);
+        return newArray;
+    }
+
+    /**
+     * Freezes the document once the event thread has finished making a batch
+     * of changes, and hands the copy and the changes to the render thread.
+     * If the render thread is busy with a frame, the batch is left to be
+     * joined by those that follow it until the frame is finished.
+     */
+    private class Committer implements Runnable {
+
+        /**
+         * Commits the changes.
+         */
+        public void run() {
+            final RenderThread owner = RenderThread.this;
+            synchronized (owner) {
+                if (owner.rendering && !owner.commitDeferred) {
+                    owner.commitDeferred = true;
+                    return;
+                }
+                owner.commitPending = false;
+                owner.commitDeferred = false;
+                final SVGDocument document = owner.document;
+                final int count = owner.changeCount;
+                if (document == null || count == 0) {
+                    return;
+                }
+
+                // append to any changes that the render thread has not taken
+                final int total = owner.committedCount + count;
+                while (owner.committedElements.length < total) {
+                    owner.committedElements = grow(owner.committedElements);
+                    owner.committedNameIds = grow(owner.committedNameIds);
+                }
+                System.arraycopy(owner.changedElements, 0,
+                    owner.committedElements, owner.committedCount, count);
+                System.arraycopy(owner.changedNameIds, 0,
+                    owner.committedNameIds, owner.committedCount, count);
+                owner.committedCount = total;
+                owner.changeCount = 0;
+                owner.committed = document.freeze();
+                owner.request();
+            }
+        }
+    }
+
+    /**
+     * Tells the frame listener of a new frame on the event thread.
+     */
+    private class Notifier implements Runnable {
+
+        /**
+         * Runs the frame listener.
+         */
+        public void run() {
+            synchronized (RenderThread.this) {
+                RenderThread.this.notifyPending = false;
+            }
+            RenderThread.this.frameListener.run();
+        }
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * SVGCanvasField.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import denver.svgeditor.model.DocumentListener;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.render.TileRenderer;
+
+import net.rim.device.api.system.Application;
+import net.rim.device.api.ui.Color;
+import net.rim.device.api.ui.Field;
+import net.rim.device.api.ui.Graphics;
+import net.rim.device.api.ui.TouchEvent;
+import net.rim.device.api.ui.TouchGesture;
+
+/**
+ * A field which displays an SVG document. The document is rendered by a
+ * {@link TileRenderer} on a {@link RenderThread} into ARGB frames the size of
+ * this field, so that panning with the trackpad re-renders only the newly
+ * exposed tiles, and so that panning and other input are handled at full
+ * rate while a frame renders: this field draws the most recent frame,
+ * shifted by the distance panned since it was rendered, and is invalidated
+ * again when the next frame is ready. Clicking selects the topmost shape
+ * under the center of this field, or under the touch point on a touch
+ * screen, where dragging pans and pinching zooms about the center of this
+ * field. While the view is dragged or pinched, the render thread draws at
+ * draft quality if frames take too long at full quality.
+ * <p>
+ * This field listens to its document and reports each change to the render
+ * thread as it is made, so that edits, and their undoing, redraw only the
+ * elements they changed. The selection is cleared if the selected element is
+ * removed.
+ */
+public class SVGCanvasField extends Field implements DocumentListener {
+
+    /**
+     * The number of pixels scrolled for each unit of trackpad movement.
+     */
+    public static final int PAN_STEP = 16;
+
+    /**
+     * The distance, in pixels, by which a click may miss a shape and still
+     * select it.
+     */
+    public static final int HIT_TOLERANCE = 4;
+
+    /**
+     * The smallest zoom factor to which the view can be pinched.
+     */
+    public static final float MIN_ZOOM = 0.05f;
+
+    /**
+     * The largest zoom factor to which the view can be pinched.
+     */
+    public static final float MAX_ZOOM = 32;
+
+    private final RenderThread renderThread;
+    private final float[] selectionBox;
+
+    private SVGDocument document;
+    private int laidOutWidth;
+    private int laidOutHeight;
+    private boolean fitPending;
+    private int selection;
+    private long hitTestMicros;
+    private int dragX;
+    private int dragY;
+    private float pinchZoom;
+
+    /**
+     * Creates a new instance of <code>SVGCanvasField</code> which displays no
+     * document.
+     */
+    public SVGCanvasField() {
+        super(FOCUSABLE);
+        this.renderThread =
+            new RenderThread(Application.getApplication(), new Runnable() {
+                public void run() {
+                    SVGCanvasField.this.invalidate();
+                }
+            });
+        this.selection = SVGDocument.NONE;
+        this.selectionBox = new float[4];
+    }
+
+    /**
+     * Sets the document displayed by this field. The document is initially
+     * zoomed to fit within this field.
+     *
+     * @param document the document to display; may be null to display
+     * nothing
+     */
+    public void setDocument(SVGDocument document) {
+        if (this.document != null) {
+            this.document.removeDocumentListener(this);
+        }
+        this.document = document;
+        if (document != null) {
+            document.addDocumentListener(this);
+        }
+        this.selection = SVGDocument.NONE;
+        this.fitPending = true;
+        this.renderThread.setDocument(document);
+        if (this.renderThread.getRenderer() != null) {
+            this.fitToField();
+        }
+        this.invalidate();
+    }
+
+    /**
+     * Returns the document displayed by this field.
+     *
+     * @return the document, or null if none is displayed
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Returns the renderer that draws this field. The renderer is used by
+     * the render thread, so it must only be used while synchronized on it,
+     * and it renders a frozen copy of the document, which is changed only
+     * by the render thread.
+     *
+     * @return the renderer, or null if this field has not been laid out
+     */
+    public TileRenderer getRenderer() {
+        return this.renderThread.getRenderer();
+    }
+
+    /**
+     * Returns the thread that renders the frames of this field.
+     *
+     * @return the render thread; never returns null
+     */
+    public RenderThread getRenderThread() {
+        return this.renderThread;
+    }
+
+    /**
+     * Returns the selected element.
+     *
+     * @return the index of the selected shape or use element, or
+     * {@link SVGDocument#NONE} if nothing is selected
+     */
+    public int getSelection() {
+        return this.selection;
+    }
+
+    /**
+     * Selects the topmost shape under a point of this field.
+     *
+     * @param x the x coordinate of the point, relative to this field
+     * @param y the y coordinate of the point, relative to this field
+     * @return the index of the selected element, or {@link SVGDocument#NONE}
+     * if there is no shape under the point
+     */
+    public int selectAt(int x, int y) {
+        final long start = System.currentTimeMillis();
+        this.selection = this.renderThread.hitTest(x, y, HIT_TOLERANCE);
+        this.hitTestMicros = (System.currentTimeMillis() - start) * 1000;
+        this.invalidate();
+        return this.selection;
+    }
+
+    /**
+     * Redraws the area of a new element.
+     */
+    public void elementCreated(SVGDocument document, int element) {
+        this.elementChanged(element, -1);
+    }
+
+    /**
+     * Redraws the area of an element that was removed or put back.
+     */
+    public void elementMoved(SVGDocument document, int element, int oldParent) {
+        this.elementChanged(element, -1);
+    }
+
+    /**
+     * Redraws the area of an element whose attribute was changed.
+     */
+    public void attributeChanged(SVGDocument document, int element,
+            int nameId) {
+        this.elementChanged(element, nameId);
+    }
+
+    /**
+     * Returns the time taken by the most recent hit test.
+     *
+     * @return the duration of the most recent invocation of
+     * {@link #selectAt(int, int)}, in microseconds, with the resolution of
+     * the system clock
+     */
+    public long getHitTestMicros() {
+        return this.hitTestMicros;
+    }
+
+    /**
+     * Reports a change to the render thread, which invalidates the tiles
+     * covered by the element before and after the change, and those of any
+     * other elements whose styles the change affects, and discards its
+     * outline if its geometry changed; and clears the selection if the
+     * selected element was removed.
+     *
+     * @param element the index of the element
+     * @param nameId the ID of the name of the changed attribute, or -1 if
+     * the element was created, removed or put back
+     */
+    private void elementChanged(int element, int nameId) {
+        this.renderThread.elementChanged(element, nameId);
+        if (this.selection != SVGDocument.NONE
+            && this.document.isRemoved(this.selection)) {
+            this.selection = SVGDocument.NONE;
+            this.invalidate();
+        }
+    }
+
+    /**
+     * Lays out this field, using all of the available space.
+     */
+    protected void layout(int width, int height) {
+        this.setExtent(width, height);
+        if (this.renderThread.getRenderer() == null
+            || width != this.laidOutWidth || height != this.laidOutHeight) {
+            this.laidOutWidth = width;
+            this.laidOutHeight = height;
+            this.renderThread.setSize(width, height);
+        }
+        if (this.fitPending) {
+            this.fitToField();
+        }
+    }
+
+    /**
+     * Paints the most recent frame rendered by the render thread, which
+     * never waits for a frame to be rendered.
+     */
+    protected void paint(Graphics graphics) {
+        final RenderThread renderThread = this.renderThread;
+        if (!renderThread.paint(graphics)) {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, this.getWidth(), this.getHeight());
+        }
+
+        // outline the selection
+        final float[] box = this.selectionBox;
+        if (this.selection != SVGDocument.NONE
+            && renderThread.getBounds(this.selection, box)) {
+            final float zoom = renderThread.getZoom();
+            final int scrollX = renderThread.getScrollX();
+            final int scrollY = renderThread.getScrollY();
+            final int x0 = (int) Math.floor(box[0] * zoom) - scrollX;
+            final int y0 = (int) Math.floor(box[1] * zoom) - scrollY;
+            final int x1 = (int) Math.ceil(box[2] * zoom) - scrollX;
+            final int y1 = (int) Math.ceil(box[3] * zoom) - scrollY;
+            graphics.setColor(Color.BLUE);
+            graphics.drawRect(x0, y0, x1 - x0 + 1, y1 - y0 + 1);
+        }
+    }
+
+    /**
+     * Selects the shape under the center of this field.
+     */
+    protected boolean navigationClick(int status, int time) {
+        this.selectAt(this.getWidth() / 2, this.getHeight() / 2);
+        return true;
+    }
+
+    /**
+     * Selects the shape under a touch, pans the document as it is dragged
+     * and zooms it as it is pinched.
+     */
+    protected boolean touchEvent(TouchEvent message) {
+        final RenderThread renderThread = this.renderThread;
+        switch (message.getEvent()) {
+        case TouchEvent.CLICK:
+            this.selectAt(message.getX(1), message.getY(1));
+            return true;
+        case TouchEvent.DOWN:
+            this.dragX = message.getX(1);
+            this.dragY = message.getY(1);
+            break;
+        case TouchEvent.MOVE: {
+            if (renderThread.getRenderer() == null) {
+                break;
+            }
+            final int x = message.getX(1);
+            final int y = message.getY(1);
+            renderThread.setView(renderThread.getZoom(),
+                renderThread.getScrollX() + this.dragX - x,
+                renderThread.getScrollY() + this.dragY - y);
+            this.dragX = x;
+            this.dragY = y;
+            this.invalidate();
+            return true;
+        }
+        case TouchEvent.GESTURE: {
+            final TouchGesture gesture = message.getGesture();
+            if (gesture.getEvent() == TouchGesture.PINCH_BEGIN) {
+                this.pinchZoom = renderThread.getZoom();
+                return true;
+            } else if (gesture.getEvent() == TouchGesture.PINCH_UPDATE
+                && this.pinchZoom > 0) {
+                this.zoomTo(this.pinchZoom * gesture.getPinchMagnitude());
+                return true;
+            }
+            break;
+        }
+        }
+        return super.touchEvent(message);
+    }
+
+    /**
+     * Pans the document in response to trackpad movement.
+     */
+    protected boolean navigationMovement(int dx, int dy, int status, int time) {
+        final RenderThread renderThread = this.renderThread;
+        if (renderThread.getRenderer() == null) {
+            return false;
+        }
+        renderThread.setView(renderThread.getZoom(), renderThread.getScrollX()
+            + dx * PAN_STEP, renderThread.getScrollY() + dy * PAN_STEP);
+        this.invalidate();
+        return true;
+    }
+
+    /**
+     * Zooms the view about the center of this field, keeping the zoom factor
+     * between {@link #MIN_ZOOM} and {@link #MAX_ZOOM}.
+     */
+    private void zoomTo(float zoom) {
+        final RenderThread renderThread = this.renderThread;
+        if (renderThread.getRenderer() == null || !(zoom > 0)) {
+            return;
+        }
+        zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+        final float scale = zoom / renderThread.getZoom();
+        final int centerX = this.getWidth() / 2;
+        final int centerY = this.getHeight() / 2;
+        renderThread.setView(zoom,
+            (int) ((renderThread.getScrollX() + centerX) * scale - centerX),
+            (int) ((renderThread.getScrollY() + centerY) * scale - centerY));
+        this.invalidate();
+    }
+
+    /**
+     * Zooms and scrolls the view so that the whole document is centered
+     * within this field.
+     */
+    private void fitToField() {
+        final int width = this.getWidth();
+        final int height = this.getHeight();
+        if (this.document == null || width == 0 || height == 0) {
+            return;
+        }
+        this.fitPending = false;
+
+        final float[] box = new float[4];
+        if (!this.renderThread.getBounds(this.document.getRoot(), box)) {
+            return;
+        }
+        final float boxWidth = Math.max(1, box[2] - box[0]);
+        final float boxHeight = Math.max(1, box[3] - box[1]);
+        final float zoom = Math.min(width / boxWidth, height / boxHeight);
+        this.renderThread.setView(zoom,
+            (int) (box[0] * zoom - (width - boxWidth * zoom) / 2),
+            (int) (box[1] * zoom - (height - boxHeight * zoom) / 2));
+    }
+}
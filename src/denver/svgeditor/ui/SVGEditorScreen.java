@@ -23,10 +23,29 @@
  */
 package denver.svgeditor.ui;
 
+import java.util.Hashtable;
+
 import denver.svgeditor.Main;
+import denver.svgeditor.StartupProfile;
+import denver.svgeditor.model.DocumentJournal;
+import denver.svgeditor.model.EditCommand;
+import denver.svgeditor.model.ElementCommand;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.UndoHistory;
+import denver.svgeditor.render.ColorParser;
+import denver.svgeditor.render.Rasterizer;
+import denver.svgeditor.render.RenderStyle;
+import denver.svgeditor.render.StyleResolver;
+import denver.svgeditor.render.StyleSheet;
+import denver.svgeditor.render.TileRenderer;
 import denver.svgeditor.strings.SVGEditorResource;
+import denver.svgeditor.svg.SVGParser;
 
+import net.rim.device.api.ui.Graphics;
 import net.rim.device.api.ui.MenuItem;
+import net.rim.device.api.ui.UiApplication;
+import net.rim.device.api.ui.component.Dialog;
+import net.rim.device.api.ui.component.LabelField;
 import net.rim.device.api.ui.container.MainScreen;
 
 /**
@@ -34,7 +53,14 @@ import net.rim.device.api.ui.container.MainScreen;
  */
 public class SVGEditorScreen extends MainScreen {
 
-    private final SVGEditorTabs tabs;
+    private SVGEditorTabs tabs;
+    private final WelcomeField welcomeField;
+    private boolean showingTabs;
+    private BackgroundExecutor executor;
+    private SnapshotCache snapshotCache;
+    private final Hashtable coldOpenMillis;
+    private boolean journalSaves;
+    private boolean minifiedSaves;
 
     private Action newAction;
     private Action openAction;
@@ -45,13 +71,760 @@ public class SVGEditorScreen extends MainScreen {
     public SVGEditorScreen() {
         super(NO_VERTICAL_SCROLL);
 
-        // setup the pane
-        this.tabs = new SVGEditorTabs();
-        this.add(new WelcomeField());
+        // setup the pane; the tabs are created when the first document opens
+        // and the executor when the welcome field first loads its icons
+        this.welcomeField = new WelcomeField(this);
+        this.add(this.welcomeField);
+        this.coldOpenMillis = new Hashtable();
 
         // add the menu items
         this.addMenuItem(new NewMenuItem(0, 0));
         this.addMenuItem(new OpenMenuItem(0, 1));
+        this.addMenuItem(new CloseMenuItem(0, 4));
+        this.addMenuItem(new SaveMenuItem(0, 5));
+        this.addMenuItem(new CancelMenuItem(0, 6));
+        this.addMenuItem(new DeleteMenuItem(0, 12));
+        this.addMenuItem(new UndoMenuItem(0, 13));
+        this.addMenuItem(new RedoMenuItem(0, 14));
+        this.addMenuItem(new PropertiesMenuItem(0, 18));
+        this.addMenuItem(new DiagnosticsMenuItem(0, 25));
+
+        // use the built-in actions until others are set
+        this.newAction = new NewFileAction();
+        this.openAction = new OpenFileAction();
+        this.journalSaves = true;
+    }
+
+    /**
+     * Starts creating a new, blank SVG file and opens it in a new tab once it
+     * has been written.
+     * 
+     * If the file is open in a tab then that tab is closed first, as by
+     * {@link #closeDocument()}, and nothing is written if it is left open.
+     * 
+     * @param url the URL of the file to create; any existing file is replaced
+     * @return the task that writes the file, or null if the file's tab was
+     * left open, such as until its changes are saved or because the user
+     * cancelled closing it
+     * @throws NullPointerException if url==null
+     */
+    public SaveDocumentTask newDocument(String url) {
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        }
+        final DocumentTab open =
+            (this.tabs == null) ? null : this.tabs.findTab(url);
+        if (open != null && !this.closeTab(open)) {
+            return null;
+        }
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        document.setAttribute(root, "width", "480");
+        document.setAttribute(root, "height", "360");
+        document.setAttribute(root, "viewBox", "0 0 480 360");
+        final SaveDocumentTask task =
+            new SaveDocumentTask(url, document, new NewListener());
+        this.getExecutor().submit(task);
+        this.showProgress(SVGEditorResource.STATUS_SAVING, url, task);
+        return task;
+    }
+
+    /**
+     * Starts opening an SVG file in a new tab. The file is read and parsed on
+     * the worker thread of {@link #getExecutor()},
+     * {@link SVGParser#DEFAULT_CHUNK_TOKENS} tokens at a time, while the
+     * progress is shown in the status area of this screen. If
+     * {@link #getSnapshotCache()} holds a snapshot of the file as it is now,
+     * the snapshot is read instead of parsing the file. When loading
+     * completes the document is displayed and the parse throughput, or the
+     * time taken to read the snapshot beside that of the last parse, is shown
+     * in the status area. If the file cannot be opened or parsed then the user
+     * is alerted and the current document is left unchanged. If the file is
+     * already open then its tab is shown instead, keeping its changes.
+     * 
+     * @param url the URL of the file to open, such as is returned from a
+     * FilePicker
+     * @return the task that opens the file, or null if the file is already
+     * open
+     * @throws NullPointerException if url==null
+     */
+    public OpenDocumentTask openDocument(String url) {
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        }
+        final DocumentTab open =
+            (this.tabs == null) ? null : this.tabs.findTab(url);
+        if (open != null) {
+            this.tabs.showTab(open);
+            return null;
+        }
+        final OpenDocumentTask task =
+            new OpenDocumentTask(url, this.getSnapshotCache(),
+                new OpenListener());
+        this.getExecutor().submit(task);
+        this.showProgress(SVGEditorResource.STATUS_OPENING, url, task);
+        return task;
+    }
+
+    /**
+     * Starts saving the document displayed by this screen to the file from
+     * which it was opened. If the document's tab has a journal and
+     * {@link #isJournalSaves()} returns true then the changes since the last
+     * save are appended to the journal file, and the document is only
+     * rewritten in full when the journal has grown beyond
+     * {@link JournalFile#COMPACT_THRESHOLD}; otherwise the document is
+     * rewritten in full. The work is done on the worker thread of
+     * {@link #getExecutor()} while the progress is shown in the status area of
+     * this screen. If the file cannot be written then the user is alerted and
+     * the file is left unchanged. Whenever the document is rewritten, it is
+     * minified if {@link #isMinifiedSaves()} returns true.
+     * <p>
+     * The task saves a frozen copy of the document, so the document can go
+     * on being edited while it runs; edits made in the meantime leave the tab
+     * modified. If a compaction copies the document into document order after
+     * such edits, their records no longer apply to the file, so they are
+     * dropped from the journal and the next save compacts the document again.
+     * 
+     * @return the task that saves the file, or null if no document is open
+     */
+    public BackgroundTask saveDocument() {
+        return this.saveTab(this.getActiveTab(), false);
+    }
+
+    /**
+     * Starts saving the document of a tab, as described by
+     * {@link #saveDocument()}.
+     * 
+     * @param tab the tab whose document to save; may be null
+     * @param close true to close the tab once the save succeeds, if its
+     * document was not edited in the meantime
+     * @return the task that saves the file, or null if tab is null or its
+     * document is not loaded
+     */
+    private BackgroundTask saveTab(DocumentTab tab, boolean close) {
+        final SVGDocument document = (tab == null) ? null : tab.getDocument();
+        if (document == null) {
+            return null;
+        }
+        final SVGDocument frozen = document.freeze();
+        final SaveListener listener = new SaveListener(tab, document, close);
+        final DocumentJournal journal = tab.getJournal();
+        final BackgroundTask task;
+        if (journal == null) {
+            task =
+                new SaveDocumentTask(tab.getUrl(), frozen,
+                    this.minifiedSaves, listener);
+        } else if (tab.isRewriteRequired()) {
+            // the records do not apply to the file; the rewrite includes them
+            journal.takePending();
+            task =
+                new JournalSaveTask(tab.getUrl(), frozen, new byte[0], -1,
+                    this.minifiedSaves, listener);
+        } else {
+            final long threshold =
+                this.journalSaves ? JournalFile.COMPACT_THRESHOLD : 0;
+            task =
+                new JournalSaveTask(tab.getUrl(), frozen, journal
+                    .takePending(), threshold, this.minifiedSaves, listener);
+        }
+        this.getExecutor().submit(task);
+        this.showProgress(SVGEditorResource.STATUS_SAVING, tab.getUrl(), task);
+        return task;
+    }
+
+    /**
+     * Deletes the selected element of the document displayed by this screen,
+     * and with it its descendants, recording the deletion in the undo history
+     * of the document's tab. This method does nothing if no document is open,
+     * nothing is selected or the root element is selected.
+     * 
+     * @return true if an element was deleted
+     */
+    public boolean deleteSelection() {
+        final DocumentTab tab = this.getActiveTab();
+        final SVGDocument document = (tab == null) ? null : tab.getDocument();
+        final SVGCanvasField canvas = this.getCanvas();
+        if (document == null || canvas == null) {
+            return false;
+        }
+        final int selection = canvas.getSelection();
+        if (selection == SVGDocument.NONE || selection == document.getRoot()) {
+            return false;
+        }
+        final UndoHistory history = tab.getHistory();
+        history.perform(document, ElementCommand.remove(document, selection));
+        this.setStatus(new LabelField(history.getSummary()));
+        return true;
+    }
+
+    /**
+     * Shows the computed style of the selected element of the document
+     * displayed by this screen, or of the root element if nothing is
+     * selected, along with the style sheet rules that match it. The style is
+     * computed by the style resolver of the canvas, so that it comes from the
+     * same cache as the rendered style, from the copy of the document that
+     * the canvas renders. This method does nothing if no document is open.
+     * 
+     * @return true if the properties were shown
+     */
+    public boolean showProperties() {
+        final SVGDocument document = this.getDocument();
+        final SVGCanvasField canvas = this.getCanvas();
+        final TileRenderer renderer =
+            (canvas == null) ? null : canvas.getRenderer();
+        if (document == null || renderer == null) {
+            return false;
+        }
+        int element = canvas.getSelection();
+        if (element == SVGDocument.NONE) {
+            element = document.getRoot();
+        }
+        final RenderStyle style = new RenderStyle();
+        final StringBuffer rules = new StringBuffer();
+        final boolean displayed;
+        synchronized (renderer) {
+            // the renderer draws a frozen copy of the document, whose
+            // elements have the same indices
+            final SVGDocument rendered = renderer.getDocument();
+            if (rendered == null || element >= rendered.getElementCount()) {
+                return false;
+            }
+            final StyleResolver styles =
+                renderer.getDocumentRenderer().getStyleResolver();
+            displayed = styles.computeStyle(rendered, element, style);
+            final StyleSheet sheet = styles.getStyleSheet(rendered);
+            final int matched = sheet.match(rendered, element);
+            for (int i = 0; i < matched; i++) {
+                rules.append((i == 0) ? "\nRules: " : ", ").append(
+                    sheet.getMatchedRule(i).getSelector());
+            }
+        }
+
+        final StringBuffer text = new StringBuffer();
+        text.append('<').append(document.getElementName(element)).append('>');
+        final String id = document.getAttribute(element, "id");
+        if (id != null) {
+            text.append(" #").append(id);
+        }
+        final String classes = document.getAttribute(element, "class");
+        if (classes != null) {
+            text.append(" .").append(classes.trim().replace(' ', '.'));
+        }
+        text.append("\nFill: ").append(formatColor(style.fill)).append(
+            ", opacity ").append(style.fillOpacity).append(
+            (style.fillRule == Rasterizer.EVENODD) ? ", evenodd" : "");
+        text.append("\nStroke: ").append(formatColor(style.stroke)).append(
+            ", width ").append(style.strokeWidth).append(", opacity ")
+            .append(style.strokeOpacity);
+        text.append("\nOpacity: ").append(style.opacity);
+        if (!displayed) {
+            text.append(", not displayed");
+        } else if (!style.visible) {
+            text.append(", hidden");
+        }
+        text.append(rules);
+        Dialog.inform(text.toString());
+        return true;
+    }
+
+    /**
+     * Formats a color for {@link #showProperties()}.
+     * 
+     * @param argb the color
+     * @return "none", or the color as "#rrggbb" if it is opaque and
+     * "#aarrggbb" otherwise
+     */
+    private static String formatColor(int argb) {
+        if (argb == ColorParser.NONE) {
+            return "none";
+        } else if ((argb >>> 24) == 0xFF) {
+            return "#" + Integer.toHexString(0x1000000 | (argb & 0xFFFFFF))
+                .substring(1);
+        }
+        return "#" + Integer.toHexString(argb);
+    }
+
+    /**
+     * Undoes the most recent edit of the document displayed by this screen.
+     * This method does nothing if no document is open or there is nothing to
+     * undo.
+     * 
+     * @return true if an edit was undone
+     */
+    public boolean undo() {
+        final DocumentTab tab = this.getActiveTab();
+        final SVGDocument document = (tab == null) ? null : tab.getDocument();
+        if (document == null) {
+            return false;
+        }
+        final UndoHistory history = tab.getHistory();
+        final EditCommand command = history.undo(document);
+        this.setStatus(new LabelField(history.getSummary()));
+        return (command != null);
+    }
+
+    /**
+     * Redoes the most recently undone edit of the document displayed by this
+     * screen. This method does nothing if no document is open or there is
+     * nothing to redo.
+     * 
+     * @return true if an edit was redone
+     */
+    public boolean redo() {
+        final DocumentTab tab = this.getActiveTab();
+        final SVGDocument document = (tab == null) ? null : tab.getDocument();
+        if (document == null) {
+            return false;
+        }
+        final UndoHistory history = tab.getHistory();
+        final EditCommand command = history.redo(document);
+        this.setStatus(new LabelField(history.getSummary()));
+        return (command != null);
+    }
+
+    /**
+     * Returns whether saving a document with a journal appends its changes to
+     * the journal file rather than rewriting the document in full.
+     * 
+     * @return true if saves are journaled
+     */
+    public boolean isJournalSaves() {
+        return this.journalSaves;
+    }
+
+    /**
+     * Sets whether saving a document with a journal appends its changes to
+     * the journal file rather than rewriting the document in full.
+     * 
+     * @param journalSaves true to journal saves, false to rewrite documents
+     * in full, which also compacts their journals
+     */
+    public void setJournalSaves(boolean journalSaves) {
+        this.journalSaves = journalSaves;
+    }
+
+    /**
+     * Returns whether documents are minified when they are rewritten in full
+     * by {@link #saveDocument()}.
+     * 
+     * @return true if saves are minified
+     * @see denver.svgeditor.model.SVGDocumentWriter#setMinified(boolean)
+     */
+    public boolean isMinifiedSaves() {
+        return this.minifiedSaves;
+    }
+
+    /**
+     * Sets whether documents are minified when they are rewritten in full by
+     * {@link #saveDocument()}. Minified files are smaller but harder to read
+     * and edit by hand.
+     * 
+     * @param minifiedSaves true to minify saves, false to write them in full
+     * precision
+     */
+    public void setMinifiedSaves(boolean minifiedSaves) {
+        this.minifiedSaves = minifiedSaves;
+    }
+
+    /**
+     * Cancels all opens and saves that are waiting or in progress.
+     */
+    public void cancelTasks() {
+        if (this.executor != null) {
+            this.executor.cancelAll();
+        }
+    }
+
+    /**
+     * Returns the executor which reads and writes files for this screen. The
+     * executor is created on the first invocation of this method.
+     * 
+     * @return the executor; never returns null
+     */
+    public BackgroundExecutor getExecutor() {
+        BackgroundExecutor executor = this.executor;
+        if (executor == null) {
+            executor = new BackgroundExecutor(UiApplication.getUiApplication());
+            this.executor = executor;
+        }
+        return executor;
+    }
+
+    /**
+     * Returns the cache of snapshots from which files are reopened. The cache
+     * is created on the first invocation of this method, in
+     * {@link SnapshotCache#DEFAULT_DIRECTORY} and capped at
+     * {@link SnapshotCache#DEFAULT_MAX_SIZE}.
+     * 
+     * @return the cache; never returns null
+     */
+    public SnapshotCache getSnapshotCache() {
+        SnapshotCache cache = this.snapshotCache;
+        if (cache == null) {
+            cache =
+                new SnapshotCache(SnapshotCache.DEFAULT_DIRECTORY,
+                    SnapshotCache.DEFAULT_MAX_SIZE);
+            this.snapshotCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Asks the user to choose one of the diagnostics, and runs it: one of the
+     * benchmarks and checks of {@link DiagnosticTask}, by
+     * {@link #runDiagnostic(int)}, or one of the reports of the state of the
+     * application, which are shown at once.
+     */
+    public void showDiagnostics() {
+        final int taskCount = DiagnosticTask.DIAGNOSTIC_COUNT;
+        final String[] choices = new String[taskCount + 3];
+        for (int i = 0; i < taskCount; i++) {
+            choices[i] = Main.getString(DiagnosticTask.getNameId(i));
+        }
+        choices[taskCount] =
+            Main.getString(SVGEditorResource.MENU_STARTUP_PROFILE);
+        choices[taskCount + 1] =
+            Main.getString(SVGEditorResource.MENU_IMAGE_CACHE);
+        choices[taskCount + 2] =
+            Main.getString(SVGEditorResource.MENU_RENDER_STATISTICS);
+
+        final int choice =
+            Dialog.ask(Main.getString(SVGEditorResource.MENU_DIAGNOSTICS),
+                choices, 0);
+        if (choice < 0) {
+            return; // dismissed
+        } else if (choice < taskCount) {
+            this.runDiagnostic(choice);
+        } else if (choice == taskCount) {
+            this.showStartupProfile();
+        } else if (choice == taskCount + 1) {
+            this.showImageCacheReport();
+        } else {
+            this.showRenderStatistics();
+        }
+    }
+
+    /**
+     * Starts running one of the benchmarks or checks of
+     * {@link DiagnosticTask} on the worker thread of {@link #getExecutor()},
+     * after any opens and saves already waiting, while its name is shown in
+     * the status area of this screen. Its report is shown when it completes.
+     * 
+     * @param diagnostic the diagnostic to run; one of the constants defined in
+     * DiagnosticTask
+     * @return the task that runs the diagnostic, or null if it is
+     * {@link DiagnosticTask#FOOTPRINT} and no document is open
+     * @throws IllegalArgumentException if diagnostic is not one of the
+     * constants defined in DiagnosticTask
+     */
+    public DiagnosticTask runDiagnostic(int diagnostic) {
+        final String url = this.getDocumentUrl();
+        if (diagnostic == DiagnosticTask.FOOTPRINT && url == null) {
+            return null;
+        }
+        final DiagnosticTask task =
+            new DiagnosticTask(diagnostic, url, new DiagnosticListener());
+        this.getExecutor().submit(task);
+        this.showProgress(SVGEditorResource.STATUS_RUNNING, Main
+            .getString(DiagnosticTask.getNameId(diagnostic)), task);
+        return task;
+    }
+
+    /**
+     * Shows the statistics of the render thread of the canvas: the time
+     * taken by the most recent frame, the frames rendered and dropped, and
+     * how many were rendered at draft quality while panning and zooming.
+     * This method does nothing if no document is open.
+     */
+    public void showRenderStatistics() {
+        final SVGCanvasField canvas = this.getCanvas();
+        if (canvas == null) {
+            return;
+        }
+        final RenderThread renderThread = canvas.getRenderThread();
+        final TileRenderer renderer = renderThread.getRenderer();
+        final StringBuffer message =
+            new StringBuffer(renderThread.getSummary());
+        if (renderer != null) {
+            synchronized (renderer) {
+                message.append('\n').append(renderer.getFrameSummary());
+            }
+        }
+        Dialog.inform(message.toString());
+    }
+
+    /**
+     * Shows the {@link StartupProfile} of this launch of the application,
+     * which gives the time at which each phase of the launch completed,
+     * followed by the layout counters of the welcome field, which show
+     * whether rotations and repaints lay it out again.
+     */
+    public void showStartupProfile() {
+        Dialog.inform(StartupProfile.getReport() + "Welcome layout: "
+            + this.welcomeField.getLayoutSummary());
+    }
+
+    /**
+     * Shows the counters of the shared {@link BitmapCache}: the number and
+     * size of the cached images and the number of hits and misses.
+     */
+    public void showImageCacheReport() {
+        Dialog.inform(BitmapCache.getInstance().getSummary());
+    }
+
+    /**
+     * Paints this screen and marks the first paint in the
+     * {@link StartupProfile}.
+     */
+    protected void paint(Graphics graphics) {
+        super.paint(graphics);
+        StartupProfile.mark(StartupProfile.PHASE_FIRST_PAINT);
+    }
+
+    /**
+     * Releases the tabs and cancels the tasks of this screen once it is
+     * removed from the display stack, so that the low memory manager no
+     * longer keeps the tabs and their documents reachable.
+     */
+    protected void onUiEngineAttached(boolean attached) {
+        super.onUiEngineAttached(attached);
+        if (!attached) {
+            if (this.tabs != null) {
+                this.tabs.dispose();
+            }
+            this.cancelTasks();
+        }
+    }
+
+    /**
+     * Closes the tab of the document displayed by this screen, showing the
+     * document of the next tab, or the welcome field if it was the last tab.
+     * If the document has unsaved changes then the user is asked whether to
+     * save them, in which case the tab is closed once the save succeeds, or
+     * to discard them, or to keep the tab open. This method does nothing if
+     * no document is open.
+     */
+    public void closeDocument() {
+        final DocumentTab tab = this.getActiveTab();
+        if (tab != null) {
+            this.closeTab(tab);
+        }
+    }
+
+    /**
+     * Closes a tab, first asking the user what to do with its unsaved changes
+     * as described by {@link #closeDocument()}. If the user chooses to save
+     * them but the tab's document is not loaded, such as while it is still
+     * being loaded after the tab was shown, then the tab is shown so that it
+     * loads and the user is told to close it again once it has.
+     * 
+     * @param tab the tab to close
+     * @return true if the tab was closed, false if it was left open, such as
+     * until its changes are saved
+     */
+    private boolean closeTab(DocumentTab tab) {
+        final boolean closed;
+        if (!tab.isModified()) {
+            closed = this.tabs.closeTab(tab);
+        } else {
+            final int choice =
+                Dialog.ask(Dialog.D_SAVE, tab.getTitle() + " "
+                    + Main.getString(SVGEditorResource.CLOSE_MODIFIED));
+            if (choice == Dialog.SAVE) {
+                if (this.saveTab(tab, true) == null) {
+                    // only a loaded document can be saved; show the tab so
+                    // that it loads, and have the user close it again then
+                    this.tabs.showTab(tab);
+                    Dialog.inform(tab.getTitle() + " "
+                        + Main.getString(SVGEditorResource.DOCUMENT_LOADING));
+                }
+                closed = false;
+            } else if (choice == Dialog.DISCARD) {
+                closed = this.tabs.discardTab(tab);
+            } else {
+                closed = false;
+            }
+        }
+        if (closed) {
+            this.tabClosed();
+        }
+        return closed;
+    }
+
+    /**
+     * Shows the welcome field in place of the tabs if the last tab was
+     * closed, or else the memory summary of the remaining tabs.
+     */
+    private void tabClosed() {
+        if (this.tabs.getTabCount() == 0) {
+            this.replace(this.tabs.getField(), this.welcomeField);
+            this.showingTabs = false;
+            this.setStatus(null);
+        } else {
+            this.setStatus(new LabelField(this.tabs.getMemorySummary()));
+        }
+    }
+
+    /**
+     * Returns the tabs in which the open documents are displayed. The tabs
+     * are created on the first invocation of this method, which is when the
+     * first document is opened unless it is invoked earlier, so that they
+     * are not built during startup.
+     * 
+     * @return the tabs; never returns null
+     */
+    public SVGEditorTabs getTabs() {
+        SVGEditorTabs tabs = this.tabs;
+        if (tabs == null) {
+            tabs = new SVGEditorTabs(this.getExecutor());
+            this.tabs = tabs;
+        }
+        return tabs;
+    }
+
+    /**
+     * Returns the tab of the document displayed by this screen.
+     * 
+     * @return the active tab, or null if no document has been opened
+     */
+    private DocumentTab getActiveTab() {
+        return (this.tabs == null) ? null : this.tabs.getActiveTab();
+    }
+
+    /**
+     * Returns the document displayed by this screen.
+     * 
+     * @return the document, or null if no document has been opened
+     */
+    public SVGDocument getDocument() {
+        final DocumentTab tab = this.getActiveTab();
+        return (tab == null) ? null : tab.getDocument();
+    }
+
+    /**
+     * Returns the field in which the document is displayed.
+     * 
+     * @return the canvas field, or null if no document has been opened
+     */
+    public SVGCanvasField getCanvas() {
+        return this.showingTabs ? this.tabs.getCanvas() : null;
+    }
+
+    /**
+     * Returns the URL of the document displayed by this screen.
+     * 
+     * @return the URL from which the document was opened, or null if no
+     * document has been opened
+     */
+    public String getDocumentUrl() {
+        final DocumentTab tab = this.getActiveTab();
+        return (tab == null) ? null : tab.getUrl();
+    }
+
+    /**
+     * Opens a newly-parsed document in a new tab and shows it. If the file is
+     * already open then its tab is shown instead, and the document and
+     * journal are not used.
+     * 
+     * @param document the document
+     * @param url the URL from which the document was opened
+     * @param journal the journal with which to record the document's changes
+     * @param status the text to show in the status area above the memory
+     * summary of the tabs
+     */
+    private void setDocument(SVGDocument document, String url,
+            DocumentJournal journal, String status) {
+        // show the tabs in place of the welcome field
+        final SVGEditorTabs tabs = this.getTabs();
+        if (!this.showingTabs) {
+            this.replace(this.welcomeField, tabs.getField());
+            this.showingTabs = true;
+        }
+        final DocumentTab open = tabs.findTab(url);
+        final DocumentTab tab = tabs.openTab(url, document);
+        if (open == null) {
+            tab.setJournal(journal);
+        }
+        final String summary = tabs.getMemorySummary();
+        this.setStatus(new LabelField((status == null) ? summary
+            : (status + "\n" + summary)));
+    }
+
+    /**
+     * Returns the text describing how a file was loaded: the parse
+     * statistics after a cold open, or after a warm open the time taken to
+     * read the snapshot beside the time taken by the last cold open of the
+     * file, if it was opened cold since this screen was created.
+     * 
+     * @param open the task that opened the file
+     * @return the text; never returns null
+     */
+    private String getOpenStatus(OpenDocumentTask open) {
+        final Long loadMillis = new Long(open.getLoadMillis());
+        if (!open.isFromCache()) {
+            this.coldOpenMillis.put(open.getUrl(), loadMillis);
+            return open.getStats().toString();
+        }
+        final StringBuffer status = new StringBuffer();
+        status.append(Main.getString(SVGEditorResource.STATUS_WARM_OPEN))
+            .append(' ').append(loadMillis).append(" ms");
+        final Long cold = (Long) this.coldOpenMillis.get(open.getUrl());
+        if (cold != null) {
+            status.append(" (").append(
+                Main.getString(SVGEditorResource.STATUS_COLD_OPEN)).append(
+                ' ').append(cold).append(" ms)");
+        }
+        return status.toString();
+    }
+
+    /**
+     * Tells the user that opening a file failed.
+     * 
+     * @param e the exception that caused the failure
+     */
+    private void alertOpenFailed(Throwable e) {
+        alertFailed(SVGEditorResource.OPEN_FAILED, e);
+    }
+
+    /**
+     * Tells the user that creating a new file failed.
+     * 
+     * @param e the exception that caused the failure; may be null
+     */
+    static void alertNewFailed(Throwable e) {
+        alertFailed(SVGEditorResource.NEW_FAILED, e);
+    }
+
+    /**
+     * Tells the user that an operation failed.
+     * 
+     * @param id the ID of the string describing the operation that failed
+     * @param e the exception that caused the failure; may be null
+     */
+    private static void alertFailed(int id, Throwable e) {
+        final String message = Main.getString(id);
+        final String detail = (e == null) ? null : e.getMessage();
+        Dialog.alert((detail == null) ? message : (message + ": " + detail));
+    }
+
+    /**
+     * Shows the progress of a task in the status area.
+     * 
+     * @param id the ID of the string describing the task, such as "Opening"
+     * @param url the URL of the file that the task reads or writes, or the
+     * name of the diagnostic that it runs
+     * @param task the task
+     */
+    private void showProgress(int id, String url, BackgroundTask task) {
+        final StringBuffer status = new StringBuffer();
+        status.append(Main.getString(id)).append(' ');
+        status.append(url.substring(url.lastIndexOf('/') + 1));
+        final int percent = task.getPercentDone();
+        if (percent >= 0) {
+            status.append(": ").append(percent).append('%');
+        }
+        this.setStatus(new LabelField(status.toString()));
     }
 
     /**
@@ -144,6 +917,221 @@ public class SVGEditorScreen extends MainScreen {
         this.openAction = action;
     }
 
+    /**
+     * Listener which displays the document opened by an
+     * {@link OpenDocumentTask}.
+     */
+    private class OpenListener implements BackgroundTask.Listener {
+
+        /**
+         * Shows the progress of the open in the status area.
+         */
+        public void taskProgress(BackgroundTask task) {
+            final OpenDocumentTask open = (OpenDocumentTask) task;
+            SVGEditorScreen.this.showProgress(SVGEditorResource.STATUS_OPENING,
+                open.getUrl(), task);
+        }
+
+        /**
+         * Displays the opened document or alerts the user of the failure.
+         */
+        public void taskFinished(BackgroundTask task) {
+            final SVGEditorScreen screen = SVGEditorScreen.this;
+            final OpenDocumentTask open = (OpenDocumentTask) task;
+            switch (task.getState()) {
+            case BackgroundTask.STATE_SUCCEEDED: {
+                String status = screen.getOpenStatus(open);
+                final int recovered = open.getRecoveredRecordCount();
+                if (recovered > 0) {
+                    status += "\n" + recovered + " "
+                        + Main.getString(SVGEditorResource.STATUS_RECOVERED);
+                }
+                screen.setDocument(open.getDocument(), open.getUrl(), open
+                    .getJournal(), status);
+                break;
+            }
+            case BackgroundTask.STATE_FAILED:
+                screen.setStatus(null);
+                screen.alertOpenFailed(task.getError());
+                break;
+            default:
+                screen.setStatus(null);
+                break;
+            }
+        }
+    }
+
+    /**
+     * Listener which opens the blank document written by
+     * {@link SVGEditorScreen#newDocument(String)}.
+     */
+    private class NewListener implements BackgroundTask.Listener {
+
+        /**
+         * Shows the progress of the write in the status area.
+         */
+        public void taskProgress(BackgroundTask task) {
+            SVGEditorScreen.this.showProgress(SVGEditorResource.STATUS_SAVING,
+                ((SaveDocumentTask) task).getUrl(), task);
+        }
+
+        /**
+         * Opens the new document or alerts the user of the failure.
+         */
+        public void taskFinished(BackgroundTask task) {
+            final SVGEditorScreen screen = SVGEditorScreen.this;
+            final SaveDocumentTask save = (SaveDocumentTask) task;
+            screen.setStatus(null);
+            switch (task.getState()) {
+            case BackgroundTask.STATE_SUCCEEDED:
+                screen.setDocument(save.getDocument(), save.getUrl(),
+                    new DocumentJournal(), null);
+                break;
+            case BackgroundTask.STATE_FAILED:
+                alertNewFailed(task.getError());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
+    /**
+     * Listener which marks the tab saved by a {@link SaveDocumentTask} or
+     * {@link JournalSaveTask} as unmodified, and closes it if the save was
+     * requested when closing it.
+     */
+    private class SaveListener implements BackgroundTask.Listener {
+
+        private final DocumentTab tab;
+        private final SVGDocument document;
+        private final boolean close;
+
+        /**
+         * Creates a new instance of <code>SaveListener</code>.
+         * 
+         * @param tab the tab whose document is being saved
+         * @param document the tab's document, of which the task saves a
+         * frozen copy
+         * @param close true to close the tab if it is unmodified once the save
+         * completes
+         */
+        public SaveListener(DocumentTab tab, SVGDocument document,
+                boolean close) {
+            this.tab = tab;
+            this.document = document;
+            this.close = close;
+        }
+
+        /**
+         * Shows the progress of the save in the status area.
+         */
+        public void taskProgress(BackgroundTask task) {
+            SVGEditorScreen.this.showProgress(SVGEditorResource.STATUS_SAVING,
+                this.tab.getUrl(), task);
+        }
+
+        /**
+         * Marks the tab as unmodified or alerts the user of the failure. The
+         * records of a journaled save that did not reach the journal file are
+         * given back to the journal, and a document that was copied into
+         * document order by a compaction is replaced by the copy, unless it
+         * was edited during the save, in which case the next save must
+         * compact it again. If the tab was to be closed and is now
+         * unmodified, it is closed.
+         */
+        public void taskFinished(BackgroundTask task) {
+            final SVGEditorScreen screen = SVGEditorScreen.this;
+            final DocumentTab tab = this.tab;
+            screen.setStatus(null);
+            if (task instanceof JournalSaveTask) {
+                final JournalSaveTask save = (JournalSaveTask) task;
+                final DocumentJournal journal = tab.getJournal();
+                if (!save.isAppended() && journal != null) {
+                    journal.restorePending(save.getRecords());
+                }
+                final SVGDocument compacted = save.getCompactedDocument();
+                if (compacted == save.getDocument()) {
+                    tab.setRewriteRequired(false);
+                } else if (compacted != null) {
+                    final boolean unchanged =
+                        this.isUnchanged(save.getDocument());
+                    tab.setRewriteRequired(!unchanged);
+                    if (!unchanged) {
+                        // the edits are in the document but not the file
+                        if (journal != null) {
+                            journal.takePending();
+                        }
+                    } else {
+                        tab.replaceDocument(compacted);
+                        if (tab == screen.getActiveTab()) {
+                            screen.tabs.getCanvas().setDocument(compacted);
+                        } else {
+                            tab.demote();
+                        }
+                    }
+                }
+                if (task.getState() == BackgroundTask.STATE_SUCCEEDED
+                    && !tab.isRewriteRequired()
+                    && (journal == null
+                        || journal.getPendingRecordCount() == 0)) {
+                    tab.setModified(false);
+                }
+            } else if (task.getState() == BackgroundTask.STATE_SUCCEEDED
+                && this.isUnchanged(((SaveDocumentTask) task).getDocument())) {
+                tab.setModified(false);
+            }
+            if (task.getState() == BackgroundTask.STATE_FAILED) {
+                alertFailed(SVGEditorResource.SAVE_FAILED, task.getError());
+            } else if (this.close && !tab.isModified()
+                && screen.tabs.closeTab(tab)) {
+                screen.tabClosed();
+            }
+        }
+
+        /**
+         * Returns whether the tab's document is still the one that was saved
+         * and has not been edited since it was frozen.
+         * 
+         * @param frozen the frozen copy that was saved
+         * @return true if the tab's document is the same as the frozen copy
+         */
+        private boolean isUnchanged(SVGDocument frozen) {
+            return this.tab.getDocument() == this.document
+                && this.document.getRevision() == frozen.getRevision();
+        }
+    }
+
+    /**
+     * Listener which shows the report of a {@link DiagnosticTask}.
+     */
+    private class DiagnosticListener implements BackgroundTask.Listener {
+
+        /**
+         * Does nothing; diagnostics do not report their progress.
+         */
+        public void taskProgress(BackgroundTask task) {
+        }
+
+        /**
+         * Shows the report or alerts the user of the failure.
+         */
+        public void taskFinished(BackgroundTask task) {
+            SVGEditorScreen.this.setStatus(null);
+            switch (task.getState()) {
+            case BackgroundTask.STATE_SUCCEEDED:
+                Dialog.inform(((DiagnosticTask) task).getReport());
+                break;
+            case BackgroundTask.STATE_FAILED:
+                alertFailed(SVGEditorResource.DIAGNOSTIC_FAILED, task
+                    .getError());
+                break;
+            default:
+                break;
+            }
+        }
+    }
+
     /**
      * Listener which performs an action in response to the user. All
      * invocations of methods defined in this interface will occur on the event
@@ -208,4 +1196,197 @@ public class SVGEditorScreen extends MainScreen {
             SVGEditorScreen.this.doOpenAction();
         }
     }
+
+    /**
+     * Menu item which saves the document displayed by the screen.
+     */
+    private class SaveMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>SaveMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public SaveMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(), SVGEditorResource.MENU_SAVE,
+                ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#saveDocument()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.saveDocument();
+        }
+    }
+
+    /**
+     * Menu item which cancels the opens and saves in progress.
+     */
+    private class CancelMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>CancelMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public CancelMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(), SVGEditorResource.MENU_CANCEL,
+                ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#cancelTasks()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.cancelTasks();
+        }
+    }
+
+    /**
+     * Menu item which closes the document displayed by the screen.
+     */
+    private class CloseMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>CloseMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public CloseMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(), SVGEditorResource.MENU_CLOSE,
+                ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#closeDocument()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.closeDocument();
+        }
+    }
+
+    /**
+     * Menu item which deletes the selected element.
+     */
+    private class DeleteMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>DeleteMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public DeleteMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(), SVGEditorResource.MENU_DELETE,
+                ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#deleteSelection()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.deleteSelection();
+        }
+    }
+
+    /**
+     * Menu item which undoes the most recent edit.
+     */
+    private class UndoMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>UndoMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public UndoMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(), SVGEditorResource.MENU_UNDO,
+                ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#undo()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.undo();
+        }
+    }
+
+    /**
+     * Menu item which redoes the most recently undone edit.
+     */
+    private class RedoMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>RedoMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public RedoMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(), SVGEditorResource.MENU_REDO,
+                ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#redo()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.redo();
+        }
+    }
+
+    /**
+     * Menu item which shows the properties of the selected element.
+     */
+    private class PropertiesMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>PropertiesMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public PropertiesMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(), SVGEditorResource.MENU_PROPERTIES,
+                ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#showProperties()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.showProperties();
+        }
+    }
+
+    /**
+     * Menu item which offers the benchmarks and reports used to diagnose the
+     * performance of the application.
+     */
+    private class DiagnosticsMenuItem extends MenuItem {
+
+        /**
+         * Creates a new instance of <code>DiagnosticsMenuItem</code>.
+         * 
+         * @param ordinal the ordinal for the menu item
+         * @param priority the priority for the menu item
+         */
+        public DiagnosticsMenuItem(int ordinal, int priority) {
+            super(Main.getResourceBundle(),
+                SVGEditorResource.MENU_DIAGNOSTICS, ordinal, priority);
+        }
+
+        /**
+         * Invokes {@link SVGEditorScreen#showDiagnostics()}.
+         */
+        public void run() {
+            SVGEditorScreen.this.showDiagnostics();
+        }
+    }
 }
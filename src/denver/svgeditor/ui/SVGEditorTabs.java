@@ -23,6 +23,14 @@
  */
 package denver.svgeditor.ui;
 
+import java.util.Vector;
+
+import denver.svgeditor.Main;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.strings.SVGEditorResource;
+
+import net.rim.device.api.lowmemory.LowMemoryListener;
+import net.rim.device.api.lowmemory.LowMemoryManager;
 import net.rim.device.api.ui.Field;
 import net.rim.device.api.ui.component.LabelField;
 import net.rim.device.api.ui.component.pane.HorizontalTabController;
@@ -33,27 +41,58 @@ import net.rim.device.api.ui.component.pane.PaneManagerModel;
 import net.rim.device.api.ui.component.pane.PaneManagerView;
 import net.rim.device.api.ui.component.pane.PaneView;
 import net.rim.device.api.ui.component.pane.TitleView;
+import net.rim.device.api.ui.container.VerticalFieldManager;
 
 /**
- * Manages the tabs of the UI widgets for editing SVG images.
+ * Manages the tabs of the UI widgets for editing SVG images, one tab per open
+ * document. Only the visible tab's document is loaded and displayed by the
+ * single {@link SVGCanvasField}, which moves between the tabs; the documents
+ * of the other tabs are demoted to snapshots. When the snapshots exceed the
+ * snapshot budget, or the system reports low memory, the snapshots of the
+ * least recently shown unmodified documents are discarded and those
+ * documents are parsed again from their files when their tabs are shown.
+ * Showing a demoted tab loads its document on the worker thread of a
+ * {@link BackgroundExecutor}, so that the event thread never reads a file or
+ * a snapshot; until the load completes, the tab shows its progress in place
+ * of the canvas.
+ * <p>
+ * The tabs register with the {@link LowMemoryManager} when they are created
+ * and must be released with {@link #dispose()} when their screen is closed,
+ * or the manager keeps them, and every document they hold, reachable.
  */
-public class SVGEditorTabs {
+public class SVGEditorTabs implements LowMemoryListener {
+
+    /**
+     * The default number of bytes of snapshots to keep.
+     */
+    public static final long DEFAULT_SNAPSHOT_BUDGET = 512 * 1024;
 
+    private final PaneManagerModel model;
     private final PaneManagerView view;
+    private final Vector tabs;
+    private final Vector panes;
+    private final SVGCanvasField canvas;
+    private final BackgroundExecutor executor;
+
+    private DocumentTab activeTab;
+    private LoadTabTask loadTask;
+    private long snapshotBudget;
+    private long clock;
+    private boolean disposed;
 
     /**
-     * Creates a new instance of <code>SVGEditorTabs</code>.
+     * Creates a new instance of <code>SVGEditorTabs</code> with no tabs.
+     * 
+     * @param executor the executor with which to load the documents of
+     * demoted tabs
+     * @throws NullPointerException if executor==null
      */
-    public SVGEditorTabs() {
+    public SVGEditorTabs(BackgroundExecutor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor==null");
+        }
         final PaneManagerModel model = new PaneManagerModel();
         model.enableLooping(true);
-        model.addPane(new Pane(new LabelField("Title 0", Field.FOCUSABLE),
-            new LabelField("Content 0", Field.FOCUSABLE)));
-        model.addPane(new Pane(new LabelField("Title 1", Field.FOCUSABLE),
-            new LabelField("Content 1", Field.FOCUSABLE)));
-        model.addPane(new Pane(new LabelField("Title 2", Field.FOCUSABLE),
-            new LabelField("Content 2", Field.FOCUSABLE)));
-        model.setCurrentlySelectedIndex(0);
 
         final TitleView titleView = new HorizontalTabTitleView(Field.FOCUSABLE);
         titleView.setModel(model);
@@ -73,7 +112,14 @@ public class SVGEditorTabs {
         model.setController(controller);
         view.setController(controller);
 
+        this.model = model;
         this.view = view;
+        this.tabs = new Vector();
+        this.panes = new Vector();
+        this.canvas = new SVGCanvasField();
+        this.executor = executor;
+        this.snapshotBudget = DEFAULT_SNAPSHOT_BUDGET;
+        LowMemoryManager.addLowMemoryListener(this);
     }
 
     /**
@@ -84,4 +130,513 @@ public class SVGEditorTabs {
     public Field getField() {
         return this.view;
     }
+
+    /**
+     * Returns the field that displays the document of the visible tab.
+     * 
+     * @return the canvas; never returns null
+     */
+    public SVGCanvasField getCanvas() {
+        return this.canvas;
+    }
+
+    /**
+     * Returns the number of tabs.
+     * 
+     * @return the number of open documents
+     */
+    public int getTabCount() {
+        return this.tabs.size();
+    }
+
+    /**
+     * Returns a tab.
+     * 
+     * @param index the index of the tab
+     * @return the tab at the given index; never returns null
+     * @throws ArrayIndexOutOfBoundsException if index is out of range
+     */
+    public DocumentTab getTab(int index) {
+        return (DocumentTab) this.tabs.elementAt(index);
+    }
+
+    /**
+     * Returns the visible tab.
+     * 
+     * @return the tab whose document is displayed, or null if there are no
+     * tabs
+     */
+    public DocumentTab getActiveTab() {
+        return this.activeTab;
+    }
+
+    /**
+     * Returns the number of bytes of snapshots to keep.
+     * 
+     * @return the snapshot budget
+     */
+    public long getSnapshotBudget() {
+        return this.snapshotBudget;
+    }
+
+    /**
+     * Sets the number of bytes of snapshots to keep, discarding snapshots if
+     * they exceed the new budget.
+     * 
+     * @param budget the snapshot budget
+     */
+    public void setSnapshotBudget(long budget) {
+        this.snapshotBudget = budget;
+        this.enforceBudget(budget);
+    }
+
+    /**
+     * Returns the tab of a file.
+     * 
+     * @param url the URL of the file
+     * @return the tab whose document was opened from the file, or null if the
+     * file is not open
+     */
+    public DocumentTab findTab(String url) {
+        final int index = this.indexOf(url);
+        return (index < 0) ? null : this.getTab(index);
+    }
+
+    /**
+     * Adds a tab for a newly opened document and shows it. If a tab for the
+     * same file is already open then that tab is shown instead and the new
+     * document is not used, so that the open tab's changes and undo history
+     * are kept; to open a fresh copy, close the open tab first.
+     * 
+     * @param url the URL of the document's file
+     * @param document the document
+     * @return the new tab, or the tab that is already open for the file;
+     * never returns null
+     * @throws NullPointerException if url==null or document==null
+     */
+    public DocumentTab openTab(String url, SVGDocument document) {
+        final DocumentTab existing = this.findTab(url);
+        if (existing != null) {
+            this.showTab(existing);
+            return existing;
+        }
+        final DocumentTab tab = new DocumentTab(url, document);
+        final DocumentPane pane = new DocumentPane(tab);
+        this.tabs.addElement(tab);
+        this.panes.addElement(pane);
+        this.model.addPane(new Pane(new LabelField(tab.getTitle(),
+            Field.FOCUSABLE), pane));
+        this.showTab(tab);
+        return tab;
+    }
+
+    /**
+     * Closes a tab whose document has no unsaved changes, forgetting its undo
+     * history, and shows the next tab if it was visible. A modified tab is
+     * left open; it must be saved first, or closed with
+     * {@link #discardTab(DocumentTab)} once the user has agreed to lose its
+     * changes.
+     * 
+     * @param tab the tab to close
+     * @return true if the tab was closed, false if it is not one of these tabs
+     * or it is modified
+     */
+    public boolean closeTab(DocumentTab tab) {
+        if (tab.isModified()) {
+            return false;
+        }
+        return this.removeTab(tab);
+    }
+
+    /**
+     * Closes a tab even if its document is modified, discarding the changes
+     * that have not been saved along with its undo history, and shows the
+     * next tab if it was visible. Changes already saved to the file's journal
+     * file are kept.
+     * 
+     * @param tab the tab to close
+     * @return true if the tab was closed, false if it is not one of these tabs
+     */
+    public boolean discardTab(DocumentTab tab) {
+        return this.removeTab(tab);
+    }
+
+    /**
+     * Makes a tab the visible tab. If the tab's document is not loaded then
+     * it is loaded in the background, and the canvas is shown once it is; if
+     * loading fails then the tab shows the error.
+     * 
+     * @param tab the tab to show
+     * @return true if the tab's document is loaded and displayed, false if it
+     * is being loaded or it is not one of these tabs
+     */
+    public boolean showTab(DocumentTab tab) {
+        final int index = this.tabs.indexOf(tab);
+        if (index < 0) {
+            return false;
+        }
+        if (this.model.getCurrentlySelectedIndex() != index) {
+            this.model.setCurrentlySelectedIndex(index, false);
+        }
+        return this.activate(tab);
+    }
+
+    /**
+     * Returns a summary of the forms in which the tabs hold their documents.
+     * 
+     * @return a summary such as "3 tabs: 1 loaded, 1 snapshot (12 KB), 1 on
+     * file"; never returns null
+     */
+    public String getMemorySummary() {
+        int loaded = 0;
+        int snapshots = 0;
+        int files = 0;
+        long bytes = 0;
+        for (int i = this.tabs.size() - 1; i >= 0; i--) {
+            final DocumentTab tab = this.getTab(i);
+            switch (tab.getState()) {
+            case DocumentTab.STATE_LOADED:
+                loaded++;
+                break;
+            case DocumentTab.STATE_SNAPSHOT:
+                snapshots++;
+                break;
+            default:
+                files++;
+                break;
+            }
+            bytes += tab.getSnapshotSize();
+        }
+        return this.tabs.size() + " tabs: " + loaded + " loaded, " + snapshots
+            + " snapshot (" + (bytes / 1024) + " KB), " + files + " on file";
+    }
+
+    /**
+     * Stops listening for low memory and cancels the load of the visible
+     * tab's document, if one is running, so that nothing outside the screen
+     * keeps the tabs reachable. Invoke this when the screen that displays the
+     * tabs is closed; the tabs must not be used afterwards.
+     */
+    public void dispose() {
+        if (this.disposed) {
+            return;
+        }
+        this.disposed = true;
+        LowMemoryManager.removeLowMemoryListener(this);
+        this.cancelLoad();
+    }
+
+    /**
+     * Discards snapshots when the system is low on memory. At high priority
+     * every snapshot that can be discarded is; otherwise snapshots are
+     * discarded until they fit within half of the budget.
+     * <p>
+     * The low memory manager may invoke this method from any thread, while
+     * the tabs are only ever changed on the event thread, so the snapshots
+     * are discarded by a runnable posted to the event thread rather than
+     * here.
+     * 
+     * @param priority the priority of the request
+     * @return false, since nothing is released until the posted runnable runs
+     */
+    public boolean freeStaleObject(int priority) {
+        final boolean high = (priority == LowMemoryListener.HIGH_PRIORITY);
+        this.executor.getApp().invokeLater(new FreeSnapshotsRunnable(high));
+        return false;
+    }
+
+    /**
+     * Displays the document of a tab, demoting the document of the
+     * previously visible tab. If the tab's document is not loaded then a
+     * {@link LoadTabTask} is started to load it, replacing any load of the
+     * previously visible tab, and the tab shows its progress until it
+     * completes.
+     * 
+     * @param tab the tab to activate
+     * @return true if the tab's document is loaded
+     */
+    boolean activate(DocumentTab tab) {
+        if (tab == this.activeTab) {
+            return (tab.getDocument() != null);
+        }
+        final DocumentTab previous = this.activeTab;
+        if (previous != null) {
+            previous.demote();
+        }
+        this.cancelLoad();
+        this.activeTab = tab;
+        tab.setLastUsed(++this.clock);
+
+        final DocumentPane pane =
+            (DocumentPane) this.panes.elementAt(this.tabs.indexOf(tab));
+        final SVGCanvasField canvas = this.canvas;
+        if (canvas.getManager() != null) {
+            canvas.getManager().delete(canvas);
+        }
+
+        final boolean loaded = (tab.getDocument() != null);
+        if (loaded) {
+            this.showCanvas(pane, tab.getDocument());
+        } else {
+            canvas.setDocument(null);
+            final LoadTabTask task = tab.newLoadTask(new LoadListener(tab));
+            this.loadTask = task;
+            this.showLoading(pane, task);
+            this.executor.submit(task);
+        }
+        this.enforceBudget(this.snapshotBudget);
+        return loaded;
+    }
+
+    /**
+     * Cancels the load of the visible tab's document, if one is running.
+     */
+    private void cancelLoad() {
+        final LoadTabTask task = this.loadTask;
+        if (task != null) {
+            this.loadTask = null;
+            this.executor.cancel(task);
+        }
+    }
+
+    /**
+     * Shows the canvas, displaying a document, in a tab's pane.
+     */
+    private void showCanvas(DocumentPane pane, SVGDocument document) {
+        this.canvas.setDocument(document);
+        pane.deleteAll();
+        pane.add(this.canvas);
+    }
+
+    /**
+     * Shows, in place of the canvas, the progress of loading a tab's
+     * document.
+     */
+    private void showLoading(DocumentPane pane, LoadTabTask task) {
+        final StringBuffer text = new StringBuffer();
+        text.append(Main.getString(SVGEditorResource.STATUS_OPENING)).append(
+            ' ').append(pane.tab.getTitle());
+        final int percent = task.getPercentDone();
+        if (percent >= 0) {
+            text.append(": ").append(percent).append('%');
+        }
+        pane.deleteAll();
+        pane.add(new LabelField(text.toString()));
+    }
+
+    /**
+     * Removes a tab, releasing its document, journal and undo history, and
+     * shows the next tab if it was visible.
+     * 
+     * @param tab the tab to remove
+     * @return true if the tab was removed, false if it is not one of these
+     * tabs
+     */
+    private boolean removeTab(DocumentTab tab) {
+        final int index = this.tabs.indexOf(tab);
+        if (index < 0) {
+            return false;
+        }
+        final DocumentPane pane = (DocumentPane) this.panes.elementAt(index);
+        if (this.canvas.getManager() == pane) {
+            pane.delete(this.canvas);
+        }
+        this.tabs.removeElementAt(index);
+        this.panes.removeElementAt(index);
+        this.model.removePane(index);
+        tab.close();
+        if (tab == this.activeTab) {
+            this.cancelLoad();
+            this.activeTab = null;
+            this.canvas.setDocument(null);
+            if (this.tabs.size() > 0) {
+                final int next = Math.min(index, this.tabs.size() - 1);
+                this.showTab(this.getTab(next));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Discards the snapshots of the least recently shown tabs until the total
+     * size of the snapshots is within a budget, or no more can be discarded.
+     * 
+     * @param budget the maximum number of bytes of snapshots to keep
+     * @return true if any snapshot was discarded
+     */
+    private boolean enforceBudget(long budget) {
+        long total = 0;
+        for (int i = this.tabs.size() - 1; i >= 0; i--) {
+            total += this.getTab(i).getSnapshotSize();
+        }
+
+        boolean discarded = false;
+        while (total > budget) {
+            DocumentTab oldest = null;
+            for (int i = this.tabs.size() - 1; i >= 0; i--) {
+                final DocumentTab tab = this.getTab(i);
+                final boolean discardable =
+                    (tab.getSnapshotSize() > 0 && (tab.getDocument() != null
+                        || !tab.isModified()));
+                if (discardable
+                    && (oldest == null || tab.getLastUsed() < oldest
+                        .getLastUsed())) {
+                    oldest = tab;
+                }
+            }
+            if (oldest == null) {
+                break;
+            }
+            total -= oldest.discardSnapshot();
+            discarded = true;
+        }
+        return discarded;
+    }
+
+    /**
+     * Shows, in place of the canvas, that loading a tab's document failed.
+     */
+    private void showLoadFailed(DocumentPane pane, Throwable e) {
+        final String message = Main.getString(SVGEditorResource.OPEN_FAILED);
+        final String detail = (e == null) ? null : e.getMessage();
+        pane.deleteAll();
+        pane.add(new LabelField((detail == null) ? message
+            : (message + ": " + detail)));
+    }
+
+    /**
+     * Returns the index of the tab for a file.
+     */
+    private int indexOf(String url) {
+        for (int i = this.tabs.size() - 1; i >= 0; i--) {
+            if (this.getTab(i).getUrl().equals(url)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Listener which displays the document of a tab once a
+     * {@link LoadTabTask} has loaded it, unless another tab has been shown or
+     * the tab has been closed in the meantime.
+     */
+    private class LoadListener implements BackgroundTask.Listener {
+
+        private final DocumentTab tab;
+
+        /**
+         * Creates a new instance of <code>LoadListener</code>.
+         * 
+         * @param tab the tab whose document is being loaded
+         */
+        public LoadListener(DocumentTab tab) {
+            this.tab = tab;
+        }
+
+        /**
+         * Shows the progress of the load in the tab.
+         */
+        public void taskProgress(BackgroundTask task) {
+            final DocumentPane pane = this.getPane(task);
+            if (pane != null) {
+                SVGEditorTabs.this.showLoading(pane, (LoadTabTask) task);
+            }
+        }
+
+        /**
+         * Displays the loaded document, or shows the failure in the tab.
+         */
+        public void taskFinished(BackgroundTask task) {
+            final SVGEditorTabs tabs = SVGEditorTabs.this;
+            final DocumentPane pane = this.getPane(task);
+            if (pane == null) {
+                return;
+            }
+            tabs.loadTask = null;
+            switch (task.getState()) {
+            case BackgroundTask.STATE_SUCCEEDED:
+                tabs.showCanvas(pane, this.tab.loaded((LoadTabTask) task));
+                tabs.enforceBudget(tabs.snapshotBudget);
+                break;
+            case BackgroundTask.STATE_FAILED:
+                tabs.showLoadFailed(pane, task.getError());
+                break;
+            default:
+                break;
+            }
+        }
+
+        /**
+         * Returns the pane of the tab if the task is still the load of the
+         * visible tab.
+         */
+        private DocumentPane getPane(BackgroundTask task) {
+            final SVGEditorTabs tabs = SVGEditorTabs.this;
+            if (task != tabs.loadTask || this.tab != tabs.activeTab) {
+                return null;
+            }
+            return (DocumentPane) tabs.panes.elementAt(tabs.tabs
+                .indexOf(this.tab));
+        }
+    }
+
+    /**
+     * Runnable which discards snapshots on the event thread in response to
+     * {@link SVGEditorTabs#freeStaleObject(int)}.
+     */
+    private class FreeSnapshotsRunnable implements Runnable {
+
+        private final boolean high;
+
+        /**
+         * Creates a new instance of <code>FreeSnapshotsRunnable</code>.
+         * 
+         * @param high true to discard every snapshot that can be discarded,
+         * false to discard snapshots until they fit within half of the budget
+         */
+        public FreeSnapshotsRunnable(boolean high) {
+            this.high = high;
+        }
+
+        /**
+         * Discards the snapshots, unless the tabs have been disposed of since
+         * this runnable was posted.
+         */
+        public void run() {
+            final SVGEditorTabs tabs = SVGEditorTabs.this;
+            if (!tabs.disposed) {
+                tabs.enforceBudget(this.high ? 0 : tabs.snapshotBudget / 2);
+            }
+        }
+    }
+
+    /**
+     * The content of a tab, which holds the canvas while the tab is visible
+     * and activates its tab when it becomes visible.
+     */
+    private class DocumentPane extends VerticalFieldManager {
+
+        private final DocumentTab tab;
+
+        /**
+         * Creates a new instance of <code>DocumentPane</code>.
+         * 
+         * @param tab the tab whose content this is
+         */
+        public DocumentPane(DocumentTab tab) {
+            super(NO_VERTICAL_SCROLL | NO_HORIZONTAL_SCROLL);
+            this.tab = tab;
+        }
+
+        /**
+         * Activates this pane's tab when the user switches to it.
+         */
+        protected void onVisibilityChange(boolean visible) {
+            super.onVisibilityChange(visible);
+            if (visible) {
+                SVGEditorTabs.this.activate(this.tab);
+            }
+        }
+    }
 }
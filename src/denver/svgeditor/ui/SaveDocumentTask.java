@@ -0,0 +1,262 @@
+/*
+ * SaveDocumentTask.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+import net.rim.device.api.compress.GZIPOutputStream;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentWriter;
+
+/**
+ * A task which serializes a document and writes it to an SVG file. The
+ * document is written to a temporary file next to the destination, which
+ * then replaces the destination, so that a failed or cancelled save leaves
+ * the previous contents of the file intact. Progress is reported as the
+ * number of elements written out of the number in the document. Files whose
+ * names end with {@link #COMPRESSED_SUFFIX} are compressed with gzip, and
+ * the text can be minified with {@link SVGDocumentWriter#setMinified(boolean)}.
+ * <p>
+ * The document must not be modified while the task runs; to go on editing
+ * it, save a copy returned from {@link SVGDocument#freeze()} instead.
+ */
+public class SaveDocumentTask extends BackgroundTask {
+
+    /**
+     * The suffix appended to the name of the destination file to form the
+     * name of the temporary file.
+     */
+    public static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * The suffix of the names of SVG files that are compressed with gzip.
+     */
+    public static final String COMPRESSED_SUFFIX = ".svgz";
+
+    private final String url;
+    private final SVGDocument document;
+    private final boolean minified;
+    private long bytesWritten;
+
+    /**
+     * Creates a new instance of <code>SaveDocumentTask</code>.
+     *
+     * @param url the URL of the file to which to save the document
+     * @param document the document to save
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if url==null or document==null
+     */
+    public SaveDocumentTask(String url, SVGDocument document,
+            Listener listener) {
+        this(url, document, false, listener);
+    }
+
+    /**
+     * Creates a new instance of <code>SaveDocumentTask</code>.
+     *
+     * @param url the URL of the file to which to save the document
+     * @param document the document to save
+     * @param minified true to write minified text
+     * @param listener the listener to tell of the task's progress and
+     * completion; may be null
+     * @throws NullPointerException if url==null or document==null
+     */
+    public SaveDocumentTask(String url, SVGDocument document,
+            boolean minified, Listener listener) {
+        super(listener);
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        } else if (document == null) {
+            throw new NullPointerException("document==null");
+        }
+        this.url = url;
+        this.document = document;
+        this.minified = minified;
+    }
+
+    /**
+     * Returns the URL of the file to which the document is saved.
+     *
+     * @return the URL that was specified to the constructor; never returns
+     * null
+     */
+    public String getUrl() {
+        return this.url;
+    }
+
+    /**
+     * Returns the document to save.
+     *
+     * @return the document that was specified to the constructor; never
+     * returns null
+     */
+    public SVGDocument getDocument() {
+        return this.document;
+    }
+
+    /**
+     * Returns whether the document is written as minified text.
+     *
+     * @return the value that was specified to the constructor
+     */
+    public boolean isMinified() {
+        return this.minified;
+    }
+
+    /**
+     * Returns the size of the saved file.
+     *
+     * @return the number of bytes written
+     */
+    public synchronized long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Writes the document to the temporary file and moves it into place.
+     */
+    protected void execute() throws Exception {
+        final long bytes =
+            writeFile(this.url, this.document, this.minified, this);
+        synchronized (this) {
+            this.bytesWritten = bytes;
+        }
+    }
+
+    /**
+     * Returns whether an SVG file is compressed, which is the case if its
+     * name ends with {@link #COMPRESSED_SUFFIX}, in any case.
+     *
+     * @param url the URL of the file
+     * @return true if the file is compressed with gzip
+     * @throws NullPointerException if url==null
+     */
+    public static boolean isCompressed(String url) {
+        final int length = COMPRESSED_SUFFIX.length();
+        return url.regionMatches(true, url.length() - length,
+            COMPRESSED_SUFFIX, 0, length);
+    }
+
+    /**
+     * Writes a document to a file by way of a temporary file next to it, so
+     * that the file is only replaced once the document has been written in
+     * full. The file is compressed if {@link #isCompressed(String)} returns
+     * true for its URL.
+     *
+     * @param url the URL of the file to which to write the document
+     * @param document the document to write
+     * @param minified true to write minified text
+     * @param task the task to which to report progress and whose cancellation
+     * stops the write, leaving the file unchanged; may be null
+     * @return the size of the file, or -1 if the task was cancelled
+     * @throws IOException if writing the file fails or url is not a file URL
+     * @throws NullPointerException if url==null or document==null
+     */
+    static long writeFile(String url, SVGDocument document, boolean minified,
+            BackgroundTask task) throws IOException {
+        final String tempUrl = url + TEMP_SUFFIX;
+        FileConnection temp = null;
+        OutputStream out = null;
+        boolean keepTemp = false;
+        try {
+            temp = openFile(tempUrl);
+            if (temp.exists()) {
+                temp.truncate(0);
+            } else {
+                temp.create();
+            }
+            out = temp.openOutputStream();
+            final boolean compressed = isCompressed(url);
+            if (compressed) {
+                out = new GZIPOutputStream(out);
+            }
+
+            final SVGDocumentWriter writer =
+                new SVGDocumentWriter(document, out);
+            writer.setMinified(minified);
+            final int total = document.getElementCount();
+            while (writer.write(SVGDocumentWriter.DEFAULT_CHUNK_ELEMENTS)) {
+                if (task != null) {
+                    if (task.isCancelled()) {
+                        return -1;
+                    }
+                    task.setProgress(writer.getElementsWritten(), total);
+                }
+            }
+            out.close(); // writes the gzip trailer, if any
+            out = null;
+            final long size =
+                compressed ? temp.fileSize() : writer.getBytesWritten();
+
+            // replace the destination with the temporary file; once the
+            // destination is deleted the temporary file is the only copy
+            final FileConnection target = openFile(url);
+            try {
+                if (target.exists()) {
+                    target.delete();
+                }
+                keepTemp = true;
+                temp.rename(target.getName());
+            } finally {
+                Util.closeQuietly(target);
+            }
+            return size;
+        } finally {
+            Util.closeQuietly(out);
+            if (temp != null && !keepTemp) {
+                try {
+                    if (temp.exists()) {
+                        temp.delete();
+                    }
+                } catch (final IOException e) {
+                    // the temporary file is left behind; oh well
+                }
+            }
+            Util.closeQuietly(temp);
+        }
+    }
+
+    /**
+     * Opens a file connection for reading and writing.
+     *
+     * @param url the URL of the file
+     * @return the connection; never returns null
+     * @throws IOException if opening the connection fails or url is not a
+     * file URL
+     */
+    static FileConnection openFile(String url) throws IOException {
+        try {
+            return (FileConnection) Connector.open(url, Connector.READ_WRITE);
+        } catch (final ClassCastException e) {
+            throw new IOException("not a file: " + url);
+        }
+    }
+}
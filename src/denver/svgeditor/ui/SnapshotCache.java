@@ -0,0 +1,649 @@
+/*
+ * SnapshotCache.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Enumeration;
+import java.util.Vector;
+
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.model.DocumentSnapshot;
+import denver.svgeditor.model.SVGDocument;
+
+/**
+ * A cache of {@link DocumentSnapshot}s of recently opened SVG files, so that
+ * reopening an unchanged file reads its flat binary snapshot rather than
+ * parsing its text. Snapshots are keyed by the content hash of the SVG file,
+ * so files with the same contents share one snapshot; an index maps the URL,
+ * size and modification time of each file to the hash of its contents, which
+ * lets an unchanged file be recognized without reading it.
+ * <p>
+ * The total size of the snapshots is capped; when a new snapshot would
+ * exceed the cap, the least recently used snapshots are deleted. The cache is
+ * only an accelerator: a missing, stale or damaged snapshot is simply a miss,
+ * after which the file is parsed as usual.
+ * <p>
+ * The methods of this class do file I/O and should be invoked on a worker
+ * thread, such as that of {@link BackgroundExecutor}.
+ */
+public class SnapshotCache {
+
+    /**
+     * The URL of the directory in which the cache is kept by default.
+     */
+    public static final String DEFAULT_DIRECTORY =
+        "file:///store/home/user/svgeditor/";
+
+    /**
+     * The default cap on the total size of the snapshots, in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 4L * 1024 * 1024;
+
+    /**
+     * The initial value of a content hash, to be given to the first
+     * invocation of {@link #hash(long, byte[], int, int)}.
+     */
+    public static final long HASH_SEED = 0xCBF29CE484222325L;
+
+    /**
+     * The name of the index file in the cache directory.
+     */
+    public static final String INDEX_NAME = "snapshots.idx";
+
+    /**
+     * The suffix of the names of the snapshot files in the cache directory.
+     */
+    public static final String SNAPSHOT_SUFFIX = ".snap";
+
+    /**
+     * The first four bytes of the index file.
+     */
+    public static final int INDEX_MAGIC = 0x53564743; // "SVGC"
+
+    /**
+     * The version of the index format written by this class.
+     */
+    public static final int INDEX_VERSION = 1;
+
+    /**
+     * The FNV-1a multiplier used by {@link #hash(long, int)}.
+     */
+    private static final long HASH_PRIME = 0x100000001B3L;
+
+    /**
+     * The suffix of the names of snapshot files being written.
+     */
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final String directory;
+    private long maxSize;
+    private Vector entries;
+    private int hits;
+    private int misses;
+
+    /**
+     * Creates a new instance of <code>SnapshotCache</code>. The index is not
+     * read until the cache is first used.
+     *
+     * @param directory the URL of the directory in which to keep the cache,
+     * ending with a slash; it is created when the first snapshot is stored
+     * @param maxSize the cap on the total size of the snapshots, in bytes
+     * @throws NullPointerException if directory==null
+     */
+    public SnapshotCache(String directory, long maxSize) {
+        if (directory == null) {
+            throw new NullPointerException("directory==null");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Adds a byte to a content hash, which is a 64-bit FNV-1a hash.
+     *
+     * @param hash the hash of the preceding bytes, or {@link #HASH_SEED}
+     * @param b the byte to add; only the low 8 bits are used
+     * @return the hash of the preceding bytes followed by b
+     */
+    public static long hash(long hash, int b) {
+        return (hash ^ (b & 0xFF)) * HASH_PRIME;
+    }
+
+    /**
+     * Adds bytes to a content hash, which is a 64-bit FNV-1a hash.
+     *
+     * @param hash the hash of the preceding bytes, or {@link #HASH_SEED}
+     * @param b the array containing the bytes to add
+     * @param off the index in b of the first byte to add
+     * @param len the number of bytes to add
+     * @return the hash of the preceding bytes followed by the given bytes
+     * @throws NullPointerException if b==null
+     */
+    public static long hash(long hash, byte[] b, int off, int len) {
+        final int end = off + len;
+        for (int i = off; i < end; i++) {
+            hash = (hash ^ (b[i] & 0xFF)) * HASH_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns the URL of the directory in which the cache is kept.
+     *
+     * @return the URL that was specified to the constructor; never returns
+     * null
+     */
+    public String getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Returns the cap on the total size of the snapshots.
+     *
+     * @return the cap, in bytes
+     */
+    public synchronized long getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Sets the cap on the total size of the snapshots. A smaller cap takes
+     * effect when the next snapshot is stored.
+     *
+     * @param maxSize the cap, in bytes
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the number of invocations of {@link #load(String, long, long)}
+     * that returned a document.
+     *
+     * @return the number of hits
+     */
+    public synchronized int getHitCount() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of invocations of {@link #load(String, long, long)}
+     * that returned null.
+     *
+     * @return the number of misses
+     */
+    public synchronized int getMissCount() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the number of files that have a snapshot in the cache.
+     *
+     * @return the number of files
+     * @throws IOException if reading the index fails
+     */
+    public synchronized int getEntryCount() throws IOException {
+        return this.getEntries().size();
+    }
+
+    /**
+     * Returns the total size of the snapshots in the cache.
+     *
+     * @return the total size, in bytes
+     * @throws IOException if reading the index fails
+     */
+    public synchronized long getSize() throws IOException {
+        return this.computeSize(this.getEntries());
+    }
+
+    /**
+     * Loads the snapshot of a file if the file is unchanged since the
+     * snapshot was stored.
+     *
+     * @param url the URL of the SVG file
+     * @param size the current size of the file
+     * @param modified the current modification time of the file
+     * @return a new document read from the snapshot, or null if the cache has
+     * no valid snapshot of the file as it is now
+     * @throws IOException if reading the index or the snapshot file fails
+     * @throws NullPointerException if url==null
+     */
+    public synchronized SVGDocument load(String url, long size, long modified)
+            throws IOException {
+        final Vector entries = this.getEntries();
+        final Entry entry = findEntry(entries, url);
+        if (entry == null || entry.size != size
+            || entry.modified != modified) {
+            this.misses++;
+            return null;
+        }
+
+        SVGDocument document = null;
+        FileConnection connection = null;
+        DataInputStream in = null;
+        try {
+            connection = this.openFile(getSnapshotName(entry.hash));
+            if (connection.exists()
+                && connection.fileSize() == entry.snapshotSize) {
+                final byte[] snapshot = new byte[entry.snapshotSize];
+                in = connection.openDataInputStream();
+                in.readFully(snapshot);
+                try {
+                    document = DocumentSnapshot.fromByteArray(snapshot);
+                } catch (final IOException e) {
+                    // a damaged snapshot is a miss; it is dropped below
+                }
+            }
+        } finally {
+            Util.closeQuietly(in);
+            Util.closeQuietly(connection);
+        }
+
+        if (document == null) {
+            entries.removeElement(entry);
+            this.deleteUnreferenced(entries, entry.hash);
+            this.writeIndex(entries);
+            this.misses++;
+            return null;
+        }
+        entry.lastUsed = System.currentTimeMillis();
+        this.writeIndex(entries);
+        this.hits++;
+        return document;
+    }
+
+    /**
+     * Stores the snapshot of a document just parsed from a file, replacing
+     * any snapshot previously stored for the file, and evicts the least
+     * recently used snapshots until the cache is within its cap. A snapshot
+     * larger than the cap is not stored.
+     *
+     * @param url the URL of the SVG file
+     * @param size the size of the file
+     * @param modified the modification time of the file
+     * @param hash the content hash of the file
+     * @param document the document parsed from the file, which must not yet
+     * have been modified
+     * @return the size of the snapshot, or 0 if it was not stored
+     * @throws IOException if writing the snapshot or the index fails
+     * @throws NullPointerException if url==null or document==null
+     */
+    public synchronized long store(String url, long size, long modified,
+            long hash, SVGDocument document) throws IOException {
+        if (url == null) {
+            throw new NullPointerException("url==null");
+        }
+        final Vector entries = this.getEntries();
+        final Entry old = findEntry(entries, url);
+        if (old != null) {
+            entries.removeElement(old);
+            this.deleteUnreferenced(entries, old.hash);
+        }
+
+        final byte[] snapshot = DocumentSnapshot.toByteArray(document);
+        if (snapshot.length > this.maxSize) {
+            this.writeIndex(entries);
+            return 0;
+        }
+        if (findEntry(entries, hash) == null) {
+            this.writeSnapshot(hash, snapshot);
+        }
+
+        final Entry entry = new Entry();
+        entry.url = url;
+        entry.size = size;
+        entry.modified = modified;
+        entry.hash = hash;
+        entry.snapshotSize = snapshot.length;
+        entry.lastUsed = System.currentTimeMillis();
+        entries.addElement(entry);
+
+        // evict the least recently used snapshots other than the new one
+        while (this.computeSize(entries) > this.maxSize) {
+            Entry oldest = null;
+            for (int i = entries.size() - 1; i >= 0; i--) {
+                final Entry candidate = (Entry) entries.elementAt(i);
+                if (candidate.hash != hash
+                    && (oldest == null
+                        || candidate.lastUsed < oldest.lastUsed)) {
+                    oldest = candidate;
+                }
+            }
+            if (oldest == null) {
+                break;
+            }
+            entries.removeElement(oldest);
+            this.deleteUnreferenced(entries, oldest.hash);
+        }
+        this.writeIndex(entries);
+        return snapshot.length;
+    }
+
+    /**
+     * Removes the snapshot of a file, if the cache has one.
+     *
+     * @param url the URL of the SVG file
+     * @throws IOException if updating the index or deleting the snapshot
+     * fails
+     * @throws NullPointerException if url==null
+     */
+    public synchronized void remove(String url) throws IOException {
+        final Vector entries = this.getEntries();
+        final Entry entry = findEntry(entries, url);
+        if (entry != null) {
+            entries.removeElement(entry);
+            this.deleteUnreferenced(entries, entry.hash);
+            this.writeIndex(entries);
+        }
+    }
+
+    /**
+     * Removes every snapshot from the cache.
+     *
+     * @throws IOException if deleting the files fails
+     */
+    public synchronized void clear() throws IOException {
+        this.entries = new Vector();
+        this.deleteSnapshots();
+        this.writeIndex(this.entries);
+    }
+
+    /**
+     * Returns the entries of the cache, reading the index the first time. A
+     * missing index is an empty cache; a damaged one is discarded along with
+     * every snapshot.
+     */
+    private Vector getEntries() throws IOException {
+        if (this.entries == null) {
+            Vector entries;
+            try {
+                entries = this.readIndex();
+            } catch (final IOException e) {
+                entries = null;
+            }
+            if (entries == null) {
+                entries = new Vector();
+                this.deleteSnapshots();
+            }
+            this.entries = entries;
+        }
+        return this.entries;
+    }
+
+    /**
+     * Reads the index file.
+     *
+     * @return the entries, or null if the index is damaged
+     * @throws IOException if reading the index file fails
+     */
+    private Vector readIndex() throws IOException {
+        final Vector entries = new Vector();
+        FileConnection connection = null;
+        DataInputStream in = null;
+        try {
+            connection = this.openFile(INDEX_NAME);
+            if (!connection.exists()) {
+                return entries;
+            }
+            in = connection.openDataInputStream();
+            if (in.readInt() != INDEX_MAGIC
+                || in.readUnsignedShort() != INDEX_VERSION) {
+                return null;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                final Entry entry = new Entry();
+                entry.url = in.readUTF();
+                entry.size = in.readLong();
+                entry.modified = in.readLong();
+                entry.hash = in.readLong();
+                entry.snapshotSize = in.readInt();
+                entry.lastUsed = in.readLong();
+                entries.addElement(entry);
+            }
+            return entries;
+        } finally {
+            Util.closeQuietly(in);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Writes the index file.
+     */
+    private void writeIndex(Vector entries) throws IOException {
+        this.createDirectory();
+        FileConnection connection = null;
+        DataOutputStream out = null;
+        try {
+            connection = this.openFile(INDEX_NAME);
+            if (connection.exists()) {
+                connection.truncate(0);
+            } else {
+                connection.create();
+            }
+            out = connection.openDataOutputStream();
+            out.writeInt(INDEX_MAGIC);
+            out.writeShort(INDEX_VERSION);
+            final int count = entries.size();
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                final Entry entry = (Entry) entries.elementAt(i);
+                out.writeUTF(entry.url);
+                out.writeLong(entry.size);
+                out.writeLong(entry.modified);
+                out.writeLong(entry.hash);
+                out.writeInt(entry.snapshotSize);
+                out.writeLong(entry.lastUsed);
+            }
+            out.flush();
+        } finally {
+            Util.closeQuietly(out);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Writes a snapshot file, first to a temporary file which is then renamed
+     * so that an interrupted write never leaves a truncated snapshot under
+     * the final name.
+     */
+    private void writeSnapshot(long hash, byte[] snapshot)
+            throws IOException {
+        this.createDirectory();
+        final String name = getSnapshotName(hash);
+        FileConnection connection = null;
+        OutputStream out = null;
+        try {
+            connection = this.openFile(name);
+            if (connection.exists()) {
+                connection.delete(); // left behind by a damaged index
+            }
+            Util.closeQuietly(connection);
+            connection = this.openFile(name + TEMP_SUFFIX);
+            if (connection.exists()) {
+                connection.truncate(0);
+            } else {
+                connection.create();
+            }
+            out = connection.openOutputStream();
+            out.write(snapshot);
+            out.flush();
+            out.close();
+            out = null;
+            connection.rename(name);
+        } finally {
+            Util.closeQuietly(out);
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Deletes the snapshot file with the given hash unless an entry still
+     * refers to it.
+     */
+    private void deleteUnreferenced(Vector entries, long hash)
+            throws IOException {
+        if (findEntry(entries, hash) != null) {
+            return;
+        }
+        FileConnection connection = null;
+        try {
+            connection = this.openFile(getSnapshotName(hash));
+            if (connection.exists()) {
+                connection.delete();
+            }
+        } finally {
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Deletes every snapshot file, and every temporary file, in the cache
+     * directory.
+     */
+    private void deleteSnapshots() throws IOException {
+        FileConnection dir = null;
+        try {
+            dir = (FileConnection) Connector.open(this.directory);
+            if (!dir.exists()) {
+                return;
+            }
+            final Enumeration names = dir.list();
+            while (names.hasMoreElements()) {
+                final String name = (String) names.nextElement();
+                if (name.endsWith(SNAPSHOT_SUFFIX)
+                    || name.endsWith(TEMP_SUFFIX)) {
+                    FileConnection connection = null;
+                    try {
+                        connection = this.openFile(name);
+                        connection.delete();
+                    } finally {
+                        Util.closeQuietly(connection);
+                    }
+                }
+            }
+        } finally {
+            Util.closeQuietly(dir);
+        }
+    }
+
+    /**
+     * Creates the cache directory if it does not exist.
+     */
+    private void createDirectory() throws IOException {
+        FileConnection dir = null;
+        try {
+            dir = (FileConnection) Connector.open(this.directory);
+            if (!dir.exists()) {
+                dir.mkdir();
+            }
+        } finally {
+            Util.closeQuietly(dir);
+        }
+    }
+
+    /**
+     * Opens a file in the cache directory.
+     */
+    private FileConnection openFile(String name) throws IOException {
+        return SaveDocumentTask.openFile(this.directory + name);
+    }
+
+    /**
+     * Returns the total size of the distinct snapshots of some entries.
+     */
+    private long computeSize(Vector entries) {
+        long size = 0;
+        final int count = entries.size();
+        for (int i = 0; i < count; i++) {
+            final Entry entry = (Entry) entries.elementAt(i);
+            boolean counted = false;
+            for (int j = 0; j < i && !counted; j++) {
+                counted = ((Entry) entries.elementAt(j)).hash == entry.hash;
+            }
+            if (!counted) {
+                size += entry.snapshotSize;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the entry for a URL, or null if there is none.
+     */
+    private static Entry findEntry(Vector entries, String url) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            final Entry entry = (Entry) entries.elementAt(i);
+            if (entry.url.equals(url)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns an entry with a content hash, or null if there is none.
+     */
+    private static Entry findEntry(Vector entries, long hash) {
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            final Entry entry = (Entry) entries.elementAt(i);
+            if (entry.hash == hash) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the name of the snapshot file for a content hash, which is the
+     * hash as 16 hexadecimal digits followed by {@link #SNAPSHOT_SUFFIX}.
+     */
+    private static String getSnapshotName(long hash) {
+        final StringBuffer name =
+            new StringBuffer(16 + SNAPSHOT_SUFFIX.length());
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            name.append(Character.forDigit((int) (hash >>> shift) & 0xF, 16));
+        }
+        return name.append(SNAPSHOT_SUFFIX).toString();
+    }
+
+    /**
+     * An entry of the index: the snapshot stored for one file.
+     */
+    private static class Entry {
+        public String url;
+        public long size;
+        public long modified;
+        public long hash;
+        public int snapshotSize;
+        public long lastUsed;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * TaskCallbackRunnable.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import net.rim.device.api.system.Application;
+
+/**
+ * A Runnable that tells a {@link BackgroundTask.Listener} of an event of a
+ * task. This class is used to deliver the events of tasks from the worker
+ * thread of a {@link BackgroundExecutor} to the event thread using
+ * {@link Application#invokeLater(Runnable)}.
+ */
+public class TaskCallbackRunnable implements Runnable {
+
+    /**
+     * The event of a task reporting progress.
+     */
+    public static final int PROGRESS = 0;
+
+    /**
+     * The event of a task completing.
+     */
+    public static final int FINISHED = 1;
+
+    private final BackgroundTask task;
+    private final BackgroundTask.Listener listener;
+    private final int event;
+
+    /**
+     * Creates a new instance of <code>TaskCallbackRunnable</code>.
+     *
+     * @param task the task whose event to deliver
+     * @param listener the listener to which to deliver the event
+     * @param event the event to deliver; either {@link #PROGRESS} or
+     * {@link #FINISHED}
+     * @throws NullPointerException if task==null or listener==null
+     * @throws IllegalArgumentException if event is not valid
+     */
+    public TaskCallbackRunnable(BackgroundTask task,
+            BackgroundTask.Listener listener, int event) {
+        if (task == null) {
+            throw new NullPointerException("task==null");
+        } else if (listener == null) {
+            throw new NullPointerException("listener==null");
+        } else if (event != PROGRESS && event != FINISHED) {
+            throw new IllegalArgumentException("invalid event: " + event);
+        }
+        this.task = task;
+        this.listener = listener;
+        this.event = event;
+    }
+
+    /**
+     * Returns the task whose event will be delivered by this object's run()
+     * method.
+     *
+     * @return the task that was specified to the constructor; never returns
+     * null
+     */
+    public BackgroundTask getTask() {
+        return this.task;
+    }
+
+    /**
+     * Returns the listener to which the event will be delivered by this
+     * object's run() method.
+     *
+     * @return the listener that was specified to the constructor; never
+     * returns null
+     */
+    public BackgroundTask.Listener getListener() {
+        return this.listener;
+    }
+
+    /**
+     * Returns the event that will be delivered by this object's run() method.
+     *
+     * @return the event that was specified to the constructor
+     */
+    public int getEvent() {
+        return this.event;
+    }
+
+    /**
+     * Delivers the event to the listener. Progress is not delivered once the
+     * task has completed, since the listener has been or is about to be told
+     * of its completion.
+     */
+    public void run() {
+        final BackgroundTask task = this.getTask();
+        final BackgroundTask.Listener listener = this.getListener();
+        if (this.getEvent() == FINISHED) {
+            listener.taskFinished(task);
+        } else {
+            task.progressDelivered();
+            if (!task.isDone()) {
+                listener.taskProgress(task);
+            }
+        }
+    }
+
+}
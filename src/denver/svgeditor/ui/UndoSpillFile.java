@@ -0,0 +1,203 @@
+/*
+ * UndoSpillFile.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.microedition.io.Connector;
+import javax.microedition.io.file.FileConnection;
+
+import denver.svgeditor.Util;
+import denver.svgeditor.model.SpillStore;
+
+/**
+ * A {@link SpillStore} kept in a temporary file. Entries are appended to the
+ * file and their offsets kept in memory; popping an entry reads it from its
+ * offset and truncates the file there. The file is created on the first push
+ * and deleted when the store is cleared. Each instance uses its own file,
+ * named with a counter so that the files left by a previous run are reused
+ * rather than accumulated.
+ * <p>
+ * Instances of this class are not thread-safe.
+ */
+public class UndoSpillFile implements SpillStore {
+
+    /**
+     * The suffix of the names of spill files.
+     */
+    public static final String SPILL_SUFFIX = ".undo";
+
+    private static int nextId;
+
+    private final String directory;
+    private final String url;
+    private int[] offsets;
+    private int count;
+    private int length;
+
+    /**
+     * Creates a new instance of <code>UndoSpillFile</code>.
+     *
+     * @param directory the URL of the directory in which to keep the file,
+     * ending with a slash
+     * @throws NullPointerException if directory==null
+     */
+    public UndoSpillFile(String directory) {
+        if (directory == null) {
+            throw new NullPointerException("directory==null");
+        }
+        final int id;
+        synchronized (UndoSpillFile.class) {
+            id = nextId++;
+        }
+        this.directory = directory;
+        this.url = directory + "history-" + id + SPILL_SUFFIX;
+        this.offsets = new int[16];
+    }
+
+    /**
+     * Returns the number of entries in the file.
+     *
+     * @return the number of entries
+     */
+    public int getCount() {
+        return this.count;
+    }
+
+    /**
+     * Returns the size of the file.
+     *
+     * @return the number of bytes of entries in the file
+     */
+    public int getLength() {
+        return this.length;
+    }
+
+    /**
+     * Appends an entry to the file, creating it if this is the first entry.
+     */
+    public void push(byte[] entry) throws IOException {
+        if (entry == null) {
+            throw new NullPointerException("entry==null");
+        }
+        FileConnection connection = null;
+        OutputStream out = null;
+        try {
+            if (this.count == 0) {
+                this.createDirectory();
+            }
+            connection = SaveDocumentTask.openFile(this.url);
+            if (!connection.exists()) {
+                connection.create();
+            } else if (connection.fileSize() != this.length) {
+                connection.truncate(this.length);
+            }
+            out = connection.openOutputStream(this.length);
+            out.write(entry);
+            out.flush();
+        } finally {
+            Util.closeQuietly(out);
+            Util.closeQuietly(connection);
+        }
+
+        if (this.count == this.offsets.length) {
+            final int[] newOffsets = new int[this.count * 2];
+            System.arraycopy(this.offsets, 0, newOffsets, 0, this.count);
+            this.offsets = newOffsets;
+        }
+        this.offsets[this.count++] = this.length;
+        this.length += entry.length;
+    }
+
+    /**
+     * Reads the last entry of the file and truncates the file before it.
+     */
+    public byte[] pop() throws IOException {
+        if (this.count == 0) {
+            throw new IOException("no entries");
+        }
+        final int offset = this.offsets[this.count - 1];
+        final byte[] entry = new byte[this.length - offset];
+        FileConnection connection = null;
+        DataInputStream in = null;
+        try {
+            connection = SaveDocumentTask.openFile(this.url);
+            in = connection.openDataInputStream();
+            long skipped = 0;
+            while (skipped < offset) {
+                final long n = in.skip(offset - skipped);
+                if (n <= 0) {
+                    throw new IOException("spill file truncated");
+                }
+                skipped += n;
+            }
+            in.readFully(entry);
+            Util.closeQuietly(in);
+            in = null;
+            connection.truncate(offset);
+        } finally {
+            Util.closeQuietly(in);
+            Util.closeQuietly(connection);
+        }
+        this.count--;
+        this.length = offset;
+        return entry;
+    }
+
+    /**
+     * Deletes the file.
+     */
+    public void clear() {
+        this.count = 0;
+        this.length = 0;
+        FileConnection connection = null;
+        try {
+            connection = SaveDocumentTask.openFile(this.url);
+            if (connection.exists()) {
+                connection.delete();
+            }
+        } catch (final IOException e) {
+            // the file is truncated when it is next used
+        } finally {
+            Util.closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Creates the directory if it does not exist.
+     */
+    private void createDirectory() throws IOException {
+        FileConnection dir = null;
+        try {
+            dir = (FileConnection) Connector.open(this.directory);
+            if (!dir.exists()) {
+                dir.mkdir();
+            }
+        } finally {
+            Util.closeQuietly(dir);
+        }
+    }
+}
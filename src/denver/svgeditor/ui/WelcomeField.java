@@ -24,33 +24,62 @@
 package denver.svgeditor.ui;
 
 import denver.svgeditor.Main;
+import denver.svgeditor.StartupProfile;
 import denver.svgeditor.strings.SVGEditorResource;
 
+import net.rim.device.api.system.Application;
 import net.rim.device.api.system.Bitmap;
 import net.rim.device.api.system.EncodedImage;
 import net.rim.device.api.ui.Color;
 import net.rim.device.api.ui.Field;
-import net.rim.device.api.ui.Manager;
-import net.rim.device.api.ui.component.BitmapField;
-import net.rim.device.api.ui.component.ButtonField;
+import net.rim.device.api.ui.Graphics;
 import net.rim.device.api.ui.decor.Background;
 import net.rim.device.api.ui.decor.BackgroundFactory;
-import net.rim.device.api.util.StringProvider;
 
 /**
- * A manager which displays two icons: one for "new" and one for "open".
+ * A manager which displays two icons: one for "new" and one for "open". The
+ * icons are rendered from their SVG sources at the density of the screen by
+ * an {@link IconSet}, which persists them so that they are rendered only on
+ * the first launch. To keep the first paint of the application cheap, the
+ * icons are sized from {@link IconSet#getIconSize()} and drawn as outlines
+ * until an {@link IconLoadTask}, submitted after the first paint, has
+ * obtained them. The task runs on the screen's {@link BackgroundExecutor},
+ * which is only obtained when the task is submitted, so that creating this
+ * field does not start the executor's worker thread before the first
+ * frame. Icons are kept in the shared {@link BitmapCache}, so a
+ * welcome field created again, such as when the screen is rebuilt, draws
+ * them at once. If an icon cannot be rendered, its bundled PNG image is
+ * shown instead. The icons are laid out in a row in landscape and in a
+ * column in portrait, by {@link CachedLayoutManager}.
  */
-public class WelcomeField extends Manager {
+public class WelcomeField extends CachedLayoutManager {
 
-    private final Field newField;
-    private final Field openField;
+    private final SVGEditorScreen screen;
+    private final IconField newField;
+    private final IconField openField;
+    private boolean loadQueued;
 
-    public WelcomeField() {
-        super(NO_VERTICAL_SCROLL | NO_HORIZONTAL_SCROLL);
+    /**
+     * Creates a new instance of <code>WelcomeField</code>.
+     * 
+     * @param screen the screen whose executor obtains the icons; its
+     * executor is not obtained until the icons are loaded
+     * @throws NullPointerException if screen==null
+     */
+    public WelcomeField(SVGEditorScreen screen) {
+        super(NO_VERTICAL_SCROLL | NO_HORIZONTAL_SCROLL, AUTO,
+            IconSet.ICON_GAP);
+        if (screen == null) {
+            throw new NullPointerException("screen==null");
+        }
+        this.screen = screen;
+        final int size = IconSet.getIconSize();
         this.newField =
-            this.getIconField("icon_new.png", SVGEditorResource.MENU_NEW);
+            new IconField(IconSet.ICON_NEW, "icon_new.png",
+                SVGEditorResource.MENU_NEW, size);
         this.openField =
-            this.getIconField("icon_open.png", SVGEditorResource.MENU_OPEN);
+            new IconField(IconSet.ICON_OPEN, "icon_open.png",
+                SVGEditorResource.MENU_OPEN, size);
         this.add(this.newField);
         this.add(this.openField);
 
@@ -61,115 +90,195 @@ public class WelcomeField extends Manager {
     }
 
     /**
-     * Loads the icon for a field and creates a field for it.
-     * 
-     * @param iconResourcePath the path of the icon resource
-     * @param labelResourceId the ID in the resource bundle of the string label
-     * for the field if the icon is not available
-     * @return a newly-created Field to use for the icon; never returns null
-     * @throws NullPointerException if iconResourcePath==null
+     * Obtains the icons that are not yet displayed on the screen's executor,
+     * creating the executor if this is its first use, and
+     * displays them when they have been obtained. This is invoked by an event
+     * queued after the first paint of this field, but may be invoked earlier
+     * to obtain the icons eagerly.
      */
-    private Field getIconField(String iconResourcePath, int labelResourceId) {
-        if (iconResourcePath == null) {
-            throw new NullPointerException("iconResourcePath==null");
+    public void loadIcons() {
+        if (this.newField.isLoaded() && this.openField.isLoaded()) {
+            StartupProfile.mark(StartupProfile.PHASE_IDLE);
+            return;
         }
-
-        final StringProvider label = Main.getString(labelResourceId);
-        final EncodedImage image = Main.loadImageResource(iconResourcePath);
-
-        Field field;
-        if (image == null) {
-            field =
-                new ButtonField(label.toString(), ButtonField.CONSUME_CLICK
-                    | ButtonField.NEVER_DIRTY);
-        } else {
-            final Bitmap bitmap = image.getBitmap();
-            field = new BitmapField(bitmap, Field.FOCUSABLE);
-        }
-
-        return field;
+        final String[] paths =
+            new String[] { this.newField.getPath(), this.openField.getPath() };
+        this.screen.getExecutor().submit(new IconLoadTask(new IconSet(
+            IconSet.DEFAULT_DIRECTORY), paths, this.newField.getSize(),
+            new IconLoadListener()));
     }
 
     /**
-     * Lays out this screen's fields.
+     * Paints this field's fields and, on the first paint, queues the event
+     * that obtains the icons.
      */
-    protected void sublayout(int width, int height) {
-        if (width > height) {
-            this.sublayoutLandscape(width, height);
-        } else {
-            this.sublayoutProtrait(width, height);
+    protected void subpaint(Graphics graphics) {
+        super.subpaint(graphics);
+        if (!this.loadQueued) {
+            this.loadQueued = true;
+            Application.getApplication().invokeLater(new Runnable() {
+                public void run() {
+                    WelcomeField.this.loadIcons();
+                }
+            });
         }
-        this.setExtent(width, height);
     }
 
     /**
-     * Lays out this manager's fields in the landscape orientation. This method
-     * is called from sublayout() if it determines that a landscape orientation
-     * should be used.
-     * 
-     * @param width the width in which to lay out the fields
-     * @param height the height in which to lay out the fields
-     * @see #sublayout(int, int)
+     * Listens for the icons to be obtained and displays them.
      */
-    private void sublayoutLandscape(final int width, final int height) {
-        final int newFieldPreferredWidth = this.newField.getPreferredWidth();
-        final int newFieldPreferredHeight = this.newField.getPreferredHeight();
-        final int newFieldWidth = Math.max(0, newFieldPreferredWidth);
-        final int newFieldHeight = Math.max(0, newFieldPreferredHeight);
-
-        final int openFieldPreferredWidth = this.openField.getPreferredWidth();
-        final int openFieldPreferredHeight =
-            this.openField.getPreferredHeight();
-        final int openFieldWidth = Math.max(0, openFieldPreferredWidth);
-        final int openFieldHeight = Math.max(0, openFieldPreferredHeight);
-
-        final int fieldWidths = newFieldWidth + openFieldWidth + 10;
-        final int startX = (width - fieldWidths) / 2;
-
-        final int newFieldX = Math.max(0, startX);
-        final int newFieldY = Math.max(0, (height - newFieldHeight) / 2);
-        this.setPositionChild(this.newField, newFieldX, newFieldY);
-        this.layoutChild(this.newField, newFieldWidth, newFieldHeight);
-
-        final int openFieldX = Math.max(0, startX + newFieldWidth + 10);
-        final int openFieldY = Math.max(0, (height - openFieldHeight) / 2);
-        this.setPositionChild(this.openField, openFieldX, openFieldY);
-        this.layoutChild(this.openField, openFieldWidth, openFieldHeight);
+    private class IconLoadListener implements BackgroundTask.Listener {
+
+        /**
+         * Does nothing.
+         */
+        public void taskProgress(BackgroundTask task) {
+        }
+
+        /**
+         * Displays the icons that were obtained, and the bundled images of
+         * those that were not.
+         */
+        public void taskFinished(BackgroundTask task) {
+            final IconLoadTask load = (IconLoadTask) task;
+            WelcomeField.this.newField.setIcon(load.getIcon(0));
+            WelcomeField.this.openField.setIcon(load.getIcon(1));
+            StartupProfile.mark(StartupProfile.PHASE_IDLE);
+        }
     }
 
     /**
-     * Lays out this manager's fields in the portrait orientation. This method
-     * is called from sublayout() if it determines that a portrait orientation
-     * should be used.
-     * 
-     * @param width the width in which to lay out the fields
-     * @param height the height in which to lay out the fields
-     * @see #sublayout(int, int)
+     * A focusable field which displays an icon in a square of a fixed size.
+     * Until the icon is set it is drawn as an outline; if the icon cannot be
+     * obtained, the bundled image is scaled to fit the square, and if that is
+     * missing too the label is drawn.
      */
-    private void sublayoutProtrait(final int width, final int height) {
-        final int newFieldPreferredWidth = this.newField.getPreferredWidth();
-        final int newFieldPreferredHeight = this.newField.getPreferredHeight();
-        final int newFieldWidth = Math.max(0, newFieldPreferredWidth);
-        final int newFieldHeight = Math.max(0, newFieldPreferredHeight);
-
-        final int openFieldPreferredWidth = this.openField.getPreferredWidth();
-        final int openFieldPreferredHeight =
-            this.openField.getPreferredHeight();
-        final int openFieldWidth = Math.max(0, openFieldPreferredWidth);
-        final int openFieldHeight = Math.max(0, openFieldPreferredHeight);
-
-        final int fieldHeights = newFieldHeight + openFieldHeight + 10;
-        final int startY = (height - fieldHeights) / 2;
-
-        final int newFieldX = Math.max(0, (width - newFieldWidth) / 2);
-        final int newFieldY = Math.max(0, startY);
-        this.setPositionChild(this.newField, newFieldX, newFieldY);
-        this.layoutChild(this.newField, newFieldWidth, newFieldHeight);
-
-        final int openFieldX = Math.max(0, (width - openFieldWidth) / 2);
-        final int openFieldY = Math.max(0, startY + newFieldHeight + 10);
-        this.setPositionChild(this.openField, openFieldX, openFieldY);
-        this.layoutChild(this.openField, openFieldWidth, openFieldHeight);
-    }
+    private static class IconField extends Field {
+
+        private final String path;
+        private final String fallbackPath;
+        private final int labelResourceId;
+        private final int size;
+        private Bitmap bitmap;
+        private boolean loaded;
+
+        /**
+         * Creates a new instance of <code>IconField</code>, which displays the
+         * icon at once if it is in the shared {@link BitmapCache}.
+         * 
+         * @param path the path of the SVG resource of the icon
+         * @param fallbackPath the path of the image resource to display if the
+         * icon cannot be obtained
+         * @param labelResourceId the ID in the resource bundle of the string
+         * label to display if neither image is available
+         * @param size the width and height of the icon, in pixels
+         */
+        public IconField(String path, String fallbackPath,
+                int labelResourceId, int size) {
+            super(Field.FOCUSABLE);
+            this.path = path;
+            this.fallbackPath = fallbackPath;
+            this.labelResourceId = labelResourceId;
+            this.size = size;
+            this.bitmap =
+                BitmapCache.getInstance().getCachedBitmap(path, size, size);
+            this.loaded = (this.bitmap != null);
+        }
 
+        /**
+         * Returns the path of the SVG resource of the icon.
+         */
+        public String getPath() {
+            return this.path;
+        }
+
+        /**
+         * Returns the width and height of the icon.
+         */
+        public int getSize() {
+            return this.size;
+        }
+
+        /**
+         * Returns whether the icon, or its replacement, is displayed.
+         */
+        public boolean isLoaded() {
+            return this.loaded;
+        }
+
+        /**
+         * Displays the icon, or its replacement if it is null, and repaints.
+         */
+        public void setIcon(Bitmap icon) {
+            if (icon == null) {
+                icon = this.loadFallback();
+            }
+            this.bitmap = icon;
+            this.loaded = true;
+            this.invalidate();
+        }
+
+        /**
+         * Decodes the bundled image, scaled to fit the icon's square.
+         *
+         * @return the image, or null if it is missing
+         */
+        private Bitmap loadFallback() {
+            final EncodedImage image =
+                Main.loadImageResource(this.fallbackPath);
+            if (image == null || image.getWidth() <= 0
+                || image.getHeight() <= 0) {
+                return null;
+            }
+            final int max = Math.max(image.getWidth(), image.getHeight());
+            return BitmapCache.getInstance().getBitmap(this.fallbackPath,
+                Math.max(1, image.getWidth() * this.size / max), Math.max(1,
+                    image.getHeight() * this.size / max));
+        }
+
+        /**
+         * Returns the width of the icon.
+         */
+        public int getPreferredWidth() {
+            return this.size;
+        }
+
+        /**
+         * Returns the height of the icon.
+         */
+        public int getPreferredHeight() {
+            return this.size;
+        }
+
+        /**
+         * Sizes this field to the icon, within the available space.
+         */
+        protected void layout(int width, int height) {
+            this.setExtent(Math.min(width, this.size), Math.min(height,
+                this.size));
+        }
+
+        /**
+         * Draws the icon centered in this field, or its outline if it has not
+         * been set, or the label if no image is available.
+         */
+        protected void paint(Graphics graphics) {
+            final int width = this.getWidth();
+            final int height = this.getHeight();
+            final Bitmap bitmap = this.bitmap;
+            if (bitmap != null) {
+                final int w = bitmap.getWidth();
+                final int h = bitmap.getHeight();
+                graphics.drawBitmap((width - w) / 2, (height - h) / 2, w, h,
+                    bitmap, 0, 0);
+                return;
+            }
+            graphics.setColor(Color.WHITE);
+            graphics.drawRect(0, 0, width, height);
+            if (this.loaded) {
+                final String label = Main.getString(this.labelResourceId);
+                graphics.drawText(label, 0, height / 2);
+            }
+        }
+    }
 }
@@ -0,0 +1,291 @@
+/*
+ * WriteBenchmark.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.ui;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+
+import net.rim.device.api.compress.GZIPInputStream;
+import net.rim.device.api.compress.GZIPOutputStream;
+
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+import denver.svgeditor.model.SVGDocumentWriter;
+import denver.svgeditor.svg.SVGParseException;
+import denver.svgeditor.svg.SVGParser;
+
+/**
+ * Times {@link SVGDocumentWriter} on a synthetic drawing of groups of paths
+ * and rectangles, in each of the modes in which a document can be saved:
+ * plain, minified, and either of those compressed with gzip as for a file
+ * whose name ends with {@link SaveDocumentTask#COMPRESSED_SUFFIX}. The paths
+ * have coordinates with many fraction digits, and some attributes repeat the
+ * values that the elements would have without them, so that minifying has
+ * something to remove. The output is counted and discarded, so the times
+ * exclude the cost of the file system. Finally the minified text is parsed
+ * back and checked to have every element, and the compressed text is
+ * checked to decompress to the original.
+ */
+public class WriteBenchmark {
+
+    /**
+     * The number of shapes in each group of the drawing.
+     */
+    private static final int GROUP_SIZE = 50;
+
+    /**
+     * The width and height of the area over which the shapes are spread.
+     */
+    private static final float PAGE_SIZE = 2000;
+
+    /**
+     * The number of curves in each path.
+     */
+    private static final int PATH_CURVES = 8;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private WriteBenchmark() {
+    }
+
+    /**
+     * Runs the benchmark.
+     *
+     * @param elementCount the number of shapes in the drawing
+     * @param runs the number of times to write the drawing in each mode
+     * @return a multi-line report of the results; never returns null
+     */
+    public static String run(int elementCount, int runs) {
+        final SVGDocument document =
+            createDrawing(elementCount, new Random(1));
+        final int count = Math.max(1, runs);
+        final StringBuffer report = new StringBuffer();
+        report.append(document.getElementCount()).append(" elements, ")
+            .append(count).append(" runs of each\n");
+        try {
+            run("Plain", document, false, false, count, report);
+            run("Minified", document, true, false, count, report);
+            run("Plain gzip", document, false, true, count, report);
+            run("Minified gzip", document, true, true, count, report);
+
+            // parse the minified text back and decompress the gzip text
+            final byte[] minified = toByteArray(document, true, false);
+            final SVGDocument parsed = new SVGDocument();
+            final SVGParser parser =
+                new SVGParser(new ByteArrayInputStream(minified),
+                    new SVGDocumentBuilder(parsed), parsed.getNameTable());
+            while (parser.parse(SVGParser.DEFAULT_CHUNK_TOKENS)) {
+                // keep parsing
+            }
+            if (parsed.getElementCount() != document.getElementCount()) {
+                report.append("MISMATCH: minified text has ").append(
+                    parsed.getElementCount()).append(" elements\n");
+            }
+            final byte[] compressed = toByteArray(document, true, true);
+            if (!equal(minified, decompress(compressed))) {
+                report.append("MISMATCH: gzip text does not decompress\n");
+            }
+        } catch (final IOException e) {
+            // the output is kept in memory
+            throw new RuntimeException(e.toString());
+        } catch (final SVGParseException e) {
+            report.append("MISMATCH: minified text does not parse: ").append(
+                e.getMessage()).append('\n');
+        }
+        return report.toString();
+    }
+
+    /**
+     * Times writing a document in one mode.
+     *
+     * @param mode the name of the mode, for the report
+     * @param document the document to write
+     * @param minified true to write minified text
+     * @param compressed true to compress the text with gzip
+     * @param runs the number of times to write the document
+     * @param report the buffer to which to append the results
+     * @throws IOException never; the output is discarded
+     */
+    private static void run(String mode, SVGDocument document,
+            boolean minified, boolean compressed, int runs,
+            StringBuffer report) throws IOException {
+        System.gc();
+        final CountingOutputStream counter = new CountingOutputStream();
+        final long start = System.currentTimeMillis();
+        for (int i = 0; i < runs; i++) {
+            counter.reset();
+            final OutputStream out =
+                compressed ? (OutputStream) new GZIPOutputStream(counter)
+                    : counter;
+            SVGDocumentWriter.write(document, out, minified);
+            out.close();
+        }
+        final long millis = Math.max(1, (System.currentTimeMillis() - start)
+            / runs);
+        final long bytes = counter.getCount();
+        final long rate = document.getElementCount() * 1000L / millis;
+        report.append(mode).append(": ").append(bytes).append(" bytes, ")
+            .append(millis).append(" ms, ").append(rate).append(
+                " elements/s\n");
+    }
+
+    /**
+     * Creates a drawing of groups of shapes. Each group sets a fill which its
+     * rectangles repeat, and each rectangle has a zero x and an opacity of 1,
+     * all of which minifying removes.
+     *
+     * @param elementCount the number of shapes in the drawing
+     * @param random the source of the shapes' coordinates
+     * @return the drawing; never returns null
+     */
+    private static SVGDocument createDrawing(int elementCount, Random random) {
+        final SVGDocument document = new SVGDocument();
+        final int root = document.createElement(SVGDocument.NONE, "svg");
+        document.setAttribute(root, "xmlns", "http://www.w3.org/2000/svg");
+        int group = SVGDocument.NONE;
+        final StringBuffer d = new StringBuffer();
+        for (int i = 0; i < elementCount; i++) {
+            if (i % GROUP_SIZE == 0) {
+                group = document.createElement(root, "g");
+                document.setAttribute(group, "fill", "#336699");
+                document.setAttribute(group, "stroke", "black");
+            }
+            if (i % 2 == 0) {
+                final int rect = document.createElement(group, "rect");
+                document.setAttribute(rect, "x", "0");
+                final float y = random.nextFloat() * PAGE_SIZE;
+                document.setAttribute(rect, "y", Float.toString(y));
+                document.setAttribute(rect, "width", "40");
+                document.setAttribute(rect, "height", "30");
+                document.setAttribute(rect, "fill", "#336699");
+                document.setAttribute(rect, "opacity", "1");
+            } else {
+                d.setLength(0);
+                float x = random.nextFloat() * PAGE_SIZE;
+                float y = random.nextFloat() * PAGE_SIZE;
+                d.append('M').append(x).append(' ').append(y);
+                for (int j = 0; j < PATH_CURVES; j++) {
+                    d.append('C');
+                    for (int k = 0; k < 3; k++) {
+                        x += random.nextFloat() * 20 - 10;
+                        y += random.nextFloat() * 20 - 10;
+                        d.append(x).append(' ').append(y).append(' ');
+                    }
+                }
+                d.append('Z');
+                final int path = document.createElement(group, "path");
+                document.setAttribute(path, "d", d.toString());
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Writes a document into an array.
+     */
+    private static byte[] toByteArray(SVGDocument document, boolean minified,
+            boolean compressed) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final OutputStream out =
+            compressed ? (OutputStream) new GZIPOutputStream(bytes) : bytes;
+        SVGDocumentWriter.write(document, out, minified);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompresses an array of gzip data.
+     */
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        final InputStream in =
+            new GZIPInputStream(new ByteArrayInputStream(compressed));
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            bytes.write(buffer, 0, n);
+        }
+        in.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Returns whether two arrays hold the same bytes.
+     */
+    private static boolean equal(byte[] a, byte[] b) {
+        if (a.length != b.length) {
+            return false;
+        }
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An OutputStream which counts the bytes written to it and discards
+     * them.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        /**
+         * Returns the number of bytes written since the last reset.
+         *
+         * @return the number of bytes
+         */
+        public long getCount() {
+            return this.count;
+        }
+
+        /**
+         * Sets the number of bytes written back to zero.
+         */
+        public void reset() {
+            this.count = 0;
+        }
+
+        /**
+         * Counts one byte.
+         */
+        public void write(int b) {
+            this.count++;
+        }
+
+        /**
+         * Counts an array of bytes.
+         */
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+}
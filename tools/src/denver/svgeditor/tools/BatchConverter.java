@@ -0,0 +1,554 @@
+/*
+ * BatchConverter.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.tools;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Hashtable;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A command-line tool which validates and converts directories of SVG files
+ * on a plain Java virtual machine, such as on a build machine, with the same
+ * parser, document model, renderer and writer that the application runs on
+ * the device. Nothing in it needs the BlackBerry event dispatcher.
+ * <p>
+ * Usage:
+ * <pre>
+ * java denver.svgeditor.tools.BatchConverter [options] path...
+ *
+ *   path        an SVG or SVGZ file, or a directory searched for them
+ *   -o dir      the directory into which to write the converted files, in
+ *               the same layout as the files within the input directories
+ *   -png sizes  render each file into PNG images of the given comma
+ *               separated sizes, in pixels, named name-size.png
+ *   -svg        write each file as minified SVG, named name.svg
+ *   -svgz       write each file as minified, compressed SVG, named name.svgz
+ *   -j threads  the number of files to convert at once; defaults to the
+ *               number of processors
+ * </pre>
+ * Every file is parsed and checked to have an <code>svg</code> root
+ * element; with no conversion, that is all that is done. The files are
+ * converted by a work-stealing pool, so that a few large files do not leave
+ * the other threads idle. A line is printed for each file as it finishes,
+ * giving the time taken and the output written, followed by a summary of
+ * the throughput of the whole batch. The exit status is 0 if every file was
+ * converted, 1 if any failed and 2 if the arguments are invalid.
+ * <p>
+ * The classes of this package need Java SE 7 or later, so they are kept out
+ * of the application's source folder. They are compiled against it with:
+ * <pre>
+ * javac -d bin-tools -sourcepath src tools/src/denver/svgeditor/tools/*.java
+ * </pre>
+ */
+public class BatchConverter {
+
+    /**
+     * The suffix of the names of SVG files.
+     */
+    public static final String SVG_SUFFIX = ".svg";
+
+    /**
+     * The suffix of the names of compressed SVG files.
+     */
+    public static final String SVGZ_SUFFIX = ".svgz";
+
+    /**
+     * The suffix of the names of PNG images.
+     */
+    public static final String PNG_SUFFIX = ".png";
+
+    /**
+     * The exit status if a file could not be converted.
+     */
+    public static final int EXIT_FAILED = 1;
+
+    /**
+     * The exit status if the arguments are invalid.
+     */
+    public static final int EXIT_USAGE = 2;
+
+    private static final String USAGE = "usage: java "
+        + BatchConverter.class.getName()
+        + " [-o dir] [-png sizes] [-svg] [-svgz] [-j threads] path...";
+
+    private final Vector files;
+    private File outputDirectory;
+    private int[] pngSizes;
+    private boolean minifiedSvg;
+    private boolean compressedSvg;
+    private PrintStream log;
+
+    /**
+     * Creates a new instance of <code>BatchConverter</code> which only
+     * validates files and reports to the standard output.
+     */
+    public BatchConverter() {
+        this.files = new Vector();
+        this.pngSizes = new int[0];
+        this.log = System.out;
+    }
+
+    /**
+     * Validates and converts the files given on the command line, then
+     * exits with a status which reports whether any failed.
+     *
+     * @param args the options and paths described above
+     */
+    public static void main(String[] args) {
+        final BatchConverter converter = new BatchConverter();
+        final int threads;
+        try {
+            threads = converter.parseArguments(args);
+        } catch (final IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(EXIT_USAGE);
+            return;
+        }
+        if (!converter.convert(threads)) {
+            System.exit(EXIT_FAILED);
+        }
+    }
+
+    /**
+     * Returns the directory into which converted files are written.
+     *
+     * @return the output directory, or null if none has been set
+     */
+    public File getOutputDirectory() {
+        return this.outputDirectory;
+    }
+
+    /**
+     * Sets the directory into which converted files are written. It is
+     * created if it does not exist.
+     *
+     * @param outputDirectory the output directory; may be null if files are
+     * only to be validated
+     */
+    public void setOutputDirectory(File outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Returns the sizes of the PNG images into which each file is rendered.
+     *
+     * @return the sizes, in pixels; never returns null
+     */
+    public int[] getPngSizes() {
+        return this.pngSizes;
+    }
+
+    /**
+     * Sets the sizes of the PNG images into which each file is rendered. The
+     * drawing is scaled to fit a square of each size.
+     *
+     * @param pngSizes the sizes, in pixels; may be empty to render no images
+     * @throws NullPointerException if pngSizes==null
+     * @throws IllegalArgumentException if a size is not positive
+     */
+    public void setPngSizes(int[] pngSizes) {
+        if (pngSizes == null) {
+            throw new NullPointerException("pngSizes==null");
+        }
+        for (int i = 0; i < pngSizes.length; i++) {
+            if (pngSizes[i] <= 0) {
+                throw new IllegalArgumentException("invalid size: "
+                    + pngSizes[i]);
+            }
+        }
+        this.pngSizes = pngSizes;
+    }
+
+    /**
+     * Returns whether each file is written as minified SVG.
+     *
+     * @return true if minified SVG is written
+     */
+    public boolean isMinifiedSvg() {
+        return this.minifiedSvg;
+    }
+
+    /**
+     * Sets whether each file is written as minified SVG.
+     *
+     * @param minifiedSvg true to write minified SVG
+     */
+    public void setMinifiedSvg(boolean minifiedSvg) {
+        this.minifiedSvg = minifiedSvg;
+    }
+
+    /**
+     * Returns whether each file is written as minified, compressed SVG.
+     *
+     * @return true if compressed SVG is written
+     */
+    public boolean isCompressedSvg() {
+        return this.compressedSvg;
+    }
+
+    /**
+     * Sets whether each file is written as minified, compressed SVG.
+     *
+     * @param compressedSvg true to write compressed SVG
+     */
+    public void setCompressedSvg(boolean compressedSvg) {
+        this.compressedSvg = compressedSvg;
+    }
+
+    /**
+     * Sets the stream to which the results are reported.
+     *
+     * @param log the stream to which to print a line for each file and a
+     * summary of the batch
+     * @throws NullPointerException if log==null
+     */
+    public void setLog(PrintStream log) {
+        if (log == null) {
+            throw new NullPointerException("log==null");
+        }
+        this.log = log;
+    }
+
+    /**
+     * Returns whether converting a file writes anything.
+     *
+     * @return true if any conversion is enabled, false if files are only
+     * validated
+     */
+    public boolean isConverting() {
+        return (this.pngSizes.length > 0 || this.minifiedSvg
+            || this.compressedSvg);
+    }
+
+    /**
+     * Adds a file to convert, or the SVG and SVGZ files in a directory and
+     * its subdirectories, in the order of their names.
+     *
+     * @param path the file or directory
+     * @throws NullPointerException if path==null
+     * @throws IllegalArgumentException if the path does not exist
+     */
+    public void addPath(File path) {
+        if (path == null) {
+            throw new NullPointerException("path==null");
+        } else if (path.isDirectory()) {
+            this.addDirectory(path, "");
+        } else if (path.isFile()) {
+            this.files.addElement(new FileConversion(this, path,
+                getBaseName(path.getName())));
+        } else {
+            throw new IllegalArgumentException("no such file: " + path);
+        }
+    }
+
+    /**
+     * Returns the number of files added.
+     *
+     * @return the number of files to convert
+     */
+    public int getFileCount() {
+        return this.files.size();
+    }
+
+    /**
+     * Converts the files added, several at once, reporting each as it
+     * finishes and then the batch as a whole. Nothing is converted if two
+     * of the files would be written to the same output files, as they would
+     * be if directories given separately hold files of the same name.
+     *
+     * @param threads the number of files to convert at once
+     * @return true if every file was converted, false if any failed
+     * @throws IllegalArgumentException if threads is not positive
+     */
+    public boolean convert(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("invalid threads: " + threads);
+        }
+        final int count = this.files.size();
+        final String duplicate = this.findDuplicateName();
+        if (duplicate != null) {
+            this.log.println("more than one file would be written as "
+                + new File(this.outputDirectory, duplicate));
+            return false;
+        }
+        final long start = System.currentTimeMillis();
+        if (count > 0) {
+            final ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(new ConvertAction(0, count));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        final long elapsedMillis = System.currentTimeMillis() - start;
+
+        // total the files
+        int failed = 0;
+        int outputs = 0;
+        long bytes = 0;
+        long bytesWritten = 0;
+        int elements = 0;
+        long workMillis = 0;
+        for (int i = 0; i < count; i++) {
+            final FileConversion file =
+                (FileConversion) this.files.elementAt(i);
+            if (!file.isSucceeded()) {
+                failed++;
+            }
+            outputs += file.getOutputs();
+            bytes += file.getBytes();
+            bytesWritten += file.getBytesWritten();
+            elements += file.getElements();
+            workMillis += file.getElapsedMillis();
+        }
+        final long millis = Math.max(1, elapsedMillis);
+        this.log.println(count + " files, " + failed + " failed, " + outputs
+            + " outputs of " + bytesWritten + " bytes; " + bytes + " bytes, "
+            + elements + " elements in " + elapsedMillis + " ms on "
+            + threads + " threads (" + (count * 1000L / millis)
+            + " files/s, " + (bytes * 1000 / millis) + " bytes/s, "
+            + (workMillis * 100 / millis) + "% busy)");
+        return (failed == 0);
+    }
+
+    /**
+     * Returns whether a file name has the suffix of a compressed SVG file.
+     *
+     * @param name the file name
+     * @return true if the name ends with {@link #SVGZ_SUFFIX}, in any case
+     * @throws NullPointerException if name==null
+     */
+    public static boolean isCompressed(String name) {
+        return endsWithIgnoreCase(name, SVGZ_SUFFIX);
+    }
+
+    /**
+     * Parses the command line into the settings of this object.
+     *
+     * @return the number of threads to use
+     * @throws IllegalArgumentException if the command line is invalid
+     */
+    private int parseArguments(String[] args) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int i = 0;
+        for (; i < args.length && args[i].startsWith("-"); i++) {
+            final String option = args[i];
+            if (option.equals("-svg")) {
+                this.setMinifiedSvg(true);
+            } else if (option.equals("-svgz")) {
+                this.setCompressedSvg(true);
+            } else if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value for "
+                    + option);
+            } else if (option.equals("-o")) {
+                this.setOutputDirectory(new File(args[++i]));
+            } else if (option.equals("-png")) {
+                this.setPngSizes(parseSizes(args[++i]));
+            } else if (option.equals("-j")) {
+                threads = parseInt(args[++i]);
+                if (threads <= 0) {
+                    throw new IllegalArgumentException("invalid threads: "
+                        + threads);
+                }
+            } else {
+                throw new IllegalArgumentException("unknown option: "
+                    + option);
+            }
+        }
+        if (i == args.length) {
+            throw new IllegalArgumentException("no paths given");
+        } else if (this.isConverting() && this.outputDirectory == null) {
+            throw new IllegalArgumentException("no output directory given");
+        }
+        for (; i < args.length; i++) {
+            this.addPath(new File(args[i]));
+        }
+        return threads;
+    }
+
+    /**
+     * Adds the SVG and SVGZ files in a directory and its subdirectories.
+     *
+     * @param prefix the relative path of the directory within the input
+     * directory, ending with a separator unless empty
+     */
+    private void addDirectory(File directory, String prefix) {
+        final File[] children = directory.listFiles();
+        if (children == null) {
+            return;
+        }
+        Arrays.sort(children);
+        for (int i = 0; i < children.length; i++) {
+            final File child = children[i];
+            final String name = child.getName();
+            if (child.isDirectory()) {
+                this.addDirectory(child, prefix + name + File.separator);
+            } else if (isSvg(name)) {
+                this.files.addElement(new FileConversion(this, child, prefix
+                    + getBaseName(name)));
+            }
+        }
+    }
+
+    /**
+     * Returns the output name of a file which has the same output name as an
+     * earlier file, or null if there is none or nothing is written.
+     */
+    private String findDuplicateName() {
+        if (!this.isConverting()) {
+            return null;
+        }
+        final Hashtable names = new Hashtable();
+        for (int i = 0; i < this.files.size(); i++) {
+            final String name =
+                ((FileConversion) this.files.elementAt(i)).getName();
+            if (names.put(name, name) != null) {
+                return name;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts a file and reports it.
+     */
+    private void convertFile(int index) {
+        final FileConversion file =
+            (FileConversion) this.files.elementAt(index);
+        file.convert();
+        final PrintStream log = this.log;
+        synchronized (log) {
+            log.println(file.getSummary());
+        }
+    }
+
+    /**
+     * Returns whether a file name has the suffix of an SVG or SVGZ file.
+     */
+    private static boolean isSvg(String name) {
+        return (endsWithIgnoreCase(name, SVG_SUFFIX)
+            || endsWithIgnoreCase(name, SVGZ_SUFFIX));
+    }
+
+    /**
+     * Returns a file name without its SVG or SVGZ suffix, if it has one.
+     */
+    private static String getBaseName(String name) {
+        if (endsWithIgnoreCase(name, SVG_SUFFIX)) {
+            return name.substring(0, name.length() - SVG_SUFFIX.length());
+        } else if (endsWithIgnoreCase(name, SVGZ_SUFFIX)) {
+            return name.substring(0, name.length() - SVGZ_SUFFIX.length());
+        }
+        return name;
+    }
+
+    /**
+     * Returns whether a string ends with a suffix, ignoring case.
+     */
+    private static boolean endsWithIgnoreCase(String s, String suffix) {
+        final int length = suffix.length();
+        return s.regionMatches(true, s.length() - length, suffix, 0, length);
+    }
+
+    /**
+     * Parses a comma separated list of sizes.
+     *
+     * @throws IllegalArgumentException if a size is not a positive integer
+     */
+    private static int[] parseSizes(String s) {
+        int count = 1;
+        for (int i = s.indexOf(','); i >= 0; i = s.indexOf(',', i + 1)) {
+            count++;
+        }
+        final int[] sizes = new int[count];
+        int start = 0;
+        for (int i = 0; i < count; i++) {
+            int end = s.indexOf(',', start);
+            if (end < 0) {
+                end = s.length();
+            }
+            sizes[i] = parseInt(s.substring(start, end));
+            if (sizes[i] <= 0) {
+                throw new IllegalArgumentException("invalid size: "
+                    + sizes[i]);
+            }
+            start = end + 1;
+        }
+        return sizes;
+    }
+
+    /**
+     * Parses an integer argument.
+     *
+     * @throws IllegalArgumentException if s is not an integer
+     */
+    private static int parseInt(String s) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("not a number: " + s);
+        }
+    }
+
+    /**
+     * Converts a range of the files, splitting it in halves for other
+     * threads to steal until each half is a single file.
+     */
+    private class ConvertAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+
+        /**
+         * Creates a new instance of <code>ConvertAction</code>.
+         *
+         * @param start the index of the first file to convert
+         * @param end the index after that of the last file to convert
+         */
+        public ConvertAction(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        /**
+         * Converts the files, or splits them between two new actions.
+         */
+        protected void compute() {
+            if (this.end - this.start == 1) {
+                BatchConverter.this.convertFile(this.start);
+                return;
+            }
+            final int middle = (this.start + this.end) >>> 1;
+            invokeAll(new ConvertAction(this.start, middle),
+                new ConvertAction(middle, this.end));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * BenchmarkRunner.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.tools;
+
+import java.io.PrintStream;
+
+import denver.svgeditor.model.FreezeBenchmark;
+import denver.svgeditor.model.JournalBenchmark;
+import denver.svgeditor.model.SnapshotBenchmark;
+import denver.svgeditor.model.UndoBenchmark;
+import denver.svgeditor.render.DisplayListBenchmark;
+import denver.svgeditor.render.FixedPointBenchmark;
+import denver.svgeditor.render.SpatialIndexBenchmark;
+import denver.svgeditor.render.StyleBenchmark;
+import denver.svgeditor.render.TessellationBenchmark;
+
+/**
+ * A command-line tool which runs the application's benchmarks on a plain
+ * Java virtual machine, at the full sizes that would take too long on a
+ * device. The diagnostics menu of the application runs the same benchmarks
+ * at smaller sizes; the benchmarks that need the device, such as those of
+ * compression and of blitting bitmaps, are only run there.
+ * <p>
+ * Usage:
+ * <pre>
+ * java denver.svgeditor.tools.BenchmarkRunner [name...]
+ *
+ *   name        a benchmark to run: index, save, open, undo, freeze, style,
+ *               fixed-point, tessellation or display-list; all are run if
+ *               none is given
+ * </pre>
+ * The report of each benchmark is printed after its name. The exit status
+ * is 0 if every benchmark ran and 2 if a name is not recognized.
+ * <p>
+ * This class is compiled like {@link BatchConverter}.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * The exit status if the arguments are invalid.
+     */
+    public static final int EXIT_USAGE = 2;
+
+    /**
+     * The names of the benchmarks, in the order in which they are run.
+     */
+    private static final String[] NAMES = { "index", "save", "open", "undo",
+        "freeze", "style", "fixed-point", "tessellation", "display-list" };
+
+    private static final String USAGE = "usage: java "
+        + BenchmarkRunner.class.getName() + " [name...]";
+
+    private final PrintStream log;
+
+    /**
+     * Creates a new instance of <code>BenchmarkRunner</code>.
+     *
+     * @param log the stream to which to print the reports
+     * @throws NullPointerException if log==null
+     */
+    public BenchmarkRunner(PrintStream log) {
+        if (log == null) {
+            throw new NullPointerException("log==null");
+        }
+        this.log = log;
+    }
+
+    /**
+     * Runs the benchmarks named on the command line, or all of them.
+     *
+     * @param args the names described above
+     */
+    public static void main(String[] args) {
+        final String[] names = (args.length == 0) ? NAMES : args;
+        for (int i = 0; i < names.length; i++) {
+            if (indexOf(names[i]) < 0) {
+                System.err.println("unknown benchmark: " + names[i]);
+                System.err.println(USAGE);
+                System.exit(EXIT_USAGE);
+                return;
+            }
+        }
+        final BenchmarkRunner runner = new BenchmarkRunner(System.out);
+        for (int i = 0; i < names.length; i++) {
+            runner.run(names[i]);
+        }
+    }
+
+    /**
+     * Runs a benchmark and prints its report.
+     *
+     * @param name the name of the benchmark, as given on the command line
+     * @throws NullPointerException if name==null
+     * @throws IllegalArgumentException if name is not the name of a
+     * benchmark
+     */
+    public void run(String name) {
+        final String report;
+        switch (indexOf(name)) {
+        case 0:
+            report = SpatialIndexBenchmark.run(100000, 1000);
+            break;
+        case 1:
+            report = JournalBenchmark.run(10000, 20, 10);
+            break;
+        case 2:
+            report = SnapshotBenchmark.run(10000, 5);
+            break;
+        case 3:
+            report = UndoBenchmark.run(10000, 1000);
+            break;
+        case 4:
+            report = FreezeBenchmark.run(100000, 100);
+            break;
+        case 5:
+            report = StyleBenchmark.run(10000, 200);
+            break;
+        case 6:
+            report = FixedPointBenchmark.run(1000, 5);
+            break;
+        case 7:
+            report = TessellationBenchmark.run(300);
+            break;
+        case 8:
+            report = DisplayListBenchmark.run(600);
+            break;
+        default:
+            throw new IllegalArgumentException("invalid name: " + name);
+        }
+        this.log.println(name + ":");
+        this.log.println(report);
+    }
+
+    /**
+     * Returns the index of a benchmark in {@link #NAMES}, or -1 if there is
+     * none of that name.
+     */
+    private static int indexOf(String name) {
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        if (name == null) {
+            throw new NullPointerException("name==null");
+        }
+        return -1;
+    }
+}
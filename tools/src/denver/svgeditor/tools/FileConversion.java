@@ -0,0 +1,345 @@
+/*
+ * FileConversion.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.tools;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.imageio.ImageIO;
+
+import denver.svgeditor.model.ElementKind;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+import denver.svgeditor.model.SVGDocumentWriter;
+import denver.svgeditor.render.IconRasterizer;
+import denver.svgeditor.render.RasterSurface;
+import denver.svgeditor.svg.ParseStats;
+import denver.svgeditor.svg.SVGParseException;
+import denver.svgeditor.svg.SVGParser;
+
+/**
+ * The conversion of one file by a {@link BatchConverter}: the file is parsed
+ * into an {@link SVGDocument}, checked to have an <code>svg</code> root
+ * element, and then written in each of the formats that the converter is set
+ * to write, recording the time taken and the bytes read and written.
+ * <p>
+ * Each conversion parses and renders with objects of its own, so different
+ * files can be converted on different threads at once. An instance of this
+ * class is itself not thread-safe, and is converted only once.
+ */
+public class FileConversion {
+
+    private final BatchConverter converter;
+    private final File source;
+    private final String name;
+
+    private boolean succeeded;
+    private String error;
+    private int outputs;
+    private long bytes;
+    private long bytesWritten;
+    private int elements;
+    private long parseMillis;
+    private long renderMillis;
+    private long writeMillis;
+    private long elapsedMillis;
+
+    /**
+     * Creates a new instance of <code>FileConversion</code>.
+     *
+     * @param converter the converter whose settings give the formats to
+     * write
+     * @param source the SVG or SVGZ file to convert
+     * @param name the relative path, without a suffix, of the files to
+     * write within the output directory of the converter
+     * @throws NullPointerException if converter==null, source==null or
+     * name==null
+     */
+    public FileConversion(BatchConverter converter, File source, String name) {
+        if (converter == null) {
+            throw new NullPointerException("converter==null");
+        } else if (source == null) {
+            throw new NullPointerException("source==null");
+        } else if (name == null) {
+            throw new NullPointerException("name==null");
+        }
+        this.converter = converter;
+        this.source = source;
+        this.name = name;
+    }
+
+    /**
+     * Returns the file converted.
+     *
+     * @return the SVG or SVGZ file; never returns null
+     */
+    public File getSource() {
+        return this.source;
+    }
+
+    /**
+     * Returns the name of the files written.
+     *
+     * @return the relative path, without a suffix, of the files written
+     * within the output directory; never returns null
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * Parses, validates and writes the file. A failure is recorded rather
+     * than thrown, so that one bad file does not stop the batch; any files
+     * already written for it are left in place.
+     *
+     * @return true if the file was converted, false if it failed
+     */
+    public boolean convert() {
+        final long start = System.currentTimeMillis();
+        try {
+            final SVGDocument document = this.parse();
+            this.writePngs(document);
+            if (this.converter.isMinifiedSvg()) {
+                this.writeSvg(document, BatchConverter.SVG_SUFFIX);
+            }
+            if (this.converter.isCompressedSvg()) {
+                this.writeSvg(document, BatchConverter.SVGZ_SUFFIX);
+            }
+            this.succeeded = true;
+        } catch (final IOException e) {
+            this.error = "I/O error: " + e.getMessage();
+        } catch (final SVGParseException e) {
+            this.error = "invalid: " + e.getMessage();
+        } catch (final RuntimeException e) {
+            this.error = "failed: " + e;
+        }
+        this.elapsedMillis = System.currentTimeMillis() - start;
+        return this.succeeded;
+    }
+
+    /**
+     * Returns whether the file was converted.
+     *
+     * @return true if the file was converted, false if it failed or has not
+     * been converted
+     */
+    public boolean isSucceeded() {
+        return this.succeeded;
+    }
+
+    /**
+     * Returns the reason that the file could not be converted.
+     *
+     * @return the reason, or null if it has not failed
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    /**
+     * Returns the number of files written.
+     *
+     * @return the number of images and SVG files written
+     */
+    public int getOutputs() {
+        return this.outputs;
+    }
+
+    /**
+     * Returns the number of bytes of SVG text parsed.
+     *
+     * @return the number of bytes, after decompression
+     */
+    public long getBytes() {
+        return this.bytes;
+    }
+
+    /**
+     * Returns the number of bytes written.
+     *
+     * @return the total size of the files written
+     */
+    public long getBytesWritten() {
+        return this.bytesWritten;
+    }
+
+    /**
+     * Returns the number of elements parsed.
+     *
+     * @return the number of elements
+     */
+    public int getElements() {
+        return this.elements;
+    }
+
+    /**
+     * Returns the time taken to convert the file.
+     *
+     * @return the time, in milliseconds
+     */
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    /**
+     * Returns a one-line summary of the conversion.
+     *
+     * @return a summary such as "icons/open.svg: 5120 bytes, 48 elements in
+     * 14 ms (parse 3, render 9, write 2), 3 outputs of 2310 bytes"; never
+     * returns null
+     */
+    public String getSummary() {
+        if (!this.succeeded) {
+            return this.source + ": " + this.error;
+        }
+        return this.source + ": " + this.bytes + " bytes, " + this.elements
+            + " elements in " + this.elapsedMillis + " ms (parse "
+            + this.parseMillis + ", render " + this.renderMillis + ", write "
+            + this.writeMillis + "), " + this.outputs + " outputs of "
+            + this.bytesWritten + " bytes";
+    }
+
+    /**
+     * Parses the file and checks that its root element is an
+     * <code>svg</code> element.
+     */
+    private SVGDocument parse() throws IOException, SVGParseException {
+        final long start = System.currentTimeMillis();
+        final SVGDocument document = new SVGDocument();
+        InputStream in = null;
+        try {
+            in = new BufferedInputStream(new FileInputStream(this.source));
+            if (BatchConverter.isCompressed(this.source.getName())) {
+                in = new GZIPInputStream(in);
+            }
+            final SVGParser parser =
+                new SVGParser(in, new SVGDocumentBuilder(document), document
+                    .getNameTable());
+            parser.parseAll();
+            final ParseStats stats = parser.getStats();
+            this.bytes = stats.getBytes();
+            this.elements = stats.getElements();
+        } finally {
+            if (in != null) {
+                in.close();
+            }
+        }
+        final int root = document.getRoot();
+        if (root == SVGDocument.NONE) {
+            throw new SVGParseException("no root element", -1);
+        } else if (document.getKind(root) != ElementKind.SVG) {
+            throw new SVGParseException("root element is not svg", -1);
+        }
+        this.parseMillis = System.currentTimeMillis() - start;
+        return document;
+    }
+
+    /**
+     * Renders the document into a PNG image of each size.
+     */
+    private void writePngs(SVGDocument document) throws IOException {
+        final int[] sizes = this.converter.getPngSizes();
+        if (sizes.length == 0) {
+            return;
+        }
+        final IconRasterizer rasterizer = new IconRasterizer();
+        for (int i = 0; i < sizes.length; i++) {
+            final int size = sizes[i];
+            final RasterSurface surface = rasterizer.rasterize(document, size);
+            this.renderMillis += rasterizer.getRenderMillis();
+
+            final long start = System.currentTimeMillis();
+            final BufferedImage image =
+                new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, size, size, surface.getPixels(), 0, size);
+            final File file =
+                this.getOutputFile("-" + size + BatchConverter.PNG_SUFFIX);
+            if (!ImageIO.write(image, "png", file)) {
+                throw new IOException("no PNG encoder");
+            }
+            this.wrote(file, start);
+        }
+    }
+
+    /**
+     * Writes the document as minified SVG, compressed if the suffix is that
+     * of a compressed file.
+     */
+    private void writeSvg(SVGDocument document, String suffix)
+            throws IOException {
+        final long start = System.currentTimeMillis();
+        final File file = this.getOutputFile(suffix);
+        OutputStream out = null;
+        try {
+            out = new BufferedOutputStream(new FileOutputStream(file));
+            if (BatchConverter.isCompressed(suffix)) {
+                out = new GZIPOutputStream(out);
+            }
+            SVGDocumentWriter.write(document, out, true);
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+        }
+        this.wrote(file, start);
+    }
+
+    /**
+     * Returns the output file with a suffix, creating its directory.
+     *
+     * @throws IOException if the directory cannot be created or the file is
+     * the file being converted
+     */
+    private File getOutputFile(String suffix) throws IOException {
+        final File file =
+            new File(this.converter.getOutputDirectory(), this.name + suffix);
+        final File directory = file.getParentFile();
+        if (directory != null && !directory.isDirectory()
+            && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        } else if (file.getCanonicalFile().equals(
+            this.source.getCanonicalFile())) {
+            throw new IOException("would overwrite itself");
+        }
+        return file;
+    }
+
+    /**
+     * Records a file written.
+     */
+    private void wrote(File file, long start) {
+        this.writeMillis += System.currentTimeMillis() - start;
+        this.bytesWritten += file.length();
+        this.outputs++;
+    }
+}
@@ -0,0 +1,681 @@
+/*
+ * RoundTripCheck.java
+ * By: Denver Coneybeare <denver.coneybeare@gmail.com>
+ * Oct 17, 2026
+ *
+ * Copyright 2026 Denver Coneybeare
+ *
+ * This file is part of SVGEditor.
+ * 
+ * SVGEditor is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * SVGEditor is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with SVGEditor.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ */
+package denver.svgeditor.tools;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import denver.svgeditor.model.DocumentJournal;
+import denver.svgeditor.model.SVGDocument;
+import denver.svgeditor.model.SVGDocumentBuilder;
+import denver.svgeditor.model.SVGDocumentWriter;
+import denver.svgeditor.render.IconRasterizer;
+import denver.svgeditor.render.ImageComparison;
+import denver.svgeditor.render.RasterSurface;
+import denver.svgeditor.svg.NameTable;
+import denver.svgeditor.svg.NumberFormatter;
+import denver.svgeditor.svg.SVGHandler;
+import denver.svgeditor.svg.SVGParseException;
+import denver.svgeditor.svg.SVGParser;
+
+/**
+ * A command-line check which parses and writes small SVG documents on a
+ * plain Java virtual machine and compares the results with those expected,
+ * so that regressions in the parser and writer fail a build rather than
+ * being found on a device. It also renders the application's icons and
+ * compares them with their golden images, as the raster regression of the
+ * diagnostics menu does on a device, so that regressions in the rasterizer
+ * fail a build too. A line is printed for each case that fails, followed by
+ * the number of cases run; the exit status is 0 if every case passed and 1
+ * otherwise.
+ * <p>
+ * Usage:
+ * <pre>
+ * java denver.svgeditor.tools.RoundTripCheck [resources]
+ *
+ *   resources   the directory of the application's resources, which holds
+ *               the icons and the golden directory of their images; the
+ *               default is res
+ * </pre>
+ * <p>
+ * This class is compiled like {@link BatchConverter}.
+ */
+public class RoundTripCheck {
+
+    /**
+     * The exit status if any case failed.
+     */
+    public static final int EXIT_FAILED = 1;
+
+    /**
+     * The directory of the application's resources if none is given.
+     */
+    public static final String DEFAULT_RESOURCES = "res";
+
+    /**
+     * The directory of the golden images within the resources. Each is named
+     * after its icon and its size, such as <code>document-new-48.png</code>
+     * for <code>document-new.svg</code> rendered at 48 pixels.
+     */
+    private static final String GOLDEN_DIRECTORY = "golden";
+
+    private final PrintStream log;
+    private final File resources;
+    private int cases;
+    private int failures;
+
+    /**
+     * Creates a new instance of <code>RoundTripCheck</code>.
+     *
+     * @param log the stream to which to report the cases that fail
+     * @param resources the directory of the application's resources
+     * @throws NullPointerException if log==null or resources==null
+     */
+    public RoundTripCheck(PrintStream log, File resources) {
+        if (log == null) {
+            throw new NullPointerException("log==null");
+        } else if (resources == null) {
+            throw new NullPointerException("resources==null");
+        }
+        this.log = log;
+        this.resources = resources;
+    }
+
+    /**
+     * Runs every case, then exits with a status which reports whether any
+     * failed.
+     *
+     * @param args the optional directory of resources described above
+     */
+    public static void main(String[] args) {
+        final File resources =
+            new File((args.length > 0) ? args[0] : DEFAULT_RESOURCES);
+        if (!new RoundTripCheck(System.out, resources).run()) {
+            System.exit(EXIT_FAILED);
+        }
+    }
+
+    /**
+     * Runs every case, reporting those that fail.
+     *
+     * @return true if every case passed
+     */
+    public boolean run() {
+        this.checkSupplementaryCharacters();
+        this.checkCharacterReferences();
+        this.checkAttributeValues();
+        this.checkUtf8Output();
+        this.checkNumbers();
+        this.checkMixedContent();
+        this.checkGoldenImages();
+        this.log.println(this.cases + " cases, " + this.failures
+            + " failed");
+        return (this.failures == 0);
+    }
+
+    /**
+     * Checks that characters outside the Basic Multilingual Plane survive
+     * parsing wherever they appear, including first in a text run or an
+     * attribute value, where the tokenizer pushes back the character that
+     * ended the preceding markup.
+     */
+    private void checkSupplementaryCharacters() {
+        final String face = "\uD83D\uDE00";
+        this.checkParse("supplementary character alone in text",
+            "<svg><text>" + face + "</text></svg>",
+            "<svg><text>'" + face + "'</text></svg>");
+        this.checkParse("supplementary character first in text",
+            "<svg><text>" + face + "a" + face + "</text></svg>",
+            "<svg><text>'" + face + "a" + face + "'</text></svg>");
+        this.checkParse("supplementary character after an element",
+            "<svg><text><tspan/>" + face + "</text></svg>",
+            "<svg><text><tspan></tspan>'" + face + "'</text></svg>");
+        this.checkParse("supplementary character first in a value",
+            "<svg><text id=\"" + face + "\" class='" + face + "b'/></svg>",
+            "<svg><text id=\"" + face + "\" class=\"" + face
+                + "b\"></text></svg>");
+    }
+
+    /**
+     * Checks that character references denote only Unicode scalar values,
+     * and that those that do not are left as they are, that a byte which
+     * does not continue a UTF-8 sequence is read as the next character, and
+     * that overlong sequences and encoded surrogates are read as U+FFFD.
+     */
+    private void checkCharacterReferences() {
+        this.checkParse("invalid character references",
+            "<svg><text>&#;&#x;&#0;&#x110000;&#xD800;</text></svg>",
+            "<svg><text>'&#;&#x;&#0;&#x110000;&#xD800;'</text></svg>");
+        this.checkParse("valid character references",
+            "<svg><text>&#65;&#x42;&#x10FFFF;</text></svg>",
+            "<svg><text>'AB\uDBFF\uDFFF'</text></svg>");
+        this.checkParse("truncated UTF-8 sequence before markup",
+            new byte[] { '<', 's', 'v', 'g', '>', (byte) 0xC3, '<', 'g',
+                '/', '>', '<', '/', 's', 'v', 'g', '>' },
+            "<svg>'\uFFFD'<g></g></svg>");
+        this.checkParse("UTF-8 sequence beyond U+10FFFF",
+            new byte[] { '<', 's', 'v', 'g', '>', (byte) 0xF4, (byte) 0x90,
+                (byte) 0x80, (byte) 0x80, '<', '/', 's', 'v', 'g', '>' },
+            "<svg>'\uFFFD'</svg>");
+        this.checkParse("overlong two-byte UTF-8 sequence",
+            new byte[] { '<', 's', 'v', 'g', '>', (byte) 0xC0, (byte) 0xAF,
+                '<', '/', 's', 'v', 'g', '>' },
+            "<svg>'\uFFFD'</svg>");
+        this.checkParse("overlong three-byte UTF-8 sequence",
+            new byte[] { '<', 's', 'v', 'g', '>', (byte) 0xE0, (byte) 0x80,
+                (byte) 0xAF, '<', '/', 's', 'v', 'g', '>' },
+            "<svg>'\uFFFD'</svg>");
+        this.checkParse("overlong four-byte UTF-8 sequence",
+            new byte[] { '<', 's', 'v', 'g', '>', (byte) 0xF0, (byte) 0x8F,
+                (byte) 0xBF, (byte) 0xBF, '<', '/', 's', 'v', 'g', '>' },
+            "<svg>'\uFFFD'</svg>");
+        this.checkParse("surrogate encoded as UTF-8",
+            new byte[] { '<', 's', 'v', 'g', '>', (byte) 0xED, (byte) 0xA0,
+                (byte) 0x80, '<', '/', 's', 'v', 'g', '>' },
+            "<svg>'\uFFFD'</svg>");
+    }
+
+    /**
+     * Checks that line ends in attribute values are normalized before the
+     * values are, so that \r\n becomes a single space, and that a literal
+     * '&lt;' in a value and a repeated attribute name are rejected.
+     */
+    private void checkAttributeValues() {
+        this.checkParse("line ends in a value",
+            "<svg id=\"a\r\nb\rc\nd\te\r\r\nf\"/>",
+            "<svg id=\"a b c d e  f\"></svg>");
+        this.checkParse("escaped line ends in a value",
+            "<svg id=\"a&#13;&#10;b\"/>", "<svg id=\"a\r\nb\"></svg>");
+        this.checkRejected("'<' in a value", "<svg id=\"a<b\"/>");
+        this.checkRejected("duplicate attribute",
+            "<svg><g id=\"a\" x=\"1\" id=\"b\"/></svg>");
+        this.checkParse("same attribute on different elements",
+            "<svg id=\"a\"><g id=\"b\"/></svg>",
+            "<svg id=\"a\"><g id=\"b\"></g></svg>");
+    }
+
+    /**
+     * Checks that the writer's output is well-formed UTF-8, with surrogate
+     * pairs encoded as four-byte sequences and unpaired surrogates, which
+     * have no encoding, written as U+FFFD; the parser leaves references to
+     * surrogates as they are, so they cannot be used instead.
+     */
+    private void checkUtf8Output() {
+        final String face = "\uD83D\uDE00";
+        this.checkRoundTrip("surrogate pair in text and a value",
+            "<svg><text id=\"" + face + "\">a" + face + "</text></svg>",
+            "<svg><text id=\"" + face + "\">'a" + face + "'</text></svg>");
+        this.checkRoundTrip("surrogate pair last in a value",
+            "<svg><text id=\"a" + face + "\"/></svg>",
+            "<svg><text id=\"a" + face + "\"></text></svg>");
+        this.checkUnpairedSurrogates();
+    }
+
+    /**
+     * Checks that unpaired surrogates set on a document, which the parser
+     * never produces, are written as U+FFFD.
+     */
+    private void checkUnpairedSurrogates() {
+        final String name = "unpaired surrogates";
+        try {
+            final SVGDocument document = parse(encode("<svg><text/></svg>"));
+            final int text = document.getFirstChild(document.getRoot());
+            document.setAttribute(text, "id", "\uD83D");
+            document.setText(text, "\uDE00a\uD83D");
+            this.checkParse(name, write(document),
+                "<svg><text id=\"\uFFFD\">'\uFFFDa\uFFFD'</text></svg>");
+        } catch (final IOException e) {
+            this.fail(name, e.toString());
+        } catch (final SVGParseException e) {
+            this.fail(name, e.toString());
+        }
+    }
+
+    /**
+     * Checks that numbers keep {@link NumberFormatter#FLOAT_DIGITS}
+     * significant digits however small or large they are, unless a number
+     * of fraction digits is given, and survive a save.
+     */
+    private void checkNumbers() {
+        final int all = NumberFormatter.ALL_FRACTION_DIGITS;
+        this.checkNumber(0, all, false, "0");
+        this.checkNumber(1e-7f, all, false, "1e-7");
+        this.checkNumber(0.0000015f, all, false, "1.5e-6");
+        this.checkNumber(-0.0001f, all, false, "-0.0001");
+        this.checkNumber(0.00012345678f, all, false, "0.0001234568");
+        this.checkNumber(0.5f, all, true, ".5");
+        this.checkNumber(123.456f, all, false, "123.456");
+        this.checkNumber(1234567.8f, all, false, "1234568");
+        this.checkNumber(123456789f, all, false, "123456800");
+        this.checkNumber(1e9f, all, false, "1e9");
+        this.checkNumber(-3.4028235e38f, all, false, "-3.402823e38");
+        this.checkNumber(1.4e-45f, all, false, "1.401298e-45");
+        this.checkNumber(0.0000015f, 3, true, "0");
+        this.checkNumber(0.0006f, 3, true, ".001");
+        this.checkNumber(-2.71828f, 3, true, "-2.718");
+
+        // every float keeps 7 significant digits when written and read
+        final Random random = new Random(1);
+        int worst = 0;
+        for (int i = 0; i < 100000 && worst == 0; i++) {
+            final float value = Float.intBitsToFloat(random.nextInt());
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                continue;
+            }
+            final String text = NumberFormatter.toString(value);
+            final double read = Double.parseDouble(text);
+            if (Math.abs(read - value) > Math.abs(value) * 5.01e-7) {
+                worst = 1;
+                this.fail("7 significant digits", value + " written as "
+                    + text);
+            }
+        }
+        if (worst == 0) {
+            this.cases++;
+        }
+
+        this.checkRoundTrip("small numbers in a save",
+            "<svg><circle cx=\"1e-7\" r=\"0.0000015\" cy=\"1E-3\"/></svg>",
+            "<svg><circle cx=\"1e-7\" r=\"1.5e-6\" cy=\"0.001\">"
+                + "</circle></svg>");
+        this.checkRoundTrip("small numbers in path data",
+            "<svg><path d=\"M1e-7 0.0000015L2e-5-3e-8\"/></svg>",
+            "<svg><path d=\"M1e-7 1.5e-6 2e-5-3e-8\"></path></svg>");
+    }
+
+    /**
+     * Checks that text keeps its place among the children of its element
+     * when the document is saved, when its edits are replayed from a journal
+     * and when it is copied in document order.
+     */
+    private void checkMixedContent() {
+        final String svg =
+            "<svg><text>Hello <tspan>world</tspan>!</text></svg>";
+        this.checkRoundTrip("text between elements", svg,
+            "<svg><text>'Hello '<tspan>'world'</tspan>'!'</text></svg>");
+        this.checkRoundTrip("text split by a comment",
+            "<svg><text>a<!-- b -->c<tspan/>d</text></svg>",
+            "<svg><text>'ac'<tspan></tspan>'d'</text></svg>");
+
+        final String name = "text edits";
+        try {
+            final SVGDocument document = parse(encode(svg));
+            final DocumentJournal journal = new DocumentJournal();
+            journal.attach(document);
+            final int text = document.getFirstChild(document.getRoot());
+            final int tspan =
+                document.getNextSibling(document.getFirstChild(text));
+            document.setText(tspan, "there");
+            final char[] bye = " Bye".toCharArray();
+            document.appendText(text, bye, 0, bye.length);
+            final int last = document.createElement(text, "tspan");
+            document.appendText(last, bye, 1, 3);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            DocumentJournal.writeHeader(out, 0, 0);
+            out.write(journal.takePending());
+            final SVGDocument replayed = parse(encode(svg));
+            new DocumentJournal().replay(new ByteArrayInputStream(out
+                .toByteArray()), replayed, 0, 0);
+            final String expected = "<svg><text>'Hello '<tspan>'there'"
+                + "</tspan>'! Bye'<tspan>'Bye'</tspan></text></svg>";
+            this.checkParse(name, write(document), expected);
+            this.checkParse(name + " replayed from a journal",
+                write(replayed), expected);
+
+            // removing the first tspan leaves two adjacent runs of text,
+            // which a parser would join
+            document.removeElement(tspan);
+            this.check("adjacent text in document order", "false", String
+                .valueOf(DocumentJournal.isInDocumentOrder(document)));
+            final SVGDocument copy =
+                DocumentJournal.copyInDocumentOrder(document);
+            this.check("adjacent text copied in document order", "true",
+                String.valueOf(DocumentJournal.isInDocumentOrder(copy)));
+            this.checkParse("adjacent text copied", write(copy),
+                "<svg><text>'Hello ! Bye'<tspan>'Bye'</tspan></text></svg>");
+        } catch (final IOException e) {
+            this.fail(name, e.toString());
+        } catch (final SVGParseException e) {
+            this.fail(name, e.toString());
+        }
+    }
+
+    /**
+     * Renders each icon that has a golden image at the size of the image and
+     * compares the rendering with it, allowing
+     * {@link ImageComparison#DEFAULT_TOLERANCE} in each channel. Finding no
+     * golden images fails, so that a wrong resource directory cannot pass.
+     */
+    private void checkGoldenImages() {
+        final File directory = new File(this.resources, GOLDEN_DIRECTORY);
+        final String[] names = directory.list();
+        int checked = 0;
+        if (names != null) {
+            Arrays.sort(names);
+            final IconRasterizer rasterizer = new IconRasterizer();
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].endsWith(".png")) {
+                    this.checkGoldenImage(rasterizer, directory, names[i]);
+                    checked++;
+                }
+            }
+        }
+        if (checked == 0) {
+            this.fail("golden images", "none found in " + directory);
+        }
+    }
+
+    /**
+     * Renders an icon and compares it with a golden image.
+     */
+    private void checkGoldenImage(IconRasterizer rasterizer, File directory,
+            String name) {
+        final String caseName = "golden image " + name;
+        final String base = name.substring(0, name.length() - 4);
+        final int dash = base.lastIndexOf('-');
+        final int size;
+        try {
+            size = Integer.parseInt(base.substring(dash + 1));
+        } catch (final NumberFormatException e) {
+            this.fail(caseName, "name does not end with the size");
+            return;
+        }
+        final File icon = new File(this.resources, base.substring(0, dash)
+            + ".svg");
+
+        final BufferedImage image;
+        final RasterSurface surface;
+        InputStream in = null;
+        try {
+            image = ImageIO.read(new File(directory, name));
+            in = new FileInputStream(icon);
+            surface = rasterizer.rasterize(in, size);
+        } catch (final IOException e) {
+            this.fail(caseName, e.toString());
+            return;
+        } catch (final SVGParseException e) {
+            this.fail(caseName, icon + ": " + e);
+            return;
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (final IOException e) {
+                    // the icon has been read
+                }
+            }
+        }
+        if (image == null || image.getWidth() != size
+            || image.getHeight() != size) {
+            this.fail(caseName, "not a PNG image of " + size + " pixels");
+            return;
+        }
+
+        final int[] expected =
+            image.getRGB(0, 0, size, size, null, 0, size);
+        final ImageComparison comparison =
+            new ImageComparison(expected, surface.getPixels(),
+                ImageComparison.DEFAULT_TOLERANCE);
+        if (comparison.matches()) {
+            this.cases++;
+        } else {
+            this.fail(caseName, comparison.appendTo(new StringBuffer())
+                .toString());
+        }
+    }
+
+    /**
+     * Formats a number and compares the text with that expected.
+     */
+    private void checkNumber(float value, int maxFractionDigits,
+            boolean omitLeadingZero, String expected) {
+        this.check("format " + value + " to " + maxFractionDigits
+            + " fraction digits", expected, NumberFormatter.append(
+            new StringBuffer(), value, maxFractionDigits, omitLeadingZero)
+            .toString());
+    }
+
+    /**
+     * Parses a document into an {@link SVGDocument}, writes it, checks that
+     * the text written is well-formed UTF-8, and compares the events
+     * reported when parsing it again with those expected.
+     */
+    private void checkRoundTrip(String name, String svg, String expected) {
+        final byte[] written;
+        try {
+            written = write(parse(encode(svg)));
+        } catch (final IOException e) {
+            this.fail(name, e.toString());
+            return;
+        } catch (final SVGParseException e) {
+            this.fail(name, e.toString());
+            return;
+        }
+        try {
+            Charset.forName("UTF-8").newDecoder().onMalformedInput(
+                CodingErrorAction.REPORT).onUnmappableCharacter(
+                CodingErrorAction.REPORT).decode(ByteBuffer.wrap(written));
+        } catch (final CharacterCodingException e) {
+            this.fail(name, "written text is not UTF-8: " + e);
+            return;
+        }
+        this.checkParse(name, written, expected);
+    }
+
+    /**
+     * Parses a document and compares the events reported with those
+     * expected, in the form written by {@link Trace}.
+     */
+    private void checkParse(String name, String svg, String expected) {
+        this.checkParse(name, encode(svg), expected);
+    }
+
+    /**
+     * Parses a document and compares the events reported with those
+     * expected, in the form written by {@link Trace}.
+     */
+    private void checkParse(String name, byte[] svg, String expected) {
+        final Trace trace = new Trace();
+        try {
+            new SVGParser(new ByteArrayInputStream(svg), trace,
+                new NameTable()).parseAll();
+        } catch (final IOException e) {
+            this.fail(name, e.toString());
+            return;
+        } catch (final SVGParseException e) {
+            this.fail(name, e.toString());
+            return;
+        }
+        this.check(name, expected, trace.toString());
+    }
+
+    /**
+     * Parses a document which is not well-formed and checks that the parser
+     * rejects it.
+     */
+    private void checkRejected(String name, String svg) {
+        try {
+            new SVGParser(new ByteArrayInputStream(encode(svg)), new Trace(),
+                new NameTable()).parseAll();
+        } catch (final IOException e) {
+            this.fail(name, e.toString());
+            return;
+        } catch (final SVGParseException e) {
+            this.cases++;
+            return;
+        }
+        this.fail(name, "expected a parse error");
+    }
+
+    /**
+     * Records the result of a case that compares two strings.
+     */
+    private void check(String name, String expected, String actual) {
+        if (expected.equals(actual)) {
+            this.cases++;
+        } else {
+            this.fail(name, "expected " + escape(expected) + " but got "
+                + escape(actual));
+        }
+    }
+
+    /**
+     * Records a case that failed.
+     */
+    private void fail(String name, String message) {
+        this.cases++;
+        this.failures++;
+        this.log.println("FAILED " + name + ": " + message);
+    }
+
+    /**
+     * Parses a document into an {@link SVGDocument}.
+     */
+    private static SVGDocument parse(byte[] svg) throws IOException,
+            SVGParseException {
+        final SVGDocument document = new SVGDocument();
+        new SVGParser(new ByteArrayInputStream(svg), new SVGDocumentBuilder(
+            document), document.getNameTable()).parseAll();
+        return document;
+    }
+
+    /**
+     * Writes an {@link SVGDocument}.
+     */
+    private static byte[] write(SVGDocument document) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SVGDocumentWriter.write(document, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encodes a string as UTF-8.
+     */
+    private static byte[] encode(String s) {
+        try {
+            return s.getBytes("UTF-8");
+        } catch (final UnsupportedEncodingException e) {
+            throw new RuntimeException(e.toString());
+        }
+    }
+
+    /**
+     * Returns a string with the characters outside printable ASCII written
+     * as Java escapes, so that lone surrogates can be seen.
+     */
+    private static String escape(String s) {
+        final StringBuffer sb = new StringBuffer();
+        for (int i = 0; i < s.length(); i++) {
+            final char c = s.charAt(i);
+            if (c >= ' ' && c < 0x7F) {
+                sb.append(c);
+            } else {
+                final String hex = Integer.toHexString(c);
+                sb.append("\\u");
+                for (int j = hex.length(); j < 4; j++) {
+                    sb.append('0');
+                }
+                sb.append(hex);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * A handler which writes the events it receives as markup: each element
+     * with its attributes, quoted with double quotes, and each run of text
+     * in single quotes, with adjacent runs joined.
+     */
+    private static class Trace implements SVGHandler {
+
+        private final StringBuffer events = new StringBuffer();
+        private boolean inTag;
+        private boolean inText;
+
+        public void startElement(String name) {
+            this.endText();
+            this.endTag();
+            this.events.append('<').append(name);
+            this.inTag = true;
+        }
+
+        public void attribute(String name, char[] value, int offset,
+                int length) {
+            this.events.append(' ').append(name).append("=\"").append(value,
+                offset, length).append('"');
+        }
+
+        public void endElement(String name) {
+            this.endText();
+            this.endTag();
+            this.events.append("</").append(name).append('>');
+        }
+
+        public void text(char[] text, int offset, int length) {
+            this.endTag();
+            if (!this.inText) {
+                this.events.append('\'');
+                this.inText = true;
+            }
+            this.events.append(text, offset, length);
+        }
+
+        public void endDocument() {
+            this.endText();
+        }
+
+        public String toString() {
+            return this.events.toString();
+        }
+
+        private void endTag() {
+            if (this.inTag) {
+                this.events.append('>');
+                this.inTag = false;
+            }
+        }
+
+        private void endText() {
+            if (this.inText) {
+                this.events.append('\'');
+                this.inText = false;
+            }
+        }
+    }
+}